@@ -0,0 +1,28 @@
+/*
+ * 2026-10-18 agent
+ *  Created. Contains the main() method for running the simulation without
+ *  graphics and only creates a pregame.HeadlessSimulation object and uses it.
+ */
+
+import pregame.HeadlessSimulation;
+
+/**
+ * This class is called by the user to run the simulation without any
+ * graphics, for example on a server. It only functions as a wrapper for
+ * HeadlessSimulation.
+ */
+public class TurtleIslandHeadless {
+
+	/**
+	 * The main function, started by the user. Runs the simulation headless
+	 * with the given arguments.
+	 *
+	 * @param args command line input from the user, see HeadlessSimulation.
+	 */
+	public static void main(String[] args) throws Exception {
+		System.setProperty("java.awt.headless", "true");
+		HeadlessSimulation headlessSimulation = new HeadlessSimulation(args);
+		headlessSimulation.start();
+	}
+
+}
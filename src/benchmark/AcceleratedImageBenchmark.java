@@ -0,0 +1,124 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import graphicsengine.AcceleratedImage;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Benchmarks drawing parts of images the way a Bar draws its value, a
+ * number of bars of growing width per operation, either from sub images the
+ * way Sprite used to, or through an AcceleratedImage with volatile images
+ * disabled or enabled. The bars are drawn to an image in memory, so the
+ * volatile images are not in video memory here, and the benchmark mostly
+ * shows the cost of creating the sub images.
+ */
+class AcceleratedImageBenchmark extends Benchmark {
+
+	/**
+	 * Draws from sub images.
+	 */
+	static final String SUBIMAGE = "subimage";
+
+	/**
+	 * Draws through an AcceleratedImage with volatile images disabled.
+	 */
+	static final String MANAGED = "managed";
+
+	/**
+	 * Draws through an AcceleratedImage with volatile images enabled.
+	 */
+	static final String VOLATILE = "volatile";
+
+	/**
+	 * The number of bars drawn per operation.
+	 */
+	private static final int BARS = 64;
+
+	/**
+	 * The width of a bar image.
+	 */
+	private static final int BAR_WIDTH = 200;
+
+	/**
+	 * The height of a bar image.
+	 */
+	private static final int BAR_HEIGHT = 12;
+
+	/**
+	 * SUBIMAGE, MANAGED or VOLATILE.
+	 */
+	private String mode;
+
+	/**
+	 * The image of the bars.
+	 */
+	private BufferedImage barImage;
+
+	/**
+	 * Draws barImage.
+	 */
+	private AcceleratedImage acceleratedImage;
+
+	/**
+	 * The image that is drawn on.
+	 */
+	private BufferedImage screen;
+
+	/**
+	 * The graphics of the screen image.
+	 */
+	private Graphics2D graphics;
+
+	/**
+	 * Constructs the benchmark.
+	 *
+	 * @param mode SUBIMAGE, MANAGED or VOLATILE.
+	 */
+	AcceleratedImageBenchmark(String mode) {
+		super("AcceleratedImage.draw");
+		this.mode = mode;
+		setParameter("mode", mode);
+	}
+
+	public void setUp() {
+		barImage = new BufferedImage(BAR_WIDTH, BAR_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < BAR_HEIGHT; y++) {
+			for (int x = 0; x < BAR_WIDTH; x++) {
+				barImage.setRGB(x, y, 0xff000000 | (x << 16) | (255 - x));
+			}
+		}
+		acceleratedImage = new AcceleratedImage(barImage);
+		AcceleratedImage.setEnabled(mode == VOLATILE);
+		screen = new BufferedImage(BAR_WIDTH, BARS * BAR_HEIGHT, BufferedImage.TYPE_INT_RGB);
+		graphics = screen.createGraphics();
+	}
+
+	public void run() {
+		for (int i = 0; i < BARS; i++) {
+			int width = 1 + i * (BAR_WIDTH - 1) / BARS;
+			if (mode == SUBIMAGE) {
+				graphics.drawImage(barImage.getSubimage(0, 0, width, BAR_HEIGHT),
+						0, i * BAR_HEIGHT, null);
+			} else {
+				acceleratedImage.draw(graphics, 0, i * BAR_HEIGHT,
+						0, 0, width, BAR_HEIGHT);
+			}
+		}
+		consume(screen.getRGB(BAR_WIDTH / 2, BARS * BAR_HEIGHT - 1));
+	}
+
+	public void tearDown() {
+		graphics.dispose();
+		graphics = null;
+		screen = null;
+		acceleratedImage.flush();
+		acceleratedImage = null;
+		barImage = null;
+		AcceleratedImage.setEnabled(false);
+	}
+
+}
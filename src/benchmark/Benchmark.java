@@ -0,0 +1,145 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * A benchmark of one operation, run by the BenchmarkRunner. The runner calls
+ * setUp() before each iteration, then run() as many times as it can during
+ * the iteration, and then tearDown(). The score is the number of calls to
+ * run() per second.
+ *
+ * A benchmark can have parameters, for example the number of individuals in
+ * the world. They are only used to tell the results apart, so they should
+ * be set in the constructor of the subclass.
+ */
+public abstract class Benchmark {
+
+	/**
+	 * The name of the benchmark.
+	 */
+	private String name;
+
+	/**
+	 * The parameters of the benchmark, as names mapped to values. Keeps the
+	 * order in which they were set.
+	 */
+	private LinkedHashMap parameters = new LinkedHashMap();
+
+	/**
+	 * Sum of the values passed to consume(), so that the JIT compiler can't
+	 * remove the calculations that are benchmarked.
+	 */
+	private double sink;
+
+	/**
+	 * Constructs a benchmark with the given name.
+	 *
+	 * @param name the name of the benchmark.
+	 */
+	protected Benchmark(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Returns the name of the benchmark.
+	 *
+	 * @return the name of the benchmark.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Sets a parameter of the benchmark.
+	 *
+	 * @param parameterName the name of the parameter.
+	 * @param value the value of the parameter.
+	 */
+	protected void setParameter(String parameterName, String value) {
+		parameters.put(parameterName, value);
+	}
+
+	/**
+	 * Returns an iterator over the names of the parameters, in the order in
+	 * which they were set.
+	 *
+	 * @return an iterator over the names of the parameters.
+	 */
+	public Iterator getParameterNames() {
+		return parameters.keySet().iterator();
+	}
+
+	/**
+	 * Returns the value of the given parameter.
+	 *
+	 * @param parameterName the name of the parameter.
+	 * @return the value of the parameter, or null if it isn't set.
+	 */
+	public String getParameter(String parameterName) {
+		return (String) parameters.get(parameterName);
+	}
+
+	/**
+	 * Returns the name and the parameters of the benchmark, for example
+	 * "WorldTick.tick(population=100)".
+	 *
+	 * @return the name and the parameters of the benchmark.
+	 */
+	public String toString() {
+		StringBuffer buffer = new StringBuffer(name);
+		if (!parameters.isEmpty()) {
+			buffer.append('(');
+			Iterator it = getParameterNames();
+			while (it.hasNext()) {
+				String parameterName = (String) it.next();
+				buffer.append(parameterName).append('=').append(getParameter(parameterName));
+				if (it.hasNext()) {
+					buffer.append(", ");
+				}
+			}
+			buffer.append(')');
+		}
+		return buffer.toString();
+	}
+
+	/**
+	 * Prepares an iteration of the benchmark. Is not measured.
+	 */
+	public void setUp() {
+	}
+
+	/**
+	 * Runs the benchmarked operation once.
+	 */
+	public abstract void run();
+
+	/**
+	 * Cleans up after an iteration of the benchmark. Is not measured.
+	 */
+	public void tearDown() {
+	}
+
+	/**
+	 * Makes sure that the calculation of the given value isn't optimized
+	 * away by the JIT compiler.
+	 *
+	 * @param value a value calculated by the benchmarked operation.
+	 */
+	protected void consume(double value) {
+		sink += value;
+	}
+
+	/**
+	 * Returns the sum of the consumed values.
+	 *
+	 * @return the sum of the consumed values.
+	 */
+	double getSink() {
+		return sink;
+	}
+
+}
@@ -0,0 +1,465 @@
+/* 2026-10-18 agent
+ *	Added the benchmark of resuming from a mapped save file.
+ *
+ * 2026-10-18 agent
+ *	The births and deaths of the individuals aren't printed.
+ *
+ * 2026-10-18 agent
+ *	Added the benchmark of resuming from an autosave.
+ *
+ * 2026-10-18 agent
+ *	Added the save and load benchmarks.
+ *
+ * 2026-10-18 agent
+ *	Added the picking benchmarks.
+ *
+ * 2026-10-18 agent
+ *	Added the AcceleratedImage benchmarks.
+ *
+ * 2026-10-18 agent
+ *	Added the benchmark of CoordinateConverter.mapToIso().
+ *
+ * 2026-10-18 agent
+ *	Added the render queue benchmarks.
+ *
+ * 2026-10-18 agent
+ *	Added the terrain benchmarks.
+ *
+ * 2026-10-18 agent
+ *	The tile iterator is also benchmarked on a map with a side of 1024.
+ *
+ * 2026-10-18 agent
+ *	Measures the bytes allocated per operation, and added the movement
+ *	benchmarks.
+ *
+ * 2026-10-18 agent
+ *	Added the IndividualStore benchmarks.
+ *
+ * 2026-10-18 agent
+ *	The world tick is also benchmarked with one update thread per
+ *	processor.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import gameengine.World;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Runs the benchmarks of the game engine and the graphics engine and
+ * writes the results as JSON, so that they can be compared between
+ * versions to find regressions.
+ *
+ * Each benchmark is first run for a number of warmup iterations, so that
+ * the JIT compiler has compiled the code, and then for a number of
+ * measured iterations. Each iteration runs the operation as many times as
+ * it can during a fixed time. The score is the mean number of operations
+ * per second of the measured iterations, and the error is the standard
+ * deviation between the iterations.
+ *
+ * The bytes allocated per operation are measured as well, when the JVM can
+ * tell how much a thread has allocated, and reported as the secondary
+ * metric gc.alloc.rate.norm. Only the allocations of the thread that runs
+ * the benchmark are counted, not those of the threads it starts.
+ *
+ * The arguments are given as pairs of an option and a value:
+ * <pre>
+ *   -json file        write the results to this file. Defaults to
+ *                     benchmark-results.json.
+ *   -filter text      only run the benchmarks whose names contain the text.
+ *   -warmup n         the number of warmup iterations. Defaults to 3.
+ *   -iterations n     the number of measured iterations. Defaults to 5.
+ *   -time ms          the time of each iteration in milliseconds. Defaults
+ *                     to 1000.
+ * </pre>
+ *
+ * The benchmarks print nothing; everything the game writes to System.out
+ * while they run is thrown away.
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * The populations that the world tick is benchmarked with.
+	 */
+	private static final int[] POPULATIONS = {100, 1000, 10000, 100000};
+
+	/**
+	 * The file to write the results to.
+	 */
+	private String jsonFile = "benchmark-results.json";
+
+	/**
+	 * Only benchmarks whose names contain this are run.
+	 */
+	private String filter = "";
+
+	/**
+	 * The number of warmup iterations.
+	 */
+	private int warmupIterations = 3;
+
+	/**
+	 * The number of measured iterations.
+	 */
+	private int measurementIterations = 5;
+
+	/**
+	 * The time of each iteration in nanoseconds.
+	 */
+	private long iterationTime = 1000000000L;
+
+	/**
+	 * Receives the values consumed by the benchmarks, so that the JIT
+	 * compiler can't tell that they are never used.
+	 */
+	private static volatile double blackhole;
+
+	/**
+	 * The bytes allocated per operation in each measured iteration of the
+	 * benchmark being run, or -1 if they can't be measured.
+	 */
+	private double[] allocations;
+
+	/**
+	 * The stream that the results are printed to, the real System.out.
+	 */
+	private PrintStream out;
+
+	/**
+	 * Runs the benchmarks.
+	 *
+	 * @param args the command line arguments, see the class comment.
+	 */
+	public static void main(String[] args) throws IOException {
+		System.setProperty("java.awt.headless", "true");
+		World.setLoggingEvents(false);
+		BenchmarkRunner benchmarkRunner = new BenchmarkRunner(args);
+		benchmarkRunner.run(createBenchmarks());
+	}
+
+	/**
+	 * Creates all benchmarks.
+	 *
+	 * @return a list of all benchmarks.
+	 */
+	static List createBenchmarks() {
+		List benchmarks = new ArrayList();
+		int processors = Runtime.getRuntime().availableProcessors();
+		for (int i = 0; i < POPULATIONS.length; i++) {
+			benchmarks.add(new WorldTickBenchmark(POPULATIONS[i], 1));
+			if (processors > 1) {
+				benchmarks.add(new WorldTickBenchmark(POPULATIONS[i], processors));
+			}
+		}
+		benchmarks.add(new IndividualStoreBenchmark(10000));
+		benchmarks.add(new IndividualStoreBenchmark(100000));
+		benchmarks.add(new SortableListBenchmark(SortableListBenchmark.CHURN, 1000, 100));
+		benchmarks.add(new SortableListBenchmark(SortableListBenchmark.CHURN, 10000, 1000));
+		benchmarks.add(new SortableListBenchmark(SortableListBenchmark.BEST_ITEM, 1000, 0));
+		benchmarks.add(new SortableListBenchmark(SortableListBenchmark.BEST_ITEM, 10000, 0));
+		benchmarks.add(new PointBenchmark(PointBenchmark.DISTANCE));
+		benchmarks.add(new PointBenchmark(PointBenchmark.ANGLE));
+		benchmarks.add(new MoveToTaskBenchmark());
+		benchmarks.add(new MovementBenchmark(MovementBenchmark.WOBBLE, 10000));
+		benchmarks.add(new MovementBenchmark(MovementBenchmark.MOVE_TO, 10000));
+		benchmarks.add(new CoordinateConverterBenchmark(CoordinateConverterBenchmark.X));
+		benchmarks.add(new CoordinateConverterBenchmark(CoordinateConverterBenchmark.Y));
+		benchmarks.add(new CoordinateConverterBenchmark(CoordinateConverterBenchmark.BATCH));
+		benchmarks.add(new TileIteratorBenchmark(32));
+		benchmarks.add(new TileIteratorBenchmark(256));
+		benchmarks.add(new TileIteratorBenchmark(1024));
+		benchmarks.add(new TerrainBenchmark(TerrainBenchmark.TILES, 256));
+		benchmarks.add(new TerrainBenchmark(TerrainBenchmark.CACHED, 256));
+		benchmarks.add(new RenderQueueBenchmark(RenderQueueBenchmark.ALL, 10000));
+		benchmarks.add(new RenderQueueBenchmark(RenderQueueBenchmark.QUEUED, 10000));
+		benchmarks.add(new RenderQueueBenchmark(RenderQueueBenchmark.ALL, 100000));
+		benchmarks.add(new RenderQueueBenchmark(RenderQueueBenchmark.QUEUED, 100000));
+		benchmarks.add(new AcceleratedImageBenchmark(AcceleratedImageBenchmark.SUBIMAGE));
+		benchmarks.add(new AcceleratedImageBenchmark(AcceleratedImageBenchmark.MANAGED));
+		benchmarks.add(new AcceleratedImageBenchmark(AcceleratedImageBenchmark.VOLATILE));
+		benchmarks.add(new PickingBenchmark(PickingBenchmark.LINEAR, 10000));
+		benchmarks.add(new PickingBenchmark(PickingBenchmark.GRID, 10000));
+		benchmarks.add(new SaveLoadBenchmark(SaveLoadBenchmark.SERIALIZATION,
+				SaveLoadBenchmark.SAVE, 3000));
+		benchmarks.add(new SaveLoadBenchmark(SaveLoadBenchmark.BINARY,
+				SaveLoadBenchmark.SAVE, 3000));
+		benchmarks.add(new SaveLoadBenchmark(SaveLoadBenchmark.SERIALIZATION,
+				SaveLoadBenchmark.LOAD, 3000));
+		benchmarks.add(new SaveLoadBenchmark(SaveLoadBenchmark.BINARY,
+				SaveLoadBenchmark.LOAD, 3000));
+		benchmarks.add(new SaveLoadBenchmark(SaveLoadBenchmark.AUTOSAVE,
+				SaveLoadBenchmark.LOAD, 3000));
+		benchmarks.add(new SaveLoadBenchmark(SaveLoadBenchmark.MAPPED,
+				SaveLoadBenchmark.LOAD, 3000));
+		return benchmarks;
+	}
+
+	/**
+	 * Constructs a runner from the given command line arguments.
+	 *
+	 * @param args the command line arguments, see the class comment.
+	 */
+	public BenchmarkRunner(String[] args) {
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("No value given for " + args[i]);
+			}
+			String option = args[i];
+			String value = args[i + 1];
+			try {
+				if (option.equals("-json")) {
+					jsonFile = value;
+				} else if (option.equals("-filter")) {
+					filter = value;
+				} else if (option.equals("-warmup")) {
+					warmupIterations = Integer.parseInt(value);
+				} else if (option.equals("-iterations")) {
+					measurementIterations = Integer.parseInt(value);
+				} else if (option.equals("-time")) {
+					iterationTime = Long.parseLong(value) * 1000000L;
+				} else {
+					throw new IllegalArgumentException("Unknown option " + option);
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+			}
+		}
+		if (warmupIterations < 0 || measurementIterations < 1 || iterationTime <= 0) {
+			throw new IllegalArgumentException(
+					"There must be at least one measured iteration of some time");
+		}
+	}
+
+	/**
+	 * Runs the given benchmarks, prints the results and writes them to the
+	 * JSON file.
+	 *
+	 * @param benchmarks a list of Benchmarks.
+	 * @throws IOException if the results couldn't be written.
+	 */
+	public void run(List benchmarks) throws IOException {
+		out = System.out;
+		StringBuffer json = new StringBuffer("[\n");
+		boolean first = true;
+
+		Iterator it = benchmarks.iterator();
+		while (it.hasNext()) {
+			Benchmark benchmark = (Benchmark) it.next();
+			if (benchmark.toString().indexOf(filter) < 0) {
+				continue;
+			}
+
+			out.print(benchmark + ": ");
+			out.flush();
+			double[] scores = measure(benchmark);
+			double score = mean(scores);
+			double error = standardDeviation(scores, score);
+			double allocation = mean(allocations);
+			if (allocation >= 0) {
+				out.println(format(score) + " +- " + format(error) + " ops/s, "
+						+ format(allocation) + " B/op");
+			} else {
+				out.println(format(score) + " +- " + format(error) + " ops/s");
+			}
+
+			if (!first) {
+				json.append(",\n");
+			}
+			first = false;
+			appendJson(json, benchmark, scores, score, error, allocation);
+		}
+		json.append("\n]\n");
+
+		Writer writer = new FileWriter(jsonFile);
+		try {
+			writer.write(json.toString());
+		} finally {
+			writer.close();
+		}
+		out.println("Results written to " + jsonFile);
+	}
+
+	/**
+	 * Runs the warmup and the measured iterations of a benchmark.
+	 *
+	 * @param benchmark the benchmark to run.
+	 * @return the operations per second of each measured iteration.
+	 */
+	private double[] measure(Benchmark benchmark) {
+		double[] scores = new double[measurementIterations];
+		allocations = new double[measurementIterations];
+		// Silence the game while benchmarking.
+		System.setOut(new PrintStream(new OutputStream() {
+			public void write(int b) {
+			}
+			public void write(byte[] b, int off, int len) {
+			}
+		}));
+		try {
+			for (int i = 0; i < warmupIterations; i++) {
+				runIteration(benchmark, null, 0);
+			}
+			for (int i = 0; i < measurementIterations; i++) {
+				scores[i] = runIteration(benchmark, allocations, i);
+			}
+		} finally {
+			System.setOut(out);
+		}
+		return scores;
+	}
+
+	/**
+	 * Runs one iteration of a benchmark. The operation is run in batches
+	 * that are doubled until a batch takes a noticeable part of the
+	 * iteration, so that reading the clock doesn't disturb the measurement of
+	 * fast operations.
+	 *
+	 * @param benchmark the benchmark to run.
+	 * @param allocations the array to store the bytes allocated per
+	 * operation in, or null if they aren't needed.
+	 * @param index the index in allocations to store them at.
+	 * @return the operations per second.
+	 */
+	private double runIteration(Benchmark benchmark, double[] allocations,
+			int index) {
+		benchmark.setUp();
+		long allocatedBefore = getAllocatedBytes();
+		long operations = 0;
+		long batch = 1;
+		long startTime = System.nanoTime();
+		long elapsedTime;
+		while (true) {
+			long batchStartTime = System.nanoTime();
+			for (long i = 0; i < batch; i++) {
+				benchmark.run();
+			}
+			long currentTime = System.nanoTime();
+			operations += batch;
+			elapsedTime = currentTime - startTime;
+			if (elapsedTime >= iterationTime) {
+				break;
+			}
+			if (currentTime - batchStartTime < iterationTime / 100) {
+				batch *= 2;
+			}
+		}
+		long allocatedAfter = getAllocatedBytes();
+		if (allocations != null) {
+			allocations[index] = (allocatedBefore < 0) ? -1 :
+					(allocatedAfter - allocatedBefore) / (double) operations;
+		}
+		benchmark.tearDown();
+		blackhole += benchmark.getSink();
+		return operations * 1000000000.0 / elapsedTime;
+	}
+
+	/**
+	 * Returns the number of bytes the current thread has allocated, or -1 if
+	 * the JVM can't tell.
+	 */
+	private static long getAllocatedBytes() {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if (threadBean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean allocationBean =
+					(com.sun.management.ThreadMXBean) threadBean;
+			if (allocationBean.isThreadAllocatedMemorySupported() &&
+					allocationBean.isThreadAllocatedMemoryEnabled()) {
+				return allocationBean.getThreadAllocatedBytes(
+						Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Appends the result of a benchmark as a JSON object.
+	 */
+	private void appendJson(StringBuffer json, Benchmark benchmark,
+			double[] scores, double score, double error, double allocation) {
+		json.append("  {\n");
+		json.append("    \"benchmark\": \"").append(benchmark.getName()).append("\",\n");
+		json.append("    \"mode\": \"thrpt\",\n");
+		json.append("    \"warmupIterations\": ").append(warmupIterations).append(",\n");
+		json.append("    \"measurementIterations\": ").append(measurementIterations).append(",\n");
+		json.append("    \"measurementTime\": \"").append(iterationTime / 1000000L).append(" ms\",\n");
+		json.append("    \"params\": {");
+		Iterator it = benchmark.getParameterNames();
+		while (it.hasNext()) {
+			String parameterName = (String) it.next();
+			json.append("\"").append(parameterName).append("\": \"")
+					.append(benchmark.getParameter(parameterName)).append("\"");
+			if (it.hasNext()) {
+				json.append(", ");
+			}
+		}
+		json.append("},\n");
+		json.append("    \"primaryMetric\": {\n");
+		json.append("      \"score\": ").append(score).append(",\n");
+		json.append("      \"scoreError\": ").append(error).append(",\n");
+		json.append("      \"scoreUnit\": \"ops/s\",\n");
+		json.append("      \"rawData\": [");
+		for (int i = 0; i < scores.length; i++) {
+			if (i > 0) {
+				json.append(", ");
+			}
+			json.append(scores[i]);
+		}
+		json.append("]\n");
+		json.append("    }");
+		if (allocation >= 0) {
+			json.append(",\n");
+			json.append("    \"secondaryMetrics\": {\n");
+			json.append("      \"gc.alloc.rate.norm\": {\n");
+			json.append("        \"score\": ").append(allocation).append(",\n");
+			json.append("        \"scoreUnit\": \"B/op\"\n");
+			json.append("      }\n");
+			json.append("    }");
+		}
+		json.append("\n  }");
+	}
+
+	/**
+	 * Returns the mean of the values.
+	 */
+	private static double mean(double[] values) {
+		double sum = 0;
+		for (int i = 0; i < values.length; i++) {
+			sum += values[i];
+		}
+		return sum / values.length;
+	}
+
+	/**
+	 * Returns the sample standard deviation of the values.
+	 */
+	private static double standardDeviation(double[] values, double mean) {
+		if (values.length < 2) {
+			return 0;
+		}
+		double sum = 0;
+		for (int i = 0; i < values.length; i++) {
+			sum += (values[i] - mean) * (values[i] - mean);
+		}
+		return Math.sqrt(sum / (values.length - 1));
+	}
+
+	/**
+	 * Formats a score with at most three decimals.
+	 */
+	private static String format(double value) {
+		return String.valueOf(Math.round(value * 1000) / 1000.0);
+	}
+
+}
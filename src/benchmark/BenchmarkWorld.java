@@ -0,0 +1,115 @@
+/* 2026-10-18 agent
+ *	The maps are filled directly instead of through an int[][]. Added a
+ *	createView that fills the map with a kind of tiles.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import gameengine.World;
+import graphicsengine.Map;
+import graphicsengine.MapImage;
+import graphicsengine.View;
+
+/**
+ * Creates the worlds and views that the benchmarks run on. The maps are
+ * generated, so no image files are needed, and the views have no graphics,
+ * so no graphics engine is needed.
+ */
+class BenchmarkWorld {
+
+	/**
+	 * The smallest side of a map. World.initialize() places its starting
+	 * objects for a map of at least this size.
+	 */
+	static final int MIN_MAP_SIDE = 32;
+
+	/**
+	 * The number of tiles per individual in maps sized after the population.
+	 */
+	static final int TILES_PER_INDIVIDUAL = 4;
+
+	/**
+	 * The seed of the world's random numbers, so that all runs start from the
+	 * same world and run the same way.
+	 */
+	static final long SEED = 20031018L;
+
+	/**
+	 * You may not create instances of this class.
+	 */
+	private BenchmarkWorld() {
+	}
+
+	/**
+	 * Returns the side of a map that gives the given population
+	 * TILES_PER_INDIVIDUAL tiles each, but at least MIN_MAP_SIDE.
+	 *
+	 * @param population the number of individuals.
+	 * @return the side of the map in tiles.
+	 */
+	static int getMapSide(int population) {
+		int side = (int) Math.ceil(Math.sqrt(population * TILES_PER_INDIVIDUAL));
+		return Math.max(MIN_MAP_SIDE, side);
+	}
+
+	/**
+	 * Creates a new world on a square grass map with the given population.
+	 *
+	 * @param side the side of the map in tiles.
+	 * @param population the number of individuals.
+	 * @return the new world.
+	 */
+	static World createWorld(int side, int population) {
+		MapImage mapImage = new MapImage(side, side);
+		for (int x = 0; x < side; x++) {
+			for (int y = 0; y < side; y++) {
+				mapImage.setTileNr(x, y, Map.GRASS_NR);
+			}
+		}
+
+		World.reset();
+		World world = World.getWorld();
+		world.setSeed(SEED);
+		world.initialize(mapImage);
+		world.populate(population);
+		return world;
+	}
+
+	/**
+	 * Creates a view over an empty square map, without any graphics. Must be
+	 * called after a world of at least the same size has been created, since
+	 * the tiles are positioned with Points.
+	 *
+	 * @param side the side of the map in tiles.
+	 * @param width the width of the view in pixels.
+	 * @param height the height of the view in pixels.
+	 * @return the new view.
+	 */
+	static View createView(int side, int width, int height) {
+		return createView(side, width, height, 0);
+	}
+
+	/**
+	 * Creates a view over a square map of one kind of tiles, without any
+	 * graphics. The tiles are empty unless their graphics are set with
+	 * Map.setTileGraphics().
+	 *
+	 * @param side the side of the map in tiles.
+	 * @param width the width of the view in pixels.
+	 * @param height the height of the view in pixels.
+	 * @param tileNr the tile number of every tile.
+	 * @return the new view.
+	 */
+	static View createView(int side, int width, int height, int tileNr) {
+		MapImage mapImage = new MapImage(side, side);
+		for (int y = 0; y < side; y++) {
+			for (int x = 0; x < side; x++) {
+				mapImage.setTileNr(x, y, tileNr);
+			}
+		}
+		return new View(null, mapImage, 0, 0, width, height, 0, 0);
+	}
+
+}
@@ -0,0 +1,135 @@
+/* 2026-10-18 agent
+ *	The view is disposed after each iteration.
+ *
+ * 2026-10-18 agent
+ *	Added the benchmark of mapToIso(), which converts all the points at
+ *	once.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import gameengine.Point;
+import gameengine.World;
+import graphicsengine.CoordinateConverter;
+import graphicsengine.View;
+
+import java.util.Random;
+
+/**
+ * Benchmarks CoordinateConverter.mapToScreenX() or mapToScreenY() for random
+ * map coordinates, one coordinate per operation, or mapToIso() for all the
+ * coordinates in one operation.
+ */
+class CoordinateConverterBenchmark extends Benchmark {
+
+	/**
+	 * Benchmarks mapToScreenX().
+	 */
+	static final String X = "mapToScreenX";
+
+	/**
+	 * Benchmarks mapToScreenY().
+	 */
+	static final String Y = "mapToScreenY";
+
+	/**
+	 * Benchmarks mapToIso() on POINTS points.
+	 */
+	static final String BATCH = "mapToIso";
+
+	/**
+	 * The number of points. Must be a power of two.
+	 */
+	private static final int POINTS = 1024;
+
+	/**
+	 * X or Y.
+	 */
+	private String operation;
+
+	/**
+	 * The view that is set in the converter.
+	 */
+	private View view;
+
+	/**
+	 * The converter.
+	 */
+	private CoordinateConverter coordinateConverter;
+
+	/**
+	 * The map coordinates to convert.
+	 */
+	private Point[] points;
+
+	/**
+	 * The same map coordinates as points, x before y.
+	 */
+	private float[] mapCoordinates;
+
+	/**
+	 * Where mapToIso() puts the iso coordinates.
+	 */
+	private float[] isoCoordinates;
+
+	/**
+	 * The index of the next point.
+	 */
+	private int next;
+
+	/**
+	 * Constructs the benchmark.
+	 *
+	 * @param operation X or Y.
+	 */
+	CoordinateConverterBenchmark(String operation) {
+		super("CoordinateConverter." + operation);
+		this.operation = operation;
+		if (operation == BATCH) {
+			setParameter("points", String.valueOf(POINTS));
+		}
+	}
+
+	public void setUp() {
+		int side = BenchmarkWorld.MIN_MAP_SIDE;
+		BenchmarkWorld.createWorld(side, 0);
+		// Creating the view sets it in the coordinate converter.
+		view = BenchmarkWorld.createView(side, 800, 600);
+		coordinateConverter = CoordinateConverter.getCoordinateConverter();
+
+		Random random = new Random(BenchmarkWorld.SEED);
+		points = new Point[POINTS];
+		mapCoordinates = new float[2 * POINTS];
+		isoCoordinates = new float[2 * POINTS];
+		for (int i = 0; i < POINTS; i++) {
+			points[i] = new Point(random.nextFloat() * side, random.nextFloat() * side);
+			mapCoordinates[2 * i] = points[i].getX();
+			mapCoordinates[2 * i + 1] = points[i].getY();
+		}
+		next = 0;
+	}
+
+	public void run() {
+		if (operation == X) {
+			consume(coordinateConverter.mapToScreenX(points[next]));
+		} else if (operation == BATCH) {
+			coordinateConverter.mapToIso(mapCoordinates, isoCoordinates, POINTS);
+			consume(isoCoordinates[2 * next] + isoCoordinates[2 * next + 1]);
+		} else {
+			consume(coordinateConverter.mapToScreenY(points[next]));
+		}
+		next = (next + 1) & (POINTS - 1);
+	}
+
+	public void tearDown() {
+		view.dispose();
+		view = null;
+		points = null;
+		mapCoordinates = null;
+		isoCoordinates = null;
+		World.reset();
+	}
+
+}
@@ -0,0 +1,53 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import gameengine.World;
+import gameengine.gameobjects.IndividualStore;
+
+/**
+ * Benchmarks IndividualStore.recalculate(), the pass over the columns of
+ * the world's store that decreases the needs and recalculates the safety and
+ * health of all individuals at the start of each tick.
+ */
+class IndividualStoreBenchmark extends Benchmark {
+
+	/**
+	 * The number of individuals in the world.
+	 */
+	private int population;
+
+	/**
+	 * The store of the world.
+	 */
+	private IndividualStore store;
+
+	/**
+	 * Constructs the benchmark for a world with the given population.
+	 *
+	 * @param population the number of individuals.
+	 */
+	IndividualStoreBenchmark(int population) {
+		super("IndividualStore.recalculate");
+		this.population = population;
+		setParameter("population", String.valueOf(population));
+	}
+
+	public void setUp() {
+		World world = BenchmarkWorld.createWorld(
+				BenchmarkWorld.getMapSide(population), population);
+		store = world.getIndividualStore();
+	}
+
+	public void run() {
+		store.recalculate();
+		consume(store.getCount());
+	}
+
+	public void tearDown() {
+		store = null;
+		World.reset();
+	}
+
+}
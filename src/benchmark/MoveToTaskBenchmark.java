@@ -0,0 +1,77 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import gameengine.Point;
+import gameengine.World;
+import gameengine.gameobjects.Characteristics;
+import gameengine.gameobjects.Node;
+import gameengine.gameobjects.Position;
+import gameengine.gameobjects.Resources;
+import gameengine.gameobjects.Velocity;
+import gameengine.tasksystem.GeneralTaskException;
+import gameengine.tasksystem.MoveToTask;
+
+/**
+ * Benchmarks one step of MoveToTask.execute(), moving across the map from
+ * one corner to the other. When the destination has been reached the
+ * position is moved back and the task is reset.
+ */
+class MoveToTaskBenchmark extends Benchmark {
+
+	/**
+	 * The position of the moving object.
+	 */
+	private Position position;
+
+	/**
+	 * The point where the moving object starts.
+	 */
+	private Point start;
+
+	/**
+	 * The task being executed.
+	 */
+	private MoveToTask task;
+
+	/**
+	 * Constructs the benchmark.
+	 */
+	MoveToTaskBenchmark() {
+		super("MoveToTask.execute");
+	}
+
+	public void setUp() {
+		World world = BenchmarkWorld.createWorld(BenchmarkWorld.MIN_MAP_SIDE, 0);
+		float side = World.getEnvironment().getMaxCoordinate().getX();
+		start = new Point(1f, 1f);
+		Node destination = new Node(new Point(side - 1f, side - 1f));
+
+		position = new Position();
+		position.setPoint(start);
+		task = new MoveToTask(destination);
+		task.setPrivateInformation(position,
+				new Velocity(0f, World.getEnvironment().getIndividualSpeed()),
+				new Characteristics(0, 18), new Resources());
+	}
+
+	public void run() {
+		if (task.isDone()) {
+			position.setPoint(start);
+			task.reset();
+		}
+		try {
+			task.execute();
+		} catch (GeneralTaskException e) {
+			throw new IllegalStateException(e.getMessage());
+		}
+	}
+
+	public void tearDown() {
+		task = null;
+		position = null;
+		World.reset();
+	}
+
+}
@@ -0,0 +1,140 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import gameengine.Point;
+import gameengine.World;
+import gameengine.gameobjects.Characteristics;
+import gameengine.gameobjects.Node;
+import gameengine.gameobjects.Position;
+import gameengine.gameobjects.Resources;
+import gameengine.gameobjects.Velocity;
+import gameengine.tasksystem.GeneralTaskException;
+import gameengine.tasksystem.MoveToTask;
+import gameengine.tasksystem.Task;
+import gameengine.tasksystem.WobbleTask;
+
+import java.util.Random;
+
+/**
+ * Benchmarks the movement of many turtles, one step of one turtle per
+ * operation, either wobbling around a node with WobbleTask or walking to a
+ * node with MoveToTask. The turtles are stepped in turn, so that a run over
+ * all of them is one tick of movement. The allocation per operation that
+ * the runner reports is the garbage of one moving turtle per tick, which
+ * should be zero.
+ */
+class MovementBenchmark extends Benchmark {
+
+	/**
+	 * Benchmarks WobbleTask.
+	 */
+	static final String WOBBLE = "wobble";
+
+	/**
+	 * Benchmarks MoveToTask.
+	 */
+	static final String MOVE_TO = "moveTo";
+
+	/**
+	 * The radius of the wobbling.
+	 */
+	private static final float WOBBLE_RADIUS = 3f;
+
+	/**
+	 * WOBBLE or MOVE_TO.
+	 */
+	private String movement;
+
+	/**
+	 * The number of turtles.
+	 */
+	private int turtles;
+
+	/**
+	 * The positions of the turtles.
+	 */
+	private Position[] positions;
+
+	/**
+	 * The points where the turtles start, and where they are moved back to
+	 * when they have reached their destinations.
+	 */
+	private Point[] starts;
+
+	/**
+	 * The tasks of the turtles.
+	 */
+	private Task[] tasks;
+
+	/**
+	 * The index of the next turtle to step.
+	 */
+	private int next;
+
+	/**
+	 * Constructs the benchmark.
+	 *
+	 * @param movement WOBBLE or MOVE_TO.
+	 * @param turtles the number of turtles.
+	 */
+	MovementBenchmark(String movement, int turtles) {
+		super("Movement." + movement);
+		this.movement = movement;
+		this.turtles = turtles;
+		setParameter("turtles", String.valueOf(turtles));
+	}
+
+	public void setUp() {
+		BenchmarkWorld.createWorld(BenchmarkWorld.MIN_MAP_SIDE, 0);
+		float side = World.getEnvironment().getMaxCoordinate().getX();
+		Node center = new Node(new Point(side / 2f, side / 2f));
+		Random random = new Random(BenchmarkWorld.SEED);
+
+		positions = new Position[turtles];
+		starts = new Point[turtles];
+		tasks = new Task[turtles];
+		for (int i = 0; i < turtles; i++) {
+			starts[i] = new Point(1f + random.nextFloat() * (side - 2f),
+					1f + random.nextFloat() * (side - 2f));
+			positions[i] = new Position();
+			positions[i].setPoint(starts[i]);
+			if (movement == WOBBLE) {
+				tasks[i] = new WobbleTask(center, 1f, WOBBLE_RADIUS);
+			} else {
+				tasks[i] = new MoveToTask(center);
+			}
+			tasks[i].setPrivateInformation(positions[i],
+					new Velocity(0f, World.getEnvironment().getIndividualSpeed()),
+					new Characteristics(0, 18), new Resources());
+		}
+		next = 0;
+	}
+
+	public void run() {
+		Task task = tasks[next];
+		if (task.isDone()) {
+			positions[next].setPoint(starts[next]);
+			task.reset();
+		}
+		try {
+			task.execute();
+		} catch (GeneralTaskException e) {
+			throw new IllegalStateException(e.getMessage());
+		}
+		consume(positions[next].getX());
+		next++;
+		if (next == turtles) {
+			next = 0;
+		}
+	}
+
+	public void tearDown() {
+		tasks = null;
+		starts = null;
+		positions = null;
+		World.reset();
+	}
+
+}
@@ -0,0 +1,183 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import graphicsengine.GraphicalObject;
+import graphicsengine.Label;
+import graphicsengine.PickingGrid;
+
+import java.util.IdentityHashMap;
+import java.util.Random;
+
+/**
+ * Benchmarks finding the objects drawn on the screen at a number of points
+ * and in a selection box, either by testing the box of every object the way
+ * the view used to, or by testing only the objects that a PickingGrid finds.
+ * The grid is filled once, since the render queue fills it while drawing.
+ */
+class PickingBenchmark extends Benchmark {
+
+	/**
+	 * Tests every object.
+	 */
+	static final String LINEAR = "linear";
+
+	/**
+	 * Tests the objects found in the picking grid.
+	 */
+	static final String GRID = "grid";
+
+	/**
+	 * The width of the screen.
+	 */
+	private static final int SCREEN_WIDTH = 1024;
+
+	/**
+	 * The height of the screen.
+	 */
+	private static final int SCREEN_HEIGHT = 768;
+
+	/**
+	 * The width and height of an object.
+	 */
+	private static final int OBJECT_SIZE = 32;
+
+	/**
+	 * The number of points looked at per operation.
+	 */
+	private static final int POINTS = 16;
+
+	/**
+	 * The width of the selection box.
+	 */
+	private static final int BOX_WIDTH = 200;
+
+	/**
+	 * The height of the selection box.
+	 */
+	private static final int BOX_HEIGHT = 150;
+
+	/**
+	 * LINEAR or GRID.
+	 */
+	private String mode;
+
+	/**
+	 * The number of objects on the screen.
+	 */
+	private int objectCount;
+
+	/**
+	 * The objects.
+	 */
+	private GraphicalObject[] objects;
+
+	/**
+	 * The left and top edges of the objects, two ints per object.
+	 */
+	private int[] positions;
+
+	/**
+	 * The index of each object in objects.
+	 */
+	private IdentityHashMap indices;
+
+	/**
+	 * The grid with the objects.
+	 */
+	private PickingGrid grid;
+
+	/**
+	 * The points and the corners of the boxes to look at, changed for each
+	 * operation.
+	 */
+	private Random random;
+
+	/**
+	 * Constructs the benchmark.
+	 *
+	 * @param mode LINEAR or GRID.
+	 * @param objectCount the number of objects on the screen.
+	 */
+	PickingBenchmark(String mode, int objectCount) {
+		super("View.getObjectFromPosition");
+		this.mode = mode;
+		this.objectCount = objectCount;
+		setParameter("mode", mode);
+		setParameter("objects", String.valueOf(objectCount));
+	}
+
+	public void setUp() {
+		Random tmpRandom = new Random(42);
+		objects = new GraphicalObject[objectCount];
+		positions = new int[2 * objectCount];
+		indices = new IdentityHashMap();
+		grid = new PickingGrid();
+		grid.reset(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
+		for (int i = 0; i < objectCount; i++) {
+			objects[i] = new Label("", 0, 0);
+			positions[2 * i] = tmpRandom.nextInt(SCREEN_WIDTH);
+			positions[2 * i + 1] = tmpRandom.nextInt(SCREEN_HEIGHT);
+			indices.put(objects[i], new Integer(i));
+			grid.add(objects[i], positions[2 * i], positions[2 * i + 1],
+					positions[2 * i] + OBJECT_SIZE, positions[2 * i + 1] + OBJECT_SIZE);
+		}
+		grid.index();
+		random = new Random(1);
+	}
+
+	public void run() {
+		int hits = 0;
+		for (int p = 0; p < POINTS; p++) {
+			int x = random.nextInt(SCREEN_WIDTH);
+			int y = random.nextInt(SCREEN_HEIGHT);
+			hits += find(x, y, x, y);
+		}
+		int x = random.nextInt(SCREEN_WIDTH - BOX_WIDTH);
+		int y = random.nextInt(SCREEN_HEIGHT - BOX_HEIGHT);
+		hits += find(x, y, x + BOX_WIDTH, y + BOX_HEIGHT);
+		consume(hits);
+	}
+
+	/**
+	 * Counts the objects whose boxes overlap a rectangle.
+	 */
+	private int find(int left, int top, int right, int bottom) {
+		int hits = 0;
+		if (mode == LINEAR) {
+			for (int i = 0; i < objectCount; i++) {
+				if (overlaps(i, left, top, right, bottom)) {
+					hits++;
+				}
+			}
+		} else {
+			int count = grid.find(left, top, right, bottom);
+			for (int n = 0; n < count; n++) {
+				int i = ((Integer) indices.get(grid.getFound(n))).intValue();
+				if (overlaps(i, left, top, right, bottom)) {
+					hits++;
+				}
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * Tells if the box of an object overlaps a rectangle.
+	 */
+	private boolean overlaps(int i, int left, int top, int right, int bottom) {
+		int x = positions[2 * i];
+		int y = positions[2 * i + 1];
+		return x <= right && x + OBJECT_SIZE >= left &&
+				y <= bottom && y + OBJECT_SIZE >= top;
+	}
+
+	public void tearDown() {
+		objects = null;
+		positions = null;
+		indices = null;
+		grid = null;
+	}
+
+}
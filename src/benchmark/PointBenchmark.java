@@ -0,0 +1,84 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import gameengine.Point;
+import gameengine.World;
+
+import java.util.Random;
+
+/**
+ * Benchmarks Point.distanceTo() or Point.angleTo() between random points.
+ */
+class PointBenchmark extends Benchmark {
+
+	/**
+	 * Benchmarks distanceTo().
+	 */
+	static final String DISTANCE = "distanceTo";
+
+	/**
+	 * Benchmarks angleTo().
+	 */
+	static final String ANGLE = "angleTo";
+
+	/**
+	 * The number of points. Must be a power of two.
+	 */
+	private static final int POINTS = 1024;
+
+	/**
+	 * DISTANCE or ANGLE.
+	 */
+	private String operation;
+
+	/**
+	 * The points.
+	 */
+	private Point[] points;
+
+	/**
+	 * The index of the next point.
+	 */
+	private int next;
+
+	/**
+	 * Constructs the benchmark.
+	 *
+	 * @param operation DISTANCE or ANGLE.
+	 */
+	PointBenchmark(String operation) {
+		super("Point." + operation);
+		this.operation = operation;
+	}
+
+	public void setUp() {
+		BenchmarkWorld.createWorld(BenchmarkWorld.MIN_MAP_SIDE, 0);
+		Random random = new Random(BenchmarkWorld.SEED);
+		points = new Point[POINTS];
+		for (int i = 0; i < POINTS; i++) {
+			points[i] = new Point(
+					random.nextFloat() * BenchmarkWorld.MIN_MAP_SIDE,
+					random.nextFloat() * BenchmarkWorld.MIN_MAP_SIDE);
+		}
+		next = 0;
+	}
+
+	public void run() {
+		Point first = points[next];
+		Point second = points[(next + 1) & (POINTS - 1)];
+		if (operation == DISTANCE) {
+			consume(first.distanceTo(second));
+		} else {
+			consume(first.angleTo(second));
+		}
+		next = (next + 1) & (POINTS - 1);
+	}
+
+	public void tearDown() {
+		points = null;
+		World.reset();
+	}
+
+}
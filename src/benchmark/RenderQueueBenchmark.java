@@ -0,0 +1,189 @@
+/* 2026-10-18 agent
+ *	The view is disposed after each iteration.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import gameengine.RenderSnapshot;
+import gameengine.World;
+import graphicsengine.CoordinateConverter;
+import graphicsengine.GraphicalGameObject;
+import graphicsengine.RenderQueue;
+import graphicsengine.Renderable;
+import graphicsengine.View;
+import graphicsengine.graphics.GameObjectGraphics;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks drawing the game objects of a populated world in an 800x600
+ * view in the middle of the map, one frame per operation, either every
+ * object in the order of the snapshot the way the view used to, or only the
+ * objects in the view, sorted by depth, with a RenderQueue. The objects have
+ * generated images of about the size of a turtle, and are drawn to an image
+ * in memory.
+ */
+class RenderQueueBenchmark extends Benchmark {
+
+	/**
+	 * Draws every object.
+	 */
+	static final String ALL = "all";
+
+	/**
+	 * Draws with the render queue.
+	 */
+	static final String QUEUED = "queued";
+
+	/**
+	 * The width of the view in pixels.
+	 */
+	private static final int VIEW_WIDTH = 800;
+
+	/**
+	 * The height of the view in pixels.
+	 */
+	private static final int VIEW_HEIGHT = 600;
+
+	/**
+	 * ALL or QUEUED.
+	 */
+	private String mode;
+
+	/**
+	 * The number of individuals.
+	 */
+	private int population;
+
+	/**
+	 * The snapshot that the objects are drawn from.
+	 */
+	private RenderSnapshot snapshot;
+
+	/**
+	 * The graphical objects, in the order of the snapshot.
+	 */
+	private GraphicalGameObject[] objects;
+
+	/**
+	 * The render queue, filled from the snapshot.
+	 */
+	private RenderQueue renderQueue;
+
+	/**
+	 * The view over the map.
+	 */
+	private View view;
+
+	/**
+	 * The image that is drawn on.
+	 */
+	private BufferedImage screen;
+
+	/**
+	 * The graphics of the screen image.
+	 */
+	private Graphics2D graphics;
+
+	/**
+	 * Constructs the benchmark.
+	 *
+	 * @param mode ALL or QUEUED.
+	 * @param population the number of individuals.
+	 */
+	RenderQueueBenchmark(String mode, int population) {
+		super("View.drawGameObjects");
+		this.mode = mode;
+		this.population = population;
+		setParameter("mode", mode);
+		setParameter("population", String.valueOf(population));
+	}
+
+	public void setUp() {
+		int side = BenchmarkWorld.getMapSide(population);
+		World world = BenchmarkWorld.createWorld(side, population);
+		view = BenchmarkWorld.createView(side, VIEW_WIDTH, VIEW_HEIGHT);
+		CoordinateConverter cc = CoordinateConverter.getCoordinateConverter();
+		view.setIsoX(cc.mapToIsoX(side / 2f, side / 2f) - VIEW_WIDTH / 2f);
+		view.setIsoY(cc.mapToIsoY(side / 2f, side / 2f) - VIEW_HEIGHT / 2f);
+
+		world.getSnapshotBuffer().publish(world);
+		snapshot = world.getSnapshotBuffer().acquire();
+		GameObjectGraphics gameObjectGraphics = createGameObjectGraphics();
+		objects = new GraphicalGameObject[snapshot.size()];
+		renderQueue = new RenderQueue(view.getMap());
+		renderQueue.reset(snapshot);
+		for (int i = 0; i < snapshot.size(); i++) {
+			objects[i] = new GraphicalGameObject(gameObjectGraphics,
+					snapshot.getGameObject(i));
+			renderQueue.setDrawable(i, objects[i]);
+		}
+		renderQueue.index();
+
+		screen = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+		graphics = screen.createGraphics();
+	}
+
+	public void run() {
+		if (mode == ALL) {
+			for (int i = 0; i < objects.length; i++) {
+				objects[i].setMapState(snapshot.getX(i, 1f), snapshot.getY(i, 1f),
+						snapshot.getDirection(i));
+				objects[i].draw(graphics);
+			}
+		} else {
+			renderQueue.draw(graphics, 0, 0, VIEW_WIDTH, VIEW_HEIGHT, 1f);
+		}
+		consume(screen.getRGB(VIEW_WIDTH / 2, VIEW_HEIGHT / 2));
+	}
+
+	public void tearDown() {
+		graphics.dispose();
+		graphics = null;
+		screen = null;
+		renderQueue = null;
+		view.dispose();
+		view = null;
+		objects = null;
+		snapshot = null;
+		World.reset();
+	}
+
+	/**
+	 * Creates graphics for the game objects with one generated image of
+	 * about the size of a turtle, with the hotspot at its feet.
+	 */
+	private static GameObjectGraphics createGameObjectGraphics() {
+		final BufferedImage image = new BufferedImage(24, 24, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 4; y < 20; y++) {
+			for (int x = 4; x < 20; x++) {
+				image.setRGB(x, y, 0xff206020 + ((x * 7 + y * 3) & 0x3f));
+			}
+		}
+		Renderable renderable = new Renderable() {
+			public void render(Graphics2D graphics, int screenX, int screenY) {
+				graphics.drawImage(image, screenX, screenY, null);
+			}
+			public void render(Graphics2D graphics, int screenX, int screenY,
+					int topLeftX, int topLeftY, int width, int height) {
+				graphics.drawImage(image.getSubimage(topLeftX, topLeftY, width, height),
+						screenX, screenY, null);
+			}
+			public int getWidth() {
+				return image.getWidth();
+			}
+			public int getHeight() {
+				return image.getHeight();
+			}
+		};
+		List angles = new ArrayList();
+		angles.add(renderable);
+		return new GameObjectGraphics(angles, null, null, 12, 20);
+	}
+
+}
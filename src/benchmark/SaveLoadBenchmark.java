@@ -0,0 +1,260 @@
+/* 2026-10-18 agent
+ *	Added the MAPPED format.
+ *
+ * 2026-10-18 agent
+ *	Added the AUTOSAVE format.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import gameengine.AutoSaver;
+import gameengine.World;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.Channels;
+
+/**
+ * Benchmarks saving and loading a world that has been ticked for a while,
+ * either with Java serialization the way the game used to, or in the binary
+ * save format of World.saveWorld(). The world is saved to and loaded from
+ * memory, so the benchmark doesn't depend on the disk. Resuming from an
+ * autosave, a base followed by deltas in a file, is benchmarked as the
+ * AUTOSAVE format, and resuming from a file in the binary save format,
+ * whose regions are mapped into memory, as the MAPPED format. Both can only
+ * be loaded.
+ */
+class SaveLoadBenchmark extends Benchmark {
+
+	/**
+	 * Saves and loads with Java serialization.
+	 */
+	static final String SERIALIZATION = "serialization";
+
+	/**
+	 * Saves and loads in the binary save format.
+	 */
+	static final String BINARY = "binary";
+
+	/**
+	 * Loads from the log of an AutoSaver.
+	 */
+	static final String AUTOSAVE = "autosave";
+
+	/**
+	 * Loads the binary save format from a file, which is mapped into memory.
+	 */
+	static final String MAPPED = "mapped";
+
+	/**
+	 * The number of autosaves in the log, the first of which is the base.
+	 */
+	private static final int AUTOSAVES = 4;
+
+	/**
+	 * Saves the world.
+	 */
+	static final String SAVE = "save";
+
+	/**
+	 * Loads the world.
+	 */
+	static final String LOAD = "load";
+
+	/**
+	 * The number of ticks the world is ticked before it is saved, so that
+	 * the individuals have tasks and there are socialize groups.
+	 */
+	private static final int TICKS = 200;
+
+	/**
+	 * SERIALIZATION, BINARY, AUTOSAVE or MAPPED.
+	 */
+	private String format;
+
+	/**
+	 * SAVE or LOAD.
+	 */
+	private String operation;
+
+	/**
+	 * The number of individuals in the world.
+	 */
+	private int population;
+
+	/**
+	 * The world that is saved.
+	 */
+	private World world;
+
+	/**
+	 * The saved world, which is loaded.
+	 */
+	private byte[] savedWorld;
+
+	/**
+	 * The log of the autosaves, which is loaded.
+	 */
+	private File autoSaveFile;
+
+	/**
+	 * The file that the world is saved to in the binary save format, which
+	 * is loaded.
+	 */
+	private File saveFile;
+
+	/**
+	 * Constructs the benchmark.
+	 *
+	 * @param format SERIALIZATION, BINARY, AUTOSAVE or MAPPED.
+	 * @param operation SAVE or LOAD, which is the only operation of
+	 * AUTOSAVE and MAPPED.
+	 * @param population the number of individuals.
+	 */
+	SaveLoadBenchmark(String format, String operation, int population) {
+		super("World." + operation);
+		this.format = format;
+		this.operation = operation;
+		this.population = population;
+		setParameter("format", format);
+		setParameter("population", String.valueOf(population));
+	}
+
+	public void setUp() {
+		world = BenchmarkWorld.createWorld(
+				BenchmarkWorld.getMapSide(population), population);
+		for (int i = 0; i < TICKS; i++) {
+			world.tick();
+		}
+		if (format == AUTOSAVE) {
+			autoSave();
+		} else if (format == MAPPED) {
+			saveToFile();
+		} else {
+			savedWorld = save();
+		}
+	}
+
+	public void run() {
+		if (operation == SAVE) {
+			consume(save().length);
+		} else {
+			consume(load().getTickCount());
+		}
+	}
+
+	public void tearDown() {
+		world = null;
+		savedWorld = null;
+		if (autoSaveFile != null) {
+			autoSaveFile.delete();
+			autoSaveFile = null;
+		}
+		if (saveFile != null) {
+			saveFile.delete();
+			saveFile = null;
+		}
+		World.reset();
+	}
+
+	/**
+	 * Saves the world in the format of the benchmark.
+	 */
+	private byte[] save() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			if (format == BINARY) {
+				World.saveWorld(Channels.newChannel(bytes));
+			} else {
+				ObjectOutputStream oos = new ObjectOutputStream(bytes);
+				World.serializeWorld(oos);
+				oos.close();
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Couldn't save the world: " + e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Saves the world to a file in the binary save format.
+	 */
+	private void saveToFile() {
+		try {
+			saveFile = File.createTempFile("benchmark", ".save");
+			FileOutputStream output = new FileOutputStream(saveFile);
+			try {
+				World.saveWorld(output.getChannel());
+			} finally {
+				output.close();
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Couldn't save the world: " + e);
+		}
+	}
+
+	/**
+	 * Ticks the world and autosaves it AUTOSAVES times.
+	 */
+	private void autoSave() {
+		try {
+			autoSaveFile = File.createTempFile("benchmark", ".autosave");
+		} catch (IOException e) {
+			throw new RuntimeException("Couldn't create the autosave: " + e);
+		}
+		AutoSaver autoSaver = new AutoSaver(autoSaveFile);
+		for (int i = 0; i < AUTOSAVES; i++) {
+			if (i > 0) {
+				for (int j = 0; j < World.getEnvironment().getAutoSaveTicks(); j++) {
+					world.tick();
+				}
+			}
+			autoSaver.update(world);
+			// Each autosave is written before the next, so that none is
+			// skipped.
+			autoSaver.flush();
+		}
+		autoSaver.close();
+		if (autoSaver.getFailure() != null) {
+			throw new RuntimeException("Couldn't autosave: " + autoSaver.getFailure());
+		}
+	}
+
+	/**
+	 * Loads the saved world in the format of the benchmark.
+	 */
+	private World load() {
+		ByteArrayInputStream bytes = (savedWorld == null) ? null :
+				new ByteArrayInputStream(savedWorld);
+		try {
+			if (format == AUTOSAVE) {
+				AutoSaver.restore(autoSaveFile);
+			} else if (format == MAPPED) {
+				FileInputStream input = new FileInputStream(saveFile);
+				try {
+					World.loadWorld(input.getChannel());
+				} finally {
+					input.close();
+				}
+			} else if (format == BINARY) {
+				World.loadWorld(Channels.newChannel(bytes));
+			} else {
+				World.deserializeWorld(new ObjectInputStream(bytes));
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Couldn't load the world: " + e);
+		} catch (ClassNotFoundException e) {
+			throw new RuntimeException("Couldn't load the world: " + e);
+		}
+		return World.getWorld();
+	}
+
+}
@@ -0,0 +1,142 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import gameengine.ClosestToComparator;
+import gameengine.GameObjectList;
+import gameengine.Point;
+import gameengine.World;
+import gameengine.gameobjects.GameObject;
+
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Benchmarks the SortableList. Either the churn of update(), when a part of
+ * the objects are unregistered and registered again every operation, or
+ * getBestItem() with a ClosestToComparator.
+ */
+class SortableListBenchmark extends Benchmark {
+
+	/**
+	 * Benchmarks update() after unregistering and registering objects.
+	 */
+	static final String CHURN = "churn";
+
+	/**
+	 * Benchmarks getBestItem().
+	 */
+	static final String BEST_ITEM = "getBestItem";
+
+	/**
+	 * The number of points to search from in getBestItem().
+	 */
+	private static final int POINTS = 1024;
+
+	/**
+	 * CHURN or BEST_ITEM.
+	 */
+	private String operation;
+
+	/**
+	 * The number of objects in the list.
+	 */
+	private int size;
+
+	/**
+	 * The number of objects that are unregistered and registered again each
+	 * operation.
+	 */
+	private int churn;
+
+	/**
+	 * The objects in the list.
+	 */
+	private GameObject[] gameObjects;
+
+	/**
+	 * The list being benchmarked.
+	 */
+	private GameObjectList list;
+
+	/**
+	 * The points to search from in getBestItem().
+	 */
+	private Point[] points;
+
+	/**
+	 * The index of the next object to churn, or the next point to search
+	 * from.
+	 */
+	private int next;
+
+	/**
+	 * Constructs the benchmark.
+	 *
+	 * @param operation CHURN or BEST_ITEM.
+	 * @param size the number of objects in the list.
+	 * @param churn the number of objects to churn each operation. Is only
+	 * used by CHURN.
+	 */
+	SortableListBenchmark(String operation, int size, int churn) {
+		super("SortableList." + operation);
+		this.operation = operation;
+		this.size = size;
+		this.churn = churn;
+		setParameter("size", String.valueOf(size));
+		if (operation == CHURN) {
+			setParameter("churn", String.valueOf(churn));
+		}
+	}
+
+	public void setUp() {
+		World world = BenchmarkWorld.createWorld(
+				BenchmarkWorld.getMapSide(size), size);
+
+		list = new GameObjectList();
+		gameObjects = new GameObject[size];
+		int count = 0;
+		Iterator it = world.getAllObjects().iterator();
+		while (it.hasNext() && count < size) {
+			GameObject gameObject = (GameObject) it.next();
+			list.register(gameObject);
+			gameObjects[count++] = gameObject;
+		}
+		list.update();
+
+		Random random = new Random(BenchmarkWorld.SEED);
+		float side = World.getEnvironment().getMaxCoordinate().getX();
+		points = new Point[POINTS];
+		for (int i = 0; i < POINTS; i++) {
+			points[i] = new Point(random.nextFloat() * side, random.nextFloat() * side);
+		}
+		next = 0;
+	}
+
+	public void run() {
+		if (operation == CHURN) {
+			int first = next;
+			for (int i = 0; i < churn; i++) {
+				list.unRegister(gameObjects[(first + i) % size]);
+			}
+			list.update();
+			for (int i = 0; i < churn; i++) {
+				list.register(gameObjects[(first + i) % size]);
+			}
+			list.update();
+			next = (first + churn) % size;
+		} else {
+			Object best = list.getBestItem(new ClosestToComparator(points[next]));
+			consume(best.hashCode());
+			next = (next + 1) % POINTS;
+		}
+	}
+
+	public void tearDown() {
+		list = null;
+		gameObjects = null;
+		World.reset();
+	}
+
+}
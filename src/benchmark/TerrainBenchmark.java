@@ -0,0 +1,189 @@
+/* 2026-10-18 agent
+ *	The view is disposed after each iteration.
+ *
+ * 2026-10-18 agent
+ *	The tiles are given their graphics with Map.setTileGraphics(), since
+ *	the map creates them when they are needed.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import gameengine.World;
+import graphicsengine.CoordinateConverter;
+import graphicsengine.Map;
+import graphicsengine.Renderable;
+import graphicsengine.Tile;
+import graphicsengine.View;
+import graphicsengine.graphics.TileGraphics;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * Benchmarks drawing the terrain of an 800x600 view that scrolls a few
+ * pixels every frame, either tile by tile the way the view used to, or
+ * from the map's terrain cache. The tiles have generated images of the
+ * same size as the real ones, and are drawn to an image in memory.
+ */
+class TerrainBenchmark extends Benchmark {
+
+	/**
+	 * Draws every visible tile.
+	 */
+	static final String TILES = "tiles";
+
+	/**
+	 * Draws from the terrain cache.
+	 */
+	static final String CACHED = "cached";
+
+	/**
+	 * The width of the view in pixels.
+	 */
+	private static final int VIEW_WIDTH = 800;
+
+	/**
+	 * The height of the view in pixels.
+	 */
+	private static final int VIEW_HEIGHT = 600;
+
+	/**
+	 * How many pixels the view scrolls each frame.
+	 */
+	private static final int SCROLL_SPEED = 7;
+
+	/**
+	 * TILES or CACHED.
+	 */
+	private String mode;
+
+	/**
+	 * The side of the map in tiles.
+	 */
+	private int side;
+
+	/**
+	 * The view that holds the map.
+	 */
+	private View view;
+
+	/**
+	 * The image that is drawn on.
+	 */
+	private BufferedImage screen;
+
+	/**
+	 * The graphics of the screen image.
+	 */
+	private Graphics2D graphics;
+
+	/**
+	 * The iso x-coordinate of the view in the first frame.
+	 */
+	private float startIsoX;
+
+	/**
+	 * How far the view can scroll from startIsoX before it starts over.
+	 */
+	private float scrollRange;
+
+	/**
+	 * The number of frames drawn.
+	 */
+	private int frame;
+
+	/**
+	 * Constructs the benchmark.
+	 *
+	 * @param mode TILES or CACHED.
+	 * @param side the side of the map in tiles.
+	 */
+	TerrainBenchmark(String mode, int side) {
+		super("View.drawTerrain");
+		this.mode = mode;
+		this.side = side;
+		setParameter("mode", mode);
+		setParameter("side", String.valueOf(side));
+	}
+
+	public void setUp() {
+		BenchmarkWorld.createWorld(side, 0);
+		view = BenchmarkWorld.createView(side, VIEW_WIDTH, VIEW_HEIGHT,
+				Map.GRASS_NR);
+		view.getMap().setTileGraphics(Map.GRASS_NR, createTileGraphics());
+
+		// Scroll back and forth over the middle of the map.
+		screen = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+		graphics = screen.createGraphics();
+		CoordinateConverter cc = CoordinateConverter.getCoordinateConverter();
+		scrollRange = side * Tile.getWidth() / 2f;
+		startIsoX = cc.mapToIsoX(side / 2f, side / 2f) - scrollRange / 2f -
+				VIEW_WIDTH / 2f;
+		view.setIsoY(cc.mapToIsoY(side / 2f, side / 2f) - VIEW_HEIGHT / 2f);
+		frame = 0;
+	}
+
+	public void run() {
+		view.setIsoX(startIsoX + (frame * SCROLL_SPEED) % scrollRange);
+		frame++;
+		if (mode == TILES) {
+			graphics.setColor(Color.blue.darker());
+			graphics.fillRect(0, 0, VIEW_WIDTH, VIEW_HEIGHT);
+			Iterator it = view.getMap().getTileIterator(0, 0, VIEW_WIDTH, VIEW_HEIGHT);
+			while (it.hasNext()) {
+				((Tile) it.next()).draw(graphics);
+			}
+		} else {
+			view.getMap().drawTerrain(graphics, 0, 0, VIEW_WIDTH, VIEW_HEIGHT);
+		}
+		consume(screen.getRGB(VIEW_WIDTH / 2, VIEW_HEIGHT / 2));
+	}
+
+	public void tearDown() {
+		graphics.dispose();
+		graphics = null;
+		screen = null;
+		view.dispose();
+		view = null;
+		World.reset();
+	}
+
+	/**
+	 * Creates tile graphics with a diamond shaped image of the same size as
+	 * the real tile images.
+	 */
+	private static TileGraphics createTileGraphics() {
+		final BufferedImage image = new BufferedImage(64, 40, BufferedImage.TYPE_INT_ARGB);
+		for (int y = 0; y < 32; y++) {
+			int halfWidth = (y < 16) ? 2 * y + 2 : 2 * (31 - y) + 2;
+			for (int x = 32 - halfWidth; x < 32 + halfWidth; x++) {
+				image.setRGB(x, y, 0xff208020 + ((x * 3 + y * 5) & 0x1f));
+			}
+		}
+		Renderable renderable = new Renderable() {
+			public void render(Graphics2D graphics, int screenX, int screenY) {
+				graphics.drawImage(image, screenX, screenY, null);
+			}
+			public void render(Graphics2D graphics, int screenX, int screenY,
+					int topLeftX, int topLeftY, int width, int height) {
+				graphics.drawImage(image.getSubimage(topLeftX, topLeftY, width, height),
+						screenX, screenY, null);
+			}
+			public int getWidth() {
+				return image.getWidth();
+			}
+			public int getHeight() {
+				return image.getHeight();
+			}
+		};
+		HashMap variations = new HashMap();
+		variations.put("grass", renderable);
+		return new TileGraphics(variations);
+	}
+
+}
@@ -0,0 +1,72 @@
+/* 2026-10-18 agent
+ *	The view is disposed after each iteration.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import gameengine.World;
+import graphicsengine.View;
+
+import java.util.Iterator;
+
+/**
+ * Benchmarks iterating over all tiles returned by Map.getTileIterator() for
+ * an 800x600 view in the upper left corner of the map.
+ */
+class TileIteratorBenchmark extends Benchmark {
+
+	/**
+	 * The width of the view in pixels.
+	 */
+	private static final int VIEW_WIDTH = 800;
+
+	/**
+	 * The height of the view in pixels.
+	 */
+	private static final int VIEW_HEIGHT = 600;
+
+	/**
+	 * The side of the map in tiles.
+	 */
+	private int side;
+
+	/**
+	 * The view that holds the map.
+	 */
+	private View view;
+
+	/**
+	 * Constructs the benchmark for a map with the given side.
+	 *
+	 * @param side the side of the map in tiles.
+	 */
+	TileIteratorBenchmark(int side) {
+		super("Map.getTileIterator");
+		this.side = side;
+		setParameter("side", String.valueOf(side));
+	}
+
+	public void setUp() {
+		BenchmarkWorld.createWorld(side, 0);
+		view = BenchmarkWorld.createView(side, VIEW_WIDTH, VIEW_HEIGHT);
+	}
+
+	public void run() {
+		int count = 0;
+		Iterator it = view.getMap().getTileIterator(0, 0, VIEW_WIDTH, VIEW_HEIGHT);
+		while (it.hasNext()) {
+			it.next();
+			count++;
+		}
+		consume(count);
+	}
+
+	public void tearDown() {
+		view.dispose();
+		view = null;
+		World.reset();
+	}
+
+}
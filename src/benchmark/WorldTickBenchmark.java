@@ -0,0 +1,63 @@
+/* 2026-10-18 agent
+ *	Added the number of update threads as a parameter.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package benchmark;
+
+import gameengine.World;
+
+/**
+ * Benchmarks one tick of the world, that is all the work World.update()
+ * does for each fixed time step. The world is created anew before each
+ * iteration, so that every iteration starts with the same population.
+ */
+class WorldTickBenchmark extends Benchmark {
+
+	/**
+	 * The number of individuals in the world.
+	 */
+	private int population;
+
+	/**
+	 * The number of threads that update the individuals.
+	 */
+	private int threads;
+
+	/**
+	 * The world being ticked.
+	 */
+	private World world;
+
+	/**
+	 * Constructs the benchmark for a world with the given population, updated
+	 * by the given number of threads.
+	 *
+	 * @param population the number of individuals.
+	 * @param threads the number of update threads.
+	 */
+	WorldTickBenchmark(int population, int threads) {
+		super("WorldTick.tick");
+		this.population = population;
+		this.threads = threads;
+		setParameter("population", String.valueOf(population));
+		setParameter("threads", String.valueOf(threads));
+	}
+
+	public void setUp() {
+		world = BenchmarkWorld.createWorld(
+				BenchmarkWorld.getMapSide(population), population);
+		world.setUpdateThreads(threads);
+	}
+
+	public void run() {
+		world.tick();
+	}
+
+	public void tearDown() {
+		world = null;
+		World.reset();
+	}
+
+}
@@ -0,0 +1,1132 @@
+/* 2026-10-18 agent
+ *	Keeps the records of the world itself and builds them from captures
+ *	that only hold what has changed, together with the columns of the
+ *	store. A new base is only written once the deltas take up as much room
+ *	as the base. Restoring reads the header and finds the base before the
+ *	current world is thrown away.
+ *
+ * 2026-10-18 agent
+ *	Compares the captures with the last one field by field, writes only the
+ *	changed fields in the deltas, and restores the base as it is read.
+ *
+ * 2026-10-18 agent
+ *	Restores from the frames in memory without copying them through a
+ *	channel.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import gameengine.gameobjects.Individual;
+import gameengine.gameobjects.IndividualStore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * The append-only file that the autosave writes the world to, see
+ * AutoSaver.
+ *
+ * The file is a sequence of frames, each of which is the length of its
+ * contents, their CRC-32 and the contents. The first frame holds the header
+ * of a save file (see WorldWriter) with LOG_MAGIC, and each following frame
+ * a segment: BASE or DELTA, the tick count and the id of the world's record.
+ * A base then holds the number of records and all records of the world,
+ * each after the records it references, and their ids are that order. A
+ * delta holds the number of records that are new or have changed since the
+ * segment before it, each of which is written as the difference from the id
+ * before it (see WorldWriter.writeVarInt()) followed by the fields that have
+ * changed, or for a new record those that don't have their default values
+ * (see WorldWriter.writeFields()). Then follow the number of records that
+ * have been removed and their ids, written the same way. The records are in
+ * the order of their ids, and the strings are numbered from the start of
+ * each segment. A frame that was only partly written when the game stopped
+ * is ignored, together with everything after it.
+ *
+ * The log keeps the records of the world itself, and builds them from the
+ * captures of IncrementalWriter, which only hold what has changed. A record
+ * of a capture replaces the record of the same object, and a new object
+ * gets the next unused id, so each record keeps its id until the next base.
+ * The positions, velocities and needs of the individuals are saved into
+ * their records and those of their characteristics from the copy of the
+ * columns of the store, by the slots that the captures have given. The
+ * records of the objects that have been unregistered are removed, and so
+ * are the records that the world's record no longer leads to, such as the
+ * resources of an individual that has died. The fields that have changed
+ * are then written as a delta. When the deltas take up more than DELTA_RATIO
+ * times the room of the base, the records are written as a new base to a new
+ * file instead, which then replaces the log, and the records get new ids in
+ * the order of the base. All this is done on the thread that writes the log,
+ * which is never the simulation thread.
+ *
+ * The log is restored by reading the deltas after the last base first,
+ * which are small, and then restoring the records of the base as they are
+ * read, the way WorldReader restores a save file, with the changed fields
+ * of the deltas copied into them. The records that are new in the deltas
+ * are restored when they are first referenced, and a record whose
+ * references can't be restored yet, because it references a record that
+ * comes later in the base, waits until the whole base has been read.
+ */
+class AutoSaveLog {
+
+	/**
+	 * The first int of the header of an autosave log.
+	 */
+	static final int LOG_MAGIC = 0x5449414c;
+
+	/**
+	 * A segment with all records of the world.
+	 */
+	static final int BASE = 1;
+
+	/**
+	 * A segment with the records that have changed.
+	 */
+	static final int DELTA = 2;
+
+	/**
+	 * The size of the length and the CRC-32 before each frame.
+	 */
+	private static final int FRAME_HEADER_SIZE = 8;
+
+	/**
+	 * The deltas after a base may take up DELTA_RATIO times the room of the
+	 * base before the next capture is written as a new base. Restoring reads
+	 * the base and all deltas after it, so this keeps it within about twice
+	 * the time of loading a save file. A delta mostly holds the positions
+	 * and needs of the individuals, which take up about a quarter of the
+	 * base, so a base is followed by three or four deltas.
+	 */
+	private static final int DELTA_RATIO = 1;
+
+	/**
+	 * The file of the log.
+	 */
+	private File file;
+
+	/**
+	 * The channel that the frames are appended through, or null before the
+	 * first base has been written.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * The stream that the channel belongs to.
+	 */
+	private FileOutputStream output;
+
+	/**
+	 * The contents of the frame being encoded.
+	 */
+	private ByteArrayOutputStream frame;
+
+	/**
+	 * Encodes the frames of the current file, and remembers its strings.
+	 */
+	private WorldWriter encoder;
+
+	/**
+	 * The ids of the objects that have records (Integer), mapped by the
+	 * objects.
+	 */
+	private IdentityHashMap ids;
+
+	/**
+	 * The objects of the records, indexed by their ids.
+	 */
+	private Object[] objects;
+
+	/**
+	 * The id of the next new object.
+	 */
+	private int nextId;
+
+	/**
+	 * The records of the world, or null before the first capture.
+	 */
+	private RecordTable records;
+
+	/**
+	 * The id of the world's record.
+	 */
+	private int worldId;
+
+	/**
+	 * The fields of the records that have changed since the last segment,
+	 * indexed by their ids.
+	 */
+	private long[] changedFields;
+
+	/**
+	 * The ids of the records that have been removed since the last segment.
+	 */
+	private int[] removedIds;
+
+	/**
+	 * The number of removed ids.
+	 */
+	private int removedCount;
+
+	/**
+	 * The ids of the records of the individuals, indexed by their slots in
+	 * the store of the world, or -1.
+	 */
+	private int[] individualIds;
+
+	/**
+	 * The ids of the records of the characteristics of the individuals,
+	 * indexed by their slots in the store of the world, or -1.
+	 */
+	private int[] characteristicsIds;
+
+	/**
+	 * The pass of traverse() that last reached the records, or minus the
+	 * pass while their references are followed, indexed by their ids.
+	 */
+	private int[] marks;
+
+	/**
+	 * The number of the last pass of traverse().
+	 */
+	private int pass;
+
+	/**
+	 * The ids of the records that the last pass of traverse() reached, each
+	 * after the records it references.
+	 */
+	private int[] order;
+
+	/**
+	 * The number of ids in the order.
+	 */
+	private int orderCount;
+
+	/**
+	 * The records that the records are copied into to be changed or
+	 * encoded, or null until they are needed.
+	 */
+	private SaveRecord record;
+	private SaveRecord otherRecord;
+
+	/**
+	 * The size of the base of the current file.
+	 */
+	private long baseSize;
+
+	/**
+	 * The size of the current file.
+	 */
+	private long size;
+
+	/**
+	 * Creates a log that writes to a file. The file isn't replaced until the
+	 * first capture is added.
+	 *
+	 * @param file the file of the log.
+	 */
+	AutoSaveLog(File file) {
+		this.file = file;
+		frame = new ByteArrayOutputStream();
+		ids = new IdentityHashMap();
+		removedIds = new int[16];
+		individualIds = new int[0];
+		characteristicsIds = new int[0];
+	}
+
+	/**
+	 * Adds a capture to the log, either as a delta or, when it is complete
+	 * or the deltas have grown too large, in a new base. The log is done
+	 * with the capture when this returns.
+	 *
+	 * @param capture the capture to add.
+	 * @exception IOException if the file couldn't be written, or the records
+	 * of the capture were invalid.
+	 */
+	void add(IncrementalWriter.Capture capture) throws IOException {
+		if (capture.complete || records == null) {
+			clearRecords();
+		}
+		update(capture);
+		if (channel == null || capture.complete ||
+				size - baseSize > baseSize * DELTA_RATIO) {
+			compact(capture.tickCount);
+		} else {
+			writeDelta(capture.tickCount);
+		}
+	}
+
+	/**
+	 * Closes the file.
+	 *
+	 * @exception IOException if the file couldn't be closed.
+	 */
+	void close() throws IOException {
+		if (output != null) {
+			output.close();
+			output = null;
+			channel = null;
+		}
+	}
+
+	/**
+	 * Forgets all records, for a complete capture.
+	 */
+	private void clearRecords() {
+		ids.clear();
+		objects = new Object[16];
+		nextId = 0;
+		records = new RecordTable(0, 0);
+		changedFields = new long[objects.length];
+		marks = new int[objects.length];
+		pass = 0;
+		removedCount = 0;
+		Arrays.fill(individualIds, -1);
+		Arrays.fill(characteristicsIds, -1);
+	}
+
+	/**
+	 * Changes the records to those of a capture, see the class comment.
+	 */
+	private void update(IncrementalWriter.Capture capture) throws IOException {
+		// The records of the capture may still hold the unregistered objects,
+		// since the lists of the world only drop them on the next tick.
+		IdentityHashMap unregistered = new IdentityHashMap();
+		for (int i = 0; i < capture.unregisteredCount; i++) {
+			Object object = capture.unregistered[i];
+			unregistered.put(object, object);
+			Integer id = (Integer) ids.get(object);
+			if (id != null) {
+				removeRecord(id.intValue());
+			}
+		}
+
+		RecordTable captured = capture.records;
+		int count = captured.size();
+		int[] newIds = new int[count];
+		for (int i = 0; i < count; i++) {
+			Object object = capture.objects[i];
+			Integer id = (Integer) ids.get(object);
+			if (unregistered.containsKey(object)) {
+				newIds[i] = RecordType.NULL_REFERENCE;
+			} else {
+				newIds[i] = (id != null) ? id.intValue() : newId(object);
+			}
+		}
+		int[] externalIds = new int[capture.externalCount];
+		for (int i = 0; i < capture.externalCount; i++) {
+			Integer id = (Integer) ids.get(capture.externals[i]);
+			externalIds[i] = (id != null) ? id.intValue() :
+					RecordType.NULL_REFERENCE;
+		}
+		for (int i = 0; i < count; i++) {
+			int id = newIds[i];
+			if (id == RecordType.NULL_REFERENCE) {
+				continue;
+			}
+			captured.mapReferences(i, newIds, externalIds);
+			record = getRecord(captured, i, record);
+			changedFields[id] |= records.update(id, record);
+			if (capture.slots[i] >= 0) {
+				setSlot(capture.slots[i], id,
+						capture.objects[i] instanceof Individual);
+			}
+		}
+		worldId = newIds[capture.worldId];
+		if (worldId == RecordType.NULL_REFERENCE) {
+			throw new IOException("The captured world is missing");
+		}
+
+		traverse();
+		for (int id = 0; id < nextId; id++) {
+			if (marks[id] != pass && records.getType(id) != null) {
+				removeRecord(id);
+			}
+		}
+		if (capture.columns != null) {
+			saveColumns(capture.columns);
+		}
+	}
+
+	/**
+	 * Saves the columns of a copy of the store into the records of the
+	 * individuals and their characteristics.
+	 */
+	private void saveColumns(IndividualStore columns) {
+		int slotCount = Math.min(columns.getSize(), individualIds.length);
+		for (int slot = 0; slot < slotCount; slot++) {
+			int individualId = individualIds[slot];
+			int characteristicsId = characteristicsIds[slot];
+			if (records.getType(individualId) == null ||
+					records.getType(characteristicsId) == null) {
+				continue;
+			}
+			record = getRecord(records, individualId, record);
+			otherRecord = getRecord(records, characteristicsId, otherRecord);
+			columns.saveSlot(slot, record, otherRecord);
+			changedFields[individualId] |= records.update(individualId, record);
+			changedFields[characteristicsId] |=
+					records.update(characteristicsId, otherRecord);
+		}
+	}
+
+	/**
+	 * Gives an object the next unused id.
+	 */
+	private int newId(Object object) {
+		int id = nextId++;
+		if (id == objects.length) {
+			Object[] newObjects = new Object[id * 2];
+			System.arraycopy(objects, 0, newObjects, 0, id);
+			objects = newObjects;
+			long[] newChangedFields = new long[id * 2];
+			System.arraycopy(changedFields, 0, newChangedFields, 0, id);
+			changedFields = newChangedFields;
+			int[] newMarks = new int[id * 2];
+			System.arraycopy(marks, 0, newMarks, 0, id);
+			marks = newMarks;
+		}
+		objects[id] = object;
+		ids.put(object, new Integer(id));
+		return id;
+	}
+
+	/**
+	 * Remembers the record of the individual, or of the characteristics of
+	 * the individual, in a slot of the store.
+	 */
+	private void setSlot(int slot, int id, boolean individual) {
+		if (slot >= individualIds.length) {
+			int capacity = Math.max(individualIds.length * 2, slot + 1);
+			int[] newIndividualIds = new int[capacity];
+			Arrays.fill(newIndividualIds, -1);
+			System.arraycopy(individualIds, 0, newIndividualIds, 0,
+					individualIds.length);
+			individualIds = newIndividualIds;
+			int[] newCharacteristicsIds = new int[capacity];
+			Arrays.fill(newCharacteristicsIds, -1);
+			System.arraycopy(characteristicsIds, 0, newCharacteristicsIds, 0,
+					characteristicsIds.length);
+			characteristicsIds = newCharacteristicsIds;
+		}
+		if (individual) {
+			individualIds[slot] = id;
+		} else {
+			characteristicsIds[slot] = id;
+		}
+	}
+
+	/**
+	 * Removes a record, which is written in the next delta.
+	 */
+	private void removeRecord(int id) {
+		records.remove(id);
+		ids.remove(objects[id]);
+		objects[id] = null;
+		changedFields[id] = 0;
+		if (removedCount == removedIds.length) {
+			int[] newRemovedIds = new int[removedCount * 2];
+			System.arraycopy(removedIds, 0, newRemovedIds, 0, removedCount);
+			removedIds = newRemovedIds;
+		}
+		removedIds[removedCount++] = id;
+	}
+
+	/**
+	 * Marks the records that the world's record leads to with a new pass,
+	 * and puts them in the order.
+	 */
+	private void traverse() throws IOException {
+		pass++;
+		orderCount = 0;
+		if (order == null || order.length < nextId) {
+			order = new int[objects.length];
+		}
+		visit(worldId);
+	}
+
+	/**
+	 * Marks a record and the records it leads to, and puts them in the
+	 * order, unless it has already been marked.
+	 */
+	private void visit(int id) throws IOException {
+		RecordType type = records.getType(id);
+		if (type == null || marks[id] == pass) {
+			return;
+		}
+		if (marks[id] == -pass) {
+			throw new IOException("The records reference each other: " + id);
+		}
+		marks[id] = -pass;
+		for (int field = 0; field < type.getFieldCount(); field++) {
+			int kind = type.getFieldKind(field);
+			if (kind == RecordType.REFERENCE) {
+				visit((int) records.getValue(id, field));
+			} else if (kind == RecordType.REFERENCE_ARRAY) {
+				int[] references = (int[]) records.getObject(id, field);
+				if (references != null) {
+					for (int i = 0; i < references.length; i++) {
+						visit(references[i]);
+					}
+				}
+			}
+		}
+		marks[id] = pass;
+		order[orderCount++] = id;
+	}
+
+	/**
+	 * Writes the records as the base of a new file, which replaces the log
+	 * once it is complete. The records get new ids in the order of the base.
+	 */
+	private void compact(long tickCount) throws IOException {
+		traverse();
+		int[] newIds = new int[nextId];
+		Arrays.fill(newIds, RecordType.NULL_REFERENCE);
+		for (int i = 0; i < orderCount; i++) {
+			newIds[order[i]] = i;
+		}
+		RecordTable compacted =
+				new RecordTable(orderCount, records.getSlotCount());
+		Object[] newObjects = new Object[Math.max(orderCount, 16)];
+		ids.clear();
+		for (int i = 0; i < orderCount; i++) {
+			int id = order[i];
+			records.mapReferences(id, newIds, null);
+			record = getRecord(records, id, record);
+			compacted.set(i, record);
+			newObjects[i] = objects[id];
+			ids.put(objects[id], new Integer(i));
+		}
+		for (int slot = 0; slot < individualIds.length; slot++) {
+			if (individualIds[slot] >= 0) {
+				individualIds[slot] = newIds[individualIds[slot]];
+			}
+			if (characteristicsIds[slot] >= 0) {
+				characteristicsIds[slot] = newIds[characteristicsIds[slot]];
+			}
+		}
+		worldId = newIds[worldId];
+		records = compacted;
+		objects = newObjects;
+		nextId = orderCount;
+		changedFields = new long[objects.length];
+		marks = new int[objects.length];
+		pass = 0;
+		removedCount = 0;
+
+		close();
+		File newFile = new File(file.getPath() + ".tmp");
+		output = new FileOutputStream(newFile);
+		channel = output.getChannel();
+		size = 0;
+		encoder = new WorldWriter(Channels.newChannel(frame));
+		encoder.writeHeader(LOG_MAGIC);
+		writeFrame();
+
+		encoder.clearStrings();
+		encoder.writeByte(BASE);
+		encoder.writeLong(tickCount);
+		encoder.writeInt(worldId);
+		encoder.writeInt(nextId);
+		for (int id = 0; id < nextId; id++) {
+			record = getRecord(records, id, record);
+			encoder.writeRecord(record);
+		}
+		writeFrame();
+		baseSize = size;
+		channel.force(true);
+
+		// The old log is kept until the new one is complete.
+		close();
+		if (!newFile.renameTo(file)) {
+			file.delete();
+			if (!newFile.renameTo(file)) {
+				throw new IOException("Couldn't replace " + file);
+			}
+		}
+		output = new FileOutputStream(file, true);
+		channel = output.getChannel();
+	}
+
+	/**
+	 * Writes the fields that have changed since the last segment, and the
+	 * records that have been removed, as a delta.
+	 */
+	private void writeDelta(long tickCount) throws IOException {
+		int changedCount = 0;
+		for (int id = 0; id < nextId; id++) {
+			if (changedFields[id] != 0) {
+				changedCount++;
+			}
+		}
+		encoder.clearStrings();
+		encoder.writeByte(DELTA);
+		encoder.writeLong(tickCount);
+		encoder.writeInt(worldId);
+		encoder.writeInt(changedCount);
+		int lastId = -1;
+		for (int id = 0; id < nextId; id++) {
+			if (changedFields[id] != 0) {
+				record = getRecord(records, id, record);
+				encoder.writeVarInt(id - lastId);
+				encoder.writeFields(record, changedFields[id]);
+				changedFields[id] = 0;
+				lastId = id;
+			}
+		}
+
+		Arrays.sort(removedIds, 0, removedCount);
+		encoder.writeInt(removedCount);
+		lastId = -1;
+		for (int i = 0; i < removedCount; i++) {
+			encoder.writeVarInt(removedIds[i] - lastId);
+			lastId = removedIds[i];
+		}
+		removedCount = 0;
+		writeFrame();
+	}
+
+	/**
+	 * Copies a record of a table into a record, which is created if it is
+	 * null, and returns it.
+	 */
+	private static SaveRecord getRecord(RecordTable table, int id,
+			SaveRecord record) {
+		if (record == null) {
+			record = new SaveRecord(table.getType(id));
+		}
+		table.get(id, record);
+		return record;
+	}
+
+	/**
+	 * Appends the encoded frame to the file.
+	 */
+	private void writeFrame() throws IOException {
+		encoder.flush();
+		byte[] contents = frame.toByteArray();
+		frame.reset();
+		CRC32 crc = new CRC32();
+		crc.update(contents);
+		ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+		header.putInt(contents.length);
+		header.putInt((int) crc.getValue());
+		header.flip();
+		ByteBuffer[] buffers = {header, ByteBuffer.wrap(contents)};
+		while (buffers[1].hasRemaining()) {
+			channel.write(buffers);
+		}
+		size += FRAME_HEADER_SIZE + contents.length;
+	}
+
+	/**
+	 * Restores the world from a log: the last base patched with the deltas
+	 * after it. The restored world becomes the world returned by
+	 * World.getWorld(). If it couldn't be restored, there is no world.
+	 *
+	 * @param file the file of the log.
+	 * @return the restored world.
+	 * @exception IOException if the file couldn't be read, or didn't contain
+	 * a complete base.
+	 */
+	static World restore(File file) throws IOException {
+		// Only the frames that were completely written are read.
+		ByteBuffer buffer = readFile(file);
+		byte[] bytes = new byte[WorldWriter.BUFFER_SIZE];
+		CRC32 crc = new CRC32();
+		int[] frames = new int[16];
+		int frameCount = 0;
+		while (buffer.remaining() >= FRAME_HEADER_SIZE) {
+			int length = buffer.getInt();
+			int checksum = buffer.getInt();
+			if (length < 0 || length > buffer.remaining()) {
+				break;
+			}
+			int start = buffer.position();
+			crc.reset();
+			while (buffer.position() < start + length) {
+				int count = Math.min(bytes.length,
+						start + length - buffer.position());
+				buffer.get(bytes, 0, count);
+				crc.update(bytes, 0, count);
+			}
+			if ((int) crc.getValue() != checksum) {
+				break;
+			}
+			if (frameCount == frames.length) {
+				int[] newFrames = new int[frames.length * 2];
+				System.arraycopy(frames, 0, newFrames, 0, frameCount);
+				frames = newFrames;
+			}
+			frames[frameCount++] = start;
+		}
+		if (frameCount < 2) {
+			throw new IOException("The autosave doesn't contain a world");
+		}
+
+		// The current world is only thrown away once the log is known to hold
+		// a world that this version can read.
+		LogRestorer restorer = new LogRestorer(buffer, frames, frameCount);
+		try {
+			restorer.findBase();
+		} catch (RuntimeException e) {
+			throw invalidAutoSave(e);
+		}
+		World.reset();
+		try {
+			World world = restorer.restore();
+			if (world == null) {
+				throw new IOException("The saved world is missing");
+			}
+			return world;
+		} catch (IOException e) {
+			World.reset();
+			throw e;
+		} catch (RuntimeException e) {
+			World.reset();
+			throw invalidAutoSave(e);
+		}
+	}
+
+	/**
+	 * Returns the IOException for a log that a RuntimeException has shown
+	 * to be invalid.
+	 */
+	private static IOException invalidAutoSave(RuntimeException e) {
+		IOException exception = new IOException("Invalid autosave: " + e);
+		exception.initCause(e);
+		return exception;
+	}
+
+	/**
+	 * Reads a whole file into a buffer, from its position to its limit. The
+	 * buffer is direct, so that the garbage collector doesn't have to copy
+	 * it while the world is restored.
+	 */
+	private static ByteBuffer readFile(File file) throws IOException {
+		FileInputStream input = new FileInputStream(file);
+		try {
+			FileChannel fileChannel = input.getChannel();
+			long length = fileChannel.size();
+			if (length > Integer.MAX_VALUE) {
+				throw new IOException("The autosave is too large");
+			}
+			ByteBuffer buffer = ByteBuffer.allocateDirect((int) length);
+			while (buffer.hasRemaining()) {
+				if (fileChannel.read(buffer) < 0) {
+					break;
+				}
+			}
+			buffer.flip();
+			return buffer;
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Restores the world from the frames of a log, see the class comment.
+	 */
+	private static class LogRestorer {
+
+		/**
+		 * The state of a record that hasn't been restored, or of an id
+		 * without a record.
+		 */
+		private static final byte WAITING = 0;
+
+		/**
+		 * The state of a record of the base that is kept in the patches until
+		 * the records it references have been restored.
+		 */
+		private static final byte DEFERRED = 1;
+
+		/**
+		 * The state of a record that is restored after the records it
+		 * references.
+		 */
+		private static final byte RESTORING = 2;
+
+		/**
+		 * The state of a record that has been restored.
+		 */
+		private static final byte RESTORED = 3;
+
+		/**
+		 * The state of a record that a delta has removed.
+		 */
+		private static final byte REMOVED = 4;
+
+		/**
+		 * What a reference is when its record has been restored.
+		 */
+		private static final int READY = 0;
+
+		/**
+		 * What a reference is when its record can't be restored yet.
+		 */
+		private static final int NOT_READY = 1;
+
+		/**
+		 * What a reference is when it has no record, and is restored as null.
+		 */
+		private static final int MISSING = 2;
+
+		/**
+		 * The whole file, which the reader reads one frame at a time.
+		 */
+		private ByteBuffer buffer;
+
+		/**
+		 * The positions in the buffer of the contents of the frames.
+		 */
+		private int[] frames;
+
+		/**
+		 * The number of frames.
+		 */
+		private int frameCount;
+
+		/**
+		 * The reader that decodes the frames and restores the records.
+		 */
+		private WorldReader reader;
+
+		/**
+		 * The frame of the last base.
+		 */
+		private int base;
+
+		/**
+		 * The number of records of the base.
+		 */
+		private int baseCount;
+
+		/**
+		 * The number of records of the base that have been read.
+		 */
+		private int readCount;
+
+		/**
+		 * The fields of the records of the base that the deltas have changed,
+		 * the records that are new in the deltas, and the records of the base
+		 * that have been deferred.
+		 */
+		private RecordTable patches;
+
+		/**
+		 * The fields in the patches of the records of the base, indexed by
+		 * their ids.
+		 */
+		private long[] patchedFields;
+
+		/**
+		 * The states of the records, indexed by their ids.
+		 */
+		private byte[] states;
+
+		/**
+		 * The record that the patches are read into and restored from, or
+		 * null until one is needed.
+		 */
+		private SaveRecord record;
+
+		/**
+		 * Creates a restorer of the frames of a file.
+		 */
+		LogRestorer(ByteBuffer buffer, int[] frames, int frameCount) {
+			this.buffer = buffer;
+			this.frames = frames;
+			this.frameCount = frameCount;
+			reader = new WorldReader(buffer);
+		}
+
+		/**
+		 * Reads the header of the log and finds the last base, without
+		 * changing the current world.
+		 */
+		void findBase() throws IOException {
+			selectFrame(0);
+			reader.readHeader(LOG_MAGIC);
+			base = frameCount - 1;
+			for (; base > 0; base--) {
+				selectFrame(base);
+				if (buffer.get(buffer.position()) == BASE) {
+					break;
+				}
+			}
+			if (base == 0) {
+				throw new IOException("The base of the autosave is missing");
+			}
+		}
+
+		/**
+		 * Restores the world after findBase(), and returns it, or null if it
+		 * wasn't in the log.
+		 */
+		World restore() throws IOException {
+			selectFrame(base);
+			baseCount = readSegmentHeader(BASE);
+			if (base == frameCount - 1) {
+				// Without deltas the base is restored like a save file, since
+				// the records only reference records that come before them.
+				for (int id = 0; id < baseCount; id++) {
+					reader.restore(reader.readRecord(reader.readChar()));
+				}
+				return reader.getRestoredWorld();
+			}
+
+			int recordsPosition = buffer.position();
+			states = new byte[baseCount];
+			patchedFields = new long[baseCount];
+			patches = new RecordTable(0, 0);
+			for (int i = base + 1; i < frameCount; i++) {
+				selectFrame(i);
+				readDelta();
+			}
+
+			selectFrame(base);
+			buffer.position(recordsPosition);
+			reader.clearStrings();
+			for (int id = 0; id < baseCount; id++) {
+				readCount = id;
+				SaveRecord baseRecord = reader.readRecord(reader.readChar());
+				if (baseRecord == null || states[id] == REMOVED) {
+					continue;
+				}
+				RecordType type = patches.getType(id);
+				if (type != null) {
+					if (type != baseRecord.getType()) {
+						throw new IOException("The deltas change the type of " + id);
+					}
+					patches.getFields(id, patchedFields[id], baseRecord);
+				}
+				if (isReady(baseRecord)) {
+					states[id] = RESTORED;
+					reader.restore(baseRecord, id);
+				} else {
+					patches.set(id, baseRecord);
+					states[id] = DEFERRED;
+					restorePatch(id);
+				}
+			}
+			readCount = baseCount;
+
+			for (int id = 0; id < states.length; id++) {
+				if (states[id] == DEFERRED || (states[id] == WAITING &&
+						id >= baseCount && patches.getType(id) != null)) {
+					restorePatch(id);
+				}
+			}
+			return reader.getRestoredWorld();
+		}
+
+		/**
+		 * Reads the changes of a delta into the patches.
+		 */
+		private void readDelta() throws IOException {
+			int count = readSegmentHeader(DELTA);
+			int id = -1;
+			for (int i = 0; i < count; i++) {
+				id = readId(id);
+				int typeIndex = reader.readChar();
+				RecordType type = reader.getType(typeIndex);
+				if (type == null) {
+					reader.readFields(typeIndex, null);
+					continue;
+				}
+				if (id >= states.length) {
+					int capacity = Math.max(states.length * 2, id + 1);
+					byte[] newStates = new byte[capacity];
+					System.arraycopy(states, 0, newStates, 0, states.length);
+					states = newStates;
+				}
+				if (states[id] == REMOVED) {
+					throw new IOException("A removed record has changed: " + id);
+				}
+				if (record == null) {
+					record = new SaveRecord(type);
+				}
+				if (patches.getType(id) == type) {
+					patches.get(id, record);
+				} else {
+					// The fields of a new record that weren't written have
+					// their default values.
+					record.reset(type);
+				}
+				long fields = reader.readFields(typeIndex, record);
+				patches.set(id, record);
+				if (id < baseCount) {
+					patchedFields[id] |= fields;
+				}
+			}
+
+			int removedCount = reader.readInt();
+			id = -1;
+			for (int i = 0; i < removedCount; i++) {
+				id = readId(id);
+				if (id < states.length) {
+					states[id] = REMOVED;
+					patches.remove(id);
+				}
+			}
+		}
+
+		/**
+		 * Reads the header of the segment of the selected frame, and returns
+		 * its number of records.
+		 */
+		private int readSegmentHeader(int kind) throws IOException {
+			reader.clearStrings();
+			int segmentKind = reader.readByte();
+			if (segmentKind != kind) {
+				throw new IOException("Unknown segment " + segmentKind);
+			}
+			reader.readLong();
+			reader.readInt();
+			int count = reader.readInt();
+			if (count < 0) {
+				throw new IOException("Invalid number of records " + count);
+			}
+			return count;
+		}
+
+		/**
+		 * Reads an id that is written as the difference from the id before
+		 * it.
+		 */
+		private int readId(int lastId) throws IOException {
+			int id = lastId + reader.readVarInt();
+			if (id <= lastId) {
+				throw new IOException("Invalid id after " + lastId);
+			}
+			return id;
+		}
+
+		/**
+		 * Sets the buffer to the contents of a frame.
+		 */
+		private void selectFrame(int frame) {
+			buffer.limit(buffer.capacity());
+			buffer.position(frames[frame]);
+			buffer.limit(frames[frame] +
+					buffer.getInt(frames[frame] - FRAME_HEADER_SIZE));
+		}
+
+		/**
+		 * Tells if all records that a record references have been restored.
+		 */
+		private boolean isReady(SaveRecord record) {
+			RecordType type = record.getType();
+			for (int field = 0; field < type.getFieldCount(); field++) {
+				int kind = type.getFieldKind(field);
+				if (kind == RecordType.REFERENCE) {
+					if (!isRestored(record.getReference(field))) {
+						return false;
+					}
+				} else if (kind == RecordType.REFERENCE_ARRAY) {
+					int[] references = record.getArray(field);
+					for (int i = 0; i < references.length; i++) {
+						if (!isRestored(references[i])) {
+							return false;
+						}
+					}
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Tells if a reference is null or its record has been restored.
+		 */
+		private boolean isRestored(int id) {
+			return id == RecordType.NULL_REFERENCE ||
+					(id >= 0 && id < states.length && states[id] == RESTORED);
+		}
+
+		/**
+		 * Restores a record of the patches after the records it references,
+		 * unless one of them can't be restored yet. The references to
+		 * records that don't exist are changed to NULL_REFERENCE.
+		 *
+		 * @return true if the record was restored.
+		 */
+		private boolean restorePatch(int id) throws IOException {
+			RecordType type = patches.getType(id);
+			byte state = states[id];
+			states[id] = RESTORING;
+			for (int field = 0; field < type.getFieldCount(); field++) {
+				int kind = type.getFieldKind(field);
+				if (kind == RecordType.REFERENCE) {
+					int reference = prepare((int) patches.getValue(id, field));
+					if (reference == MISSING) {
+						patches.setValue(id, field, RecordType.NULL_REFERENCE);
+					} else if (reference == NOT_READY) {
+						states[id] = state;
+						return false;
+					}
+				} else if (kind == RecordType.REFERENCE_ARRAY) {
+					// The arrays have been read from the file, so they can be
+					// changed.
+					int[] references = (int[]) patches.getObject(id, field);
+					for (int i = 0; i < references.length; i++) {
+						int reference = prepare(references[i]);
+						if (reference == MISSING) {
+							references[i] = RecordType.NULL_REFERENCE;
+						} else if (reference == NOT_READY) {
+							states[id] = state;
+							return false;
+						}
+					}
+				}
+			}
+			if (record == null) {
+				record = new SaveRecord(type);
+			}
+			patches.get(id, record);
+			patches.remove(id);
+			states[id] = RESTORED;
+			reader.restore(record, id);
+			return true;
+		}
+
+		/**
+		 * Restores the record of a reference, if it can be, and returns
+		 * READY, NOT_READY or MISSING.
+		 */
+		private int prepare(int id) throws IOException {
+			if (id == RecordType.NULL_REFERENCE) {
+				return READY;
+			}
+			if (id < 0 || id >= states.length) {
+				return MISSING;
+			}
+			switch (states[id]) {
+				case RESTORED :
+					return READY;
+				case REMOVED :
+					return MISSING;
+				case RESTORING :
+					throw new IOException("The records of the autosave reference each other");
+				default :
+					if (states[id] == DEFERRED || (id >= baseCount &&
+							patches.getType(id) != null)) {
+						return restorePatch(id) ? READY : NOT_READY;
+					}
+					return (id < baseCount && id >= readCount) ? NOT_READY :
+							MISSING;
+			}
+		}
+	}
+
+}
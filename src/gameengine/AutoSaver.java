@@ -0,0 +1,230 @@
+/* 2026-10-18 agent
+ *	Only captures what has changed on the simulation thread, and stops the
+ *	writer from listening to the world when the autosaves stop.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedList;
+
+/**
+ * Saves the world every Environment.getAutoSaveTicks() ticks to an
+ * append-only log, so that a game that ends without being saved can be
+ * resumed from the last autosave with restore().
+ *
+ * The simulation thread captures what has changed in the world with an
+ * IncrementalWriter, between two ticks, which is the only work it does: the
+ * objects that have been registered and unregistered, the resources that
+ * have changed and a copy of the columns of the store. The AutoSaveLog
+ * builds the records from the captures and writes them on a thread of the
+ * autosaver's own, and the captures are then given back to the writer to be
+ * reused. If that thread falls behind, the autosaves are skipped until it
+ * has caught up, so the simulation never waits for the disk. The first
+ * autosave of a world captures all of it, so it should be made before the
+ * simulation starts.
+ */
+public class AutoSaver implements Runnable {
+
+	/**
+	 * The maximum number of captures that may wait to be written.
+	 */
+	private static final int MAX_PENDING = 2;
+
+	/**
+	 * Captures the records of the world.
+	 */
+	private IncrementalWriter writer;
+
+	/**
+	 * The log that the captures are written to.
+	 */
+	private AutoSaveLog log;
+
+	/**
+	 * The captures that are waiting to be written. Is also the lock of the
+	 * autosaver.
+	 */
+	private LinkedList pending;
+
+	/**
+	 * The thread that writes the captures.
+	 */
+	private Thread thread;
+
+	/**
+	 * true until close() is called.
+	 */
+	private boolean running;
+
+	/**
+	 * The tick count of the world when it was last captured.
+	 */
+	private long lastTickCount;
+
+	/**
+	 * The exception that stopped the autosaves, or null.
+	 */
+	private volatile Exception failure;
+
+	/**
+	 * Constructs an autosaver that writes to the given file, and starts its
+	 * thread. The file isn't replaced until the first autosave, which
+	 * contains the whole world.
+	 *
+	 * @param file the file of the log.
+	 */
+	public AutoSaver(File file) {
+		writer = new IncrementalWriter();
+		log = new AutoSaveLog(file);
+		pending = new LinkedList();
+		running = true;
+		lastTickCount = Long.MIN_VALUE;
+		thread = new Thread(this, "AutoSave");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+	}
+
+	/**
+	 * Captures the world if getAutoSaveTicks() ticks have passed since the
+	 * last autosave. Is called by the simulation thread after each update,
+	 * and once before the simulation starts.
+	 *
+	 * @param world the world to save.
+	 */
+	public void update(World world) {
+		long tickCount = world.getTickCount();
+		if (failure != null) {
+			writer.close();
+			return;
+		}
+		if (lastTickCount != Long.MIN_VALUE &&
+				tickCount - lastTickCount <
+				World.getEnvironment().getAutoSaveTicks()) {
+			return;
+		}
+		synchronized (pending) {
+			if (pending.size() >= MAX_PENDING) {
+				return;
+			}
+		}
+		IncrementalWriter.Capture capture;
+		try {
+			capture = writer.capture(world);
+		} catch (IOException e) {
+			failure = e;
+			return;
+		}
+		lastTickCount = tickCount;
+		synchronized (pending) {
+			pending.addLast(capture);
+			pending.notifyAll();
+		}
+	}
+
+	/**
+	 * Waits until the captures that are waiting have been written, or the
+	 * autosaves have failed.
+	 */
+	public void flush() {
+		synchronized (pending) {
+			while (!pending.isEmpty()) {
+				try {
+					pending.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the captures that are waiting, stops the thread and closes the
+	 * log. Must be called once the simulation has stopped.
+	 */
+	public void close() {
+		writer.close();
+		synchronized (pending) {
+			running = false;
+			pending.notifyAll();
+		}
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns the exception that stopped the autosaves, if any.
+	 *
+	 * @return the exception, or null if the autosaves haven't failed.
+	 */
+	public Exception getFailure() {
+		return failure;
+	}
+
+	/**
+	 * Writes the captures to the log until close() is called.
+	 */
+	public void run() {
+		try {
+			while (true) {
+				IncrementalWriter.Capture capture;
+				synchronized (pending) {
+					while (running && pending.isEmpty()) {
+						try {
+							pending.wait();
+						} catch (InterruptedException e) {
+							// Only close() stops the thread.
+						}
+					}
+					if (pending.isEmpty()) {
+						break;
+					}
+					capture = (IncrementalWriter.Capture) pending.getFirst();
+				}
+				log.add(capture);
+				writer.recycle(capture);
+				synchronized (pending) {
+					pending.removeFirst();
+					pending.notifyAll();
+				}
+			}
+		} catch (Exception e) {
+			failure = e;
+			synchronized (pending) {
+				pending.clear();
+				pending.notifyAll();
+			}
+		} finally {
+			try {
+				log.close();
+			} catch (IOException e) {
+				if (failure == null) {
+					failure = e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Restores the world from the last autosave in a log, which becomes the
+	 * world returned by World.getWorld(). If it couldn't be restored, there
+	 * is no world.
+	 *
+	 * @param file the file of the log.
+	 * @return the restored world.
+	 * @exception IOException if the log couldn't be read, or didn't contain
+	 * a complete autosave.
+	 */
+	public static World restore(File file) throws IOException {
+		return AutoSaveLog.restore(file);
+	}
+
+}
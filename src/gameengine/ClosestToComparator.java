@@ -1,4 +1,7 @@
 /* 
+ * 2026-10-18 agent
+ *	The distance of the second object was calculated from the first object.
+ *
  * 2003-05-12 henko
  *  Made the class implement Serializable.
  * 
@@ -61,7 +64,7 @@ public class ClosestToComparator implements Serializable, Comparator {
 		float firstDistance =
 				firstGameObject.getPoint().distanceTo(comparePoint);
 		float secondDistance =
-				firstGameObject.getPoint().distanceTo(comparePoint);
+				secondGameObject.getPoint().distanceTo(comparePoint);
 
 		if(firstDistance < secondDistance) {
 			return -1;
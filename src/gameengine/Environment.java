@@ -1,4 +1,22 @@
-/* 2003-05-13 henko
+/* 2026-10-18 agent
+ *	Added the checksumTicks.
+ *
+ * 2026-10-18 agent
+ *	Added the autoSaveTicks.
+ *
+ * 2026-10-18 agent
+ *	Added the individualStoreUsed.
+ *
+ * 2026-10-18 agent
+ *	Added the updateThreads and updateChunkSize.
+ *
+ * 2026-10-18 agent
+ *	Added the ticksPerSecond and maxCatchUpTicks.
+ *
+ * 2026-10-18 agent
+ *	Added the spatialIndexCellSize.
+ *
+ * 2003-05-13 henko
  *	Added the pauseDuration.
  *
  * 2003-05-13 Martin
@@ -333,6 +351,54 @@ public class Environment implements Serializable {
 	 */
 	private float pauseDuration = 4f;
 
+	/**
+	 * The width and height, in length units, of the cells in the spatial
+	 * indexes used to find the closest objects.
+	 */
+	private float spatialIndexCellSize = 4f;
+
+	/**
+	 * The default number of ticks (update cycles) simulated per second of
+	 * real time.
+	 */
+	private float ticksPerSecond = 30f;
+
+	/**
+	 * The maximum number of ticks that the world may simulate in one update
+	 * to catch up with the real time.
+	 */
+	private int maxCatchUpTicks = 5;
+
+	/**
+	 * The default number of threads that update the individuals in parallel
+	 * each tick. The result of a tick is the same whatever the number.
+	 */
+	private int updateThreads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The smallest number of individuals that are updated by one thread
+	 * before the work is split between threads.
+	 */
+	private int updateChunkSize = 256;
+
+	/**
+	 * If the characteristics, positions and velocities of the individuals
+	 * are stored in an IndividualStore shared by the world, or each in
+	 * objects of their own.
+	 */
+	private boolean individualStoreUsed = true;
+
+	/**
+	 * The number of ticks between the autosaves, see AutoSaver.
+	 */
+	private int autoSaveTicks = 150;
+
+	/**
+	 * The number of ticks between the checksums of a recorded session, see
+	 * SessionRecorder.
+	 */
+	private int checksumTicks = 100;
+
 ////////////////////////////////////////////////////
 //                Get methods                     //
 ////////////////////////////////////////////////////
@@ -666,6 +732,70 @@ public class Environment implements Serializable {
 		return pauseDuration;
 	}
 
+	/**
+	 * The width and height, in length units, of the cells in the spatial
+	 * indexes used to find the closest objects.
+	 */
+	public float getSpatialIndexCellSize() {
+		return spatialIndexCellSize;
+	}
+
+	/**
+	 * The default number of ticks (update cycles) simulated per second of
+	 * real time.
+	 */
+	public float getTicksPerSecond() {
+		return ticksPerSecond;
+	}
+
+	/**
+	 * The maximum number of ticks that the world may simulate in one update
+	 * to catch up with the real time.
+	 */
+	public int getMaxCatchUpTicks() {
+		return maxCatchUpTicks;
+	}
+
+	/**
+	 * The default number of threads that update the individuals in parallel
+	 * each tick. The result of a tick is the same whatever the number.
+	 */
+	public int getUpdateThreads() {
+		return updateThreads;
+	}
+
+	/**
+	 * The smallest number of individuals that are updated by one thread
+	 * before the work is split between threads.
+	 */
+	public int getUpdateChunkSize() {
+		return updateChunkSize;
+	}
+
+	/**
+	 * If the characteristics, positions and velocities of the individuals
+	 * are stored in an IndividualStore shared by the world, or each in
+	 * objects of their own.
+	 */
+	public boolean isIndividualStoreUsed() {
+		return individualStoreUsed;
+	}
+
+	/**
+	 * The number of ticks between the autosaves, see AutoSaver.
+	 */
+	public int getAutoSaveTicks() {
+		return autoSaveTicks;
+	}
+
+	/**
+	 * The number of ticks between the checksums of a recorded session, see
+	 * SessionRecorder.
+	 */
+	public int getChecksumTicks() {
+		return checksumTicks;
+	}
+
 	/**
 	 * Sets the bounds, if they aren't set yet, to the given bounds. If the bounds
 	 * already are set, nothing will happen.
@@ -0,0 +1,389 @@
+/* 2026-10-18 agent
+ *	Added the phase DEFERRED_COMMIT and elapsed(). The need check includes
+ *	the checks that the individuals make when they are updated.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Measures how long the phases of the ticks and the frames take, in
+ * nanoseconds, while it is enabled. The last WINDOW times of each phase are
+ * kept, and the percentiles of them are shown by the graphics engine and
+ * can be written to a CSV file.
+ *
+ * A phase is measured with
+ * <pre>
+ *	long startTime = FrameProfiler.getProfiler().start();
+ *	...
+ *	FrameProfiler.getProfiler().stop(FrameProfiler.TILE_DRAW, startTime);
+ * </pre>
+ * which costs next to nothing while the profiler is disabled. Each phase
+ * should only be measured by one thread, but the times can be read by any
+ * thread.
+ */
+public class FrameProfiler {
+
+	/**
+	 * A whole tick of the world.
+	 */
+	public static final int WORLD_UPDATE = 0;
+
+	/**
+	 * Executing the queued commands and updating and relocating the lists of
+	 * the world during a tick.
+	 */
+	public static final int LIST_MAINTENANCE = 1;
+
+	/**
+	 * Decreasing the needs and checking the safety and health of the
+	 * individuals, and checking which tasks they need, during a tick. With
+	 * several update threads this is the sum of the time of all threads.
+	 */
+	public static final int NEED_CHECK = 2;
+
+	/**
+	 * Executing the tasks of the individuals during a tick. With several
+	 * update threads this is the sum of the time of all threads.
+	 */
+	public static final int TASK_EXECUTION = 3;
+
+	/**
+	 * Committing the changes that the individuals deferred, and updating the
+	 * other objects, during a tick.
+	 */
+	public static final int DEFERRED_COMMIT = 4;
+
+	/**
+	 * Drawing the terrain of the view.
+	 */
+	public static final int TILE_DRAW = 5;
+
+	/**
+	 * Drawing the game objects of the view.
+	 */
+	public static final int OBJECT_DRAW = 6;
+
+	/**
+	 * Drawing the information panel.
+	 */
+	public static final int INFORMATION_PANEL = 7;
+
+	/**
+	 * Showing the drawn frame on the screen.
+	 */
+	public static final int BUFFER_FLIP = 8;
+
+	/**
+	 * The number of phases.
+	 */
+	public static final int PHASES = 9;
+
+	/**
+	 * The number of times of each phase that are kept.
+	 */
+	public static final int WINDOW = 512;
+
+	/**
+	 * What start() returns while the profiler is disabled.
+	 */
+	private static final long NOT_STARTED = Long.MIN_VALUE;
+
+	/**
+	 * The names of the phases.
+	 */
+	private static final String[] PHASE_NAMES = {
+		"world update",
+		"list maintenance",
+		"need check",
+		"task execution",
+		"deferred commit",
+		"tile draw",
+		"object draw",
+		"information panel",
+		"buffer flip"
+	};
+
+	/**
+	 * The only instance of the profiler.
+	 */
+	private static FrameProfiler profiler = new FrameProfiler();
+
+	/**
+	 * True if the phases are measured.
+	 */
+	private volatile boolean enabled = false;
+
+	/**
+	 * The times of each phase.
+	 */
+	private PhaseTimes[] phaseTimes;
+
+	/**
+	 * Creates a disabled profiler.
+	 */
+	private FrameProfiler() {
+		phaseTimes = new PhaseTimes[PHASES];
+		for (int i = 0; i < PHASES; i++) {
+			phaseTimes[i] = new PhaseTimes();
+		}
+	}
+
+	/**
+	 * Retrieves the only instance of the profiler.
+	 *
+	 * @return the profiler.
+	 */
+	public static FrameProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * Retrieves the name of a phase.
+	 *
+	 * @param phase the phase, for example TILE_DRAW.
+	 * @return the name of the phase.
+	 */
+	public static String getPhaseName(int phase) {
+		return PHASE_NAMES[phase];
+	}
+
+	/**
+	 * Sets if the phases should be measured. The times measured so far are
+	 * kept.
+	 *
+	 * @param enabled true to measure the phases, otherwise false.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Tells if the phases are measured.
+	 *
+	 * @return true if the profiler is enabled.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Starts measuring a phase.
+	 *
+	 * @return the start time to give to stop().
+	 */
+	public long start() {
+		return enabled ? System.nanoTime() : NOT_STARTED;
+	}
+
+	/**
+	 * Stops measuring a phase and records its time, unless the profiler was
+	 * disabled when it was started.
+	 *
+	 * @param phase the phase, for example TILE_DRAW.
+	 * @param startTime what start() returned.
+	 */
+	public void stop(int phase, long startTime) {
+		if (startTime != NOT_STARTED) {
+			phaseTimes[phase].add(System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Returns the time since start() was called, for phases whose times are
+	 * added up before they are recorded.
+	 *
+	 * @param startTime what start() returned.
+	 * @return the time in nanoseconds, or 0 if the profiler was disabled
+	 * when it was started.
+	 */
+	public long elapsed(long startTime) {
+		return (startTime != NOT_STARTED) ? System.nanoTime() - startTime : 0;
+	}
+
+	/**
+	 * Records a time of a phase.
+	 *
+	 * @param phase the phase, for example TILE_DRAW.
+	 * @param time the time in nanoseconds.
+	 */
+	public void record(int phase, long time) {
+		phaseTimes[phase].add(time);
+	}
+
+	/**
+	 * Retrieves the number of times that have been recorded for a phase,
+	 * including those that are no longer kept.
+	 *
+	 * @param phase the phase, for example TILE_DRAW.
+	 * @return the number of times.
+	 */
+	public long getCount(int phase) {
+		return phaseTimes[phase].getCount();
+	}
+
+	/**
+	 * Calculates percentiles of the kept times of a phase.
+	 *
+	 * @param phase the phase, for example TILE_DRAW.
+	 * @param percents the percentiles to calculate, from 0 to 100.
+	 * @param times where to put the percentiles in nanoseconds, in the same
+	 * order as percents. They are 0 if there are no times.
+	 */
+	public void getPercentiles(int phase, int[] percents, long[] times) {
+		phaseTimes[phase].getPercentiles(percents, times);
+	}
+
+	/**
+	 * Throws away all recorded times.
+	 */
+	public void reset() {
+		for (int i = 0; i < PHASES; i++) {
+			phaseTimes[i].clear();
+		}
+	}
+
+	/**
+	 * Writes the count, mean, median, 95th and 99th percentile and maximum of
+	 * the kept times of each phase as CSV, one line per phase, after a line
+	 * with the column names. The times are in milliseconds.
+	 *
+	 * @param writer where to write.
+	 * @throws IOException if the writer couldn't write.
+	 */
+	public void writeCsv(Writer writer) throws IOException {
+		int[] percents = {50, 95, 99, 100};
+		long[] times = new long[percents.length];
+		writer.write("phase,count,mean_ms,p50_ms,p95_ms,p99_ms,max_ms\n");
+		for (int i = 0; i < PHASES; i++) {
+			PhaseTimes phase = phaseTimes[i];
+			phase.getPercentiles(percents, times);
+			writer.write(PHASE_NAMES[i] + "," + phase.getCount() + "," +
+					toMillis(phase.getMean()) + "," + toMillis(times[0]) + "," +
+					toMillis(times[1]) + "," + toMillis(times[2]) + "," +
+					toMillis(times[3]) + "\n");
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Writes the times to a CSV file, see writeCsv(Writer).
+	 *
+	 * @param file the file to write. Is replaced if it exists.
+	 * @throws IOException if the file couldn't be written.
+	 */
+	public void writeCsv(File file) throws IOException {
+		Writer writer = new FileWriter(file);
+		try {
+			writeCsv(writer);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Converts nanoseconds to milliseconds.
+	 */
+	private static double toMillis(double nanoseconds) {
+		return nanoseconds / 1000000.0;
+	}
+
+	/**
+	 * The last WINDOW times of a phase, kept in a ring.
+	 */
+	private static class PhaseTimes {
+
+		/**
+		 * The times, the oldest at next once the ring is full.
+		 */
+		private long[] times = new long[WINDOW];
+
+		/**
+		 * The kept times sorted, when getPercentiles() is called.
+		 */
+		private long[] sortedTimes = new long[WINDOW];
+
+		/**
+		 * Where the next time is put.
+		 */
+		private int next;
+
+		/**
+		 * The number of times that have been added.
+		 */
+		private long count;
+
+		/**
+		 * Adds a time, and throws away the oldest if the ring is full.
+		 */
+		synchronized void add(long time) {
+			times[next] = time;
+			next = (next + 1) % WINDOW;
+			count++;
+		}
+
+		/**
+		 * Returns the number of times that have been added.
+		 */
+		synchronized long getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns the number of times that are kept.
+		 */
+		private int getSize() {
+			return (int) Math.min(count, WINDOW);
+		}
+
+		/**
+		 * Returns the mean of the kept times, or 0 if there are none.
+		 */
+		synchronized double getMean() {
+			int size = getSize();
+			if (size == 0) {
+				return 0;
+			}
+			long sum = 0;
+			for (int i = 0; i < size; i++) {
+				sum += times[i];
+			}
+			return sum / (double) size;
+		}
+
+		/**
+		 * Calculates percentiles of the kept times with the nearest rank
+		 * method.
+		 */
+		synchronized void getPercentiles(int[] percents, long[] result) {
+			int size = getSize();
+			if (size == 0) {
+				Arrays.fill(result, 0, percents.length, 0);
+				return;
+			}
+			System.arraycopy(times, 0, sortedTimes, 0, size);
+			Arrays.sort(sortedTimes, 0, size);
+			for (int i = 0; i < percents.length; i++) {
+				int rank = (int) Math.ceil(percents[i] / 100.0 * size);
+				result[i] = sortedTimes[Math.max(0, Math.min(size - 1, rank - 1))];
+			}
+		}
+
+		/**
+		 * Throws away all times.
+		 */
+		synchronized void clear() {
+			next = 0;
+			count = 0;
+		}
+
+	}
+
+}
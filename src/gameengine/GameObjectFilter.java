@@ -0,0 +1,24 @@
+/* 2026-10-18 agent
+ *	Created the interface, used by the queries of SpatialIndex.
+ */
+package gameengine;
+
+import gameengine.gameobjects.GameObject;
+
+/**
+ * A filter that decides if a GameObject should be accepted or not. Is used
+ * when searching a SpatialIndex (or a SortableList) for the closest object
+ * that fulfills some condition, for example a source node that still has
+ * resources left.
+ */
+public interface GameObjectFilter {
+
+	/**
+	 * Tests if the given GameObject should be accepted.
+	 *
+	 * @param gameObject the GameObject to test. Is never deleted.
+	 * @return true if the GameObject is accepted, otherwise false.
+	 */
+	public boolean accept(GameObject gameObject);
+
+}
@@ -1,4 +1,11 @@
 /* 
+ * 2026-10-18 agent
+ *	The order of the list no longer changes when objects are removed.
+ *
+ * 2026-10-18 agent
+ *	Documented that get() depends on the order of the list, which changes
+ *	when objects are removed.
+ *
  * 2003-05-12 henko
  *  Made the class implement Serializable.
  * 
@@ -27,7 +34,9 @@ import java.util.*;
 public class GameObjectList extends SortableList implements Serializable {
 
 	/**
-	 * Returns the GameObject at the specified position in this list.
+	 * Returns the GameObject at the specified position in this list. The
+	 * objects are in the order they were added, and the positions of the
+	 * objects after a removed one are only valid until the next update().
 	 *
 	 * @param index index of GameObject to return.
 	 * @return the GameObject at the specified position in this list.
@@ -0,0 +1,404 @@
+/* 2026-10-18 agent
+ *	Only the first capture of a world walks all of its objects. The later
+ *	ones copy the columns of the IndividualStore, the lists of the world,
+ *	the objects that have been registered and unregistered since the last
+ *	capture and the resources that have changed, and leave the building
+ *	of the records of the individuals to AutoSaveLog. The socialize groups
+ *	aren't captured, since their members belong to the tasks.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import gameengine.gameobjects.GameObject;
+import gameengine.gameobjects.Individual;
+import gameengine.gameobjects.IndividualStore;
+import gameengine.gameobjects.SocializeGroup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Captures the world for the autosave, see AutoSaver. Only what has changed
+ * since the last capture is captured, on the simulation thread between two
+ * ticks, and AutoSaveLog builds the records of the world from that on its
+ * own thread.
+ *
+ * The first capture of a world is complete: the records of all objects, in
+ * the order WorldWriter would have written them, and the writer then starts
+ * listening to the world for the objects that are registered and
+ * unregistered. A later capture holds:
+ * <ul>
+ * <li>the record of the world, with its lists, its random source and the
+ * record of its map, but with the spatial indices saved without their
+ * grids, see WorldWriter.savesGrids(),
+ * <li>the records of the game objects that have been registered since the
+ * last capture, and of the objects they reference,
+ * <li>the records of the Resources whose amounts have changed, see
+ * GameObject.collectChangedResources(),
+ * <li>the game objects that have been unregistered, and
+ * <li>a copy of the columns of the world's IndividualStore, from which
+ * AutoSaveLog saves the positions, velocities and needs of all individuals.
+ * </ul>
+ * The other game objects are referenced by the records as externals, which
+ * AutoSaveLog gives the ids it has given the objects. The tasks aren't
+ * captured at all, since they reference most of the world, so restored
+ * individuals choose new tasks, and the randomizers and random sources of
+ * the game objects keep the states they had when the objects were
+ * registered. Neither are the socialize groups, whose members are
+ * registered and unregistered by their SocializeTasks, so the restored
+ * world has none until its individuals socialize again.
+ *
+ * The arrays of a capture are given back with recycle() once the log is
+ * done with them, since allocating arrays of that size for each capture
+ * would make the simulation thread wait for the garbage collector.
+ */
+class IncrementalWriter extends WorldWriter implements WorldListener {
+
+	/**
+	 * The maximum number of captures that are kept to be reused.
+	 */
+	private static final int MAX_SPARES = 2;
+
+	/**
+	 * The world that the writer listens to, or null.
+	 */
+	private World world;
+
+	/**
+	 * The game objects that have been registered since the last capture,
+	 * mapped by themselves. Is also the lock of the unregistered objects.
+	 */
+	private IdentityHashMap registered = new IdentityHashMap();
+
+	/**
+	 * The game objects that were captured before they were unregistered,
+	 * since the last capture.
+	 */
+	private List unregistered = new ArrayList();
+
+	/**
+	 * The Resources that have changed, collected by the capture in
+	 * progress.
+	 */
+	private List changedResources = new ArrayList();
+
+	/**
+	 * The capture in progress, or null.
+	 */
+	private Capture capture;
+
+	/**
+	 * The store of the world of the capture in progress, or null.
+	 */
+	private IndividualStore store;
+
+	/**
+	 * The captures that can be reused. Is also their lock.
+	 */
+	private LinkedList spares = new LinkedList();
+
+	/**
+	 * Creates a writer.
+	 */
+	IncrementalWriter() {
+		super(null);
+	}
+
+	/**
+	 * Captures the world. The first capture of a world is complete. Must be
+	 * called on the simulation thread, between two ticks.
+	 *
+	 * @param world the world to save.
+	 * @return the capture.
+	 * @exception IOException if an object couldn't be saved.
+	 */
+	Capture capture(World world) throws IOException {
+		boolean complete = world != this.world;
+		if (complete) {
+			close();
+			world.addWorldListener(this);
+			this.world = world;
+		}
+		synchronized (spares) {
+			capture = spares.isEmpty() ? new Capture() :
+					(Capture) spares.removeFirst();
+		}
+		capture.complete = complete;
+		capture.tickCount = world.getTickCount();
+		store = world.getIndividualStore();
+		ids.clear();
+		laterObjects.clear();
+		Capture captured = capture;
+		try {
+			if (complete) {
+				captureAll(world);
+			} else {
+				captureChanges(world);
+			}
+			if (store == null) {
+				capture.columns = null;
+			} else {
+				if (capture.columns == null) {
+					capture.columns = new IndividualStore();
+				}
+				store.copyTo(capture.columns);
+			}
+		} finally {
+			// The objects mustn't be kept until the next capture.
+			ids.clear();
+			laterObjects.clear();
+			changedResources.clear();
+			capture = null;
+			store = null;
+		}
+		return captured;
+	}
+
+	/**
+	 * Captures all objects of the world. The changes of the resources so far
+	 * are forgotten, since the resources are captured as they are.
+	 */
+	private void captureAll(World world) throws IOException {
+		synchronized (registered) {
+			registered.clear();
+			unregistered.clear();
+		}
+		capture.worldId = reference(world);
+		for (int id = 0; id < capture.records.size(); id++) {
+			if (capture.objects[id] instanceof GameObject) {
+				((GameObject) capture.objects[id]).collectChangedResources(
+						changedResources);
+			}
+		}
+	}
+
+	/**
+	 * Captures what has changed since the last capture, see the class
+	 * comment.
+	 */
+	private void captureChanges(World world) throws IOException {
+		capture.externalCount = 0;
+		capture.worldId = reference(world);
+
+		Object[] registeredObjects;
+		synchronized (registered) {
+			registeredObjects = registered.keySet().toArray();
+			capture.unregistered = unregistered.toArray(capture.unregistered);
+			capture.unregisteredCount = unregistered.size();
+			registered.clear();
+			unregistered.clear();
+		}
+		for (int i = 0; i < registeredObjects.length; i++) {
+			super.reference((Saveable) registeredObjects[i]);
+		}
+
+		// The game objects of the world are those that its record
+		// references. Individuals that aren't kept in the store of the world
+		// are captured whole.
+		for (int i = 0; i < capture.externalCount; i++) {
+			GameObject gameObject = (GameObject) capture.externals[i];
+			gameObject.collectChangedResources(changedResources);
+			if (gameObject instanceof Individual &&
+					(store == null || store.getSlot(gameObject) < 0)) {
+				super.reference(gameObject);
+			}
+		}
+		for (int i = 0; i < changedResources.size(); i++) {
+			reference((Saveable) changedResources.get(i));
+		}
+	}
+
+	/**
+	 * Stops listening to the world, whose next capture will be complete.
+	 * Must be called when the writer isn't used any more.
+	 */
+	void close() {
+		if (world != null) {
+			world.removeWorldListener(this);
+			world = null;
+		}
+		synchronized (registered) {
+			registered.clear();
+			unregistered.clear();
+		}
+	}
+
+	/**
+	 * Gives back a capture that isn't used any more, to be reused by the
+	 * next captures. May be called from any thread.
+	 *
+	 * @param captured the capture.
+	 */
+	void recycle(Capture captured) {
+		captured.records.clear();
+		Arrays.fill(captured.objects, null);
+		Arrays.fill(captured.externals, null);
+		Arrays.fill(captured.unregistered, null);
+		captured.externalCount = 0;
+		captured.unregisteredCount = 0;
+		synchronized (spares) {
+			if (spares.size() < MAX_SPARES) {
+				spares.addLast(captured);
+			}
+		}
+	}
+
+	/**
+	 * Remembers a game object that has been registered, to be captured
+	 * whole. May be called on any thread.
+	 */
+	public void objectRegistered(GameObject gameObject) {
+		if (gameObject instanceof SocializeGroup) {
+			return;
+		}
+		synchronized (registered) {
+			registered.put(gameObject, gameObject);
+		}
+	}
+
+	/**
+	 * Remembers a game object that has been unregistered, unless it has been
+	 * registered since the last capture. May be called on any thread.
+	 */
+	public void objectUnregistered(GameObject gameObject) {
+		if (gameObject instanceof SocializeGroup) {
+			return;
+		}
+		synchronized (registered) {
+			if (registered.remove(gameObject) == null) {
+				unregistered.add(gameObject);
+			}
+		}
+	}
+
+	/**
+	 * Saves an object in the capture, unless it is a socialize group, which
+	 * isn't captured, or the capture isn't complete and the object is a game
+	 * object, which is only referenced as an external.
+	 */
+	public int reference(Saveable object) throws IOException {
+		if (object instanceof SocializeGroup) {
+			return RecordType.NULL_REFERENCE;
+		}
+		if (!capture.complete && object instanceof GameObject) {
+			if (capture.externalCount == capture.externals.length) {
+				Object[] newExternals = new Object[capture.externalCount * 2];
+				System.arraycopy(capture.externals, 0, newExternals, 0,
+						capture.externalCount);
+				capture.externals = newExternals;
+			}
+			capture.externals[capture.externalCount++] = object;
+			return -2 - (capture.externalCount - 1);
+		}
+		return super.reference(object);
+	}
+
+	/**
+	 * Doesn't save the object. The tasks of the individuals are the only
+	 * objects that are saved later, and they aren't autosaved.
+	 */
+	public void saveLater(Saveable object) {
+	}
+
+	/**
+	 * The grids of the spatial indices aren't autosaved.
+	 */
+	boolean savesGrids() {
+		return false;
+	}
+
+	/**
+	 * Copies the record into the capture, with the next id, and remembers
+	 * the slot of the object in the store.
+	 */
+	int recordSaved(Saveable object, SaveRecord record) {
+		int id = capture.records.add(record);
+		if (id == capture.objects.length) {
+			Saveable[] newObjects = new Saveable[id * 2];
+			System.arraycopy(capture.objects, 0, newObjects, 0, id);
+			capture.objects = newObjects;
+			int[] newSlots = new int[id * 2];
+			System.arraycopy(capture.slots, 0, newSlots, 0, id);
+			capture.slots = newSlots;
+		}
+		capture.objects[id] = object;
+		capture.slots[id] = (store == null) ? -1 : store.getSlot(object);
+		return id;
+	}
+
+	/**
+	 * What the world was like at one moment, or what has changed since the
+	 * last capture, see the class comment. The records reference each other
+	 * by their ids, which are the order they were saved in, and the other
+	 * game objects as externals: the first is -2, the next -3 and so on. Only
+	 * the AutoSaveLog that the capture is given to may read or change it.
+	 */
+	static class Capture {
+
+		/**
+		 * If the capture holds the records of all objects of the world.
+		 */
+		boolean complete;
+
+		/**
+		 * The tick count of the world when it was captured.
+		 */
+		long tickCount;
+
+		/**
+		 * The id of the world's record.
+		 */
+		int worldId;
+
+		/**
+		 * The records.
+		 */
+		RecordTable records = new RecordTable(0, 0);
+
+		/**
+		 * The objects of the records, indexed by the ids of their records.
+		 */
+		Saveable[] objects = new Saveable[16];
+
+		/**
+		 * The slots in the store of the world of the individuals and
+		 * characteristics of the records, or -1, indexed by the ids of their
+		 * records.
+		 */
+		int[] slots = new int[16];
+
+		/**
+		 * The game objects that the records reference as externals.
+		 */
+		Object[] externals = new Object[16];
+
+		/**
+		 * The number of externals.
+		 */
+		int externalCount;
+
+		/**
+		 * The game objects that have been unregistered since the last
+		 * capture.
+		 */
+		Object[] unregistered = new Object[16];
+
+		/**
+		 * The number of unregistered game objects.
+		 */
+		int unregisteredCount;
+
+		/**
+		 * A copy of the store of the world, or null if the world has no
+		 * store.
+		 */
+		IndividualStore columns;
+	}
+
+}
@@ -0,0 +1,339 @@
+/* 2026-10-18 agent
+ *	A removed object leaves a gap that is closed later, instead of the
+ *	last object being moved into its place, so the objects stay in the
+ *	order they were added.
+ *
+ * 2026-10-18 agent
+ *	Added indexOf(), which finds the index in constant time through the
+ *	handle.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A list of objects that can add, remove and find an object in constant
+ * time. The objects are kept in an array, so iterating is almost as fast as
+ * over an ArrayList, and each object has a handle with its index in the
+ * array. The handles are found by the identity of the objects, not by
+ * equals(), and an object can only be in the list once.
+ *
+ * The objects stay in the order they were added, as in an ArrayList, so
+ * that the world is updated in the same order in each run. A removed object
+ * leaves a null slot in the array, which iterating skips. The slots are
+ * compacted, keeping the order, when a quarter of them are empty, and
+ * before get() or indexOf() is used, so that the indices are always those
+ * of an ArrayList. Each object is then moved once per compaction, so adding
+ * and removing take amortized constant time. As for an ArrayList, the
+ * iterators fail with a ConcurrentModificationException if an object is
+ * added or removed while iterating.
+ */
+public class IndexedList implements Serializable {
+
+	/**
+	 * The objects in the order they were added, in the slots from 0 to
+	 * slots - 1. The slots of removed objects are null.
+	 */
+	private Object[] elements;
+
+	/**
+	 * The number of slots in use, including the empty ones.
+	 */
+	private int slots;
+
+	/**
+	 * The number of objects.
+	 */
+	private int size;
+
+	/**
+	 * The handles of the objects, keyed by the objects' identity.
+	 */
+	private IdentityHashMap handles;
+
+	/**
+	 * The number of changes of the list, used to detect changes while
+	 * iterating.
+	 */
+	private transient int modificationCount;
+
+	/**
+	 * The number of compactions, used by the iterators to find their place
+	 * again after the slots have been compacted.
+	 */
+	private transient int compactionCount;
+
+	/**
+	 * Constructs an empty list.
+	 */
+	public IndexedList() {
+		elements = new Object[16];
+		slots = 0;
+		size = 0;
+		handles = new IdentityHashMap();
+	}
+
+	/**
+	 * Returns the number of objects in the list.
+	 *
+	 * @return the number of objects in the list.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the object at the given index.
+	 *
+	 * @param index the index, from 0 to size() - 1.
+	 * @return the object at the given index.
+	 */
+	public Object get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+		}
+		compact();
+		return elements[index];
+	}
+
+	/**
+	 * Tells if the given object is in the list.
+	 *
+	 * @param object the object.
+	 * @return true if the object is in the list, otherwise false.
+	 */
+	public boolean contains(Object object) {
+		return handles.containsKey(object);
+	}
+
+	/**
+	 * Returns the index of the given object.
+	 *
+	 * @param object the object.
+	 * @return the index of the object, or -1 if it isn't in the list.
+	 */
+	public int indexOf(Object object) {
+		Handle handle = (Handle) handles.get(object);
+		if (handle == null) {
+			return -1;
+		}
+		compact();
+		return handle.index;
+	}
+
+	/**
+	 * Makes room for the given number of objects without growing the array
+	 * again.
+	 *
+	 * @param capacity the number of objects.
+	 */
+	public void ensureCapacity(int capacity) {
+		if (slots + capacity - size <= elements.length) {
+			return;
+		}
+		compact();
+		if (capacity > elements.length) {
+			Object[] newElements = new Object[Math.max(capacity, elements.length * 2)];
+			System.arraycopy(elements, 0, newElements, 0, slots);
+			elements = newElements;
+		}
+	}
+
+	/**
+	 * Adds the object last in the list, unless it already is in the list.
+	 *
+	 * @param object the object to add.
+	 * @return true if the object was added, false if it already was in the
+	 * list.
+	 */
+	public boolean add(Object object) {
+		if (handles.containsKey(object)) {
+			return false;
+		}
+		if (slots == elements.length) {
+			ensureCapacity(size + 1);
+		}
+		elements[slots] = object;
+		handles.put(object, new Handle(slots));
+		slots++;
+		size++;
+		modificationCount++;
+		return true;
+	}
+
+	/**
+	 * Removes the object from the list. The other objects keep their order.
+	 *
+	 * @param object the object to remove.
+	 * @return true if the object was removed, false if it wasn't in the list.
+	 */
+	public boolean remove(Object object) {
+		Handle handle = (Handle) handles.remove(object);
+		if (handle == null) {
+			return false;
+		}
+		elements[handle.index] = null;
+		size--;
+		while (slots > 0 && elements[slots - 1] == null) {
+			slots--;
+		}
+		if (slots - size > slots / 4) {
+			compact();
+		}
+		modificationCount++;
+		return true;
+	}
+
+	/**
+	 * Moves the objects into the first slots, keeping their order, if any
+	 * slots are empty.
+	 */
+	private void compact() {
+		if (slots == size) {
+			return;
+		}
+		int to = 0;
+		for (int from = 0; from < slots; from++) {
+			Object object = elements[from];
+			if (object != null) {
+				if (to != from) {
+					elements[to] = object;
+					((Handle) handles.get(object)).index = to;
+				}
+				to++;
+			}
+		}
+		for (int i = size; i < slots; i++) {
+			elements[i] = null;
+		}
+		slots = size;
+		compactionCount++;
+	}
+
+	/**
+	 * Sorts the objects with the given comparator. The sort is stable.
+	 *
+	 * @param comparator the comparator to sort with.
+	 */
+	public void sort(Comparator comparator) {
+		compact();
+		Arrays.sort(elements, 0, size, comparator);
+		for (int i = 0; i < size; i++) {
+			((Handle) handles.get(elements[i])).index = i;
+		}
+		modificationCount++;
+	}
+
+	/**
+	 * Returns the first of the smallest objects according to the comparator,
+	 * the same object that would be first after sort(), but without sorting.
+	 *
+	 * @param comparator the comparator.
+	 * @return the smallest object, or null if the list is empty.
+	 */
+	public Object min(Comparator comparator) {
+		Object min = null;
+		for (int i = 0; i < slots; i++) {
+			if (elements[i] != null &&
+					(min == null || comparator.compare(elements[i], min) < 0)) {
+				min = elements[i];
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * Returns an iterator over the objects. The iterator doesn't support
+	 * remove().
+	 *
+	 * @return an iterator over the objects.
+	 */
+	public Iterator iterator() {
+		return new IndexedIterator();
+	}
+
+	/**
+	 * The index of an object in the list.
+	 */
+	private static class Handle implements Serializable {
+
+		/**
+		 * The index of the object in the elements array.
+		 */
+		int index;
+
+		/**
+		 * Constructs a handle for the given index.
+		 */
+		Handle(int index) {
+			this.index = index;
+		}
+
+	}
+
+	/**
+	 * Iterates over the objects in order, skipping the empty slots.
+	 */
+	private class IndexedIterator implements Iterator {
+
+		/**
+		 * The slot to look for the next object from.
+		 */
+		private int next = 0;
+
+		/**
+		 * The object last returned, or null.
+		 */
+		private Object last;
+
+		/**
+		 * The modification count when the iterator was created.
+		 */
+		private int expectedModificationCount = modificationCount;
+
+		/**
+		 * The compaction count when next was last set.
+		 */
+		private int expectedCompactionCount = compactionCount;
+
+		public boolean hasNext() {
+			if (compactionCount != expectedCompactionCount &&
+					modificationCount == expectedModificationCount) {
+				// get() or indexOf() has compacted the slots, which kept the
+				// order, so the next object is after the last one returned.
+				next = (last != null) ? ((Handle) handles.get(last)).index + 1 : 0;
+				expectedCompactionCount = compactionCount;
+			}
+			while (next < slots && elements[next] == null) {
+				next++;
+			}
+			return next < slots;
+		}
+
+		public Object next() {
+			if (modificationCount != expectedModificationCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			last = elements[next++];
+			return last;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+}
@@ -1,4 +1,7 @@
 /*
+ * 2026-10-18 agent
+ *	Added the record type it is saved as, and a restoring constructor.
+ *
  * 2003-05-11 henko
  *  Created.
  */
@@ -14,6 +17,16 @@ package gameengine;
  * mean interval cannot.
 */
 public class IntervalRandomizer extends Randomizer {
+
+	/**
+	 * The type of the records that IntervalRandomizers are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("IntervalRandomizer",
+			Randomizer.RECORD_TYPE, new String[0], new int[0]) {
+		public Object restore(SaveRecord record, WorldReader reader) {
+			return new IntervalRandomizer(record);
+		}
+	};
 	
 	/**
 	 * Creates a Randomizer object. Supports setting the wanted mean time
@@ -48,4 +61,17 @@ public class IntervalRandomizer extends Randomizer {
 		this(meanTimeBetweenSuccessful, 1f);
 	}
 
+	/**
+	 * Restores a IntervalRandomizer that has been saved.
+	 *
+	 * @param record the record that it was saved as.
+	 */
+	private IntervalRandomizer(SaveRecord record) {
+		super(record);
+	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
 }
@@ -1,4 +1,11 @@
 /*
+ * 2026-10-18 agent
+ *	Added distance() and angle(), which calculate the same as distanceTo()
+ *	and angleTo() from coordinates, without any Point.
+ *
+ * 2026-10-18 agent
+ *	The random point is created with the RandomSource of the world.
+ *
  * 2003-05-12 henko
  *	Added a special constructor for creating the bounds (in Environment). This
  *  makes it possible to check for out of bounds in Point(x, y).
@@ -57,19 +64,20 @@ public class Point implements Serializable{
 
 	/**
 	 * Constructs a Point with the x and y coordinates randomized
-	 * within the allowed bounds.
+	 * within the allowed bounds, using the RandomSource of the world.
 	 */
 	public Point() {
-		
+		RandomSource random = World.getWorld().getRandom();
+
 		float xSpan = World.getEnvironment().getMaxCoordinate().getX() -
 				World.getEnvironment().getMinCoordinate().getX();
 		float ySpan = World.getEnvironment().getMaxCoordinate().getY() -
 				World.getEnvironment().getMinCoordinate().getY();
 
 		x = World.getEnvironment().getMinCoordinate().getX() +
-				(float)Math.random() * xSpan;
+				random.nextFloat() * xSpan;
 		y = World.getEnvironment().getMinCoordinate().getY() +
-				(float)Math.random() * ySpan;
+				random.nextFloat() * ySpan;
 
 		// Does not check for out of bounds, because the random values can't
 		// be out of bounds.
@@ -198,9 +206,22 @@ public class Point implements Serializable{
 	* @return a float representing the distance between the points.
 	*/
 	public float distanceTo(Point point) {
+		return distance(x, y, point.x, point.y);
+	}
+
+	/**
+	 * Calculates the distance between two coordinates.
+	 *
+	 * @param fromX the x coordinate to calculate the distance from.
+	 * @param fromY the y coordinate to calculate the distance from.
+	 * @param toX the x coordinate to calculate the distance to.
+	 * @param toY the y coordinate to calculate the distance to.
+	 * @return a float representing the distance.
+	 */
+	public static float distance(float fromX, float fromY, float toX, float toY) {
 		// Just used pythagoras.
-		float dX = (this.x - point.getX());
-		float dY = (this.y - point.getY());
+		float dX = (fromX - toX);
+		float dY = (fromY - toY);
 		return (float) Math.sqrt(dX * dX + dY * dY);
 	}
 
@@ -211,8 +232,21 @@ public class Point implements Serializable{
 	* @return a float representing the angle between the points.
 	*/
 	public float angleTo(Point point) {
-		float dX = point.x - this.x;
-		float dY = point.y - this.y;
+		return angle(x, y, point.x, point.y);
+	}
+
+	/**
+	 * Calculates the angle from one coordinate to another.
+	 *
+	 * @param fromX the x coordinate to calculate the angle from.
+	 * @param fromY the y coordinate to calculate the angle from.
+	 * @param toX the x coordinate to calculate the angle to.
+	 * @param toY the y coordinate to calculate the angle to.
+	 * @return a float representing the angle, between 0 and 2 pi.
+	 */
+	public static float angle(float fromX, float fromY, float toX, float toY) {
+		float dX = toX - fromX;
+		float dY = toY - fromY;
 
 		// Gets angle between -pi and +pi.
 		float angle = (float) Math.atan2(dY, dX);
@@ -1,4 +1,7 @@
-/* 2003-05-12 Martin
+/* 2026-10-18 agent
+ *	Is saved as a record of its own type, with the fields of Randomizer.
+ *
+ * 2003-05-12 Martin
  *	Commented correctly.
  *
  * 2003-05-11 henko
@@ -16,6 +19,16 @@ package gameengine;
  */
 public class ProbabilityRandomizer extends Randomizer {
 
+	/**
+	 * The type of the records that ProbabilityRandomizers are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("ProbabilityRandomizer",
+			Randomizer.RECORD_TYPE, new String[0], new int[0]) {
+		public Object restore(SaveRecord record, WorldReader reader) {
+			return new ProbabilityRandomizer(record);
+		}
+	};
+
 	/**
 	 * Creates a ProbabilityRandomizer object with a given default probability
 	 * and a modifier.
@@ -41,4 +54,17 @@ public class ProbabilityRandomizer extends Randomizer {
 		this(defaultProbability, 1f);
 	}
 
+	/**
+	 * Restores a ProbabilityRandomizer that has been saved.
+	 *
+	 * @param record the record that it was saved as.
+	 */
+	private ProbabilityRandomizer(SaveRecord record) {
+		super(record);
+	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
 }
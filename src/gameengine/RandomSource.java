@@ -0,0 +1,200 @@
+/* 2026-10-18 agent
+ *	Can be saved with the world as a record of the binary save format.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * A fast, seeded and splittable generator of pseudo random numbers, used
+ * instead of Math.random() so that a simulation started with the same seed
+ * always runs the same way. It is the SplitMix64 algorithm, the same as
+ * java.util.SplittableRandom in later versions of Java.
+ *
+ * A RandomSource is not thread safe. Each thread that needs random numbers
+ * should have its own, created with split(), which gives an independent
+ * sequence of numbers that still is decided by the seed of the original.
+ *
+ * The world's RandomSource is returned by World.getRandom(). It is
+ * serialized together with the world, so that a loaded game continues with
+ * the same numbers it would have got if it hadn't been saved.
+ */
+public class RandomSource implements Serializable, Saveable {
+
+	/**
+	 * The type of the records that random sources are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("RandomSource", null,
+			new String[] {"seed", "gamma"},
+			new int[] {RecordType.LONG, RecordType.LONG}) {
+		public Object restore(SaveRecord record, WorldReader reader) {
+			return new RandomSource(record.getLong(SEED),
+					record.getLong(GAMMA) | 1L);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int SEED = RECORD_TYPE.getFieldIndex("seed");
+	private static final int GAMMA = RECORD_TYPE.getFieldIndex("gamma");
+
+	/**
+	 * The default gamma, the odd number that is added to the seed for each
+	 * number. It is 2^64 divided by the golden ratio.
+	 */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	/**
+	 * The current seed, which is increased by gamma for each number.
+	 */
+	private long seed;
+
+	/**
+	 * The step of the seed. Must be odd. Sources split from each other have
+	 * different gammas, so their sequences don't overlap.
+	 */
+	private long gamma;
+
+	/**
+	 * Constructs a random source with the given seed.
+	 *
+	 * @param seed the seed.
+	 */
+	public RandomSource(long seed) {
+		this(seed, GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Constructs a random source with the given seed and gamma.
+	 *
+	 * @param seed the seed.
+	 * @param gamma the step of the seed. Must be odd.
+	 */
+	private RandomSource(long seed, long gamma) {
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+
+	/**
+	 * Returns a new random source with a sequence that is independent of this
+	 * one. Advances this source two steps.
+	 *
+	 * @return a new random source.
+	 */
+	public RandomSource split() {
+		return new RandomSource(mix64(nextSeed()), mixGamma(nextSeed()));
+	}
+
+	/**
+	 * Returns a pseudo random long.
+	 *
+	 * @return a pseudo random long.
+	 */
+	public long nextLong() {
+		return mix64(nextSeed());
+	}
+
+	/**
+	 * Returns a pseudo random int.
+	 *
+	 * @return a pseudo random int.
+	 */
+	public int nextInt() {
+		return (int) (mix64(nextSeed()) >>> 32);
+	}
+
+	/**
+	 * Returns a pseudo random int between 0 (inclusive) and the given bound
+	 * (exclusive).
+	 *
+	 * @param bound the upper bound. Must be greater than zero.
+	 * @return a pseudo random int in [0, bound).
+	 */
+	public int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be greater than zero");
+		}
+		// Rejects the values in the last, incomplete range so that all results
+		// are equally likely.
+		int bits;
+		int value;
+		do {
+			bits = nextInt() >>> 1;
+			value = bits % bound;
+		} while (bits - value + (bound - 1) < 0);
+		return value;
+	}
+
+	/**
+	 * Returns a pseudo random float between 0 (inclusive) and 1 (exclusive).
+	 *
+	 * @return a pseudo random float in [0, 1).
+	 */
+	public float nextFloat() {
+		return (nextLong() >>> 40) / (float) (1 << 24);
+	}
+
+	/**
+	 * Returns a pseudo random double between 0 (inclusive) and 1
+	 * (exclusive). Can be used instead of Math.random().
+	 *
+	 * @return a pseudo random double in [0, 1).
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) / (double) (1L << 53);
+	}
+
+	/**
+	 * Returns a pseudo random boolean.
+	 *
+	 * @return true or false, equally likely.
+	 */
+	public boolean nextBoolean() {
+		return nextLong() < 0;
+	}
+
+	/**
+	 * Advances the seed one step and returns it.
+	 */
+	private long nextSeed() {
+		seed += gamma;
+		return seed;
+	}
+
+	/**
+	 * Mixes the bits of a seed into a random number (the finalizer of
+	 * MurmurHash3, variant 13).
+	 */
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Mixes the bits of a seed into a gamma, which must be odd and should
+	 * have enough bit transitions to give a good sequence.
+	 */
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		int transitions = Long.bitCount(z ^ (z >>> 1));
+		return (transitions < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		record.setLong(SEED, seed);
+		record.setLong(GAMMA, gamma);
+	}
+
+}
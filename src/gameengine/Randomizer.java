@@ -1,4 +1,11 @@
 /* 
+ * 2026-10-18 agent
+ *	Implements Saveable. The subclasses restore the probability, the
+ *	modifier and the time of the last attempt through Randomizer(SaveRecord).
+ *
+ * 2026-10-18 agent
+ *	Uses the RandomSource of the world instead of Math.random().
+ *
  * 2003-05-12 henko
  *  Made the class implement Serializable.
  *
@@ -15,6 +22,7 @@
 
 package gameengine;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 /**
@@ -24,7 +32,23 @@ import java.io.Serializable;
  * be set to make it more or less likely that the test will be successful. 
  * This modifier can change over time, whereas the default probability cannot.
  */
-public abstract class Randomizer implements Serializable {
+public abstract class Randomizer implements Serializable, Saveable {
+
+	/**
+	 * The type that the record types of the subclasses extend.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("Randomizer", null,
+			new String[] {"probability", "probabilityModifier", "timeAtLastAttempt"},
+			new int[] {RecordType.FLOAT, RecordType.FLOAT, RecordType.FLOAT});
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int PROBABILITY = RECORD_TYPE.getFieldIndex("probability");
+	private static final int PROBABILITY_MODIFIER =
+			RECORD_TYPE.getFieldIndex("probabilityModifier");
+	private static final int TIME_AT_LAST_ATTEMPT =
+			RECORD_TYPE.getFieldIndex("timeAtLastAttempt");
 
 	/**
 	 * Represents the probability each second that the Randomizer will be
@@ -45,6 +69,23 @@ public abstract class Randomizer implements Serializable {
 	 */
 	private float timeAtLastAttempt;
 
+	/**
+	 * Creates a Randomizer. The subclasses set the probability.
+	 */
+	protected Randomizer() {
+	}
+
+	/**
+	 * Restores a Randomizer that has been saved.
+	 *
+	 * @param record the record that the Randomizer was saved as.
+	 */
+	protected Randomizer(SaveRecord record) {
+		probability = record.getFloat(PROBABILITY);
+		probabilityModifier = record.getFloat(PROBABILITY_MODIFIER);
+		timeAtLastAttempt = record.getFloat(TIME_AT_LAST_ATTEMPT);
+	}
+
 	/**
 	 * Returns whether the Randomizer is successful or not. This function is
 	 * supposed to be called each cycle. Will set the probability modifier to
@@ -64,7 +105,7 @@ public abstract class Randomizer implements Serializable {
 		if (World.getWorld().getWorldTime() - timeAtLastAttempt >
 				World.getEnvironment().getRandomizeInterval()) {
 			// Make the test
-			if (Math.random() <= probability * probabilityModifier) {
+			if (World.getWorld().getRandom().nextDouble() <= probability * probabilityModifier) {
 				successful = true;
 			}
 
@@ -97,4 +138,10 @@ public abstract class Randomizer implements Serializable {
 		return probabilityModifier;
 	}
 
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		record.setFloat(PROBABILITY, probability);
+		record.setFloat(PROBABILITY_MODIFIER, probabilityModifier);
+		record.setFloat(TIME_AT_LAST_ATTEMPT, timeAtLastAttempt);
+	}
+
 }
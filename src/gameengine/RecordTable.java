@@ -0,0 +1,331 @@
+/* 2026-10-18 agent
+ *	Added update(), which replaces getChangedFields(), and the references
+ *	to objects outside of the table that mapReferences() maps.
+ *
+ * 2026-10-18 agent
+ *	Compares and tells apart the arrays of bytes.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import java.util.Arrays;
+
+/**
+ * Records kept by their ids in a few large arrays rather than as a
+ * SaveRecord each, so that the tens of thousands of records of a world can
+ * be captured, kept and patched by the autosave without creating objects
+ * for them. A record takes up one slot of the arrays for each of its
+ * fields, from the slot it got when it was first set. The ids don't have
+ * to be consecutive, and an id without a record has no type.
+ */
+class RecordTable {
+
+	/**
+	 * The types of the records, indexed by their ids, or null for the ids
+	 * without a record.
+	 */
+	private RecordType[] types;
+
+	/**
+	 * The slots of the first fields of the records, indexed by their ids.
+	 */
+	private int[] offsets;
+
+	/**
+	 * The values of the fields that aren't strings or arrays, see
+	 * SaveRecord.
+	 */
+	private long[] values;
+
+	/**
+	 * The values of the fields that are strings or arrays.
+	 */
+	private Object[] objects;
+
+	/**
+	 * One more than the highest id that has been set.
+	 */
+	private int size;
+
+	/**
+	 * The number of slots that have been given to records.
+	 */
+	private int slotCount;
+
+	/**
+	 * Creates an empty table.
+	 *
+	 * @param capacity the number of records the table has room for.
+	 * @param slotCapacity the number of fields the table has room for.
+	 */
+	RecordTable(int capacity, int slotCapacity) {
+		types = new RecordType[Math.max(capacity, 16)];
+		offsets = new int[types.length];
+		values = new long[Math.max(slotCapacity, 64)];
+		objects = new Object[values.length];
+	}
+
+	/**
+	 * Returns one more than the highest id that has been set.
+	 *
+	 * @return the size of the table.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of slots that have been given to records, which is
+	 * what a table needs room for to hold the same records.
+	 *
+	 * @return the number of slots.
+	 */
+	int getSlotCount() {
+		return slotCount;
+	}
+
+	/**
+	 * Returns the type of a record.
+	 *
+	 * @param id the id of the record.
+	 * @return the type, or null if there is no record with the id.
+	 */
+	RecordType getType(int id) {
+		return (id >= 0 && id < size) ? types[id] : null;
+	}
+
+	/**
+	 * Adds a copy of a record with the id that follows the highest id.
+	 *
+	 * @param record the record to copy.
+	 * @return the id of the added record.
+	 */
+	int add(SaveRecord record) {
+		int id = size;
+		set(id, record);
+		return id;
+	}
+
+	/**
+	 * Sets the record with an id to a copy of a record.
+	 *
+	 * @param id the id.
+	 * @param record the record to copy.
+	 */
+	void set(int id, SaveRecord record) {
+		RecordType type = record.getType();
+		if (id >= size) {
+			if (id >= types.length) {
+				int capacity = Math.max(types.length * 2, id + 1);
+				RecordType[] newTypes = new RecordType[capacity];
+				System.arraycopy(types, 0, newTypes, 0, size);
+				types = newTypes;
+				int[] newOffsets = new int[capacity];
+				System.arraycopy(offsets, 0, newOffsets, 0, size);
+				offsets = newOffsets;
+			}
+			size = id + 1;
+		}
+		if (types[id] != type) {
+			// A record only changes type if its id has been reused.
+			int fieldCount = type.getFieldCount();
+			if (slotCount + fieldCount > values.length) {
+				int capacity = Math.max(values.length * 2, slotCount + fieldCount);
+				long[] newValues = new long[capacity];
+				System.arraycopy(values, 0, newValues, 0, slotCount);
+				values = newValues;
+				Object[] newObjects = new Object[capacity];
+				System.arraycopy(objects, 0, newObjects, 0, slotCount);
+				objects = newObjects;
+			}
+			types[id] = type;
+			offsets[id] = slotCount;
+			slotCount += fieldCount;
+		}
+		record.copyTo(values, objects, offsets[id]);
+	}
+
+	/**
+	 * Copies a record into a SaveRecord.
+	 *
+	 * @param id the id of the record, which must have one.
+	 * @param record the SaveRecord to copy to, which gets the type of the
+	 * record.
+	 */
+	void get(int id, SaveRecord record) {
+		record.copyFrom(types[id], values, objects, offsets[id]);
+	}
+
+	/**
+	 * Copies some fields of a record into a SaveRecord of the same type,
+	 * whose other fields keep their values.
+	 *
+	 * @param id the id of the record, which must have one.
+	 * @param mask the fields to copy, one bit each from the lowest bit for
+	 * field 0.
+	 * @param record the SaveRecord to copy to.
+	 */
+	void getFields(int id, long mask, SaveRecord record) {
+		record.copyFields(mask, values, objects, offsets[id]);
+	}
+
+	/**
+	 * Removes all records, keeping the room of the table for new ones.
+	 */
+	void clear() {
+		Arrays.fill(types, 0, size, null);
+		Arrays.fill(objects, 0, slotCount, null);
+		size = 0;
+		slotCount = 0;
+	}
+
+	/**
+	 * Removes the record with an id, if there is one. Its slots aren't given
+	 * to other records.
+	 *
+	 * @param id the id.
+	 */
+	void remove(int id) {
+		RecordType type = getType(id);
+		if (type != null) {
+			Arrays.fill(objects, offsets[id], offsets[id] + type.getFieldCount(),
+					null);
+			types[id] = null;
+		}
+	}
+
+	/**
+	 * Returns the value of a field that isn't a string or an array, the way
+	 * SaveRecord keeps it.
+	 *
+	 * @param id the id of the record.
+	 * @param field the index of the field.
+	 * @return the value.
+	 */
+	long getValue(int id, int field) {
+		return values[offsets[id] + field];
+	}
+
+	/**
+	 * Sets the value of a field that isn't a string or an array.
+	 *
+	 * @param id the id of the record.
+	 * @param field the index of the field.
+	 * @param value the value, the way SaveRecord keeps it.
+	 */
+	void setValue(int id, int field, long value) {
+		values[offsets[id] + field] = value;
+	}
+
+	/**
+	 * Returns the value of a field that is a string or an array.
+	 *
+	 * @param id the id of the record.
+	 * @param field the index of the field.
+	 * @return the string or the array.
+	 */
+	Object getObject(int id, int field) {
+		return objects[offsets[id] + field];
+	}
+
+	/**
+	 * Changes the references of a record, which are ids in this table, to
+	 * the ids they have been given in another table. A reference below
+	 * NULL_REFERENCE is to an object outside of this table, the first being
+	 * -2, and gets the id that externalIds gives that object. The arrays of
+	 * references are replaced rather than changed.
+	 *
+	 * @param id the id of the record.
+	 * @param newIds the new ids, indexed by the ids in this table.
+	 * @param externalIds the ids of the objects outside of the table, or
+	 * null if there are none.
+	 */
+	void mapReferences(int id, int[] newIds, int[] externalIds) {
+		RecordType type = types[id];
+		int offset = offsets[id];
+		for (int field = 0; field < type.getFieldCount(); field++) {
+			int kind = type.getFieldKind(field);
+			if (kind == RecordType.REFERENCE) {
+				values[offset + field] = mapReference(
+						(int) values[offset + field], newIds, externalIds);
+			} else if (kind == RecordType.REFERENCE_ARRAY) {
+				int[] references = (int[]) objects[offset + field];
+				int[] newReferences = new int[references.length];
+				for (int i = 0; i < references.length; i++) {
+					newReferences[i] = mapReference(references[i], newIds,
+							externalIds);
+				}
+				objects[offset + field] = newReferences;
+			}
+		}
+	}
+
+	/**
+	 * Sets the record with an id to a copy of a record, and returns the
+	 * fields that have changed: those whose values differ from the record it
+	 * replaces, or if there was no record of the same type, those that don't
+	 * have their default values. Nothing is copied if nothing has changed.
+	 *
+	 * @param id the id.
+	 * @param record the record to copy.
+	 * @return the fields that have changed, one bit each from the lowest bit
+	 * for field 0, see WorldWriter.writeFields().
+	 */
+	long update(int id, SaveRecord record) {
+		if (getType(id) != record.getType()) {
+			set(id, record);
+			return getSetFields(id);
+		}
+		long changed = record.getChangedFields(values, objects, offsets[id]);
+		if (changed != 0) {
+			record.copyTo(values, objects, offsets[id]);
+		}
+		return changed;
+	}
+
+	/**
+	 * Returns the fields of a record that don't have their default values,
+	 * see SaveRecord.reset().
+	 *
+	 * @param id the id of the record.
+	 * @return the fields, one bit each from the lowest bit for field 0.
+	 */
+	long getSetFields(int id) {
+		RecordType type = types[id];
+		int offset = offsets[id];
+		long set = 0;
+		for (int field = 0; field < type.getFieldCount(); field++) {
+			int kind = type.getFieldKind(field);
+			Object object = objects[offset + field];
+			boolean isDefault;
+			if (kind == RecordType.INT_ARRAY || kind == RecordType.REFERENCE_ARRAY) {
+				isDefault = ((int[]) object).length == 0;
+			} else if (kind == RecordType.BYTE_ARRAY) {
+				isDefault = ((byte[]) object).length == 0;
+			} else if (kind == RecordType.STRING) {
+				isDefault = object == null;
+			} else if (kind == RecordType.REFERENCE) {
+				isDefault = values[offset + field] == RecordType.NULL_REFERENCE;
+			} else {
+				isDefault = values[offset + field] == 0;
+			}
+			if (!isDefault) {
+				set |= 1L << field;
+			}
+		}
+		return set;
+	}
+
+	/**
+	 * Returns the new id of a reference, see mapReferences().
+	 */
+	private static int mapReference(int id, int[] newIds, int[] externalIds) {
+		if (id == RecordType.NULL_REFERENCE) {
+			return RecordType.NULL_REFERENCE;
+		}
+		return (id >= 0) ? newIds[id] : externalIds[-2 - id];
+	}
+
+}
@@ -0,0 +1,231 @@
+/* 2026-10-18 agent
+ *	Added BYTE_ARRAY, which the packed tiles of the map are saved as.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * The schema of one kind of record in a saved world: a name and a list of
+ * named fields of fixed kinds. The schemas of all record types are written
+ * at the start of each save file, and a file is read by mapping the fields
+ * of the file to the fields of the current types by name. A field that no
+ * longer exists is skipped, and a field that didn't exist when the file was
+ * written gets its default value, so classes can gain and lose fields
+ * without breaking old saves.
+ *
+ * A record type can extend another type, whose fields then come first with
+ * the same indices. The types of abstract classes are only used to be
+ * extended. The types of classes that can be saved override restore(), as
+ * anonymous classes in the class they restore, for example
+ * <pre>
+ *	static final RecordType RECORD_TYPE =
+ *			new RecordType("PauseTask", Task.RECORD_TYPE,
+ *			new String[] {"startTime"},
+ *			new int[] {RecordType.FLOAT}) {
+ *		public Object restore(SaveRecord record, WorldReader reader) {
+ *			return new PauseTask(record);
+ *		}
+ *	};
+ * </pre>
+ */
+public class RecordType {
+
+	/**
+	 * A boolean.
+	 */
+	public static final int BOOLEAN = 1;
+
+	/**
+	 * An int.
+	 */
+	public static final int INT = 2;
+
+	/**
+	 * A long.
+	 */
+	public static final int LONG = 3;
+
+	/**
+	 * A float.
+	 */
+	public static final int FLOAT = 4;
+
+	/**
+	 * A String, which may be null.
+	 */
+	public static final int STRING = 5;
+
+	/**
+	 * The id of another record, or NULL_REFERENCE.
+	 */
+	public static final int REFERENCE = 6;
+
+	/**
+	 * An array of ints.
+	 */
+	public static final int INT_ARRAY = 7;
+
+	/**
+	 * An array of ids of other records.
+	 */
+	public static final int REFERENCE_ARRAY = 8;
+
+	/**
+	 * An array of bytes.
+	 */
+	public static final int BYTE_ARRAY = 9;
+
+	/**
+	 * The id of no record, which references null.
+	 */
+	public static final int NULL_REFERENCE = -1;
+
+	/**
+	 * The name of the type, which is what the files are mapped by.
+	 */
+	private String name;
+
+	/**
+	 * The names of the fields, those of the extended type first.
+	 */
+	private String[] fieldNames;
+
+	/**
+	 * The kinds of the fields, for example FLOAT.
+	 */
+	private int[] fieldKinds;
+
+	/**
+	 * The indices of the fields (Integer) mapped by their names.
+	 */
+	private HashMap fieldIndices;
+
+	/**
+	 * Creates a record type.
+	 *
+	 * @param name the name of the type. Must be unique among all types.
+	 * @param superType the type that is extended, or null.
+	 * @param fieldNames the names of the fields that are added to those of
+	 * the extended type.
+	 * @param fieldKinds the kinds of the added fields, for example FLOAT.
+	 */
+	public RecordType(String name, RecordType superType, String[] fieldNames,
+			int[] fieldKinds) {
+		if (fieldNames.length != fieldKinds.length) {
+			throw new IllegalArgumentException("Every field must have a kind");
+		}
+		this.name = name;
+		int inherited = (superType == null) ? 0 : superType.getFieldCount();
+		this.fieldNames = new String[inherited + fieldNames.length];
+		this.fieldKinds = new int[inherited + fieldNames.length];
+		if (superType != null) {
+			System.arraycopy(superType.fieldNames, 0, this.fieldNames, 0, inherited);
+			System.arraycopy(superType.fieldKinds, 0, this.fieldKinds, 0, inherited);
+		}
+		System.arraycopy(fieldNames, 0, this.fieldNames, inherited, fieldNames.length);
+		System.arraycopy(fieldKinds, 0, this.fieldKinds, inherited, fieldKinds.length);
+		fieldIndices = new HashMap();
+		for (int i = 0; i < this.fieldNames.length; i++) {
+			if (fieldIndices.put(this.fieldNames[i], new Integer(i)) != null) {
+				throw new IllegalArgumentException(
+						"Field " + this.fieldNames[i] + " of " + name + " is defined twice");
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the name of the type.
+	 *
+	 * @return the name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Retrieves the number of fields, including those of the extended type.
+	 *
+	 * @return the number of fields.
+	 */
+	public int getFieldCount() {
+		return fieldNames.length;
+	}
+
+	/**
+	 * Retrieves the name of a field.
+	 *
+	 * @param field the index of the field.
+	 * @return the name of the field.
+	 */
+	public String getFieldName(int field) {
+		return fieldNames[field];
+	}
+
+	/**
+	 * Retrieves the kind of a field.
+	 *
+	 * @param field the index of the field.
+	 * @return the kind of the field, for example FLOAT.
+	 */
+	public int getFieldKind(int field) {
+		return fieldKinds[field];
+	}
+
+	/**
+	 * Retrieves the index of a field. Is used to set the constants of the
+	 * field indices when the classes are loaded.
+	 *
+	 * @param fieldName the name of the field.
+	 * @return the index of the field.
+	 * @exception IllegalArgumentException if the type has no such field.
+	 */
+	public int getFieldIndex(String fieldName) {
+		Integer index = (Integer) fieldIndices.get(fieldName);
+		if (index == null) {
+			throw new IllegalArgumentException(name + " has no field " + fieldName);
+		}
+		return index.intValue();
+	}
+
+	/**
+	 * Finds the field with the given name, if it has the given kind.
+	 *
+	 * @param fieldName the name of the field.
+	 * @param fieldKind the kind of the field.
+	 * @return the index of the field, or -1 if the type has no such field.
+	 */
+	int findField(String fieldName, int fieldKind) {
+		Integer index = (Integer) fieldIndices.get(fieldName);
+		if (index == null || fieldKinds[index.intValue()] != fieldKind) {
+			return -1;
+		}
+		return index.intValue();
+	}
+
+	/**
+	 * Creates the object of a record that has been read. The objects that
+	 * the record references have already been restored and can be retrieved
+	 * from the reader. The object must not be registered with the world,
+	 * since the lists of the world are restored as they were saved.
+	 *
+	 * @param record the record.
+	 * @param reader the reader that reads the record.
+	 * @return the restored object.
+	 * @exception IOException if the record is invalid, or if the type is only
+	 * used to be extended.
+	 */
+	public Object restore(SaveRecord record, WorldReader reader)
+			throws IOException {
+		throw new IOException("Records of type " + name + " cannot be restored");
+	}
+
+	public String toString() {
+		return name;
+	}
+
+}
@@ -0,0 +1,277 @@
+/* 2026-10-18 agent
+ *	Copies the information that the information panel shows about the
+ *	selected object, see getSelection().
+ *
+ * 2026-10-18 agent
+ *	Reads the coordinates and directions without creating Points and
+ *	Vectors.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import gameengine.gameobjects.GameObject;
+import gameengine.gameobjects.VelocityContainer;
+
+import java.util.Iterator;
+
+/**
+ * A copy of everything the graphics engine needs to know about the game
+ * objects after one tick: their positions before and after the tick and
+ * their directions, and what the information panel shows about the
+ * selected object. The snapshots are written by the simulation thread and
+ * handed over to the drawing thread through a SnapshotBuffer, so the
+ * drawing thread never has to read the positions from the game objects
+ * while they are being updated.
+ *
+ * A snapshot can only be written from within the gameengine package. Once
+ * it has been handed over by the SnapshotBuffer it is not changed until it
+ * has been given back, so to the drawing thread it is immutable.
+ */
+public class RenderSnapshot {
+
+	/**
+	 * The game objects in the snapshot. Used as keys to find the graphical
+	 * representation of each object.
+	 */
+	private GameObject[] gameObjects = new GameObject[0];
+
+	/**
+	 * The x-coordinates of the game objects after the tick.
+	 */
+	private float[] x = new float[0];
+
+	/**
+	 * The y-coordinates of the game objects after the tick.
+	 */
+	private float[] y = new float[0];
+
+	/**
+	 * The x-coordinates of the game objects before the tick.
+	 */
+	private float[] previousX = new float[0];
+
+	/**
+	 * The y-coordinates of the game objects before the tick.
+	 */
+	private float[] previousY = new float[0];
+
+	/**
+	 * The directions of the game objects, or zero for objects that have no
+	 * velocity.
+	 */
+	private float[] directions = new float[0];
+
+	/**
+	 * The number of game objects in the snapshot.
+	 */
+	private int size;
+
+	/**
+	 * The tick count of the world when the snapshot was written.
+	 */
+	private long tickCount;
+
+	/**
+	 * The world time in seconds when the snapshot was written.
+	 */
+	private float worldTime;
+
+	/**
+	 * The processor time in nanoseconds (System.nanoTime()) when the
+	 * snapshot was written.
+	 */
+	private long time;
+
+	/**
+	 * The length in nanoseconds of the tick that the snapshot was written
+	 * after.
+	 */
+	private long tickLength = 1;
+
+	/**
+	 * The information about the selected object.
+	 */
+	private SelectionSnapshot selection = new SelectionSnapshot();
+
+	/**
+	 * Constructs an empty snapshot. Only SnapshotBuffer creates snapshots.
+	 */
+	RenderSnapshot() {
+	}
+
+	/**
+	 * Writes the current state of all objects in the world to this snapshot,
+	 * replacing what was there before. Deleted objects are left out. Must
+	 * only be called from the simulation thread.
+	 *
+	 * @param world the world to take the snapshot of.
+	 * @param selectedObject the object whose information to copy, or null.
+	 */
+	void write(World world, GameObject selectedObject) {
+		size = 0;
+		Iterator it = world.getAllObjects().iterator();
+		while (it.hasNext()) {
+			GameObject gameObject = (GameObject) it.next();
+			if (gameObject.isDeleted()) {
+				continue;
+			}
+			if (size == gameObjects.length) {
+				grow();
+			}
+			gameObjects[size] = gameObject;
+			x[size] = gameObject.getX();
+			y[size] = gameObject.getY();
+			previousX[size] = gameObject.getPreviousX();
+			previousY[size] = gameObject.getPreviousY();
+			if (gameObject instanceof VelocityContainer) {
+				directions[size] =
+						((VelocityContainer) gameObject).getDirection();
+			} else {
+				directions[size] = 0f;
+			}
+			size++;
+		}
+		// Let go of the objects that aren't in the snapshot any more.
+		for (int i = size; i < gameObjects.length && gameObjects[i] != null; i++) {
+			gameObjects[i] = null;
+		}
+
+		tickCount = world.getTickCount();
+		worldTime = world.getWorldTime();
+		tickLength = Math.max(1, (long) (world.getTimeSinceCycle() * 1000000000.0));
+		time = System.nanoTime();
+		selection.write(selectedObject);
+	}
+
+	/**
+	 * Doubles the capacity of the arrays.
+	 */
+	private void grow() {
+		int capacity = Math.max(64, gameObjects.length * 2);
+		GameObject[] newGameObjects = new GameObject[capacity];
+		System.arraycopy(gameObjects, 0, newGameObjects, 0, size);
+		gameObjects = newGameObjects;
+		x = grow(x, capacity);
+		y = grow(y, capacity);
+		previousX = grow(previousX, capacity);
+		previousY = grow(previousY, capacity);
+		directions = grow(directions, capacity);
+	}
+
+	/**
+	 * Returns a copy of the array with the given capacity.
+	 */
+	private float[] grow(float[] array, int capacity) {
+		float[] newArray = new float[capacity];
+		System.arraycopy(array, 0, newArray, 0, size);
+		return newArray;
+	}
+
+	/**
+	 * Returns the number of game objects in the snapshot.
+	 *
+	 * @return the number of game objects in the snapshot.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the game object with the given index. The game object itself
+	 * should only be used to identify the object, not to read its state.
+	 *
+	 * @param index the index of the game object, from 0 to size() - 1.
+	 * @return the game object with the given index.
+	 */
+	public GameObject getGameObject(int index) {
+		return gameObjects[index];
+	}
+
+	/**
+	 * Returns the x-coordinate of the given object, interpolated between its
+	 * position before and after the tick.
+	 *
+	 * @param index the index of the game object.
+	 * @param interpolation how far between the positions before (0) and after
+	 * (1) the tick.
+	 * @return the interpolated x-coordinate.
+	 */
+	public float getX(int index, float interpolation) {
+		return previousX[index] + (x[index] - previousX[index]) * interpolation;
+	}
+
+	/**
+	 * Returns the y-coordinate of the given object, interpolated between its
+	 * position before and after the tick.
+	 *
+	 * @param index the index of the game object.
+	 * @param interpolation how far between the positions before (0) and after
+	 * (1) the tick.
+	 * @return the interpolated y-coordinate.
+	 */
+	public float getY(int index, float interpolation) {
+		return previousY[index] + (y[index] - previousY[index]) * interpolation;
+	}
+
+	/**
+	 * Returns the direction of the given object.
+	 *
+	 * @param index the index of the game object.
+	 * @return the direction in radians, or zero if the object has no velocity.
+	 */
+	public float getDirection(int index) {
+		return directions[index];
+	}
+
+	/**
+	 * Returns the information about the object that was selected when the
+	 * snapshot was written.
+	 *
+	 * @return the selection. Its game object is null if none was selected.
+	 */
+	public SelectionSnapshot getSelection() {
+		return selection;
+	}
+
+	/**
+	 * Returns the tick count of the world when the snapshot was written.
+	 *
+	 * @return the tick count of the world when the snapshot was written.
+	 */
+	public long getTickCount() {
+		return tickCount;
+	}
+
+	/**
+	 * Returns the world time in seconds when the snapshot was written.
+	 *
+	 * @return the world time in seconds when the snapshot was written.
+	 */
+	public float getWorldTime() {
+		return worldTime;
+	}
+
+	/**
+	 * Returns how far the given processor time is from when the snapshot was
+	 * written, in ticks, between 0 and 1. Since the next snapshot is written
+	 * one tick after this one, this is how far to interpolate between the
+	 * positions before and after the tick.
+	 *
+	 * @param currentTime the processor time in nanoseconds
+	 * (System.nanoTime()).
+	 * @return the interpolation between 0 and 1.
+	 */
+	public float getInterpolation(long currentTime) {
+		float interpolation = (currentTime - time) / (float) tickLength;
+		if (interpolation < 0f) {
+			return 0f;
+		}
+		if (interpolation > 1f) {
+			return 1f;
+		}
+		return interpolation;
+	}
+
+}
@@ -0,0 +1,69 @@
+/* 2026-10-18 agent
+ *	Added contains().
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import gameengine.gameobjects.GameObject;
+import gameengine.tasksystem.Task;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Knows the record types of all classes that are saved with the world, see
+ * WorldWriter and WorldReader. A class that is saved must be added here, or
+ * to the getRecordTypes() of its package.
+ */
+final class SaveFormat {
+
+	/**
+	 * The record types that getRecordTypes() returns.
+	 */
+	private static final Set TYPES = new HashSet(Arrays.asList(getRecordTypes()));
+
+	/**
+	 * You may not create instances of this class.
+	 */
+	private SaveFormat() {
+	}
+
+	/**
+	 * Returns the record types of all classes that are saved with the world.
+	 *
+	 * @return the record types, in the order they are written to the files.
+	 */
+	static RecordType[] getRecordTypes() {
+		RecordType[] gameEngineTypes = {
+			World.RECORD_TYPE,
+			World.MAP_RECORD_TYPE,
+			RandomSource.RECORD_TYPE,
+			ProbabilityRandomizer.RECORD_TYPE,
+			IntervalRandomizer.RECORD_TYPE
+		};
+		RecordType[] gameObjectTypes = GameObject.getRecordTypes();
+		RecordType[] taskTypes = Task.getRecordTypes();
+		RecordType[] types = new RecordType[gameEngineTypes.length +
+				gameObjectTypes.length + taskTypes.length];
+		System.arraycopy(gameEngineTypes, 0, types, 0, gameEngineTypes.length);
+		System.arraycopy(gameObjectTypes, 0, types, gameEngineTypes.length,
+				gameObjectTypes.length);
+		System.arraycopy(taskTypes, 0, types,
+				gameEngineTypes.length + gameObjectTypes.length, taskTypes.length);
+		return types;
+	}
+
+	/**
+	 * Tells if a record type is one of those that getRecordTypes() returns.
+	 *
+	 * @param type the record type.
+	 * @return true if objects of the type can be saved.
+	 */
+	static boolean contains(RecordType type) {
+		return TYPES.contains(type);
+	}
+
+}
@@ -0,0 +1,338 @@
+/* 2026-10-18 agent
+ *	Added getChangedFields(), which compares the record with one kept in
+ *	arrays, for the autosave.
+ *
+ * 2026-10-18 agent
+ *	Added getBytes() and setBytes(), for the fields of kind BYTE_ARRAY.
+ *
+ * 2026-10-18 agent
+ *	Added copyTo(), copyFrom() and copyFields(), which the autosave uses to
+ *	keep the records in a RecordTable.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import java.util.Arrays;
+
+/**
+ * The values of the fields of one record of a saved world, see RecordType.
+ * The booleans, ints, longs, floats and references are kept as longs, and
+ * the strings and arrays as objects. The objects fill in the records when
+ * they are saved, and read them in their restoring constructors. A record is
+ * reused for many objects of the same type, so it mustn't be kept.
+ */
+public class SaveRecord {
+
+	/**
+	 * An empty array, which the arrays default to.
+	 */
+	private static final int[] EMPTY_ARRAY = new int[0];
+
+	/**
+	 * An empty array of bytes, which the arrays of bytes default to.
+	 */
+	private static final byte[] EMPTY_BYTES = new byte[0];
+
+	/**
+	 * The type of the record.
+	 */
+	private RecordType type;
+
+	/**
+	 * The values of the fields that aren't strings or arrays.
+	 */
+	private long[] values;
+
+	/**
+	 * The values of the fields that are strings or arrays.
+	 */
+	private Object[] objects;
+
+	/**
+	 * Creates a record of the given type, with the default values.
+	 *
+	 * @param type the type of the record.
+	 */
+	SaveRecord(RecordType type) {
+		values = new long[type.getFieldCount()];
+		objects = new Object[type.getFieldCount()];
+		reset(type);
+	}
+
+	/**
+	 * Sets the type of the record and its fields to their default values,
+	 * which are false, 0, null, empty arrays and NULL_REFERENCE.
+	 *
+	 * @param type the type of the record.
+	 */
+	void reset(RecordType type) {
+		this.type = type;
+		int fieldCount = type.getFieldCount();
+		if (values.length < fieldCount) {
+			values = new long[fieldCount];
+			objects = new Object[fieldCount];
+		}
+		for (int i = 0; i < fieldCount; i++) {
+			int kind = type.getFieldKind(i);
+			values[i] = (kind == RecordType.REFERENCE) ? RecordType.NULL_REFERENCE : 0;
+			if (kind == RecordType.INT_ARRAY || kind == RecordType.REFERENCE_ARRAY) {
+				objects[i] = EMPTY_ARRAY;
+			} else if (kind == RecordType.BYTE_ARRAY) {
+				objects[i] = EMPTY_BYTES;
+			} else {
+				objects[i] = null;
+			}
+		}
+	}
+
+	/**
+	 * Copies the values of the fields into arrays, from an offset, see
+	 * RecordTable. The arrays of the record are shared, since they mustn't be
+	 * changed.
+	 *
+	 * @param toValues the array to copy the values that aren't strings or
+	 * arrays to.
+	 * @param toObjects the array to copy the strings and arrays to.
+	 * @param offset the index in the arrays of the first field.
+	 */
+	void copyTo(long[] toValues, Object[] toObjects, int offset) {
+		int fieldCount = type.getFieldCount();
+		System.arraycopy(values, 0, toValues, offset, fieldCount);
+		System.arraycopy(objects, 0, toObjects, offset, fieldCount);
+	}
+
+	/**
+	 * Sets the type of the record and copies the values of its fields from
+	 * arrays, from an offset, see copyTo().
+	 *
+	 * @param type the type of the record.
+	 * @param fromValues the array with the values that aren't strings or
+	 * arrays.
+	 * @param fromObjects the array with the strings and arrays.
+	 * @param offset the index in the arrays of the first field.
+	 */
+	void copyFrom(RecordType type, long[] fromValues, Object[] fromObjects,
+			int offset) {
+		this.type = type;
+		int fieldCount = type.getFieldCount();
+		if (values.length < fieldCount) {
+			values = new long[fieldCount];
+			objects = new Object[fieldCount];
+		}
+		System.arraycopy(fromValues, offset, values, 0, fieldCount);
+		System.arraycopy(fromObjects, offset, objects, 0, fieldCount);
+	}
+
+	/**
+	 * Copies the values of some fields from arrays, from an offset, see
+	 * copyTo(). The other fields keep their values.
+	 *
+	 * @param mask the fields to copy, one bit each from the lowest bit for
+	 * field 0.
+	 * @param fromValues the array with the values that aren't strings or
+	 * arrays.
+	 * @param fromObjects the array with the strings and arrays.
+	 * @param offset the index in the arrays of the first field.
+	 */
+	void copyFields(long mask, long[] fromValues, Object[] fromObjects,
+			int offset) {
+		for (int i = 0; i < type.getFieldCount(); i++) {
+			if ((mask & (1L << i)) != 0) {
+				values[i] = fromValues[offset + i];
+				objects[i] = fromObjects[offset + i];
+			}
+		}
+	}
+
+	/**
+	 * Returns the fields whose values differ from those of a record of the
+	 * same type kept in arrays, from an offset, see copyTo(). The arrays are
+	 * compared by their elements.
+	 *
+	 * @param otherValues the array with the values that aren't strings or
+	 * arrays.
+	 * @param otherObjects the array with the strings and arrays.
+	 * @param offset the index in the arrays of the first field.
+	 * @return the fields that differ, one bit each from the lowest bit for
+	 * field 0.
+	 */
+	long getChangedFields(long[] otherValues, Object[] otherObjects,
+			int offset) {
+		long changed = 0;
+		for (int i = 0; i < type.getFieldCount(); i++) {
+			Object object = objects[i];
+			Object otherObject = otherObjects[offset + i];
+			boolean equal;
+			if (object instanceof int[]) {
+				equal = object == otherObject || (otherObject instanceof int[] &&
+						Arrays.equals((int[]) object, (int[]) otherObject));
+			} else if (object instanceof byte[]) {
+				equal = object == otherObject || (otherObject instanceof byte[] &&
+						Arrays.equals((byte[]) object, (byte[]) otherObject));
+			} else if (object != null) {
+				equal = object.equals(otherObject);
+			} else {
+				equal = otherObject == null &&
+						values[i] == otherValues[offset + i];
+			}
+			if (!equal) {
+				changed |= 1L << i;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Retrieves the type of the record.
+	 *
+	 * @return the type.
+	 */
+	public RecordType getType() {
+		return type;
+	}
+
+	/**
+	 * Retrieves the value of a boolean field.
+	 */
+	public boolean getBoolean(int field) {
+		return values[field] != 0;
+	}
+
+	/**
+	 * Sets the value of a boolean field.
+	 */
+	public void setBoolean(int field, boolean value) {
+		values[field] = value ? 1 : 0;
+	}
+
+	/**
+	 * Retrieves the value of an int field.
+	 */
+	public int getInt(int field) {
+		return (int) values[field];
+	}
+
+	/**
+	 * Sets the value of an int field.
+	 */
+	public void setInt(int field, int value) {
+		values[field] = value;
+	}
+
+	/**
+	 * Retrieves the value of a long field.
+	 */
+	public long getLong(int field) {
+		return values[field];
+	}
+
+	/**
+	 * Sets the value of a long field.
+	 */
+	public void setLong(int field, long value) {
+		values[field] = value;
+	}
+
+	/**
+	 * Retrieves the value of a float field.
+	 */
+	public float getFloat(int field) {
+		return Float.intBitsToFloat((int) values[field]);
+	}
+
+	/**
+	 * Sets the value of a float field.
+	 */
+	public void setFloat(int field, float value) {
+		values[field] = Float.floatToIntBits(value);
+	}
+
+	/**
+	 * Retrieves the value of a String field, which may be null.
+	 */
+	public String getString(int field) {
+		return (String) objects[field];
+	}
+
+	/**
+	 * Sets the value of a String field, which may be null.
+	 */
+	public void setString(int field, String value) {
+		objects[field] = value;
+	}
+
+	/**
+	 * Retrieves the id of the record that a field references. The object of
+	 * the record is retrieved with WorldReader.getObject().
+	 *
+	 * @param field the index of the field.
+	 * @return the id, or NULL_REFERENCE.
+	 */
+	public int getReference(int field) {
+		return (int) values[field];
+	}
+
+	/**
+	 * Sets the id of the record that a field references.
+	 *
+	 * @param field the index of the field.
+	 * @param id the id, as returned by WorldWriter.reference(), or
+	 * NULL_REFERENCE.
+	 */
+	public void setReference(int field, int id) {
+		values[field] = id;
+	}
+
+	/**
+	 * Retrieves an array, either of ints or of ids of records. The array
+	 * mustn't be changed.
+	 *
+	 * @param field the index of the field.
+	 * @return the array.
+	 */
+	public int[] getArray(int field) {
+		return (int[]) objects[field];
+	}
+
+	/**
+	 * Sets an array, either of ints or of ids of records. The array mustn't
+	 * be changed afterwards, since the autosave keeps the arrays of the
+	 * records it has captured, see IncrementalWriter.
+	 *
+	 * @param field the index of the field.
+	 * @param array the array.
+	 */
+	public void setArray(int field, int[] array) {
+		if (array == null) {
+			throw new IllegalArgumentException("array cannot be null");
+		}
+		objects[field] = array;
+	}
+
+	/**
+	 * Retrieves an array of bytes. The array mustn't be changed.
+	 *
+	 * @param field the index of the field.
+	 * @return the array.
+	 */
+	public byte[] getBytes(int field) {
+		return (byte[]) objects[field];
+	}
+
+	/**
+	 * Sets an array of bytes. The array mustn't be changed afterwards, for
+	 * the same reason as those of setArray().
+	 *
+	 * @param field the index of the field.
+	 * @param array the array.
+	 */
+	public void setBytes(int field, byte[] array) {
+		if (array == null) {
+			throw new IllegalArgumentException("array cannot be null");
+		}
+		objects[field] = array;
+	}
+
+}
@@ -0,0 +1,33 @@
+/* 2026-10-18 agent
+ *	Created the interface.
+ */
+package gameengine;
+
+import java.io.IOException;
+
+/**
+ * An object that is saved with the world as a record, see WorldWriter. The
+ * object is restored by the restore() method of its RecordType.
+ */
+public interface Saveable {
+
+	/**
+	 * Returns the type of the record that the object is saved as.
+	 *
+	 * @return the record type of the object's class.
+	 */
+	public RecordType getRecordType();
+
+	/**
+	 * Fills in the fields of the record of the object. The objects that it
+	 * references are saved with WorldWriter.reference(), which saves them
+	 * before this object if they haven't been already.
+	 *
+	 * @param record the record to fill in, of the type getRecordType()
+	 * returns, with the default values.
+	 * @param writer the writer that saves the object.
+	 * @exception IOException if a referenced object couldn't be written.
+	 */
+	public void save(SaveRecord record, WorldWriter writer) throws IOException;
+
+}
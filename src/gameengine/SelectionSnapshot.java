@@ -0,0 +1,290 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import gameengine.gameobjects.CharacteristicsContainer;
+import gameengine.gameobjects.GameObject;
+import gameengine.gameobjects.LightPillarNode;
+import gameengine.gameobjects.ResourceContainer;
+import gameengine.gameobjects.SourceNode;
+
+/**
+ * A copy of what the information panel shows about the selected game object,
+ * written by the simulation thread as a part of a RenderSnapshot, so that
+ * the drawing thread never reads the selected object while it is being
+ * updated. Which object is selected is told to the SnapshotBuffer with
+ * setSelectedObject().
+ *
+ * The characteristics and the resources are read through the same
+ * interfaces as from the game object, but only mean something if
+ * hasCharacteristics() and hasResources() are true.
+ */
+public class SelectionSnapshot implements CharacteristicsContainer,
+		ResourceContainer {
+
+	/**
+	 * The selected game object, or null if none was selected.
+	 */
+	private GameObject gameObject;
+
+	/**
+	 * True if the selected object was deleted.
+	 */
+	private boolean deleted;
+
+	/**
+	 * The description and the name of the selected object.
+	 */
+	private String description;
+	private String name;
+
+	/**
+	 * True if the selected object is a CharacteristicsContainer.
+	 */
+	private boolean characteristicsContainer;
+
+	/**
+	 * The characteristics of the selected object.
+	 */
+	private int age;
+	private int gender;
+	private float health;
+	private float gatherSkill;
+	private float sacrificeSkill;
+	private float transportationSkill;
+	private float safety;
+	private float saturation;
+	private float happiness;
+
+	/**
+	 * True if the selected object is a ResourceContainer.
+	 */
+	private boolean resourceContainer;
+
+	/**
+	 * The amounts of the resources of the selected object, by resource type.
+	 */
+	private int[] resourceAmounts = new int[Environment.SACRIFICE + 1];
+
+	/**
+	 * True if the selected object is a SourceNode, and the type and the
+	 * amount of its natural resource.
+	 */
+	private boolean sourceNode;
+	private int naturalResourceType;
+	private int naturalResourceAmount;
+
+	/**
+	 * True if the selected object is a LightPillarNode, and the amount that
+	 * has been sacrificed at it.
+	 */
+	private boolean lightPillarNode;
+	private int sacrificedAmount;
+
+	/**
+	 * Constructs an empty selection. Only RenderSnapshot creates selections.
+	 */
+	SelectionSnapshot() {
+	}
+
+	/**
+	 * Copies what the information panel shows about the given object. Must
+	 * only be called from the simulation thread.
+	 *
+	 * @param gameObject the selected object, or null.
+	 */
+	void write(GameObject gameObject) {
+		this.gameObject = gameObject;
+		deleted = gameObject != null && gameObject.isDeleted();
+		characteristicsContainer = false;
+		resourceContainer = false;
+		sourceNode = false;
+		lightPillarNode = false;
+		description = null;
+		name = null;
+		if (gameObject == null || deleted) {
+			return;
+		}
+
+		description = gameObject.getDescription();
+		name = gameObject.getName();
+		if (gameObject instanceof CharacteristicsContainer) {
+			CharacteristicsContainer characteristics =
+					(CharacteristicsContainer) gameObject;
+			characteristicsContainer = true;
+			age = characteristics.getAge();
+			gender = characteristics.getGender();
+			health = characteristics.getHealth();
+			gatherSkill = characteristics.getGatherSkill();
+			sacrificeSkill = characteristics.getSacrificeSkill();
+			transportationSkill = characteristics.getTransportationSkill();
+			safety = characteristics.getSafety();
+			saturation = characteristics.getSaturation();
+			happiness = characteristics.getHappiness();
+		}
+		if (gameObject instanceof ResourceContainer) {
+			ResourceContainer resources = (ResourceContainer) gameObject;
+			resourceContainer = true;
+			for (int i = 0; i < resourceAmounts.length; i++) {
+				resourceAmounts[i] = resources.getResourceAmount(i);
+			}
+		}
+		if (gameObject instanceof SourceNode) {
+			SourceNode node = (SourceNode) gameObject;
+			sourceNode = true;
+			naturalResourceType = node.getNaturalResourceType();
+			naturalResourceAmount = node.getNaturalResourceAmount();
+		} else if (gameObject instanceof LightPillarNode) {
+			lightPillarNode = true;
+			sacrificedAmount = ((LightPillarNode) gameObject).getSacrificedAmount();
+		}
+	}
+
+	/**
+	 * Returns the selected game object. It should only be used to identify
+	 * the object, not to read its state.
+	 *
+	 * @return the selected object, or null if none was selected.
+	 */
+	public GameObject getGameObject() {
+		return gameObject;
+	}
+
+	/**
+	 * Tells if the selected object had been deleted, in which case nothing
+	 * else was copied.
+	 *
+	 * @return true if the selected object was deleted.
+	 */
+	public boolean isDeleted() {
+		return deleted;
+	}
+
+	/**
+	 * Returns the description of the selected object.
+	 *
+	 * @return the description, or null if it has none.
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * Returns the name of the selected object.
+	 *
+	 * @return the name of the selected object.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Tells if the selected object has characteristics.
+	 *
+	 * @return true if the object is a CharacteristicsContainer.
+	 */
+	public boolean hasCharacteristics() {
+		return characteristicsContainer;
+	}
+
+	/**
+	 * Tells if the selected object has resources.
+	 *
+	 * @return true if the object is a ResourceContainer.
+	 */
+	public boolean hasResources() {
+		return resourceContainer;
+	}
+
+	/**
+	 * Tells if the selected object is a SourceNode, which has a natural
+	 * resource.
+	 *
+	 * @return true if the object is a SourceNode.
+	 */
+	public boolean isSourceNode() {
+		return sourceNode;
+	}
+
+	/**
+	 * Returns the type of the natural resource of the selected SourceNode.
+	 *
+	 * @return the resource type.
+	 */
+	public int getNaturalResourceType() {
+		return naturalResourceType;
+	}
+
+	/**
+	 * Returns the amount of the natural resource of the selected SourceNode.
+	 *
+	 * @return the amount of the natural resource.
+	 */
+	public int getNaturalResourceAmount() {
+		return naturalResourceAmount;
+	}
+
+	/**
+	 * Tells if the selected object is a LightPillarNode.
+	 *
+	 * @return true if the object is a LightPillarNode.
+	 */
+	public boolean isLightPillarNode() {
+		return lightPillarNode;
+	}
+
+	/**
+	 * Returns the amount that has been sacrificed at the selected
+	 * LightPillarNode.
+	 *
+	 * @return the sacrificed amount.
+	 */
+	public int getSacrificedAmount() {
+		return sacrificedAmount;
+	}
+
+	public int getResourceAmount(int resourceType) {
+		if (resourceType < 0 || resourceType >= resourceAmounts.length) {
+			return 0;
+		}
+		return resourceAmounts[resourceType];
+	}
+
+	public int getAge() {
+		return age;
+	}
+
+	public float getHealth() {
+		return health;
+	}
+
+	public int getGender() {
+		return gender;
+	}
+
+	public float getGatherSkill() {
+		return gatherSkill;
+	}
+
+	public float getSacrificeSkill() {
+		return sacrificeSkill;
+	}
+
+	public float getTransportationSkill() {
+		return transportationSkill;
+	}
+
+	public float getSafety() {
+		return safety;
+	}
+
+	public float getSaturation() {
+		return saturation;
+	}
+
+	public float getHappiness() {
+		return happiness;
+	}
+
+}
@@ -0,0 +1,232 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.IdentityHashMap;
+
+/**
+ * Records a session of the game, so that it can be replayed exactly by a
+ * SessionReplay, for example to reproduce a bug or to compare the
+ * performance of two versions of the simulation on a real game.
+ *
+ * The recording starts with the world in the binary save format, which
+ * includes the state of its random numbers, so that a new game and a loaded
+ * game are recorded the same way. The world calls the recorder, see
+ * World.setRecorder(), with every command that it executes, which must be a
+ * UserCommand, and after every tick. The recording then holds the tick that
+ * each command was executed at, the checksum of the world (see
+ * World.getChecksum()) every Environment.getChecksumTicks() ticks, and the
+ * last tick. How many ticks the world ran per update doesn't matter, since
+ * every tick is the same.
+ *
+ * The recording is written on the simulation thread, but a command is only a
+ * few bytes, so this costs nothing compared to the tick. If the recording
+ * can't be written, it is stopped and the exception kept, see getFailure().
+ */
+public class SessionRecorder {
+
+	/**
+	 * The first int of a recording.
+	 */
+	static final int MAGIC = 0x54495252;
+
+	/**
+	 * The version of the recording format.
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * The kinds of entries that follow the world.
+	 */
+	static final int END = 0;
+	static final int COMMAND = 1;
+	static final int CHECKSUM = 2;
+
+	/**
+	 * The stream that the recording is written to, or null once it has been
+	 * closed or has failed.
+	 */
+	private DataOutputStream output;
+
+	/**
+	 * The objects that the recorded commands have created, mapped to the
+	 * numbers of the commands.
+	 */
+	private IdentityHashMap createdObjects;
+
+	/**
+	 * The number of commands that have been recorded.
+	 */
+	private int commandCount;
+
+	/**
+	 * The last tick that has been recorded.
+	 */
+	private long lastTick;
+
+	/**
+	 * The exception that stopped the recording, or null.
+	 */
+	private IOException failure;
+
+	/**
+	 * Starts a recording of the current world, which is saved to the file
+	 * right away. Must be called while the world isn't simulated, and
+	 * World.setRecorder() called before it is simulated again.
+	 *
+	 * @param file the file to record to. Is replaced if it exists.
+	 * @exception IOException if the file couldn't be written.
+	 */
+	public SessionRecorder(File file) throws IOException {
+		// The world is saved first, since the recording must know its
+		// length.
+		ByteArrayOutputStream savedWorld = new ByteArrayOutputStream();
+		World.saveWorld(Channels.newChannel(savedWorld));
+
+		output = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		try {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(savedWorld.size());
+			savedWorld.writeTo(output);
+			output.flush();
+		} catch (IOException e) {
+			output.close();
+			throw e;
+		}
+		createdObjects = new IdentityHashMap();
+		lastTick = World.getWorld().getTickCount();
+	}
+
+	/**
+	 * Records a command that is about to be executed. Is called by the world.
+	 *
+	 * @param tick the tick that the command is executed at.
+	 * @param command the command.
+	 */
+	void record(long tick, WorldCommand command) {
+		if (output == null) {
+			return;
+		}
+		try {
+			if (!(command instanceof UserCommand)) {
+				throw new IOException("Can't record a " +
+						command.getClass().getName());
+			}
+			UserCommand userCommand = (UserCommand) command;
+			output.writeByte(COMMAND);
+			output.writeLong(tick);
+			userCommand.write(output, this);
+			output.flush();
+			if (userCommand.getCreatedObject() != null) {
+				createdObjects.put(userCommand.getCreatedObject(),
+						new Integer(commandCount));
+			}
+			commandCount++;
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Records the checksum of the world if the tick is one of those that are
+	 * checked. Is called by the world at the end of each tick.
+	 *
+	 * @param world the world.
+	 */
+	void tickEnded(World world) {
+		if (output == null) {
+			return;
+		}
+		lastTick = world.getTickCount();
+		if (lastTick % World.getEnvironment().getChecksumTicks() != 0) {
+			return;
+		}
+		try {
+			output.writeByte(CHECKSUM);
+			output.writeLong(lastTick);
+			output.writeLong(world.getChecksum());
+			output.flush();
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Returns the reference that a command writes for an object. An object
+	 * that a recorded command has created is referred to by the number of
+	 * that command, as -2 - number. Other game objects are referred to by
+	 * their index in World.getAllObjects(), which is the same when the
+	 * session is replayed, since the list is updated before the commands are
+	 * executed and not while they are.
+	 *
+	 * @param object the object, or null.
+	 * @return the reference, or RecordType.NULL_REFERENCE if the object is
+	 * null or not in the world, in which case the command does nothing.
+	 */
+	int reference(Object object) {
+		if (object == null) {
+			return RecordType.NULL_REFERENCE;
+		}
+		Integer number = (Integer) createdObjects.get(object);
+		if (number != null) {
+			return -2 - number.intValue();
+		}
+		int index = World.getWorld().getAllObjects().indexOf(object);
+		return (index >= 0) ? index : RecordType.NULL_REFERENCE;
+	}
+
+	/**
+	 * Ends the recording with the last tick and closes the file. Must be
+	 * called once the world is no longer simulated.
+	 *
+	 * @exception IOException if the recording couldn't be written.
+	 */
+	public void close() throws IOException {
+		if (output == null) {
+			if (failure != null) {
+				throw failure;
+			}
+			return;
+		}
+		try {
+			output.writeByte(END);
+			output.writeLong(lastTick);
+		} finally {
+			output.close();
+			output = null;
+		}
+	}
+
+	/**
+	 * Returns the exception that stopped the recording, if any.
+	 *
+	 * @return the exception, or null if the recording hasn't failed.
+	 */
+	public IOException getFailure() {
+		return failure;
+	}
+
+	/**
+	 * Stops the recording because of an exception.
+	 */
+	private void fail(IOException e) {
+		failure = e;
+		try {
+			output.close();
+		} catch (IOException closeException) {
+			// The first exception is the one that matters.
+		}
+		output = null;
+	}
+
+}
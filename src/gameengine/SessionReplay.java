@@ -0,0 +1,259 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+
+/**
+ * Replays a session that has been recorded by a SessionRecorder, without
+ * regard to the real time. The recorded world is restored, and each call to
+ * tick() queues the commands that were executed at the next tick, ticks the
+ * world and compares its checksum with the recorded one, if there is one.
+ * The first checksum that differs stops the replay with an
+ * IllegalStateException, which tells the tick where the replay diverged
+ * from the recorded session.
+ *
+ * A recording that was never closed, because the game crashed, is replayed
+ * up to its last complete entry.
+ */
+public class SessionReplay {
+
+	/**
+	 * The stream that the recording is read from.
+	 */
+	private DataInputStream input;
+
+	/**
+	 * The restored world.
+	 */
+	private World world;
+
+	/**
+	 * The kind of the next entry, or SessionRecorder.END at the end of the
+	 * recording.
+	 */
+	private int nextKind;
+
+	/**
+	 * The tick of the next entry.
+	 */
+	private long nextTick;
+
+	/**
+	 * The objects that the replayed commands have created, by the numbers of
+	 * the commands.
+	 */
+	private HashMap createdObjects;
+
+	/**
+	 * The number of commands that have been replayed.
+	 */
+	private int commandCount;
+
+	/**
+	 * The number of checksums that have been compared.
+	 */
+	private int checksumCount;
+
+	/**
+	 * Opens a recording and restores its world, which becomes the world
+	 * returned by World.getWorld().
+	 *
+	 * @param file the recording.
+	 * @exception IOException if the recording couldn't be read or doesn't
+	 * contain a valid world.
+	 */
+	public SessionReplay(File file) throws IOException {
+		input = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)));
+		try {
+			if (input.readInt() != SessionRecorder.MAGIC) {
+				throw new IOException("Not a recorded session");
+			}
+			int version = input.readInt();
+			if (version > SessionRecorder.VERSION) {
+				throw new IOException("The session was recorded by a newer " +
+						"version (" + version + ")");
+			}
+			int length = input.readInt();
+			if (length < 0) {
+				throw new IOException("Invalid length of the world " + length);
+			}
+			byte[] savedWorld = new byte[length];
+			input.readFully(savedWorld);
+			world = new WorldReader(ByteBuffer.wrap(savedWorld)).read();
+			createdObjects = new HashMap();
+			readNextEntry();
+		} catch (IOException e) {
+			input.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the replayed world.
+	 *
+	 * @return the world.
+	 */
+	public World getWorld() {
+		return world;
+	}
+
+	/**
+	 * Tells if all recorded ticks have been replayed.
+	 *
+	 * @return true if the replay has reached the last recorded tick.
+	 */
+	public boolean isFinished() {
+		return nextKind == SessionRecorder.END &&
+				world.getTickCount() >= nextTick;
+	}
+
+	/**
+	 * Replays the next tick: queues the commands that were executed at it,
+	 * ticks the world and compares the checksum, if it was recorded.
+	 *
+	 * @exception IOException if the recording couldn't be read.
+	 * @exception IllegalStateException if the checksum of the world differs
+	 * from the recorded one.
+	 */
+	public void tick() throws IOException {
+		long tick = world.getTickCount() + 1;
+		if (nextKind != SessionRecorder.END && nextTick < tick) {
+			throw new IOException("An entry of tick " + nextTick +
+					" comes after tick " + (tick - 1));
+		}
+		if (nextKind == SessionRecorder.COMMAND && nextTick == tick) {
+			// The references are indices in the list as the world updates it
+			// before it executes the commands.
+			world.getAllObjects().update();
+		}
+		try {
+			while (nextKind == SessionRecorder.COMMAND && nextTick == tick) {
+				UserCommand command = UserCommand.read(input, this);
+				if (command.getCreatedObject() != null) {
+					createdObjects.put(new Integer(commandCount),
+							command.getCreatedObject());
+				}
+				commandCount++;
+				world.queueCommand(command);
+				readNextEntry();
+			}
+		} catch (EOFException e) {
+			// The last command wasn't completely written, so the tick
+			// can't be replayed.
+			end(tick - 1);
+			return;
+		}
+
+		world.tick();
+
+		try {
+			while (nextKind == SessionRecorder.CHECKSUM && nextTick == tick) {
+				long checksum = input.readLong();
+				if (checksum != world.getChecksum()) {
+					throw new IllegalStateException("The replay diverged at tick " +
+							tick + ": the checksum is " +
+							Long.toHexString(world.getChecksum()) + " instead of " +
+							Long.toHexString(checksum));
+				}
+				checksumCount++;
+				readNextEntry();
+			}
+		} catch (EOFException e) {
+			end(tick);
+		}
+	}
+
+	/**
+	 * Returns the number of commands that have been replayed.
+	 *
+	 * @return the number of commands.
+	 */
+	public int getCommandCount() {
+		return commandCount;
+	}
+
+	/**
+	 * Returns the number of checksums that have been compared, all of which
+	 * were the same as when the session was recorded.
+	 *
+	 * @return the number of checksums.
+	 */
+	public int getChecksumCount() {
+		return checksumCount;
+	}
+
+	/**
+	 * Closes the recording.
+	 *
+	 * @exception IOException if it couldn't be closed.
+	 */
+	public void close() throws IOException {
+		input.close();
+	}
+
+	/**
+	 * Retrieves the object that a command refers to, see
+	 * SessionRecorder.reference().
+	 *
+	 * @param reference the reference.
+	 * @return the object, or null.
+	 * @exception IOException if there is no such object.
+	 */
+	Object getObject(int reference) throws IOException {
+		if (reference == RecordType.NULL_REFERENCE) {
+			return null;
+		}
+		if (reference < 0) {
+			Integer number = new Integer(-2 - reference);
+			if (!createdObjects.containsKey(number)) {
+				throw new IOException("Invalid reference " + reference);
+			}
+			return createdObjects.get(number);
+		}
+		GameObjectList objects = world.getAllObjects();
+		if (reference >= objects.size()) {
+			throw new IOException("Invalid reference " + reference);
+		}
+		return objects.get(reference);
+	}
+
+	/**
+	 * Ends the replay after the given tick, because the recording ends
+	 * there.
+	 */
+	private void end(long lastTick) {
+		nextKind = SessionRecorder.END;
+		nextTick = lastTick;
+	}
+
+	/**
+	 * Reads the kind and the tick of the next entry. The end of the file is
+	 * taken as the end of the recording, after the last tick that has been
+	 * read.
+	 */
+	private void readNextEntry() throws IOException {
+		try {
+			nextKind = input.readByte();
+			nextTick = input.readLong();
+		} catch (EOFException e) {
+			end(world.getTickCount());
+			return;
+		}
+		if (nextKind != SessionRecorder.END &&
+				nextKind != SessionRecorder.COMMAND &&
+				nextKind != SessionRecorder.CHECKSUM) {
+			throw new IOException("Unknown entry " + nextKind);
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+/* 2026-10-18 agent
+ *	Gives the world to an AutoSaver after the updates.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+/**
+ * The thread that runs the simulation, separated from the thread that draws
+ * the world. It updates the World at its own fixed tick rate and, after
+ * each update that ran at least one tick, publishes a RenderSnapshot to the
+ * world's SnapshotBuffer. Between the ticks it sleeps, so that it doesn't
+ * take processor time from the drawing.
+ *
+ * Nothing but this thread may change the world while it is running. Other
+ * threads must queue their changes with World.queueCommand(). Since the
+ * world doesn't change between the updates, an AutoSaver can capture it
+ * there, see setAutoSaver().
+ */
+public class SimulationThread extends Thread {
+
+	/**
+	 * The world to simulate.
+	 */
+	private World world;
+
+	/**
+	 * Autosaves the world after the updates, or null.
+	 */
+	private AutoSaver autoSaver;
+
+	/**
+	 * true as long as the simulation should continue.
+	 */
+	private volatile boolean running;
+
+	/**
+	 * The exception that stopped the simulation, or null.
+	 */
+	private volatile RuntimeException failure;
+
+	/**
+	 * Constructs a simulation thread for the given world. The thread must
+	 * be started with start().
+	 *
+	 * @param world the world to simulate.
+	 */
+	public SimulationThread(World world) {
+		super("Simulation");
+		if (world == null) {
+			throw new IllegalArgumentException("world cannot be null");
+		}
+		this.world = world;
+		running = true;
+	}
+
+	/**
+	 * Sets the autosaver that is given the world after each update that ran
+	 * at least one tick. Must be called before the thread is started.
+	 *
+	 * @param autoSaver the autosaver, or null for no autosaves.
+	 */
+	public void setAutoSaver(AutoSaver autoSaver) {
+		this.autoSaver = autoSaver;
+	}
+
+	/**
+	 * Runs the simulation until halt() is called or an exception is thrown
+	 * by the world.
+	 */
+	public void run() {
+		SnapshotBuffer snapshotBuffer = world.getSnapshotBuffer();
+		world.startSimulation();
+		try {
+			// Let the drawing thread have something to draw from the start.
+			snapshotBuffer.publish(world);
+
+			while (running) {
+				long tickCount = world.getTickCount();
+				world.update();
+				if (world.getTickCount() != tickCount) {
+					snapshotBuffer.publish(world);
+					if (autoSaver != null) {
+						autoSaver.update(world);
+					}
+				}
+
+				// Sleep until the next tick is due.
+				long sleepTime = world.getTimeUntilNextTick();
+				if (sleepTime > 0) {
+					try {
+						Thread.sleep(sleepTime / 1000000, (int) (sleepTime % 1000000));
+					} catch (InterruptedException e) {
+						// halt() interrupts the sleep, the loop checks running.
+					}
+				}
+			}
+		} catch (RuntimeException e) {
+			failure = e;
+		} finally {
+			world.stopSimulation();
+		}
+	}
+
+	/**
+	 * Stops the simulation and waits for the thread to finish. The world is
+	 * not changed by this thread after this method has returned.
+	 */
+	public void halt() {
+		running = false;
+		interrupt();
+		try {
+			join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns the exception that stopped the simulation, if any.
+	 *
+	 * @return the exception that stopped the simulation, or null if it hasn't
+	 * stopped because of an exception.
+	 */
+	public RuntimeException getFailure() {
+		return failure;
+	}
+
+}
@@ -0,0 +1,105 @@
+/* 2026-10-18 agent
+ *	The drawing thread tells which object is selected with
+ *	setSelectedObject(), and each snapshot copies the selected object.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import gameengine.gameobjects.GameObject;
+
+/**
+ * A triple buffer of RenderSnapshots between the simulation thread and the
+ * drawing thread. The simulation thread writes to the back snapshot and
+ * publishes it, and the drawing thread acquires the latest published
+ * snapshot. Neither thread ever has to wait for the other to finish with a
+ * snapshot, and a snapshot that has been acquired isn't changed until the
+ * next call to acquire().
+ */
+public class SnapshotBuffer {
+
+	/**
+	 * The snapshot that the simulation thread writes to.
+	 */
+	private RenderSnapshot back;
+
+	/**
+	 * The latest published snapshot.
+	 */
+	private RenderSnapshot ready;
+
+	/**
+	 * The snapshot that the drawing thread uses.
+	 */
+	private RenderSnapshot front;
+
+	/**
+	 * true if ready has been published since the last acquire().
+	 */
+	private boolean fresh;
+
+	/**
+	 * The object that is selected in the drawing thread, which the next
+	 * snapshots copy.
+	 */
+	private volatile GameObject selectedObject;
+
+	/**
+	 * Constructs a buffer with three empty snapshots.
+	 */
+	public SnapshotBuffer() {
+		back = new RenderSnapshot();
+		ready = new RenderSnapshot();
+		front = new RenderSnapshot();
+		fresh = false;
+	}
+
+	/**
+	 * Writes a snapshot of the world and makes it the latest snapshot. Must
+	 * only be called from the simulation thread.
+	 *
+	 * @param world the world to take a snapshot of.
+	 */
+	public void publish(World world) {
+		// Only the simulation thread touches the back snapshot, so it can be
+		// written without holding the lock.
+		back.write(world, selectedObject);
+		synchronized (this) {
+			RenderSnapshot tmpSnapshot = ready;
+			ready = back;
+			back = tmpSnapshot;
+			fresh = true;
+		}
+	}
+
+	/**
+	 * Sets the object whose information the snapshots copy, see
+	 * RenderSnapshot.getSelection(). The snapshots that are published after
+	 * this call have the new selection. Can be called from any thread.
+	 *
+	 * @param selectedObject the selected object, or null if none.
+	 */
+	public void setSelectedObject(GameObject selectedObject) {
+		this.selectedObject = selectedObject;
+	}
+
+	/**
+	 * Returns the latest published snapshot. The snapshot will not be changed
+	 * until the next call to this method. Must only be called from the
+	 * drawing thread.
+	 *
+	 * @return the latest published snapshot. Is empty if nothing has been
+	 * published yet.
+	 */
+	public synchronized RenderSnapshot acquire() {
+		if (fresh) {
+			RenderSnapshot tmpSnapshot = front;
+			front = ready;
+			ready = tmpSnapshot;
+			fresh = false;
+		}
+		return front;
+	}
+
+}
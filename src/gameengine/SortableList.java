@@ -1,4 +1,26 @@
-/* 2003-05-10 Martin
+/* 2026-10-18 agent
+ *	Added contains(), indexOf() and size(), which look at the list without
+ *	updating it, for the references of recorded sessions.
+ *
+ * 2026-10-18 agent
+ *	Added save() and restore(), which save the list with the objects that
+ *	are about to be added and removed, and the spatial index, as seven
+ *	fields of the world's record.
+ *
+ * 2026-10-18 agent
+ *	The objects are kept in an IndexedList instead of an ArrayList, so that
+ *	update() adds and removes each object in constant time instead of
+ *	calling removeAll(). getBestItem() finds the best item without sorting.
+ *
+ * 2026-10-18 agent
+ *	Made register(), unRegister() and update() synchronized, so that objects
+ *	can be registered from other threads than the simulation thread.
+ *
+ * 2026-10-18 agent
+ *	Added a SpatialIndex that is kept up to date with the list, and the
+ *	getClosest() methods that use it instead of sorting the list.
+ *
+ * 2003-05-10 Martin
  *	Made several corrections, and added the method isEmpty().
  *
  * 2003-05-09 Martin
@@ -21,6 +43,8 @@
  */
 package gameengine;
 
+import gameengine.gameobjects.GameObject;
+
 import java.util.*;
 import java.util.Comparator;
 import java.util.List;
@@ -28,7 +52,9 @@ import java.io.*;
 
 /**
  * An abstract class containing a list that can be sorted by sending in a
- * specific Comparator.
+ * specific Comparator. The GameObjects in the list are also kept in a
+ * SpatialIndex, so that the closest ones to a point can be found without
+ * sorting.
  */
 public abstract class SortableList implements Serializable{
 
@@ -43,9 +69,14 @@ public abstract class SortableList implements Serializable{
 	protected List removeList;
 
 	/**
-	 * The list of the objects.
+	 * The objects. Each object can only be in the list once.
+	 */
+	protected IndexedList list;
+
+	/**
+	 * The spatial index over the GameObjects in the list.
 	 */
-	protected List list;
+	protected SpatialIndex spatialIndex;
 
 	/**
 	 * Constructs a new SortableList, but because SortableList is abstract
@@ -54,8 +85,9 @@ public abstract class SortableList implements Serializable{
 	public SortableList() {
 		addList = new ArrayList();
 		removeList = new ArrayList();
-		list = new ArrayList();
-		}
+		list = new IndexedList();
+		spatialIndex = new SpatialIndex();
+	}
 
 	/**
 	 * Sorts the list according to the specified Comparator.
@@ -63,127 +95,216 @@ public abstract class SortableList implements Serializable{
 	 * @param comparator the specified Comparator.
 	 */
 	public void sort(Comparator comparator) {
-		Collections.sort(list, comparator);
+		list.sort(comparator);
 	}
 
 	/**
 	 * Retrieves a new iterator for this list, but first it updates the list
 	 * by adding and removing those specified in the add- and remove list.
+	 * The iterator does not support removal of items, for encapsulation and
+	 * security. This ensures that the iterator is static during its lifetime.
 	 *
 	 * @return the iterator to be used.
 	 */
 	public Iterator iterator() {
-			update();
-			return new StaticIterator(list.iterator());
+		update();
+		return list.iterator();
 	}
 
 	/**
-	 * Registers, adds, the given Object to the list.
+	 * Registers, adds, the given Object to the list. The object is added
+	 * at the next update(). Can be called from any thread.
 	 *
 	 * @param object the object to be registered.
 	 */
-	public void register(Object object) {
+	public synchronized void register(Object object) {
 		addList.add(object);
 	}
 
 	/**
-	 * Unregisters, removes, the given Object from the list.
+	 * Unregisters, removes, the given Object from the list. The object is
+	 * removed at the next update(). Can be called from any thread.
 	 *
 	 * @param object the object to be unregistered.
 	 */
-	public void unRegister(Object object) {
+	public synchronized void unRegister(Object object) {
 		removeList.add(object);
 	}
 
 	/**
-	 * Updates the list by removing and adding the contents of
-	 * the removeList and addList.
+	 * Updates the list by adding and removing the contents of
+	 * the addList and removeList. Each object is added or removed in
+	 * constant time, so the whole update is linear in the number of objects
+	 * added and removed, whatever the size of the list.
 	 */
-	public void update() {
-		// Adds all new objects to the list
-		list.addAll(addList);
+	public synchronized void update() {
+		// Adds all new objects to the list and the spatial index
+		list.ensureCapacity(list.size() + addList.size());
+		for (int i = 0; i < addList.size(); i++) {
+			Object object = addList.get(i);
+			if (list.add(object) && object instanceof GameObject) {
+				spatialIndex.insert((GameObject) object);
+			}
+		}
 		addList.clear();
-		// Removes all new objects from the list
-		list.removeAll(removeList);
+		// Removes all new objects from the list and the spatial index
+		for (int i = 0; i < removeList.size(); i++) {
+			Object object = removeList.get(i);
+			if (list.remove(object) && object instanceof GameObject) {
+				spatialIndex.remove((GameObject) object);
+			}
+		}
 		removeList.clear();
 	}
 
 	/**
-	 * Returns the first object from the list after sorting
-	 * the list with the given comparator..
+	 * Updates the spatial index with the current positions of the objects.
+	 * Must be called after the objects have moved for the getClosest methods
+	 * to be correct.
+	 */
+	public void relocate() {
+		spatialIndex.relocate();
+	}
+
+	/**
+	 * Returns the object in the list that is closest to the given point.
+	 * Deleted objects are never returned.
+	 *
+	 * @param point the point to measure the distances from.
+	 * @return the closest object, or null if the list is empty.
+	 */
+	public GameObject getClosest(Point point) {
+		return spatialIndex.getClosest(point, null);
+	}
+
+	/**
+	 * Returns the object in the list that is closest to the given point and
+	 * accepted by the given filter. Deleted objects are never returned.
+	 *
+	 * @param point the point to measure the distances from.
+	 * @param filter the filter the object must be accepted by.
+	 * @return the closest accepted object, or null if there is none.
+	 */
+	public GameObject getClosest(Point point, GameObjectFilter filter) {
+		return spatialIndex.getClosest(point, filter);
+	}
+
+	/**
+	 * Returns the (at most) k objects in the list that are closest to the
+	 * given point and accepted by the given filter, with the closest first.
+	 * Deleted objects are never returned.
+	 *
+	 * @param point the point to measure the distances from.
+	 * @param k the maximum number of objects to return.
+	 * @param filter the filter the objects must be accepted by, or null to
+	 * accept all objects.
+	 * @return a List of the closest accepted objects sorted by distance.
+	 */
+	public List getClosest(Point point, int k, GameObjectFilter filter) {
+		return spatialIndex.getClosest(point, k, filter);
+	}
+
+	/**
+	 * Returns the object that would be first in the list after sorting
+	 * the list with the given comparator. The list is not sorted, the
+	 * best object is found in one pass. To find the closest object,
+	 * use getClosest() instead, which doesn't look at all objects.
 	 *
 	 * @param comparator the specified Comparator.
-	 * @return the object that is first in the list, i.e. "best".
+	 * @return the object that would be first in the list, i.e. "best".
 	 * Returns null if the list is empty.
 	 */
 	public Object getBestItem(Comparator comparator) {
-		sort(comparator);
-		// Returns the first item (index 0). The List interface
-		// does not have any getFirst() method. Returns null if the
-		// list is empty.
-		if(!isEmpty()) {
-			return list.get(0);
-		}
-		else {
-			return null;
-		}
+		return list.min(comparator);
 	}
 
 	/**
-	 * Returns a boolean stating if the list is empty.
+	 * Saves the objects of the list, and the objects that are to be added
+	 * and removed at the next update(), as three reference arrays followed
+	 * by the four fields of the spatial index, see SpatialIndex.save().
 	 *
-	 * @return a boolean stating if the list is empty.
+	 * @param record the record to save the list in.
+	 * @param field the index of the first of the seven fields.
+	 * @param writer the writer that saves the objects.
+	 * @exception IOException if an object couldn't be written.
 	 */
-	public boolean isEmpty() {
-		if(list.size() > 0) {
-			return false;
-		}
-		else {
-			return true;
+	synchronized void save(SaveRecord record, int field, WorldWriter writer)
+			throws IOException {
+		int[] references = new int[list.size()];
+		for (int i = 0; i < references.length; i++) {
+			references[i] = writer.reference((Saveable) list.get(i));
 		}
+		record.setArray(field, references);
+		record.setArray(field + 1, writer.reference(addList));
+		record.setArray(field + 2, writer.reference(removeList));
+		spatialIndex.save(record, field + 3, writer);
 	}
 
 	/**
-	 * An iterator that wraps another iterator and
-	 * makes it impossible to remvove elements, for
-	 * encapsulation and security. This ensures that
-	 * the iterator is static during its lifetime.
+	 * Restores the list and its spatial index from the fields written by
+	 * save(), replacing their contents.
+	 *
+	 * @param record the record that the list was saved in.
+	 * @param field the index of the first of the seven fields.
+	 * @param reader the reader that has restored the objects.
+	 * @exception IOException if an object hasn't been restored.
 	 */
-	private class StaticIterator implements Iterator {
-
-		/**
-		 * The wrapped, ordinary iterator.
-		 */
-		private Iterator innerIterator;
-
-		/**
-		 * Constructs an iterator that does not support removal of items.
-		 */
-		public StaticIterator(Iterator innerIterator) {
-			this.innerIterator = innerIterator;
+	synchronized void restore(SaveRecord record, int field, WorldReader reader)
+			throws IOException {
+		List objects = new ArrayList();
+		reader.getObjects(record, field, objects);
+		list = new IndexedList();
+		list.ensureCapacity(objects.size());
+		for (int i = 0; i < objects.size(); i++) {
+			list.add(objects.get(i));
 		}
+		addList.clear();
+		reader.getObjects(record, field + 1, addList);
+		removeList.clear();
+		reader.getObjects(record, field + 2, removeList);
+		spatialIndex.restore(record, field + 3, reader);
+	}
 
-		/**
-		 * Calls the inner iterator's hasNext().
-		 */
-		public boolean hasNext() {
-			return innerIterator.hasNext();
-		}
+	/**
+	 * Tells if the given object is in the list or is about to be added to it
+	 * at the next update(). Doesn't update the list.
+	 *
+	 * @param object the object.
+	 * @return true if the object has been registered and not yet removed by
+	 * update().
+	 */
+	public synchronized boolean contains(Object object) {
+		return list.contains(object) || addList.contains(object);
+	}
 
-		/**
-		 * Calls the inner iterator's next().
-		 */
-		public Object next() {
-			return innerIterator.next();
-		}
+	/**
+	 * Returns the index of the given object in the list, in constant time.
+	 * Unlike iterator() it doesn't update the list, so the index is that of
+	 * the last update(), and only valid until the next one.
+	 *
+	 * @param object the object.
+	 * @return the index, or -1 if the object hasn't been added by update().
+	 */
+	public synchronized int indexOf(Object object) {
+		return list.indexOf(object);
+	}
 
-		/**
-		 * The function of removing items from a list via the iterator
-		 * is not supported in StaticIterator..
-		 */
-		public void remove() {
-			throw new UnsupportedOperationException();
-		}
+	/**
+	 * Returns the number of objects that the last update() left in the list.
+	 *
+	 * @return the number of objects.
+	 */
+	public synchronized int size() {
+		return list.size();
+	}
+
+	/**
+	 * Returns a boolean stating if the list is empty.
+	 *
+	 * @return a boolean stating if the list is empty.
+	 */
+	public boolean isEmpty() {
+		return list.size() == 0;
 	}
 
 }
@@ -0,0 +1,582 @@
+/* 2026-10-18 agent
+ *	save() leaves out the grid when the writer doesn't save grids.
+ *
+ * 2026-10-18 agent
+ *	Keeps the entries in the order they were inserted instead of by hash
+ *	code, and can be saved with save() and restored with restore().
+ *
+ * 2026-10-18 agent
+ *	Reads the coordinates of the objects without creating Points.
+ *
+ * 2026-10-18 agent
+ *	Created the class. Replaces the sorting in SortableList.getBestItem()
+ *	when searching for the closest objects.
+ */
+package gameengine;
+
+import gameengine.gameobjects.GameObject;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A uniform grid over the world's area that keeps track of in which cell
+ * each registered GameObject is. It is used to find the closest object(s) to
+ * a point without having to sort all objects by distance. A search starts in
+ * the cell of the point and continues outwards, ring by ring, until no
+ * unvisited cell can contain anything closer than what already has been
+ * found.
+ *
+ * The grid is created the first time it is needed after the bounds of the
+ * Environment have been set. Until then all searches are made by going
+ * through every registered object. Objects that move must be relocated by
+ * calling relocate(), which World does once every update cycle.
+ */
+public class SpatialIndex implements Serializable {
+
+	/**
+	 * The width and height of one cell, in world coordinates.
+	 */
+	private float cellSize;
+
+	/**
+	 * The smallest x-coordinate covered by the grid.
+	 */
+	private float minX;
+
+	/**
+	 * The smallest y-coordinate covered by the grid.
+	 */
+	private float minY;
+
+	/**
+	 * The number of cells in each row of the grid.
+	 */
+	private int columns;
+
+	/**
+	 * The number of cells in each column of the grid.
+	 */
+	private int rows;
+
+	/**
+	 * The cells of the grid, indexed by row * columns + column. Each cell is
+	 * a List of GameObjects, or null if nothing has been placed in the cell
+	 * yet. The array itself is null until the grid has been created.
+	 */
+	private List[] cells;
+
+	/**
+	 * Maps every registered GameObject to its Entry, in the order they were
+	 * inserted. The order decides the order that relocate() moves the objects
+	 * to new cells in, and so which of two equally close objects is found, so
+	 * it mustn't depend on the objects' hash codes.
+	 */
+	private Map entries;
+
+	/**
+	 * Constructs an empty SpatialIndex with the cell size given by the
+	 * Environment.
+	 */
+	public SpatialIndex() {
+		this(World.getEnvironment().getSpatialIndexCellSize());
+	}
+
+	/**
+	 * Constructs an empty SpatialIndex with the given cell size.
+	 *
+	 * @param cellSize the width and height of one cell in world coordinates.
+	 * Must be greater than zero.
+	 */
+	public SpatialIndex(float cellSize) {
+		if (cellSize <= 0f) {
+			throw new IllegalArgumentException("cellSize must be greater than zero");
+		}
+		this.cellSize = cellSize;
+		entries = new LinkedHashMap();
+	}
+
+	/**
+	 * Adds the given GameObject to the index. Nothing happens if it is
+	 * already in the index.
+	 *
+	 * @param gameObject the GameObject to add.
+	 */
+	public void insert(GameObject gameObject) {
+		if (entries.containsKey(gameObject)) {
+			return;
+		}
+		Entry entry = new Entry(gameObject);
+		entries.put(gameObject, entry);
+		if (cells != null) {
+			place(entry);
+		}
+	}
+
+	/**
+	 * Removes the given GameObject from the index. Nothing happens if it
+	 * isn't in the index.
+	 *
+	 * @param gameObject the GameObject to remove.
+	 */
+	public void remove(GameObject gameObject) {
+		Entry entry = (Entry) entries.remove(gameObject);
+		if (entry != null && entry.cell >= 0) {
+			cells[entry.cell].remove(gameObject);
+		}
+	}
+
+	/**
+	 * Moves all objects that have left their cell since the last call to
+	 * the cell they are in now. Deleted objects are left where they are until
+	 * they are removed.
+	 */
+	public void relocate() {
+		if (!ensureGrid()) {
+			return;
+		}
+		Iterator it = entries.values().iterator();
+		while (it.hasNext()) {
+			Entry entry = (Entry) it.next();
+			if (!entry.gameObject.isDeleted()) {
+				int cell = getCell(entry.gameObject.getX(),
+						entry.gameObject.getY());
+				if (cell != entry.cell) {
+					if (entry.cell >= 0) {
+						cells[entry.cell].remove(entry.gameObject);
+					}
+					addToCell(entry, cell);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of objects in the index.
+	 *
+	 * @return the number of objects in the index.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the GameObject closest to the given point that is accepted by
+	 * the filter. Deleted objects are never returned.
+	 *
+	 * @param point the point to measure the distances from.
+	 * @param filter the filter that the object must be accepted by, or null
+	 * to accept all objects.
+	 * @return the closest accepted GameObject, or null if there is none.
+	 */
+	public GameObject getClosest(Point point, GameObjectFilter filter) {
+		List closest = getClosest(point, 1, filter);
+		if (closest.isEmpty()) {
+			return null;
+		}
+		return (GameObject) closest.get(0);
+	}
+
+	/**
+	 * Returns the (at most) k GameObjects closest to the given point that are
+	 * accepted by the filter, with the closest one first. Deleted objects are
+	 * never returned.
+	 *
+	 * @param point the point to measure the distances from.
+	 * @param k the maximum number of objects to return.
+	 * @param filter the filter that the objects must be accepted by, or null
+	 * to accept all objects.
+	 * @return a List of the closest accepted GameObjects sorted by distance.
+	 */
+	public List getClosest(Point point, int k, GameObjectFilter filter) {
+		if (k < 0) {
+			throw new IllegalArgumentException("k cannot be negative");
+		}
+		Candidates candidates = new Candidates(point, k, filter);
+		if (k == 0) {
+			return candidates.toList();
+		}
+
+		// Without a grid, every object must be looked at.
+		if (!ensureGrid()) {
+			Iterator it = entries.keySet().iterator();
+			while (it.hasNext()) {
+				candidates.offer((GameObject) it.next());
+			}
+			return candidates.toList();
+		}
+
+		int centerColumn = getColumn(point.getX());
+		int centerRow = getRow(point.getY());
+		int maxRing = Math.max(columns, rows);
+
+		for (int ring = 0; ring <= maxRing; ring++) {
+			int top = centerRow - ring;
+			int bottom = centerRow + ring;
+			int left = centerColumn - ring;
+			int right = centerColumn + ring;
+
+			// The top and bottom rows of the ring.
+			for (int column = left; column <= right; column++) {
+				offerCell(candidates, column, top);
+				if (bottom != top) {
+					offerCell(candidates, column, bottom);
+				}
+			}
+			// The left and right columns of the ring, without the corners.
+			for (int row = top + 1; row < bottom; row++) {
+				offerCell(candidates, left, row);
+				if (right != left) {
+					offerCell(candidates, right, row);
+				}
+			}
+
+			// Everything outside this ring is at least ring * cellSize away.
+			if (candidates.isFull() &&
+					candidates.getFarthestDistance() <= ring * cellSize) {
+				break;
+			}
+		}
+		return candidates.toList();
+	}
+
+	/**
+	 * Offers all objects in the given cell to the candidates. Cells outside
+	 * the grid are ignored.
+	 *
+	 * @param candidates the candidates to offer the objects to.
+	 * @param column the column of the cell.
+	 * @param row the row of the cell.
+	 */
+	private void offerCell(Candidates candidates, int column, int row) {
+		if (column < 0 || column >= columns || row < 0 || row >= rows) {
+			return;
+		}
+		List cell = cells[row * columns + column];
+		if (cell != null) {
+			for (int i = 0; i < cell.size(); i++) {
+				candidates.offer((GameObject) cell.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Creates the grid if it doesn't exist and the bounds of the Environment
+	 * are set. All objects already registered are placed in the new grid.
+	 *
+	 * @return true if the grid exists, otherwise false.
+	 */
+	private boolean ensureGrid() {
+		if (cells != null) {
+			return true;
+		}
+		if (!createGrid()) {
+			return false;
+		}
+		Iterator it = entries.values().iterator();
+		while (it.hasNext()) {
+			place((Entry) it.next());
+		}
+		return true;
+	}
+
+	/**
+	 * Creates an empty grid over the bounds of the Environment.
+	 *
+	 * @return true if the grid was created, false if the bounds aren't set.
+	 */
+	private boolean createGrid() {
+		Point minCoordinate = World.getEnvironment().getMinCoordinate();
+		Point maxCoordinate = World.getEnvironment().getMaxCoordinate();
+		if (minCoordinate == null || maxCoordinate == null) {
+			return false;
+		}
+		minX = minCoordinate.getX();
+		minY = minCoordinate.getY();
+		columns = Math.max(1, (int) Math.ceil(
+				(maxCoordinate.getX() - minX) / cellSize));
+		rows = Math.max(1, (int) Math.ceil(
+				(maxCoordinate.getY() - minY) / cellSize));
+		cells = new List[columns * rows];
+		return true;
+	}
+
+	/**
+	 * Saves the index as four fields of a record: the registered objects in
+	 * the order they were inserted, if the grid has been created, and the
+	 * objects of each cell in their order, as their indices in the first
+	 * field, with the cells they are in. The restored index then finds the
+	 * same objects as this one, also among objects that are equally close.
+	 * If the writer doesn't save grids (see WorldWriter.savesGrids()), the
+	 * index is saved as if the grid hadn't been created.
+	 *
+	 * @param record the record to save the index in.
+	 * @param field the index of the first of the four fields.
+	 * @param writer the writer that saves the objects.
+	 * @exception IOException if an object couldn't be written.
+	 */
+	void save(SaveRecord record, int field, WorldWriter writer)
+			throws IOException {
+		boolean savesGrid = cells != null && writer.savesGrids();
+		int[] references = new int[entries.size()];
+		IdentityHashMap indices = savesGrid ? new IdentityHashMap() : null;
+		Iterator it = entries.keySet().iterator();
+		for (int i = 0; it.hasNext(); i++) {
+			GameObject gameObject = (GameObject) it.next();
+			references[i] = writer.reference(gameObject);
+			if (savesGrid) {
+				indices.put(gameObject, new Integer(i));
+			}
+		}
+		record.setArray(field, references);
+		record.setBoolean(field + 1, savesGrid);
+		if (!savesGrid) {
+			return;
+		}
+
+		int placed = 0;
+		for (int cell = 0; cell < cells.length; cell++) {
+			if (cells[cell] != null) {
+				placed += cells[cell].size();
+			}
+		}
+		int[] order = new int[placed];
+		int[] cellIndices = new int[placed];
+		int n = 0;
+		for (int cell = 0; cell < cells.length; cell++) {
+			if (cells[cell] != null) {
+				for (int i = 0; i < cells[cell].size(); i++) {
+					order[n] = ((Integer) indices.get(cells[cell].get(i))).intValue();
+					cellIndices[n++] = cell;
+				}
+			}
+		}
+		record.setArray(field + 2, order);
+		record.setArray(field + 3, cellIndices);
+	}
+
+	/**
+	 * Restores the index from the four fields written by save(), replacing
+	 * its contents. The bounds of the Environment must have been set.
+	 *
+	 * @param record the record that the index was saved in.
+	 * @param field the index of the first of the four fields.
+	 * @param reader the reader that has restored the objects.
+	 * @exception IOException if an object hasn't been restored, or the
+	 * cells don't fit the grid.
+	 */
+	void restore(SaveRecord record, int field, WorldReader reader)
+			throws IOException {
+		int[] references = record.getArray(field);
+		Entry[] restored = new Entry[references.length];
+		entries = new LinkedHashMap();
+		cells = null;
+		for (int i = 0; i < references.length; i++) {
+			GameObject gameObject = (GameObject) reader.getObject(references[i]);
+			if (gameObject != null && !entries.containsKey(gameObject)) {
+				restored[i] = new Entry(gameObject);
+				entries.put(gameObject, restored[i]);
+			}
+		}
+		if (!record.getBoolean(field + 1) || !createGrid()) {
+			return;
+		}
+
+		int[] order = record.getArray(field + 2);
+		int[] cellIndices = record.getArray(field + 3);
+		if (order.length != cellIndices.length) {
+			throw new IOException("Invalid cells of the spatial index");
+		}
+		for (int i = 0; i < order.length; i++) {
+			if (order[i] < 0 || order[i] >= restored.length ||
+					cellIndices[i] < 0 || cellIndices[i] >= cells.length) {
+				throw new IOException("Invalid cells of the spatial index");
+			}
+			Entry entry = restored[order[i]];
+			if (entry != null && entry.cell < 0) {
+				addToCell(entry, cellIndices[i]);
+			}
+		}
+	}
+
+	/**
+	 * Places the entry in the cell that its GameObject's point is in.
+	 * Deleted objects are not placed.
+	 *
+	 * @param entry the entry to place.
+	 */
+	private void place(Entry entry) {
+		if (!entry.gameObject.isDeleted()) {
+			addToCell(entry, getCell(entry.gameObject.getX(),
+					entry.gameObject.getY()));
+		}
+	}
+
+	/**
+	 * Adds the entry's GameObject to the given cell and remembers the cell
+	 * in the entry.
+	 *
+	 * @param entry the entry to add.
+	 * @param cell the index of the cell.
+	 */
+	private void addToCell(Entry entry, int cell) {
+		if (cells[cell] == null) {
+			cells[cell] = new ArrayList();
+		}
+		cells[cell].add(entry.gameObject);
+		entry.cell = cell;
+	}
+
+	/**
+	 * Returns the index of the cell that contains the given coordinates.
+	 * Coordinates outside the grid are moved to the closest cell.
+	 */
+	private int getCell(float x, float y) {
+		return getRow(y) * columns + getColumn(x);
+	}
+
+	/**
+	 * Returns the column that contains the given x-coordinate.
+	 */
+	private int getColumn(float x) {
+		int column = (int) ((x - minX) / cellSize);
+		if (column < 0) {
+			return 0;
+		}
+		if (column >= columns) {
+			return columns - 1;
+		}
+		return column;
+	}
+
+	/**
+	 * Returns the row that contains the given y-coordinate.
+	 */
+	private int getRow(float y) {
+		int row = (int) ((y - minY) / cellSize);
+		if (row < 0) {
+			return 0;
+		}
+		if (row >= rows) {
+			return rows - 1;
+		}
+		return row;
+	}
+
+	/**
+	 * Keeps track of a registered GameObject and the cell it was last
+	 * placed in.
+	 */
+	private static class Entry implements Serializable {
+
+		/**
+		 * The registered GameObject.
+		 */
+		GameObject gameObject;
+
+		/**
+		 * The index of the cell the object is in, or -1 if it isn't placed.
+		 */
+		int cell = -1;
+
+		/**
+		 * Constructs an entry for the given GameObject that isn't placed.
+		 */
+		Entry(GameObject gameObject) {
+			this.gameObject = gameObject;
+		}
+	}
+
+	/**
+	 * The k closest objects found so far in a search, kept sorted by
+	 * distance with the closest first.
+	 */
+	private static class Candidates {
+
+		/**
+		 * The point the distances are measured from.
+		 */
+		private Point point;
+
+		/**
+		 * The filter the objects must be accepted by, or null.
+		 */
+		private GameObjectFilter filter;
+
+		/**
+		 * The objects found so far.
+		 */
+		private GameObject[] objects;
+
+		/**
+		 * The distances of the objects found so far.
+		 */
+		private float[] distances;
+
+		/**
+		 * The number of objects found so far.
+		 */
+		private int count;
+
+		/**
+		 * Constructs an empty set of at most k candidates.
+		 */
+		Candidates(Point point, int k, GameObjectFilter filter) {
+			this.point = point;
+			this.filter = filter;
+			objects = new GameObject[k];
+			distances = new float[k];
+		}
+
+		/**
+		 * Adds the object if it is accepted and closer than the farthest of
+		 * the candidates, or if there still is room for more candidates.
+		 */
+		void offer(GameObject gameObject) {
+			if (gameObject.isDeleted() ||
+					(filter != null && !filter.accept(gameObject))) {
+				return;
+			}
+			float distance = Point.distance(gameObject.getX(), gameObject.getY(),
+					point.getX(), point.getY());
+			if (isFull() && distance >= distances[count - 1]) {
+				return;
+			}
+			int i = isFull() ? count - 1 : count++;
+			while (i > 0 && distances[i - 1] > distance) {
+				objects[i] = objects[i - 1];
+				distances[i] = distances[i - 1];
+				i--;
+			}
+			objects[i] = gameObject;
+			distances[i] = distance;
+		}
+
+		/**
+		 * Tests if k candidates have been found.
+		 */
+		boolean isFull() {
+			return count == objects.length;
+		}
+
+		/**
+		 * Returns the distance of the farthest candidate.
+		 */
+		float getFarthestDistance() {
+			return distances[count - 1];
+		}
+
+		/**
+		 * Returns the candidates as a List, the closest first.
+		 */
+		List toList() {
+			List list = new ArrayList(count);
+			for (int i = 0; i < count; i++) {
+				list.add(objects[i]);
+			}
+			return list;
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+/* 2026-10-18 agent
+ *	Keeps the time of the update and of the need check of the individual,
+ *	while the FrameProfiler is enabled.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import gameengine.gameobjects.Individual;
+import gameengine.gameobjects.Updateable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the changes of shared state that one Updateable object makes while
+ * it is updated during a tick. The individuals are updated in parallel, and
+ * while they are, everything that changes objects shared between them (the
+ * lists of the world, the socialize groups, the source nodes) is deferred
+ * with World.defer() into the buffer of the individual being updated. When
+ * all individuals have been updated, the world commits the buffers one at a
+ * time in the order of the list of all objects, so the result is the same
+ * whichever thread updated which individual.
+ */
+class UpdateBuffer {
+
+	/**
+	 * The object to update.
+	 */
+	private Updateable updateable;
+
+	/**
+	 * The object to update, if it is an Individual, otherwise null. Only
+	 * individuals are updated in parallel, the other objects are updated when
+	 * the buffer is committed.
+	 */
+	private Individual individual;
+
+	/**
+	 * The deferred commands (WorldCommand), in the order they were deferred.
+	 */
+	private List commands = new ArrayList();
+
+	/**
+	 * The time in nanoseconds that updating the individual took, and the
+	 * part of it spent on checking its needs. Are only measured while the
+	 * FrameProfiler is enabled.
+	 */
+	private long updateTime;
+	private long needCheckTime;
+
+	/**
+	 * Sets the object to update with this buffer and clears the commands.
+	 *
+	 * @param updateable the object to update.
+	 */
+	void reset(Updateable updateable) {
+		this.updateable = updateable;
+		individual = (updateable instanceof Individual) ? (Individual) updateable : null;
+		commands.clear();
+		updateTime = 0;
+		needCheckTime = 0;
+	}
+
+	/**
+	 * Returns the individual to update in parallel, or null if the object
+	 * isn't an Individual.
+	 *
+	 * @return the individual, or null.
+	 */
+	Individual getIndividual() {
+		return individual;
+	}
+
+	/**
+	 * Returns the random numbers of the object being updated.
+	 *
+	 * @return the RandomSource of the individual.
+	 */
+	RandomSource getRandom() {
+		return individual.getRandom();
+	}
+
+	/**
+	 * Sets the time that updating the individual took.
+	 * @param time the time in nanoseconds.
+	 */
+	void setUpdateTime(long time) {
+		updateTime = time;
+	}
+
+	/**
+	 * Returns the time that updating the individual took.
+	 * @return the time in nanoseconds, or 0 if it wasn't measured.
+	 */
+	long getUpdateTime() {
+		return updateTime;
+	}
+
+	/**
+	 * Adds to the time that the individual spent on checking its needs.
+	 * @param time the time in nanoseconds.
+	 */
+	void addNeedCheckTime(long time) {
+		needCheckTime += time;
+	}
+
+	/**
+	 * Returns the time that the individual spent on checking its needs.
+	 * @return the time in nanoseconds, or 0 if it wasn't measured.
+	 */
+	long getNeedCheckTime() {
+		return needCheckTime;
+	}
+
+	/**
+	 * Adds a command to execute when the buffer is committed.
+	 *
+	 * @param command the command to defer.
+	 */
+	void defer(WorldCommand command) {
+		commands.add(command);
+	}
+
+	/**
+	 * Executes the deferred commands in order, or updates the object if it
+	 * wasn't updated in parallel. Is called from the simulation thread only.
+	 */
+	void commit() {
+		if (individual == null) {
+			updateable.update();
+		} else {
+			for (int i = 0; i < commands.size(); i++) {
+				((WorldCommand) commands.get(i)).execute();
+			}
+		}
+		updateable = null;
+		individual = null;
+		commands.clear();
+	}
+
+}
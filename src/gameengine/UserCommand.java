@@ -0,0 +1,458 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import gameengine.gameobjects.GameObject;
+import gameengine.gameobjects.Individual;
+import gameengine.gameobjects.Node;
+import gameengine.gameobjects.SourceNode;
+import gameengine.gameobjects.SpecialPoint;
+import gameengine.tasksystem.CommandedGatherTask;
+import gameengine.tasksystem.CommandedMoveToTask;
+import gameengine.tasksystem.CommandedSacrificeTask;
+import gameengine.tasksystem.CommandedTransportTask;
+import gameengine.tasksystem.Task;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A command that the user gives through the InputEventTranslator. Unlike
+ * other WorldCommands, a user command knows what it does, so that it can be
+ * recorded by a SessionRecorder and replayed by a SessionReplay. The game
+ * objects that it refers to are written as references, see
+ * SessionRecorder.reference().
+ *
+ * The commands are created with the static methods, one for each kind of
+ * command, on the thread that handles the input. The tasks that the
+ * individuals are given are created when the command is executed, since
+ * they remember where their destinations are, except the transport tasks
+ * and the nodes, which are created at once so that the input thread can
+ * keep building on them. They don't become part of the world until the
+ * command is executed.
+ *
+ * A command that refers to a game object that has left the world since the
+ * command was given, such as an individual that has died or a source node
+ * that has been depleted, does nothing. Such an object has no reference,
+ * so the replayed command does nothing either.
+ */
+public class UserCommand implements WorldCommand {
+
+	/**
+	 * The kinds of commands.
+	 */
+	static final int MOVE_TO = 1;
+	static final int MOVE_TO_POINT = 2;
+	static final int GATHER = 3;
+	static final int SACRIFICE = 4;
+	static final int START_TRANSPORT = 5;
+	static final int ADD_TRANSPORT_NODE = 6;
+	static final int ADD_TRANSPORT_PICK_UP = 7;
+	static final int COMMIT_TRANSPORT = 8;
+	static final int CREATE_NODE = 9;
+	static final int DELETE = 10;
+
+	/**
+	 * The kind of command.
+	 */
+	private int kind;
+
+	/**
+	 * The individual that is given a task, or the object to delete.
+	 */
+	private GameObject target;
+
+	/**
+	 * The destination of the task, or the node that is added to a transport
+	 * task or created.
+	 */
+	private GameObject destination;
+
+	/**
+	 * The transport task that is started or changed.
+	 */
+	private CommandedTransportTask task;
+
+	/**
+	 * The resource type that is picked up.
+	 */
+	private int resourceType;
+
+	/**
+	 * Creates a command of the given kind.
+	 */
+	private UserCommand(int kind, GameObject target, GameObject destination,
+			CommandedTransportTask task) {
+		this.kind = kind;
+		this.target = target;
+		this.destination = destination;
+		this.task = task;
+	}
+
+	/**
+	 * Creates a command that gives an individual a CommandedMoveToTask.
+	 *
+	 * @param individual the individual.
+	 * @param destination the game object to move to, or a SpecialPoint.
+	 * @return the command.
+	 */
+	public static UserCommand moveTo(Individual individual,
+			GameObject destination) {
+		return new UserCommand(
+				(destination instanceof SpecialPoint) ? MOVE_TO_POINT : MOVE_TO,
+				individual, destination, null);
+	}
+
+	/**
+	 * Creates a command that gives an individual a CommandedGatherTask.
+	 *
+	 * @param individual the individual.
+	 * @param source the source node to gather from.
+	 * @return the command.
+	 */
+	public static UserCommand gather(Individual individual, SourceNode source) {
+		return new UserCommand(GATHER, individual, source, null);
+	}
+
+	/**
+	 * Creates a command that gives an individual a CommandedSacrificeTask.
+	 *
+	 * @param individual the individual.
+	 * @return the command.
+	 */
+	public static UserCommand sacrifice(Individual individual) {
+		return new UserCommand(SACRIFICE, individual, null, null);
+	}
+
+	/**
+	 * Creates a command that gives an individual a new
+	 * CommandedTransportTask, which can be retrieved with
+	 * getTransportTask() and built with the other transport commands.
+	 *
+	 * @param individual the individual.
+	 * @param node the node that the transport starts at.
+	 * @return the command.
+	 */
+	public static UserCommand startTransport(Individual individual, Node node) {
+		return new UserCommand(START_TRANSPORT, individual, node,
+				new CommandedTransportTask(node));
+	}
+
+	/**
+	 * Creates a command that adds a node to the route of a transport task.
+	 *
+	 * @param task the transport task.
+	 * @param node the node to add.
+	 * @return the command.
+	 */
+	public static UserCommand addTransportNode(CommandedTransportTask task,
+			Node node) {
+		return new UserCommand(ADD_TRANSPORT_NODE, null, node, task);
+	}
+
+	/**
+	 * Creates a command that adds a pick up to a transport task.
+	 *
+	 * @param task the transport task.
+	 * @param resourceType the type of resource to pick up.
+	 * @return the command.
+	 */
+	public static UserCommand addTransportPickUp(CommandedTransportTask task,
+			int resourceType) {
+		UserCommand command = new UserCommand(ADD_TRANSPORT_PICK_UP, null, null,
+				task);
+		command.resourceType = resourceType;
+		return command;
+	}
+
+	/**
+	 * Creates a command that commits a transport task.
+	 *
+	 * @param task the transport task.
+	 * @return the command.
+	 */
+	public static UserCommand commitTransport(CommandedTransportTask task) {
+		return new UserCommand(COMMIT_TRANSPORT, null, null, task);
+	}
+
+	/**
+	 * Creates a command that registers a new node in the world. The node is
+	 * created at once and can be retrieved with getNode().
+	 *
+	 * @param point the position of the node.
+	 * @return the command.
+	 */
+	public static UserCommand createNode(Point point) {
+		return new UserCommand(CREATE_NODE, null, new Node(point, 0), null);
+	}
+
+	/**
+	 * Creates a command that deletes a game object, unless it has already
+	 * been deleted.
+	 *
+	 * @param gameObject the game object to delete.
+	 * @return the command.
+	 */
+	public static UserCommand delete(GameObject gameObject) {
+		return new UserCommand(DELETE, gameObject, null, null);
+	}
+
+	/**
+	 * Returns the transport task that the command starts or changes.
+	 *
+	 * @return the task, or null if the command doesn't concern a transport
+	 * task.
+	 */
+	public CommandedTransportTask getTransportTask() {
+		return task;
+	}
+
+	/**
+	 * Returns the node that the command creates.
+	 *
+	 * @return the node, or null if the command doesn't create a node.
+	 */
+	public Node getNode() {
+		return (kind == CREATE_NODE) ? (Node) destination : null;
+	}
+
+	/**
+	 * Returns the object that the command creates, and that later commands
+	 * may refer to.
+	 *
+	 * @return the node or the transport task, or null.
+	 */
+	Object getCreatedObject() {
+		if (kind == CREATE_NODE) {
+			return destination;
+		} else if (kind == START_TRANSPORT) {
+			return task;
+		}
+		return null;
+	}
+
+	/**
+	 * Performs the command, unless it refers to a game object that is no
+	 * longer in the world.
+	 */
+	public void execute() {
+		switch (kind) {
+			case MOVE_TO :
+			case GATHER :
+			case START_TRANSPORT :
+				if (isInWorld(target) && isInWorld(destination)) {
+					((Individual) target).setCommandedTask(createTask());
+				}
+				break;
+			case MOVE_TO_POINT :
+			case SACRIFICE :
+				if (isInWorld(target)) {
+					((Individual) target).setCommandedTask(createTask());
+				}
+				break;
+			case ADD_TRANSPORT_NODE :
+				if (task != null && isInWorld(destination)) {
+					task.addNode((Node) destination);
+				}
+				break;
+			case ADD_TRANSPORT_PICK_UP :
+				if (task != null) {
+					task.addPickUp(resourceType);
+				}
+				break;
+			case COMMIT_TRANSPORT :
+				if (task != null) {
+					task.setCommited(true);
+				}
+				break;
+			case CREATE_NODE :
+				World.getWorld().register(destination);
+				break;
+			case DELETE :
+				if (isInWorld(target)) {
+					target.delete();
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Tells if a game object is in the world, or is about to be added to it,
+	 * and hasn't been deleted.
+	 */
+	private static boolean isInWorld(GameObject gameObject) {
+		return gameObject != null && !gameObject.isDeleted() &&
+				World.getWorld().getAllObjects().contains(gameObject);
+	}
+
+	/**
+	 * Creates the task that the individual is given, where its destination
+	 * is now.
+	 */
+	private Task createTask() {
+		switch (kind) {
+			case GATHER :
+				return new CommandedGatherTask((SourceNode) destination);
+			case SACRIFICE :
+				return new CommandedSacrificeTask();
+			case START_TRANSPORT :
+				return task;
+			default :
+				return new CommandedMoveToTask(destination);
+		}
+	}
+
+	/**
+	 * Writes the command. Is called by the recorder on the simulation thread,
+	 * right before the command is executed.
+	 *
+	 * @param output the stream to write to.
+	 * @param recorder the recorder, which gives the references.
+	 * @exception IOException if the command couldn't be written.
+	 */
+	void write(DataOutputStream output, SessionRecorder recorder)
+			throws IOException {
+		output.writeByte(kind);
+		switch (kind) {
+			case MOVE_TO :
+			case GATHER :
+			case START_TRANSPORT :
+				output.writeInt(recorder.reference(target));
+				output.writeInt(recorder.reference(destination));
+				break;
+			case MOVE_TO_POINT :
+				output.writeInt(recorder.reference(target));
+				output.writeFloat(destination.getX());
+				output.writeFloat(destination.getY());
+				break;
+			case SACRIFICE :
+			case DELETE :
+				output.writeInt(recorder.reference(target));
+				break;
+			case ADD_TRANSPORT_NODE :
+				output.writeInt(recorder.reference(task));
+				output.writeInt(recorder.reference(destination));
+				break;
+			case ADD_TRANSPORT_PICK_UP :
+				output.writeInt(recorder.reference(task));
+				output.writeInt(resourceType);
+				break;
+			case COMMIT_TRANSPORT :
+				output.writeInt(recorder.reference(task));
+				break;
+			case CREATE_NODE :
+				output.writeFloat(destination.getX());
+				output.writeFloat(destination.getY());
+				break;
+		}
+	}
+
+	/**
+	 * Reads a command that has been written with write(), and creates it
+	 * again in the replayed world. Is called right before the tick that the
+	 * command was executed in.
+	 *
+	 * @param input the stream to read from.
+	 * @param replay the replay, which retrieves the referenced objects.
+	 * @return the command.
+	 * @exception IOException if the command couldn't be read, or refers to
+	 * an object that isn't of the right class.
+	 */
+	static UserCommand read(DataInputStream input, SessionReplay replay)
+			throws IOException {
+		int kind = input.readByte();
+		Individual individual;
+		GameObject destination;
+		CommandedTransportTask transportTask;
+		switch (kind) {
+			case MOVE_TO :
+				individual = readIndividual(input, replay);
+				destination = (GameObject) read(input, replay, GameObject.class);
+				return (individual == null || destination == null) ?
+						lost(kind) : moveTo(individual, destination);
+			case MOVE_TO_POINT :
+				individual = readIndividual(input, replay);
+				destination = new SpecialPoint(
+						new Point(input.readFloat(), input.readFloat()));
+				return (individual == null) ?
+						lost(kind) : moveTo(individual, destination);
+			case GATHER :
+				individual = readIndividual(input, replay);
+				destination = (GameObject) read(input, replay, SourceNode.class);
+				return (individual == null || destination == null) ?
+						lost(kind) : gather(individual, (SourceNode) destination);
+			case SACRIFICE :
+				individual = readIndividual(input, replay);
+				return (individual == null) ? lost(kind) : sacrifice(individual);
+			case START_TRANSPORT :
+				individual = readIndividual(input, replay);
+				destination = (GameObject) read(input, replay, Node.class);
+				return (individual == null || destination == null) ?
+						lost(kind) : startTransport(individual, (Node) destination);
+			case ADD_TRANSPORT_NODE :
+				transportTask = readTransportTask(input, replay);
+				destination = (GameObject) read(input, replay, Node.class);
+				return (transportTask == null || destination == null) ?
+						lost(kind) : addTransportNode(transportTask, (Node) destination);
+			case ADD_TRANSPORT_PICK_UP :
+				transportTask = readTransportTask(input, replay);
+				int resourceType = input.readInt();
+				return (transportTask == null) ?
+						lost(kind) : addTransportPickUp(transportTask, resourceType);
+			case COMMIT_TRANSPORT :
+				transportTask = readTransportTask(input, replay);
+				return (transportTask == null) ?
+						lost(kind) : commitTransport(transportTask);
+			case CREATE_NODE :
+				return createNode(new Point(input.readFloat(), input.readFloat()));
+			case DELETE :
+				destination = (GameObject) read(input, replay, GameObject.class);
+				return (destination == null) ? lost(kind) : delete(destination);
+			default :
+				throw new IOException("Unknown command " + kind);
+		}
+	}
+
+	/**
+	 * Creates a command that does nothing, instead of a command that refers
+	 * to an object that was no longer in the world when it was recorded.
+	 */
+	private static UserCommand lost(int kind) {
+		return new UserCommand(kind, null, null, null);
+	}
+
+	/**
+	 * Reads a reference to an individual.
+	 */
+	private static Individual readIndividual(DataInputStream input,
+			SessionReplay replay) throws IOException {
+		return (Individual) read(input, replay, Individual.class);
+	}
+
+	/**
+	 * Reads a reference to a transport task.
+	 */
+	private static CommandedTransportTask readTransportTask(
+			DataInputStream input, SessionReplay replay) throws IOException {
+		return (CommandedTransportTask) read(input, replay,
+				CommandedTransportTask.class);
+	}
+
+	/**
+	 * Reads a reference and retrieves the object, which must be of the given
+	 * class.
+	 */
+	private static Object read(DataInputStream input, SessionReplay replay,
+			Class objectClass) throws IOException {
+		Object object = replay.getObject(input.readInt());
+		if (object != null && !objectClass.isInstance(object)) {
+			throw new IOException("A command refers to a " +
+					object.getClass().getName() + " instead of a " +
+					objectClass.getName());
+		}
+		return object;
+	}
+
+}
@@ -1,4 +1,8 @@
-/* 2003-04-30 Martin
+/* 2026-10-18 agent
+ *	Moved the correction of the angle to normalizeDirection(), so that
+ *	Velocity can use it without creating a Vector.
+ *
+ * 2003-04-30 Martin
  * Added a correction in the constructor that assures that the angle is in the
  * correct interval.
  *
@@ -44,15 +48,25 @@ public class Vector implements Serializable{
 	 * @param magnitude the magnitude of the vector.
 	 */
 	public Vector(float direction, float magnitude) {
-		// Corrects the angle to the interval 0 to 2 pi
+		this.direction = normalizeDirection(direction);
+		this.magnitude = magnitude;
+	}
+
+	/**
+	 * Corrects an angle to the interval 0 to 2 pi, the same way as the
+	 * direction of a new Vector is corrected.
+	 *
+	 * @param direction the angle.
+	 * @return the corrected angle.
+	 */
+	public static float normalizeDirection(float direction) {
 		if(direction > 2 * Math.PI) {
 			direction = (float)(direction - 2 * Math.PI);
 		}
 		else if (direction < 0) {
 			direction = (float)(2 * Math.PI + direction);
 		}
-		this.direction = direction;
-		this.magnitude = magnitude;
+		return direction;
 	}
 
 	/**
@@ -1,4 +1,88 @@
-/* 2003-05-19 Martin
+/* 2026-10-18 agent
+ *	The packed tiles of the map and the columns of the IndividualStore are
+ *	written in regions of the save file, see addRegions(), and the map of a
+ *	loaded world reads its tiles from the region.
+ *
+ * 2026-10-18 agent
+ *	The map is saved as the packed tiles of the MapImage, which it is also
+ *	restored from, instead of as an int for each tile.
+ *
+ * 2026-10-18 agent
+ *	loadWorld() keeps the current world if the channel doesn't hold a
+ *	saved world.
+ *
+ * 2026-10-18 agent
+ *	reset() and deserializeWorld() shut down the update threads of the
+ *	world that is thrown away, see dispose().
+ *
+ * 2026-10-18 agent
+ *	Counts the individuals while it prepares the update buffers, see
+ *	getUpdatedIndividualCount(). Added setLoggingEvents(), which headless
+ *	runs use to silence the births and deaths.
+ *
+ * 2026-10-18 agent
+ *	The map is restored directly into a MapImage, without an int[][] of
+ *	the tiles.
+ *
+ * 2026-10-18 agent
+ *	Can be given a SessionRecorder, which is told about the executed
+ *	commands and the ticks. Added getChecksum().
+ *
+ * 2026-10-18 agent
+ *	Keeps the record of the map, so that it is the same object each time
+ *	the world is saved.
+ *
+ * 2026-10-18 agent
+ *	Can be saved in the binary save format with saveWorld() and restored
+ *	with loadWorld(), see WorldWriter. The map is saved as a record of its
+ *	own before all other objects, so that the bounds are set when they are
+ *	restored.
+ *
+ * 2026-10-18 agent
+ *	tick() measures each of its phases directly. The need checks of the
+ *	individuals are timed in their buffers and added up, and the deferred
+ *	commits are a phase of their own.
+ *
+ * 2026-10-18 agent
+ *	tick() records the times of its phases in the FrameProfiler.
+ *
+ * 2026-10-18 agent
+ *	Added WorldListeners, which are told when objects are registered and
+ *	unregistered.
+ *
+ * 2026-10-18 agent
+ *	Added the IndividualStore, which holds the state of all individuals and
+ *	recalculates it in one pass at the start of each tick.
+ *
+ * 2026-10-18 agent
+ *	The individuals are updated in parallel by a ForkJoinPool. Changes of
+ *	shared objects are deferred with defer() while the individuals are
+ *	updated, and are committed afterwards in the order of allObjects, so a
+ *	tick gives the same result with any number of threads.
+ *
+ * 2026-10-18 agent
+ *	Added the RandomSource of the world, which is used instead of
+ *	Math.random() everywhere in the simulation. populate() uses it as well.
+ *
+ * 2026-10-18 agent
+ *	Added populate(), which sets the number of individuals in the world.
+ *
+ * 2026-10-18 agent
+ *	Added the command queue, which is executed at the start of each tick, and
+ *	the SnapshotBuffer used to hand over the state of the objects to the
+ *	drawing thread.
+ *
+ * 2026-10-18 agent
+ *	Replaced the variable time step with a fixed time step. update() now
+ *	measures the time with System.nanoTime() and runs as many ticks of
+ *	tick() as the elapsed time allows, and getInterpolation() tells how far
+ *	into the next tick the real time is.
+ *
+ * 2026-10-18 agent
+ *	Relocates the objects in the spatial index of allObjects after they have
+ *	been updated.
+ *
+ * 2003-05-19 Martin
  *	Added a field for storing the MapImage, as well as correcting the method
  *	loadObjects to initialize().
  *
@@ -55,7 +139,12 @@ import gameengine.gameobjects.*;
 import gameengine.gameobjects.SourceNode;
 import graphicsengine.MapImage;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import gameengine.tasksystem.*;
 
 /**
@@ -65,7 +154,118 @@ import gameengine.tasksystem.*;
  * graphics engine. The world has also got a constant reference to the
  * Environment object, which holds all evonrment values in the game.
  */
-public class World implements Serializable{
+public class World implements Serializable, Saveable {
+
+	/**
+	 * The names of the fields of the world's record, which are followed by
+	 * the fields of the lists, see getListFieldNames().
+	 */
+	private static final String[] FIELD_NAMES = {"map", "tickLength",
+			"maxCatchUpTicks", "tickCount", "worldTime", "accumulatedTime",
+			"random", "updateThreads", "lightPillar"};
+
+	/**
+	 * The kinds of the fields in FIELD_NAMES.
+	 */
+	private static final int[] FIELD_KINDS = {RecordType.REFERENCE,
+			RecordType.LONG, RecordType.INT, RecordType.LONG, RecordType.FLOAT,
+			RecordType.LONG, RecordType.REFERENCE, RecordType.INT,
+			RecordType.REFERENCE};
+
+	/**
+	 * The names of the lists that are saved with the world. Each list is
+	 * saved in seven fields, see SortableList.save().
+	 */
+	private static final String[] LIST_NAMES = {"allObjects", "foodSources",
+			"happinessSources", "socializeGroups"};
+
+	/**
+	 * The suffixes of the names of the fields of a list, and their kinds.
+	 */
+	private static final String[] LIST_FIELD_SUFFIXES = {"", "Added",
+			"Removed", "Indexed", "Grid", "CellOrder", "Cells"};
+	private static final int[] LIST_FIELD_KINDS = {RecordType.REFERENCE_ARRAY,
+			RecordType.REFERENCE_ARRAY, RecordType.REFERENCE_ARRAY,
+			RecordType.REFERENCE_ARRAY, RecordType.BOOLEAN,
+			RecordType.INT_ARRAY, RecordType.INT_ARRAY};
+
+	/**
+	 * The type of the record that the world is saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("World", null,
+			getRecordFieldNames(), getRecordFieldKinds()) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			World world = getWorld();
+			world.restore(record, reader);
+			reader.setWorld(world);
+			return world;
+		}
+	};
+
+	/**
+	 * The type of the record that the map is saved as. The tiles are saved
+	 * packed, as MapImage keeps them, see MapImage.getPackedRows(), either
+	 * in the field tiles or, if that is empty, in the region tilesRegion of
+	 * the file.
+	 */
+	static final RecordType MAP_RECORD_TYPE = new RecordType("Map", null,
+			new String[] {"width", "height", "tiles", "tilesRegion"},
+			new int[] {RecordType.INT, RecordType.INT, RecordType.BYTE_ARRAY,
+					RecordType.INT}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			int width = record.getInt(MAP_WIDTH);
+			int height = record.getInt(MAP_HEIGHT);
+			if (width <= 0 || height <= 0 ||
+					(long) width * height > Integer.MAX_VALUE) {
+				throw new IOException("Invalid map of " + width + "x" + height);
+			}
+			int packedLength = MapImage.getPackedLength(width, height);
+			byte[] tiles = record.getBytes(MAP_TILES);
+			MapImage mapImage;
+			if (tiles.length == 0) {
+				// The map reads the tiles from the region as they are drawn.
+				ByteBuffer region = reader.getRegion(record.getInt(MAP_TILES_REGION));
+				if (region.remaining() != packedLength) {
+					throw new IOException("Invalid map of " + width + "x" + height);
+				}
+				mapImage = new MapImage(width, height, region);
+			} else {
+				if (tiles.length != packedLength) {
+					throw new IOException("Invalid map of " + width + "x" + height);
+				}
+				// The bytes have been read from the file, so the map can keep
+				// them.
+				mapImage = new MapImage(width, height, tiles);
+			}
+			// The bounds must be set before any object is restored.
+			getWorld().mapData = mapImage;
+			environment.setBounds((float) width, (float) height);
+			return new MapRecord(mapImage);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int MAP = RECORD_TYPE.getFieldIndex("map");
+	private static final int TICK_LENGTH = RECORD_TYPE.getFieldIndex("tickLength");
+	private static final int MAX_CATCH_UP_TICKS = RECORD_TYPE.getFieldIndex("maxCatchUpTicks");
+	private static final int TICK_COUNT = RECORD_TYPE.getFieldIndex("tickCount");
+	private static final int WORLD_TIME = RECORD_TYPE.getFieldIndex("worldTime");
+	private static final int ACCUMULATED_TIME = RECORD_TYPE.getFieldIndex("accumulatedTime");
+	private static final int RANDOM = RECORD_TYPE.getFieldIndex("random");
+	private static final int UPDATE_THREADS = RECORD_TYPE.getFieldIndex("updateThreads");
+	private static final int LIGHT_PILLAR = RECORD_TYPE.getFieldIndex("lightPillar");
+	private static final int ALL_OBJECTS = RECORD_TYPE.getFieldIndex("allObjects");
+	private static final int FOOD_SOURCES = RECORD_TYPE.getFieldIndex("foodSources");
+	private static final int HAPPINESS_SOURCES = RECORD_TYPE.getFieldIndex("happinessSources");
+	private static final int SOCIALIZE_GROUPS = RECORD_TYPE.getFieldIndex("socializeGroups");
+	private static final int MAP_WIDTH = MAP_RECORD_TYPE.getFieldIndex("width");
+	private static final int MAP_HEIGHT = MAP_RECORD_TYPE.getFieldIndex("height");
+	private static final int MAP_TILES = MAP_RECORD_TYPE.getFieldIndex("tiles");
+	private static final int MAP_TILES_REGION = MAP_RECORD_TYPE.getFieldIndex("tilesRegion");
 
 	/**
 	 * Represents the world itself.
@@ -77,6 +277,12 @@ public class World implements Serializable{
 	 */
 	private MapImage mapData;
 
+	/**
+	 * The record that the map is saved as, which is kept so that it is the
+	 * same object each time the world is saved, see IncrementalWriter.
+	 */
+	private transient MapRecord mapRecord;
+
 	/**
 	 * A list of all food sources in the world, used to search for destinations
 	 * for indivudals in need of food.
@@ -109,22 +315,49 @@ public class World implements Serializable{
 	private LightPillarNode lightPillarNode;
 
 	/**
-	 * Represents the processor time in milliseconds at the start of the last
-	 * update cycle.
+	 * Represents the processor time in nanoseconds at the last call to
+	 * update().
 	 * Used internally only.
 	 */
 	private long lastProcessorTime;
 
 	/**
-	 * Represents the time in seconds since the start of the last update cycle.
+	 * Represents the time in nanoseconds that has passed but not yet been
+	 * simulated by a tick. Always less than tickLength after an update().
+	 * Used internally only.
+	 */
+	private long accumulatedTime;
+
+	/**
+	 * Represents the length of one tick in nanoseconds.
+	 */
+	private long tickLength;
+
+	/**
+	 * Represents the time in seconds that each update cycle (tick) simulates.
+	 * It is the same as tickLength, but in seconds.
 	 */
 	private float timeSinceCycle;
 
 	/**
-	 * Represents the time in milliseconds since the start of last update cycle.
-	 * Used internally only.
+	 * The maximum number of ticks that update() may run to catch up with the
+	 * real time. If the simulation falls further behind, the rest of the time
+	 * is thrown away, so that a slow computer doesn't fall further and further
+	 * behind.
+	 */
+	private int maxCatchUpTicks;
+
+	/**
+	 * The number of ticks that have been run since the simulation first was
+	 * started.
+	 */
+	private long tickCount;
+
+	/**
+	 * How far into the next tick the real time is, between 0 and 1. Is used
+	 * to interpolate the positions of the objects when they are drawn.
 	 */
-	private long timeSinceCycleLong;
+	private float interpolation;
 
 	/**
 	 * Represents the time since the simulation first was started in
@@ -133,6 +366,84 @@ public class World implements Serializable{
 	 */
 	private float worldTime;
 
+	/**
+	 * The source of all random numbers used by the simulation. Is serialized
+	 * with the world, so that a loaded game continues the same sequence.
+	 */
+	private RandomSource random;
+
+	/**
+	 * The store of the characteristics, positions and velocities of all
+	 * individuals, or null if each individual stores them on its own.
+	 */
+	private IndividualStore individualStore;
+
+	/**
+	 * The number of threads that update the individuals each tick.
+	 */
+	private int updateThreads;
+
+	/**
+	 * The threads that update the individuals, or null if they haven't been
+	 * started or only one thread is used.
+	 */
+	private transient ForkJoinPool updatePool;
+
+	/**
+	 * One buffer for each Updateable object to update in the current tick,
+	 * in the order of allObjects. Only the first updateCount are used, the
+	 * rest are kept to be reused.
+	 */
+	private transient UpdateBuffer[] updateBuffers;
+
+	/**
+	 * The number of Updateable objects to update in the current tick.
+	 */
+	private transient int updateCount;
+
+	/**
+	 * The number of individuals that were updated in the last tick.
+	 */
+	private transient int updatedIndividualCount;
+
+	/**
+	 * True if the events of the game, such as births and deaths, are printed
+	 * to System.out. Is shared by all worlds, so that it is kept when a
+	 * world is reset or loaded.
+	 */
+	private static boolean loggingEvents = true;
+
+	/**
+	 * The buffer of the individual that the current thread is updating, or
+	 * null if the thread isn't updating an individual.
+	 */
+	private static final ThreadLocal currentBuffer = new ThreadLocal();
+
+	/**
+	 * The commands (WorldCommand) that have been queued since the start of
+	 * the last tick. Is used as the lock for the queue.
+	 */
+	private transient List commandQueue;
+
+	/**
+	 * The buffer through which the simulation thread hands over snapshots
+	 * of the objects to the drawing thread.
+	 */
+	private transient SnapshotBuffer snapshotBuffer;
+
+	/**
+	 * Records the executed commands and the checksums of the ticks, or null
+	 * if the session isn't recorded.
+	 */
+	private transient SessionRecorder recorder;
+
+	/**
+	 * The listeners that are told when objects are registered and
+	 * unregistered, or null if there are none. The array is replaced, never
+	 * changed, so it can be read without locking.
+	 */
+	private transient volatile WorldListener[] listeners;
+
 	/**
 	 * An object holding all the world's constants and environmental values.
 	 */
@@ -152,14 +463,61 @@ public class World implements Serializable{
 
 	/**
 	 * Will throw away the current world, to make it posible to start all over
-	 * again.
+	 * again. The update threads of the world are shut down.
 	 */
 	public static void reset() {
+		if (theWorld != null) {
+			theWorld.dispose();
+		}
 		theWorld = null;
 	}
 
 	/**
-	 * Will serialize the world to the specified stream, if it exists.
+	 * Shuts down the threads that update the individuals, if they have been
+	 * started. Is called when the world is thrown away, since the threads
+	 * would otherwise be kept until the program exits. If the world is
+	 * ticked again, new threads are started.
+	 */
+	public void dispose() {
+		if (updatePool != null) {
+			updatePool.shutdown();
+			updatePool = null;
+		}
+	}
+
+	/**
+	 * Saves the world to the specified channel in the binary save format,
+	 * if it exists. The simulation must not run while the world is saved.
+	 * The queued commands and the listeners aren't saved.
+	 *
+	 * @param channel the channel to save to. Isn't closed.
+	 * @exception IOException if the channel couldn't be written.
+	 */
+	public static void saveWorld(WritableByteChannel channel) throws IOException {
+		if (theWorld != null) {
+			new WorldWriter(channel).write(theWorld);
+		}
+	}
+
+	/**
+	 * Restores a world that has been saved with saveWorld(), which becomes
+	 * the world. If the channel doesn't start with the header of a saved
+	 * world, the current world is kept, but if the rest couldn't be
+	 * restored, there is no world afterwards. A FileChannel is mapped into
+	 * memory, and the map of the world then reads its tiles from the file,
+	 * which mustn't be changed while the world exists.
+	 *
+	 * @param channel the channel to restore from. Isn't closed.
+	 * @exception IOException if the channel couldn't be read or didn't
+	 * contain a saved world.
+	 */
+	public static void loadWorld(ReadableByteChannel channel) throws IOException {
+		new WorldReader(channel).read();
+	}
+
+	/**
+	 * Will serialize the world to the specified stream, if it exists. The
+	 * game saves with saveWorld() instead, which is both faster and smaller.
 	 *
 	 * @param oos the stream to serialize to.
 	 */
@@ -189,7 +547,9 @@ public class World implements Serializable{
 		try {
 
 			// Read objects from the input stream
-			theWorld = (World) ois.readObject();
+			world = (World) ois.readObject();
+			reset();
+			theWorld = world;
 
 		} catch (IOException ioe) {
 			throw ioe;
@@ -204,13 +564,26 @@ public class World implements Serializable{
 	 * object.
 	 */
 	private World() {
+		environment = new Environment();
+
 		// Initialize time variables
 		lastProcessorTime = 0;
-		timeSinceCycle = 0f;
-		timeSinceCycleLong = 0;
+		accumulatedTime = 0;
+		tickCount = 0;
+		interpolation = 0f;
 		worldTime = 0f;
+		setTicksPerSecond(environment.getTicksPerSecond());
+		maxCatchUpTicks = environment.getMaxCatchUpTicks();
+		updateThreads = environment.getUpdateThreads();
+		if (environment.isIndividualStoreUsed()) {
+			individualStore = new IndividualStore();
+		}
 
-		environment = new Environment();
+		// Unless a seed is given, every game is different.
+		random = new RandomSource(System.currentTimeMillis() ^ System.nanoTime());
+
+		commandQueue = new ArrayList();
+		snapshotBuffer = new SnapshotBuffer();
 
 		// Initialize object lists
 		allObjects = new GameObjectList();
@@ -220,6 +593,117 @@ public class World implements Serializable{
 
 	}
 
+	/**
+	 * Returns the names of the fields of the world's record: FIELD_NAMES
+	 * followed by the fields of each list in LIST_NAMES.
+	 */
+	private static String[] getRecordFieldNames() {
+		String[] names = new String[FIELD_NAMES.length +
+				LIST_NAMES.length * LIST_FIELD_SUFFIXES.length];
+		System.arraycopy(FIELD_NAMES, 0, names, 0, FIELD_NAMES.length);
+		int field = FIELD_NAMES.length;
+		for (int list = 0; list < LIST_NAMES.length; list++) {
+			for (int i = 0; i < LIST_FIELD_SUFFIXES.length; i++) {
+				names[field++] = LIST_NAMES[list] + LIST_FIELD_SUFFIXES[i];
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Returns the kinds of the fields that getRecordFieldNames() names.
+	 */
+	private static int[] getRecordFieldKinds() {
+		int[] kinds = new int[FIELD_KINDS.length +
+				LIST_NAMES.length * LIST_FIELD_KINDS.length];
+		System.arraycopy(FIELD_KINDS, 0, kinds, 0, FIELD_KINDS.length);
+		int field = FIELD_KINDS.length;
+		for (int list = 0; list < LIST_NAMES.length; list++) {
+			System.arraycopy(LIST_FIELD_KINDS, 0, kinds, field,
+					LIST_FIELD_KINDS.length);
+			field += LIST_FIELD_KINDS.length;
+		}
+		return kinds;
+	}
+
+	/**
+	 * Restores the fields of the world from its record. The map has already
+	 * been restored by the record that the map field references.
+	 */
+	private void restore(SaveRecord record, WorldReader reader)
+			throws IOException {
+		if (!(reader.getObject(record, MAP) instanceof MapRecord)) {
+			throw new IOException("The map of the saved world is missing");
+		}
+		mapRecord = (MapRecord) reader.getObject(record, MAP);
+		tickLength = record.getLong(TICK_LENGTH);
+		if (tickLength <= 0) {
+			throw new IOException("Invalid tick length " + tickLength);
+		}
+		timeSinceCycle = tickLength / 1000000000f;
+		maxCatchUpTicks = record.getInt(MAX_CATCH_UP_TICKS);
+		tickCount = record.getLong(TICK_COUNT);
+		worldTime = record.getFloat(WORLD_TIME);
+		accumulatedTime = record.getLong(ACCUMULATED_TIME);
+		random = (RandomSource) reader.getObject(record, RANDOM);
+		if (random == null) {
+			throw new IOException("The random source of the saved world is missing");
+		}
+		setUpdateThreads(Math.max(1, record.getInt(UPDATE_THREADS)));
+		lightPillarNode = (LightPillarNode) reader.getObject(record, LIGHT_PILLAR);
+		allObjects.restore(record, ALL_OBJECTS, reader);
+		foodSources.restore(record, FOOD_SOURCES, reader);
+		happinessSources.restore(record, HAPPINESS_SOURCES, reader);
+		socializeGroups.restore(record, SOCIALIZE_GROUPS, reader);
+		if (individualStore != null) {
+			individualStore.endRestore();
+		}
+	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	/**
+	 * Gives the writer the regions of the file that the bulk of the world is
+	 * written in, see WorldWriter.addRegion(): the packed tiles of the map
+	 * and the columns of the IndividualStore, which the records of the map
+	 * and of the characteristics then refer to.
+	 *
+	 * @param writer the writer that saves the world.
+	 */
+	void addRegions(WorldWriter writer) {
+		if (mapData != null) {
+			writer.addRegion(mapData, mapData.getPackedTiles());
+		}
+		if (individualStore != null) {
+			writer.addRegion(individualStore, individualStore.getColumns());
+		}
+	}
+
+	/**
+	 * Saves the map first, then the world's own fields and the objects of
+	 * its lists.
+	 */
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		if (mapRecord == null || mapRecord.mapImage != mapData) {
+			mapRecord = new MapRecord(mapData);
+		}
+		record.setReference(MAP, writer.reference(mapRecord));
+		record.setLong(TICK_LENGTH, tickLength);
+		record.setInt(MAX_CATCH_UP_TICKS, maxCatchUpTicks);
+		record.setLong(TICK_COUNT, tickCount);
+		record.setFloat(WORLD_TIME, worldTime);
+		record.setLong(ACCUMULATED_TIME, accumulatedTime);
+		record.setReference(RANDOM, writer.reference(random));
+		record.setInt(UPDATE_THREADS, updateThreads);
+		record.setReference(LIGHT_PILLAR, writer.reference(lightPillarNode));
+		allObjects.save(record, ALL_OBJECTS, writer);
+		foodSources.save(record, FOOD_SOURCES, writer);
+		happinessSources.save(record, HAPPINESS_SOURCES, writer);
+		socializeGroups.save(record, SOCIALIZE_GROUPS, writer);
+	}
+
 	/**
 	 * Returns the Environment object containing all constants.
 	 *
@@ -275,16 +759,363 @@ public class World implements Serializable{
 	}
 
 	/**
-	 * Returns a float representing the world time in seconds since the last
-	 * update cycle (last time update() was called in World).
+	 * Returns a float representing the world time in seconds that each update
+	 * cycle (tick) simulates. Since the simulation uses a fixed time step,
+	 * this is the same every cycle until the tick rate is changed.
 	 *
-	 * @return a float representing the world time in seconds since the last
-	 * update cycle.
+	 * @return a float representing the world time in seconds of one update
+	 * cycle.
 	 */
 	public float getTimeSinceCycle() {
 		return timeSinceCycle;
 	}
 
+	/**
+	 * Sets the number of ticks (update cycles) that should be simulated per
+	 * second of real time.
+	 *
+	 * @param ticksPerSecond the number of ticks per second. Must be greater
+	 * than zero.
+	 */
+	public void setTicksPerSecond(float ticksPerSecond) {
+		if (ticksPerSecond <= 0f) {
+			throw new IllegalArgumentException("ticksPerSecond must be greater than zero");
+		}
+		tickLength = (long) (1000000000.0 / ticksPerSecond);
+		timeSinceCycle = tickLength / 1000000000f;
+	}
+
+	/**
+	 * Returns the number of ticks that have been simulated since the
+	 * simulation first was started.
+	 *
+	 * @return the number of ticks since the simulation first was started.
+	 */
+	public long getTickCount() {
+		return tickCount;
+	}
+
+	/**
+	 * Returns how far into the next tick the real time was at the last call
+	 * to update(), between 0 (inclusive) and 1 (exclusive). When drawing,
+	 * the objects should be drawn this far between their positions of the
+	 * last two ticks.
+	 *
+	 * @return a float between 0 and 1 telling how far into the next tick the
+	 * real time is.
+	 */
+	public float getInterpolation() {
+		return interpolation;
+	}
+
+	/**
+	 * Returns the time in nanoseconds from the last call to update() until
+	 * the next tick is due.
+	 *
+	 * @return the time in nanoseconds until the next tick is due.
+	 */
+	public long getTimeUntilNextTick() {
+		return tickLength - accumulatedTime;
+	}
+
+	/**
+	 * Returns the source of random numbers of the simulation. While an
+	 * individual is being updated, the individual's own RandomSource is
+	 * returned instead, so that the numbers it gets don't depend on the
+	 * order in which the threads update the individuals. Other threads
+	 * should use their own RandomSource split from this one.
+	 *
+	 * @return the RandomSource of the world, or of the individual being
+	 * updated.
+	 */
+	public RandomSource getRandom() {
+		UpdateBuffer buffer = (UpdateBuffer) currentBuffer.get();
+		if (buffer != null) {
+			return buffer.getRandom();
+		}
+		return random;
+	}
+
+	/**
+	 * Restarts the random numbers of the simulation from the given seed. A
+	 * world that is initialized and run with the same seed and the same
+	 * commands always runs the same way.
+	 *
+	 * @param seed the seed of the random numbers.
+	 */
+	public void setSeed(long seed) {
+		random = new RandomSource(seed);
+	}
+
+	/**
+	 * Returns the store of the characteristics, positions and velocities of
+	 * all individuals.
+	 *
+	 * @return the IndividualStore, or null if each individual stores them on
+	 * its own.
+	 */
+	public IndividualStore getIndividualStore() {
+		return individualStore;
+	}
+
+	/**
+	 * Sets the store of the characteristics, positions and velocities of
+	 * new individuals. Must be called before any individual is created.
+	 *
+	 * @param individualStore the IndividualStore, or null to let each
+	 * individual store them on its own.
+	 */
+	public void setIndividualStore(IndividualStore individualStore) {
+		if (this.individualStore != null && this.individualStore.getCount() > 0) {
+			throw new IllegalStateException("The individual store is already in use");
+		}
+		this.individualStore = individualStore;
+	}
+
+	/**
+	 * Returns the number of threads that update the individuals each tick.
+	 *
+	 * @return the number of threads.
+	 */
+	public int getUpdateThreads() {
+		return updateThreads;
+	}
+
+	/**
+	 * Sets the number of threads that update the individuals each tick. The
+	 * result of a tick is the same whatever the number, it only changes how
+	 * fast the tick is. Must not be called during a tick.
+	 *
+	 * @param updateThreads the number of threads. Must be greater than zero.
+	 */
+	public void setUpdateThreads(int updateThreads) {
+		if (updateThreads <= 0) {
+			throw new IllegalArgumentException("updateThreads must be greater than zero");
+		}
+		if (updatePool != null && updatePool.getParallelism() != updateThreads) {
+			updatePool.shutdown();
+			updatePool = null;
+		}
+		this.updateThreads = updateThreads;
+	}
+
+	/**
+	 * Executes a command that changes objects shared between individuals,
+	 * such as the lists of the world, the socialize groups and the source
+	 * nodes. If it is called while an individual is being updated, the
+	 * command is deferred until all individuals have been updated, and is
+	 * then executed by the simulation thread in the order of allObjects.
+	 * Otherwise the command is executed at once.
+	 *
+	 * @param command the command to execute.
+	 */
+	public void defer(WorldCommand command) {
+		UpdateBuffer buffer = (UpdateBuffer) currentBuffer.get();
+		if (buffer != null) {
+			buffer.defer(command);
+		} else {
+			command.execute();
+		}
+	}
+
+	/**
+	 * Adds the time that an individual has spent on checking its needs to the
+	 * buffer of the individual, for the FrameProfiler. Is called by
+	 * Individual.update().
+	 *
+	 * @param startTime what FrameProfiler.start() returned when the check
+	 * started.
+	 */
+	public void needCheckDone(long startTime) {
+		long time = FrameProfiler.getProfiler().elapsed(startTime);
+		if (time > 0) {
+			UpdateBuffer buffer = (UpdateBuffer) currentBuffer.get();
+			if (buffer != null) {
+				buffer.addNeedCheckTime(time);
+			}
+		}
+	}
+
+	/**
+	 * Tells if the current thread is updating an individual, in which case
+	 * changes of shared objects must be made with defer().
+	 *
+	 * @return true if the current thread is updating an individual.
+	 */
+	public boolean isDeferring() {
+		return currentBuffer.get() != null;
+	}
+
+	/**
+	 * Sets if the events of the game, such as births and deaths, are printed
+	 * to System.out. Headless runs and benchmarks turn them off.
+	 *
+	 * @param loggingEvents true if the events are printed.
+	 */
+	public static void setLoggingEvents(boolean loggingEvents) {
+		World.loggingEvents = loggingEvents;
+	}
+
+	/**
+	 * Tells if the events of the game are printed to System.out.
+	 *
+	 * @return true if the events are printed.
+	 */
+	public static boolean isLoggingEvents() {
+		return loggingEvents;
+	}
+
+	/**
+	 * Returns the number of individuals that were updated in the last tick.
+	 * It is counted by the tick, so it costs nothing to read.
+	 *
+	 * @return the number of updated individuals.
+	 */
+	public int getUpdatedIndividualCount() {
+		return updatedIndividualCount;
+	}
+
+	/**
+	 * Returns the buffer through which snapshots of the objects are handed
+	 * over to the drawing thread.
+	 *
+	 * @return the SnapshotBuffer of the world.
+	 */
+	public synchronized SnapshotBuffer getSnapshotBuffer() {
+		// The buffer isn't serialized, so it's created here after a load.
+		if (snapshotBuffer == null) {
+			snapshotBuffer = new SnapshotBuffer();
+		}
+		return snapshotBuffer;
+	}
+
+	/**
+	 * Adds a listener that is told when objects are registered and
+	 * unregistered. The listeners aren't serialized with the world.
+	 *
+	 * @param listener the listener to add.
+	 */
+	public synchronized void addWorldListener(WorldListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("listener cannot be null");
+		}
+		int count = (listeners == null) ? 0 : listeners.length;
+		WorldListener[] newListeners = new WorldListener[count + 1];
+		if (count > 0) {
+			System.arraycopy(listeners, 0, newListeners, 0, count);
+		}
+		newListeners[count] = listener;
+		listeners = newListeners;
+	}
+
+	/**
+	 * Removes a listener added with addWorldListener().
+	 *
+	 * @param listener the listener to remove.
+	 */
+	public synchronized void removeWorldListener(WorldListener listener) {
+		if (listeners == null) {
+			return;
+		}
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] == listener) {
+				if (listeners.length == 1) {
+					listeners = null;
+				} else {
+					WorldListener[] newListeners =
+							new WorldListener[listeners.length - 1];
+					System.arraycopy(listeners, 0, newListeners, 0, i);
+					System.arraycopy(listeners, i + 1, newListeners, i,
+							listeners.length - i - 1);
+					listeners = newListeners;
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Queues a command that changes the world. The command is executed by
+	 * the simulation thread at the start of the next tick. Can be called
+	 * from any thread.
+	 *
+	 * @param command the command to queue.
+	 */
+	public void queueCommand(WorldCommand command) {
+		if (command == null) {
+			throw new IllegalArgumentException("command cannot be null");
+		}
+		synchronized (this) {
+			// The queue isn't serialized, so it's created here after a load.
+			if (commandQueue == null) {
+				commandQueue = new ArrayList();
+			}
+			commandQueue.add(command);
+		}
+	}
+
+	/**
+	 * Sets the recorder that records the commands that are executed and the
+	 * checksums of the ticks. Must not be called while the world is being
+	 * simulated.
+	 *
+	 * @param recorder the recorder, or null to stop recording.
+	 */
+	public void setRecorder(SessionRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Returns a checksum of the names and positions of the individuals, in
+	 * the order of the list of all objects. Two runs of the same world with
+	 * the same commands have the same checksum after each tick.
+	 *
+	 * @return the checksum.
+	 */
+	public long getChecksum() {
+		long checksum = 0;
+		Iterator it = allObjects.iterator();
+		while (it.hasNext()) {
+			Object gameObject = it.next();
+			if (gameObject instanceof Individual) {
+				Individual individual = (Individual) gameObject;
+				checksum = checksum * 31 + individual.getName().hashCode();
+				checksum = checksum * 31 + Float.floatToIntBits(individual.getPoint().getX());
+				checksum = checksum * 31 + Float.floatToIntBits(individual.getPoint().getY());
+			}
+		}
+		return checksum;
+	}
+
+	/**
+	 * Executes and removes all queued commands, in the order they were
+	 * queued. The recorder, if any, records each command before it is
+	 * executed.
+	 *
+	 * allObjects is updated first, so that the commands see the same objects
+	 * whether or not another thread has iterated over it, and thereby updated
+	 * it, since the last tick. A replayed command finds its objects the same
+	 * way, see SessionReplay.
+	 */
+	private void executeCommands() {
+		List commands;
+		synchronized (this) {
+			if (commandQueue == null || commandQueue.isEmpty()) {
+				return;
+			}
+			commands = commandQueue;
+			commandQueue = new ArrayList();
+		}
+		allObjects.update();
+		for (int i = 0; i < commands.size(); i++) {
+			WorldCommand command = (WorldCommand) commands.get(i);
+			if (recorder != null) {
+				recorder.record(tickCount, command);
+			}
+			command.execute();
+		}
+	}
+
 	/**
 	 * Returns a float representing the world time in seconds, i.e. the
 	 * time since the simulation first started.
@@ -306,75 +1137,279 @@ public class World implements Serializable{
 
 
 	/**
-	 * The main method for updating the whole simulation. Calculates the
-	 * timeSinceCycle = currentTimeMillis() - lastProcessorTime and then worldTime +=
-	 * timeSinceCycle. The timeSinceCycle is then used by several functions in
-	 * the game for calculating values based on time, such as speed.
+	 * The main method for updating the whole simulation. Adds the real time
+	 * since the last call, measured with System.nanoTime(), to the time that
+	 * hasn't been simulated yet, and then runs tick() once for every whole
+	 * tick length of that time, but at most getMaxCatchUpTicks() times. The
+	 * remainder is kept until the next call and is used to calculate
+	 * getInterpolation(). This means that the simulation runs at the same rate
+	 * however often update() is called.
 	 */
 	public void update() {
-		// Update time
-
 		// Saves current processor time in local variable
-		long currentProcessorTime = System.currentTimeMillis();
-		// Calculates  the timeSinceCycleLong in long format (for performance)
-		timeSinceCycleLong = currentProcessorTime - lastProcessorTime;
+		long currentProcessorTime = System.nanoTime();
+		accumulatedTime += currentProcessorTime - lastProcessorTime;
 		// Sets the current processor time to the last processor time
 		// for the next cycle
 		lastProcessorTime = currentProcessorTime;
-		// Converts the timeSinceCycle into float and seconds for performance
-		timeSinceCycle = (float)(timeSinceCycleLong / 1000f);
+
+		int ticks = 0;
+		while (accumulatedTime >= tickLength && ticks < maxCatchUpTicks) {
+			tick();
+			accumulatedTime -= tickLength;
+			ticks++;
+		}
+
+		// If we couldn't catch up, throw away the time that is left so that
+		// we don't fall further behind.
+		if (accumulatedTime >= tickLength) {
+			accumulatedTime %= tickLength;
+		}
+		interpolation = accumulatedTime / (float) tickLength;
+	}
+
+	/**
+	 * Simulates one tick, i.e. getTimeSinceCycle() seconds of world time.
+	 * Increases the world clock, executes the queued commands and calls
+	 * update() on all Updateable objects. Is called by update(), but can also
+	 * be called directly to run the simulation without regard to the real
+	 * time.
+	 *
+	 * The tick has two phases. First all individuals are updated, in
+	 * parallel if there are more than one update thread, while the changes
+	 * they make to shared objects are deferred (see defer()). Then the
+	 * deferred changes are committed, and the other Updateable objects
+	 * updated, in the order of allObjects.
+	 *
+	 * While the FrameProfiler is enabled, each part of the tick is recorded
+	 * as a phase. The time of each individual's update, and of its need
+	 * check, is kept in its buffer by the thread that updates it, and the
+	 * times are added up afterwards, so with several update threads the need
+	 * check and the task execution are the time of all threads together.
+	 */
+	public void tick() {
+		FrameProfiler profiler = FrameProfiler.getProfiler();
+		boolean profiling = profiler.isEnabled();
+		long tickStart = profiling ? System.nanoTime() : 0;
+
 		// Increases the world clock with the timeSinceCycle.
 		worldTime += timeSinceCycle;
+		tickCount++;
+
+		executeCommands();
 
 		foodSources.update();
 		happinessSources.update();
 		socializeGroups.update();
 		allObjects.update();
 
-		GameObject gameObject;
+		// The spatial indexes build their grids when they are first used,
+		// which mustn't happen while the individuals are updated in
+		// parallel.
+		foodSources.relocate();
+		happinessSources.relocate();
+		socializeGroups.relocate();
+		long listTime = profiling ? System.nanoTime() - tickStart : 0;
+
+		// Decreases the needs and recalculates the safety and health of all
+		// individuals at once, instead of in each Individual.update().
+		long needCheckStart = profiler.start();
+		if (individualStore != null) {
+			individualStore.recalculate();
+		}
+		long needCheckTime = profiler.elapsed(needCheckStart);
+
+		long prepareStart = profiler.start();
+		prepareUpdateBuffers();
+		listTime += profiler.elapsed(prepareStart);
+		if (updateThreads > 1 &&
+				updateCount > environment.getUpdateChunkSize()) {
+			getUpdatePool().invoke(new UpdateAction(0, updateCount));
+		} else {
+			updateIndividuals(0, updateCount);
+		}
+		long taskTime = 0;
+		if (profiling) {
+			for (int i = 0; i < updateCount; i++) {
+				UpdateBuffer buffer = updateBuffers[i];
+				needCheckTime += buffer.getNeedCheckTime();
+				taskTime += buffer.getUpdateTime() - buffer.getNeedCheckTime();
+			}
+		}
+
+		long commitStart = profiler.start();
+		for (int i = 0; i < updateCount; i++) {
+			updateBuffers[i].commit();
+		}
+		long commitTime = profiler.elapsed(commitStart);
+
+		// The individuals have moved, so their cells in the spatial index
+		// must be updated.
+		long relocateStart = profiler.start();
+		allObjects.relocate();
+		listTime += profiler.elapsed(relocateStart);
+
+		if (profiling) {
+			profiler.record(FrameProfiler.LIST_MAINTENANCE, listTime);
+			profiler.record(FrameProfiler.NEED_CHECK, needCheckTime);
+			profiler.record(FrameProfiler.TASK_EXECUTION, taskTime);
+			profiler.record(FrameProfiler.DEFERRED_COMMIT, commitTime);
+			profiler.record(FrameProfiler.WORLD_UPDATE,
+					System.nanoTime() - tickStart);
+		}
+		if (recorder != null) {
+			recorder.tickEnded(this);
+		}
+	}
+
+	/**
+	 * Gives each Updateable object in allObjects a buffer, in the order of
+	 * the list, and sets updateCount to the number of objects and
+	 * updatedIndividualCount to the number of individuals among them.
+	 */
+	private void prepareUpdateBuffers() {
+		if (updateBuffers == null) {
+			updateBuffers = new UpdateBuffer[0];
+		}
+		updateCount = 0;
+		updatedIndividualCount = 0;
 		Iterator it = allObjects.iterator();
+		while (it.hasNext()) {
+			Object gameObject = it.next();
+			if (gameObject instanceof Updateable) {
+				if (updateCount == updateBuffers.length) {
+					// Grows the array and creates the new buffers, which are
+					// then reused every tick.
+					UpdateBuffer[] newBuffers =
+							new UpdateBuffer[Math.max(16, updateCount * 2)];
+					System.arraycopy(updateBuffers, 0, newBuffers, 0, updateCount);
+					for (int i = updateCount; i < newBuffers.length; i++) {
+						newBuffers[i] = new UpdateBuffer();
+					}
+					updateBuffers = newBuffers;
+				}
+				updateBuffers[updateCount++].reset((Updateable) gameObject);
+				if (gameObject instanceof Individual) {
+					updatedIndividualCount++;
+				}
+			}
+		}
+	}
 
-		try {
-			// Order all Updateable objects to update().
-			while (it.hasNext()) {
-				gameObject = (GameObject) it.next();
-				if (gameObject instanceof Updateable) {
-					((Updateable) gameObject).update();
+	/**
+	 * Updates the individuals with buffers from the first index (inclusive)
+	 * to the last index (exclusive). The buffer of each individual is the
+	 * current buffer of the thread while the individual is updated, and
+	 * gets the time of the update while the FrameProfiler is enabled.
+	 *
+	 * @param from the first index.
+	 * @param to the last index.
+	 */
+	private void updateIndividuals(int from, int to) {
+		FrameProfiler profiler = FrameProfiler.getProfiler();
+		for (int i = from; i < to; i++) {
+			UpdateBuffer buffer = updateBuffers[i];
+			Individual individual = buffer.getIndividual();
+			if (individual != null) {
+				long updateStart = profiler.start();
+				currentBuffer.set(buffer);
+				try {
+					individual.update();
+				} finally {
+					currentBuffer.set(null);
 				}
+				buffer.setUpdateTime(profiler.elapsed(updateStart));
+			}
+		}
+	}
+
+	/**
+	 * Returns the threads that update the individuals, which are started the
+	 * first time they are needed.
+	 *
+	 * @return the ForkJoinPool of the update threads.
+	 */
+	private ForkJoinPool getUpdatePool() {
+		if (updatePool == null) {
+			updatePool = new ForkJoinPool(updateThreads);
+		}
+		return updatePool;
+	}
+
+	/**
+	 * Updates a range of the individuals, by splitting it in halves until
+	 * the ranges are no larger than the update chunk size of the Environment.
+	 */
+	private class UpdateAction extends RecursiveAction {
+
+		/**
+		 * The first index of the range (inclusive).
+		 */
+		private int from;
+
+		/**
+		 * The last index of the range (exclusive).
+		 */
+		private int to;
+
+		/**
+		 * Constructs an action that updates the given range.
+		 *
+		 * @param from the first index.
+		 * @param to the last index.
+		 */
+		UpdateAction(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (to - from <= environment.getUpdateChunkSize()) {
+				updateIndividuals(from, to);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new UpdateAction(from, middle),
+						new UpdateAction(middle, to));
 			}
-		} catch(java.util.ConcurrentModificationException e) {
-			System.out.println(
-					"Modification of allObjects during iteration in update."
-					+ " Skipping the rest of the update cycle.");
 		}
+
 	}
 
 	/**
-	 * Starts the simulated time by setting the lastProcessorTime = currentTimeMillis()
-	 * - timeSinceCycleLong.
+	 * Starts the simulated time by setting the lastProcessorTime = nanoTime(),
+	 * so that the time when the simulation was stopped isn't simulated.
 	 */
 	public void startSimulation() {
-		// Recreates/simulates the lastProcessorTime by substracting the length of the
-		// last cycle from the current processor time.
-		lastProcessorTime = System.currentTimeMillis() - timeSinceCycleLong;
+		lastProcessorTime = System.nanoTime();
 	}
 
 	/**
-	 * Stops the simulation by calculating the timeSinceCycle = currentTimeMillis() -
-	 * lastProcessorTime.
+	 * Stops the simulation. The time that has passed since the last update()
+	 * but not yet been simulated is kept, and will be simulated after the
+	 * simulation has been started again.
 	 */
 	public void stopSimulation() {
-		// Saves the length of the last cycle for use when the simulation starts again
-		timeSinceCycleLong = System.currentTimeMillis() - lastProcessorTime;
+		long currentProcessorTime = System.nanoTime();
+		accumulatedTime += currentProcessorTime - lastProcessorTime;
+		lastProcessorTime = currentProcessorTime;
 	}
 
 	/**
 	 * Registers the specified GameObject to the correct list(s), according to it's
-	 * type.
+	 * type. Is deferred if it is called while an individual is updated. The
+	 * WorldListeners are told once the object has been registered.
 	 *
 	 * @param gameObject the GameObject to register.
 	 */
-	public void register(GameObject gameObject) {
+	public void register(final GameObject gameObject) {
+		if (isDeferring()) {
+			defer(new WorldCommand() {
+				public void execute() {
+					register(gameObject);
+				}
+			});
+			return;
+		}
 		// If it's an Individual, register it at allObjects
 		if(gameObject instanceof Individual) {
 			allObjects.register(gameObject);
@@ -407,15 +1442,30 @@ public class World implements Serializable{
 			socializeGroups.register((SocializeGroup)gameObject);
 		}
 
+		WorldListener[] tmpListeners = listeners;
+		if (tmpListeners != null) {
+			for (int i = 0; i < tmpListeners.length; i++) {
+				tmpListeners[i].objectRegistered(gameObject);
+			}
+		}
 	}
 
 	/**
 	 * Unregisters the specified GameObject from the correct list(s), according to it's
-	 * type.
+	 * type. Is deferred if it is called while an individual is updated. The
+	 * WorldListeners are told once the object has been unregistered.
 	 *
 	 * @param gameObject the GameObject to unregister.
 	 */
-	public void unRegister(GameObject gameObject) {
+	public void unRegister(final GameObject gameObject) {
+		if (isDeferring()) {
+			defer(new WorldCommand() {
+				public void execute() {
+					unRegister(gameObject);
+				}
+			});
+			return;
+		}
 		// If it's an Individual, unregister it from allObjects
 		if(gameObject instanceof Individual) {
 			allObjects.unRegister(gameObject);
@@ -441,6 +1491,13 @@ public class World implements Serializable{
 		else if(gameObject instanceof SocializeGroup) {
 			socializeGroups.unRegister((SocializeGroup)gameObject);
 		}
+
+		WorldListener[] tmpListeners = listeners;
+		if (tmpListeners != null) {
+			for (int i = 0; i < tmpListeners.length; i++) {
+				tmpListeners[i].objectUnregistered(gameObject);
+			}
+		}
 	}
 
 	/**
@@ -482,4 +1539,88 @@ public class World implements Serializable{
 		new SourceNode(new Point(18.0f, 11f), Environment.SACRIFICE, 100);
 	}
 
+	/**
+	 * Removes or adds individuals until there are the given number of
+	 * individuals in the world. New individuals are placed at random within
+	 * the bounds of the environment with the world's RandomSource, with every
+	 * other one female. The changes are applied to the lists at once, so they
+	 * can be seen before the next tick. Must be called after initialize().
+	 *
+	 * @param population the number of individuals. Cannot be negative.
+	 */
+	public void populate(int population) {
+		if (population < 0) {
+			throw new IllegalArgumentException("population cannot be negative");
+		}
+		allObjects.update();
+
+		int count = 0;
+		Iterator it = allObjects.iterator();
+		while (it.hasNext()) {
+			GameObject gameObject = (GameObject) it.next();
+			if (gameObject instanceof Individual) {
+				if (count < population) {
+					count++;
+				} else {
+					gameObject.delete();
+				}
+			}
+		}
+
+		float minX = environment.getMinCoordinate().getX();
+		float minY = environment.getMinCoordinate().getY();
+		float xSpan = environment.getMaxCoordinate().getX() - minX;
+		float ySpan = environment.getMaxCoordinate().getY() - minY;
+		for (; count < population; count++) {
+			new Individual(new Point(
+					minX + random.nextFloat() * xSpan,
+					minY + random.nextFloat() * ySpan),
+					count % 2);
+		}
+		allObjects.update();
+	}
+
+	/**
+	 * The map of a world as a record of the save format, see
+	 * MAP_RECORD_TYPE.
+	 */
+	private static class MapRecord implements Saveable {
+
+		/**
+		 * The map.
+		 */
+		private MapImage mapImage;
+
+		/**
+		 * Creates the record of a map.
+		 *
+		 * @param mapImage the map.
+		 */
+		MapRecord(MapImage mapImage) {
+			this.mapImage = mapImage;
+		}
+
+		public RecordType getRecordType() {
+			return MAP_RECORD_TYPE;
+		}
+
+		/**
+		 * Saves the map with the packed tiles of the MapImage itself, which
+		 * don't change once the map has been loaded, so that saving the map
+		 * takes no more memory than the map. If the writer writes them in a
+		 * region of the file, only the index of the region is saved.
+		 */
+		public void save(SaveRecord record, WorldWriter writer) {
+			record.setInt(MAP_WIDTH, mapImage.getWidth());
+			record.setInt(MAP_HEIGHT, mapImage.getHeight());
+			int region = writer.getRegion(mapImage);
+			if (region >= 0) {
+				record.setInt(MAP_TILES_REGION, region);
+			} else {
+				record.setBytes(MAP_TILES, mapImage.getPackedRows());
+			}
+		}
+
+	}
+
 }
@@ -0,0 +1,25 @@
+/* 2026-10-18 agent
+ *	Is also used for the changes deferred with World.defer().
+ *
+ * 2026-10-18 agent
+ *	Created the interface.
+ */
+package gameengine;
+
+/**
+ * A change of the world that is ordered from outside the simulation thread,
+ * for example by the user. The command is queued with
+ * World.queueCommand() and executed by the simulation thread at the start
+ * of the next tick, so that the game objects are never changed while they
+ * are being updated. Changes of shared objects made while the individuals are
+ * updated in parallel are also commands, deferred with World.defer().
+ */
+public interface WorldCommand {
+
+	/**
+	 * Performs the change of the world. Is called from the simulation
+	 * thread.
+	 */
+	public void execute();
+
+}
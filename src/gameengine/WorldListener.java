@@ -0,0 +1,35 @@
+/* 2026-10-18 agent
+ *	Created the interface.
+ */
+package gameengine;
+
+import gameengine.gameobjects.GameObject;
+
+/**
+ * Is told when game objects are registered in and unregistered from the
+ * world, so that it can keep track of the objects without looking through
+ * all of them. Is added with World.addWorldListener().
+ *
+ * The methods are called from the simulation thread when the change is made,
+ * which for changes deferred while the individuals are updated is when the
+ * changes of the tick are committed. A listener used by another thread must
+ * hand the objects over itself.
+ */
+public interface WorldListener {
+
+	/**
+	 * Is called when a game object has been registered in the world.
+	 *
+	 * @param gameObject the registered game object.
+	 */
+	public void objectRegistered(GameObject gameObject);
+
+	/**
+	 * Is called when a game object has been unregistered from the world,
+	 * which happens when it is deleted.
+	 *
+	 * @param gameObject the unregistered game object.
+	 */
+	public void objectUnregistered(GameObject gameObject);
+
+}
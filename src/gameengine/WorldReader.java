@@ -0,0 +1,792 @@
+/* 2026-10-18 agent
+ *	Reads the regions of version 2 of the format, which are mapped into
+ *	memory when the channel is a FileChannel, see getRegion().
+ *
+ * 2026-10-18 agent
+ *	Reads the fields of kind BYTE_ARRAY.
+ *
+ * 2026-10-18 agent
+ *	Reads the header before the current world is thrown away, so that a
+ *	file that isn't a saved world doesn't discard it.
+ *
+ * 2026-10-18 agent
+ *	Added readFields(), readVarInt() and clearStrings(), and can restore a
+ *	record with a given id, for the deltas of the autosave.
+ *
+ * 2026-10-18 agent
+ *	Reads long int arrays in bulk. Can also read from a buffer that holds
+ *	the whole file.
+ *
+ * 2026-10-18 agent
+ *	Split reading a record from restoring it, so that AutoSaveLog can
+ *	restore records that it has merged from several autosaves.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Restores a world from a channel in the binary save format that
+ * WorldWriter writes.
+ *
+ * The schemas at the start of the file are mapped to the current record
+ * types by name, and their fields by name and kind. The records are then
+ * restored in the order they were written, so the objects that a record
+ * references have always been restored before it. The records of types
+ * that no longer exist are skipped, and references to them restore as null.
+ *
+ * The channel is read through a direct buffer of WorldWriter.BUFFER_SIZE
+ * bytes, and the long int arrays are decoded from it in bulk. The regions
+ * of the file (see WorldWriter.addRegion()) are mapped into memory if the
+ * channel is a FileChannel, so that only the pages that are read are
+ * loaded from the disk, and are otherwise read into buffers of their own.
+ * The records then follow the regions. The objects with regions read them
+ * with getRegion() when they are restored.
+ */
+public class WorldReader {
+
+	/**
+	 * The length from which int arrays are read in bulk.
+	 */
+	private static final int BULK_LENGTH = 64;
+
+	/**
+	 * The most regions that a file may have.
+	 */
+	private static final int MAX_REGIONS = 1024;
+
+	/**
+	 * The channel to read from, or null if the reader reads from a buffer.
+	 */
+	private ReadableByteChannel channel;
+
+	/**
+	 * The buffer that the file is read through, or the whole file if the
+	 * channel is null.
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * The position in the buffer of the start of the file, if the channel is
+	 * null.
+	 */
+	private int start;
+
+	/**
+	 * The number of bytes that have been read from the channel.
+	 */
+	private long channelPosition;
+
+	/**
+	 * The version of the format of the file.
+	 */
+	private int version;
+
+	/**
+	 * The regions of the file.
+	 */
+	private ByteBuffer[] regions = new ByteBuffer[0];
+
+	/**
+	 * The current record types of the types in the file, or null for types
+	 * that no longer exist.
+	 */
+	private RecordType[] types;
+
+	/**
+	 * For each type in the file, the kinds of its fields.
+	 */
+	private int[][] fileKinds;
+
+	/**
+	 * For each type in the file, the indices of its fields in the current
+	 * record type, or -1 for fields that no longer exist.
+	 */
+	private int[][] fieldMaps;
+
+	/**
+	 * The records that are read, one for each current record type.
+	 */
+	private HashMap records;
+
+	/**
+	 * The restored objects, indexed by the ids of their records.
+	 */
+	private List objects;
+
+	/**
+	 * The strings that have been read, indexed by their numbers.
+	 */
+	private List strings;
+
+	/**
+	 * The world that has been restored, or null if no world record has been
+	 * read.
+	 */
+	private World world;
+
+	/**
+	 * Creates a reader that reads from a channel.
+	 *
+	 * @param channel the channel to read from. Isn't closed by the reader.
+	 */
+	public WorldReader(ReadableByteChannel channel) {
+		this(channel, ByteBuffer.allocateDirect(WorldWriter.BUFFER_SIZE));
+		buffer.flip();
+	}
+
+	/**
+	 * Creates a reader that reads from a buffer which holds the whole saved
+	 * world.
+	 *
+	 * @param buffer the buffer, from its position to its limit.
+	 */
+	WorldReader(ByteBuffer buffer) {
+		this(null, buffer);
+	}
+
+	/**
+	 * Creates a reader that reads from a channel through a buffer, or only
+	 * from the buffer if the channel is null.
+	 */
+	private WorldReader(ReadableByteChannel channel, ByteBuffer buffer) {
+		this.channel = channel;
+		this.buffer = buffer;
+		start = buffer.position();
+		records = new HashMap();
+		objects = new ArrayList();
+		strings = new ArrayList();
+	}
+
+	/**
+	 * Reads a world that has been saved with WorldWriter. Once the header of
+	 * the file has been read, the current world is thrown away, and the read
+	 * world becomes the world returned by World.getWorld(). If the header
+	 * or the regions couldn't be read, the current world is kept, but if
+	 * the records couldn't, there is no world.
+	 *
+	 * @return the restored world.
+	 * @exception IOException if the channel couldn't be read, or if it
+	 * didn't contain a valid saved world.
+	 */
+	public World read() throws IOException {
+		try {
+			readHeader(WorldWriter.MAGIC);
+			// Version 1 of the format had no regions.
+			if (version >= 2) {
+				readRegions();
+			}
+		} catch (RuntimeException e) {
+			throw invalidFile(e);
+		}
+		World.reset();
+		try {
+			int typeIndex;
+			while ((typeIndex = readChar()) != WorldWriter.END_OF_RECORDS) {
+				restore(readRecord(typeIndex));
+			}
+			if (world == null) {
+				throw new IOException("The saved world is missing");
+			}
+		} catch (IOException e) {
+			World.reset();
+			throw e;
+		} catch (RuntimeException e) {
+			// Such as a record that references an object of the wrong class.
+			World.reset();
+			throw invalidFile(e);
+		}
+		return world;
+	}
+
+	/**
+	 * Returns the exception to throw when reading the file has failed with
+	 * the given runtime exception.
+	 */
+	private static IOException invalidFile(RuntimeException e) {
+		IOException exception = new IOException("Invalid save file: " + e);
+		exception.initCause(e);
+		return exception;
+	}
+
+	/**
+	 * Retrieves the object of a record that has been restored.
+	 *
+	 * @param id the id of the record, or NULL_REFERENCE.
+	 * @return the object, or null if the id is NULL_REFERENCE or the type of
+	 * the record no longer exists.
+	 * @exception IOException if no record with the id has been restored.
+	 */
+	public Object getObject(int id) throws IOException {
+		if (id == RecordType.NULL_REFERENCE) {
+			return null;
+		}
+		if (id < 0 || id >= objects.size()) {
+			throw new IOException("Invalid reference " + id);
+		}
+		return objects.get(id);
+	}
+
+	/**
+	 * Retrieves the object that a field of a record references.
+	 *
+	 * @param record the record.
+	 * @param field the index of the field.
+	 * @return the object, or null.
+	 * @exception IOException if the field references a record that hasn't
+	 * been restored.
+	 */
+	public Object getObject(SaveRecord record, int field) throws IOException {
+		return getObject(record.getReference(field));
+	}
+
+	/**
+	 * Adds the objects that a field of a record references to a list. The
+	 * references to records of types that no longer exist are left out.
+	 *
+	 * @param record the record.
+	 * @param field the index of the field.
+	 * @param list the list to add the objects to.
+	 * @exception IOException if the field references a record that hasn't
+	 * been restored.
+	 */
+	public void getObjects(SaveRecord record, int field, List list)
+			throws IOException {
+		int[] references = record.getArray(field);
+		for (int i = 0; i < references.length; i++) {
+			Object object = getObject(references[i]);
+			if (object != null) {
+				list.add(object);
+			}
+		}
+	}
+
+	/**
+	 * Returns a region of the file, see WorldWriter.addRegion(). The region
+	 * is mapped into memory if the file is read from a FileChannel, in
+	 * which case the file mustn't be changed while the region is used.
+	 *
+	 * @param index the index of the region.
+	 * @return the region, from the position of the buffer to its limit,
+	 * which can't be changed.
+	 * @exception IOException if the file has no region with the index.
+	 */
+	public ByteBuffer getRegion(int index) throws IOException {
+		if (index < 0 || index >= regions.length) {
+			throw new IOException("Invalid region " + index);
+		}
+		return regions[index].asReadOnlyBuffer();
+	}
+
+	/**
+	 * Sets the world that has been restored. Is called by the record type of
+	 * the world.
+	 *
+	 * @param world the restored world.
+	 */
+	void setWorld(World world) {
+		this.world = world;
+	}
+
+	/**
+	 * Returns the world that has been restored.
+	 *
+	 * @return the world, or null if no world record has been restored.
+	 */
+	World getRestoredWorld() {
+		return world;
+	}
+
+	/**
+	 * Reads the header and the schemas, and maps them to the current record
+	 * types.
+	 *
+	 * @param magic the first int of the file.
+	 * @exception IOException if the header couldn't be read or didn't start
+	 * with the magic number.
+	 */
+	void readHeader(int magic) throws IOException {
+		if (readInt() != magic) {
+			throw new IOException("Not a saved world");
+		}
+		version = readInt();
+		if (version > WorldWriter.VERSION) {
+			throw new IOException("The world was saved by a newer version (" +
+					version + ")");
+		}
+		HashMap currentTypes = new HashMap();
+		RecordType[] allTypes = SaveFormat.getRecordTypes();
+		for (int i = 0; i < allTypes.length; i++) {
+			currentTypes.put(allTypes[i].getName(), allTypes[i]);
+		}
+
+		int typeCount = readInt();
+		if (typeCount < 0 || typeCount >= WorldWriter.END_OF_RECORDS) {
+			throw new IOException("Invalid number of record types " + typeCount);
+		}
+		types = new RecordType[typeCount];
+		fileKinds = new int[typeCount][];
+		fieldMaps = new int[typeCount][];
+		for (int i = 0; i < typeCount; i++) {
+			types[i] = (RecordType) currentTypes.get(readString());
+			int fieldCount = readInt();
+			if (fieldCount < 0) {
+				throw new IOException("Invalid number of fields " + fieldCount);
+			}
+			fileKinds[i] = new int[fieldCount];
+			fieldMaps[i] = new int[fieldCount];
+			for (int field = 0; field < fieldCount; field++) {
+				String fieldName = readString();
+				fileKinds[i][field] = readByte();
+				fieldMaps[i][field] = (types[i] == null) ? -1 :
+						types[i].findField(fieldName, fileKinds[i][field]);
+			}
+		}
+	}
+
+	/**
+	 * Reads the number of regions and the offset and length of each, and
+	 * maps or reads the regions. The records that follow are then read.
+	 *
+	 * @exception IOException if the regions couldn't be read.
+	 */
+	private void readRegions() throws IOException {
+		int count = readInt();
+		if (count < 0 || count > MAX_REGIONS) {
+			throw new IOException("Invalid number of regions " + count);
+		}
+		long[] offsets = new long[count];
+		long[] lengths = new long[count];
+		for (int i = 0; i < count; i++) {
+			offsets[i] = readLong();
+			lengths[i] = readLong();
+		}
+		regions = new ByteBuffer[count];
+		long end = getOffset();
+		for (int i = 0; i < count; i++) {
+			if (offsets[i] < end || lengths[i] < 0 ||
+					lengths[i] > Integer.MAX_VALUE) {
+				throw new IOException("Invalid region " + i);
+			}
+			regions[i] = readRegion(offsets[i], (int) lengths[i]);
+			end = offsets[i] + lengths[i];
+		}
+		seek(end);
+	}
+
+	/**
+	 * Maps a region of the file into memory if the channel is a FileChannel,
+	 * or otherwise reads it into a buffer of its own, or takes it from the
+	 * buffer that holds the whole file.
+	 *
+	 * @param offset the offset of the region in the file, which isn't before
+	 * the next byte to read.
+	 * @param length the length of the region.
+	 * @return the region.
+	 * @exception IOException if the region couldn't be read.
+	 */
+	private ByteBuffer readRegion(long offset, int length) throws IOException {
+		if (channel instanceof FileChannel) {
+			FileChannel file = (FileChannel) channel;
+			long fileOffset = file.position() - channelPosition + offset;
+			if (fileOffset + length > file.size()) {
+				throw new EOFException("The saved world ends too early");
+			}
+			return file.map(FileChannel.MapMode.READ_ONLY, fileOffset, length);
+		}
+		if (channel == null) {
+			if (offset + length > buffer.limit() - start) {
+				throw new EOFException("The saved world ends too early");
+			}
+			ByteBuffer region = buffer.duplicate();
+			region.position(start + (int) offset);
+			region.limit(start + (int) offset + length);
+			return region.slice();
+		}
+		seek(offset);
+		byte[] bytes = new byte[length];
+		readBytes(bytes);
+		return ByteBuffer.wrap(bytes);
+	}
+
+	/**
+	 * Returns the offset in the file of the next byte to read.
+	 */
+	private long getOffset() {
+		if (channel == null) {
+			return buffer.position() - start;
+		}
+		return channelPosition - buffer.remaining();
+	}
+
+	/**
+	 * Skips to an offset in the file that isn't before the next byte to read.
+	 * A FileChannel is positioned at the offset rather than read up to it.
+	 */
+	private void seek(long offset) throws IOException {
+		long bytes = offset - getOffset();
+		if (channel instanceof FileChannel && bytes > buffer.remaining()) {
+			FileChannel file = (FileChannel) channel;
+			long skipped = bytes - buffer.remaining();
+			file.position(file.position() + skipped);
+			channelPosition += skipped;
+			buffer.position(buffer.limit());
+		} else {
+			skip(bytes);
+		}
+	}
+
+	/**
+	 * Reads the fields of a record.
+	 *
+	 * @param typeIndex the index of the record's type in the file.
+	 * @return the record, which is reused by the next call, or null if the
+	 * type no longer exists.
+	 * @exception IOException if the record couldn't be read.
+	 */
+	SaveRecord readRecord(int typeIndex) throws IOException {
+		RecordType type = getType(typeIndex);
+		SaveRecord record = null;
+		if (type != null) {
+			record = (SaveRecord) records.get(type);
+			if (record == null) {
+				record = new SaveRecord(type);
+				records.put(type, record);
+			} else {
+				record.reset(type);
+			}
+		}
+		int[] kinds = fileKinds[typeIndex];
+		int[] fieldMap = fieldMaps[typeIndex];
+		for (int i = 0; i < kinds.length; i++) {
+			readField(kinds[i], (fieldMap[i] >= 0) ? record : null, fieldMap[i]);
+		}
+		return record;
+	}
+
+	/**
+	 * Reads the fields that WorldWriter.writeFields() has written after the
+	 * index of the type: the mask and the fields in it.
+	 *
+	 * @param typeIndex the index of the record's type in the file.
+	 * @param record the record to read the fields into, of the current type
+	 * of typeIndex, whose other fields keep their values, or null to skip
+	 * the fields.
+	 * @return the fields of the current record type that were read, one bit
+	 * each from the lowest bit for field 0.
+	 * @exception IOException if the fields couldn't be read.
+	 */
+	long readFields(int typeIndex, SaveRecord record) throws IOException {
+		getType(typeIndex);
+		int[] kinds = fileKinds[typeIndex];
+		int[] fieldMap = fieldMaps[typeIndex];
+		if (kinds.length > WorldWriter.MAX_MASK_FIELDS) {
+			throw new IOException("Too many fields to read some of them: " +
+					kinds.length);
+		}
+		long mask = 0;
+		for (int shift = 0; shift < kinds.length; shift += 8) {
+			mask |= (readByte() & 0xffL) << shift;
+		}
+		long fields = 0;
+		for (int i = 0; i < kinds.length; i++) {
+			if ((mask & (1L << i)) != 0) {
+				readField(kinds[i], (fieldMap[i] >= 0) ? record : null,
+						fieldMap[i]);
+				if (fieldMap[i] >= WorldWriter.MAX_MASK_FIELDS) {
+					throw new IOException("Too many fields to read some of them: "
+							+ types[typeIndex]);
+				} else if (fieldMap[i] >= 0) {
+					fields |= 1L << fieldMap[i];
+				}
+			}
+		}
+		return fields;
+	}
+
+	/**
+	 * Returns the current record type of a type in the file.
+	 *
+	 * @param typeIndex the index of the type in the file.
+	 * @return the record type, or null if the type no longer exists.
+	 * @exception IOException if there is no type with the index.
+	 */
+	RecordType getType(int typeIndex) throws IOException {
+		if (typeIndex >= types.length) {
+			throw new IOException("Invalid record type " + typeIndex);
+		}
+		return types[typeIndex];
+	}
+
+	/**
+	 * Restores the object of a record, which gets the next id.
+	 *
+	 * @param record the record, or null for a record of a type that no
+	 * longer exists.
+	 * @return the object, or null if the record is null.
+	 * @exception IOException if the record references a record that hasn't
+	 * been restored, or isn't valid.
+	 */
+	Object restore(SaveRecord record) throws IOException {
+		return restore(record, objects.size());
+	}
+
+	/**
+	 * Restores the object of a record with a given id. The ids below it that
+	 * haven't been restored have no objects until they are.
+	 *
+	 * @param record the record, or null for a record of a type that no
+	 * longer exists.
+	 * @param id the id of the record.
+	 * @return the object, or null if the record is null.
+	 * @exception IOException if the record references a record that hasn't
+	 * been restored, or isn't valid.
+	 */
+	Object restore(SaveRecord record, int id) throws IOException {
+		Object object = (record == null) ? null :
+				record.getType().restore(record, this);
+		while (objects.size() <= id) {
+			objects.add(null);
+		}
+		objects.set(id, object);
+		return object;
+	}
+
+	/**
+	 * Reads the value of a field into a record, or skips it.
+	 *
+	 * @param kind the kind of the field in the file.
+	 * @param record the record, or null to skip the value.
+	 * @param field the index of the field in the record.
+	 */
+	private void readField(int kind, SaveRecord record, int field)
+			throws IOException {
+		switch (kind) {
+			case RecordType.BOOLEAN :
+				boolean booleanValue = readByte() != 0;
+				if (record != null) {
+					record.setBoolean(field, booleanValue);
+				}
+				break;
+			case RecordType.INT :
+			case RecordType.REFERENCE :
+				int intValue = readInt();
+				if (record != null) {
+					record.setInt(field, intValue);
+				}
+				break;
+			case RecordType.LONG :
+				long longValue = readLong();
+				if (record != null) {
+					record.setLong(field, longValue);
+				}
+				break;
+			case RecordType.FLOAT :
+				ensureAvailable(4);
+				float floatValue = buffer.getFloat();
+				if (record != null) {
+					record.setFloat(field, floatValue);
+				}
+				break;
+			case RecordType.STRING :
+				String stringValue = readString();
+				if (record != null) {
+					record.setString(field, stringValue);
+				}
+				break;
+			case RecordType.INT_ARRAY :
+			case RecordType.REFERENCE_ARRAY :
+				int length = readInt();
+				if (length < 0) {
+					throw new IOException("Invalid array length " + length);
+				}
+				if (record != null) {
+					record.setArray(field, readInts(length));
+				} else {
+					skip(4L * length);
+				}
+				break;
+			case RecordType.BYTE_ARRAY :
+				int byteLength = readInt();
+				if (byteLength < 0) {
+					throw new IOException("Invalid array length " + byteLength);
+				}
+				if (record != null) {
+					byte[] bytes = new byte[byteLength];
+					readBytes(bytes);
+					record.setBytes(field, bytes);
+				} else {
+					skip(byteLength);
+				}
+				break;
+			default :
+				throw new IOException("Unknown field kind " + kind);
+		}
+	}
+
+	/**
+	 * Reads a byte.
+	 */
+	int readByte() throws IOException {
+		ensureAvailable(1);
+		return buffer.get();
+	}
+
+	/**
+	 * Reads an unsigned short.
+	 */
+	int readChar() throws IOException {
+		ensureAvailable(2);
+		return buffer.getChar();
+	}
+
+	/**
+	 * Reads an int.
+	 */
+	int readInt() throws IOException {
+		ensureAvailable(4);
+		return buffer.getInt();
+	}
+
+	/**
+	 * Reads a long.
+	 */
+	long readLong() throws IOException {
+		ensureAvailable(8);
+		return buffer.getLong();
+	}
+
+	/**
+	 * Reads an int that WorldWriter.writeVarInt() has written.
+	 */
+	int readVarInt() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = readByte();
+			value |= (b & 0x7f) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IOException("Invalid variable-length int");
+	}
+
+	/**
+	 * Forgets the strings that have been read, see
+	 * WorldWriter.clearStrings().
+	 */
+	void clearStrings() {
+		strings.clear();
+	}
+
+	/**
+	 * Reads an array of ints. Long arrays are read as many ints at a time as
+	 * the buffer holds, short ones an int at a time, which is faster than
+	 * creating a view of the buffer.
+	 */
+	private int[] readInts(int length) throws IOException {
+		int[] array = new int[length];
+		if (length < BULK_LENGTH) {
+			for (int i = 0; i < length; i++) {
+				array[i] = readInt();
+			}
+			return array;
+		}
+		int offset = 0;
+		while (offset < length) {
+			ensureAvailable(4);
+			IntBuffer ints = buffer.asIntBuffer();
+			int count = Math.min(length - offset, ints.remaining());
+			ints.get(array, offset, count);
+			buffer.position(buffer.position() + 4 * count);
+			offset += count;
+		}
+		return array;
+	}
+
+	/**
+	 * Reads a string, or retrieves it by its number if it has been read
+	 * before.
+	 */
+	private String readString() throws IOException {
+		int number = readInt();
+		if (number == WorldWriter.NULL_STRING) {
+			return null;
+		}
+		if (number != WorldWriter.NEW_STRING) {
+			if (number < 0 || number >= strings.size()) {
+				throw new IOException("Invalid string " + number);
+			}
+			return (String) strings.get(number);
+		}
+		int length = readInt();
+		if (length < 0) {
+			throw new IOException("Invalid string length " + length);
+		}
+		byte[] bytes = new byte[length];
+		readBytes(bytes);
+		String string = new String(bytes, "UTF-8");
+		strings.add(string);
+		return string;
+	}
+
+	/**
+	 * Fills an array with the bytes that follow, as many at a time as the
+	 * buffer holds.
+	 */
+	private void readBytes(byte[] bytes) throws IOException {
+		int offset = 0;
+		while (offset < bytes.length) {
+			ensureAvailable(1);
+			int count = Math.min(bytes.length - offset, buffer.remaining());
+			buffer.get(bytes, offset, count);
+			offset += count;
+		}
+	}
+
+	/**
+	 * Skips a number of bytes.
+	 */
+	private void skip(long bytes) throws IOException {
+		while (bytes > 0) {
+			ensureAvailable(1);
+			int count = (int) Math.min(bytes, buffer.remaining());
+			buffer.position(buffer.position() + count);
+			bytes -= count;
+		}
+	}
+
+	/**
+	 * Makes sure that the buffer holds at least the given number of bytes
+	 * that haven't been read, by reading more from the channel.
+	 */
+	private void ensureAvailable(int bytes) throws IOException {
+		if (buffer.remaining() >= bytes) {
+			return;
+		}
+		if (channel == null) {
+			throw new EOFException("The saved world ends too early");
+		}
+		buffer.compact();
+		while (buffer.position() < bytes) {
+			int count = channel.read(buffer);
+			if (count < 0) {
+				throw new EOFException("The saved world ends too early");
+			}
+			channelPosition += count;
+		}
+		buffer.flip();
+	}
+
+}
@@ -0,0 +1,632 @@
+/* 2026-10-18 agent
+ *	Version 2 of the format writes regions after the schemas, see
+ *	addRegion(), which the bulk of the world is written in and which
+ *	WorldReader maps into memory.
+ *
+ * 2026-10-18 agent
+ *	Added savesGrids(), which lets the autosave leave out the grids of the
+ *	spatial indices.
+ *
+ * 2026-10-18 agent
+ *	Writes the fields of kind BYTE_ARRAY.
+ *
+ * 2026-10-18 agent
+ *	Added writeFields(), which writes only some fields of a record,
+ *	writeVarInt() and clearStrings(), for the deltas of the autosave.
+ *
+ * 2026-10-18 agent
+ *	Split write() into writeHeader() and saveAll(), and hands each record
+ *	to recordSaved(), so that IncrementalWriter can capture the records
+ *	instead of writing them.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Saves a world to a channel in the binary save format, which WorldReader
+ * reads.
+ *
+ * The file starts with MAGIC, the version of the format and the schemas of
+ * all record types (see RecordType). Then follow the regions, see
+ * addRegion(): their number, the offset in the file and the length of each
+ * as longs, and the regions themselves, each from an offset that is a
+ * multiple of REGION_ALIGNMENT. Then follows one record for each saved
+ * object, and last END_OF_RECORDS. A record is the index of its type in the
+ * schemas followed by the values of its fields, in the order of the schema.
+ * The records are numbered from 0 in the order they are written, and the
+ * objects reference each other by these ids. An object is always written
+ * after the objects it references, so that a file can be restored in one
+ * pass, which is why the objects are saved with reference() rather than
+ * written in any given order. Strings are only written the first time they
+ * occur, and are then referenced by their number.
+ *
+ * All numbers are big-endian. The records are gathered in a direct buffer
+ * of BUFFER_SIZE bytes, which is written to the channel when it is full.
+ * The regions are written to the channel as they are.
+ */
+public class WorldWriter {
+
+	/**
+	 * The first int of a save file.
+	 */
+	static final int MAGIC = 0x54495356;
+
+	/**
+	 * The version of the format, which is increased when the format itself
+	 * changes. The record types can change without a new version.
+	 */
+	static final int VERSION = 2;
+
+	/**
+	 * What the offsets of the regions are multiples of, which is the size of
+	 * the pages of most systems, so that each region is mapped into pages
+	 * of its own.
+	 */
+	static final int REGION_ALIGNMENT = 4096;
+
+	/**
+	 * The type index that ends the records.
+	 */
+	static final int END_OF_RECORDS = 0xffff;
+
+	/**
+	 * What a string is written as if it is null.
+	 */
+	static final int NULL_STRING = -1;
+
+	/**
+	 * What a string is written as the first time it occurs, followed by its
+	 * length and its bytes in UTF-8. Later it is written as its number.
+	 */
+	static final int NEW_STRING = -2;
+
+	/**
+	 * The most fields that a record may have to be written by writeFields().
+	 */
+	static final int MAX_MASK_FIELDS = 64;
+
+	/**
+	 * The size of the buffer in bytes.
+	 */
+	static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The id an object has while it is saved, until it has been written.
+	 */
+	private static final Integer IN_PROGRESS = new Integer(-1);
+
+	/**
+	 * The channel to write to, or null if the writer doesn't write.
+	 */
+	private WritableByteChannel channel;
+
+	/**
+	 * The buffer that the records are gathered in.
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * The record types mapped to their indices (Integer).
+	 */
+	private IdentityHashMap typeIndices;
+
+	/**
+	 * The ids (Integer) of the objects that have been saved, mapped by the
+	 * objects.
+	 */
+	IdentityHashMap ids;
+
+	/**
+	 * The number of records that have been written.
+	 */
+	private int recordCount;
+
+	/**
+	 * The numbers (Integer) of the strings that have been written, mapped by
+	 * the strings.
+	 */
+	private HashMap strings;
+
+	/**
+	 * The records that are filled in, one for each depth of nested calls to
+	 * reference(), since an object's record is filled in while the objects
+	 * it references are saved.
+	 */
+	private List records;
+
+	/**
+	 * The depth of the nested calls to reference().
+	 */
+	private int depth;
+
+	/**
+	 * The objects that are saved once the world has been, see saveLater().
+	 */
+	List laterObjects;
+
+	/**
+	 * The contents (ByteBuffer) of the regions, in the order they are
+	 * written.
+	 */
+	private List regions;
+
+	/**
+	 * The indices (Integer) of the regions, mapped by the objects whose
+	 * regions they are.
+	 */
+	private IdentityHashMap regionIndices;
+
+	/**
+	 * The number of bytes that have been written to the channel.
+	 */
+	private long written;
+
+	/**
+	 * Creates a writer that writes to a channel.
+	 *
+	 * @param channel the channel to write to. Isn't closed by the writer.
+	 */
+	public WorldWriter(WritableByteChannel channel) {
+		this.channel = channel;
+		if (channel != null) {
+			buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		}
+		typeIndices = new IdentityHashMap();
+		ids = new IdentityHashMap();
+		strings = new HashMap();
+		records = new ArrayList();
+		laterObjects = new ArrayList();
+		regions = new ArrayList();
+		regionIndices = new IdentityHashMap();
+	}
+
+	/**
+	 * Saves a world, with the schemas first, then the regions that the world
+	 * gives the writer (see World.addRegions()) and all objects of the
+	 * world, and writes everything to the channel. A writer can only write
+	 * one world.
+	 *
+	 * @param world the world to save.
+	 * @exception IOException if the channel couldn't be written.
+	 */
+	public void write(World world) throws IOException {
+		if (recordCount > 0) {
+			throw new IllegalStateException("The writer has already written a world");
+		}
+		writeHeader(MAGIC);
+		world.addRegions(this);
+		writeRegions();
+		saveAll(world);
+		ensureRemaining(2);
+		buffer.putChar((char) END_OF_RECORDS);
+		flush();
+	}
+
+	/**
+	 * Writes the magic number, the version of the format and the schemas of
+	 * all record types.
+	 *
+	 * @param magic the first int of the file.
+	 * @exception IOException if the channel couldn't be written.
+	 */
+	void writeHeader(int magic) throws IOException {
+		RecordType[] types = SaveFormat.getRecordTypes();
+		writeInt(magic);
+		writeInt(VERSION);
+		writeInt(types.length);
+		for (int i = 0; i < types.length; i++) {
+			typeIndices.put(types[i], new Integer(i));
+			writeString(types[i].getName());
+			writeInt(types[i].getFieldCount());
+			for (int field = 0; field < types[i].getFieldCount(); field++) {
+				writeString(types[i].getFieldName(field));
+				writeByte(types[i].getFieldKind(field));
+			}
+		}
+	}
+
+	/**
+	 * Adds a region of the file, which holds the bulk of the state of an
+	 * object in a layout of its own, for example the columns of an
+	 * IndividualStore. The record of the object saves the index of the
+	 * region, see getRegion(), and the object reads the region in bulk when
+	 * it is restored, see WorldReader.getRegion(). A region is mapped into
+	 * memory when the file is read, so an object can also read it only as
+	 * it is needed. The regions must be added before the records are saved.
+	 *
+	 * @param object the object whose region it is.
+	 * @param contents the contents of the region, from the position of the
+	 * buffer to its limit. Must not be changed until the world has been
+	 * written.
+	 * @return the index of the region.
+	 */
+	int addRegion(Object object, ByteBuffer contents) {
+		if (recordCount > 0) {
+			throw new IllegalStateException("The records are already being written");
+		}
+		regionIndices.put(object, new Integer(regions.size()));
+		regions.add(contents.duplicate());
+		return regions.size() - 1;
+	}
+
+	/**
+	 * Returns the index of the region of an object.
+	 *
+	 * @param object the object.
+	 * @return the index of the region, or -1 if the object has no region,
+	 * in which case the object saves all its state in its record.
+	 */
+	public int getRegion(Object object) {
+		Integer index = (Integer) regionIndices.get(object);
+		return (index == null) ? -1 : index.intValue();
+	}
+
+	/**
+	 * Writes the number of regions, the offset and length of each, and the
+	 * regions.
+	 *
+	 * @exception IOException if the channel couldn't be written.
+	 */
+	private void writeRegions() throws IOException {
+		writeInt(regions.size());
+		long[] offsets = new long[regions.size()];
+		long offset = getPosition() + 16L * regions.size();
+		for (int i = 0; i < offsets.length; i++) {
+			offset = (offset + REGION_ALIGNMENT - 1) /
+					REGION_ALIGNMENT * REGION_ALIGNMENT;
+			offsets[i] = offset;
+			int length = ((ByteBuffer) regions.get(i)).remaining();
+			writeLong(offset);
+			writeLong(length);
+			offset += length;
+		}
+		for (int i = 0; i < offsets.length; i++) {
+			while (getPosition() < offsets[i]) {
+				writeByte(0);
+			}
+			flush();
+			ByteBuffer contents = (ByteBuffer) regions.get(i);
+			written += contents.remaining();
+			while (contents.hasRemaining()) {
+				channel.write(contents);
+			}
+		}
+	}
+
+	/**
+	 * Returns the offset in the file of the next byte to write.
+	 */
+	private long getPosition() {
+		return written + buffer.position();
+	}
+
+	/**
+	 * Saves the world and all objects that are referenced from it, and then
+	 * the objects that were to be saved later.
+	 *
+	 * @param world the world to save.
+	 * @exception IOException if the channel couldn't be written.
+	 */
+	void saveAll(World world) throws IOException {
+		reference(world);
+		// The objects saved later can ask for even more to be saved later.
+		for (int i = 0; i < laterObjects.size(); i++) {
+			reference((Saveable) laterObjects.get(i));
+		}
+	}
+
+	/**
+	 * Saves an object, unless it already has been, and returns its id. The
+	 * objects that it references are saved before it.
+	 *
+	 * @param object the object to save, or null.
+	 * @return the id of the object's record, or NULL_REFERENCE if the object
+	 * is null.
+	 * @exception IOException if the channel couldn't be written.
+	 * @exception IllegalStateException if the object references itself,
+	 * through other objects.
+	 */
+	public int reference(Saveable object) throws IOException {
+		if (object == null) {
+			return RecordType.NULL_REFERENCE;
+		}
+		Integer id = (Integer) ids.get(object);
+		if (id == IN_PROGRESS) {
+			throw new IllegalStateException("The objects reference each other: "
+					+ object + " (use saveLater() to break the cycle)");
+		}
+		if (id != null) {
+			return id.intValue();
+		}
+		ids.put(object, IN_PROGRESS);
+
+		RecordType type = object.getRecordType();
+		if (!SaveFormat.contains(type)) {
+			throw new IllegalStateException("Unknown record type " + type);
+		}
+		SaveRecord record;
+		if (depth == records.size()) {
+			record = new SaveRecord(type);
+			records.add(record);
+		} else {
+			record = (SaveRecord) records.get(depth);
+			record.reset(type);
+		}
+		depth++;
+		try {
+			object.save(record, this);
+		} finally {
+			depth--;
+		}
+
+		id = new Integer(recordSaved(object, record));
+		ids.put(object, id);
+		return id.intValue();
+	}
+
+	/**
+	 * Is called when the record of an object has been filled in, after the
+	 * objects it references have been saved. Writes the record.
+	 *
+	 * @param object the saved object.
+	 * @param record the record of the object.
+	 * @return the id of the record.
+	 * @exception IOException if the channel couldn't be written.
+	 */
+	int recordSaved(Saveable object, SaveRecord record) throws IOException {
+		writeRecord(record);
+		return recordCount++;
+	}
+
+	/**
+	 * Writes a record, which is the index of its type followed by the values
+	 * of its fields. The schemas must have been written by writeHeader().
+	 *
+	 * @param record the record to write.
+	 * @exception IOException if the channel couldn't be written.
+	 */
+	void writeRecord(SaveRecord record) throws IOException {
+		RecordType type = record.getType();
+		ensureRemaining(2);
+		buffer.putChar((char) ((Integer) typeIndices.get(type)).intValue());
+		for (int field = 0; field < type.getFieldCount(); field++) {
+			writeField(record, field);
+		}
+	}
+
+	/**
+	 * Writes some of the fields of a record: the index of its type, a mask of
+	 * the fields and the values of the fields in the mask. The mask takes up
+	 * one byte for every eight fields of the type, from the lowest bits. The
+	 * fields that aren't in the mask keep the values they had before, which
+	 * is how the autosave writes only what has changed, see AutoSaveLog.
+	 *
+	 * @param record the record to write.
+	 * @param mask the fields to write, one bit each from the lowest bit for
+	 * field 0.
+	 * @exception IOException if the channel couldn't be written.
+	 * @exception IllegalStateException if the record has more than
+	 * MAX_MASK_FIELDS fields.
+	 */
+	void writeFields(SaveRecord record, long mask) throws IOException {
+		RecordType type = record.getType();
+		if (type.getFieldCount() > MAX_MASK_FIELDS) {
+			throw new IllegalStateException("Too many fields to write some of them: "
+					+ type);
+		}
+		ensureRemaining(10);
+		buffer.putChar((char) ((Integer) typeIndices.get(type)).intValue());
+		for (int shift = 0; shift < type.getFieldCount(); shift += 8) {
+			buffer.put((byte) (mask >>> shift));
+		}
+		for (int field = 0; field < type.getFieldCount(); field++) {
+			if ((mask & (1L << field)) != 0) {
+				writeField(record, field);
+			}
+		}
+	}
+
+	/**
+	 * Saves a list of objects, and returns their ids.
+	 *
+	 * @param objects the objects (Saveable) to save.
+	 * @return the ids of the objects' records, in the order of the list.
+	 * @exception IOException if the channel couldn't be written.
+	 */
+	public int[] reference(List objects) throws IOException {
+		int[] references = new int[objects.size()];
+		for (int i = 0; i < references.length; i++) {
+			references[i] = reference((Saveable) objects.get(i));
+		}
+		return references;
+	}
+
+	/**
+	 * Saves an object after the world and all objects that are referenced
+	 * from it. This breaks cycles of objects that reference each other, such
+	 * as an individual that references its tasks which reference the
+	 * individual: the individual is saved without its tasks, and an object
+	 * that restores the tasks of the individual is saved later.
+	 *
+	 * @param object the object to save later.
+	 */
+	public void saveLater(Saveable object) {
+		laterObjects.add(object);
+	}
+
+	/**
+	 * Tells if the spatial indices are saved with the cells of their grids,
+	 * see SpatialIndex.save(). Without them, the grids are rebuilt from the
+	 * positions of the objects when the world has been restored, which may
+	 * order objects that are equally close differently.
+	 *
+	 * @return true if the grids are saved.
+	 */
+	boolean savesGrids() {
+		return true;
+	}
+
+	/**
+	 * Writes the value of a field of a record.
+	 */
+	private void writeField(SaveRecord record, int field) throws IOException {
+		switch (record.getType().getFieldKind(field)) {
+			case RecordType.BOOLEAN :
+				ensureRemaining(1);
+				buffer.put(record.getBoolean(field) ? (byte) 1 : (byte) 0);
+				break;
+			case RecordType.INT :
+			case RecordType.REFERENCE :
+				writeInt(record.getInt(field));
+				break;
+			case RecordType.LONG :
+				ensureRemaining(8);
+				buffer.putLong(record.getLong(field));
+				break;
+			case RecordType.FLOAT :
+				ensureRemaining(4);
+				buffer.putFloat(record.getFloat(field));
+				break;
+			case RecordType.STRING :
+				writeString(record.getString(field));
+				break;
+			case RecordType.INT_ARRAY :
+			case RecordType.REFERENCE_ARRAY :
+				int[] array = record.getArray(field);
+				writeInt(array.length);
+				for (int i = 0; i < array.length; i++) {
+					writeInt(array[i]);
+				}
+				break;
+			case RecordType.BYTE_ARRAY :
+				byte[] bytes = record.getBytes(field);
+				writeInt(bytes.length);
+				writeBytes(bytes);
+				break;
+			default :
+				throw new IllegalStateException("Unknown field kind");
+		}
+	}
+
+	/**
+	 * Writes a byte.
+	 */
+	void writeByte(int value) throws IOException {
+		ensureRemaining(1);
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Writes an int.
+	 */
+	void writeInt(int value) throws IOException {
+		ensureRemaining(4);
+		buffer.putInt(value);
+	}
+
+	/**
+	 * Writes a long.
+	 */
+	void writeLong(long value) throws IOException {
+		ensureRemaining(8);
+		buffer.putLong(value);
+	}
+
+	/**
+	 * Writes an int that isn't negative in as few bytes as it needs, seven
+	 * bits in each byte from the lowest bits, with the highest bit set in
+	 * all bytes but the last.
+	 */
+	void writeVarInt(int value) throws IOException {
+		ensureRemaining(5);
+		while ((value & ~0x7f) != 0) {
+			buffer.put((byte) (value | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Forgets the strings that have been written, so that they are written
+	 * again and the strings are numbered from 0, the way WorldReader numbers
+	 * them after its clearStrings().
+	 */
+	void clearStrings() {
+		strings.clear();
+	}
+
+	/**
+	 * Writes a string, or its number if it has been written before.
+	 */
+	private void writeString(String string) throws IOException {
+		if (string == null) {
+			writeInt(NULL_STRING);
+			return;
+		}
+		Integer number = (Integer) strings.get(string);
+		if (number != null) {
+			writeInt(number.intValue());
+			return;
+		}
+		strings.put(string, new Integer(strings.size()));
+		byte[] bytes;
+		try {
+			bytes = string.getBytes("UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException("UTF-8 is not supported");
+		}
+		writeInt(NEW_STRING);
+		writeInt(bytes.length);
+		writeBytes(bytes);
+	}
+
+	/**
+	 * Writes an array of bytes, as much at a time as the buffer has room
+	 * for.
+	 */
+	private void writeBytes(byte[] bytes) throws IOException {
+		int offset = 0;
+		while (offset < bytes.length) {
+			ensureRemaining(1);
+			int length = Math.min(bytes.length - offset, buffer.remaining());
+			buffer.put(bytes, offset, length);
+			offset += length;
+		}
+	}
+
+	/**
+	 * Makes sure that the buffer has room for the given number of bytes, by
+	 * writing it to the channel if it hasn't.
+	 */
+	private void ensureRemaining(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush();
+		}
+	}
+
+	/**
+	 * Writes the buffer to the channel and empties it.
+	 *
+	 * @exception IOException if the channel couldn't be written.
+	 */
+	void flush() throws IOException {
+		buffer.flip();
+		written += buffer.remaining();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
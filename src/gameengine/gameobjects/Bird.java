@@ -1,5 +1,9 @@
 
 /*
+ * 2026-10-18 agent
+ * 	Added the record type, which all game objects need now that they can
+ * 	be saved, and cast the null point to pick the constructor.
+ *
  * 2003-05-11 EliasAE
  * 	Added support for deletable.
  *
@@ -9,6 +13,8 @@
 
 package gameengine.gameobjects;
 
+import gameengine.*;
+
 import java.util.*;
 
 /**
@@ -16,15 +22,32 @@ import java.util.*;
  */
 public class Bird extends GameObject implements Updateable {
 
+	/**
+	 * The type of the records that birds are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("Bird",
+			GameObject.RECORD_TYPE, new String[0], new int[0]) {
+		public Object restore(SaveRecord record, WorldReader reader) {
+			return new Bird(record);
+		}
+	};
+
 	/**
 	 * Creates a Bird.
 	 */
 	public Bird() {
 		// TODO just to make it compile.
-		super (null);
+		super ((Point) null);
 		setDescription("This is a bird that has no real meaning.");
 	}
 
+	/**
+	 * Restores a bird that has been saved.
+	 */
+	private Bird(SaveRecord record) {
+		super(record);
+	}
+
 	/**
 	 * Updates the bird.
 	 */
@@ -45,4 +68,8 @@ public class Bird extends GameObject implements Updateable {
 		delete();
 	}
 
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
 }
@@ -1,4 +1,30 @@
-/* 2003-05-19 Martin
+/* 2026-10-18 agent
+ *	Characteristics in the world's store only save their slot when the
+ *	columns of the store are written in a region of the file, and claim the
+ *	slot when they are restored.
+ *
+ * 2026-10-18 agent
+ *	The values of the slot are saved by saveSlot(), which the autosave
+ *	also uses.
+ *
+ * 2026-10-18 agent
+ *	Is saved as a record with the values of its slot in the store and
+ *	references to its randomizers, and restored into a new slot of the
+ *	world's store.
+ *
+ * 2026-10-18 agent
+ *	recalculate() takes the coordinates of the owner instead of a Point.
+ *
+ * 2026-10-18 agent
+ *	The values are stored in a slot of an IndividualStore, of the world or
+ *	of its own, instead of in fields. Added recalculate(), which replaces
+ *	the separate methods for decreasing the needs, setting the safety and
+ *	recalculating the health.
+ *
+ * 2026-10-18 agent
+ *	The gender of a child is chosen with the RandomSource of the world.
+ *
+ * 2003-05-19 Martin
  *	Fixed a weight on safety when calculating health, so that safety won't keep the
  *	health up above the correct mean value.
  *
@@ -64,36 +90,74 @@ import gameengine.*;
  * intended for increasing the values, and the methods calculates
  * themselves how much to increase. Decreasing methods has a similar
  * pattern..There are also get methods for each value.
+ *
+ * The values are stored in a slot of an IndividualStore. The characteristics
+ * of the individuals in the world share the world's store, which recalculates
+ * them all at once each tick.
  */
-public class Characteristics implements Serializable {
+public class Characteristics implements Serializable, Saveable {
+
+	/**
+	 * The type of the records that characteristics are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("Characteristics", null,
+			new String[] {"gender", "hungryRandomizer", "depressedRandomizer",
+					"unsafeRandomizer", "strollRandomizer", "saturation",
+					"happiness", "safety", "health", "maximumHealth",
+					"timeOfBirth", "gatherSkill", "sacrificeSkill",
+					"transportationSkill", "startAge", "store", "slot"},
+			new int[] {RecordType.INT, RecordType.REFERENCE, RecordType.REFERENCE,
+					RecordType.REFERENCE, RecordType.REFERENCE, RecordType.FLOAT,
+					RecordType.FLOAT, RecordType.FLOAT, RecordType.FLOAT,
+					RecordType.FLOAT, RecordType.FLOAT, RecordType.FLOAT,
+					RecordType.FLOAT, RecordType.FLOAT, RecordType.INT,
+					RecordType.REFERENCE, RecordType.INT}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new Characteristics(record, reader);
+		}
+	};
 
 	/**
-	 * A percentual value describing the saturation of the owner of the
-	 * characteristics.
+	 * The indices of the fields of the records.
 	 */
-	private float saturation;
+	private static final int GENDER = RECORD_TYPE.getFieldIndex("gender");
+	private static final int HUNGRY_RANDOMIZER = RECORD_TYPE.getFieldIndex("hungryRandomizer");
+	private static final int DEPRESSED_RANDOMIZER = RECORD_TYPE.getFieldIndex("depressedRandomizer");
+	private static final int UNSAFE_RANDOMIZER = RECORD_TYPE.getFieldIndex("unsafeRandomizer");
+	private static final int STROLL_RANDOMIZER = RECORD_TYPE.getFieldIndex("strollRandomizer");
+	private static final int SATURATION = RECORD_TYPE.getFieldIndex("saturation");
+	private static final int HAPPINESS = RECORD_TYPE.getFieldIndex("happiness");
+	private static final int SAFETY = RECORD_TYPE.getFieldIndex("safety");
+	private static final int HEALTH = RECORD_TYPE.getFieldIndex("health");
+	private static final int MAXIMUM_HEALTH = RECORD_TYPE.getFieldIndex("maximumHealth");
+	private static final int TIME_OF_BIRTH = RECORD_TYPE.getFieldIndex("timeOfBirth");
+	private static final int GATHER_SKILL = RECORD_TYPE.getFieldIndex("gatherSkill");
+	private static final int SACRIFICE_SKILL = RECORD_TYPE.getFieldIndex("sacrificeSkill");
+	private static final int TRANSPORTATION_SKILL = RECORD_TYPE.getFieldIndex("transportationSkill");
+	private static final int START_AGE = RECORD_TYPE.getFieldIndex("startAge");
+	private static final int STORE = RECORD_TYPE.getFieldIndex("store");
+	private static final int SLOT = RECORD_TYPE.getFieldIndex("slot");
 
 	/**
-	 * A randomizer that keeps track of when it's time to eat.
+	 * The store that holds the values.
 	 */
-	private Randomizer hungryRandomizer;
+	private IndividualStore store;
 
 	/**
-	 * A percentual value describing the happiness of the owner of the
-	 * characteristics.
+	 * The slot of the values in the store.
 	 */
-	private float happiness;
+	private int slot;
 
 	/**
-	 * A randomizer that keeps track of when it's time to get happiness.
+	 * A randomizer that keeps track of when it's time to eat.
 	 */
-	private Randomizer depressedRandomizer;
+	private Randomizer hungryRandomizer;
 
 	/**
-	 * A percentual value describing the safety of the owner of the
-	 * characteristics.
+	 * A randomizer that keeps track of when it's time to get happiness.
 	 */
-	private float safety;
+	private Randomizer depressedRandomizer;
 
 	/**
 	 * A randomizer that keeps track of when it's time to feel unsafe.
@@ -105,61 +169,36 @@ public class Characteristics implements Serializable {
 	 */
 	private Randomizer strollRandomizer;
 
-	/**
-	 * A percentual value describing the health of the owner of the
-	 * characteristics.
-	 */
-	private float health;
-
-	/**
-	 * The time of birth of the owner of the characteristics, taken from the
-	 * getWorldTime().
-	 */
-	private float timeOfBirth;
-
 	/**
 	 * An integer representing the gender of the owner of the characteristics.
 	 */
 	private int gender;
 
 	/**
-	 * A percentual value describing the gather skill of the owner of the
-	 * characteristics.
-	 */
-	private float gatherSkill;
-
-	/**
-	 * A percentual value describing the sacrificing skill of the owner of the
-	 * characteristics.
-	 */
-	private float sacrificeSkill;
-
-	/**
-	 * A percentual value describing the transportation skill of the owner of
-	 * the characteristics.
-	 */
-	private float transportationSkill;
-
-	/**
-	 * A percentual value (procentual units) describing the current maximum
-	 * possible health of the owner of the characteristics.
+	 * Constructs default characteristics, stored in a store of its own.
 	 */
-	private float maximumHealth;
+	public Characteristics(int gender, int age) {
+		this(gender, age, null);
+	}
 
 	/**
-	 * The age of the Indivudal when the game started. Of course only applicable
-	 * when a new game is created.
+	 * Constructs default characteristics, stored in the given store.
+	 *
+	 * @param gender the gender.
+	 * @param age the age.
+	 * @param store the store, or null to use a store of its own.
 	 */
-	private int startAge;
+	public Characteristics(int gender, int age, IndividualStore store) {
+		if (store == null) {
+			store = new IndividualStore(1, false);
+		}
+		this.store = store;
+		slot = store.allocate();
 
-	/**
-	 * Constructs default characteristics.
-	 */
-	public Characteristics(int gender, int age) {
-		saturation = World.getEnvironment().getDefaultNeedValue();
-		happiness = World.getEnvironment().getDefaultNeedValue();
+		store.saturation[slot] = World.getEnvironment().getDefaultNeedValue();
+		store.happiness[slot] = World.getEnvironment().getDefaultNeedValue();
 		// The value will be recalculates immideately
-		safety = 1.0f;
+		store.safety[slot] = 1.0f;
 
 		// Set up the randomizers
 		hungryRandomizer = new IntervalRandomizer(World.getEnvironment().getNeedInterval());
@@ -169,64 +208,176 @@ public class Characteristics implements Serializable {
 		strollRandomizer = new IntervalRandomizer(World.getEnvironment().getStrollInterval());
 
 		// Set health, with max health as the full health
-		maximumHealth = 1f;
+		store.maximumHealth[slot] = 1f;
 		recalculateHealth();
 
 		this.gender = gender;
 
-		startAge = age;
-		timeOfBirth = World.getWorld().getWorldTime();
+		store.startAge[slot] = age;
+		store.timeOfBirth[slot] = World.getWorld().getWorldTime();
 
-		gatherSkill = World.getEnvironment().getDefaultSkillValue();
-		sacrificeSkill = World.getEnvironment().getDefaultSkillValue();
-		transportationSkill = World.getEnvironment().getDefaultSkillValue();
+		store.gatherSkill[slot] = World.getEnvironment().getDefaultSkillValue();
+		store.sacrificeSkill[slot] = World.getEnvironment().getDefaultSkillValue();
+		store.transportationSkill[slot] = World.getEnvironment().getDefaultSkillValue();
 
 	}
 
 	/**
 	 * Constructs the characteristics from two other characteristics, used
-	 * for merging of two parent's characteristics into the child.
+	 * for merging of two parent's characteristics into the child. Is stored
+	 * in a store of its own.
 	 */
 	public Characteristics(
 			Characteristics firstCharacteristics, Characteristics secondCharacteristics) {
+		this(firstCharacteristics, secondCharacteristics, null);
+	}
+
+	/**
+	 * Constructs the characteristics from two other characteristics, used
+	 * for merging of two parent's characteristics into the child.
+	 *
+	 * @param firstCharacteristics the characteristics of the first parent.
+	 * @param secondCharacteristics the characteristics of the second parent.
+	 * @param store the store, or null to use a store of its own.
+	 */
+	public Characteristics(
+			Characteristics firstCharacteristics, Characteristics secondCharacteristics,
+			IndividualStore store) {
 
 		// Randomize a gender and create the characteristics with zero age
-		this((int)Math.round(Math.random()), 0);
+		this(World.getWorld().getRandom().nextInt(2), 0, store);
 
 		// Sets the skills to appropriate values according to the parents skills
 
 		// TODO There should be a "loss" of skill between generations, i.e. that
 		// TODO the childs skill isn't just a mean value of the parent's skills.
-		gatherSkill = (firstCharacteristics.getGatherSkill() +
+		this.store.gatherSkill[slot] = (firstCharacteristics.getGatherSkill() +
 				secondCharacteristics.getGatherSkill()) / 2f;
-		sacrificeSkill = (firstCharacteristics.getSacrificeSkill() +
+		this.store.sacrificeSkill[slot] = (firstCharacteristics.getSacrificeSkill() +
 				secondCharacteristics.getSacrificeSkill()) / 2f;
-		transportationSkill = (firstCharacteristics.getTransportationSkill() +
+		this.store.transportationSkill[slot] = (firstCharacteristics.getTransportationSkill() +
 				secondCharacteristics.getTransportationSkill()) / 2f;
 	}
 
+	/**
+	 * Restores characteristics that have been saved. If the values were
+	 * saved in the columns of a store, the characteristics claim their slot
+	 * in the restored store, and otherwise they get a new slot of the store
+	 * of the world, or of a store of its own if the world has none. The
+	 * coordinates, direction and speed of the slot are set when the owner
+	 * attaches its position and velocity.
+	 *
+	 * @param record the record that the characteristics were saved as.
+	 * @param reader the reader that restores the randomizers.
+	 * @exception IOException if a randomizer or the store hasn't been
+	 * restored.
+	 */
+	private Characteristics(SaveRecord record, WorldReader reader)
+			throws IOException {
+		gender = record.getInt(GENDER);
+		hungryRandomizer = (Randomizer) reader.getObject(record, HUNGRY_RANDOMIZER);
+		depressedRandomizer = (Randomizer) reader.getObject(record, DEPRESSED_RANDOMIZER);
+		unsafeRandomizer = (Randomizer) reader.getObject(record, UNSAFE_RANDOMIZER);
+		strollRandomizer = (Randomizer) reader.getObject(record, STROLL_RANDOMIZER);
+		store = (IndividualStore) reader.getObject(record, STORE);
+		if (store != null) {
+			slot = store.claim(record.getInt(SLOT));
+			return;
+		}
+		store = World.getWorld().getIndividualStore();
+		if (store == null) {
+			store = new IndividualStore(1, false);
+		}
+		slot = store.allocate();
+		store.saturation[slot] = record.getFloat(SATURATION);
+		store.happiness[slot] = record.getFloat(HAPPINESS);
+		store.safety[slot] = record.getFloat(SAFETY);
+		store.health[slot] = record.getFloat(HEALTH);
+		store.maximumHealth[slot] = record.getFloat(MAXIMUM_HEALTH);
+		store.timeOfBirth[slot] = record.getFloat(TIME_OF_BIRTH);
+		store.gatherSkill[slot] = record.getFloat(GATHER_SKILL);
+		store.sacrificeSkill[slot] = record.getFloat(SACRIFICE_SKILL);
+		store.transportationSkill[slot] = record.getFloat(TRANSPORTATION_SKILL);
+		store.startAge[slot] = record.getInt(START_AGE);
+	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		record.setInt(GENDER, gender);
+		record.setReference(HUNGRY_RANDOMIZER, writer.reference(hungryRandomizer));
+		record.setReference(DEPRESSED_RANDOMIZER, writer.reference(depressedRandomizer));
+		record.setReference(UNSAFE_RANDOMIZER, writer.reference(unsafeRandomizer));
+		record.setReference(STROLL_RANDOMIZER, writer.reference(strollRandomizer));
+		if (writer.getRegion(store) >= 0) {
+			// The values are saved in the columns of the store.
+			record.setReference(STORE, writer.reference(store));
+			record.setInt(SLOT, slot);
+		} else {
+			saveSlot(store, slot, record);
+		}
+	}
+
+	/**
+	 * Saves the values of a slot of a store in the fields of a record of
+	 * characteristics.
+	 *
+	 * @param store the store.
+	 * @param slot the slot.
+	 * @param record the record.
+	 */
+	static void saveSlot(IndividualStore store, int slot, SaveRecord record) {
+		record.setFloat(SATURATION, store.saturation[slot]);
+		record.setFloat(HAPPINESS, store.happiness[slot]);
+		record.setFloat(SAFETY, store.safety[slot]);
+		record.setFloat(HEALTH, store.health[slot]);
+		record.setFloat(MAXIMUM_HEALTH, store.maximumHealth[slot]);
+		record.setFloat(TIME_OF_BIRTH, store.timeOfBirth[slot]);
+		record.setFloat(GATHER_SKILL, store.gatherSkill[slot]);
+		record.setFloat(SACRIFICE_SKILL, store.sacrificeSkill[slot]);
+		record.setFloat(TRANSPORTATION_SKILL, store.transportationSkill[slot]);
+		record.setInt(START_AGE, store.startAge[slot]);
+	}
+
+	/**
+	 * Returns the store that holds the values.
+	 *
+	 * @return the IndividualStore.
+	 */
+	IndividualStore getStore() {
+		return store;
+	}
+
+	/**
+	 * Returns the slot of the values in the store.
+	 *
+	 * @return the slot.
+	 */
+	int getSlot() {
+		return slot;
+	}
+
+	/**
+	 * Releases the slot in the store when the owner has died. The values can
+	 * still be read until the store is recalculated the next time.
+	 */
+	void release() {
+		store.release(slot);
+	}
+
 	/**
 	 * Increases the saturation with an amount specified by a constant
 	 * (getUnitNeedRatio).
 	 */
 	public void increaseSaturation() {
-		saturation += World.getEnvironment().getUnitNeedRatio();
+		float saturation = store.saturation[slot] +
+				World.getEnvironment().getUnitNeedRatio();
 		if(saturation > 1f) {
 			saturation = 1f;
 		}
-	}
-
-	/**
-	 * Decreases the saturation with an amount calculated from the time since
-	 * the last update cycle multiplied by a constant (getNeedDecreaseSpeed).
-	 * Needs to be called every update cycle to calculate correctly.
-	 */
-	void decreaseSaturation() {
-		// Calculates the factor of decrease that should be multiplied
-		// with the saturation
-		float decreaseFactor = 1 - (World.getEnvironment().getNeedDecreaseSpeed() *
-				World.getWorld().getTimeSinceCycle());
-		saturation *= decreaseFactor;
+		store.saturation[slot] = saturation;
 	}
 
 	/**
@@ -234,46 +385,32 @@ public class Characteristics implements Serializable {
 	 * (getUnitNeedRatio).
 	 */
 	public void increaseHappiness() {
-		happiness += World.getEnvironment().getUnitNeedRatio();
-			if(happiness > 1f) {
-				happiness = 1f;
+		float happiness = store.happiness[slot] +
+				World.getEnvironment().getUnitNeedRatio();
+		if(happiness > 1f) {
+			happiness = 1f;
 		}
+		store.happiness[slot] = happiness;
 	}
 
 	/**
-	 * Decreases the happiness with an amount calculated from the time since
+	 * Recalculates the values that change every update cycle, unless the
+	 * store does it for all individuals at once. The saturation and the
+	 * happiness are decreased with an amount calculated from the time since
 	 * the last update cycle multiplied by a constant (getNeedDecreaseSpeed).
-	 * Needs to be called every update cycle to calculate correctly.
-	 */
-	void decreaseHappiness() {
-		// Calculates the factor of decrease that should be multiplied
-		// with the happiness
-		float decreaseFactor = 1 - (World.getEnvironment().getNeedDecreaseSpeed() *
-				World.getWorld().getTimeSinceCycle());
-		happiness *= decreaseFactor;
-	}
-
-	/**
-	 * Sets the safety according to the given Point. The safety is calculated
-	 * through the distance from the light pillar, with a constant
-	 * (getSacrificedUnitsDistanceRatio).
+	 * The safety is calculated through the distance from the light pillar to
+	 * the given coordinates, so that safety = safetyDecrease ^ distance outside of
+	 * the influence radius. Then the health is recalculated. Needs to be
+	 * called every update cycle to calculate correctly.
 	 *
-	 * @param point the Point describing the position of the owner of the
-	 * characteristics.
-	 */
-	void setSafety(Point point) {
-		LightPillarNode lightPillar = World.getWorld().getLightPillar();
-		float distance = point.distanceTo(lightPillar.getPoint());
-		distance = distance - lightPillar.getInfluenceRadius();
-		if(distance > 0) {
-			// Decreases the safety (which is 1) with the percentual value
-			// that is defined by safetyDecreaseFactor. The decrease is made
-			// distance times, so that safety = safetyDecrease ^ distance.
-			safety = (float)Math.pow(World.getEnvironment().getSafetyDecreaseFactor(),
-					distance);
-		}
-		else {
-			safety = 1;
+	 * @param x the X coordinate of the owner of the characteristics.
+	 * @param y the Y coordinate of the owner of the characteristics.
+	 */
+	void recalculate(float x, float y) {
+		if (!store.isBatched()) {
+			store.x[slot] = x;
+			store.y[slot] = y;
+			store.recalculate(slot, slot + 1);
 		}
 	}
 
@@ -283,7 +420,7 @@ public class Characteristics implements Serializable {
 	 * @return a float describing the current safety.
 	 */
 	public float getSafety() {
-		return safety;
+		return store.safety[slot];
 	}
 
 	/**
@@ -292,7 +429,7 @@ public class Characteristics implements Serializable {
 	 * @return a float describing the current saturation.
 	 */
 	public float getSaturation() {
-		return saturation;
+		return store.saturation[slot];
 	}
 
 	/**
@@ -301,30 +438,32 @@ public class Characteristics implements Serializable {
 	 * @return a float describing the current happiness.
 	 */
 	public float getHappiness() {
-		return happiness;
+		return store.happiness[slot];
 	}
 
 	/**
 	 * Recalculates the health using the mean value of the three needs and the
 	 * time since the last cycle. Health cannot be greater than the current
 	 * maximum health, which is decreased constantly with a percentual
-	 * constant. Needs to be called every update cycle to calculate correctly.
+	 * constant. Is called when the characteristics are created, after that
+	 * the health is recalculated by recalculate().
 	 */
-	void recalculateHealth() {
+	private void recalculateHealth() {
 		// Calculates the factor of decrease that should be multiplied
 		// with the maximum health
 		if(!isChild()) {
 			float agingFactor = 1 - (World.getEnvironment().getAgingFactor() *
 					World.getWorld().getTimeSinceCycle());
-			maximumHealth *= agingFactor;
+			store.maximumHealth[slot] *= agingFactor;
 		}
 
-		float newHealth = (saturation + happiness + (safety / 2f) ) / 3f;
-		if(newHealth > maximumHealth) {
-			newHealth = maximumHealth;
+		float newHealth = (store.saturation[slot] + store.happiness[slot] +
+				(store.safety[slot] / 2f) ) / 3f;
+		if(newHealth > store.maximumHealth[slot]) {
+			newHealth = store.maximumHealth[slot];
 		}
 
-		health = newHealth;
+		store.health[slot] = newHealth;
 	}
 
 	/**
@@ -333,7 +472,7 @@ public class Characteristics implements Serializable {
 	 * @return a float describing the current health.
 	 */
 	public float getHealth() {
-		return health;
+		return store.health[slot];
 	}
 
 	/**
@@ -351,7 +490,7 @@ public class Characteristics implements Serializable {
 	 * @return a float describing the current gather skill.
 	 */
 	public float getGatherSkill() {
-		return gatherSkill;
+		return store.gatherSkill[slot];
 	}
 
 	/**
@@ -360,7 +499,7 @@ public class Characteristics implements Serializable {
 	 * @return a float describing the current sacrifice skill.
 	 */
 	public float getSacrificeSkill() {
-		return sacrificeSkill;
+		return store.sacrificeSkill[slot];
 	}
 
 	/**
@@ -369,7 +508,7 @@ public class Characteristics implements Serializable {
 	 * @return a float describing the current transportation skill.
 	 */
 	public float getTransportationSkill() {
-		return transportationSkill;
+		return store.transportationSkill[slot];
 	}
 
 	/**
@@ -380,7 +519,8 @@ public class Characteristics implements Serializable {
 	 * when gathering.
 	 */
 	public float getGatherEfficiency() {
-		return	percentToFactor(gatherSkill) * percentToFactor(health);
+		return	percentToFactor(store.gatherSkill[slot]) *
+				percentToFactor(store.health[slot]);
 
 	}
 
@@ -392,7 +532,8 @@ public class Characteristics implements Serializable {
 	 * when sacrificing.
 	 */
 	public float getSacrificeEfficiency() {
-		return	percentToFactor(sacrificeSkill) * percentToFactor(health);
+		return	percentToFactor(store.sacrificeSkill[slot]) *
+				percentToFactor(store.health[slot]);
 	}
 
 	/**
@@ -403,7 +544,8 @@ public class Characteristics implements Serializable {
 	 * when transporting.
 	 */
 	public float getTransportationEfficiency() {
-		return	percentToFactor(transportationSkill) * percentToFactor(health);
+		return	percentToFactor(store.transportationSkill[slot]) *
+				percentToFactor(store.health[slot]);
 	}
 
 	/**
@@ -417,9 +559,9 @@ public class Characteristics implements Serializable {
 			// timeSinceCycle, but then modified with a factor of how close
 			// the maximum skill value the current skill is. This means that
 			// the skill will never increase to over 1f.
-			gatherSkill += World.getEnvironment().getSkillIncreaseSpeed() *
+			store.gatherSkill[slot] += World.getEnvironment().getSkillIncreaseSpeed() *
 					World.getWorld().getTimeSinceCycle() *
-					(1f - gatherSkill);
+					(1f - store.gatherSkill[slot]);
 			// Decrease the other two skills.
 			decreaseSacrificeSkill();
 			decreaseTransportationSkill();
@@ -437,9 +579,9 @@ public class Characteristics implements Serializable {
 			// timeSinceCycle, but then modified with a factor of how close
 			// the maximum skill value the current skill is. This means that
 			// the skill will never increase to over 1f.
-			sacrificeSkill += World.getEnvironment().getSkillIncreaseSpeed() *
+			store.sacrificeSkill[slot] += World.getEnvironment().getSkillIncreaseSpeed() *
 					World.getWorld().getTimeSinceCycle() *
-					(1f - sacrificeSkill);
+					(1f - store.sacrificeSkill[slot]);
 			// Decrease the other two skills.
 			decreaseGatherSkill();
 			decreaseTransportationSkill();
@@ -457,9 +599,9 @@ public class Characteristics implements Serializable {
 			// timeSinceCycle, but then modified with a factor of how close
 			// the maximum skill value the current skill is. This means that
 			// the skill will never increase to over 1f.
-			transportationSkill += World.getEnvironment().getSkillIncreaseSpeed() *
+			store.transportationSkill[slot] += World.getEnvironment().getSkillIncreaseSpeed() *
 					World.getWorld().getTimeSinceCycle() *
-					(1f - transportationSkill);
+					(1f - store.transportationSkill[slot]);
 			// Decrease the other two skills.
 			decreaseSacrificeSkill();
 			decreaseGatherSkill();
@@ -476,7 +618,7 @@ public class Characteristics implements Serializable {
 
 		// Make it more likely to eat when we're really hungry.
 		float probabilityModifier =
-				World.getEnvironment().getDefaultNeedValue() / saturation;
+				World.getEnvironment().getDefaultNeedValue() / store.saturation[slot];
 
 		// Time to eat?
 		if (hungryRandomizer.isSuccessful(probabilityModifier)) {
@@ -497,7 +639,7 @@ public class Characteristics implements Serializable {
 
 		// Make it more likely to eat when we're really depressed.
 		float probabilityModifier =
-				World.getEnvironment().getDefaultNeedValue() / happiness;
+				World.getEnvironment().getDefaultNeedValue() / store.happiness[slot];
 
 		// Time to get happy?
 		if (depressedRandomizer.isSuccessful(probabilityModifier)) {
@@ -518,7 +660,7 @@ public class Characteristics implements Serializable {
 
 		// Make it more likely to feel unsafe when the safety is very low
 		float probabilityModifier =
-				World.getEnvironment().getDefaultNeedValue() / safety;
+				World.getEnvironment().getDefaultNeedValue() / store.safety[slot];
 
 		// Time to get safe?
 		if (unsafeRandomizer.isSuccessful(probabilityModifier)) {
@@ -554,9 +696,9 @@ public class Characteristics implements Serializable {
 		// timeSinceCycle, but then modified with a factor of how close
 		// the mininimum skill value the current skill is. This means that
 		// the skill will never decrease to less than 0f.
-		gatherSkill -= World.getEnvironment().getSkillDecreaseSpeed() *
+		store.gatherSkill[slot] -= World.getEnvironment().getSkillDecreaseSpeed() *
 				World.getWorld().getTimeSinceCycle() *
-				gatherSkill;
+				store.gatherSkill[slot];
 	}
 
 	/**
@@ -568,9 +710,9 @@ public class Characteristics implements Serializable {
 		// timeSinceCycle, but then modified with a factor of how close
 		// the mininimum skill value the current skill is. This means that
 		// the skill will never decrease to less than 0f.
-		sacrificeSkill -= World.getEnvironment().getSkillDecreaseSpeed() *
+		store.sacrificeSkill[slot] -= World.getEnvironment().getSkillDecreaseSpeed() *
 				World.getWorld().getTimeSinceCycle() *
-				sacrificeSkill;
+				store.sacrificeSkill[slot];
 	}
 
 	/**
@@ -582,9 +724,9 @@ public class Characteristics implements Serializable {
 		// timeSinceCycle, but then modified with a factor of how close
 		// the mininimum skill value the current skill is. This means that
 		// the skill will never decrease to less than 0f.
-		transportationSkill -= World.getEnvironment().getSkillDecreaseSpeed() *
+		store.transportationSkill[slot] -= World.getEnvironment().getSkillDecreaseSpeed() *
 				World.getWorld().getTimeSinceCycle() *
-				transportationSkill;
+				store.transportationSkill[slot];
 	}
 
 	/**
@@ -596,9 +738,9 @@ public class Characteristics implements Serializable {
 	 */
 	public int getAge() {
 		return (int) (
-				(World.getWorld().getWorldTime() - timeOfBirth) /
+				(World.getWorld().getWorldTime() - store.timeOfBirth[slot]) /
 				World.getEnvironment().getYearSecondsRatio()
-				) + startAge;
+				) + store.startAge[slot];
 	}
 
 	/**
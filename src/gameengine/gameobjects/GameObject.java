@@ -1,4 +1,24 @@
 /* 
+ * 2026-10-18 agent
+ * 	getRecordTypes() lists the type of IndividualStore.
+ *
+ * 2026-10-18 agent
+ * 	Added collectChangedResources(), for the autosave.
+ *
+ * 2026-10-18 agent
+ * 	Implements Saveable. The record types of the game objects extend
+ * 	RECORD_TYPE, and getRecordTypes() lists all types of this package.
+ *
+ * 2026-10-18 agent
+ * 	Added getX, getY, getPreviousX and getPreviousY, which don't create
+ * 	any Points.
+ *
+ * 2026-10-18 agent
+ * 	Added getPreviousPoint, used for the render snapshots.
+ *
+ * 2026-10-18 agent
+ * 	Added getInterpolatedPoint.
+ *
  * 2003-05-20 EliasAE
  * 	Added descriptions.
  *
@@ -43,7 +63,28 @@ import java.io.*;
  * &quot;exists&quot; in the game world as some sort of object.
  */
 public abstract class GameObject
-		implements Serializable, PositionContainer, Deletable {
+		implements Serializable, PositionContainer, Deletable, Saveable {
+
+	/**
+	 * The type that the record types of the subclasses extend. The position
+	 * is kept in the fields from x to pointTick, see Position.save().
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("GameObject", null,
+			new String[] {"deleted", "description", "name",
+					"x", "y", "located", "previousX", "previousY",
+					"previousLocated", "pointTick"},
+			new int[] {RecordType.BOOLEAN, RecordType.STRING, RecordType.STRING,
+					RecordType.FLOAT, RecordType.FLOAT, RecordType.BOOLEAN,
+					RecordType.FLOAT, RecordType.FLOAT, RecordType.BOOLEAN,
+					RecordType.LONG});
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int DELETED = RECORD_TYPE.getFieldIndex("deleted");
+	private static final int DESCRIPTION = RECORD_TYPE.getFieldIndex("description");
+	private static final int NAME = RECORD_TYPE.getFieldIndex("name");
+	static final int POSITION = RECORD_TYPE.getFieldIndex("x");
 
 	private boolean deleted = false;
 
@@ -73,6 +114,64 @@ public abstract class GameObject
 		position.setPoint(point);
 	}
 
+	/**
+	 * Restores a game object that has been saved. It isn't registered with
+	 * World, since the lists of the world are restored as they were.
+	 *
+	 * @param record the record that the game object was saved as.
+	 */
+	protected GameObject(SaveRecord record) {
+		deleted = record.getBoolean(DELETED);
+		description = record.getString(DESCRIPTION);
+		name = record.getString(NAME);
+		position = new Position();
+		position.restore(record, POSITION);
+	}
+
+	/**
+	 * Returns the record types of the classes of this package that are saved
+	 * with the world.
+	 *
+	 * @return the record types.
+	 */
+	public static RecordType[] getRecordTypes() {
+		return new RecordType[] {
+			Resources.RECORD_TYPE,
+			IndividualStore.RECORD_TYPE,
+			Characteristics.RECORD_TYPE,
+			Individual.RECORD_TYPE,
+			Individual.TASKS_RECORD_TYPE,
+			Node.RECORD_TYPE,
+			SourceNode.RECORD_TYPE,
+			LightPillarNode.RECORD_TYPE,
+			SpecialPoint.RECORD_TYPE,
+			SocializeGroup.RECORD_TYPE,
+			Bird.RECORD_TYPE
+		};
+	}
+
+	/**
+	 * Saves the fields of the game object. Subclasses that have fields of
+	 * their own must save them as well, after calling this method.
+	 */
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		record.setBoolean(DELETED, deleted);
+		record.setString(DESCRIPTION, description);
+		record.setString(NAME, name);
+		position.save(record, POSITION);
+	}
+
+	/**
+	 * Adds the Resources of the game object whose amounts have changed since
+	 * they were last collected to a list, see Resources.takeChanged(). A
+	 * game object has none, but the subclasses that hold resources add
+	 * theirs.
+	 *
+	 * @param changed the list to add the Resources to.
+	 */
+	public void collectChangedResources(List changed) {
+	}
+
 	/**
 	 * Sets the description of the GameObject.
 	 * 
@@ -140,6 +239,84 @@ public abstract class GameObject
 		return position.getPoint();
 	}
 
+	/**
+	 * Returns the X coordinate of the position of the GameObject.
+	 *
+	 * @return the X coordinate of the GameObject.
+	 */
+	public float getX() {
+		if (isDeleted()) {
+			throw new ObjectDeletedException(this);
+		}
+		return position.getX();
+	}
+
+	/**
+	 * Returns the Y coordinate of the position of the GameObject.
+	 *
+	 * @return the Y coordinate of the GameObject.
+	 */
+	public float getY() {
+		if (isDeleted()) {
+			throw new ObjectDeletedException(this);
+		}
+		return position.getY();
+	}
+
+	/**
+	 * Returns the X coordinate of the position of the GameObject at the start
+	 * of the last tick.
+	 *
+	 * @return the X coordinate at the start of the last tick.
+	 */
+	public float getPreviousX() {
+		if (isDeleted()) {
+			throw new ObjectDeletedException(this);
+		}
+		return position.getPreviousX();
+	}
+
+	/**
+	 * Returns the Y coordinate of the position of the GameObject at the start
+	 * of the last tick.
+	 *
+	 * @return the Y coordinate at the start of the last tick.
+	 */
+	public float getPreviousY() {
+		if (isDeleted()) {
+			throw new ObjectDeletedException(this);
+		}
+		return position.getPreviousY();
+	}
+
+	/**
+	 * Returns a Point with the position of the GameObject at the start of the
+	 * last tick.
+	 *
+	 * @return a Point with the position at the start of the last tick.
+	 */
+	public Point getPreviousPoint() {
+		if (isDeleted()) {
+			throw new ObjectDeletedException(this);
+		}
+		return position.getPreviousPoint();
+	}
+
+	/**
+	 * Returns a Point with the position of the GameObject interpolated
+	 * between the last two ticks, according to World.getInterpolation().
+	 * Should be used when drawing the GameObject, so that it moves smoothly
+	 * even if the world is updated more seldom than it is drawn.
+	 *
+	 * @return a Point with the interpolated position of the GameObject.
+	 */
+	public Point getInterpolatedPoint() {
+		if (isDeleted()) {
+			throw new ObjectDeletedException(this);
+		}
+		return position.getInterpolatedPoint(World.getWorld().getInterpolation());
+	}
+
 	/**
 	 * Deletes the object.
 	 */
@@ -1,4 +1,50 @@
-/* 2003-05-19 Martin
+/* 2026-10-18 agent
+ *	Added saveSlot() and getSlot(), for the autosave, and collects its
+ *	changed resources.
+ *
+ * 2026-10-18 agent
+ *	The position and velocity are detached from the slot when it is
+ *	released.
+ *
+ * 2026-10-18 agent
+ *	update() tells the world how long the needs were checked, for the
+ *	FrameProfiler.
+ *
+ * 2026-10-18 agent
+ *	Births and deaths are only printed if World.isLoggingEvents().
+ *
+ * 2026-10-18 agent
+ *	Saves the same record of its tasks each time, so that an autosave
+ *	only writes it again when the tasks have changed.
+ *
+ * 2026-10-18 agent
+ *	Is saved as a record without its tasks, which are saved later as an
+ *	IndividualTasks record, since the tasks reference the individual and
+ *	its socialize group, which references the individual as well.
+ *
+ * 2026-10-18 agent
+ *	Added getDirection(). Recalculates with the coordinates of the position
+ *	instead of its Point.
+ *
+ * 2026-10-18 agent
+ *	The characteristics, position and velocity are stored in the
+ *	IndividualStore of the world, which recalculates all individuals at
+ *	once, when the world has one.
+ *
+ * 2026-10-18 agent
+ *	Added a RandomSource of its own, split from the world's, which is used
+ *	while the individual is updated. The commanded task and the printing of
+ *	the death are deferred with World.defer(), since the individuals are
+ *	updated in parallel.
+ *
+ * 2026-10-18 agent
+ *	The names and the socialization decision use the RandomSource of the
+ *	world instead of Math.random().
+ *
+ * 2026-10-18 agent
+ *	The needcheck uses getClosest() on the lists instead of sorting them.
+ *
+ * 2003-05-19 Martin
  *	Commented needcheck.
  *
  * 2003-05-13 Martin
@@ -50,13 +96,18 @@ package gameengine.gameobjects;
 import gameengine.*;
 import gameengine.tasksystem.*;
 
+import java.io.IOException;
+import java.util.List;
+
 /**
  * The most important game object, describing the individual members of the
  * game's civilization. It contains get methods for relevant, open
  * information, such as age or gender, and also methods for adding
  * commanded tasks. The individual has a variable for a commanded task, a
  * list of uncommanded task, and the attribute objects Characteristics,
- * Velocity, Position and Resources.
+ * Velocity, Position and Resources. The values of the characteristics,
+ * position and velocity are kept in a slot of the world's IndividualStore,
+ * if the world has one, so the Individual is mostly a view over that slot.
  * Is registered to the list of all objects when created and unregistered
  * when the needcheck has confirmed a death.
  */
@@ -64,6 +115,52 @@ public class Individual extends GameObject
 		implements Updateable, VelocityContainer, ResourceContainer,
 		CharacteristicsContainer, TaskContainer {
 
+	/**
+	 * The type of the records that individuals are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("Individual",
+			GameObject.RECORD_TYPE,
+			new String[] {"direction", "magnitude", "characteristics",
+					"resources", "killRandomizer", "random"},
+			new int[] {RecordType.FLOAT, RecordType.FLOAT, RecordType.REFERENCE,
+					RecordType.REFERENCE, RecordType.REFERENCE,
+					RecordType.REFERENCE}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new Individual(record, reader);
+		}
+	};
+
+	/**
+	 * The type of the records that the tasks of individuals are saved as.
+	 */
+	static final RecordType TASKS_RECORD_TYPE = new RecordType("IndividualTasks",
+			null,
+			new String[] {"individual", "tasks", "commandedTask"},
+			new int[] {RecordType.REFERENCE, RecordType.REFERENCE_ARRAY,
+					RecordType.REFERENCE}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			Individual individual =
+					(Individual) reader.getObject(record, TASKS_INDIVIDUAL);
+			individual.restoreTasks(record, reader);
+			return null;
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int DIRECTION = RECORD_TYPE.getFieldIndex("direction");
+	private static final int MAGNITUDE = RECORD_TYPE.getFieldIndex("magnitude");
+	private static final int CHARACTERISTICS = RECORD_TYPE.getFieldIndex("characteristics");
+	private static final int RESOURCES = RECORD_TYPE.getFieldIndex("resources");
+	private static final int KILL_RANDOMIZER = RECORD_TYPE.getFieldIndex("killRandomizer");
+	private static final int RANDOM = RECORD_TYPE.getFieldIndex("random");
+	private static final int TASKS_INDIVIDUAL = TASKS_RECORD_TYPE.getFieldIndex("individual");
+	private static final int TASKS = TASKS_RECORD_TYPE.getFieldIndex("tasks");
+	private static final int COMMANDED_TASK = TASKS_RECORD_TYPE.getFieldIndex("commandedTask");
+
 	/**
 	 * The list of independent (not commanded) tasks.
 	 */
@@ -74,6 +171,12 @@ public class Individual extends GameObject
 	 */
 	private Task commandedTask;
 
+	/**
+	 * The record of the tasks, which is kept so that it is the same object
+	 * each time the individual is saved, see IncrementalWriter.
+	 */
+	private transient TaskRecord taskRecord;
+
 	/**
 	 * The attribute of velocity for the individual.
 	 */
@@ -94,6 +197,12 @@ public class Individual extends GameObject
 	 */
 	private Randomizer killRandomizer;
 
+	/**
+	 * The random numbers used while the individual is updated, so that they
+	 * don't depend on the order in which the individuals are updated.
+	 */
+	private RandomSource random;
+
 	/**
 	 * Constructs an adult Individual at a specified position. With the specified
 	 * gender. (The age is set to 18). It also registers the Individual at the World.
@@ -108,10 +217,13 @@ public class Individual extends GameObject
 		// Gives the turtle a Velocity with zero angle and the default speed
 		velocity = new Velocity(0.0f,World.getEnvironment().getIndividualSpeed());
 
-		characteristics = new Characteristics(gender, 18);
+		characteristics = new Characteristics(gender, 18,
+				World.getWorld().getIndividualStore());
+		attachToStore();
 		resources = new Resources();
 		String[] names = Environment.INDIVIDUAL_NAMES[gender];
-		super.setName(names[(int)(Math.random()*names.length)]);
+		super.setName(names[World.getWorld().getRandom().nextInt(names.length)]);
+		random = World.getWorld().getRandom().split();
 
 		// TODO Take value from Environment.
 		killRandomizer = new ProbabilityRandomizer(0.01f);
@@ -141,17 +253,116 @@ public class Individual extends GameObject
 		velocity = new Velocity(0.0f,World.getEnvironment().getIndividualSpeed());
 
 		characteristics = new Characteristics(firstParent.characteristics,
-				secondParent.characteristics);
+				secondParent.characteristics,
+				World.getWorld().getIndividualStore());
+		attachToStore();
 		resources = new Resources();
 		String[] names = Environment.INDIVIDUAL_NAMES[getGender()];
-		super.setName(names[(int)(Math.random()*names.length)]);
+		super.setName(names[World.getWorld().getRandom().nextInt(names.length)]);
+		random = World.getWorld().getRandom().split();
 
 		taskList = new TaskList();
 		// TODO Take value from Environment.
 		killRandomizer = new ProbabilityRandomizer(World.getEnvironment().getMinimumNeed());
 
 		World.getWorld().register(this);
-		System.out.println(name + " was born");
+		if (World.isLoggingEvents()) {
+			System.out.println(name + " was born");
+		}
+	}
+
+	/**
+	 * Restores an individual that has been saved, without its tasks, which
+	 * are restored by restoreTasks(). A deleted individual gives up the slot
+	 * of its characteristics at once.
+	 *
+	 * @param record the record that the individual was saved as.
+	 * @param reader the reader that restores the referenced objects.
+	 * @exception IOException if a referenced object hasn't been restored.
+	 */
+	private Individual(SaveRecord record, WorldReader reader) throws IOException {
+		super(record);
+		velocity = new Velocity(record.getFloat(DIRECTION), record.getFloat(MAGNITUDE));
+		characteristics = (Characteristics) reader.getObject(record, CHARACTERISTICS);
+		attachToStore();
+		resources = (Resources) reader.getObject(record, RESOURCES);
+		killRandomizer = (Randomizer) reader.getObject(record, KILL_RANDOMIZER);
+		random = (RandomSource) reader.getObject(record, RANDOM);
+		taskList = new TaskList();
+		if (isDeleted()) {
+			releaseStore();
+		}
+	}
+
+	/**
+	 * Restores the tasks of the individual from an IndividualTasks record.
+	 * The tasks are given the private information of the individual, but
+	 * keep the sub tasks they were saved with.
+	 *
+	 * @param record the IndividualTasks record.
+	 * @param reader the reader that has restored the tasks.
+	 * @exception IOException if a task hasn't been restored.
+	 */
+	private void restoreTasks(SaveRecord record, WorldReader reader)
+			throws IOException {
+		int[] tasks = record.getArray(TASKS);
+		for (int i = 0; i < tasks.length; i++) {
+			Task task = (Task) reader.getObject(tasks[i]);
+			if (task != null) {
+				task.restorePrivateInformation(position, velocity,
+						characteristics, resources);
+				taskList.addTask(task);
+			}
+		}
+		commandedTask = (Task) reader.getObject(record, COMMANDED_TASK);
+		if (commandedTask != null) {
+			commandedTask.restorePrivateInformation(position, velocity,
+					characteristics, resources);
+		}
+	}
+
+	/**
+	 * Attaches the position and velocity to the slot of the characteristics
+	 * in its store.
+	 */
+	private void attachToStore() {
+		position.attach(characteristics.getStore(), characteristics.getSlot());
+		velocity.attach(characteristics.getStore(), characteristics.getSlot());
+	}
+
+	/**
+	 * Returns the slot of the individual in a store.
+	 *
+	 * @param store the store.
+	 * @return the slot, or -1 if the individual isn't stored in the store.
+	 */
+	int getSlot(IndividualStore store) {
+		return (characteristics.getStore() == store) ?
+				characteristics.getSlot() : -1;
+	}
+
+	/**
+	 * Saves the position and velocity kept in a slot of a store in the
+	 * fields of a record of an individual.
+	 *
+	 * @param store the store.
+	 * @param slot the slot.
+	 * @param record the record.
+	 */
+	static void saveSlot(IndividualStore store, int slot, SaveRecord record) {
+		Position.saveSlot(store, slot, record, POSITION);
+		record.setFloat(DIRECTION, store.direction[slot]);
+		record.setFloat(MAGNITUDE, store.speed[slot]);
+	}
+
+	/**
+	 * Releases the slot of the characteristics in its store, and detaches
+	 * the position and velocity from it, since it will be reused.
+	 */
+	private void releaseStore() {
+		position.detach();
+		velocity.detach();
+		characteristics.release();
 	}
 
 	/**
@@ -159,28 +370,32 @@ public class Individual extends GameObject
 	 * Individual's attribute objects (Position, Velocity, Characteristics and
 	 * Resources) and then executing the current task, by calling
 	 * execute() from the Individuals TaskList or from the current commanded
-	 * task.
+	 * task. The time until the task is executed is measured as the need
+	 * check of the FrameProfiler.
 	 */
 	public void update() {
 		if (isDeleted()) {
 			throw new ObjectDeletedException(this);
 		}
+		long needCheckStart = FrameProfiler.getProfiler().start();
 		recalculate();
-		if(!killcheck()) {
+		boolean dead = killcheck();
+		if (!dead && commandedTask == null) {
+			needcheck();
+		}
+		World.getWorld().needCheckDone(needCheckStart);
+		if(!dead) {
 			// Perform a task
 			if (commandedTask != null) {
-				// Execute the commanded task
-				try {
-					commandedTask.execute();
-				} catch (GeneralTaskException gte) {
-					System.err.println("Individual: GeneralTaskException");
-				}
-				// Remove the commanded task if it's done
-				if (commandedTask.isDone()) {
-					commandedTask = null;
-				}
+				// Commanded tasks gather, transport and sacrifice at nodes
+				// that are shared with other individuals, so they are
+				// executed when the changes of the tick are committed.
+				World.getWorld().defer(new WorldCommand() {
+					public void execute() {
+						executeCommandedTask();
+					}
+				});
 			} else {
-				needcheck();
 				try {
 					taskList.execute();
 				}
@@ -191,6 +406,26 @@ public class Individual extends GameObject
 		}
 	}
 
+	/**
+	 * Executes the commanded task and removes it if it is done.
+	 */
+	private void executeCommandedTask() {
+		// The individual may have been deleted, or given a new task, after
+		// the task was deferred.
+		if (isDeleted() || commandedTask == null) {
+			return;
+		}
+		try {
+			commandedTask.execute();
+		} catch (GeneralTaskException gte) {
+			System.err.println("Individual: GeneralTaskException");
+		}
+		// Remove the commanded task if it's done
+		if (commandedTask.isDone()) {
+			commandedTask = null;
+		}
+	}
+
 	/**
 	 * Checks the needs and creates new tasks as a response. It goes through
 	 * all needs in the prioritized order (food, happiness, safety) and then stroll
@@ -218,11 +453,9 @@ public class Individual extends GameObject
 		// tasks (e.g. SourceNodes).
 		if(characteristics.isHungry() && !taskList.hasFoodTask() &&
 				!foodSources.isEmpty()) {
-			// Create the best destination by sorting the food list by how close to
-			// the individual the food sources are.
+			// The best destination is the food source closest to the individual.
 			SourceNode destination =
-					(SourceNode)foodSources.getBestItem(
-					new ClosestToComparator(super.getPoint()));
+					(SourceNode)foodSources.getClosest(super.getPoint());
 			GetFoodTask getFood = new GetFoodTask(destination);
 			getFood.setPrivateInformation(position, velocity,
 					characteristics, resources);
@@ -230,11 +463,10 @@ public class Individual extends GameObject
 		}
 		else if(characteristics.isDepressed() && !taskList.hasHappinessTask() &&
 				!happinessSources.isEmpty()) {
-			// Create the best destination by sorting the happiness list by how close to
-			// the individual the happiness sources are.
-			SourceNode destination = (
-					SourceNode)happinessSources.getBestItem(
-					new ClosestToComparator(super.getPoint()));
+			// The best destination is the happiness source closest to the
+			// individual.
+			SourceNode destination =
+					(SourceNode)happinessSources.getClosest(super.getPoint());
 			GetHappinessTask getHappiness = new GetHappinessTask(destination);
 			getHappiness.setPrivateInformation(position, velocity,
 					characteristics, resources);
@@ -260,13 +492,15 @@ public class Individual extends GameObject
 			// Checks if the indivudal wants to start a own group
 			// or if there are no other groups.
 			boolean socializeTaskCreated = false;
-			if (Math.random() < World.getEnvironment().getJoinSocializationChance() &&
+			if (World.getWorld().getRandom().nextDouble() <
+					World.getEnvironment().getJoinSocializationChance() &&
 					!socializeGroups.isEmpty()) {
 				SocializeGroup destinationGroup =
-					(SocializeGroup)socializeGroups.getBestItem(
-					new ClosestToComparator(super.getPoint()));
+					(SocializeGroup)socializeGroups.getClosest(super.getPoint());
 
-				if (!destinationGroup.isDeleted()) {
+				// Deleted groups are never returned, but there might not be
+				// any group left that isn't deleted.
+				if (destinationGroup != null) {
 					SocializeTask socializeTask = new SocializeTask(destinationGroup, this);
 					socializeTask.setPrivateInformation(position, velocity,
 							characteristics, resources);
@@ -289,12 +523,12 @@ public class Individual extends GameObject
 	 * Recalculates all important values in the characteristics. The saturation
 	 * and the happiness are decreased and the safety and health is recalculated.
 	 * The skills which aren't used, if the individual is commanded, is also decreased.
+	 * If the characteristics are stored in the world's IndividualStore, it
+	 * has already recalculated them for all individuals at the start of the
+	 * tick, and nothing is done.
 	 */
 	private void recalculate() {
-		characteristics.decreaseSaturation();
-		characteristics.decreaseHappiness();
-		characteristics.setSafety(super.getPoint());
-		characteristics.recalculateHealth();
+		characteristics.recalculate(position.getX(), position.getY());
 
 		// The decrease of skills is now moved to Characteristics.
 	}
@@ -319,7 +553,14 @@ public class Individual extends GameObject
 				getSafety() < minNeed ||
 				killRandomizer.isSuccessful(probabilityModifier)
 				) {
-			System.out.println(name + " has died at the age of " + getAge() + "!");
+			if (World.isLoggingEvents()) {
+				final String obituary = name + " has died at the age of " + getAge() + "!";
+				World.getWorld().defer(new WorldCommand() {
+					public void execute() {
+						System.out.println(obituary);
+					}
+				});
+			}
 			delete();
 			return true;
 		}
@@ -345,6 +586,16 @@ public class Individual extends GameObject
 		}
 	}
 
+	/**
+	 * Returns the random numbers of the individual, which World.getRandom()
+	 * returns while the individual is updated.
+	 *
+	 * @return the RandomSource of the individual.
+	 */
+	public RandomSource getRandom() {
+		return random;
+	}
+
 	/**
 	 * Returns an integer representing the age in pseudo years, as and
 	 * individual would experience it.
@@ -494,6 +745,18 @@ public class Individual extends GameObject
 		return velocity.getVector();
 	}
 
+	/**
+	 * Returns the direction of the velocity of the Individual.
+	 *
+	 * @return the direction of the velocity, between 0 and 2 pi.
+	 */
+	public float getDirection() {
+		if (isDeleted()) {
+			throw new ObjectDeletedException(this);
+		}
+		return velocity.getDirection();
+	}
+
 	/**
 	 * Outputs for debugging.
 	 */
@@ -501,6 +764,63 @@ public class Individual extends GameObject
 		return super.toString() + "(" + getName() + ")";
 	}
 
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	/**
+	 * Saves the individual, and the record of its tasks once the world has
+	 * been saved.
+	 */
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setFloat(DIRECTION, velocity.getDirection());
+		record.setFloat(MAGNITUDE, velocity.getMagnitude());
+		record.setReference(CHARACTERISTICS, writer.reference(characteristics));
+		record.setReference(RESOURCES, writer.reference(resources));
+		record.setReference(KILL_RANDOMIZER, writer.reference(killRandomizer));
+		record.setReference(RANDOM, writer.reference(random));
+		if (taskRecord == null) {
+			taskRecord = new TaskRecord();
+		}
+		writer.saveLater(taskRecord);
+	}
+
+	public void collectChangedResources(List changed) {
+		if (resources.takeChanged()) {
+			changed.add(resources);
+		}
+	}
+
+	/**
+	 * The tasks of the individual, which are saved as a record of their own
+	 * after the world, see TASKS_RECORD_TYPE.
+	 */
+	private class TaskRecord implements Saveable {
+
+		public RecordType getRecordType() {
+			return TASKS_RECORD_TYPE;
+		}
+
+		public void save(SaveRecord record, WorldWriter writer)
+				throws IOException {
+			int[] tasks = new int[TaskList.SOCIALIZE_PRIORITY + 1];
+			int count = 0;
+			for (int i = 0; i < tasks.length; i++) {
+				Task task = taskList.getTask(i);
+				if (task != null) {
+					tasks[count++] = writer.reference(task);
+				}
+			}
+			int[] savedTasks = new int[count];
+			System.arraycopy(tasks, 0, savedTasks, 0, count);
+			record.setReference(TASKS_INDIVIDUAL, writer.reference(Individual.this));
+			record.setArray(TASKS, savedTasks);
+			record.setReference(COMMANDED_TASK, writer.reference(commandedTask));
+		}
+
+	}
+
 	/**
 	 * Deletes the object.
 	 */
@@ -508,6 +828,13 @@ public class Individual extends GameObject
 		taskList.removeAllTasks();
 		commandedTask = null;
 		super.delete();
+		// The store is shared, so the slot is released when the changes of
+		// the tick are committed.
+		World.getWorld().defer(new WorldCommand() {
+			public void execute() {
+				releaseStore();
+			}
+		});
 	}
 
 }
@@ -0,0 +1,673 @@
+/* 2026-10-18 agent
+ *	Is saved as a record whose columns are written in a region of the file,
+ *	see getColumns(), and restored by reading the region in bulk. The
+ *	characteristics then claim their saved slots, see claim().
+ *
+ * 2026-10-18 agent
+ *	Added copyTo(), getSlot() and saveSlot(), with which the autosave
+ *	copies the columns between two ticks and saves them on its own thread.
+ *
+ * 2026-10-18 agent
+ *	Added the previous coordinates. The attached positions and velocities
+ *	keep their values only in the columns.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine.gameobjects;
+
+import gameengine.Environment;
+import gameengine.Point;
+import gameengine.RecordType;
+import gameengine.SaveRecord;
+import gameengine.Saveable;
+import gameengine.World;
+import gameengine.WorldReader;
+import gameengine.WorldWriter;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Stores the state of many individuals in columns, one array of primitives
+ * for each value, indexed by a slot number that each individual gets when it
+ * is created. The Characteristics of an individual is a view over its slot,
+ * and so are its Position and Velocity, which read and write their
+ * coordinates, direction and speed in the columns of the slot.
+ *
+ * The world has one shared store, which is recalculated for all individuals
+ * at once by recalculate() at the start of each tick, in a few tight passes
+ * over the arrays instead of one call per individual. Characteristics that
+ * are created outside of the world (for example in benchmarks) get a store
+ * of their own, which isn't batched, and are recalculated one at a time.
+ *
+ * A released slot isn't reused until the next call to recalculate(), so
+ * that the values of an individual that died during a tick can still be
+ * read until the tick is over.
+ *
+ * When the world is saved, the columns of the store are written in a region
+ * of the file, see getColumns(), and the store is saved as a record with
+ * the number of slots and the index of the region. The characteristics only
+ * save their slots. A restored store reads the columns of the region in
+ * bulk, and the characteristics then claim their slots with claim(). The
+ * slots that aren't claimed are free once the world has been restored, see
+ * endRestore().
+ */
+public class IndividualStore implements Serializable, Saveable {
+
+	/**
+	 * The type of the record that a store is saved as. The store is restored
+	 * into the store of the world, or into a store that isn't batched if the
+	 * world has none.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("IndividualStore", null,
+			new String[] {"size", "columns"},
+			new int[] {RecordType.INT, RecordType.INT}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			IndividualStore store = World.getWorld().getIndividualStore();
+			if (store == null) {
+				store = new IndividualStore(1, false);
+			}
+			store.restore(record.getInt(SIZE),
+					reader.getRegion(record.getInt(COLUMNS)));
+			return store;
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int SIZE = RECORD_TYPE.getFieldIndex("size");
+	private static final int COLUMNS = RECORD_TYPE.getFieldIndex("columns");
+
+	/**
+	 * The number of columns, which are saved in the order they are declared
+	 * in, the floats first and then startAge.
+	 */
+	public static final int COLUMN_COUNT = 16;
+
+	/**
+	 * The x coordinates of the individuals.
+	 */
+	float[] x;
+
+	/**
+	 * The y coordinates of the individuals.
+	 */
+	float[] y;
+
+	/**
+	 * The x coordinates of the individuals before they first moved during
+	 * the last tick that they moved.
+	 */
+	float[] previousX;
+
+	/**
+	 * The y coordinates of the individuals before they first moved during
+	 * the last tick that they moved.
+	 */
+	float[] previousY;
+
+	/**
+	 * The directions of the velocities of the individuals.
+	 */
+	float[] direction;
+
+	/**
+	 * The speeds of the individuals.
+	 */
+	float[] speed;
+
+	/**
+	 * The saturation of the individuals.
+	 */
+	float[] saturation;
+
+	/**
+	 * The happiness of the individuals.
+	 */
+	float[] happiness;
+
+	/**
+	 * The safety of the individuals.
+	 */
+	float[] safety;
+
+	/**
+	 * The health of the individuals.
+	 */
+	float[] health;
+
+	/**
+	 * The maximum health of the individuals, which decreases with age.
+	 */
+	float[] maximumHealth;
+
+	/**
+	 * The world time when the individuals were born.
+	 */
+	float[] timeOfBirth;
+
+	/**
+	 * The gather skills of the individuals.
+	 */
+	float[] gatherSkill;
+
+	/**
+	 * The sacrifice skills of the individuals.
+	 */
+	float[] sacrificeSkill;
+
+	/**
+	 * The transportation skills of the individuals.
+	 */
+	float[] transportationSkill;
+
+	/**
+	 * The age of the individuals when the game started.
+	 */
+	int[] startAge;
+
+	/**
+	 * The number of slots that have been used, i.e. the slots after this are
+	 * all free.
+	 */
+	private int size;
+
+	/**
+	 * The slots that can be reused.
+	 */
+	private int[] freeSlots;
+
+	/**
+	 * The number of slots in freeSlots.
+	 */
+	private int freeCount;
+
+	/**
+	 * The slots that have been released since the last recalculate(), which
+	 * will be reused after it.
+	 */
+	private int[] releasedSlots;
+
+	/**
+	 * The number of slots in releasedSlots.
+	 */
+	private int releasedCount;
+
+	/**
+	 * If the store is recalculated for all individuals at once by
+	 * recalculate().
+	 */
+	private boolean batched;
+
+	/**
+	 * For each slot of the restored columns, if it has been claimed, or null
+	 * if the store isn't being restored.
+	 */
+	private transient boolean[] claimed;
+
+	/**
+	 * Constructs an empty, batched store, which must be recalculated each
+	 * tick with recalculate().
+	 */
+	public IndividualStore() {
+		this(64, true);
+	}
+
+	/**
+	 * Constructs an empty store.
+	 *
+	 * @param capacity the number of slots to make room for.
+	 * @param batched if the store is recalculated by recalculate().
+	 */
+	IndividualStore(int capacity, boolean batched) {
+		this.batched = batched;
+		x = new float[capacity];
+		y = new float[capacity];
+		previousX = new float[capacity];
+		previousY = new float[capacity];
+		direction = new float[capacity];
+		speed = new float[capacity];
+		saturation = new float[capacity];
+		happiness = new float[capacity];
+		safety = new float[capacity];
+		health = new float[capacity];
+		maximumHealth = new float[capacity];
+		timeOfBirth = new float[capacity];
+		gatherSkill = new float[capacity];
+		sacrificeSkill = new float[capacity];
+		transportationSkill = new float[capacity];
+		startAge = new int[capacity];
+		freeSlots = new int[16];
+		releasedSlots = new int[16];
+	}
+
+	/**
+	 * Tells if the store is recalculated for all individuals at once by
+	 * recalculate(), in which case the individuals mustn't recalculate
+	 * themselves.
+	 *
+	 * @return true if the store is batched.
+	 */
+	public boolean isBatched() {
+		return batched;
+	}
+
+	/**
+	 * Returns the number of slots that are in use.
+	 *
+	 * @return the number of slots in use.
+	 */
+	public int getCount() {
+		return size - freeCount - releasedCount;
+	}
+
+	/**
+	 * Returns the slot of an individual, or of the characteristics of one,
+	 * in the store.
+	 *
+	 * @param object the individual or characteristics.
+	 * @return the slot, or -1 if the object isn't an Individual or
+	 * Characteristics stored in this store.
+	 */
+	public int getSlot(Object object) {
+		if (object instanceof Individual) {
+			return ((Individual) object).getSlot(this);
+		}
+		if (object instanceof Characteristics &&
+				((Characteristics) object).getStore() == this) {
+			return ((Characteristics) object).getSlot();
+		}
+		return -1;
+	}
+
+	/**
+	 * Copies the values of all slots that have been used into another store,
+	 * whose columns are made as large as needed. The autosave copies the
+	 * store of the world this way between two ticks, so that the values can
+	 * be saved on another thread while the world is updated. The copy is
+	 * only to be read with saveSlot(), since its slots aren't allocated.
+	 *
+	 * @param copy the store to copy the values into.
+	 */
+	public void copyTo(IndividualStore copy) {
+		if (copy.x.length < size) {
+			copy.grow(size);
+		}
+		System.arraycopy(x, 0, copy.x, 0, size);
+		System.arraycopy(y, 0, copy.y, 0, size);
+		System.arraycopy(previousX, 0, copy.previousX, 0, size);
+		System.arraycopy(previousY, 0, copy.previousY, 0, size);
+		System.arraycopy(direction, 0, copy.direction, 0, size);
+		System.arraycopy(speed, 0, copy.speed, 0, size);
+		System.arraycopy(saturation, 0, copy.saturation, 0, size);
+		System.arraycopy(happiness, 0, copy.happiness, 0, size);
+		System.arraycopy(safety, 0, copy.safety, 0, size);
+		System.arraycopy(health, 0, copy.health, 0, size);
+		System.arraycopy(maximumHealth, 0, copy.maximumHealth, 0, size);
+		System.arraycopy(timeOfBirth, 0, copy.timeOfBirth, 0, size);
+		System.arraycopy(gatherSkill, 0, copy.gatherSkill, 0, size);
+		System.arraycopy(sacrificeSkill, 0, copy.sacrificeSkill, 0, size);
+		System.arraycopy(transportationSkill, 0, copy.transportationSkill, 0, size);
+		System.arraycopy(startAge, 0, copy.startAge, 0, size);
+		copy.size = size;
+	}
+
+	/**
+	 * Returns the number of slots that have been used, free or not, which
+	 * are the slots from 0 up to this.
+	 *
+	 * @return the number of slots.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Saves the values of a slot in the record of its individual and in that
+	 * of the individual's characteristics, in the fields where
+	 * Individual.save() and Characteristics.save() save them. The other
+	 * fields of the records keep their values.
+	 *
+	 * @param slot the slot.
+	 * @param individual the record of the individual.
+	 * @param characteristics the record of the characteristics.
+	 */
+	public void saveSlot(int slot, SaveRecord individual,
+			SaveRecord characteristics) {
+		Individual.saveSlot(this, slot, individual);
+		Characteristics.saveSlot(this, slot, characteristics);
+	}
+
+	/**
+	 * Returns the columns of all slots that have been used, in a buffer of
+	 * COLUMN_COUNT * getSize() big-endian values: the x coordinates of all
+	 * slots first, then the y coordinates and so on, in the order the
+	 * columns are declared in. Is how the columns are written in a region
+	 * of the save file, see WorldWriter.addRegion().
+	 *
+	 * @return the buffer, with the columns from its position to its limit.
+	 */
+	public ByteBuffer getColumns() {
+		ByteBuffer columns = ByteBuffer.allocate(COLUMN_COUNT * 4 * size);
+		FloatBuffer floats = columns.asFloatBuffer();
+		floats.put(x, 0, size);
+		floats.put(y, 0, size);
+		floats.put(previousX, 0, size);
+		floats.put(previousY, 0, size);
+		floats.put(direction, 0, size);
+		floats.put(speed, 0, size);
+		floats.put(saturation, 0, size);
+		floats.put(happiness, 0, size);
+		floats.put(safety, 0, size);
+		floats.put(health, 0, size);
+		floats.put(maximumHealth, 0, size);
+		floats.put(timeOfBirth, 0, size);
+		floats.put(gatherSkill, 0, size);
+		floats.put(sacrificeSkill, 0, size);
+		floats.put(transportationSkill, 0, size);
+		IntBuffer ints = columns.asIntBuffer();
+		ints.position(floats.position());
+		ints.put(startAge, 0, size);
+		return columns;
+	}
+
+	/**
+	 * Reads the columns that getColumns() has returned into the store, which
+	 * must not have used any slots.
+	 *
+	 * @param savedSize the number of slots of the columns.
+	 * @param columns the columns, from the position of the buffer to its
+	 * limit.
+	 * @exception IOException if the store has already used slots, or the
+	 * columns don't have savedSize slots.
+	 */
+	private void restore(int savedSize, ByteBuffer columns) throws IOException {
+		if (size > 0) {
+			throw new IOException("The individuals have already been restored");
+		}
+		if (savedSize < 0 ||
+				columns.remaining() != (long) COLUMN_COUNT * 4 * savedSize) {
+			throw new IOException("Invalid columns of " + savedSize + " slots");
+		}
+		if (x.length < savedSize) {
+			grow(savedSize);
+		}
+		FloatBuffer floats = columns.asFloatBuffer();
+		floats.get(x, 0, savedSize);
+		floats.get(y, 0, savedSize);
+		floats.get(previousX, 0, savedSize);
+		floats.get(previousY, 0, savedSize);
+		floats.get(direction, 0, savedSize);
+		floats.get(speed, 0, savedSize);
+		floats.get(saturation, 0, savedSize);
+		floats.get(happiness, 0, savedSize);
+		floats.get(safety, 0, savedSize);
+		floats.get(health, 0, savedSize);
+		floats.get(maximumHealth, 0, savedSize);
+		floats.get(timeOfBirth, 0, savedSize);
+		floats.get(gatherSkill, 0, savedSize);
+		floats.get(sacrificeSkill, 0, savedSize);
+		floats.get(transportationSkill, 0, savedSize);
+		IntBuffer ints = columns.asIntBuffer();
+		ints.position(floats.position());
+		ints.get(startAge, 0, savedSize);
+		size = savedSize;
+		claimed = new boolean[savedSize];
+	}
+
+	/**
+	 * Returns the slot of restored characteristics that were saved with a
+	 * slot of the restored columns. Each slot can only be claimed once, so
+	 * characteristics that claim a slot that has already been claimed, such
+	 * as those of an individual that had died and whose slot had been
+	 * reused when the world was saved, get a new slot with a copy of the
+	 * values.
+	 *
+	 * @param savedSlot the slot that the characteristics were saved with.
+	 * @return the slot of the characteristics.
+	 * @exception IOException if the slot isn't one of the restored columns.
+	 */
+	int claim(int savedSlot) throws IOException {
+		if (claimed == null || savedSlot < 0 || savedSlot >= claimed.length) {
+			throw new IOException("Invalid slot " + savedSlot);
+		}
+		if (!claimed[savedSlot]) {
+			claimed[savedSlot] = true;
+			return savedSlot;
+		}
+		int slot = allocate();
+		x[slot] = x[savedSlot];
+		y[slot] = y[savedSlot];
+		previousX[slot] = previousX[savedSlot];
+		previousY[slot] = previousY[savedSlot];
+		direction[slot] = direction[savedSlot];
+		speed[slot] = speed[savedSlot];
+		saturation[slot] = saturation[savedSlot];
+		happiness[slot] = happiness[savedSlot];
+		safety[slot] = safety[savedSlot];
+		health[slot] = health[savedSlot];
+		maximumHealth[slot] = maximumHealth[savedSlot];
+		timeOfBirth[slot] = timeOfBirth[savedSlot];
+		gatherSkill[slot] = gatherSkill[savedSlot];
+		sacrificeSkill[slot] = sacrificeSkill[savedSlot];
+		transportationSkill[slot] = transportationSkill[savedSlot];
+		startAge[slot] = startAge[savedSlot];
+		return slot;
+	}
+
+	/**
+	 * Frees the slots of the restored columns that no characteristics have
+	 * claimed. Is called by the world once all its objects have been
+	 * restored.
+	 */
+	public void endRestore() {
+		if (claimed == null) {
+			return;
+		}
+		for (int slot = 0; slot < claimed.length; slot++) {
+			if (!claimed[slot]) {
+				if (freeCount == freeSlots.length) {
+					freeSlots = copyOf(freeSlots, freeCount * 2);
+				}
+				freeSlots[freeCount++] = slot;
+			}
+		}
+		claimed = null;
+	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	/**
+	 * Saves the number of slots and the region of the file that the columns
+	 * are written in, which the writer must have been given, see
+	 * WorldWriter.addRegion().
+	 */
+	public void save(SaveRecord record, WorldWriter writer) {
+		int region = writer.getRegion(this);
+		if (region < 0) {
+			throw new IllegalStateException("The columns of the store aren't written");
+		}
+		record.setInt(SIZE, size);
+		record.setInt(COLUMNS, region);
+	}
+
+	/**
+	 * Returns a slot for a new individual. All values of the slot are zero.
+	 * Must not be called while the individuals are updated in parallel.
+	 *
+	 * @return the slot.
+	 */
+	int allocate() {
+		int slot;
+		if (freeCount > 0) {
+			slot = freeSlots[--freeCount];
+		} else {
+			if (size == x.length) {
+				grow(Math.max(16, size * 2));
+			}
+			slot = size++;
+		}
+		clear(slot);
+		return slot;
+	}
+
+	/**
+	 * Releases the slot of an individual that has died. The slot is reused
+	 * after the next recalculate(). Must not be called while the individuals
+	 * are updated in parallel.
+	 *
+	 * @param slot the slot.
+	 */
+	void release(int slot) {
+		if (releasedCount == releasedSlots.length) {
+			releasedSlots = copyOf(releasedSlots, releasedCount * 2);
+		}
+		releasedSlots[releasedCount++] = slot;
+	}
+
+	/**
+	 * Recalculates all individuals in the store for one tick: decreases the
+	 * saturation and happiness, sets the safety from the distance to the
+	 * light pillar and recalculates the health. Also makes the slots
+	 * released since the last call free to reuse. Is called by the world at
+	 * the start of each tick, before the individuals are updated.
+	 */
+	public void recalculate() {
+		// The released slots are recalculated once more, which doesn't
+		// matter since they are cleared when they are reused.
+		for (int i = 0; i < releasedCount; i++) {
+			if (freeCount == freeSlots.length) {
+				freeSlots = copyOf(freeSlots, freeCount * 2);
+			}
+			freeSlots[freeCount++] = releasedSlots[i];
+		}
+		releasedCount = 0;
+		recalculate(0, size);
+	}
+
+	/**
+	 * Recalculates the individuals in the slots from the first slot
+	 * (inclusive) to the last (exclusive) for one tick. The passes give the
+	 * same results as recalculating each individual on its own.
+	 *
+	 * @param from the first slot.
+	 * @param to the last slot.
+	 */
+	void recalculate(int from, int to) {
+		if (from >= to) {
+			return;
+		}
+		Environment environment = World.getEnvironment();
+		float timeSinceCycle = World.getWorld().getTimeSinceCycle();
+
+		// The needs decrease with the same factor for everyone.
+		float decreaseFactor = 1 - (environment.getNeedDecreaseSpeed() *
+				timeSinceCycle);
+		for (int i = from; i < to; i++) {
+			saturation[i] *= decreaseFactor;
+			happiness[i] *= decreaseFactor;
+		}
+
+		// The safety decreases with the distance from the light pillar.
+		LightPillarNode lightPillar = World.getWorld().getLightPillar();
+		Point pillarPoint = lightPillar.getPoint();
+		float pillarX = pillarPoint.getX();
+		float pillarY = pillarPoint.getY();
+		float influenceRadius = lightPillar.getInfluenceRadius();
+		float safetyDecreaseFactor = environment.getSafetyDecreaseFactor();
+		for (int i = from; i < to; i++) {
+			float dX = x[i] - pillarX;
+			float dY = y[i] - pillarY;
+			float distance = (float) Math.sqrt(dX * dX + dY * dY) - influenceRadius;
+			safety[i] = (distance > 0) ?
+					(float) Math.pow(safetyDecreaseFactor, distance) : 1;
+		}
+
+		// The adults age, and the health is the mean of the needs, but
+		// never more than the maximum health.
+		float agingFactor = 1 - (environment.getAgingFactor() * timeSinceCycle);
+		float worldTime = World.getWorld().getWorldTime();
+		float yearSecondsRatio = environment.getYearSecondsRatio();
+		int adultAge = environment.getAdultAge();
+		for (int i = from; i < to; i++) {
+			int age = (int) ((worldTime - timeOfBirth[i]) / yearSecondsRatio)
+					+ startAge[i];
+			if (age >= adultAge) {
+				maximumHealth[i] *= agingFactor;
+			}
+			float newHealth = (saturation[i] + happiness[i] + (safety[i] / 2f)) / 3f;
+			health[i] = (newHealth > maximumHealth[i]) ? maximumHealth[i] : newHealth;
+		}
+	}
+
+	/**
+	 * Sets all values of a slot to zero.
+	 */
+	private void clear(int slot) {
+		x[slot] = 0f;
+		y[slot] = 0f;
+		previousX[slot] = 0f;
+		previousY[slot] = 0f;
+		direction[slot] = 0f;
+		speed[slot] = 0f;
+		saturation[slot] = 0f;
+		happiness[slot] = 0f;
+		safety[slot] = 0f;
+		health[slot] = 0f;
+		maximumHealth[slot] = 0f;
+		timeOfBirth[slot] = 0f;
+		gatherSkill[slot] = 0f;
+		sacrificeSkill[slot] = 0f;
+		transportationSkill[slot] = 0f;
+		startAge[slot] = 0;
+	}
+
+	/**
+	 * Makes room for the given number of slots.
+	 */
+	private void grow(int capacity) {
+		x = copyOf(x, capacity);
+		y = copyOf(y, capacity);
+		previousX = copyOf(previousX, capacity);
+		previousY = copyOf(previousY, capacity);
+		direction = copyOf(direction, capacity);
+		speed = copyOf(speed, capacity);
+		saturation = copyOf(saturation, capacity);
+		happiness = copyOf(happiness, capacity);
+		safety = copyOf(safety, capacity);
+		health = copyOf(health, capacity);
+		maximumHealth = copyOf(maximumHealth, capacity);
+		timeOfBirth = copyOf(timeOfBirth, capacity);
+		gatherSkill = copyOf(gatherSkill, capacity);
+		sacrificeSkill = copyOf(sacrificeSkill, capacity);
+		transportationSkill = copyOf(transportationSkill, capacity);
+		startAge = copyOf(startAge, capacity);
+	}
+
+	/**
+	 * Returns a copy of the array with the given length.
+	 */
+	private static float[] copyOf(float[] array, int length) {
+		float[] copy = new float[length];
+		System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+		return copy;
+	}
+
+	/**
+	 * Returns a copy of the array with the given length.
+	 */
+	private static int[] copyOf(int[] array, int length) {
+		int[] copy = new int[length];
+		System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+		return copy;
+	}
+
+}
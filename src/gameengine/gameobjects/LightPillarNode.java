@@ -1,4 +1,10 @@
 /* 
+ * 2026-10-18 agent
+ * 	Collects its changed sacrificed resources for the autosave.
+ *
+ * 2026-10-18 agent
+ * 	Saved and restored with the sacrificed resources.
+ *
  * 2003-05-11 EliasAE
  * 	Added support for deletable.
  *
@@ -28,6 +34,24 @@ import java.io.*;
  */
 public class LightPillarNode extends Node {
 
+	/**
+	 * The type of the records that light pillars are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("LightPillarNode",
+			Node.RECORD_TYPE,
+			new String[] {"sacrificedResources"},
+			new int[] {RecordType.REFERENCE}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new LightPillarNode(record, reader);
+		}
+	};
+
+	/**
+	 * The index of the field of the records.
+	 */
+	private static final int SACRIFICED_RESOURCES = RECORD_TYPE.getFieldIndex("sacrificedResources");
+
 	/**
   	 * The container of the sacrificed resources of the light pillar.
   	 */
@@ -48,6 +72,20 @@ public class LightPillarNode extends Node {
 		setDescription("A light pillar. Here you can sacrifice gold.");
 	}
 
+	/**
+	 * Restores a light pillar that has been saved. It isn't registered, the
+	 * world restores its reference to the light pillar itself.
+	 *
+	 * @param record the record that the light pillar was saved as.
+	 * @param reader the reader that has restored the resources.
+	 * @exception IOException if the resources haven't been restored.
+	 */
+	private LightPillarNode(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record, reader);
+		sacrificedResources = (Resources) reader.getObject(record, SACRIFICED_RESOURCES);
+	}
+
 	/**
 	 * Returns a TransferTask that transfers one unit from the free resources
 	 * at the node to the sacrificed units.
@@ -95,4 +133,20 @@ public class LightPillarNode extends Node {
 				World.getEnvironment().getSacrificedUnitsDistanceRatio());
 	}
 
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setReference(SACRIFICED_RESOURCES, writer.reference(sacrificedResources));
+	}
+
+	public void collectChangedResources(List changed) {
+		super.collectChangedResources(changed);
+		if (sacrificedResources.takeChanged()) {
+			changed.add(sacrificedResources);
+		}
+	}
+
 }
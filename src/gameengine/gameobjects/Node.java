@@ -1,4 +1,15 @@
 /* 
+ * 2026-10-18 agent
+ *	Collects its changed resources for the autosave.
+ *
+ * 2026-10-18 agent
+ *	The constructor that doesn't register the node is public, so that a
+ *	UserCommand can register it on the simulation thread.
+ *
+ * 2026-10-18 agent
+ * 	Added the record type and the restoring constructor, which the
+ * 	source nodes and the light pillar share.
+ *
  * 2003-05-11 EliasAE
  * 	Added support for deletable.
  *
@@ -23,6 +34,7 @@ package gameengine.gameobjects;
 import gameengine.*;
 import gameengine.World;
 import gameengine.tasksystem.TransferTask;
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -32,6 +44,24 @@ import java.util.*;
  */
 public class Node extends GameObject implements ResourceContainer {
 
+	/**
+	 * The type of the records that nodes are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("Node",
+			GameObject.RECORD_TYPE,
+			new String[] {"resources"},
+			new int[] {RecordType.REFERENCE}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new Node(record, reader);
+		}
+	};
+
+	/**
+	 * The index of the field of the records.
+	 */
+	private static final int RESOURCES = RECORD_TYPE.getFieldIndex("resources");
+
 	/**
 	 * The container of the node's resources.
 	 */
@@ -51,11 +81,31 @@ public class Node extends GameObject implements ResourceContainer {
 				"transportation later");
 	}
 
-	protected Node(Point point, int dummyParameter) {
+	/**
+	 * Constructs a Node with the position given by the Point, without
+	 * registering it to the World. It must be registered later, for example
+	 * by a UserCommand.
+	 *
+	 * @param point the position for the Node.
+	 * @param dummyParameter not used.
+	 */
+	public Node(Point point, int dummyParameter) {
 		super(point);
 		resources = new Resources();
 	}
 
+	/**
+	 * Restores a node that has been saved, without registering it.
+	 *
+	 * @param record the record that the node was saved as.
+	 * @param reader the reader that has restored the resources.
+	 * @exception IOException if the resources haven't been restored.
+	 */
+	protected Node(SaveRecord record, WorldReader reader) throws IOException {
+		super(record);
+		resources = (Resources) reader.getObject(record, RESOURCES);
+	}
+
 	/**
 	 * Returns a task that transfers a specific amount of a specific
 	 * resource type to the given resource container.
@@ -103,4 +153,19 @@ public class Node extends GameObject implements ResourceContainer {
 		return resources.getResourceAmount(resourceType);
 	}
 
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setReference(RESOURCES, writer.reference(resources));
+	}
+
+	public void collectChangedResources(List changed) {
+		if (resources.takeChanged()) {
+			changed.add(resources);
+		}
+	}
+
 }
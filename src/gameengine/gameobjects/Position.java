@@ -1,4 +1,31 @@
 /* 
+ * 2026-10-18 agent
+ * 	Added saveSlot(), which saves the coordinates of a slot of a store
+ * 	the way save() does.
+ *
+ * 2026-10-18 agent
+ * 	While attached to a slot of an IndividualStore, the coordinates are
+ * 	only kept in the columns of the store, which are read and written
+ * 	directly, instead of being copied to the store when they change.
+ *
+ * 2026-10-18 agent
+ * 	Added save() and restore(), which keep the position in the record of
+ * 	its game object.
+ *
+ * 2026-10-18 agent
+ * 	The coordinates are kept as floats that are changed in place by
+ * 	setLocation(), so that moving doesn't create any objects. A Point is
+ * 	only created when one is asked for, and is then kept until the
+ * 	position changes.
+ *
+ * 2026-10-18 agent
+ * 	Can be attached to a slot of an IndividualStore, to which the
+ * 	coordinates are written when the point is set.
+ *
+ * 2026-10-18 agent
+ * 	Remembers the point from before the current tick, so that the position
+ * 	can be interpolated between the last two ticks when drawn.
+ *
  * 2003-05-12 EliasAE
  * 	Removed support for deletable.
  *
@@ -25,30 +52,338 @@ import java.io.*;
  * An attribute describing an objects position, for example it's X and Y
  * coordinate (described by a Point). Has methods that can set or get the
  * Point.
+ *
+ * The coordinates are stored as floats, which setLocation() changes in
+ * place. The Point returned by getPoint() is created the first time it is
+ * asked for after a change, and the same Point is returned until the
+ * position changes again, so objects that move every tick but whose Point
+ * nobody asks for never create any Points.
+ *
+ * The position of an individual is attached to the slot of the individual
+ * in an IndividualStore, and then the coordinates, current and previous,
+ * are only kept in the columns of the store, where the store reads them
+ * when it recalculates the individuals. The fields of the position are only
+ * used while it isn't attached.
  */
 public class Position implements Serializable {
 
 	/**
-	 * The Point that stores the position.
+	 * The X coordinate, while the position isn't attached to a store.
+	 */
+	private float x;
+
+	/**
+	 * The Y coordinate, while the position isn't attached to a store.
+	 */
+	private float y;
+
+	/**
+	 * True if the position has been set.
+	 */
+	private boolean located = false;
+
+	/**
+	 * The Point of the current coordinates, or null if it hasn't been
+	 * created since they were last changed.
 	 */
 	private Point point;
 
+	/**
+	 * The X coordinate that the position had before it was first changed
+	 * during the tick pointTick, while the position isn't attached to a
+	 * store.
+	 */
+	private float previousX;
+
+	/**
+	 * The Y coordinate that the position had before it was first changed
+	 * during the tick pointTick, while the position isn't attached to a
+	 * store.
+	 */
+	private float previousY;
+
+	/**
+	 * True if the position had been set before it was first changed during
+	 * the tick pointTick.
+	 */
+	private boolean previousLocated = false;
+
+	/**
+	 * The Point of the previous coordinates, or null if it hasn't been
+	 * created.
+	 */
+	private Point previousPoint;
+
+	/**
+	 * The tick (World.getTickCount()) during which the point last was
+	 * changed.
+	 */
+	private long pointTick = -1;
+
+	/**
+	 * The store that holds the coordinates, or null if they are held by the
+	 * fields of the position.
+	 */
+	private IndividualStore store;
+
+	/**
+	 * The slot of the coordinates in the store.
+	 */
+	private int slot;
+
+	/**
+	 * Attaches the position to a slot of an IndividualStore. The coordinates
+	 * are moved to the slot, and from now on they are only kept there.
+	 *
+	 * @param store the store.
+	 * @param slot the slot in the store.
+	 */
+	void attach(IndividualStore store, int slot) {
+		store.x[slot] = x;
+		store.y[slot] = y;
+		store.previousX[slot] = previousX;
+		store.previousY[slot] = previousY;
+		this.store = store;
+		this.slot = slot;
+	}
+
+	/**
+	 * Detaches the position from its slot, whose coordinates are moved back
+	 * to the position. Is called when the slot is released, since it is then
+	 * reused by another individual.
+	 */
+	void detach() {
+		if (store != null) {
+			x = store.x[slot];
+			y = store.y[slot];
+			previousX = store.previousX[slot];
+			previousY = store.previousY[slot];
+			store = null;
+		}
+	}
+
+	/**
+	 * Saves the position in seven fields of a record, from the given field:
+	 * x, y, located, previousX, previousY, previousLocated and pointTick.
+	 *
+	 * @param record the record of the game object.
+	 * @param field the index of the first field.
+	 */
+	void save(SaveRecord record, int field) {
+		record.setFloat(field, getX());
+		record.setFloat(field + 1, getY());
+		record.setBoolean(field + 2, located);
+		record.setFloat(field + 3, getStoredPreviousX());
+		record.setFloat(field + 4, getStoredPreviousY());
+		record.setBoolean(field + 5, previousLocated);
+		record.setLong(field + 6, pointTick);
+	}
+
+	/**
+	 * Saves the coordinates of a slot of a store in the fields where save()
+	 * saves those of an attached position. The other fields keep their
+	 * values.
+	 *
+	 * @param store the store.
+	 * @param slot the slot.
+	 * @param record the record of the game object.
+	 * @param field the index of the first field, as for save().
+	 */
+	static void saveSlot(IndividualStore store, int slot, SaveRecord record,
+			int field) {
+		record.setFloat(field, store.x[slot]);
+		record.setFloat(field + 1, store.y[slot]);
+		record.setFloat(field + 3, store.previousX[slot]);
+		record.setFloat(field + 4, store.previousY[slot]);
+	}
+
+	/**
+	 * Restores the position from the fields of a record written by save().
+	 * The position must not be attached yet.
+	 *
+	 * @param record the record of the game object.
+	 * @param field the index of the first field.
+	 */
+	void restore(SaveRecord record, int field) {
+		x = record.getFloat(field);
+		y = record.getFloat(field + 1);
+		located = record.getBoolean(field + 2);
+		previousX = record.getFloat(field + 3);
+		previousY = record.getFloat(field + 4);
+		previousLocated = record.getBoolean(field + 5);
+		pointTick = record.getLong(field + 6);
+		point = null;
+		previousPoint = null;
+	}
+
+	/**
+	 * Returns the X coordinate of the position.
+	 *
+	 * @return the X coordinate.
+	 */
+	public float getX() {
+		return (store != null) ? store.x[slot] : x;
+	}
+
+	/**
+	 * Returns the Y coordinate of the position.
+	 *
+	 * @return the Y coordinate.
+	 */
+	public float getY() {
+		return (store != null) ? store.y[slot] : y;
+	}
+
 	/**
 	 * Returns the Position's Point.
 	 *
-	 * @return the Position's Point.
+	 * @return the Position's Point, or null if the position hasn't been set.
 	 */
 	public Point getPoint() {
+		if (point == null && located) {
+			point = createPoint(getX(), getY());
+		}
 		return point;
 	}
 
 	/**
-	 * Sets the Position's Point to the given Point.
+	 * Sets the Position's Point to the given Point. The first time the point
+	 * is set during a tick, the old point is remembered for the
+	 * interpolation. The given Point is returned by getPoint() until the
+	 * position changes again.
 	 *
 	 * @param point the new Point.
 	 */
 	public void setPoint(Point point) {
+		setLocation(point.getX(), point.getY());
 		this.point = point;
 	}
 
+	/**
+	 * Moves the position to the given coordinates, without creating any
+	 * objects. The first time the position is changed during a tick, the old
+	 * coordinates are remembered for the interpolation. The coordinates
+	 * are not checked against the bounds.
+	 *
+	 * @param x the new X coordinate.
+	 * @param y the new Y coordinate.
+	 */
+	public void setLocation(float x, float y) {
+		long tick = World.getWorld().getTickCount();
+		if (store != null) {
+			if (tick != pointTick) {
+				store.previousX[slot] = store.x[slot];
+				store.previousY[slot] = store.y[slot];
+			}
+			store.x[slot] = x;
+			store.y[slot] = y;
+		} else {
+			if (tick != pointTick) {
+				previousX = this.x;
+				previousY = this.y;
+			}
+			this.x = x;
+			this.y = y;
+		}
+		if (tick != pointTick) {
+			previousLocated = located;
+			previousPoint = point;
+			pointTick = tick;
+		}
+		located = true;
+		point = null;
+	}
+
+	/**
+	 * Returns the X coordinate from before the position was first changed
+	 * during the tick pointTick.
+	 */
+	private float getStoredPreviousX() {
+		return (store != null) ? store.previousX[slot] : previousX;
+	}
+
+	/**
+	 * Returns the Y coordinate from before the position was first changed
+	 * during the tick pointTick.
+	 */
+	private float getStoredPreviousY() {
+		return (store != null) ? store.previousY[slot] : previousY;
+	}
+
+	/**
+	 * Tells if the position was changed during the last tick, and had been
+	 * set before it was.
+	 */
+	private boolean isChangedSinceTick() {
+		return previousLocated && pointTick == World.getWorld().getTickCount();
+	}
+
+	/**
+	 * Returns the X coordinate that the position had at the start of the
+	 * last tick.
+	 *
+	 * @return the X coordinate at the start of the last tick.
+	 */
+	public float getPreviousX() {
+		return isChangedSinceTick() ? getStoredPreviousX() : getX();
+	}
+
+	/**
+	 * Returns the Y coordinate that the position had at the start of the
+	 * last tick.
+	 *
+	 * @return the Y coordinate at the start of the last tick.
+	 */
+	public float getPreviousY() {
+		return isChangedSinceTick() ? getStoredPreviousY() : getY();
+	}
+
+	/**
+	 * Returns the Point that the position had at the start of the last tick.
+	 * If the point wasn't changed during the last tick, this is the current
+	 * point.
+	 *
+	 * @return the Point at the start of the last tick.
+	 */
+	public Point getPreviousPoint() {
+		if (!isChangedSinceTick()) {
+			return getPoint();
+		}
+		if (previousPoint == null) {
+			previousPoint = createPoint(getStoredPreviousX(), getStoredPreviousY());
+		}
+		return previousPoint;
+	}
+
+	/**
+	 * Returns a Point between the point at the start of the last tick and
+	 * the current point. If the point wasn't changed during the last tick,
+	 * the current point is returned.
+	 *
+	 * @param interpolation how far between the two points the returned point
+	 * should be, where 0 is the point at the start of the last tick and 1 is
+	 * the current point.
+	 * @return the interpolated Point.
+	 */
+	public Point getInterpolatedPoint(float interpolation) {
+		if (!isChangedSinceTick()) {
+			return getPoint();
+		}
+		float fromX = getStoredPreviousX();
+		float fromY = getStoredPreviousY();
+		return createPoint(fromX + (getX() - fromX) * interpolation,
+				fromY + (getY() - fromY) * interpolation);
+	}
+
+	/**
+	 * Creates a Point with the given coordinates, without checking the
+	 * bounds.
+	 */
+	private static Point createPoint(float x, float y) {
+		float[] coordinates = new float[2];
+		coordinates[0] = x;
+		coordinates[1] = y;
+		return new Point(coordinates);
+	}
+
 }
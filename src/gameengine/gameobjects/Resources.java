@@ -1,4 +1,14 @@
 /*
+ * 2026-10-18 agent
+ * 	Remembers if the amounts have changed, see takeChanged().
+ *
+ * 2026-10-18 agent
+ * 	Saves a copy of the amounts, since the autosave keeps the records.
+ *
+ * 2026-10-18 agent
+ * 	Is saved as a record with the amounts, so that the TransferTasks of a
+ * 	saved transport route still move resources between the same containers.
+ *
  * 2003-05-12 EliasAE
  * 	Removed support for deletable.
  *
@@ -25,7 +35,23 @@ import java.io.*;
  * removing och adding a specified resource (with a specified amount) and a
  * get method for returning the amount of a certain resource.
  */
-public class Resources implements Serializable {
+public class Resources implements Serializable, Saveable {
+
+	/**
+	 * The type of the records that resources are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("Resources", null,
+			new String[] {"amounts"},
+			new int[] {RecordType.INT_ARRAY}) {
+		public Object restore(SaveRecord record, WorldReader reader) {
+			return new Resources(record);
+		}
+	};
+
+	/**
+	 * The index of the field of the records.
+	 */
+	private static final int AMOUNTS = RECORD_TYPE.getFieldIndex("amounts");
 
 	/**
 	 * An array of integers, where the position represents the type of a
@@ -33,6 +59,29 @@ public class Resources implements Serializable {
 	 */
 	private int[] resources = new int[World.getEnvironment().getNumberOfResourceTypes()];
 
+	/**
+	 * True if an amount has changed since takeChanged() was last called.
+	 */
+	private transient boolean changed;
+
+	/**
+	 * Creates an empty container.
+	 */
+	public Resources() {
+	}
+
+	/**
+	 * Restores a container that has been saved. Amounts of resource types
+	 * that no longer exist are thrown away.
+	 *
+	 * @param record the record that the container was saved as.
+	 */
+	private Resources(SaveRecord record) {
+		int[] amounts = record.getArray(AMOUNTS);
+		System.arraycopy(amounts, 0, resources, 0,
+				Math.min(amounts.length, resources.length));
+	}
+
 	/**
 	 * Returns the amount of resource units of the specified resource type.
 	 *
@@ -53,6 +102,7 @@ public class Resources implements Serializable {
 	 */
 	public void addResource(int resourceType, int amount) {
 		resources[resourceType] += amount;
+		changed = true;
 	}
 
 	/**
@@ -69,6 +119,28 @@ public class Resources implements Serializable {
 		if (resources[resourceType] < 0) {
 			resources[resourceType] = 0;
 		}
+		changed = true;
+	}
+
+	/**
+	 * Tells if an amount has changed since the last call, which is how the
+	 * autosave finds the resources that have been transferred without
+	 * saving all of them.
+	 *
+	 * @return true if an amount has been added or removed.
+	 */
+	public boolean takeChanged() {
+		boolean wasChanged = changed;
+		changed = false;
+		return wasChanged;
+	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		record.setArray(AMOUNTS, (int[]) resources.clone());
 	}
 
 }
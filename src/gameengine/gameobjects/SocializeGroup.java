@@ -1,4 +1,15 @@
 /*
+ * 2026-10-18 agent
+ * 	Can be saved with the ids of its members.
+ *
+ * 2026-10-18 agent
+ * 	An individual is removed from whichever list it is in, without asking
+ * 	it for its age and gender, since it may be deleted when the deferred
+ * 	unregistration is committed.
+ *
+ * 2026-10-18 agent
+ * 	The partner is chosen with the RandomSource of the world.
+ *
  * 2003-05-12 EliasAE
  * 	Socialization and remove of socialization groups.
  *
@@ -25,6 +36,7 @@
 package gameengine.gameobjects;
 
 import gameengine.*;
+import java.io.IOException;
 import java.util.*;
 import java.util.List;
 
@@ -38,6 +50,27 @@ import java.util.List;
  */
 public class SocializeGroup extends GameObject {
 
+	/**
+	 * The type of the records that groups are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("SocializeGroup",
+			GameObject.RECORD_TYPE,
+			new String[] {"males", "females", "children"},
+			new int[] {RecordType.REFERENCE_ARRAY, RecordType.REFERENCE_ARRAY,
+					RecordType.REFERENCE_ARRAY}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new SocializeGroup(record, reader);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int MALES = RECORD_TYPE.getFieldIndex("males");
+	private static final int FEMALES = RECORD_TYPE.getFieldIndex("females");
+	private static final int CHILDREN = RECORD_TYPE.getFieldIndex("children");
+
 	/**
 	 * The reproductive males in the group.
 	 */
@@ -84,6 +117,22 @@ public class SocializeGroup extends GameObject {
 		World.getWorld().register(this);
 	}
 
+	/**
+	 * Restores a group that has been saved, with the members it had. It
+	 * isn't registered, since the world restores its list of groups.
+	 *
+	 * @param record the record that the group was saved as.
+	 * @param reader the reader that has restored the members.
+	 * @exception IOException if a member hasn't been restored.
+	 */
+	private SocializeGroup(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record);
+		reader.getObjects(record, MALES, males);
+		reader.getObjects(record, FEMALES, females);
+		reader.getObjects(record, CHILDREN, children);
+	}
+
 	/**
 	 * Checks if the specified individual is child or not. If it is a child it
 	 * is sent to the list of children, if it is an adult the gender is checked
@@ -145,27 +194,18 @@ public class SocializeGroup extends GameObject {
 	}
 
 	/**
-	 * Checks if the individual is a child and if not, which gender, and then
-	 * removes the indivudal from the children list or decreases the counters
-	 * of the specified gender.
+	 * Removes the indivudal from the list of children, males or females,
+	 * whichever it is in. The individual isn't asked for its age or gender,
+	 * since it may already have been deleted when its unregistration, which
+	 * is deferred until the end of the tick, is committed.
 	 *
 	 * @param individual the Indvidual to be removed from the group.
 	 */
 	private void removeIndividual(Individual individual) {
-		boolean success = false;
-		if(individual.isChild()) {
-			success = children.remove(individual);
-		}
-		else if(individual.getGender() ==  Environment.MALE) {
-			success = males.remove(individual);
-		}
-		else if(individual.getGender() ==  Environment.FEMALE) {
-			success = females.remove(individual);
-		}
-		else {
-			throw new IllegalStateException("Illegal value of the gender integer. " +
-					"Must be 0 or 1. Correct the value of the gender integer");
-		}
+		boolean success =
+				children.remove(individual) ||
+				males.remove(individual) ||
+				females.remove(individual);
 
 		if (!success) {
 			throw new IllegalArgumentException(
@@ -227,11 +267,21 @@ public class SocializeGroup extends GameObject {
 			throw new IllegalArgumentException("Illegal individual gender");
 		}
 
-		// Truncate to get a int less than size.
-		int partnerIndex = (int) (Math.random() * partnerList.size());
+		int partnerIndex = World.getWorld().getRandom().nextInt(partnerList.size());
 		return (Individual) partnerList.get(partnerIndex);
 	}
 
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setArray(MALES, writer.reference(males));
+		record.setArray(FEMALES, writer.reference(females));
+		record.setArray(CHILDREN, writer.reference(children));
+	}
+
 	public String toString() {
 		// TODO Debug
 		return super.toString() + "(" +
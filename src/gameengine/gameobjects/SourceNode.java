@@ -1,4 +1,10 @@
 /*
+ * 2026-10-18 agent
+ * 	Collects its changed natural resources for the autosave.
+ *
+ * 2026-10-18 agent
+ * 	Can be saved with the natural resources and their type.
+ *
  * 2003-05-11 EliasAE
  * 	Added support for deletable.
  *
@@ -17,6 +23,7 @@ package gameengine.gameobjects;
 import gameengine.tasksystem.TransferTask;
 import gameengine.*;
 import gameengine.gameobjects.ObjectDeletedException;
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -31,6 +38,25 @@ import java.util.*;
  */
 public class SourceNode extends Node {
 
+	/**
+	 * The type of the records that source nodes are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("SourceNode",
+			Node.RECORD_TYPE,
+			new String[] {"naturalResources", "naturalResourceType"},
+			new int[] {RecordType.REFERENCE, RecordType.INT}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new SourceNode(record, reader);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int NATURAL_RESOURCES = RECORD_TYPE.getFieldIndex("naturalResources");
+	private static final int NATURAL_RESOURCE_TYPE = RECORD_TYPE.getFieldIndex("naturalResourceType");
+
 	/**
 	 * The container of the natural resources of the source node.
 	 */
@@ -62,6 +88,19 @@ public class SourceNode extends Node {
 		setDescription("A place where turtles can gather resources.");
 	}
 
+	/**
+	 * Restores a source node that has been saved, without registering it.
+	 *
+	 * @param record the record that the source node was saved as.
+	 * @param reader the reader that has restored the resources.
+	 * @exception IOException if the resources haven't been restored.
+	 */
+	private SourceNode(SaveRecord record, WorldReader reader) throws IOException {
+		super(record, reader);
+		naturalResources = (Resources) reader.getObject(record, NATURAL_RESOURCES);
+		naturalResourceType = record.getInt(NATURAL_RESOURCE_TYPE);
+	}
+
 	/**
 	 * Returns a ready made gather task that will transfer one unit of the
 	 * natural resource to the "free" container.
@@ -104,4 +143,21 @@ public class SourceNode extends Node {
 		return naturalResources.getResourceAmount(naturalResourceType);
 	}
 
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setReference(NATURAL_RESOURCES, writer.reference(naturalResources));
+		record.setInt(NATURAL_RESOURCE_TYPE, naturalResourceType);
+	}
+
+	public void collectChangedResources(List changed) {
+		super.collectChangedResources(changed);
+		if (naturalResources.takeChanged()) {
+			changed.add(naturalResources);
+		}
+	}
+
 }
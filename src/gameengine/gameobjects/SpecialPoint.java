@@ -1,4 +1,8 @@
 /*
+ * 2026-10-18 agent
+ * 	Added the record type, since the move tasks that are saved reference
+ * 	their special points.
+ *
  * 2003-04-12 henko
  * 	Made class public.
  *
@@ -12,6 +16,7 @@ package gameengine.gameobjects;
 
 import gameengine.*;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -21,6 +26,16 @@ import java.util.*;
  */
 public class SpecialPoint extends GameObject {
 
+	/**
+	 * The type of the records that special points are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("SpecialPoint",
+			GameObject.RECORD_TYPE, new String[0], new int[0]) {
+		public Object restore(SaveRecord record, WorldReader reader) {
+			return new SpecialPoint(record);
+		}
+	};
+
 	/**
 	 * Constructs a SpecialPoint at the specified position. NOTE: Does not
 	 * register itself at any list in the world, and the object will
@@ -32,4 +47,17 @@ public class SpecialPoint extends GameObject {
 		super(position);
 	}
 
+	/**
+	 * Restores a special point that has been saved.
+	 *
+	 * @param record the record that the special point was saved as.
+	 */
+	private SpecialPoint(SaveRecord record) {
+		super(record);
+	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
 }
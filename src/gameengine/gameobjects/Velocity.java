@@ -1,4 +1,17 @@
 /* 
+ * 2026-10-18 agent
+ * 	While attached to a slot of an IndividualStore, the direction and
+ * 	speed are only kept in the columns of the store.
+ *
+ * 2026-10-18 agent
+ * 	The direction and magnitude are kept as floats that are changed in
+ * 	place by set(), so that turning doesn't create any objects. A Vector
+ * 	is only created when one is asked for.
+ *
+ * 2026-10-18 agent
+ * 	Can be attached to a slot of an IndividualStore, to which the
+ * 	direction and speed are written when the vector is set.
+ *
  * 2003-05-12 EliasAE
  * 	Removed support for deletable.
  *
@@ -27,14 +40,47 @@ import java.io.Serializable;
  * An attribute describing an objects velocity, for example it's speed
  * and angle (described by a Vector). Has methods for setting and
  * getting the Vector of the object.
+ *
+ * The direction and magnitude are stored as floats, which set() changes in
+ * place. The Vector returned by getVector() is created the first time it is
+ * asked for after a change.
+ *
+ * The velocity of an individual is attached to the slot of the individual
+ * in an IndividualStore, and then the direction and magnitude are only kept
+ * in the columns of the store. The fields of the velocity are only used
+ * while it isn't attached.
  */
 public class Velocity implements Serializable {
 
 	/**
-	 * The Vector that stores the velocity.
+	 * The direction of the velocity, between 0 and 2 pi, while the velocity
+	 * isn't attached to a store.
+	 */
+	private float direction;
+
+	/**
+	 * The magnitude (speed) of the velocity, while the velocity isn't
+	 * attached to a store.
+	 */
+	private float magnitude;
+
+	/**
+	 * The Vector of the current direction and magnitude, or null if it
+	 * hasn't been created since they were last changed.
 	 */
 	private Vector vector;
 
+	/**
+	 * The store that holds the direction and speed, or null if they are
+	 * held by the fields of the velocity.
+	 */
+	private IndividualStore store;
+
+	/**
+	 * The slot of the direction and speed in the store.
+	 */
+	private int slot;
+
 	/**
 	 * Creates a Velocity class with no direction or magnitude.
 	 *
@@ -52,7 +98,25 @@ public class Velocity implements Serializable {
 	 * @param magnitude the magnitude of this Velocity.
 	 */
 	public Velocity(float direction, float magnitude) {
-		vector = new Vector(direction, magnitude);
+		set(direction, magnitude);
+	}
+
+	/**
+	 * Returns the direction of the velocity.
+	 *
+	 * @return the direction, between 0 and 2 pi.
+	 */
+	public float getDirection() {
+		return (store != null) ? store.direction[slot] : direction;
+	}
+
+	/**
+	 * Returns the magnitude (speed) of the velocity.
+	 *
+	 * @return the magnitude.
+	 */
+	public float getMagnitude() {
+		return (store != null) ? store.speed[slot] : magnitude;
 	}
 
 	/**
@@ -61,6 +125,9 @@ public class Velocity implements Serializable {
 	 * @return the Velocity's Vector.
 	 */
 	public Vector getVector() {
+		if (vector == null) {
+			vector = new Vector(getDirection(), getMagnitude());
+		}
 		return vector;
 	}
 
@@ -70,7 +137,55 @@ public class Velocity implements Serializable {
 	 * @param vector the given Vector.
 	 */
 	public void setVector(Vector vector) {
+		set(vector.getDirection(), vector.getMagnitude());
 		this.vector = vector;
 	}
 
+	/**
+	 * Sets the direction and magnitude of the velocity, without creating
+	 * any objects. The direction is corrected to the interval 0 to 2 pi, the
+	 * same way as for a Vector.
+	 *
+	 * @param direction the new direction.
+	 * @param magnitude the new magnitude.
+	 */
+	public void set(float direction, float magnitude) {
+		if (store != null) {
+			store.direction[slot] = Vector.normalizeDirection(direction);
+			store.speed[slot] = magnitude;
+		} else {
+			this.direction = Vector.normalizeDirection(direction);
+			this.magnitude = magnitude;
+		}
+		vector = null;
+	}
+
+	/**
+	 * Attaches the velocity to a slot of an IndividualStore. The direction
+	 * and speed are moved to the slot, and from now on they are only kept
+	 * there.
+	 *
+	 * @param store the store.
+	 * @param slot the slot in the store.
+	 */
+	void attach(IndividualStore store, int slot) {
+		store.direction[slot] = direction;
+		store.speed[slot] = magnitude;
+		this.store = store;
+		this.slot = slot;
+	}
+
+	/**
+	 * Detaches the velocity from its slot, whose direction and speed are
+	 * moved back to the velocity. Is called when the slot is released,
+	 * since it is then reused by another individual.
+	 */
+	void detach() {
+		if (store != null) {
+			direction = store.direction[slot];
+			magnitude = store.speed[slot];
+			store = null;
+		}
+	}
+
 }
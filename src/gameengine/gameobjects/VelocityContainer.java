@@ -1,4 +1,7 @@
 /*
+ * 2026-10-18 agent
+ * 	Added getDirection.
+ *
  * 2003-05-10 henko
  * Created.
  */
@@ -20,5 +23,13 @@ public interface VelocityContainer {
 	 * @return a Vector with the velocity of the object.
 	 */
 	public Vector getVector();
+
+	/**
+	 * Returns the direction of the velocity of the object, without creating
+	 * a Vector.
+	 *
+	 * @return the direction of the velocity, between 0 and 2 pi.
+	 */
+	public float getDirection();
 	
 }
\ No newline at end of file
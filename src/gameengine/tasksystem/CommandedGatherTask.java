@@ -1,4 +1,7 @@
 /*
+ * 2026-10-18 agent
+ *	Saved with its source node, the gathered amount and its sub tasks.
+ *
  * 2003-05-13 henko
  *  The class now extends CommandedTask which takes care of making the Turtle
  *  eat while at work.
@@ -38,12 +41,17 @@
  */
 package gameengine.tasksystem;
 
+import gameengine.RecordType;
+import gameengine.SaveRecord;
 import gameengine.World;
+import gameengine.WorldReader;
+import gameengine.WorldWriter;
 import gameengine.gameobjects.Characteristics;
 import gameengine.gameobjects.Position;
 import gameengine.gameobjects.Resources;
 import gameengine.gameobjects.SourceNode;
 import gameengine.gameobjects.Velocity;
+import java.io.IOException;
 
 /**
   * A CommandedGatherTask is a commanded task and is always ordered by the
@@ -60,6 +68,29 @@ import gameengine.gameobjects.Velocity;
  */
 public class CommandedGatherTask extends CommandedTask {
 
+	/**
+	 * The type of the records that CommandedGatherTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("CommandedGatherTask",
+			CommandedTask.RECORD_TYPE,
+			new String[] {"destination", "gatherCounter", "moveToTask",
+					"wobbleTask"},
+			new int[] {RecordType.REFERENCE, RecordType.FLOAT,
+					RecordType.REFERENCE, RecordType.REFERENCE}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new CommandedGatherTask(record, reader);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int DESTINATION = RECORD_TYPE.getFieldIndex("destination");
+	private static final int GATHER_COUNTER = RECORD_TYPE.getFieldIndex("gatherCounter");
+	private static final int MOVE_TO_TASK = RECORD_TYPE.getFieldIndex("moveToTask");
+	private static final int WOBBLE_TASK = RECORD_TYPE.getFieldIndex("wobbleTask");
+
 	/**
 	 * The destination for the gathering.
 	 */
@@ -101,6 +132,26 @@ public class CommandedGatherTask extends CommandedTask {
 		gatherCounter = 0;
 	}
 
+	/**
+	 * Restores a CommandedGatherTask that has been saved.
+	 *
+	 * @param record the record that the task was saved as.
+	 * @param reader the reader that has restored the source node and the
+	 * sub tasks.
+	 * @exception IOException if they haven't been restored.
+	 */
+	private CommandedGatherTask(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record, reader);
+		destination = (SourceNode) reader.getObject(record, DESTINATION);
+		gatherCounter = record.getFloat(GATHER_COUNTER);
+		moveToTask = (MoveToTask) reader.getObject(record, MOVE_TO_TASK);
+		wobbleTask = (WobbleTask) reader.getObject(record, WOBBLE_TASK);
+		if (destination == null || moveToTask == null) {
+			throw new IOException("A part of a CommandedGatherTask is missing");
+		}
+	}
+
 	/**
 	 * Executes the Task. If the Task contains sub tasks, it will call exeute()
 	 * on those as well. If the Task is unsucessful (which sometimes is
@@ -184,4 +235,28 @@ public class CommandedGatherTask extends CommandedTask {
 		wobbleTask.setPrivateInformation(position, velocity, characteristics, resources);
 	}
 
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void restorePrivateInformation(
+			Position position,
+			Velocity velocity,
+			Characteristics characteristics,
+			Resources resources
+			) {
+		super.restorePrivateInformation(position, velocity, characteristics,
+				resources);
+		restorePrivateInformation(moveToTask);
+		restorePrivateInformation(wobbleTask);
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setReference(DESTINATION, writer.reference(destination));
+		record.setFloat(GATHER_COUNTER, gatherCounter);
+		record.setReference(MOVE_TO_TASK, writer.reference(moveToTask));
+		record.setReference(WOBBLE_TASK, writer.reference(wobbleTask));
+	}
+
 }
@@ -1,11 +1,23 @@
 /*
+ * 2026-10-18 agent
+ *	Saved with its PauseTask and whether it has started to pause.
+ *
  * 2003-05-13 henko
  *  Created and implemented.
  *  CommandedMoveToTask is a MoveToTask followed by a PauseTask.
  */
 package gameengine.tasksystem;
 
+import gameengine.RecordType;
+import gameengine.SaveRecord;
+import gameengine.WorldReader;
+import gameengine.WorldWriter;
+import gameengine.gameobjects.Characteristics;
 import gameengine.gameobjects.GameObject;
+import gameengine.gameobjects.Position;
+import gameengine.gameobjects.Resources;
+import gameengine.gameobjects.Velocity;
+import java.io.IOException;
 
 
 /**
@@ -13,6 +25,25 @@ import gameengine.gameobjects.GameObject;
  * seconds after finishing moving, using a PauseTask.
  */
 public class CommandedMoveToTask extends MoveToTask {
+
+	/**
+	 * The type of the records that CommandedMoveToTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("CommandedMoveToTask",
+			MoveToTask.RECORD_TYPE,
+			new String[] {"pauseTask", "paused"},
+			new int[] {RecordType.REFERENCE, RecordType.BOOLEAN}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new CommandedMoveToTask(record, reader);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int PAUSE_TASK = RECORD_TYPE.getFieldIndex("pauseTask");
+	private static final int PAUSED = RECORD_TYPE.getFieldIndex("paused");
 	
 	/**
 	 * The pausetask to execute when finished with normal duties.
@@ -45,6 +76,23 @@ public class CommandedMoveToTask extends MoveToTask {
 		super(destination, relativeSpeed);
 		pauseTask = new PauseTask();
 	}
+
+	/**
+	 * Restores a CommandedMoveToTask that has been saved.
+	 *
+	 * @param record the record that the task was saved as.
+	 * @param reader the reader that has restored the sub tasks.
+	 * @exception IOException if they haven't been restored.
+	 */
+	private CommandedMoveToTask(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record, reader);
+		pauseTask = (Task) reader.getObject(record, PAUSE_TASK);
+		paused = record.getBoolean(PAUSED);
+		if (pauseTask == null) {
+			pauseTask = new PauseTask();
+		}
+	}
 	
 	/**
 	 * Executes the Task. If the Task contains sub tasks, it will call exeute()
@@ -73,4 +121,25 @@ public class CommandedMoveToTask extends MoveToTask {
 		
 		return success;
  	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void restorePrivateInformation(
+			Position position,
+			Velocity velocity,
+			Characteristics characteristics,
+			Resources resources
+			) {
+		super.restorePrivateInformation(position, velocity, characteristics,
+				resources);
+		restorePrivateInformation(pauseTask);
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setReference(PAUSE_TASK, writer.reference(pauseTask));
+		record.setBoolean(PAUSED, paused);
+	}
 }
@@ -1,4 +1,7 @@
 /*
+ * 2026-10-18 agent
+ *	Can be saved, and restored with the light pillar it was saved with.
+ *
  * 2003-05-13 henko
  *  The class now extends CommandedTask which takes care of making the Turtle
  *  eat while at work.
@@ -26,12 +29,17 @@
  */
 package gameengine.tasksystem;
 
+import gameengine.RecordType;
+import gameengine.SaveRecord;
 import gameengine.World;
+import gameengine.WorldReader;
+import gameengine.WorldWriter;
 import gameengine.gameobjects.Characteristics;
 import gameengine.gameobjects.LightPillarNode;
 import gameengine.gameobjects.Position;
 import gameengine.gameobjects.Resources;
 import gameengine.gameobjects.Velocity;
+import java.io.IOException;
 
 /**
  * A CommandedSacrificeTask is a commanded task and is always ordered by
@@ -48,6 +56,29 @@ import gameengine.gameobjects.Velocity;
  */
 public class CommandedSacrificeTask extends CommandedTask {
 
+	/**
+	 * The type of the records that CommandedSacrificeTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("CommandedSacrificeTask",
+			CommandedTask.RECORD_TYPE,
+			new String[] {"sacrificeCounter", "moveToTask", "wobbleTask",
+					"lightPillar"},
+			new int[] {RecordType.FLOAT, RecordType.REFERENCE,
+					RecordType.REFERENCE, RecordType.REFERENCE}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new CommandedSacrificeTask(record, reader);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int SACRIFICE_COUNTER = RECORD_TYPE.getFieldIndex("sacrificeCounter");
+	private static final int MOVE_TO_TASK = RECORD_TYPE.getFieldIndex("moveToTask");
+	private static final int WOBBLE_TASK = RECORD_TYPE.getFieldIndex("wobbleTask");
+	private static final int LIGHT_PILLAR = RECORD_TYPE.getFieldIndex("lightPillar");
+
 	/**
 	 * The current amount of gathered resources. Every time it is greater
 	 * than one, one unit of resources is transfered.
@@ -80,6 +111,26 @@ public class CommandedSacrificeTask extends CommandedTask {
 		sacrificeCounter = 0;
 	}
 
+	/**
+	 * Restores a CommandedSacrificeTask that has been saved.
+	 *
+	 * @param record the record that the task was saved as.
+	 * @param reader the reader that has restored the light pillar and the
+	 * sub tasks.
+	 * @exception IOException if they haven't been restored.
+	 */
+	private CommandedSacrificeTask(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record, reader);
+		sacrificeCounter = record.getFloat(SACRIFICE_COUNTER);
+		moveToTask = (MoveToTask) reader.getObject(record, MOVE_TO_TASK);
+		wobbleTask = (WobbleTask) reader.getObject(record, WOBBLE_TASK);
+		lightPillar = (LightPillarNode) reader.getObject(record, LIGHT_PILLAR);
+		if (lightPillar == null || moveToTask == null) {
+			throw new IOException("A part of a CommandedSacrificeTask is missing");
+		}
+	}
+
 	/**
 	 * Executes the Task. If the Task contains sub tasks, it will call exeute()
 	 * on those as well. If the Task is unsucessful (which sometimes is
@@ -163,5 +214,29 @@ public class CommandedSacrificeTask extends CommandedTask {
 		wobbleTask.setPrivateInformation(position, velocity, characteristics, resources);
 	}
 
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void restorePrivateInformation(
+			Position position,
+			Velocity velocity,
+			Characteristics characteristics,
+			Resources resources
+			) {
+		super.restorePrivateInformation(position, velocity, characteristics,
+				resources);
+		restorePrivateInformation(moveToTask);
+		restorePrivateInformation(wobbleTask);
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setFloat(SACRIFICE_COUNTER, sacrificeCounter);
+		record.setReference(MOVE_TO_TASK, writer.reference(moveToTask));
+		record.setReference(WOBBLE_TASK, writer.reference(wobbleTask));
+		record.setReference(LIGHT_PILLAR, writer.reference(lightPillar));
+	}
+
 }
 
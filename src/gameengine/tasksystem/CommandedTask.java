@@ -1,4 +1,8 @@
 /*
+ * 2026-10-18 agent
+ *	Added the record type that the commanded tasks extend, with the pause
+ *	and the hunger and depression of the owner.
+ *
  * 2003-05-13 henko
  *   All commanded tasks now pause for a few seconds after being finished.
  * 
@@ -12,7 +16,16 @@
 package gameengine.tasksystem;
 
 import gameengine.Environment;
+import gameengine.RecordType;
+import gameengine.SaveRecord;
+import gameengine.WorldReader;
+import gameengine.WorldWriter;
+import gameengine.gameobjects.Characteristics;
 import gameengine.gameobjects.Node;
+import gameengine.gameobjects.Position;
+import gameengine.gameobjects.Resources;
+import gameengine.gameobjects.Velocity;
+import java.io.IOException;
 
 /**
  * CommandedTask is a task that is ordered by the user. It contains code that is
@@ -23,6 +36,23 @@ import gameengine.gameobjects.Node;
  * used before execution.
  */
 public abstract class CommandedTask extends Task {
+
+	/**
+	 * The type that the record types of the subclasses extend.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("CommandedTask",
+			Task.RECORD_TYPE,
+			new String[] {"pauseTask", "paused", "hungry", "depressed"},
+			new int[] {RecordType.REFERENCE, RecordType.BOOLEAN,
+					RecordType.BOOLEAN, RecordType.BOOLEAN});
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int PAUSE_TASK = RECORD_TYPE.getFieldIndex("pauseTask");
+	private static final int PAUSED = RECORD_TYPE.getFieldIndex("paused");
+	private static final int HUNGRY = RECORD_TYPE.getFieldIndex("hungry");
+	private static final int DEPRESSED = RECORD_TYPE.getFieldIndex("depressed");
 	
 	/**
 	 * The pausetask to execute when finished with normal duties.
@@ -49,6 +79,25 @@ public abstract class CommandedTask extends Task {
 		paused = false;
 	}
 
+	/**
+	 * Restores the fields of a commanded task that has been saved.
+	 *
+	 * @param record the record that the task was saved as.
+	 * @param reader the reader that has restored the PauseTask.
+	 * @exception IOException if it hasn't been restored.
+	 */
+	protected CommandedTask(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record);
+		pauseTask = (Task) reader.getObject(record, PAUSE_TASK);
+		paused = record.getBoolean(PAUSED);
+		hungry = record.getBoolean(HUNGRY);
+		depressed = record.getBoolean(DEPRESSED);
+		if (pauseTask == null) {
+			pauseTask = new PauseTask();
+		}
+	}
+
 	/**
 	 * Executes the Task. If the Task contains sub tasks, it will call exeute()
 	 * on those as well. If the Task is unsucessful (which sometimes is
@@ -168,4 +217,27 @@ public abstract class CommandedTask extends Task {
 		
 	}
 
+	public void restorePrivateInformation(
+			Position position,
+			Velocity velocity,
+			Characteristics characteristics,
+			Resources resources
+			) {
+		super.restorePrivateInformation(position, velocity, characteristics,
+				resources);
+		restorePrivateInformation(pauseTask);
+	}
+
+	/**
+	 * Saves the fields that all commanded tasks have. The subclasses save
+	 * their own fields after calling this method.
+	 */
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setReference(PAUSE_TASK, writer.reference(pauseTask));
+		record.setBoolean(PAUSED, paused);
+		record.setBoolean(HUNGRY, hungry);
+		record.setBoolean(DEPRESSED, depressed);
+	}
+
 }
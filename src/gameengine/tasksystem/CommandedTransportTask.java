@@ -1,4 +1,8 @@
 /*
+ * 2026-10-18 agent
+ *	Saved with its route. TransportMoveToTask is a static nested class,
+ *	so that it can have a record type of its own.
+ *
  * 2003-05-13 henko
  *  The class now extends CommandedTask which takes care of making the Turtle
  *  eat while at work.
@@ -32,13 +36,18 @@
  */
 package gameengine.tasksystem;
 
+import gameengine.RecordType;
+import gameengine.SaveRecord;
 import gameengine.World;
+import gameengine.WorldReader;
+import gameengine.WorldWriter;
 import gameengine.gameobjects.Characteristics;
 import gameengine.gameobjects.Node;
 import gameengine.gameobjects.Position;
 import gameengine.gameobjects.Resources;
 import gameengine.gameobjects.Velocity;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -61,6 +70,31 @@ import java.util.List;
  */
 public class CommandedTransportTask extends CommandedTask {
 
+	/**
+	 * The type of the records that CommandedTransportTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("CommandedTransportTask",
+			CommandedTask.RECORD_TYPE,
+			new String[] {"commited", "transportOrders", "transportNodes",
+					"initializationNode", "index"},
+			new int[] {RecordType.BOOLEAN, RecordType.REFERENCE_ARRAY,
+					RecordType.REFERENCE_ARRAY, RecordType.REFERENCE,
+					RecordType.INT}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new CommandedTransportTask(record, reader);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int COMMITED = RECORD_TYPE.getFieldIndex("commited");
+	private static final int TRANSPORT_ORDERS = RECORD_TYPE.getFieldIndex("transportOrders");
+	private static final int TRANSPORT_NODES = RECORD_TYPE.getFieldIndex("transportNodes");
+	private static final int INITIALIZATION_NODE = RECORD_TYPE.getFieldIndex("initializationNode");
+	private static final int INDEX = RECORD_TYPE.getFieldIndex("index");
+
 	/**
 	 * A boolean that states if the task is commited or not, i.e. that
 	 * it has been completed by the user (and therefore can be performed)
@@ -107,6 +141,30 @@ public class CommandedTransportTask extends CommandedTask {
 		initializationNode = node;
 	}
 
+	/**
+	 * Restores a CommandedTransportTask that has been saved, with its route.
+	 *
+	 * @param record the record that the task was saved as.
+	 * @param reader the reader that has restored the orders and the nodes.
+	 * @exception IOException if they haven't been restored, or if there
+	 * isn't a node for each order.
+	 */
+	private CommandedTransportTask(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record, reader);
+		commited = record.getBoolean(COMMITED);
+		transportOrders = new ArrayList();
+		reader.getObjects(record, TRANSPORT_ORDERS, transportOrders);
+		transportNodes = new ArrayList();
+		reader.getObjects(record, TRANSPORT_NODES, transportNodes);
+		initializationNode = (Node) reader.getObject(record, INITIALIZATION_NODE);
+		index = record.getInt(INDEX);
+		if (transportOrders.size() != transportNodes.size() ||
+				(index != 0 && index >= transportOrders.size())) {
+			throw new IOException("Invalid route of a CommandedTransportTask");
+		}
+	}
+
 	/**
 	 * Adds a new waypoint to the transport route. If the addPickUp weren't
 	 * called before this method, the transportation between the second last
@@ -310,12 +368,49 @@ public class CommandedTransportTask extends CommandedTask {
 		}
 	}
 
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void restorePrivateInformation(
+			Position position,
+			Velocity velocity,
+			Characteristics characteristics,
+			Resources resources
+			) {
+		super.restorePrivateInformation(position, velocity, characteristics,
+				resources);
+		for (int i = 0; i < transportOrders.size(); i++) {
+			restorePrivateInformation((Task) transportOrders.get(i));
+		}
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setBoolean(COMMITED, commited);
+		record.setArray(TRANSPORT_ORDERS, writer.reference(transportOrders));
+		record.setArray(TRANSPORT_NODES, writer.reference(transportNodes));
+		record.setReference(INITIALIZATION_NODE, writer.reference(initializationNode));
+		record.setInt(INDEX, index);
+	}
+
 	/**
 	 * This class is a wrapper for MoveToTask and is only used by 
 	 * CommandedTransportTask and has special setPrivateInformation() and
 	 * reset() functions.
 	 */
-	class TransportMoveToTask extends MoveToTask {
+	static class TransportMoveToTask extends MoveToTask {
+
+		/**
+		 * The type of the records that TransportMoveToTasks are saved as.
+		 */
+		static final RecordType RECORD_TYPE = new RecordType("TransportMoveToTask",
+				MoveToTask.RECORD_TYPE, new String[0], new int[0]) {
+			public Object restore(SaveRecord record, WorldReader reader)
+					throws IOException {
+				return new TransportMoveToTask(record, reader);
+			}
+		};
 
 		/**
 		 * Constructs a MoveToTask with a specified destination.
@@ -326,6 +421,19 @@ public class CommandedTransportTask extends CommandedTask {
 			super(destination);
 		}
 
+		/**
+		 * Restores a TransportMoveToTask that has been saved, with the
+		 * relative speed it had.
+		 */
+		private TransportMoveToTask(SaveRecord record, WorldReader reader)
+				throws IOException {
+			super(record, reader);
+		}
+
+		public RecordType getRecordType() {
+			return RECORD_TYPE;
+		}
+
 		/* (non-Javadoc)
 		 * @see gameengine.tasksystem.Task#setPrivateInformation(gameengine.gameobjects.Position, gameengine.gameobjects.Velocity, gameengine.gameobjects.Characteristics, gameengine.gameobjects.Resources)
 		 * 
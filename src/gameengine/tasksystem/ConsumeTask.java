@@ -1,4 +1,8 @@
-/* 2003-05-11 Martin
+/* 2026-10-18 agent
+ *	Added the record type, so that all tasks can be saved, although a
+ *	ConsumeTask is executed at once and isn't kept by any other task.
+ *
+ * 2003-05-11 Martin
  *	Corrected the naming of an exception.
  *
  * 2003-05-09 henko
@@ -22,6 +26,11 @@ import gameengine.tasksystem.GeneralTaskException;
 import gameengine.gameobjects.Characteristics;
 import gameengine.gameobjects.Resources;
 import gameengine.Environment;
+import gameengine.RecordType;
+import gameengine.SaveRecord;
+import gameengine.WorldReader;
+import gameengine.WorldWriter;
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -33,6 +42,27 @@ import java.util.*;
  */
 public class ConsumeTask extends Task {
 
+	/**
+	 * The type of the records that ConsumeTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("ConsumeTask",
+			Task.RECORD_TYPE,
+			new String[] {"characteristics", "resources", "resourceType"},
+			new int[] {RecordType.REFERENCE, RecordType.REFERENCE,
+					RecordType.INT}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new ConsumeTask(record, reader);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int CHARACTERISTICS = RECORD_TYPE.getFieldIndex("characteristics");
+	private static final int RESOURCES = RECORD_TYPE.getFieldIndex("resources");
+	private static final int RESOURCE_TYPE = RECORD_TYPE.getFieldIndex("resourceType");
+
 	///////////////////////////////////////
 	// operations
 
@@ -66,6 +96,21 @@ public class ConsumeTask extends Task {
 		this.resourceType = resourceType;
 	}
 
+	/**
+	 * Restores a ConsumeTask that has been saved.
+	 *
+	 * @param record the record that the task was saved as.
+	 * @param reader the reader that has restored the attributes.
+	 * @exception IOException if they haven't been restored.
+	 */
+	private ConsumeTask(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record);
+		characteristics = (Characteristics) reader.getObject(record, CHARACTERISTICS);
+		resources = (Resources) reader.getObject(record, RESOURCES);
+		resourceType = record.getInt(RESOURCE_TYPE);
+	}
+
 	/**
 	 * Executes the Task. If the Task contains sub tasks, it will call exeute()
 	 * on those as well. If the Task is unsucessful (which sometimes is
@@ -96,4 +141,15 @@ public class ConsumeTask extends Task {
 			return false;
 		}
 	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setReference(CHARACTERISTICS, writer.reference(characteristics));
+		record.setReference(RESOURCES, writer.reference(resources));
+		record.setInt(RESOURCE_TYPE, resourceType);
+	}
 }
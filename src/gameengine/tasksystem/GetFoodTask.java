@@ -1,4 +1,7 @@
-/* 2003-05-04 Martin
+/* 2026-10-18 agent
+ *	Added the record type, with the fields of GetResourceTask.
+ *
+ * 2003-05-04 Martin
  *	Completed the task with correct inheritance from GetResourceTask.
  *
  * 2003-04-15 Martin
@@ -10,7 +13,11 @@
  */
 package gameengine.tasksystem;
 import gameengine.Environment;
+import gameengine.RecordType;
+import gameengine.SaveRecord;
+import gameengine.WorldReader;
 import gameengine.gameobjects.SourceNode;
+import java.io.IOException;
 
 /**
  * The GetFoodTask is created when the owner of the task has a need of
@@ -26,6 +33,17 @@ import gameengine.gameobjects.SourceNode;
  */
 public class GetFoodTask extends GetResourceTask {
 
+	/**
+	 * The type of the records that GetFoodTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("GetFoodTask",
+			GetResourceTask.RECORD_TYPE, new String[0], new int[0]) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new GetFoodTask(record, reader);
+		}
+	};
+
 	///////////////////////////////////////
 	// operations
 
@@ -38,4 +56,16 @@ public class GetFoodTask extends GetResourceTask {
 		super(destination, Environment.FOOD);
 
 	}
+
+	/**
+	 * Restores a GetFoodTask that has been saved.
+	 */
+	private GetFoodTask(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record, reader);
+	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
 }
@@ -1,4 +1,7 @@
-/* 2003-05-04 Martin
+/* 2026-10-18 agent
+ *	Can be saved like a GetResourceTask, under a type of its own.
+ *
+ * 2003-05-04 Martin
  *	Completed the task with correct inheritance from GetResourceTask.
  *
  * 2003-04-30 Martin
@@ -10,7 +13,11 @@
  */
 package gameengine.tasksystem;
 import gameengine.Environment;
+import gameengine.RecordType;
+import gameengine.SaveRecord;
+import gameengine.WorldReader;
 import gameengine.gameobjects.SourceNode;
+import java.io.IOException;
 
 /**
  * The GetHappinessTask is created when the owner of the task has a need of
@@ -27,6 +34,17 @@ import gameengine.gameobjects.SourceNode;
  */
 public class GetHappinessTask extends GetResourceTask {
 
+	/**
+	 * The type of the records that GetHappinessTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("GetHappinessTask",
+			GetResourceTask.RECORD_TYPE, new String[0], new int[0]) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new GetHappinessTask(record, reader);
+		}
+	};
+
 	///////////////////////////////////////
 	// operations
 
@@ -39,4 +57,16 @@ public class GetHappinessTask extends GetResourceTask {
 		super(destination, Environment.HAPPINESS);
 
 	}
+
+	/**
+	 * Restores a GetHappinessTask that has been saved.
+	 */
+	private GetHappinessTask(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record, reader);
+	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
 }
\ No newline at end of file
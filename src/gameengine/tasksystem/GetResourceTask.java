@@ -1,4 +1,13 @@
-/* 2003-05-13 henko
+/* 2026-10-18 agent
+ *	Added the record type that GetFoodTask and GetHappinessTask extend.
+ *	The move and wobble tasks are restored as they were saved.
+ *
+ * 2026-10-18 agent
+ *	The gathering of a unit from the source node is deferred with
+ *	World.defer(), since the source node is shared with other individuals
+ *	that are updated in parallel.
+ *
+ * 2003-05-13 henko
  *  Updated the execute method. We shouldn't try to eat when we know that
  *  there are no resources.
  *
@@ -23,7 +32,13 @@ import gameengine.gameobjects.Velocity;
 import gameengine.tasksystem.GeneralTaskException;
 import gameengine.gameobjects.SourceNode;
 import gameengine.Environment;
+import gameengine.RecordType;
+import gameengine.SaveRecord;
 import gameengine.World;
+import gameengine.WorldCommand;
+import gameengine.WorldReader;
+import gameengine.WorldWriter;
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -43,6 +58,30 @@ public class GetResourceTask extends Task{
 	///////////////////////////////////////
 	// operations
 
+	/**
+	 * The type of the records that GetResourceTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("GetResourceTask",
+			Task.RECORD_TYPE,
+			new String[] {"destination", "gatherCounter", "moveToTask",
+					"wobbleTask", "resourceType"},
+			new int[] {RecordType.REFERENCE, RecordType.FLOAT,
+					RecordType.REFERENCE, RecordType.REFERENCE, RecordType.INT}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new GetResourceTask(record, reader);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int DESTINATION = RECORD_TYPE.getFieldIndex("destination");
+	private static final int GATHER_COUNTER = RECORD_TYPE.getFieldIndex("gatherCounter");
+	private static final int MOVE_TO_TASK = RECORD_TYPE.getFieldIndex("moveToTask");
+	private static final int WOBBLE_TASK = RECORD_TYPE.getFieldIndex("wobbleTask");
+	private static final int RESOURCE_TYPE = RECORD_TYPE.getFieldIndex("resourceType");
+
 	/**
 	 * The destination for the gathering.
 	 */
@@ -86,6 +125,27 @@ public class GetResourceTask extends Task{
 		// setPrivateInformation()
 	}
 
+	/**
+	 * Restores a GetResourceTask that has been saved.
+	 *
+	 * @param record the record that the task was saved as.
+	 * @param reader the reader that has restored the destination and the
+	 * sub tasks.
+	 * @exception IOException if they haven't been restored.
+	 */
+	protected GetResourceTask(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record);
+		destination = (SourceNode) reader.getObject(record, DESTINATION);
+		gatherCounter = record.getFloat(GATHER_COUNTER);
+		moveToTask = (MoveToTask) reader.getObject(record, MOVE_TO_TASK);
+		wobbleTask = (WobbleTask) reader.getObject(record, WOBBLE_TASK);
+		resourceType = record.getInt(RESOURCE_TYPE);
+		if (destination == null) {
+			throw new IOException("The destination of a GetResourceTask is missing");
+		}
+	}
+
 	/**
 	 * Executes the Task. If the Task contains sub tasks, it will call exeute()
 	 * on those as well. If the Task is unsucessful (which sometimes is
@@ -109,37 +169,13 @@ public class GetResourceTask extends Task{
 			// If enough gathering has been done for 1 unit
 			if(gatherCounter > 1f) {
 				gatherCounter -= 1f;
-				// Create a new transfer task and do the transfer of one unit
-				TransferTask transferTask = destination.getGatherTask();
-				transferTask.execute();
-
-				// If the transfer didn't work (the source node depleted), unregister it from
-				// one of the lists of source nodes. Set this task to done.
-				if(!transferTask.isDone()) {
-					World.getWorld().unRegister(destination);
-					done = true;
-				} else {
-
-					// Get food and happiness
-					// Picks upp one (1) food
-					TransferTask resourceTransfer = destination.getPickUpTask(resources,
-							resourceType, 1);
-					resourceTransfer.execute();
-					if (resourceTransfer.isDone()) {
-						ConsumeTask consumeResource = new ConsumeTask(resources,
-								characteristics, resourceType);
-						consumeResource.execute();
-					}
-	
-					// If the specific need is full, set the task to done
-					if(resourceType == Environment.FOOD) {
-						done = (characteristics.getSaturation() >= 1f);
-					}
-					else if(resourceType == Environment.HAPPINESS) {
-						done = (characteristics.getHappiness() >= 1f);
+				// The source node is shared, so the unit is gathered when
+				// the changes of the tick are committed.
+				World.getWorld().defer(new WorldCommand() {
+					public void execute() {
+						gatherUnit();
 					}
-				}
-				
+				});
 			}
 			// Wobble, i.e. gather
 			wobbleTask.execute();
@@ -157,6 +193,57 @@ public class GetResourceTask extends Task{
 		return true;
 	}
 
+	/**
+	 * Gathers one unit from the source node and consumes it. If the source
+	 * node is depleted it is unregistered, and the task is set to done, as it
+	 * also is when the need is fulfilled.
+	 */
+	private void gatherUnit() {
+		// The task may have been finished after the gathering was deferred.
+		if (isDone()) {
+			return;
+		}
+		// Create a new transfer task and do the transfer of one unit
+		TransferTask transferTask = destination.getGatherTask();
+		try {
+			transferTask.execute();
+		} catch (GeneralTaskException gte) {
+			System.err.println("GetResourceTask: GeneralTaskException");
+			return;
+		}
+
+		// If the transfer didn't work (the source node depleted), unregister it from
+		// one of the lists of source nodes. Set this task to done.
+		if(!transferTask.isDone()) {
+			World.getWorld().unRegister(destination);
+			done = true;
+		} else {
+
+			// Get food and happiness
+			// Picks upp one (1) food
+			TransferTask resourceTransfer = destination.getPickUpTask(resources,
+					resourceType, 1);
+			try {
+				resourceTransfer.execute();
+				if (resourceTransfer.isDone()) {
+					ConsumeTask consumeResource = new ConsumeTask(resources,
+							characteristics, resourceType);
+					consumeResource.execute();
+				}
+			} catch (GeneralTaskException gte) {
+				System.err.println("GetResourceTask: GeneralTaskException");
+			}
+
+			// If the specific need is full, set the task to done
+			if(resourceType == Environment.FOOD) {
+				done = (characteristics.getSaturation() >= 1f);
+			}
+			else if(resourceType == Environment.HAPPINESS) {
+				done = (characteristics.getHappiness() >= 1f);
+			}
+		}
+	}
+
 	/**
 	 * Sends all the attributes of the task's owner to the Task. That
 	 * gives the Task all the information it needs. The methods also sends
@@ -191,4 +278,29 @@ public class GetResourceTask extends Task{
 		wobbleTask.setPrivateInformation(position, velocity, characteristics, resources);
 	}
 
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void restorePrivateInformation(
+			Position position,
+			Velocity velocity,
+			Characteristics characteristics,
+			Resources resources
+			) {
+		super.restorePrivateInformation(position, velocity, characteristics,
+				resources);
+		restorePrivateInformation(moveToTask);
+		restorePrivateInformation(wobbleTask);
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setReference(DESTINATION, writer.reference(destination));
+		record.setFloat(GATHER_COUNTER, gatherCounter);
+		record.setReference(MOVE_TO_TASK, writer.reference(moveToTask));
+		record.setReference(WOBBLE_TASK, writer.reference(wobbleTask));
+		record.setInt(RESOURCE_TYPE, resourceType);
+	}
+
 }
@@ -1,4 +1,15 @@
 /*
+ * 2026-10-18 agent
+ *	Can be saved with the velocity it is about to set, its destination
+ *	and its relative speed.
+ *
+ * 2026-10-18 agent
+ *	Moves the position and sets the velocity in place, and clamps the new
+ *	coordinates to the bounds instead of catching an exception and creating
+ *	a FailSafePoint, so that a move creates no objects. Added
+ *	setNewVelocity() and setRelativeSpeed(), so that a MoveTask can be
+ *	reused.
+ *
  * 2003-05-11 henko
  *	Made execute() return false if it tried to walk out of bounds. This is
  *  used by MoveToTask.
@@ -31,9 +42,14 @@
  */
 package gameengine.tasksystem;
 
-import gameengine.FailSafePoint;
 import gameengine.Point;
+import gameengine.RecordType;
+import gameengine.SaveRecord;
 import gameengine.Vector;
+import gameengine.World;
+import gameengine.WorldReader;
+import gameengine.WorldWriter;
+import java.io.IOException;
 
 /**
  * The MoveTask is instantly done and always sucessful. The task changes
@@ -45,14 +61,56 @@ import gameengine.Vector;
  * a &quot;teleporting&quot;). Before changing the position MoveTask
  * always checks if the new coordinates is out of bounds. If so, it will
  * recalculate the position accordingly.
+ *
+ * A move changes the position and velocity in place and creates no
+ * objects, and the same MoveTask can be executed again with a new velocity
+ * set by setNewVelocity(), so tasks that move every tick can keep one
+ * MoveTask instead of creating a new one each time.
  */
 class MoveTask extends Task {
 
 	/**
-	 * The new velocity to set before the move task begins the move.
-	 * If no velocity should be set this is null.
+	 * The type of the records that MoveTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("MoveTask",
+			Task.RECORD_TYPE,
+			new String[] {"hasNewVelocity", "newDirection", "newMagnitude",
+					"hasDestination", "destinationX", "destinationY",
+					"relativeSpeed"},
+			new int[] {RecordType.BOOLEAN, RecordType.FLOAT, RecordType.FLOAT,
+					RecordType.BOOLEAN, RecordType.FLOAT, RecordType.FLOAT,
+					RecordType.FLOAT}) {
+		public Object restore(SaveRecord record, WorldReader reader) {
+			return new MoveTask(record);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int HAS_NEW_VELOCITY = RECORD_TYPE.getFieldIndex("hasNewVelocity");
+	private static final int NEW_DIRECTION = RECORD_TYPE.getFieldIndex("newDirection");
+	private static final int NEW_MAGNITUDE = RECORD_TYPE.getFieldIndex("newMagnitude");
+	private static final int HAS_DESTINATION = RECORD_TYPE.getFieldIndex("hasDestination");
+	private static final int DESTINATION_X = RECORD_TYPE.getFieldIndex("destinationX");
+	private static final int DESTINATION_Y = RECORD_TYPE.getFieldIndex("destinationY");
+	private static final int RELATIVE_SPEED = RECORD_TYPE.getFieldIndex("relativeSpeed");
+
+	/**
+	 * True if a new velocity should be set before the move task begins the
+	 * move.
 	 */
-	private Vector newVelocity;
+	private boolean hasNewVelocity;
+
+	/**
+	 * The direction of the new velocity.
+	 */
+	private float newDirection;
+
+	/**
+	 * The magnitude of the new velocity.
+	 */
+	private float newMagnitude;
 
 	/**
 	 * Destination for a teleportation that should be done without
@@ -73,7 +131,7 @@ class MoveTask extends Task {
 	 * @param relativeSpeed the relative speed of the movement.
 	 */
 	public MoveTask(Vector newVelocity, float relativeSpeed) {
-		this.newVelocity = newVelocity;
+		setNewVelocity(newVelocity.getDirection(), newVelocity.getMagnitude());
 		this.relativeSpeed = relativeSpeed;
 	}
 
@@ -101,13 +159,53 @@ class MoveTask extends Task {
 		this.destination = destination;
 	}
 
+	/**
+	 * Restores a MoveTask that has been saved.
+	 *
+	 * @param record the record that the task was saved as.
+	 */
+	private MoveTask(SaveRecord record) {
+		super(record);
+		hasNewVelocity = record.getBoolean(HAS_NEW_VELOCITY);
+		newDirection = record.getFloat(NEW_DIRECTION);
+		newMagnitude = record.getFloat(NEW_MAGNITUDE);
+		if (record.getBoolean(HAS_DESTINATION)) {
+			destination = new Point(record.getFloat(DESTINATION_X),
+					record.getFloat(DESTINATION_Y));
+		}
+		relativeSpeed = record.getFloat(RELATIVE_SPEED);
+	}
+
+	/**
+	 * Sets a new velocity to set before the next move. Only the next
+	 * execution changes the velocity.
+	 *
+	 * @param direction the direction of the new velocity.
+	 * @param magnitude the magnitude of the new velocity.
+	 */
+	void setNewVelocity(float direction, float magnitude) {
+		hasNewVelocity = true;
+		newDirection = direction;
+		newMagnitude = magnitude;
+	}
+
+	/**
+	 * Sets the relative speed of the following moves.
+	 *
+	 * @param relativeSpeed the relative speed of the movement.
+	 */
+	void setRelativeSpeed(float relativeSpeed) {
+		this.relativeSpeed = relativeSpeed;
+	}
+
 	/**
 	 * Moves the position depending on how the task was created.
 	 * Either a teleport or an update with the right velocity.
 	 * If a new velocity was specified the velocity is set once
 	 * before the task executes the first time.
 	 * Returns true if the move was successful, or false if the
-	 * given position was out of bounds.
+	 * given position was out of bounds, in which case the position is
+	 * moved to the nearest point within the bounds.
 	 *
 	 * @return true if successful, false if out of bounds.
 	 */
@@ -122,9 +220,9 @@ class MoveTask extends Task {
 		}
 		// Change the velocity if we have a new one to set. Only change
 		// the velocity once per MoveTask
-		if (newVelocity != null) {
-			velocity.setVector(newVelocity);
-			newVelocity = null;
+		if (hasNewVelocity) {
+			velocity.set(newDirection, newMagnitude);
+			hasNewVelocity = false;
 		}
 
 		if (destination != null) {
@@ -133,23 +231,56 @@ class MoveTask extends Task {
 			done = true;
 			
 		} else {
-			Point point = position.getPoint();
-			Vector oldVector = velocity.getVector();
-
-			// Creates a new vector with speed corrected by the relativeSpeed
-			Vector vector = new Vector(oldVector.getDirection(),
-					oldVector.getMagnitude() * relativeSpeed);
-
-			// Update the position with the velocity
-			try {
-				position.setPoint(new Point(point, vector));
-			} catch (IllegalArgumentException iae) {
-				position.setPoint(new FailSafePoint(point, vector));
+			// The speed corrected by the relativeSpeed
+			float magnitude = velocity.getMagnitude() * relativeSpeed;
+			float direction = velocity.getDirection();
+			float timeSinceCycle = World.getWorld().getTimeSinceCycle();
+
+			// Update the position with the velocity, calculated the same
+			// way as Point(Point, Vector).
+			float x = position.getX() +
+					((float) (magnitude * timeSinceCycle * Math.cos(direction)));
+			float y = position.getY() +
+					((float) (magnitude * timeSinceCycle * Math.sin(direction)));
+
+			// Keep within the bounds, like a FailSafePoint.
+			Point minCoordinate = World.getEnvironment().getMinCoordinate();
+			Point maxCoordinate = World.getEnvironment().getMaxCoordinate();
+			if (x > maxCoordinate.getX()) {
+				x = maxCoordinate.getX();
+				successful = false;
+			} else if (x < minCoordinate.getX()) {
+				x = minCoordinate.getX();
+				successful = false;
+			}
+			if (y > maxCoordinate.getY()) {
+				y = maxCoordinate.getY();
+				successful = false;
+			} else if (y < minCoordinate.getY()) {
+				y = minCoordinate.getY();
 				successful = false;
 			}
+			position.setLocation(x, y);
 		}
 
 		return successful;
 	}
 
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setBoolean(HAS_NEW_VELOCITY, hasNewVelocity);
+		record.setFloat(NEW_DIRECTION, newDirection);
+		record.setFloat(NEW_MAGNITUDE, newMagnitude);
+		if (destination != null) {
+			record.setBoolean(HAS_DESTINATION, true);
+			record.setFloat(DESTINATION_X, destination.getX());
+			record.setFloat(DESTINATION_Y, destination.getY());
+		}
+		record.setFloat(RELATIVE_SPEED, relativeSpeed);
+	}
+
 }
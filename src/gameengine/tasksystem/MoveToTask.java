@@ -1,4 +1,17 @@
 /*
+ * 2026-10-18 agent
+ *	The abort is only printed if World.isLoggingEvents().
+ *
+ * 2026-10-18 agent
+ *	Added the record type, which StrollTask, SafetyTask and the other
+ *	subclasses extend or share, and the restoring constructor.
+ *
+ * 2026-10-18 agent
+ *	Keeps one MoveTask that is reused every step, and calculates with the
+ *	coordinates of the positions instead of Points, so that a step creates
+ *	no objects. The destination is followed when its coordinates change,
+ *	instead of when its Point is another object.
+ *
  * 2003-05-11 henko
  *	If a MoveTask is non-successful it means it tried to walk out of bounds.
  *  Such a MoveTask will set the MoveToTask to done.
@@ -35,8 +48,17 @@
 package gameengine.tasksystem;
 
 import gameengine.Point;
-import gameengine.Vector;
+import gameengine.RecordType;
+import gameengine.SaveRecord;
+import gameengine.World;
+import gameengine.WorldReader;
+import gameengine.WorldWriter;
+import gameengine.gameobjects.Characteristics;
 import gameengine.gameobjects.GameObject;
+import gameengine.gameobjects.Position;
+import gameengine.gameobjects.Resources;
+import gameengine.gameobjects.Velocity;
+import java.io.IOException;
 
 /**
  * Is a movement to an object. It is finished when the individual has
@@ -45,15 +67,49 @@ import gameengine.gameobjects.GameObject;
  */
 public class MoveToTask extends Task {
 
+	/**
+	 * The type of the records that MoveToTasks are saved as, which the
+	 * record types of the subclasses extend.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("MoveToTask",
+			Task.RECORD_TYPE,
+			new String[] {"destination", "destinationX", "destinationY",
+					"relativeSpeed", "destinationAngle", "positionSet",
+					"moveTask"},
+			new int[] {RecordType.REFERENCE, RecordType.FLOAT, RecordType.FLOAT,
+					RecordType.FLOAT, RecordType.FLOAT, RecordType.BOOLEAN,
+					RecordType.REFERENCE}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new MoveToTask(record, reader);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int DESTINATION = RECORD_TYPE.getFieldIndex("destination");
+	private static final int DESTINATION_X = RECORD_TYPE.getFieldIndex("destinationX");
+	private static final int DESTINATION_Y = RECORD_TYPE.getFieldIndex("destinationY");
+	private static final int RELATIVE_SPEED = RECORD_TYPE.getFieldIndex("relativeSpeed");
+	private static final int DESTINATION_ANGLE = RECORD_TYPE.getFieldIndex("destinationAngle");
+	private static final int POSITION_SET = RECORD_TYPE.getFieldIndex("positionSet");
+	private static final int MOVE_TASK = RECORD_TYPE.getFieldIndex("moveTask");
+
 	/**
 	 * The GameObject to move to.
 	 */
 	private GameObject destination;
 
 	/**
-	 * To keep track on where we're going.
+	 * To keep track on where we're going, the X coordinate.
+	 */
+	private float destinationX;
+
+	/**
+	 * To keep track on where we're going, the Y coordinate.
 	 */
-	private Point destinationPoint;
+	private float destinationY;
 
 	/**
 	 * The relative speed of movement.
@@ -74,6 +130,12 @@ public class MoveToTask extends Task {
 	 */
 	private boolean positionSet = false;
 
+	/**
+	 * The task that takes the steps, which is reused for every step. Is
+	 * created the first time a step is taken.
+	 */
+	private MoveTask moveTask;
+
 	/**
 	 * Constructs a MoveToTask with a specified destination.
 	 *
@@ -81,7 +143,8 @@ public class MoveToTask extends Task {
 	 */
 	public MoveToTask(GameObject destination) {
 		this.destination = destination;
-		destinationPoint = destination.getPoint();
+		destinationX = destination.getX();
+		destinationY = destination.getY();
 		// The speed shpuld be multiplied with 1 (= no change)
 		relativeSpeed = 1f;
 	}
@@ -95,10 +158,34 @@ public class MoveToTask extends Task {
 	 */
 	public MoveToTask(GameObject destination, float relativeSpeed) {
 		this.destination = destination;
-		destinationPoint = destination.getPoint();
+		destinationX = destination.getX();
+		destinationY = destination.getY();
 		this.relativeSpeed = relativeSpeed;
 	}
 
+	/**
+	 * Restores a MoveToTask that has been saved.
+	 *
+	 * @param record the record that the task was saved as.
+	 * @param reader the reader that has restored the destination and the
+	 * MoveTask.
+	 * @exception IOException if they haven't been restored.
+	 */
+	protected MoveToTask(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record);
+		destination = (GameObject) reader.getObject(record, DESTINATION);
+		destinationX = record.getFloat(DESTINATION_X);
+		destinationY = record.getFloat(DESTINATION_Y);
+		relativeSpeed = record.getFloat(RELATIVE_SPEED);
+		destinationAngle = record.getFloat(DESTINATION_ANGLE);
+		positionSet = record.getBoolean(POSITION_SET);
+		moveTask = (MoveTask) reader.getObject(record, MOVE_TASK);
+		if (destination == null) {
+			throw new IOException("The destination of a MoveToTask is missing");
+		}
+	}
+
 	public void reset() {
 		super.reset();
 		positionSet = false;
@@ -120,35 +207,39 @@ public class MoveToTask extends Task {
 		}
 
 		if (destination.isDeleted()) {
-			System.out.println("MoveToTask aborted due to deleted destination: " + destination);
+			if (World.isLoggingEvents()) {
+				System.out.println("MoveToTask aborted due to deleted destination: " + destination);
+			}
 			done = true;
 			return false;
 		}
 
-		// Create points/vectors for the calculations
-		Point myPoint = position.getPoint();
-		Vector myVector = velocity.getVector();
-		float currentAngle = myPoint.angleTo(destinationPoint);
+		// The coordinates for the calculations
+		float myX = position.getX();
+		float myY = position.getY();
+		float currentAngle = Point.angle(myX, myY, destinationX, destinationY);
+		boolean onPosition = Point.distance(myX, myY, destinationX, destinationY) <
+				World.getEnvironment().getOnPositionOffset();
 
 		// If we have not reached our destination nor passed it
-		if ((!(myPoint.onPosition(destinationPoint))) &&
+		if (!onPosition &&
 				(!positionSet ||
 				(positionSet && ((int) destinationAngle == (int) currentAngle)))) {
 
 			// Prepare another step
-			Task moveTask;
+			if (moveTask == null) {
+				moveTask = new MoveTask(relativeSpeed);
+			}
+			// The relative speed may have been changed by a subclass.
+			moveTask.setRelativeSpeed(relativeSpeed);
 			if (!positionSet) {
 				// calculate new velocity
-				destinationPoint = destination.getPoint();
-				destinationAngle = myPoint.angleTo(destinationPoint);
-				Vector newVector = new Vector(destinationAngle, myVector.getMagnitude());
-
-				//create new task
-				moveTask = new MoveTask(newVector, relativeSpeed);
-			} else {
-				// create new task, use same velocity
-				moveTask = new MoveTask(relativeSpeed);
+				destinationX = destination.getX();
+				destinationY = destination.getY();
+				destinationAngle = Point.angle(myX, myY, destinationX, destinationY);
+				moveTask.setNewVelocity(destinationAngle, velocity.getMagnitude());
 			}
+			// else use same velocity
 
 			// Perform the next step
 			moveTask.setPrivateInformation(position, velocity, characteristics,
@@ -162,7 +253,7 @@ public class MoveToTask extends Task {
 			// if the angle has changed (this means we've passed the target,
 			// can happen on low FPS systems), "jump back" to position.
 			if (destinationAngle != currentAngle) {
-				position.setPoint(destinationPoint);
+				position.setLocation(destinationX, destinationY);
 			}
 
 			// we're on position, report done
@@ -170,7 +261,8 @@ public class MoveToTask extends Task {
 		}
 
 		// do not to set the angle next time if the destinationPoint havn't moved
-		if (destinationPoint.equals(destination.getPoint())) {
+		if (destinationX == destination.getX() &&
+				destinationY == destination.getY()) {
 			positionSet = true;
 		} else {
 			positionSet = false;
@@ -178,4 +270,30 @@ public class MoveToTask extends Task {
 
 		return (true);
 	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void restorePrivateInformation(
+			Position position,
+			Velocity velocity,
+			Characteristics characteristics,
+			Resources resources
+			) {
+		super.restorePrivateInformation(position, velocity, characteristics,
+				resources);
+		restorePrivateInformation(moveTask);
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setReference(DESTINATION, writer.reference(destination));
+		record.setFloat(DESTINATION_X, destinationX);
+		record.setFloat(DESTINATION_Y, destinationY);
+		record.setFloat(RELATIVE_SPEED, relativeSpeed);
+		record.setFloat(DESTINATION_ANGLE, destinationAngle);
+		record.setBoolean(POSITION_SET, positionSet);
+		record.setReference(MOVE_TASK, writer.reference(moveTask));
+	}
 }
@@ -1,21 +1,62 @@
 /*
+ * 2026-10-18 agent
+ *	Saved with the time the pause started.
+ *
  * 2003-05-13 henko
  *  Created and implemented.
  */
 package gameengine.tasksystem;
 
+import gameengine.RecordType;
+import gameengine.SaveRecord;
 import gameengine.World;
+import gameengine.WorldReader;
+import gameengine.WorldWriter;
+import java.io.IOException;
 
 /**
  * A PauseTask will make the Turtle stand where he is for a number of seconds
  * defined by getPauseDuration().
  */
 public class PauseTask extends Task {
+
+	/**
+	 * The type of the records that PauseTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("PauseTask",
+			Task.RECORD_TYPE,
+			new String[] {"startTime"},
+			new int[] {RecordType.FLOAT}) {
+		public Object restore(SaveRecord record, WorldReader reader) {
+			return new PauseTask(record);
+		}
+	};
+
+	/**
+	 * The index of the field of the records.
+	 */
+	private static final int START_TIME = RECORD_TYPE.getFieldIndex("startTime");
 	
 	/**
 	 * The time when the task was first executed.
 	 */
 	private float startTime;
+
+	/**
+	 * Creates a PauseTask, which starts counting when it is first executed.
+	 */
+	public PauseTask() {
+	}
+
+	/**
+	 * Restores a PauseTask that has been saved.
+	 *
+	 * @param record the record that the task was saved as.
+	 */
+	private PauseTask(SaveRecord record) {
+		super(record);
+		startTime = record.getFloat(START_TIME);
+	}
 	
 	/**
 	 * Executes the Task. Will make the task's owner do nothing for a number
@@ -38,4 +79,13 @@ public class PauseTask extends Task {
 		return (true);
 	}
 
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setFloat(START_TIME, startTime);
+	}
+
 }
@@ -1,4 +1,8 @@
-/* 2003-05-11 Martin
+/* 2026-10-18 agent
+ *	Can be restored without asking the world for its light pillar, which
+ *	hasn't been restored yet when the tasks are.
+ *
+ * 2003-05-11 Martin
  *	Corrected the naming of an exception.
  *
  * 2003-05-04 Martin
@@ -6,7 +10,11 @@
  */
 package gameengine.tasksystem;
 
+import gameengine.RecordType;
+import gameengine.SaveRecord;
 import gameengine.World;
+import gameengine.WorldReader;
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -16,6 +24,17 @@ import java.util.*;
  */
 public class SafetyTask extends MoveToTask {
 
+	/**
+	 * The type of the records that SafetyTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("SafetyTask",
+			MoveToTask.RECORD_TYPE, new String[0], new int[0]) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new SafetyTask(record, reader);
+		}
+	};
+
 	///////////////////////////////////////
 	// operations
 
@@ -27,6 +46,19 @@ public class SafetyTask extends MoveToTask {
 		super (World.getWorld().getLightPillar());
 	}
 
+	/**
+	 * Restores a SafetyTask that has been saved, with the light pillar it
+	 * was saved with as the destination.
+	 */
+	private SafetyTask(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record, reader);
+	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
 	/**
 	 * Executes the Task. If the Task contains sub tasks, it will call exeute()
 	 * on those as well. If the Task is unsucessful (which sometimes is
@@ -1,4 +1,14 @@
 /* 
+ * 2026-10-18 agent
+ *	Saved with the group, the executer, its sub tasks and its randomizer,
+ *	and with whether the registration with the group has been made.
+ *
+ * 2026-10-18 agent
+ *	The changes of the group and the births are deferred with World.defer(),
+ *	since the individuals are updated in parallel. A registration can
+ *	therefore be too late for a group that has been deleted, in which case
+ *	a new group is started.
+ *
  * 2003-05-12 EliasAE
  * 	Socialization and remove of socialization groups.
  *
@@ -32,6 +42,7 @@ package gameengine.tasksystem;
 import gameengine.gameobjects.*;
 import gameengine.tasksystem.*;
 import gameengine.*;
+import java.io.IOException;
 
 /**
  * The SocializeTask is created when an owner of a Characteristics
@@ -45,6 +56,36 @@ import gameengine.*;
  */
 public class SocializeTask extends Task {
 
+	/**
+	 * The type of the records that SocializeTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("SocializeTask",
+			Task.RECORD_TYPE,
+			new String[] {"destinationGroup", "registeredWithGroup", "wasChild",
+					"moveToGroupTask", "wobbleTask", "timeSinceLastMateAttempt",
+					"executer", "socializeRandomizer"},
+			new int[] {RecordType.REFERENCE, RecordType.BOOLEAN,
+					RecordType.BOOLEAN, RecordType.REFERENCE, RecordType.REFERENCE,
+					RecordType.FLOAT, RecordType.REFERENCE, RecordType.REFERENCE}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new SocializeTask(record, reader);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int DESTINATION_GROUP = RECORD_TYPE.getFieldIndex("destinationGroup");
+	private static final int REGISTERED_WITH_GROUP = RECORD_TYPE.getFieldIndex("registeredWithGroup");
+	private static final int WAS_CHILD = RECORD_TYPE.getFieldIndex("wasChild");
+	private static final int MOVE_TO_GROUP_TASK = RECORD_TYPE.getFieldIndex("moveToGroupTask");
+	private static final int WOBBLE_TASK = RECORD_TYPE.getFieldIndex("wobbleTask");
+	private static final int TIME_SINCE_LAST_MATE_ATTEMPT =
+			RECORD_TYPE.getFieldIndex("timeSinceLastMateAttempt");
+	private static final int EXECUTER = RECORD_TYPE.getFieldIndex("executer");
+	private static final int SOCIALIZE_RANDOMIZER = RECORD_TYPE.getFieldIndex("socializeRandomizer");
+
 	/**
 	 * The group to which the socialize task should walk and socialize.
 	 */
@@ -105,6 +146,31 @@ public class SocializeTask extends Task {
 		socializeRandomizer = new IntervalRandomizer(World.getEnvironment().getReproduceInterval());
 	}
 
+	/**
+	 * Restores a SocializeTask that has been saved.
+	 *
+	 * @param record the record that the task was saved as.
+	 * @param reader the reader that has restored the group, the executer,
+	 * the sub tasks and the randomizer.
+	 * @exception IOException if they haven't been restored.
+	 */
+	private SocializeTask(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record);
+		destinationGroup = (SocializeGroup) reader.getObject(record, DESTINATION_GROUP);
+		registeredWithGroup = record.getBoolean(REGISTERED_WITH_GROUP);
+		wasChild = record.getBoolean(WAS_CHILD);
+		moveToGroupTask = (MoveToTask) reader.getObject(record, MOVE_TO_GROUP_TASK);
+		wobbleTask = (WobbleTask) reader.getObject(record, WOBBLE_TASK);
+		timeSinceLastMateAttempt = record.getFloat(TIME_SINCE_LAST_MATE_ATTEMPT);
+		executer = (Individual) reader.getObject(record, EXECUTER);
+		socializeRandomizer = (Randomizer) reader.getObject(record, SOCIALIZE_RANDOMIZER);
+		if (destinationGroup == null || executer == null ||
+				moveToGroupTask == null || socializeRandomizer == null) {
+			throw new IOException("A part of a SocializeTask is missing");
+		}
+	}
+
 	/**
 	 * Executes the Task. If the Task contains sub tasks, it will call exeute()
 	 * on those as well. If the Task is unsucessful (which sometimes is
@@ -123,27 +189,28 @@ public class SocializeTask extends Task {
 			// If the group was deleted, we create a new one at this point,
 			// with only us in it. 
 			if (destinationGroup.isDeleted()) {
-				registeredWithGroup = false;
-				destinationGroup = new SocializeGroup(position.getPoint());
-				moveToGroupTask = new MoveToTask(destinationGroup);
-				moveToGroupTask.setPrivateInformation(
-						position, velocity, characteristics, resources);
-				wobbleTask = new WobbleTask(
-						destinationGroup,
-						characteristics.getHealth(),
-						World.getEnvironment().getSocializeWobbleRadius()
-						);
-				wobbleTask.setPrivateInformation(
-						position, velocity, characteristics, resources);
+				startNewGroup();
 			} else {
 				moveToGroupTask.execute();
 				// When we have arrived, we need to register with the group.
 				if (moveToGroupTask.isDone()) {
-					destinationGroup.register(executer);
+					final SocializeGroup group = destinationGroup;
+					World.getWorld().defer(new WorldCommand() {
+						public void execute() {
+							// The last member may have left the group before
+							// we got here.
+							if (!group.isDeleted() && !executer.isDeleted()) {
+								group.register(executer);
+							}
+						}
+					});
 					registeredWithGroup = true;
 					wasChild = executer.isChild();
 				}
 			}
+		} else if (destinationGroup.isDeleted()) {
+			// The group was deleted before our registration was committed.
+			startNewGroup();
 		} else {
 			checkExecuterGrowth();
 
@@ -153,11 +220,17 @@ public class SocializeTask extends Task {
 
 				// Time to mate? ;)
 				if (socializeRandomizer.isSuccessful(probabilityModifier)) {
-					new Individual(
-							destinationGroup.getPoint(),
-							executer,
-							destinationGroup.getRandomPartner(executer)
-							);
+					final Point point = destinationGroup.getPoint();
+					final Individual partner =
+							destinationGroup.getRandomPartner(executer);
+					World.getWorld().defer(new WorldCommand() {
+						public void execute() {
+							// The partner may have died in the same tick.
+							if (!partner.isDeleted()) {
+								new Individual(point, executer, partner);
+							}
+						}
+					});
 				}
 
 			}
@@ -167,13 +240,40 @@ public class SocializeTask extends Task {
 		return true;
 	}
 
+	/**
+	 * Starts a new group at the current position, with only the executer in
+	 * it, when the destination group has been deleted.
+	 */
+	private void startNewGroup() {
+		registeredWithGroup = false;
+		destinationGroup = new SocializeGroup(position.getPoint());
+		moveToGroupTask = new MoveToTask(destinationGroup);
+		moveToGroupTask.setPrivateInformation(
+				position, velocity, characteristics, resources);
+		wobbleTask = new WobbleTask(
+				destinationGroup,
+				characteristics.getHealth(),
+				World.getEnvironment().getSocializeWobbleRadius()
+				);
+		wobbleTask.setPrivateInformation(
+				position, velocity, characteristics, resources);
+	}
+
 	/**
 	 * Performs a check if the individual has grown from child to adult.
 	 * If that is the case, it notifies the group of the change.
 	 */
 	private void checkExecuterGrowth() {
 		if (wasChild && !executer.isChild() && registeredWithGroup) {
-			destinationGroup.childToAdult(executer);
+			final SocializeGroup group = destinationGroup;
+			World.getWorld().defer(new WorldCommand() {
+				public void execute() {
+					// If the executer has died, it is unregistered anyway.
+					if (!group.isDeleted() && !executer.isDeleted()) {
+						group.childToAdult(executer);
+					}
+				}
+			});
 			wasChild = false;
 		}
 	}
@@ -190,7 +290,14 @@ public class SocializeTask extends Task {
 		// which we did when we arrived. Thats is, if we have not 
 		// arrived, we have not registered, and we cannot unregister.
 		if (registeredWithGroup) {
-			destinationGroup.unRegister(executer);
+			final SocializeGroup group = destinationGroup;
+			World.getWorld().defer(new WorldCommand() {
+				public void execute() {
+					if (!group.isDeleted()) {
+						group.unRegister(executer);
+					}
+				}
+			});
 			registeredWithGroup = false;
 		}
 		// Set to done to make sure this task isn't executed any more.
@@ -232,4 +339,32 @@ public class SocializeTask extends Task {
 				position, velocity, characteristics, resources);
 	}
 
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void restorePrivateInformation(
+			Position position,
+			Velocity velocity,
+			Characteristics characteristics,
+			Resources resources
+			) {
+		super.restorePrivateInformation(position, velocity, characteristics,
+				resources);
+		restorePrivateInformation(moveToGroupTask);
+		restorePrivateInformation(wobbleTask);
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setReference(DESTINATION_GROUP, writer.reference(destinationGroup));
+		record.setBoolean(REGISTERED_WITH_GROUP, registeredWithGroup);
+		record.setBoolean(WAS_CHILD, wasChild);
+		record.setReference(MOVE_TO_GROUP_TASK, writer.reference(moveToGroupTask));
+		record.setReference(WOBBLE_TASK, writer.reference(wobbleTask));
+		record.setFloat(TIME_SINCE_LAST_MATE_ATTEMPT, timeSinceLastMateAttempt);
+		record.setReference(EXECUTER, writer.reference(executer));
+		record.setReference(SOCIALIZE_RANDOMIZER, writer.reference(socializeRandomizer));
+	}
+
 }
@@ -1,8 +1,15 @@
-/* 2003-05-04 Martin
+/* 2026-10-18 agent
+ *	Added the record type, with the fields of MoveToTask.
+ *
+ * 2003-05-04 Martin
  *	Completed the class.
  */
 package gameengine.tasksystem;
+import java.io.IOException;
 import java.util.*;
+import gameengine.RecordType;
+import gameengine.SaveRecord;
+import gameengine.WorldReader;
 import gameengine.gameobjects.GameObject;
 
 /**
@@ -12,6 +19,17 @@ import gameengine.gameobjects.GameObject;
  */
 public class StrollTask extends MoveToTask {
 
+	/**
+	 * The type of the records that StrollTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("StrollTask",
+			MoveToTask.RECORD_TYPE, new String[0], new int[0]) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new StrollTask(record, reader);
+		}
+	};
+
 	///////////////////////////////////////
 	// operations
 
@@ -22,4 +40,16 @@ public class StrollTask extends MoveToTask {
 	public  StrollTask(GameObject destination) {
 		super (destination);
 	}
+
+	/**
+	 * Restores a StrollTask that has been saved.
+	 */
+	private StrollTask(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record, reader);
+	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
 }
\ No newline at end of file
@@ -1,4 +1,10 @@
-/* 2003-05-10 Martin
+/* 2026-10-18 agent
+ *	Implements Saveable. The subclasses are restored with the sub tasks
+ *	they were saved with, and are given the attributes of their owner with
+ *	restorePrivateInformation() instead of setPrivateInformation(), which
+ *	would create new sub tasks.
+ *
+ * 2003-05-10 Martin
  *	Added the method reset(), because it is unfortunately needed in some tasks.
  *
  * 2003-04-11 henko
@@ -15,7 +21,12 @@ import gameengine.gameobjects.Characteristics;
 import gameengine.gameobjects.Position;
 import gameengine.gameobjects.Resources;
 import gameengine.gameobjects.Velocity;
+import gameengine.RecordType;
+import gameengine.SaveRecord;
+import gameengine.Saveable;
+import gameengine.WorldWriter;
 import gameengine.tasksystem.GeneralTaskException;
+import java.io.IOException;
 import java.io.Serializable;
 
 /**
@@ -24,8 +35,19 @@ import java.io.Serializable;
  * if sucessful (when applicable) it will return true. A task can be
  * given all the attributes of game objects that it needs.
  */
-public abstract class Task implements Serializable {
+public abstract class Task implements Serializable, Saveable {
+
+	/**
+	 * The type that the record types of the subclasses extend.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("Task", null,
+			new String[] {"done"},
+			new int[] {RecordType.BOOLEAN});
 
+	/**
+	 * The index of the field of the records.
+	 */
+	private static final int DONE = RECORD_TYPE.getFieldIndex("done");
 
 	/**
 	 * The owner's position attribute.
@@ -54,6 +76,49 @@ public abstract class Task implements Serializable {
 	 */
 	protected boolean done;
 
+	/**
+	 * Creates a task that isn't done.
+	 */
+	protected Task() {
+	}
+
+	/**
+	 * Restores a task that has been saved. It has no owner until
+	 * restorePrivateInformation() is called.
+	 *
+	 * @param record the record that the task was saved as.
+	 */
+	protected Task(SaveRecord record) {
+		done = record.getBoolean(DONE);
+	}
+
+	/**
+	 * Returns the record types of the tasks that are saved with the world.
+	 *
+	 * @return the record types.
+	 */
+	public static RecordType[] getRecordTypes() {
+		return new RecordType[] {
+			MoveTask.RECORD_TYPE,
+			MoveToTask.RECORD_TYPE,
+			StrollTask.RECORD_TYPE,
+			SafetyTask.RECORD_TYPE,
+			CommandedMoveToTask.RECORD_TYPE,
+			CommandedTransportTask.TransportMoveToTask.RECORD_TYPE,
+			WobbleTask.RECORD_TYPE,
+			PauseTask.RECORD_TYPE,
+			TransferTask.RECORD_TYPE,
+			ConsumeTask.RECORD_TYPE,
+			GetResourceTask.RECORD_TYPE,
+			GetFoodTask.RECORD_TYPE,
+			GetHappinessTask.RECORD_TYPE,
+			SocializeTask.RECORD_TYPE,
+			CommandedGatherTask.RECORD_TYPE,
+			CommandedSacrificeTask.RECORD_TYPE,
+			CommandedTransportTask.RECORD_TYPE
+		};
+	}
+
 	/**
 	 * Returns a booelan stating if the Task is done.
 	 *
@@ -105,4 +170,47 @@ public abstract class Task implements Serializable {
 		this.resources = resources;
 	}
 
+	/**
+	 * Gives a restored task the attributes of its owner. Unlike
+	 * setPrivateInformation(), the sub tasks aren't created again, since they
+	 * have been restored as well. Tasks with sub tasks pass the attributes on
+	 * to them with restorePrivateInformation(Task).
+	 *
+	 * @param position the position of the owner.
+	 * @param velocity the velocity of the owner.
+	 * @param characteristics the characteristics of the owner.
+	 * @param resources the resources of the owner.
+	 */
+	public void restorePrivateInformation(
+			Position position,
+			Velocity velocity,
+			Characteristics characteristics,
+			Resources resources
+			) {
+		this.position = position;
+		this.velocity = velocity;
+		this.characteristics = characteristics;
+		this.resources = resources;
+	}
+
+	/**
+	 * Gives a restored sub task the attributes that this task has been given.
+	 *
+	 * @param task the sub task, or null.
+	 */
+	protected void restorePrivateInformation(Task task) {
+		if (task != null) {
+			task.restorePrivateInformation(position, velocity, characteristics,
+					resources);
+		}
+	}
+
+	/**
+	 * Saves whether the task is done. Subclasses with fields of their own
+	 * save them after calling this method.
+	 */
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		record.setBoolean(DONE, done);
+	}
+
 }
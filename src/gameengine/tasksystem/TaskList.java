@@ -1,4 +1,11 @@
 /* 
+ * 2026-10-18 agent
+ *	Added getTask(), which the saving of individuals uses.
+ *
+ * 2026-10-18 agent
+ *	Removes tasks that were finished by a change deferred to the end of the
+ *	last tick before executing the next task.
+ *
  * 2003-05-12 henko
  *  Made TaskList implement Serializable.
  * 
@@ -67,10 +74,18 @@ public class TaskList implements  Serializable {
 	 * finished task is a SafetyTask, the list will also be cleared, to prevent
 	 * &quot;loops&quot; when an individual could get stuck in trying to stroll to a
 	 * point on the map that's too unsafe.
+	 *
+	 * A task can also be finished by a change that was deferred to the end of
+	 * the last tick (see World.defer()). Such a task is removed in the same
+	 * way before the next task is executed.
 	 */
 	public void execute() throws GeneralTaskException {
 		// Loops all tasks
 		for(int i = 0; i < 5; i++) {
+			// Remove the task if it was finished at the end of the last tick
+			if(taskList[i] != null && taskList[i].isDone()) {
+				removeDone(i);
+			}
 			// Execute the task if it exist
 			if(taskList[i] != null) {
 				try {
@@ -80,12 +95,8 @@ public class TaskList implements  Serializable {
 					System.err.println("TaskList: GeneralTaskException");
 				}
 				// If the task is done after execution, remove it.
-				// It the task was a SafetyTask, clear all tasks
-				if(taskList[i].isDone() && taskList[i] instanceof SafetyTask) {
-					removeAllTasks();
-				}
-				else if(taskList[i].isDone()) {
-					taskList[i] = null;
+				if(taskList[i].isDone()) {
+					removeDone(i);
 				}
 				// One task has been executed, break and don't execute more
 				break;
@@ -93,6 +104,31 @@ public class TaskList implements  Serializable {
 		}
 	}
 
+	/**
+	 * Removes the finished task at the given index. If the task was a
+	 * SafetyTask, all tasks are cleared.
+	 *
+	 * @param i the index of the finished task.
+	 */
+	private void removeDone(int i) {
+		if(taskList[i] instanceof SafetyTask) {
+			removeAllTasks();
+		}
+		else {
+			taskList[i] = null;
+		}
+	}
+
+	/**
+	 * Returns the task with the given priority.
+	 *
+	 * @param priority one of the priority constants, such as FOOD_PRIORITY.
+	 * @return the task, or null if there is no task with the priority.
+	 */
+	public Task getTask(int priority) {
+		return taskList[priority];
+	}
+
 	/**
 	 * Adds a new task to the list. The task is added to the appropriate place
 	 * according to it's priority. A food task will for example always be
@@ -1,4 +1,8 @@
 /*
+ * 2026-10-18 agent
+ *	Added the record type. The containers are saved as references, so a
+ *	restored task still moves resources between the same containers.
+ *
  * 2003-05-11 henko
  *  The amount field is not changed when trying to get more than there
  *  is available. Instead a temporary variable is used. This would otherwise
@@ -19,9 +23,14 @@
  */
 package gameengine.tasksystem;
 
+import gameengine.RecordType;
+import gameengine.SaveRecord;
 import gameengine.World;
+import gameengine.WorldReader;
+import gameengine.WorldWriter;
 import gameengine.tasksystem.GeneralTaskException;
 import gameengine.gameobjects.Resources;
+import java.io.IOException;
 
 /**
  * TransferTask transfers a specified amount of units of a specified
@@ -34,6 +43,30 @@ import gameengine.gameobjects.Resources;
  */
 public class TransferTask extends Task implements java.io.Serializable{
 
+	/**
+	 * The type of the records that TransferTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("TransferTask",
+			Task.RECORD_TYPE,
+			new String[] {"fromContainer", "toContainer", "resourceType",
+					"amount", "transferAll"},
+			new int[] {RecordType.REFERENCE, RecordType.REFERENCE,
+					RecordType.INT, RecordType.INT, RecordType.BOOLEAN}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new TransferTask(record, reader);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int FROM_CONTAINER = RECORD_TYPE.getFieldIndex("fromContainer");
+	private static final int TO_CONTAINER = RECORD_TYPE.getFieldIndex("toContainer");
+	private static final int RESOURCE_TYPE = RECORD_TYPE.getFieldIndex("resourceType");
+	private static final int AMOUNT = RECORD_TYPE.getFieldIndex("amount");
+	private static final int TRANSFER_ALL = RECORD_TYPE.getFieldIndex("transferAll");
+
 	/**
 	 * The Resources that resources will be taken
 	 * from.
@@ -108,6 +141,26 @@ public class TransferTask extends Task implements java.io.Serializable{
 		transferAll = true;
 	}
 
+	/**
+	 * Restores a TransferTask that has been saved.
+	 *
+	 * @param record the record that the task was saved as.
+	 * @param reader the reader that has restored the containers.
+	 * @exception IOException if they haven't been restored.
+	 */
+	private TransferTask(SaveRecord record, WorldReader reader)
+			throws IOException {
+		super(record);
+		fromContainer = (Resources) reader.getObject(record, FROM_CONTAINER);
+		toContainer = (Resources) reader.getObject(record, TO_CONTAINER);
+		resourceType = record.getInt(RESOURCE_TYPE);
+		amount = record.getInt(AMOUNT);
+		transferAll = record.getBoolean(TRANSFER_ALL);
+		if (fromContainer == null || toContainer == null) {
+			throw new IOException("The containers of a TransferTask are missing");
+		}
+	}
+
 	/**
 	 * Executes the Task. If the Task contains sub tasks, it will call execute()
 	 * on those as well. If the Task is unsucessful (which sometimes is
@@ -167,4 +220,17 @@ public class TransferTask extends Task implements java.io.Serializable{
 		return successful;
 	}
 
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setReference(FROM_CONTAINER, writer.reference(fromContainer));
+		record.setReference(TO_CONTAINER, writer.reference(toContainer));
+		record.setInt(RESOURCE_TYPE, resourceType);
+		record.setInt(AMOUNT, amount);
+		record.setBoolean(TRANSFER_ALL, transferAll);
+	}
+
 }
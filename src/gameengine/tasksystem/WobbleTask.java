@@ -1,4 +1,19 @@
-/* 2003-05-09 henko
+/* 2026-10-18 agent
+ *	Can be saved with its center object, speed, radius and MoveTask.
+ *
+ * 2026-10-18 agent
+ *	Keeps one MoveTask that is reused every step, and calculates with the
+ *	coordinates of the positions instead of Points, so that a step creates
+ *	no objects.
+ *
+ * 2026-10-18 agent
+ *	The turns are randomized with the RandomSource of the world.
+ *
+ * 2026-10-18 agent
+ *	Removed the TODO about the jojo problem at low FPS, which the fixed time
+ *	step in World solves.
+ *
+ * 2003-05-09 henko
  * 	Changed ResourceContainer to Resources.
  *
  * 2004-05-02 Martin
@@ -18,9 +33,18 @@
 package gameengine.tasksystem;
 
 import gameengine.Point;
-import gameengine.Vector;
+import gameengine.RandomSource;
+import gameengine.RecordType;
+import gameengine.SaveRecord;
 import gameengine.World;
+import gameengine.WorldReader;
+import gameengine.WorldWriter;
+import gameengine.gameobjects.Characteristics;
 import gameengine.gameobjects.GameObject;
+import gameengine.gameobjects.Position;
+import gameengine.gameobjects.Resources;
+import gameengine.gameobjects.Velocity;
+import java.io.IOException;
 
 /**
  * The WobbleTask makes the owner of the task randomly move around a given
@@ -31,6 +55,28 @@ import gameengine.gameobjects.GameObject;
  */
 public class WobbleTask extends Task {
 
+	/**
+	 * The type of the records that WobbleTasks are saved as.
+	 */
+	static final RecordType RECORD_TYPE = new RecordType("WobbleTask",
+			Task.RECORD_TYPE,
+			new String[] {"centerObject", "relativeSpeed", "radius", "moveTask"},
+			new int[] {RecordType.REFERENCE, RecordType.FLOAT, RecordType.FLOAT,
+					RecordType.REFERENCE}) {
+		public Object restore(SaveRecord record, WorldReader reader)
+				throws IOException {
+			return new WobbleTask(record, reader);
+		}
+	};
+
+	/**
+	 * The indices of the fields of the records.
+	 */
+	private static final int CENTER_OBJECT = RECORD_TYPE.getFieldIndex("centerObject");
+	private static final int RELATIVE_SPEED = RECORD_TYPE.getFieldIndex("relativeSpeed");
+	private static final int RADIUS = RECORD_TYPE.getFieldIndex("radius");
+	private static final int MOVE_TASK = RECORD_TYPE.getFieldIndex("moveTask");
+
 	/**
 	 * The object to wobble around, the center point.
 	 */
@@ -48,6 +94,12 @@ public class WobbleTask extends Task {
 	 */
 	private float radius;
 
+	/**
+	 * The task that takes the steps, which is reused for every step. Is
+	 * created the first time a step is taken.
+	 */
+	private MoveTask moveTask;
+
 	/**
 	 * Constructs a WobbleTask with access to he position and velocity of the
 	 * owner of the task, and with specifications about which object to wobble
@@ -66,6 +118,25 @@ public class WobbleTask extends Task {
 		this.radius = radius;
 	}
 
+	/**
+	 * Restores a WobbleTask that has been saved.
+	 *
+	 * @param record the record that the task was saved as.
+	 * @param reader the reader that has restored the center object and the
+	 * MoveTask.
+	 * @exception IOException if they haven't been restored.
+	 */
+	private WobbleTask(SaveRecord record, WorldReader reader) throws IOException {
+		super(record);
+		centerObject = (GameObject) reader.getObject(record, CENTER_OBJECT);
+		relativeSpeed = record.getFloat(RELATIVE_SPEED);
+		radius = record.getFloat(RADIUS);
+		moveTask = (MoveTask) reader.getObject(record, MOVE_TASK);
+		if (centerObject == null) {
+			throw new IOException("The center of a WobbleTask is missing");
+		}
+	}
+
 	/**
 	 * Executes the Task. If the Task contains sub tasks, it will call exeute()
 	 * on those as well. If the Task is unsucessful (which sometimes is
@@ -79,35 +150,29 @@ public class WobbleTask extends Task {
 		// Creates the move task and executes it
 
 		/*
-		TODO There is a problem here for low FPS. This code beneath is corrected
-			 so that the program will not hang up, but it also makes it possible
-			 for the turtle to, quite often, walk outside the radius and then walk
-			 back the next cycle. When FPS are very low the turtle would go very far
-			 from the center object and then back again, like a jojo.
-			 A possible other solution would be to check if the movement would be
-			 outside the radius, and then in some way shorten or replace the turtle
-			 so that it stays at the maximum radius, alternatively even bounces on the
-			 edge of the circle that is defined by the radius. A low FPS would still
-			 make strange results, though.
-			
-			 Another problem is that if the could should be rewritten to test the
-			 the position before setting it, it would force the relative speed to
-			 to be calculated with the old speed twice, once here to check the
-			 position and once in the MoveTask.
+		The turtle may walk a little outside the radius, and then it is turned
+		back towards the center object the next cycle. Since the world is
+		updated with a fixed time step, how far outside it can get doesn't
+		depend on the FPS any more (it used to go very far from the center
+		object and then back again at low FPS, like a jojo).
 		*/
 
-		Vector vector = velocity.getVector();
-		Point point = position.getPoint();
-		float direction = vector.getDirection();
+		float x = position.getX();
+		float y = position.getY();
+		float centerX = centerObject.getX();
+		float centerY = centerObject.getY();
+		float direction = velocity.getDirection();
 
 		// Checks if the individual has wobbled outside the radius
-		if (centerObject.getPoint().distanceTo(point) > radius) {
+		if (Point.distance(centerX, centerY, x, y) > radius) {
 			// Corrects the angle to point directly to the centerObject
-			direction = point.angleTo(centerObject.getPoint());
+			direction = Point.angle(x, y, centerX, centerY);
 		}
-		vector = new Vector(randomizeDirection(direction),vector.getMagnitude());
 
-		MoveTask moveTask = new MoveTask(vector, relativeSpeed);
+		if (moveTask == null) {
+			moveTask = new MoveTask(relativeSpeed);
+		}
+		moveTask.setNewVelocity(randomizeDirection(direction), velocity.getMagnitude());
 		moveTask.setPrivateInformation(position, velocity, characteristics, resources);
 		moveTask.execute();
 
@@ -123,9 +188,10 @@ public class WobbleTask extends Task {
 	 */
 	private float randomizeDirection(float oldDirection) {
 			// Randomizes the angle of the turn
-			float turnAngle = (float)Math.random() *
+			RandomSource random = World.getWorld().getRandom();
+			float turnAngle = random.nextFloat() *
 					World.getEnvironment().getMaxWobbleTurning();
-			if(Math.random() < 0.5) {
+			if(random.nextBoolean()) {
 				turnAngle = turnAngle * -1f;
 			}
 			float newAngle = oldDirection + turnAngle;
@@ -134,4 +200,27 @@ public class WobbleTask extends Task {
 			}
 			return newAngle;
 	}
+
+	public RecordType getRecordType() {
+		return RECORD_TYPE;
+	}
+
+	public void restorePrivateInformation(
+			Position position,
+			Velocity velocity,
+			Characteristics characteristics,
+			Resources resources
+			) {
+		super.restorePrivateInformation(position, velocity, characteristics,
+				resources);
+		restorePrivateInformation(moveTask);
+	}
+
+	public void save(SaveRecord record, WorldWriter writer) throws IOException {
+		super.save(record, writer);
+		record.setReference(CENTER_OBJECT, writer.reference(centerObject));
+		record.setFloat(RELATIVE_SPEED, relativeSpeed);
+		record.setFloat(RADIUS, radius);
+		record.setReference(MOVE_TASK, writer.reference(moveTask));
+	}
 }
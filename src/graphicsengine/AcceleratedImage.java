@@ -0,0 +1,258 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package graphicsengine;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/**
+ * An image that is drawn from a copy in video memory, a VolatileImage, when
+ * volatile images are enabled with setEnabled(), and otherwise from the
+ * image itself.
+ *
+ * The contents of a volatile image can be lost at any time, for example when
+ * the display mode changes or another application takes the screen, so the
+ * copy is validated before it is drawn and copied again from the image when
+ * it has been lost. If it is lost while it is drawn, it is copied again the
+ * next time.
+ *
+ * Parts of the image are drawn with the drawImage() that takes a source
+ * rectangle, so no sub images are created.
+ */
+public class AcceleratedImage {
+
+	/**
+	 * True if the images should be drawn from volatile images.
+	 */
+	private static boolean enabled = false;
+
+	/**
+	 * The number of volatile images that exist, including the terrain chunks
+	 * of the TerrainCache.
+	 */
+	private static int volatileImageCount;
+
+	/**
+	 * The number of times the contents of a volatile image have been lost and
+	 * restored.
+	 */
+	private static long restoreCount;
+
+	/**
+	 * The image to draw.
+	 */
+	private BufferedImage image;
+
+	/**
+	 * The copy of the image in video memory, or null if it hasn't been
+	 * created.
+	 */
+	private VolatileImage volatileImage;
+
+	/**
+	 * True if volatileImage holds a copy of the image.
+	 */
+	private boolean copied;
+
+	/**
+	 * Creates an accelerated image.
+	 *
+	 * @param image the image to draw. Should be compatible with the screen.
+	 */
+	public AcceleratedImage(BufferedImage image) {
+		this.image = image;
+	}
+
+	/**
+	 * Draws the image.
+	 *
+	 * @param graphics the graphics to draw on.
+	 * @param screenX the x-position of the upper left corner of the image.
+	 * @param screenY the y-position of the upper left corner of the image.
+	 */
+	public void draw(Graphics2D graphics, int screenX, int screenY) {
+		graphics.drawImage(getImageToDraw(graphics), screenX, screenY, null);
+		checkContentsLost();
+	}
+
+	/**
+	 * Draws a part of the image.
+	 *
+	 * @param graphics the graphics to draw on.
+	 * @param screenX the x-position to draw the part on.
+	 * @param screenY the y-position to draw the part on.
+	 * @param topLeftX the x-position of the part in the image.
+	 * @param topLeftY the y-position of the part in the image.
+	 * @param width the width of the part.
+	 * @param height the height of the part.
+	 */
+	public void draw(Graphics2D graphics, int screenX, int screenY,
+			int topLeftX, int topLeftY, int width, int height) {
+		graphics.drawImage(getImageToDraw(graphics),
+				screenX, screenY, screenX + width, screenY + height,
+				topLeftX, topLeftY, topLeftX + width, topLeftY + height, null);
+		checkContentsLost();
+	}
+
+	/**
+	 * Retrieves the image that is drawn.
+	 *
+	 * @return the image.
+	 */
+	public BufferedImage getImage() {
+		return image;
+	}
+
+	/**
+	 * Throws away the copy in video memory. It is created again the next
+	 * time the image is drawn with volatile images enabled.
+	 */
+	public void flush() {
+		if (volatileImage != null) {
+			volatileImage.flush();
+			volatileImage = null;
+			volatileImageCount--;
+		}
+		copied = false;
+	}
+
+	/**
+	 * Sets if the images should be drawn from volatile images. The copies
+	 * that exist when it is disabled are thrown away the next time their
+	 * images are drawn.
+	 *
+	 * @param enabled true to draw from volatile images, false to draw the
+	 * images as they are.
+	 */
+	public static void setEnabled(boolean enabled) {
+		AcceleratedImage.enabled = enabled;
+	}
+
+	/**
+	 * Tells if the images are drawn from volatile images.
+	 *
+	 * @return true if volatile images are enabled.
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Retrieves the number of volatile images that exist.
+	 *
+	 * @return the number of volatile images.
+	 */
+	public static int getVolatileImageCount() {
+		return volatileImageCount;
+	}
+
+	/**
+	 * Retrieves the number of times the contents of a volatile image have
+	 * been lost and restored.
+	 *
+	 * @return the number of restored volatile images.
+	 */
+	public static long getRestoreCount() {
+		return restoreCount;
+	}
+
+	/**
+	 * Is told that a volatile image has been created somewhere else.
+	 */
+	static void volatileImageCreated() {
+		volatileImageCount++;
+	}
+
+	/**
+	 * Is told that a volatile image has been thrown away somewhere else.
+	 */
+	static void volatileImageFlushed() {
+		volatileImageCount--;
+	}
+
+	/**
+	 * Is told that the contents of a volatile image have been restored
+	 * somewhere else.
+	 */
+	static void volatileImageRestored() {
+		restoreCount++;
+	}
+
+	/**
+	 * Returns the image to draw on a graphics, which is the volatile image
+	 * if volatile images are enabled and it can be created, and otherwise
+	 * the image itself. Creates, validates and copies to the volatile image
+	 * as needed.
+	 */
+	private Image getImageToDraw(Graphics2D graphics) {
+		if (!enabled) {
+			if (volatileImage != null) {
+				flush();
+			}
+			return image;
+		}
+		GraphicsConfiguration configuration = graphics.getDeviceConfiguration();
+		if (volatileImage == null) {
+			createVolatileImage(configuration);
+			if (volatileImage == null) {
+				return image;
+			}
+		}
+		int status = volatileImage.validate(configuration);
+		if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+			flush();
+			createVolatileImage(configuration);
+			if (volatileImage == null) {
+				return image;
+			}
+		} else if (status == VolatileImage.IMAGE_RESTORED) {
+			copied = false;
+			restoreCount++;
+		}
+		if (!copied) {
+			Graphics2D volatileGraphics = volatileImage.createGraphics();
+			try {
+				volatileGraphics.setComposite(AlphaComposite.Src);
+				volatileGraphics.drawImage(image, 0, 0, null);
+			} finally {
+				volatileGraphics.dispose();
+			}
+			copied = true;
+		}
+		return volatileImage;
+	}
+
+	/**
+	 * Creates the volatile image for a graphics configuration, or leaves it
+	 * null if the configuration can't create one.
+	 */
+	private void createVolatileImage(GraphicsConfiguration configuration) {
+		try {
+			volatileImage = configuration.createCompatibleVolatileImage(
+					image.getWidth(), image.getHeight(), image.getTransparency());
+		} catch (Exception e) {
+			// Not all configurations have volatile images with transparency.
+			volatileImage = null;
+		}
+		if (volatileImage != null) {
+			volatileImageCount++;
+		}
+		copied = false;
+	}
+
+	/**
+	 * Makes sure that the volatile image is copied again the next time it is
+	 * drawn if its contents were lost while it was drawn.
+	 */
+	private void checkContentsLost() {
+		if (volatileImage != null && volatileImage.contentsLost()) {
+			copied = false;
+		}
+	}
+
+}
@@ -1,4 +1,8 @@
 /* 
+ * 2026-10-18 agent
+ * 	Added getValueWidth(), so that the information panel can tell if the
+ * 	bar looks different.
+ *
  * 2003-05-19 EliasAE
  * 	Formatting.
  *
@@ -302,8 +306,7 @@ public class Bar extends GraphicalObject {
 	 */
 	public void draw(Graphics2D graphics) {
 		if (isVisible()) {
-			// The current value of the bar times how big one percent step is.
-			int valueWidth = Math.round(value * percentStep);
+			int valueWidth = getValueWidth();
 			// if there's a zero-position different from where the bar start or end.
 			int zero = Math.abs(Math.round(minValue * percentStep));
 			// if the current value of the bar is above zero
@@ -431,6 +434,17 @@ public class Bar extends GraphicalObject {
 		return value;
 	}
 
+	/**
+	 * Retrieves how wide the drawn value of the bar is, the current value of
+	 * the bar times how big one percent step is. The bar only looks different
+	 * when this changes.
+	 *
+	 * @return the width of the value in pixels, negative below zero.
+	 */
+	public int getValueWidth() {
+		return Math.round(value * percentStep);
+	}
+
 	/**
 	 * Set the current value of this <code>Bar</code>.
 	 *
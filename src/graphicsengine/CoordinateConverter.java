@@ -1,4 +1,19 @@
 /* 
+ * 2026-10-18 agent
+ * 	The conversions between map and iso coordinates are calculated once
+ * 	per map, as the coefficients of an affine transform, instead of with
+ * 	sin and cos on every call. Added mapToIso() and isoToMap() that convert
+ * 	arrays of coordinates. screenToMapX/Y don't create a Point.
+ *
+ * 2026-10-18 agent
+ * 	isoToMapX() didn't take away the depth from the iso y-coordinate, so
+ * 	it didn't give the same x-coordinate as isoToMap().
+ *
+ * 2026-10-18 agent
+ * 	Added mapToScreenX/Y and mapToIsoX/Y that take the coordinates as
+ * 	floats. The methods that take a Point use them, and don't create a
+ * 	copy of the Point any more.
+ *
  * 2003-05-19 EliasAE
  * 	Formatting.
  *
@@ -126,6 +141,34 @@ public class CoordinateConverter {
 	 */
 	private View view;
 
+	/**
+	 * The map that the conversions between map and iso coordinates have been
+	 * calculated for, or null if they haven't been calculated.
+	 */
+	private Map transformMap;
+
+	/**
+	 * The conversion from map to iso coordinates, isoX = mapToIsoXX * mapX +
+	 * mapToIsoXY * mapY + mapToIsoX0, and likewise for isoY.
+	 */
+	private float mapToIsoXX;
+	private float mapToIsoXY;
+	private float mapToIsoX0;
+	private float mapToIsoYX;
+	private float mapToIsoYY;
+	private float mapToIsoY0;
+
+	/**
+	 * The conversion from iso to map coordinates, mapX = isoToMapXX * isoX +
+	 * isoToMapXY * isoY + isoToMapX0, and likewise for mapY.
+	 */
+	private float isoToMapXX;
+	private float isoToMapXY;
+	private float isoToMapX0;
+	private float isoToMapYX;
+	private float isoToMapYY;
+	private float isoToMapY0;
+
 	/**
 	 * Converts an angle in Map to an angle in Screen.
 	 *
@@ -146,10 +189,17 @@ public class CoordinateConverter {
 	 * @return the screen coordinate corespondending to the parameter.
 	 */
 	public int mapToScreenX(Point mapCoordinate) {
-		return Math.round(
-				mapToIsoX(new Point(mapCoordinate.getX(),mapCoordinate.getY()))
-				- view.getIsoX()
-				);
+		return mapToScreenX(mapCoordinate.getX(), mapCoordinate.getY());
+	}
+
+	/**
+	 * Converts from map coordinate to screen coordinate on the x-axis.
+	 * @param mapX the map x-coordinate to convert.
+	 * @param mapY the map y-coordinate to convert.
+	 * @return the screen coordinate corespondending to the parameters.
+	 */
+	public int mapToScreenX(float mapX, float mapY) {
+		return Math.round(mapToIsoX(mapX, mapY) - view.getIsoX());
 	}
 
 	/**
@@ -158,9 +208,17 @@ public class CoordinateConverter {
 	 * @return the screen coordinate corespondending to the parameter.
 	 */
 	public int mapToScreenY(Point mapCoordinate) {
-		return Math.round(
-				mapToIsoY(new Point(mapCoordinate.getX(),	mapCoordinate.getY()))
-				- view.getIsoY());
+		return mapToScreenY(mapCoordinate.getX(), mapCoordinate.getY());
+	}
+
+	/**
+	 * Converts from map coordinate to screen coordinate on the y-axis.
+	 * @param mapX the map x-coordinate to convert.
+	 * @param mapY the map y-coordinate to convert.
+	 * @return the screen coordinate corespondending to the parameters.
+	 */
+	public int mapToScreenY(float mapX, float mapY) {
+		return Math.round(mapToIsoY(mapX, mapY) - view.getIsoY());
 	}
 
 	/**
@@ -170,8 +228,7 @@ public class CoordinateConverter {
 	 * @return the map x-coordinate corespondending to the parameter.
 	 */
 	public float screenToMapX(int screenX, int screenY) {
-		Point tmpPoint = screenToMap(screenX, screenY);
-		return tmpPoint.getX();
+		return isoToMapX(screenX + view.getIsoX(), screenY + view.getIsoY());
 	}
 
 	/**
@@ -181,8 +238,7 @@ public class CoordinateConverter {
 	 * @return the map y-coordinate corespondending to the parameter.
 	 */
 	public float screenToMapY(int screenX, int screenY) {
-		Point tmpPoint = screenToMap(screenX, screenY);
-		return tmpPoint.getY();
+		return isoToMapY(screenX + view.getIsoX(), screenY + view.getIsoY());
 	}
 
 	/**
@@ -244,29 +300,18 @@ public class CoordinateConverter {
 	 * @return the iso coordinate corespondending to the parameter.
 	 */
 	public float mapToIsoX(Point mapCoordinate) {
+		return mapToIsoX(mapCoordinate.getX(), mapCoordinate.getY());
+	}
 
-		// Transform the coordinate to use the center of the map
-		// as the origin and pixels as unit.
-
-		final float pixelX =
-				(mapCoordinate.getX() - view.getMap().getWidth() / 2.0f)
-				* TILE_WIDTH;
-		final float pixelY =
-				(mapCoordinate.getY() - view.getMap().getHeight() / 2.0f)
-				* TILE_HEIGHT;
-
-		// Rotate the coordinate about the origin (which is now at the center
-		// of the map).
-		float isoX = (float) (
-				pixelX * Math.cos(MAP_ROTATE_ANGLE)
-				-
-				pixelY * Math.sin(MAP_ROTATE_ANGLE)
-				);
-
-		// Move back the origin to the upper left corner
-		isoX += TILE_WIDTH * view.getMap().getWidth() / 2.0f;
-
-		return isoX;
+	/**
+	 * Converts from map coordinate to iso coordinate.
+	 * @param mapX the map x-coordinate to convert.
+	 * @param mapY the map y-coordinate to convert.
+	 * @return the iso coordinate corespondending to the parameters.
+	 */
+	public float mapToIsoX(float mapX, float mapY) {
+		updateTransform();
+		return mapToIsoXX * mapX + mapToIsoXY * mapY + mapToIsoX0;
 	}
 
 	/**
@@ -275,32 +320,38 @@ public class CoordinateConverter {
 	 * @return the iso coordinate corespondending to the parameter.
 	 */
 	public float mapToIsoY(Point mapCoordinate) {
-		// Transform the coordinate to use the center of the map
-		// as the origin and pixels as unit.
-		final float pixelX =
-				(mapCoordinate.getX() - view.getMap().getWidth() / 2.0f)
-				* TILE_WIDTH;
-		final float pixelY =
-				(mapCoordinate.getY() - view.getMap().getHeight() / 2.0f)
-				* TILE_HEIGHT;
-
-		// Rotate the coordinate about the origin (which is now at the center
-		// ot he map).
-		float isoY = (float) (
-				pixelX * Math.sin(MAP_ROTATE_ANGLE)
-				+
-				pixelY * Math.cos(MAP_ROTATE_ANGLE)
-				);
-
-		// Move back the origin to the upper left corner
-		isoY += TILE_HEIGHT * view.getMap().getHeight() / 2.0f;
+		return mapToIsoY(mapCoordinate.getX(), mapCoordinate.getY());
+	}
 
-		// Compensate for that the third dimension. The coordinates
-		// does not change as rapidly in the Y-direction. Gives
-		// the feeling of depth.
-		isoY *= TILE_HEIGHT_WIDTH_RATIO;
+	/**
+	 * Converts from map coordinate to iso coordinate.
+	 * @param mapX the map x-coordinate to convert.
+	 * @param mapY the map y-coordinate to convert.
+	 * @return the iso coordinate corespondending to the parameters.
+	 */
+	public float mapToIsoY(float mapX, float mapY) {
+		updateTransform();
+		return mapToIsoYX * mapX + mapToIsoYY * mapY + mapToIsoY0;
+	}
 
-		return isoY;
+	/**
+	 * Converts many map coordinates to iso coordinates at once. The
+	 * coordinates are stored in pairs, x before y. The arrays may be the
+	 * same array.
+	 *
+	 * @param mapCoordinates the map coordinates to convert.
+	 * @param isoCoordinates where to put the iso coordinates.
+	 * @param count the number of coordinate pairs to convert.
+	 */
+	public void mapToIso(float[] mapCoordinates, float[] isoCoordinates,
+			int count) {
+		updateTransform();
+		for (int i = 0; i < 2 * count; i += 2) {
+			float mapX = mapCoordinates[i];
+			float mapY = mapCoordinates[i + 1];
+			isoCoordinates[i] = mapToIsoXX * mapX + mapToIsoXY * mapY + mapToIsoX0;
+			isoCoordinates[i + 1] = mapToIsoYX * mapX + mapToIsoYY * mapY + mapToIsoY0;
+		}
 	}
 
 	/**
@@ -310,31 +361,10 @@ public class CoordinateConverter {
 	 * @return the map coordinate corespondending to the parameter.
 	 */
 	public float isoToMapY(float isoX, float isoY) {
-		// Take away feeling of depth. Look straight from above.
-		isoY /= TILE_HEIGHT_WIDTH_RATIO;
-
-		// Move the origin to the center of the map and convert to tiles
-		// as unit of mesurement.
-		final float tileX =
-				(isoX / (float) TILE_WIDTH - view.getMap().getWidth() / 2.0f);
-		final float tileY =
-				(isoY / (float) TILE_HEIGHT - view.getMap().getHeight() / 2.0f);
-
-		// Rotate about the origin which is now at the center of the map.
-		float mapY = (float) (
-				tileX * Math.sin(-MAP_ROTATE_ANGLE)
-				+
-				tileY * Math.cos(-MAP_ROTATE_ANGLE)
-				);
-
-		// Move the origin back to the upper left corner.
-		mapY += view.getMap().getHeight() / 2.0f;
-
-		return mapY;
+		updateTransform();
+		return isoToMapYX * isoX + isoToMapYY * isoY + isoToMapY0;
 	}
 
-
-
 	/**
 	 * Converts from iso coordinate to map coordinate.
 	 * @param isoX the iso x-coordinate to convert.
@@ -342,24 +372,8 @@ public class CoordinateConverter {
 	 * @return the map coordinate corespondending to the parameter.
 	 */
 	public float isoToMapX(float isoX, float isoY) {
-		// Move the origin to the center of the map and convert to tiles
-		// as unit of mesurement.
-		final float tileX =
-				(isoX / (float) TILE_WIDTH - view.getMap().getWidth() / 2.0f);
-		final float tileY =
-				(isoY / (float) TILE_HEIGHT - view.getMap().getHeight() / 2.0f);
-
-		// Rotate about the origin which is now at the center of the map.
-		float mapX = (float) (
-				tileX * Math.cos(-MAP_ROTATE_ANGLE)
-				-
-				tileY * Math.sin(-MAP_ROTATE_ANGLE)
-				);
-
-		// Move the origin back to the upper left corner.
-		mapX += view.getMap().getWidth() / 2.0f;
-
-		return mapX;
+		updateTransform();
+		return isoToMapXX * isoX + isoToMapXY * isoY + isoToMapX0;
 	}
 
 	/**
@@ -369,34 +383,70 @@ public class CoordinateConverter {
 	 * @return the map coordinate corespondending to the parameter.
 	 */
 	public Point isoToMap(float isoX, float isoY) {
-		// Take away feeling of depth. Look straight from above.
-		isoY /= TILE_HEIGHT_WIDTH_RATIO;
-
-		// Move the origin to the center of the map and convert to tiles
-		// as unit of mesurement.
-		final float tileX =
-				(isoX / (float) TILE_WIDTH - view.getMap().getWidth() / 2.0f);
-		final float tileY =
-				(isoY / (float) TILE_HEIGHT - view.getMap().getHeight() / 2.0f);
-
-		// Rotate about the origin which is now at the center of the map.
-		float mapY = (float) (
-				tileX * Math.sin(-MAP_ROTATE_ANGLE)
-				+
-				tileY * Math.cos(-MAP_ROTATE_ANGLE)
-				);
-
-		float mapX = (float) (
-				tileX * Math.cos(-MAP_ROTATE_ANGLE)
-				-
-				tileY * Math.sin(-MAP_ROTATE_ANGLE)
-				);
+		return new Point(isoToMapX(isoX, isoY), isoToMapY(isoX, isoY));
+	}
 
-		// Move the origin back to the upper left corner.
-		mapX += view.getMap().getWidth() / 2.0f;
-		mapY += view.getMap().getHeight() / 2.0f;
+	/**
+	 * Converts many iso coordinates to map coordinates at once. The
+	 * coordinates are stored in pairs, x before y. The arrays may be the
+	 * same array.
+	 *
+	 * @param isoCoordinates the iso coordinates to convert.
+	 * @param mapCoordinates where to put the map coordinates.
+	 * @param count the number of coordinate pairs to convert.
+	 */
+	public void isoToMap(float[] isoCoordinates, float[] mapCoordinates,
+			int count) {
+		updateTransform();
+		for (int i = 0; i < 2 * count; i += 2) {
+			float isoX = isoCoordinates[i];
+			float isoY = isoCoordinates[i + 1];
+			mapCoordinates[i] = isoToMapXX * isoX + isoToMapXY * isoY + isoToMapX0;
+			mapCoordinates[i + 1] = isoToMapYX * isoX + isoToMapYY * isoY + isoToMapY0;
+		}
+	}
 
-		return new Point(mapX, mapY);
+	/**
+	 * Calculates the coefficients of the conversions between map and iso
+	 * coordinates if the map of the view has changed since they were last
+	 * calculated.
+	 */
+	private void updateTransform() {
+		Map map = view.getMap();
+		if (map == transformMap) {
+			return;
+		}
+		double halfWidth = map.getWidth() / 2.0;
+		double halfHeight = map.getHeight() / 2.0;
+		double cos = Math.cos(MAP_ROTATE_ANGLE);
+		double sin = Math.sin(MAP_ROTATE_ANGLE);
+
+		// Move the origin to the center of the map and use pixels as unit,
+		// rotate about the origin, move the origin back to the upper left
+		// corner, and compensate for the depth in the y-direction.
+		double xx = TILE_WIDTH * cos;
+		double xy = -TILE_HEIGHT * sin;
+		double x0 = -halfWidth * xx - halfHeight * xy + TILE_WIDTH * halfWidth;
+		double yx = TILE_WIDTH * sin * TILE_HEIGHT_WIDTH_RATIO;
+		double yy = TILE_HEIGHT * cos * TILE_HEIGHT_WIDTH_RATIO;
+		double y0 = (-halfWidth * TILE_WIDTH * sin - halfHeight * TILE_HEIGHT * cos
+				+ TILE_HEIGHT * halfHeight) * TILE_HEIGHT_WIDTH_RATIO;
+		mapToIsoXX = (float) xx;
+		mapToIsoXY = (float) xy;
+		mapToIsoX0 = (float) x0;
+		mapToIsoYX = (float) yx;
+		mapToIsoYY = (float) yy;
+		mapToIsoY0 = (float) y0;
+
+		// The conversion back is the inverse.
+		double determinant = xx * yy - xy * yx;
+		isoToMapXX = (float) (yy / determinant);
+		isoToMapXY = (float) (-xy / determinant);
+		isoToMapX0 = (float) ((xy * y0 - yy * x0) / determinant);
+		isoToMapYX = (float) (-yx / determinant);
+		isoToMapYY = (float) (xx / determinant);
+		isoToMapY0 = (float) ((yx * x0 - xx * y0) / determinant);
+		transformMap = map;
 	}
 
 	/**
@@ -1,4 +1,15 @@
 /* 
+ * 2026-10-18 agent
+ * 	Implements MapDrawable, so that the View's RenderQueue can cull and
+ * 	depth sort it. The map state is kept as primitives.
+ *
+ * 2026-10-18 agent
+ * 	The position and direction are set by the View from the render snapshot,
+ * 	instead of being read from the game object while it is updated.
+ *
+ * 2026-10-18 agent
+ * 	Draws the game object at its interpolated position.
+ *
  * 2003-05-19 EliasAE
  * 	Formatting.
  *
@@ -40,7 +51,8 @@ package graphicsengine;
  * A graphical representation of a game object on the screen. It can be
  * selected by a user due to its implementation of Selectable.
  */
-public class GraphicalGameObject extends GraphicalObject implements Selectable {
+public class GraphicalGameObject extends GraphicalObject
+		implements Selectable, MapDrawable {
 
 	/**
 	 * A reference to wich this object representes in the graphical world.
@@ -67,6 +79,29 @@ public class GraphicalGameObject extends GraphicalObject implements Selectable {
 	 */
 	private int hotspotY;
 
+	/**
+	 * The x-position of the game object in map coordinates, as set by the
+	 * View from the latest render snapshot.
+	 */
+	private float mapX;
+
+	/**
+	 * The y-position of the game object in map coordinates, as set by the
+	 * View from the latest render snapshot.
+	 */
+	private float mapY;
+
+	/**
+	 * If the map state has been set.
+	 */
+	private boolean mapStateSet;
+
+	/**
+	 * The direction of the game object in map coordinates, as set by the View
+	 * from the latest render snapshot.
+	 */
+	private float mapDirection;
+
 	/**
 	 * The width of this object.
 	 */
@@ -133,8 +168,16 @@ public class GraphicalGameObject extends GraphicalObject implements Selectable {
 		// while the GameObject's position is at the "hotspot". So we substract
 		// the hotspot modifications from the GameObject's screen coordinates and
 		// we get the coordinates where we shall draw our Renderable on screen.
-		setScreenX(cc.mapToScreenX(gameObject.getPoint()) - hotspotX);
-		setScreenY(cc.mapToScreenY(gameObject.getPoint()) - hotspotY);
+		// The position is taken from the render snapshot, interpolated between
+		// the last two ticks of the world.
+		if (mapStateSet) {
+			setScreenX(cc.mapToScreenX(mapX, mapY) - hotspotX);
+			setScreenY(cc.mapToScreenY(mapX, mapY) - hotspotY);
+		} else {
+			Point point = gameObject.getInterpolatedPoint();
+			setScreenX(cc.mapToScreenX(point) - hotspotX);
+			setScreenY(cc.mapToScreenY(point) - hotspotY);
+		}
 
 		/* Draw a renderable so that it's seen if the object is selected. */
 		if (selected) {
@@ -150,8 +193,7 @@ public class GraphicalGameObject extends GraphicalObject implements Selectable {
 		/* Draw the renderable of the Individual depening of what angle it is in. */
 		// convert the gameobject's angle from map to screen coordinate system.
 		if(gameObject instanceof VelocityContainer) {
-			angle = cc.angleMapToScreen(
-				((VelocityContainer)gameObject).getVector().getDirection());
+			angle = cc.angleMapToScreen(mapDirection);
 		}
 		// Get the correct Renderable for this angle. If no angle has been set
 		// it should be zero, rednering the first renderable angle.
@@ -165,6 +207,61 @@ public class GraphicalGameObject extends GraphicalObject implements Selectable {
 		super.draw(graphics);
 	}
 
+	/**
+	 * Sets the position and direction of the game object to draw it with.
+	 * Is called by the View's RenderQueue with the values from the render
+	 * snapshot.
+	 *
+	 * @param mapX the x-position of the game object in map coordinates.
+	 * @param mapY the y-position of the game object in map coordinates.
+	 * @param mapDirection the direction of the game object in map
+	 * coordinates.
+	 */
+	public void setMapState(float mapX, float mapY, float mapDirection) {
+		this.mapX = mapX;
+		this.mapY = mapY;
+		this.mapDirection = mapDirection;
+		mapStateSet = true;
+	}
+
+	/**
+	 * Retrieves how far to the left of the game object's position it is
+	 * drawn.
+	 *
+	 * @return minus the hotspot x-coordinate.
+	 */
+	public int getExtentLeft() {
+		return -hotspotX;
+	}
+
+	/**
+	 * Retrieves how far above the game object's position it is drawn.
+	 *
+	 * @return minus the hotspot y-coordinate.
+	 */
+	public int getExtentTop() {
+		return -hotspotY;
+	}
+
+	/**
+	 * Retrieves how far to the right of the game object's position it is
+	 * drawn.
+	 *
+	 * @return the width of the object minus the hotspot x-coordinate.
+	 */
+	public int getExtentRight() {
+		return width - hotspotX + 1;
+	}
+
+	/**
+	 * Retrieves how far below the game object's position it is drawn.
+	 *
+	 * @return the height of the object minus the hotspot y-coordinate.
+	 */
+	public int getExtentBottom() {
+		return height - hotspotY + 1;
+	}
+
 	/**
 	 * Retrieves the game object associated with this object.
 	 *
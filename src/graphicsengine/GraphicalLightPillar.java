@@ -1,4 +1,8 @@
-/*	2003-05-20 pergamon
+/*	2026-10-18 agent
+ *		Implements MapDrawable, so that the View's RenderQueue can cull and
+ *		depth sort it.
+ *
+ *	2003-05-20 pergamon
  *		created the class. This is just ugly due to lack of time. Need screenshots.
  *
  */
@@ -14,7 +18,8 @@ import gameengine.gameobjects.LightPillarNode;
 /**
  *
  */
-public class GraphicalLightPillar extends GraphicalObject implements Selectable {
+public class GraphicalLightPillar extends GraphicalObject
+		implements Selectable, MapDrawable {
 
 	private boolean selected;
 	private int topRadius;
@@ -22,6 +27,18 @@ public class GraphicalLightPillar extends GraphicalObject implements Selectable
 	private int height;
 	private LightPillarNode lightPillar;
 
+	/**
+	 * The position of the light pillar in map coordinates, as set by the
+	 * View from the latest render snapshot.
+	 */
+	private float mapX;
+	private float mapY;
+
+	/**
+	 * If the position has been set.
+	 */
+	private boolean mapStateSet;
+
 	public GraphicalLightPillar(LightPillarNode lightPillar) {
 		super(0, 0);
 		this.lightPillar = lightPillar;
@@ -32,8 +49,13 @@ public class GraphicalLightPillar extends GraphicalObject implements Selectable
 
 	public void draw(Graphics2D graphics) {
 		CoordinateConverter cc = CoordinateConverter.getCoordinateConverter();
-		setScreenX(cc.mapToScreenX(lightPillar.getPoint()));
-		setScreenY(cc.mapToScreenY(lightPillar.getPoint()));
+		if (mapStateSet) {
+			setScreenX(cc.mapToScreenX(mapX, mapY));
+			setScreenY(cc.mapToScreenY(mapX, mapY));
+		} else {
+			setScreenX(cc.mapToScreenX(lightPillar.getPoint()));
+			setScreenY(cc.mapToScreenY(lightPillar.getPoint()));
+		}
 
 		// the scale is 2:1 there by bottomRadius/2 and bottomRadius*2
 		graphics.setColor(Color.white);
@@ -92,6 +114,56 @@ public class GraphicalLightPillar extends GraphicalObject implements Selectable
 		super.draw(graphics);
 	}
 
+	/**
+	 * Sets the position to draw the light pillar at. Is called by the View's
+	 * RenderQueue with the values from the render snapshot.
+	 *
+	 * @param mapX the x-position in map coordinates.
+	 * @param mapY the y-position in map coordinates.
+	 * @param mapDirection not used, the light pillar has no direction.
+	 */
+	public void setMapState(float mapX, float mapY, float mapDirection) {
+		this.mapX = mapX;
+		this.mapY = mapY;
+		mapStateSet = true;
+	}
+
+	/**
+	 * Retrieves how far to the left of its position the pillar is drawn.
+	 *
+	 * @return minus the bottom radius.
+	 */
+	public int getExtentLeft() {
+		return -bottomRadius;
+	}
+
+	/**
+	 * Retrieves how far above its position the pillar is drawn.
+	 *
+	 * @return minus half the height and the top radius.
+	 */
+	public int getExtentTop() {
+		return -(height / 2 + topRadius);
+	}
+
+	/**
+	 * Retrieves how far to the right of its position the pillar is drawn.
+	 *
+	 * @return the bottom radius.
+	 */
+	public int getExtentRight() {
+		return bottomRadius + 1;
+	}
+
+	/**
+	 * Retrieves how far below its position the pillar is drawn.
+	 *
+	 * @return the bottom radius.
+	 */
+	public int getExtentBottom() {
+		return bottomRadius + 1;
+	}
+
 	/**
 	 * Retrieves the game object associated with this object.
 	 *
@@ -1,4 +1,9 @@
 /*
+ * 2026-10-18 agent
+ * 	draw() no longer looks for sub objects whose game objects have been
+ * 	deleted. The View forgets the graphical game objects as soon as their
+ * 	game objects are unregistered from the world.
+ *
  * 2003-05-19 EliasAE
  * 	Formatting.
  *
@@ -33,7 +38,6 @@ package graphicsengine;
 import java.awt.Graphics2D;
 import java.util.*;
 import java.util.Collection;
-import gameengine.gameobjects.*;
 
 /**
  * A graphical representation of an object on screen. It can have an owner,
@@ -106,15 +110,6 @@ public abstract class GraphicalObject {
 					while (subObjectsIterator.hasNext()) {
 						GraphicalObject subObject =
 								(GraphicalObject) subObjectsIterator.next();
-						if (subObject instanceof GraphicalGameObject) {
-							GameObject gameObject =
-									((GraphicalGameObject) subObject).getGameObject();
-							// If a GameObject have died.
-							if (gameObject.isDeleted()) {
-								subObjectsIterator.remove();
-								continue;
-							}
-						}
 						subObject.draw(graphics);
 					}
 				}
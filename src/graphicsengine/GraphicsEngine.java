@@ -1,4 +1,30 @@
 /*
+ * 2026-10-18 agent
+ * 	The information panel is drawn from the render snapshot of the view.
+ *
+ * 2026-10-18 agent
+ * 	draw() draws the frame once into a volatile frame image, and only
+ * 	copying it to the buffer strategy is repeated when the contents of the
+ * 	buffers are restored or lost, since drawing the view has side effects.
+ *
+ * 2026-10-18 agent
+ * 	dispose() also disposes the view and the window, so that a graphics
+ * 	engine that is replaced stops following the world.
+ *
+ * 2026-10-18 agent
+ * 	draw() measures the information panel and buffer flip phases with the
+ * 	FrameProfiler, whose percentiles are drawn when showProfiler() is on.
+ *
+ * 2026-10-18 agent
+ * 	draw() draws the frame again if the contents of the buffer strategy are
+ * 	restored or lost while it is drawn. initializeGraphics() finds out if
+ * 	the buffers are accelerated, which the FPS counter shows together with
+ * 	the volatile images. Added useVolatileImages().
+ *
+ * 2026-10-18 agent
+ * 	The FPS counter also shows how many game objects were drawn and left
+ * 	out by the view's render queue.
+ *
  * 2003-05-19 EliasAE
  * 	Formatting.
  *
@@ -51,6 +77,7 @@
 
 package graphicsengine;
 
+import java.awt.BufferCapabilities;
 import java.awt.Graphics2D;
 import java.awt.GraphicsDevice;
 import java.awt.GraphicsEnvironment;
@@ -59,10 +86,12 @@ import java.awt.Rectangle;
 import java.awt.DisplayMode;
 import java.awt.Color;
 import java.awt.image.BufferStrategy;
+import java.awt.image.VolatileImage;
 import java.io.FileNotFoundException;
 import java.util.Collection;
 import javax.swing.JFrame;
 
+import gameengine.FrameProfiler;
 import gameengine.World;
 import graphicsengine.graphics.GraphicsManager;
 import input.Keyboard;
@@ -93,6 +122,22 @@ public class GraphicsEngine {
 	 */
 	private boolean showTime = false;
 
+	/**
+	 * True if the times of the phases measured by the FrameProfiler should be
+	 * shown on the screen, otherwise false.
+	 */
+	private boolean showProfiler = false;
+
+	/**
+	 * The percentiles of the phase times that are shown.
+	 */
+	private static final int[] PROFILER_PERCENTS = {50, 95, 99};
+
+	/**
+	 * Where the percentiles of a phase are put before they are shown.
+	 */
+	private long[] profilerTimes = new long[PROFILER_PERCENTS.length];
+
 	/**
 	 * The start time of the fps count period. Is reset once in a while
 	 * when a new period over which the fps is averaged starts.
@@ -119,6 +164,13 @@ public class GraphicsEngine {
 	 */
 	private BufferStrategy myStrategy;
 
+	/**
+	 * Tells if the buffers of the buffer strategy are accelerated and if the
+	 * frames are shown by page flipping or copying. Is shown by the FPS
+	 * counter.
+	 */
+	private String bufferAcceleration = "";
+
 	/**
 	 * The device on which the image is displayed.
 	 */
@@ -142,6 +194,12 @@ public class GraphicsEngine {
 	 */
 	private View view;
 
+	/**
+	 * The image that each frame is drawn into before it is copied to the
+	 * buffer strategy, or null if it hasn't been created.
+	 */
+	private VolatileImage frameImage;
+
 	/**
 	 * Creates a graphics engine with the displaymode: width, height and
 	 * colordepth. For example the inparameters 800, 600, 16 gives a on-screen
@@ -222,6 +280,12 @@ public class GraphicsEngine {
 		mainFrame.createBufferStrategy(buffers);
 		Debug.log("GraphicsLog: Retrieving buffer strategy");
 		myStrategy = mainFrame.getBufferStrategy();
+		BufferCapabilities capabilities = myStrategy.getCapabilities();
+		bufferAcceleration =
+				(capabilities.getBackBufferCapabilities().isAccelerated()
+					? "accelerated" : "not accelerated") +
+				(capabilities.isPageFlipping() ? ", page flipping" : ", copying");
+		Debug.log("GraphicsLog: Back buffer " + bufferAcceleration);
 
 		Debug.log("GraphicsLog: Retrieving current time");
 		// starttime for FPS calculation.
@@ -232,12 +296,24 @@ public class GraphicsEngine {
 	/**
 	 * The main draw function that calls all other draw funcitons to draw
 	 * everything on screen.
+	 *
+	 * The frame is drawn once, into the frame image. The buffers are in
+	 * video memory, and their contents can be lost while the frame is shown,
+	 * but then only the frame image is copied to them again. Drawing the
+	 * view measures the phases of the frame and builds the picking grid, so
+	 * it mustn't be repeated. If the contents of the frame image itself are
+	 * lost, the frame is skipped.
 	 */
 	public void draw() {
-		Graphics2D graphics = (Graphics2D) myStrategy.getDrawGraphics();
+		FrameProfiler profiler = FrameProfiler.getProfiler();
+		VolatileImage image = getFrameImage();
+		Graphics2D graphics = image.createGraphics();
 
 		view.draw(graphics);
+		long startTime = profiler.start();
+		informationPanel.setSnapshot(view.getSnapshot());
 		informationPanel.draw(graphics);
+		profiler.stop(FrameProfiler.INFORMATION_PANEL, startTime);
 
 		if (showFPS) {
 			drawFPS(graphics);
@@ -245,12 +321,54 @@ public class GraphicsEngine {
 		if (showTime) {
 			drawTime(graphics);
 		}
+		if (showProfiler) {
+			drawProfiler(graphics);
+		}
+
+		graphics.dispose();
+		if (image.contentsLost()) {
+			return;
+		}
 
-		myStrategy.show();
+		do {
+			do {
+				Graphics2D bufferGraphics = (Graphics2D) myStrategy.getDrawGraphics();
+				bufferGraphics.drawImage(image, 0, 0, null);
+				bufferGraphics.dispose();
+			} while (myStrategy.contentsRestored());
+
+			startTime = profiler.start();
+			myStrategy.show();
+			profiler.stop(FrameProfiler.BUFFER_FLIP, startTime);
+		} while (myStrategy.contentsLost() && !image.contentsLost());
+	}
+
+	/**
+	 * Returns the image to draw the frame into, which is created again if
+	 * the size of the window has changed or it isn't compatible with the
+	 * screen any more. Its old contents don't matter, since the whole frame
+	 * is drawn again.
+	 *
+	 * @return the frame image, validated.
+	 */
+	private VolatileImage getFrameImage() {
+		GraphicsConfiguration gc = mainFrame.getGraphicsConfiguration();
+		int width = mainFrame.getWidth();
+		int height = mainFrame.getHeight();
+		if (frameImage == null || frameImage.getWidth() != width ||
+				frameImage.getHeight() != height ||
+				frameImage.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+			if (frameImage != null) {
+				frameImage.flush();
+			}
+			frameImage = gc.createCompatibleVolatileImage(width, height);
+		}
+		return frameImage;
 	}
 
 	/**
-	 * Draws a FPS counter on screen.
+	 * Draws a FPS counter on screen, the number of game objects that
+	 * were drawn and culled, and how accelerated the drawing is.
 	 *
 	 * @param graphics the Graphics2D to draw the fps counter on.
 	 */
@@ -265,6 +383,40 @@ public class GraphicsEngine {
 
 		graphics.setColor(Color.white);
 		graphics.drawString("FPS: " + fps, 10, 10);
+		RenderQueue renderQueue = view.getRenderQueue();
+		graphics.drawString("Drawn: " + renderQueue.getDrawnCount() +
+				" Culled: " + renderQueue.getCulledCount(), 10, 24);
+		graphics.drawString("Buffer: " + bufferAcceleration + "  Images: " +
+				(AcceleratedImage.isEnabled()
+					? AcceleratedImage.getVolatileImageCount() + " volatile, " +
+						AcceleratedImage.getRestoreCount() + " restored"
+					: "managed"), 10, 38);
+	}
+
+	/**
+	 * Draws the median, 95th and 99th percentile of the times of each phase
+	 * measured by the FrameProfiler, in milliseconds.
+	 *
+	 * @param graphics the Graphics2D to draw the times on.
+	 */
+	private void drawProfiler(Graphics2D graphics) {
+		FrameProfiler profiler = FrameProfiler.getProfiler();
+		int x = view.getWidth() - 290;
+		graphics.setColor(Color.white);
+		graphics.drawString("Phase (ms)", x, 24);
+		graphics.drawString("p50", x + 130, 24);
+		graphics.drawString("p95", x + 180, 24);
+		graphics.drawString("p99", x + 230, 24);
+		for (int phase = 0; phase < FrameProfiler.PHASES; phase++) {
+			int y = 38 + 14 * phase;
+			profiler.getPercentiles(phase, PROFILER_PERCENTS, profilerTimes);
+			graphics.drawString(FrameProfiler.getPhaseName(phase), x, y);
+			for (int i = 0; i < profilerTimes.length; i++) {
+				graphics.drawString(
+						String.valueOf(profilerTimes[i] / 10000 / 100.0),
+						x + 130 + 50 * i, y);
+			}
+		}
 	}
 
 	/**
@@ -280,10 +432,18 @@ public class GraphicsEngine {
 		}
 
 	/**
-	 * Clear all graphics and exits full screen.
+	 * Clear all graphics and exits full screen. Disposes the view, so that
+	 * it no longer listens to the world, and the window. The graphics engine
+	 * can't be used afterwards.
 	 */
 	public void dispose() {
 		device.setFullScreenWindow(null);
+		if (frameImage != null) {
+			frameImage.flush();
+			frameImage = null;
+		}
+		view.dispose();
+		mainFrame.dispose();
 	}
 
 	/**
@@ -296,6 +456,38 @@ public class GraphicsEngine {
 		this.showFPS = showFPS;
 	}
 
+	/**
+	 * To show the times of the phases of the ticks and frames or not. The
+	 * FrameProfiler only measures them while they are shown.
+	 *
+	 * @param showProfiler true if the times should be drawn on the screen,
+	 * otherwise false.
+	 */
+	public void showProfiler(boolean showProfiler) {
+		this.showProfiler = showProfiler;
+		FrameProfiler.getProfiler().setEnabled(showProfiler);
+	}
+
+	/**
+	 * Tells if the times of the phases are shown.
+	 *
+	 * @return true if the times are drawn on the screen, otherwise false.
+	 */
+	public boolean isProfilerShown() {
+		return showProfiler;
+	}
+
+	/**
+	 * To draw the sprites and the terrain from volatile images in video
+	 * memory or not.
+	 *
+	 * @param useVolatileImages true if volatile images should be used,
+	 * otherwise false.
+	 */
+	public void useVolatileImages(boolean useVolatileImages) {
+		AcceleratedImage.setEnabled(useVolatileImages);
+	}
+
 	/**
 	 * To show simulation time or not.
 	 *
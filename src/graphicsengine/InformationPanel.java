@@ -1,4 +1,17 @@
 /* 
+ * 2026-10-18 agent
+ * 	The panels show the information about the selected object that the
+ * 	simulation thread has copied to the render snapshot, instead of
+ * 	reading the game object while it is being updated.
+ *
+ * 2026-10-18 agent
+ * 	The panel is drawn into an image that is only drawn again when the
+ * 	selection, the shown texts and numbers or the widths of the bars change.
+ * 	The numbers are set with Label.setNumber() instead of as new strings.
+ *
+ * 2026-10-18 agent
+ * 	Hides the panels if the selected object is deleted while it is read.
+ *
  * 2003-05-21 EliasAE
  * 	Added exit button.
  *
@@ -37,6 +50,9 @@
 package graphicsengine;
 
 import gameengine.Environment;
+import gameengine.RenderSnapshot;
+import gameengine.SelectionSnapshot;
+import gameengine.World;
 import gameengine.gameobjects.*;
 import graphicsengine.graphics.GraphicsManager;
 import graphicsengine.graphics.ButtonGraphics;
@@ -44,15 +60,35 @@ import graphicsengine.graphics.ButtonGraphics;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
 import java.util.Collection;
+import java.util.Iterator;
 
 /**
  * The control panel that shows information for example about the selected
  * object and accept user input. View and this class together make up the
  * whole screen.
+ *
+ * The information about the selected object is read from the render
+ * snapshot that the view is drawn from, see SelectionSnapshot, since the
+ * game objects are updated by the simulation thread while the panel is
+ * drawn. When another object is selected, the panels are shown from the
+ * first snapshot that has copied it, one tick later.
+ *
+ * The panel is drawn into an image, which is drawn on the screen each frame.
+ * The image is only drawn again when something shown on the panel has
+ * changed, which is checked by the update methods. The exit button is drawn
+ * on top of the image, since it changes with the mouse.
  */
 public class InformationPanel extends GraphicalObject {
 
+	/**
+	 * The color of the background of the information panel.
+	 */
+	private static final Color BACKGROUND_COLOR = new Color(00, 70, 90);
+
 	/**
 	 * Represents the width of the InformationPanel
 	 */
@@ -68,6 +104,12 @@ public class InformationPanel extends GraphicalObject {
 	 */
 	private Collection selectedObjects;
 
+	/**
+	 * The render snapshot to read the information about the selected object
+	 * from, or null.
+	 */
+	private RenderSnapshot snapshot;
+
 	/**
 	 * Object that manages graphics, that one can retrieve graphics from.
 	 */
@@ -98,6 +140,24 @@ public class InformationPanel extends GraphicalObject {
 	private static String HAPPINESS_LABEL = "happinessLabel";
 	private static String SACRIFICE_LABEL = "sacrificeLabel";
 
+	/**
+	 * The descriptions of the natural resources of source nodes, by resource
+	 * type.
+	 */
+	private String[] naturalResourceDescriptions;
+
+	/**
+	 * The information panel as it was last drawn, without the exit button, or
+	 * null if it hasn't been drawn.
+	 */
+	private BufferedImage panelImage;
+
+	/**
+	 * True if something shown on the panel has changed since panelImage was
+	 * drawn.
+	 */
+	private boolean panelChanged = true;
+
 	/**
 	 * Creates an information panel on a position with width and height.
 	 *
@@ -132,6 +192,11 @@ public class InformationPanel extends GraphicalObject {
 		resourcePanel = createResourcePanel(500, 30);
 		this.addSubObject(resourcePanel);
 
+		naturalResourceDescriptions = new String[Environment.SACRIFICE + 1];
+		for (int i = 0; i < naturalResourceDescriptions.length; i++) {
+			naturalResourceDescriptions[i] = Environment.getResourceString(i) + "+";
+		}
+
 		exitButton = createExitButton();
 		this.addSubObject(exitButton);
 	}
@@ -399,6 +464,16 @@ public class InformationPanel extends GraphicalObject {
 		return exitButton;
 	}
 
+	/**
+	 * Sets the render snapshot to read the information about the selected
+	 * object from when the panel is drawn.
+	 *
+	 * @param snapshot the render snapshot that the view was drawn from.
+	 */
+	void setSnapshot(RenderSnapshot snapshot) {
+		this.snapshot = snapshot;
+	}
+
 	/**
 	 * Draws the information panel on a graphics object.
 	 *
@@ -406,127 +481,189 @@ public class InformationPanel extends GraphicalObject {
 	 */
 	public void draw(Graphics2D graphics) {
 		if (isVisible()) {
-			graphics.setColor(new Color(00, 70, 90));
-			graphics.fillRect(getScreenX(), getScreenY(), width, height);
-
-			// set all panel's visibility to false;
-			turtlePanel.setVisible(false);
-			characteristicsPanel.setVisible(false);
-			resourcePanel.setVisible(false);
-			helpPanel.setVisible(false);
-
-			// if there are one selected object
-			if (! (selectedObjects == null)) {
-				if (selectedObjects.size() == 1) {
-					// get the selected object.
-					Selectable tmpSelectedObject =
-							(Selectable) selectedObjects.iterator().next();
-
-					// check if the selected object is an GraphicalGameObject
-					if (tmpSelectedObject instanceof GraphicalGameObject) {
-						// in that case get its gameobject.
-						GameObject tmpGameObject =
-								(GameObject) ( (GraphicalGameObject) tmpSelectedObject).
-								getGameObject();
-
-						if (tmpGameObject.isDeleted()) {
+			updatePanels();
+			if (panelChanged || panelImage == null) {
+				drawPanelImage(graphics.getDeviceConfiguration());
+			}
+			graphics.drawImage(panelImage, getScreenX(), getScreenY(), null);
+			exitButton.draw(graphics);
+		}
+	}
+
+	/**
+	 * Draws the background and the panels, but not the exit button, into
+	 * panelImage, which is created if needed.
+	 *
+	 * @param configuration the graphics configuration of the screen.
+	 */
+	private void drawPanelImage(GraphicsConfiguration configuration) {
+		if (panelImage == null ||
+				panelImage.getWidth() != width ||
+				panelImage.getHeight() != height) {
+			panelImage = configuration.createCompatibleImage(
+					width, height, Transparency.OPAQUE);
+		}
+		Graphics2D tmpGraphics = panelImage.createGraphics();
+		try {
+			// The sub objects are drawn on their screen positions.
+			tmpGraphics.translate(-getScreenX(), -getScreenY());
+			tmpGraphics.setColor(BACKGROUND_COLOR);
+			tmpGraphics.fillRect(getScreenX(), getScreenY(), width, height);
+			Iterator tmpIterator = getSubObjects().iterator();
+			while (tmpIterator.hasNext()) {
+				GraphicalObject tmpSubObject = (GraphicalObject) tmpIterator.next();
+				if (tmpSubObject != exitButton) {
+					tmpSubObject.draw(tmpGraphics);
+				}
+			}
+		} finally {
+			tmpGraphics.dispose();
+		}
+		panelChanged = false;
+	}
+
+	/**
+	 * Updates the panels with information about the selected objects, and
+	 * shows the panels that have information. Tells the snapshot buffer of
+	 * the world which object is selected, so that the next snapshots copy
+	 * its information.
+	 */
+	private void updatePanels() {
+		boolean tmpShowHelp = false;
+		boolean tmpShowCharacteristics = false;
+		boolean tmpShowTurtle = false;
+		boolean tmpShowResource = false;
+		GameObject tmpGameObject = null;
+
+		// if there are one selected object
+		if (! (selectedObjects == null)) {
+			if (selectedObjects.size() == 1) {
+				// get the selected object.
+				Selectable tmpSelectedObject =
+						(Selectable) selectedObjects.iterator().next();
+
+				// check if the selected object is an GraphicalGameObject
+				if (tmpSelectedObject instanceof GraphicalGameObject) {
+					// in that case get its gameobject, which is only used to
+					// find it in the snapshot.
+					tmpGameObject =
+							(GameObject) ( (GraphicalGameObject) tmpSelectedObject).
+							getGameObject();
+
+					SelectionSnapshot tmpSelection =
+							(snapshot != null) ? snapshot.getSelection() : null;
+					if (tmpSelection != null &&
+							tmpSelection.getGameObject() == tmpGameObject) {
+						if (tmpSelection.isDeleted()) {
+							tmpGameObject = null;
 							selectedObjects.clear();
 						} else {
-							updateHelpPanel(tmpGameObject);
+							tmpShowHelp = updateHelpPanel(tmpSelection);
 
 							// check if the GameObject is an Individual.
-							if (tmpGameObject instanceof CharacteristicsContainer) {
-								updateCharacteristicsPanel((CharacteristicsContainer) tmpGameObject);
-								characteristicsPanel.setVisible(true);
-								updateTurtlePanel((CharacteristicsContainer) tmpGameObject);
-								turtlePanel.setVisible(true);
+							if (tmpSelection.hasCharacteristics()) {
+								updateCharacteristicsPanel(tmpSelection);
+								tmpShowCharacteristics = true;
+								updateTurtlePanel(tmpSelection);
+								tmpShowTurtle = true;
 							}
 
-							if (tmpGameObject instanceof ResourceContainer) {
-								updateResourcePanel((ResourceContainer) tmpGameObject);
-								resourcePanel.setVisible(true);
+							if (tmpSelection.hasResources()) {
+								updateResourcePanel(tmpSelection);
+								tmpShowResource = true;
 							}
 						}
 					}
-				// if there is more than one selected object.
-				} else if (selectedObjects.size() > 1) {
-					helpPanel.setVisible(true);
-					((Label) helpPanel.getSubObject(HELP_LABEL)).setLabel(
-							"More than one object selected");
 				}
+			// if there is more than one selected object.
+			} else if (selectedObjects.size() > 1) {
+				tmpShowHelp = true;
+				setLabel(
+						(Label) helpPanel.getSubObject(HELP_LABEL),
+						"More than one object selected");
 			}
-			super.draw(graphics);
 		}
+
+		World.getWorld().getSnapshotBuffer().setSelectedObject(tmpGameObject);
+
+		setVisible(helpPanel, tmpShowHelp);
+		setVisible(characteristicsPanel, tmpShowCharacteristics);
+		setVisible(turtlePanel, tmpShowTurtle);
+		setVisible(resourcePanel, tmpShowResource);
 	}
 
 	/**
-	 * Updates the help panel by displaying information about a game object.
+	 * Updates the help panel by displaying information about the selected
+	 * game object.
 	 *
-	 * @param gameObject the game object to display information about.
+	 * @param selection the information about the selected object.
+	 * @return true if the help panel should be shown.
 	 */
-	private void updateHelpPanel(GameObject gameObject) {
-		if (gameObject.getDescription() != null) {
-			helpPanel.setVisible(true);
-			((Label) helpPanel.getSubObject(HELP_LABEL)).setLabel(
-					gameObject.getDescription());
+	private boolean updateHelpPanel(SelectionSnapshot selection) {
+		String tmpDescription = selection.getDescription();
+		if (tmpDescription != null) {
+			setLabel((Label) helpPanel.getSubObject(HELP_LABEL), tmpDescription);
+			return true;
 		}
+		return false;
 	}
 
 	/**
-	 * To update the resourcePanel with information from a ResourceContainer.
+	 * To update the resourcePanel with information from the selected
+	 * ResourceContainer.
 	 *
-	 * @param rc the object to get information from.
+	 * @param rc the information about the selected object.
 	 */
-	private void updateResourcePanel(ResourceContainer rc) {
-		if ((rc instanceof SourceNode) || (rc instanceof LightPillarNode)) {
+	private void updateResourcePanel(SelectionSnapshot rc) {
+		Label naturalResourceLabel =
+				((Label) resourcePanel.getSubObject(NATURAL_RESOURCE_LABEL));
+
+		if (rc.isSourceNode() || rc.isLightPillarNode()) {
 
-			// Show natural resource information for those who have it.			
-			Label naturalResourceLabel =
-					((Label) resourcePanel.getSubObject(NATURAL_RESOURCE_LABEL));
+			// Show natural resource information for those who have it.
 
 			// SourceNode
-			if (rc instanceof SourceNode) {
-				SourceNode tmpSourceNode = (SourceNode) rc;
-				int tmpResourceType = tmpSourceNode.getNaturalResourceType();
-				String tmpNatural = Environment.getResourceString(tmpResourceType);
+			if (rc.isSourceNode()) {
+				int tmpResourceType = rc.getNaturalResourceType();
+				String tmpNatural;
+				if (tmpResourceType >= 0 &&
+						tmpResourceType < naturalResourceDescriptions.length) {
+					tmpNatural = naturalResourceDescriptions[tmpResourceType];
+				} else {
+					tmpNatural = Environment.getResourceString(tmpResourceType) + "+";
+				}
 
-				naturalResourceLabel.getDescription().setLabel(tmpNatural + "+");
-				naturalResourceLabel.setLabel("" + tmpSourceNode.getNaturalResourceAmount());
+				setLabel(naturalResourceLabel.getDescription(), tmpNatural);
+				setNumber(naturalResourceLabel, rc.getNaturalResourceAmount());
 
 			// LightPillarNode
-			} else if (rc instanceof LightPillarNode) {
-				LightPillarNode tmpPillarNode = (LightPillarNode) rc;
-				naturalResourceLabel.getDescription().setLabel("Sacrificed:");
-				naturalResourceLabel.setLabel("" + tmpPillarNode.getSacrificedAmount());
+			} else {
+				setLabel(naturalResourceLabel.getDescription(), "Sacrificed:");
+				setNumber(naturalResourceLabel, rc.getSacrificedAmount());
 			}
 
-			resourcePanel.addSubObject(
-					NATURAL_RESOURCE_LABEL,
-					naturalResourceLabel
-					);
-
-			naturalResourceLabel.setVisible(true);
+			setVisible(naturalResourceLabel, true);
 
 		} else {
 			// Hide natural resource for those who don't have it.
-			((Label) resourcePanel.getSubObject(NATURAL_RESOURCE_LABEL)).
-					setVisible(false);
+			setVisible(naturalResourceLabel, false);
 		}
 
-		((Label) resourcePanel.getSubObject(FOOD_LABEL)).
-				setLabel("" + rc.getResourceAmount(Environment.FOOD));
-		((Label) resourcePanel.getSubObject(HAPPINESS_LABEL)).
-				setLabel("" + rc.getResourceAmount(Environment.HAPPINESS));
-		((Label) resourcePanel.getSubObject(SACRIFICE_LABEL)).
-				setLabel("" + rc.getResourceAmount(Environment.SACRIFICE));
+		setNumber((Label) resourcePanel.getSubObject(FOOD_LABEL),
+				rc.getResourceAmount(Environment.FOOD));
+		setNumber((Label) resourcePanel.getSubObject(HAPPINESS_LABEL),
+				rc.getResourceAmount(Environment.HAPPINESS));
+		setNumber((Label) resourcePanel.getSubObject(SACRIFICE_LABEL),
+				rc.getResourceAmount(Environment.SACRIFICE));
 	}
 
 	/**
-	 * Update the turtle panel with informaion from a CharacteristicsContainer.
+	 * Update the turtle panel with informaion from the selected
+	 * CharacteristicsContainer.
 	 *
-	 * @param characteristics the object to get information from.
+	 * @param characteristics the information about the selected object.
 	 */
-	private void updateTurtlePanel(CharacteristicsContainer characteristics) {
+	private void updateTurtlePanel(SelectionSnapshot characteristics) {
 		String tmpGender = "";
 		if (characteristics.getGender() == Environment.MALE) {
 			tmpGender = "Male";
@@ -535,15 +672,15 @@ public class InformationPanel extends GraphicalObject {
 		}
 
 		// Set the values on the different Lables and Bars.
-		String name = "";
-		if (characteristics instanceof GameObject) {
-			name = ((GameObject) characteristics).getName();
+		String name = characteristics.getName();
+		if (name == null) {
+			name = "";
 		}
-		((Label) turtlePanel.getSubObject(NAME_LABEL)).setLabel(name);
-		((Label) turtlePanel.getSubObject(AGE_LABEL)).setLabel(
-					"" + characteristics.getAge());
+		setLabel((Label) turtlePanel.getSubObject(NAME_LABEL), name);
+		setNumber((Label) turtlePanel.getSubObject(AGE_LABEL),
+				characteristics.getAge());
 
-		((Label) turtlePanel.getSubObject(GENDER_LABEL)).setLabel(tmpGender);
+		setLabel((Label) turtlePanel.getSubObject(GENDER_LABEL), tmpGender);
 	}
 
 	/**
@@ -553,26 +690,72 @@ public class InformationPanel extends GraphicalObject {
 	 */
 	private void updateCharacteristicsPanel(CharacteristicsContainer characteristics) {
 
-		((Bar) characteristicsPanel.getSubObject(SAFETY_BAR)).setValue(
-					characteristics.getSafety());
+		setValue((Bar) characteristicsPanel.getSubObject(SAFETY_BAR),
+				characteristics.getSafety());
+
+		setValue((Bar) characteristicsPanel.getSubObject(SATURATION_BAR),
+				characteristics.getSaturation());
 
-		((Bar) characteristicsPanel.getSubObject(SATURATION_BAR)).setValue(
-					characteristics.getSaturation());
+		setValue((Bar) characteristicsPanel.getSubObject(HAPPINESS_BAR),
+				characteristics.getHappiness());
 
-		((Bar) characteristicsPanel.getSubObject(HAPPINESS_BAR)).setValue(
-					characteristics.getHappiness());
+		setValue((Bar) characteristicsPanel.getSubObject(HEALTH_BAR),
+				characteristics.getHealth());
 
-		((Bar) characteristicsPanel.getSubObject(HEALTH_BAR)).setValue(
-					characteristics.getHealth());
+		setValue((Bar) characteristicsPanel.getSubObject(GATHER_SKILL_BAR),
+				characteristics.getGatherSkill());
 
-		((Bar) characteristicsPanel.getSubObject(GATHER_SKILL_BAR)).setValue(
-					characteristics.getGatherSkill());
+		setValue((Bar) characteristicsPanel.getSubObject(SACRIFICE_SKILL_BAR),
+				characteristics.getSacrificeSkill());
 
-		((Bar) characteristicsPanel.getSubObject(SACRIFICE_SKILL_BAR)).setValue(
-					characteristics.getSacrificeSkill());
+		setValue((Bar) characteristicsPanel.getSubObject(TRANSPORTATION_SKILL_BAR),
+				characteristics.getTransportationSkill());
+	}
 
-		((Bar) characteristicsPanel.getSubObject(TRANSPORTATION_SKILL_BAR)).setValue(
-					characteristics.getTransportationSkill());
+	/**
+	 * Shows or hides a graphical object of the panel, and notes if that
+	 * changed anything.
+	 */
+	private void setVisible(GraphicalObject graphicalObject, boolean visible) {
+		if (graphicalObject.isVisible() != visible) {
+			graphicalObject.setVisible(visible);
+			panelChanged = true;
+		}
+	}
+
+	/**
+	 * Sets the text of a label of the panel, and notes if that changed
+	 * anything.
+	 */
+	private void setLabel(Label label, String text) {
+		String tmpOldText = label.getLabel();
+		if (tmpOldText == null ? text != null : !tmpOldText.equals(text)) {
+			label.setLabel(text);
+			panelChanged = true;
+		}
+	}
+
+	/**
+	 * Sets the number of a label of the panel, and notes if that changed
+	 * anything.
+	 */
+	private void setNumber(Label label, int number) {
+		if (label.setNumber(number)) {
+			panelChanged = true;
+		}
+	}
+
+	/**
+	 * Sets the value of a bar of the panel, and notes if that changed how
+	 * wide the bar is drawn. Changes that are smaller than a pixel don't make
+	 * the panel be drawn again.
+	 */
+	private void setValue(Bar bar, float value) {
+		int tmpOldWidth = bar.getValueWidth();
+		bar.setValue(value);
+		if (bar.getValueWidth() != tmpOldWidth) {
+			panelChanged = true;
+		}
 	}
 
 	/**
@@ -602,6 +785,7 @@ public class InformationPanel extends GraphicalObject {
 	 */
 	public void showInformation(Collection selectedObjects) {
 		this.selectedObjects = selectedObjects;
+		panelChanged = true;
 	}
 
 	/**
@@ -621,6 +805,7 @@ public class InformationPanel extends GraphicalObject {
 	 */
 	void setWidth(int width) {
 		this.width = width;
+		panelChanged = true;
 	}
 
 	/**
@@ -640,6 +825,7 @@ public class InformationPanel extends GraphicalObject {
 	 */
 	void setHeight(int height) {
 		this.height = height;
+		panelChanged = true;
 	}
 
 }
@@ -1,4 +1,8 @@
 /* 
+ * 2026-10-18 agent
+ * 	Can show a number, which is formatted into a reused char buffer and
+ * 	drawn with drawChars() instead of a new String each time it changes.
+ *
  * 2003-05-19 EliasAE
  * 	Formatting.
  *
@@ -21,10 +25,31 @@ import java.awt.Font;
 public class Label extends GraphicalObject {
 
 	/**
-	 * Represents the text string of the label.
+	 * Represents the text string of the label. Is null while the label shows
+	 * a number that hasn't been asked for as a string.
 	 */
 	private String label;
 
+	/**
+	 * True if the label shows a number instead of a text set with setLabel().
+	 */
+	private boolean showsNumber;
+
+	/**
+	 * The number the label shows, if showsNumber is true.
+	 */
+	private int number;
+
+	/**
+	 * The digits of the number, right aligned. Large enough for any int.
+	 */
+	private char[] numberChars = new char[11];
+
+	/**
+	 * The index of the first character of the number in numberChars.
+	 */
+	private int numberStart;
+
 	/**
 	 * The color of the label text.
 	 */
@@ -84,6 +109,9 @@ public class Label extends GraphicalObject {
 	 * @return the label.
 	 */
 	public String getLabel() {
+		if (label == null && showsNumber) {
+			label = new String(numberChars, numberStart, numberChars.length - numberStart);
+		}
 		return label;
 	}
 
@@ -94,6 +122,37 @@ public class Label extends GraphicalObject {
 	 */
 	public void setLabel(String label) {
 		this.label = label;
+		showsNumber = false;
+	}
+
+	/**
+	 * Set the label to a number. The number is formatted without creating a
+	 * string, so this can be called every frame.
+	 *
+	 * @param number the number to show.
+	 * @return true if the label changed.
+	 */
+	public boolean setNumber(int number) {
+		if (showsNumber && this.number == number) {
+			return false;
+		}
+		this.number = number;
+		showsNumber = true;
+		label = null;
+
+		// Writes the digits from the end, in a long so that the smallest int
+		// can be negated.
+		long tmpValue = Math.abs((long) number);
+		int tmpPosition = numberChars.length;
+		do {
+			numberChars[--tmpPosition] = (char) ('0' + tmpValue % 10);
+			tmpValue /= 10;
+		} while (tmpValue != 0);
+		if (number < 0) {
+			numberChars[--tmpPosition] = '-';
+		}
+		numberStart = tmpPosition;
+		return true;
 	}
 
 	/**
@@ -102,7 +161,7 @@ public class Label extends GraphicalObject {
 	 * @param label the label to set.
 	 */
 	public void setLabel(Label label) {
-		this.label = label.getLabel();
+		setLabel(label.getLabel());
 		this.labelColor = label.getColor();
 		this.labelFont = label.getFont();
 	}
@@ -155,7 +214,14 @@ public class Label extends GraphicalObject {
 				graphics.setFont(labelFont);
 			}
 			graphics.setColor(labelColor);
-			graphics.drawString(label, getScreenX(), getScreenY() + graphics.getFont().getSize());
+			int tmpBaseline = getScreenY() + graphics.getFont().getSize();
+			if (showsNumber) {
+				graphics.drawChars(
+						numberChars, numberStart, numberChars.length - numberStart,
+						getScreenX(), tmpBaseline);
+			} else {
+				graphics.drawString(label, getScreenX(), tmpBaseline);
+			}
 			graphics.setFont(tmpFont);
 			super.draw(graphics);
 		}
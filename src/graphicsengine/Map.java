@@ -1,4 +1,21 @@
 /* 
+ * 2026-10-18 agent
+ * 	The tiles are created a chunk at a time when they are first needed,
+ * 	and the least recently used chunks are thrown away, instead of
+ * 	creating every tile of the map in loadTiles(). Replaced the public
+ * 	tiles array with getTile and added setTileGraphics.
+ *
+ * 2026-10-18 agent
+ * 	The tiles are drawn from a TerrainCache by drawTerrain(), which
+ * 	addDirtyTile and makeAllTilesDirty now invalidate. Added
+ * 	getIsoTileIterator, used to render the cache.
+ *
+ * 2026-10-18 agent
+ * 	The TileIterator calculates which rows and columns of tiles the view
+ * 	can show and only visits those, instead of testing every tile of the
+ * 	map. Fixed that viewScreenY was never set and that the first tile was
+ * 	always returned.
+ *
  * 2003-05-19 EliasAE
  * 	Formatting.
  *
@@ -22,6 +39,7 @@ package graphicsengine;
 import gameengine.World;
 import gameengine.Environment;
 import graphicsengine.graphics.GraphicsManager;
+import graphicsengine.graphics.TileGraphics;
 import graphicsengine.Tile;
 import graphicsengine.MapImage;
 import java.util.*;
@@ -32,6 +50,14 @@ import java.awt.Color;
 /**
  * The ground and other stationary things which are the environment that
  * the game objects exist in.
+ *
+ * The tile numbers of the whole map are kept in the MapImage, but the Tile
+ * objects are only created for the parts of the map that are drawn. The map
+ * is divided into square chunks of TILE_CHUNK_SIZE tiles, and all tiles of a
+ * chunk are created by getTile() when one of them is first needed. At most
+ * a fixed number of chunks are kept, and when another one is needed the one
+ * that was used the longest time ago is thrown away. So a map of any size
+ * only has the tiles of a few screens in memory.
  */
 public class Map {
 
@@ -51,10 +77,56 @@ public class Map {
 	private int height;
 
 	/**
-	 * The tiles that should be drawn. A tile at position x,y is in this
-	 * array with index tiles[y][x]
+	 * The number of tiles along each side of a chunk of tiles.
 	 */
-	public Tile[][] tiles;
+	public static final int TILE_CHUNK_SIZE = 32;
+
+	/**
+	 * The number of chunks of tiles that are kept, which is enough to cover
+	 * the view and the parts of the terrain cache around it several times.
+	 */
+	public static final int DEFAULT_MAX_TILE_CHUNKS = 128;
+
+	/**
+	 * The chunks of tiles that have been created, or null for those that
+	 * haven't. The chunk with column cx and row cy has index
+	 * cy * chunkColumns + cx, and the tile at position x,y has index
+	 * (y % TILE_CHUNK_SIZE) * TILE_CHUNK_SIZE + x % TILE_CHUNK_SIZE in it.
+	 */
+	private Tile[][] tileChunks;
+
+	/**
+	 * The number of columns of chunks.
+	 */
+	private int chunkColumns;
+
+	/**
+	 * When each chunk was last used, as a value of useCount.
+	 */
+	private long[] chunkUses;
+
+	/**
+	 * The indices of the chunks that have been created. The first
+	 * loadedChunkCount elements are used.
+	 */
+	private int[] loadedChunks;
+
+	/**
+	 * The number of chunks that have been created.
+	 */
+	private int loadedChunkCount;
+
+	/**
+	 * Counts the uses of chunks, to tell which one was used the longest time
+	 * ago.
+	 */
+	private long useCount;
+
+	/**
+	 * The graphics of the tiles by tile number, or null if they haven't been
+	 * fetched from the graphics manager yet.
+	 */
+	private TileGraphics[] tileGraphics;
 
 	// TODO should these be somewhere else, in other names?
 	public static int BRICK_STONE_NR = 1;
@@ -66,6 +138,12 @@ public class Map {
 
 	private MapImage mapImage;
 
+	/**
+	 * The tiles rendered into chunks of images, which are drawn instead of
+	 * the tiles one by one.
+	 */
+	private TerrainCache terrainCache;
+
 	/**
 	 * Constructs a standard Map.
 	 *
@@ -86,7 +164,14 @@ public class Map {
 		this.width = mapImage.getWidth();
 		this.height = mapImage.getHeight();
 		this.graphicsManager = graphicsManager;
-		this.tiles = new Tile[height][width];
+		this.chunkColumns = (width + TILE_CHUNK_SIZE - 1) / TILE_CHUNK_SIZE;
+		int chunkRows = (height + TILE_CHUNK_SIZE - 1) / TILE_CHUNK_SIZE;
+		this.tileChunks = new Tile[chunkColumns * chunkRows][];
+		this.chunkUses = new long[tileChunks.length];
+		this.loadedChunks = new int[Math.min(tileChunks.length,
+				DEFAULT_MAX_TILE_CHUNKS)];
+		this.tileGraphics = new TileGraphics[TILE_STRINGS.length];
+		this.terrainCache = new TerrainCache(this);
 	}
 
 	/**
@@ -99,25 +184,107 @@ public class Map {
 	 }
 
 	/**
-	 * Load all tiles.
+	 * Throws away all tiles, so that they are created again from the map
+	 * image when they are needed, and makes them dirty.
 	 */
 	void loadTiles() {
-		for (int y = 0; y < height; y++) {
-			for (int x = 0; x < width; x++) {
-				Tile tile;
-				int tileNr = mapImage.getTileNr(x,y);
-				if (tileNr > 0) {
-					// Create a tile with the string specified from
-					// the current tileNr.
-					tile = new Tile(graphicsManager.getTileGraphics(
-								TILE_STRINGS[tileNr]), x, y);
-				} else {
-					// create an empty tile.
-					tile = new Tile(x, y);
+		for (int i = 0; i < loadedChunkCount; i++) {
+			tileChunks[loadedChunks[i]] = null;
+		}
+		loadedChunkCount = 0;
+		makeAllTilesDirty();
+	}
+
+	/**
+	 * Sets the graphics of a kind of tiles, instead of those of the graphics
+	 * manager, and loads the tiles again.
+	 *
+	 * @param tileNr the tile number, between 1 and WATER_NR.
+	 * @param graphics the graphics of the tiles with the number.
+	 */
+	public void setTileGraphics(int tileNr, TileGraphics graphics) {
+		tileGraphics[tileNr] = graphics;
+		loadTiles();
+	}
+
+	/**
+	 * Returns the tile at a position. The chunk of tiles that contains it is
+	 * created if it hasn't been, which may throw away the chunk that was used
+	 * the longest time ago.
+	 *
+	 * @param x the x-position of the tile in map coordinates.
+	 * @param y the y-position of the tile in map coordinates.
+	 * @return the tile.
+	 * @exception IndexOutOfBoundsException if the position is outside the
+	 * map.
+	 */
+	public Tile getTile(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height) {
+			throw new IndexOutOfBoundsException("No tile at " + x + "," + y);
+		}
+		int chunk = (y / TILE_CHUNK_SIZE) * chunkColumns + x / TILE_CHUNK_SIZE;
+		Tile[] tiles = tileChunks[chunk];
+		if (tiles == null) {
+			tiles = loadChunk(chunk);
+		}
+		chunkUses[chunk] = ++useCount;
+		return tiles[(y % TILE_CHUNK_SIZE) * TILE_CHUNK_SIZE +
+				x % TILE_CHUNK_SIZE];
+	}
+
+	/**
+	 * Creates the tiles of a chunk, after throwing away the chunk that was
+	 * used the longest time ago if there are too many.
+	 *
+	 * @param chunk the index of the chunk.
+	 * @return the tiles of the chunk.
+	 */
+	private Tile[] loadChunk(int chunk) {
+		int slot = loadedChunkCount;
+		if (loadedChunkCount == loadedChunks.length) {
+			slot = 0;
+			for (int i = 1; i < loadedChunkCount; i++) {
+				if (chunkUses[loadedChunks[i]] < chunkUses[loadedChunks[slot]]) {
+					slot = i;
 				}
-				tiles[y][x] = tile;
 			}
+			tileChunks[loadedChunks[slot]] = null;
+		} else {
+			loadedChunkCount++;
+		}
+		loadedChunks[slot] = chunk;
+
+		Tile[] tiles = new Tile[TILE_CHUNK_SIZE * TILE_CHUNK_SIZE];
+		int left = (chunk % chunkColumns) * TILE_CHUNK_SIZE;
+		int top = (chunk / chunkColumns) * TILE_CHUNK_SIZE;
+		int right = Math.min(width, left + TILE_CHUNK_SIZE);
+		int bottom = Math.min(height, top + TILE_CHUNK_SIZE);
+		for (int y = top; y < bottom; y++) {
+			for (int x = left; x < right; x++) {
+				// Tiles without graphics are empty.
+				tiles[(y - top) * TILE_CHUNK_SIZE + x - left] =
+						new Tile(getTileGraphics(mapImage.getTileNr(x, y)), x, y);
+			}
+		}
+		tileChunks[chunk] = tiles;
+		return tiles;
+	}
+
+	/**
+	 * Returns the graphics of a kind of tiles.
+	 *
+	 * @param tileNr the tile number.
+	 * @return the graphics, or null if the tiles with the number have none.
+	 */
+	private TileGraphics getTileGraphics(int tileNr) {
+		if (tileNr <= 0 || tileNr >= tileGraphics.length) {
+			return null;
+		}
+		if (tileGraphics[tileNr] == null && graphicsManager != null) {
+			tileGraphics[tileNr] =
+					graphicsManager.getTileGraphics(TILE_STRINGS[tileNr]);
 		}
+		return tileGraphics[tileNr];
 	}
 
 	/**
@@ -139,8 +306,54 @@ public class Map {
 	}
 
 	/**
-	 * Makes the tiles at a position dirty, that is they will be returned from
-	 * the iterators retrieved from getTileIterator.
+	 * Creates a new iterator over all the tiles that are inside an area in
+	 * iso coordinates, that is whose upper left corner is less than a tile
+	 * width to the left of and a tile height above the area, and left of
+	 * and above its right and bottom edge. The tiles are returned row by
+	 * row, in the order they should be drawn.
+	 *
+	 * @param isoX the x-position of the area in iso coordinates.
+	 * @param isoY the y-position of the area in iso coordinates.
+	 * @param areaWidth the width of the area in pixels.
+	 * @param areaHeight the height of the area in pixels.
+	 * @return an iterator over all the tiles inside the area.
+	 */
+	public Iterator getIsoTileIterator(float isoX, float isoY,
+			int areaWidth, int areaHeight) {
+		return new TileIterator(isoX, isoY, areaWidth, areaHeight);
+	}
+
+	/**
+	 * Draws the tiles of the map inside the view from the terrain cache.
+	 * The tiles are drawn where they would be drawn with Tile.draw(), and
+	 * the parts of the view without tiles are filled with the background
+	 * color.
+	 *
+	 * @param graphics the graphics to draw on.
+	 * @param viewScreenX the x-position of the view in screen-coordinates.
+	 * @param viewScreenY the y-position of the view in screen-coordinates.
+	 * @param viewWidth the width of the view in pixels.
+	 * @param viewHeight the height of the view in pixels.
+	 */
+	public void drawTerrain(Graphics2D graphics, int viewScreenX,
+			int viewScreenY, int viewWidth, int viewHeight) {
+		terrainCache.draw(graphics, viewScreenX, viewScreenY,
+				viewWidth, viewHeight);
+	}
+
+	/**
+	 * Returns the cache of the pre-rendered terrain.
+	 *
+	 * @return the terrain cache.
+	 */
+	public TerrainCache getTerrainCache() {
+		return terrainCache;
+	}
+
+	/**
+	 * Makes the tiles at a position dirty, that is the parts of the terrain
+	 * cache that show them will be rendered again the next time they are
+	 * drawn. Must be called when a tile has been changed.
 	 *
 	 * @param screenX the x-position of the tile to make dirty in screen
 	 * coordinates.
@@ -148,15 +361,18 @@ public class Map {
 	 * coordinates.
 	 */
 	public void addDirtyTile(int screenX, int screenY) {
-
+		CoordinateConverter cc = CoordinateConverter.getCoordinateConverter();
+		terrainCache.invalidate(cc.screenToIsoX(screenX, screenY),
+				cc.screenToIsoY(screenX, screenY),
+				Tile.getWidth(), Tile.getHeight());
 	}
 
 	/**
-	 * Mark all tiles for redrawing. That is the iterators returned from
-	 * getTileIterator will return all tiles within the view.
+	 * Mark all tiles for redrawing. That is the whole terrain cache will be
+	 * rendered again the next time it is drawn.
 	 */
 	public void makeAllTilesDirty() {
-
+		terrainCache.invalidateAll();
 	}
 
 	/**
@@ -183,6 +399,15 @@ public class Map {
 	 * screen. If only a part of the map has to be drawn, this iterator
 	 * iterates over all tiles nevertheless. This iteration will not return
 	 * tiles outside the view.
+	 *
+	 * The iso coordinates of the tiles are a linear function of their map
+	 * coordinates, so the tiles that can be inside the view are found
+	 * directly: first the rows that cross the view, and then for each row
+	 * the columns that are inside it. The bounds are widened by a tile on
+	 * each side to be safe from rounding, and each tile is still checked
+	 * with Tile.isInArea(), so exactly the same tiles are returned as if all
+	 * tiles were checked, in the same order, but only about a screenful of
+	 * tiles is visited.
 	 */
 	private class TileIterator implements Iterator {
 
@@ -196,6 +421,69 @@ public class Map {
 		 */
 		private int y;
 
+		/**
+		 * The last row that can be inside the view.
+		 */
+		private int lastRow;
+
+		/**
+		 * The last column of the current row that can be inside the view.
+		 */
+		private int lastColumn;
+
+		/**
+		 * How much the iso x-coordinate of a tile grows with its map
+		 * x-coordinate.
+		 */
+		private float isoXPerColumn;
+
+		/**
+		 * How much the iso x-coordinate of a tile grows with its map
+		 * y-coordinate.
+		 */
+		private float isoXPerRow;
+
+		/**
+		 * How much the iso y-coordinate of a tile grows with its map
+		 * x-coordinate.
+		 */
+		private float isoYPerColumn;
+
+		/**
+		 * How much the iso y-coordinate of a tile grows with its map
+		 * y-coordinate.
+		 */
+		private float isoYPerRow;
+
+		/**
+		 * The lowest iso x-coordinate that a tile inside the view can have,
+		 * relative to the iso x-coordinate of the first tile.
+		 */
+		private float minIsoX;
+
+		/**
+		 * The highest iso x-coordinate that a tile inside the view can have,
+		 * relative to the iso x-coordinate of the first tile.
+		 */
+		private float maxIsoX;
+
+		/**
+		 * The lowest iso y-coordinate that a tile inside the view can have,
+		 * relative to the iso y-coordinate of the first tile.
+		 */
+		private float minIsoY;
+
+		/**
+		 * The highest iso y-coordinate that a tile inside the view can have,
+		 * relative to the iso y-coordinate of the first tile.
+		 */
+		private float maxIsoY;
+
+		/**
+		 * The next tile to return, or null if there are no more.
+		 */
+		private Tile nextTile;
+
 		/**
 		 * The current position of the view on the screen in
 		 * screen coordinates.
@@ -219,9 +507,23 @@ public class Map {
 		private int viewHeight;
 
 		/**
-		 * True if the iteration is finished.
+		 * True if the tiles are checked against the view with
+		 * Tile.isInArea(), false if they are checked against an area in iso
+		 * coordinates with Tile.isInIsoArea().
+		 */
+		private boolean screenArea;
+
+		/**
+		 * The position of the area in iso coordinates, if the tiles are
+		 * checked against an area in iso coordinates.
+		 */
+		private float areaIsoX;
+
+		/**
+		 * The position of the area in iso coordinates, if the tiles are
+		 * checked against an area in iso coordinates.
 		 */
-		private boolean finished = false;
+		private float areaIsoY;
 
 		/**
 		 * Creates a tile iterator.
@@ -235,13 +537,150 @@ public class Map {
 		 */
 		public TileIterator(int viewScreenX, int viewScreenY,
 				int viewWidth, int viewHeight) {
-			x = 0;
-			y = 0;
-			finished = false;
-			this.viewScreenX = viewScreenX;
 			this.viewScreenX = viewScreenX;
+			this.viewScreenY = viewScreenY;
 			this.viewWidth = viewWidth;
 			this.viewHeight = viewHeight;
+			screenArea = true;
+
+			CoordinateConverter cc = CoordinateConverter.getCoordinateConverter();
+			start(cc.screenToIsoX(viewScreenX, viewScreenY),
+					cc.screenToIsoY(viewScreenX, viewScreenY));
+		}
+
+		/**
+		 * Creates a tile iterator over the tiles inside an area in iso
+		 * coordinates.
+		 *
+		 * @param areaIsoX the position of the area in iso coordinates.
+		 * @param areaIsoY the position of the area in iso coordinates.
+		 * @param areaWidth the width of the area.
+		 * @param areaHeight the height of the area.
+		 */
+		public TileIterator(float areaIsoX, float areaIsoY,
+				int areaWidth, int areaHeight) {
+			this.areaIsoX = areaIsoX;
+			this.areaIsoY = areaIsoY;
+			this.viewWidth = areaWidth;
+			this.viewHeight = areaHeight;
+			screenArea = false;
+			start(areaIsoX, areaIsoY);
+		}
+
+		/**
+		 * Calculates the bounds of the iteration and finds the first tile.
+		 *
+		 * @param viewIsoX the position of the area in iso coordinates.
+		 * @param viewIsoY the position of the area in iso coordinates.
+		 */
+		private void start(float viewIsoX, float viewIsoY) {
+			// Nothing is visited if the map is empty.
+			y = 0;
+			lastRow = -1;
+			x = 0;
+			lastColumn = -1;
+			if (width > 0 && height > 0) {
+				calculateBounds(viewIsoX, viewIsoY);
+			}
+			findNext();
+		}
+
+		/**
+		 * Calculates the rows that can be inside the view, and the
+		 * coefficients needed to calculate the columns of each row.
+		 *
+		 * @param viewIsoX the position of the area in iso coordinates.
+		 * @param viewIsoY the position of the area in iso coordinates.
+		 */
+		private void calculateBounds(float viewIsoX, float viewIsoY) {
+			CoordinateConverter cc = CoordinateConverter.getCoordinateConverter();
+			float originIsoX = cc.mapToIsoX(0f, 0f);
+			float originIsoY = cc.mapToIsoY(0f, 0f);
+			isoXPerColumn = cc.mapToIsoX(1f, 0f) - originIsoX;
+			isoXPerRow = cc.mapToIsoX(0f, 1f) - originIsoX;
+			isoYPerColumn = cc.mapToIsoY(1f, 0f) - originIsoY;
+			isoYPerRow = cc.mapToIsoY(0f, 1f) - originIsoY;
+
+			// A tile is inside the view if its screen position (which is
+			// its iso position minus the iso position of the view, rounded)
+			// is less than a tile to the left of or above the view, and
+			// left of or above its right or bottom edge.
+			minIsoX = viewIsoX - Tile.getWidth() - 1 - originIsoX;
+			maxIsoX = viewIsoX + viewWidth + 1 - originIsoX;
+			minIsoY = viewIsoY - Tile.getHeight() - 1 - originIsoY;
+			maxIsoY = viewIsoY + viewHeight + 1 - originIsoY;
+
+			// Solve the row from the iso coordinates, and find the lowest and
+			// highest row at the corners of the visible area.
+			float determinant = isoXPerColumn * isoYPerRow -
+					isoYPerColumn * isoXPerRow;
+			int firstRow = 0;
+			lastRow = height - 1;
+			if (determinant != 0) {
+				float rowPerIsoX = -isoYPerColumn / determinant;
+				float rowPerIsoY = isoXPerColumn / determinant;
+				float row1 = rowPerIsoX * minIsoX + rowPerIsoY * minIsoY;
+				float row2 = rowPerIsoX * maxIsoX + rowPerIsoY * minIsoY;
+				float row3 = rowPerIsoX * minIsoX + rowPerIsoY * maxIsoY;
+				float row4 = rowPerIsoX * maxIsoX + rowPerIsoY * maxIsoY;
+				float minRow = Math.min(Math.min(row1, row2), Math.min(row3, row4));
+				float maxRow = Math.max(Math.max(row1, row2), Math.max(row3, row4));
+				firstRow = Math.max(firstRow, (int) Math.floor(minRow) - 1);
+				lastRow = Math.min(lastRow, (int) Math.ceil(maxRow) + 1);
+			}
+
+			// Start before the first row, findNext() moves to it.
+			y = firstRow - 1;
+		}
+
+		/**
+		 * Calculates the columns of the current row that can be inside the
+		 * view, and moves to the one before the first.
+		 */
+		private void calculateColumns() {
+			float low = 0;
+			float high = width - 1;
+			if (isoXPerColumn != 0) {
+				float column1 = (minIsoX - isoXPerRow * y) / isoXPerColumn;
+				float column2 = (maxIsoX - isoXPerRow * y) / isoXPerColumn;
+				low = Math.max(low, Math.min(column1, column2));
+				high = Math.min(high, Math.max(column1, column2));
+			}
+			if (isoYPerColumn != 0) {
+				float column1 = (minIsoY - isoYPerRow * y) / isoYPerColumn;
+				float column2 = (maxIsoY - isoYPerRow * y) / isoYPerColumn;
+				low = Math.max(low, Math.min(column1, column2));
+				high = Math.min(high, Math.max(column1, column2));
+			}
+			x = Math.max(0, (int) Math.floor(low) - 1) - 1;
+			this.lastColumn = Math.min(width - 1, (int) Math.ceil(high) + 1);
+		}
+
+		/**
+		 * Finds the next tile inside the view and saves it in nextTile, or
+		 * sets nextTile to null if there are no more.
+		 */
+		private void findNext() {
+			nextTile = null;
+			while (nextTile == null) {
+				x++;
+				if (x > lastColumn) {
+					y++;
+					if (y > lastRow) {
+						return;
+					}
+					calculateColumns();
+				} else {
+					Tile tile = getTile(x, y);
+					if (screenArea ?
+							tile.isInArea(
+									viewScreenX, viewScreenY, viewWidth, viewHeight) :
+							tile.isInIsoArea(
+									areaIsoX, areaIsoY, viewWidth, viewHeight)) {
+						nextTile = tile;
+					}
+				}
+			}
 		}
 
 		/**
@@ -251,7 +690,7 @@ public class Map {
 		 * throw NoSuchElementException, otherwise false.
 		 */
 		public boolean hasNext() {
-			return !finished;
+			return nextTile != null;
 		}
 
 		/**
@@ -260,22 +699,12 @@ public class Map {
 		 * @return the next element.
 		 */
 		public Object next() {
-			if (finished) {
+			if (nextTile == null) {
 				throw new NoSuchElementException();
 			}
-			Object nextTile = tiles[y][x];
-			do {
-				x++;
-				if (x >= tiles[0].length) {
-					x = 0;
-					y++;
-					if (y >= tiles.length) {
-						finished = true;
-						return nextTile;
-					}
-				}
-			} while (!tiles[y][x].isInArea(viewScreenX, viewScreenY, viewWidth, viewHeight));
-			return nextTile;
+			Object tile = nextTile;
+			findNext();
+			return tile;
 		}
 
 		/**
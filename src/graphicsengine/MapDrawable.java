@@ -0,0 +1,59 @@
+/* 2026-10-18 agent
+ *	Created the interface.
+ */
+package graphicsengine;
+
+/**
+ * A graphical object that is drawn at a position on the map, such as a game
+ * object. The View puts these in its RenderQueue, which sets their position
+ * from the render snapshot, leaves out the ones that are outside the view
+ * and draws the rest from back to front.
+ *
+ * The extents tell how far the drawing reaches from the position on the
+ * screen, in pixels, so that the queue can tell if it is inside the view
+ * without drawing it.
+ */
+public interface MapDrawable {
+
+	/**
+	 * Sets the position and direction to draw the object with.
+	 *
+	 * @param mapX the x-position of the object in map coordinates.
+	 * @param mapY the y-position of the object in map coordinates.
+	 * @param mapDirection the direction of the object in map coordinates.
+	 */
+	public void setMapState(float mapX, float mapY, float mapDirection);
+
+	/**
+	 * Retrieves how far to the left of its position the object is drawn.
+	 *
+	 * @return the left edge of the drawing relative to the position on the
+	 * screen in pixels, usually negative.
+	 */
+	public int getExtentLeft();
+
+	/**
+	 * Retrieves how far above its position the object is drawn.
+	 *
+	 * @return the top edge of the drawing relative to the position on the
+	 * screen in pixels, usually negative.
+	 */
+	public int getExtentTop();
+
+	/**
+	 * Retrieves how far to the right of its position the object is drawn.
+	 *
+	 * @return the right edge of the drawing relative to the position on the
+	 * screen in pixels, exclusive.
+	 */
+	public int getExtentRight();
+
+	/**
+	 * Retrieves how far below its position the object is drawn.
+	 *
+	 * @return the bottom edge of the drawing relative to the position on the
+	 * screen in pixels, exclusive.
+	 */
+	public int getExtentBottom();
+
+}
@@ -1,4 +1,23 @@
 /* 
+ * 2026-10-18 agent
+ *	Can read its tiles from a buffer, such as a region of a save file that
+ *	has been mapped into memory, until they are first asked for as an array.
+ *	Added getPackedTiles().
+ *
+ * 2026-10-18 agent
+ *	Added getPackedRows() and a constructor from packed rows, so that the
+ *	map is saved and restored as it is kept.
+ *
+ * 2026-10-18 agent
+ *	The tile numbers are packed two per byte, row by row, instead of in an
+ *	int[][]. Added the constructor of an empty map, setRow() and
+ *	setTileNr(), so that a map can be loaded row by row.
+ *
+ * 2026-10-18 agent
+ *	Added constructors that read the map from an array of pixels or from an
+ *	array of tile numbers, so that a map can be loaded without the AWT
+ *	toolkit.
+ *
  * 2003-05-19 EliasAE
  * 	Formatting.
  *
@@ -14,12 +33,25 @@ package graphicsengine;
 import java.awt.image.PixelGrabber;
 import java.awt.Image;
 import java.awt.image.ImageObserver;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 
 /**
  * The MapImage reads a map from a given image file.
  * The class can then return information about tiles at specific
  * positions and information about which tiles that neighbours a tile.
+ *
+ * There are only a handful of kinds of tiles, so the tile numbers are kept
+ * in four bits each, two to a byte, and a map of 4096x4096 tiles takes 8 MB.
+ * A map can be filled in row by row while it is loaded, see setRow(), so
+ * that the whole image never has to be in memory.
+ *
+ * The map of a resumed world reads its tiles from the save file, which
+ * WorldReader maps into memory, so only the pages of the file with the
+ * tiles that are drawn are read. The tiles are copied out of the file the
+ * first time they are asked for as an array, see getPackedRows().
  */
 public class MapImage implements Serializable {
 
@@ -34,9 +66,24 @@ public class MapImage implements Serializable {
 	public static final int GRAY = Map.BRICK_STONE_NR;
 
 	/**
-	 * The two-dimensional array representing the tiles of the map.
+	 * The highest tile number that a map can hold.
 	 */
-	private int[][] tileMap;
+	public static final int MAX_TILE_NR = 15;
+
+	/**
+	 * The tile numbers of the map, row by row and two in each byte. The tile
+	 * number i = y * width + x is kept in the low four bits of tiles[i / 2]
+	 * if i is even, and in the high four bits if it is odd. Is null while
+	 * the tiles are read from packedTiles.
+	 */
+	private byte[] tiles;
+
+	/**
+	 * The tile numbers packed the same way in a buffer that the map doesn't
+	 * own, such as a region of a mapped save file, or null once they have
+	 * been copied into tiles.
+	 */
+	private transient volatile ByteBuffer packedTiles;
 
 	/**
 	 * The width in pixels/tiles of the map.
@@ -57,7 +104,7 @@ public class MapImage implements Serializable {
 		width = image.getWidth(null);
 		height = image.getHeight(null);
 
-		tileMap = new int[width][height];
+		tiles = createTiles(width, height);
 
 		// Constructs a pixel array for storing the pixels
 		int[] pixels = new int[width * height];
@@ -75,10 +122,198 @@ public class MapImage implements Serializable {
 			Debug.log("Image fetch aborted or errored");
 			return;
 		}
+		handlePixels(pixels);
+	}
+
+	/**
+	 * Constructs a MapImage from an array of pixels, for example read with
+	 * javax.imageio. The pixels are given row by row, in the same format as
+	 * from a PixelGrabber.
+	 *
+	 * @param width the width of the map in pixels.
+	 * @param height the height of the map in pixels.
+	 * @param pixels width * height 32-bit ARGB pixels, row by row.
+	 */
+	public MapImage(int width, int height, int[] pixels) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("The map must be at least one pixel");
+		}
+		if (pixels == null || pixels.length < width * height) {
+			throw new IllegalArgumentException("Too few pixels for a "
+					+ width + "x" + height + " map");
+		}
+		this.width = width;
+		this.height = height;
+		tiles = createTiles(width, height);
+		handlePixels(pixels);
+	}
+
+	/**
+	 * Constructs a MapImage of the given size where all tiles are 0, that is
+	 * no tile. The tiles are then set with setRow() or setTileNr() while the
+	 * map is loaded.
+	 *
+	 * @param width the width of the map in tiles.
+	 * @param height the height of the map in tiles.
+	 */
+	public MapImage(int width, int height) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("The map must be at least one pixel");
+		}
+		this.width = width;
+		this.height = height;
+		tiles = createTiles(width, height);
+	}
+
+	/**
+	 * Constructs a MapImage from tile numbers that are packed the way
+	 * getPackedRows() returns them, for example as they have been saved. The
+	 * array becomes the map's own, so it mustn't be changed afterwards.
+	 *
+	 * @param width the width of the map in tiles.
+	 * @param height the height of the map in tiles.
+	 * @param packedRows the tile numbers, row by row and two in each byte.
+	 */
+	public MapImage(int width, int height, byte[] packedRows) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("The map must be at least one pixel");
+		}
+		if (packedRows == null ||
+				packedRows.length != getPackedLength(width, height)) {
+			throw new IllegalArgumentException("The packed rows don't fit a "
+					+ width + "x" + height + " map");
+		}
+		this.width = width;
+		this.height = height;
+		tiles = packedRows;
+	}
+
+	/**
+	 * Constructs a MapImage that reads its tile numbers from a buffer, in
+	 * which they are packed the way getPackedRows() returns them. The tiles
+	 * are read from the buffer as they are needed, until they are copied
+	 * out of it by getPackedRows() or setTileNr(), so the buffer mustn't be
+	 * changed.
+	 *
+	 * @param width the width of the map in tiles.
+	 * @param height the height of the map in tiles.
+	 * @param packedTiles the tile numbers, row by row and two in each byte,
+	 * from the position of the buffer to its limit.
+	 */
+	public MapImage(int width, int height, ByteBuffer packedTiles) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("The map must be at least one pixel");
+		}
+		if (packedTiles == null ||
+				packedTiles.remaining() != getPackedLength(width, height)) {
+			throw new IllegalArgumentException("The packed tiles don't fit a "
+					+ width + "x" + height + " map");
+		}
+		this.width = width;
+		this.height = height;
+		this.packedTiles = packedTiles.slice();
+	}
+
+	/**
+	 * Constructs a MapImage from an array of tile numbers, without any image
+	 * at all.
+	 *
+	 * @param tileMap the tile numbers of the map, indexed as tileMap[x][y].
+	 * All columns must have the same height.
+	 */
+	public MapImage(int[][] tileMap) {
+		if (tileMap == null || tileMap.length == 0 || tileMap[0].length == 0) {
+			throw new IllegalArgumentException("The map must be at least one tile");
+		}
+		width = tileMap.length;
+		height = tileMap[0].length;
+		tiles = createTiles(width, height);
+		for (int x = 0; x < width; x++) {
+			if (tileMap[x].length != height) {
+				throw new IllegalArgumentException("All columns of the map must have the same height");
+			}
+			for (int y = 0; y < height; y++) {
+				setTileNr(x, y, tileMap[x][y]);
+			}
+		}
+	}
+
+	/**
+	 * Creates the array of packed tile numbers for a map.
+	 *
+	 * @param width the width of the map in tiles.
+	 * @param height the height of the map in tiles.
+	 * @return the array, where all tiles are 0.
+	 */
+	private static byte[] createTiles(int width, int height) {
+		return new byte[getPackedLength(width, height)];
+	}
+
+	/**
+	 * Returns the number of bytes that the packed tile numbers of a map take
+	 * up.
+	 *
+	 * @param width the width of the map in tiles.
+	 * @param height the height of the map in tiles.
+	 * @return the number of bytes.
+	 */
+	public static int getPackedLength(int width, int height) {
+		long tileCount = (long) width * height;
+		if (tileCount > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The map is too large: "
+					+ width + "x" + height);
+		}
+		return (int) ((tileCount + 1) / 2);
+	}
+
+	/**
+	 * Translates the given pixels to tile numbers and stores them in the
+	 * tile map.
+	 *
+	 * @param pixels width * height 32-bit ARGB pixels, row by row.
+	 */
+	private void handlePixels(int[] pixels) {
 		for (int y = 0; y < height; y++) {
-		    for (int x = 0; x < width; x++) {
-				tileMap[x][y] = handlePixel(pixels[y * width + x]);
-		    }
+			setRow(y, pixels, y * width);
+		}
+	}
+
+	/**
+	 * Translates a row of pixels to tile numbers and stores them in the row
+	 * of the tile map.
+	 *
+	 * @param y the row.
+	 * @param pixels 32-bit ARGB pixels.
+	 * @param offset the index of the pixel of the first tile of the row.
+	 */
+	public void setRow(int y, int[] pixels, int offset) {
+		if (y < 0 || y >= height) {
+			throw new IndexOutOfBoundsException("Row " + y + ", height " + height);
+		}
+		for (int x = 0; x < width; x++) {
+			setTileNr(x, y, handlePixel(pixels[offset + x]));
+		}
+	}
+
+	/**
+	 * Sets the tile number at the specified coordinate.
+	 *
+	 * @param x the x-coordinate of the tile.
+	 * @param y the y-coordinate of the tile.
+	 * @param tileNr the tile number, from 0 to MAX_TILE_NR.
+	 */
+	public void setTileNr(int x, int y, int tileNr) {
+		if (tileNr < 0 || tileNr > MAX_TILE_NR) {
+			throw new IllegalArgumentException("Invalid tile number " + tileNr);
+		}
+		if (tiles == null) {
+			getPackedRows();
+		}
+		int i = index(x, y);
+		if ((i & 1) == 0) {
+			tiles[i >> 1] = (byte) ((tiles[i >> 1] & 0xf0) | tileNr);
+		} else {
+			tiles[i >> 1] = (byte) ((tiles[i >> 1] & 0x0f) | (tileNr << 4));
 		}
 	}
 
@@ -88,7 +323,67 @@ public class MapImage implements Serializable {
 	 * @return the tile number at the specified coordinate.
 	 */
 	public int getTileNr(int x, int y) {
-		return tileMap[x][y];
+		int i = index(x, y);
+		ByteBuffer buffer = packedTiles;
+		int packed = (buffer != null) ? buffer.get(i >> 1) : tiles[i >> 1];
+		return (packed >> ((i & 1) << 2)) & 0x0f;
+	}
+
+	/**
+	 * Returns the number of the tile at the given coordinate, counted row by
+	 * row.
+	 */
+	private int index(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height) {
+			throw new IndexOutOfBoundsException("Tile " + x + "," + y + " outside a "
+					+ width + "x" + height + " map");
+		}
+		return y * width + x;
+	}
+
+	/**
+	 * Returns the tile numbers of the whole map, packed row by row and two in
+	 * each byte: the tile number i = y * width + x is in the low four bits of
+	 * byte i / 2 if i is even, and in the high four bits if it is odd. The
+	 * array is the map's own, so it mustn't be changed. A map that reads its
+	 * tiles from a buffer copies them into the array the first time.
+	 *
+	 * @return the packed tile numbers.
+	 */
+	public synchronized byte[] getPackedRows() {
+		if (tiles == null) {
+			ByteBuffer buffer = packedTiles.duplicate();
+			byte[] copy = new byte[buffer.remaining()];
+			buffer.get(copy);
+			tiles = copy;
+			packedTiles = null;
+		}
+		return tiles;
+	}
+
+	/**
+	 * Returns the packed tile numbers, as getPackedRows() does, in a buffer
+	 * that can't be changed, without copying them out of the buffer that
+	 * they are read from.
+	 *
+	 * @return the packed tile numbers, from the position of the buffer to
+	 * its limit.
+	 */
+	public ByteBuffer getPackedTiles() {
+		ByteBuffer buffer = packedTiles;
+		if (buffer != null) {
+			return buffer.asReadOnlyBuffer();
+		}
+		return ByteBuffer.wrap(tiles).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Copies the tiles into the array before the map is serialized, since
+	 * the buffer they may be read from can't be.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		getPackedRows();
+		out.defaultWriteObject();
 	}
 
 	/**
@@ -122,7 +417,7 @@ public class MapImage implements Serializable {
 	 * on all sides.
 	 */
 	public int[] getTransitionInfo(int x, int y) {
-		int thisTile = tileMap[x][y];
+		int thisTile = getTileNr(x, y);
 		int[] transitions = new int[4];
 		// Set all neighbours to zero, i.e. no tile gfx
 		int leftTile = 0;
@@ -133,16 +428,16 @@ public class MapImage implements Serializable {
 		// Correct by checking if a neighbour exist and if so
 		// assign its value to the respective tile.
 		if(x > 0) {
-			leftTile = tileMap[x-1][y];
+			leftTile = getTileNr(x-1, y);
 		}
 		if(x < width - 1) {
-			rightTile = tileMap[x+1][y];
+			rightTile = getTileNr(x+1, y);
 		}
 		if(y > 0) {
-			upperTile = tileMap[x][y-1];
+			upperTile = getTileNr(x, y-1);
 		}
 		if(y < height - 1) {
-			lowerTile = tileMap[x][y+1];
+			lowerTile = getTileNr(x, y+1);
 		}
 
 		// Set all neighbours to zero
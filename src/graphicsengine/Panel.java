@@ -1,4 +1,7 @@
 /*
+ * 2026-10-18 agent
+ * 	The sub objects were drawn twice, by draw() and by GraphicalObject.
+ *
  * 2003-05-19 EliasAE
  * 	Formatting.
  *
@@ -174,11 +177,6 @@ public class Panel extends GraphicalObject {
 	 */
 	public void draw(Graphics2D graphics) {
 		if (isVisible()) {
-			Iterator itemsIterator = getSubObjects().iterator();
-			while (itemsIterator.hasNext()) {
-				GraphicalObject tmpItem = (GraphicalObject) itemsIterator.next();
-				tmpItem.draw(graphics);
-			}
 			super.draw(graphics);
 		}
 	}
@@ -0,0 +1,295 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package graphicsengine;
+
+import java.util.Arrays;
+
+/**
+ * The objects drawn in a frame sorted into a grid of BUCKET_SIZE x
+ * BUCKET_SIZE buckets on the screen, so that the objects at a point or in a
+ * rectangle can be found without looking at every drawn object.
+ *
+ * The grid is filled by the RenderQueue while it draws, in the order the
+ * objects are drawn, from back to front. Each object is put in every bucket
+ * its box on the screen covers. The boxes and the rectangles looked for are
+ * clamped to the grid, so objects and points outside it are found in the
+ * buckets at its edges. find() only finds the objects whose boxes are in the
+ * same buckets as the rectangle, so the caller must still hit test them.
+ *
+ * Nothing is allocated while the grid is filled once the arrays have grown
+ * to fit the objects.
+ */
+public class PickingGrid {
+
+	/**
+	 * The side of a bucket in pixels.
+	 */
+	public static final int BUCKET_SIZE = 64;
+
+	/**
+	 * The left edge of the grid in screen coordinates.
+	 */
+	private int left;
+
+	/**
+	 * The top edge of the grid in screen coordinates.
+	 */
+	private int top;
+
+	/**
+	 * The number of columns of buckets.
+	 */
+	private int columns = 1;
+
+	/**
+	 * The number of rows of buckets.
+	 */
+	private int rows = 1;
+
+	/**
+	 * The objects in the order they were added.
+	 */
+	private GraphicalObject[] objects = new GraphicalObject[0];
+
+	/**
+	 * The first column, first row, last column and last row of the buckets of
+	 * each object, four ints per object.
+	 */
+	private int[] objectBuckets = new int[0];
+
+	/**
+	 * The number of objects.
+	 */
+	private int objectCount;
+
+	/**
+	 * Where each bucket starts in bucketObjects. The objects of bucket b are
+	 * from bucketStart[b] (inclusive) to bucketStart[b + 1] (exclusive).
+	 */
+	private int[] bucketStart = new int[2];
+
+	/**
+	 * The indices of the objects, sorted by bucket.
+	 */
+	private int[] bucketObjects = new int[0];
+
+	/**
+	 * The number of the find() each object was last found by, so that an
+	 * object in several buckets is only found once.
+	 */
+	private int[] foundBy = new int[0];
+
+	/**
+	 * The number of the last find().
+	 */
+	private int findNumber;
+
+	/**
+	 * The indices of the objects found by the last find(), sorted from
+	 * front to back.
+	 */
+	private int[] found = new int[0];
+
+	/**
+	 * The number of objects found by the last find().
+	 */
+	private int foundCount;
+
+	/**
+	 * Starts over with an empty grid over an area of the screen.
+	 *
+	 * @param screenX the left edge of the area.
+	 * @param screenY the top edge of the area.
+	 * @param width the width of the area in pixels.
+	 * @param height the height of the area in pixels.
+	 */
+	public void reset(int screenX, int screenY, int width, int height) {
+		left = screenX;
+		top = screenY;
+		columns = Math.max(1, (width + BUCKET_SIZE - 1) / BUCKET_SIZE);
+		rows = Math.max(1, (height + BUCKET_SIZE - 1) / BUCKET_SIZE);
+		// Forget the objects, so that they can be garbage collected.
+		Arrays.fill(objects, 0, objectCount, null);
+		objectCount = 0;
+		foundCount = 0;
+	}
+
+	/**
+	 * Adds an object in front of the objects added before it. index() must
+	 * be called before the object can be found.
+	 *
+	 * @param object the object.
+	 * @param screenLeftX the left edge of the box of the object, inclusive.
+	 * @param screenTopY the top edge of the box of the object, inclusive.
+	 * @param screenRightX the right edge of the box of the object, inclusive.
+	 * @param screenBottomY the bottom edge of the box of the object,
+	 * inclusive.
+	 */
+	public void add(GraphicalObject object, int screenLeftX, int screenTopY,
+			int screenRightX, int screenBottomY) {
+		if (objectCount == objects.length) {
+			int capacity = Math.max(16, objects.length * 2);
+			GraphicalObject[] tmpObjects = new GraphicalObject[capacity];
+			System.arraycopy(objects, 0, tmpObjects, 0, objectCount);
+			objects = tmpObjects;
+			int[] tmpBuckets = new int[4 * capacity];
+			System.arraycopy(objectBuckets, 0, tmpBuckets, 0, 4 * objectCount);
+			objectBuckets = tmpBuckets;
+			foundBy = new int[capacity];
+			found = new int[capacity];
+		}
+		objects[objectCount] = object;
+		int n = 4 * objectCount;
+		objectBuckets[n] = getColumn(screenLeftX);
+		objectBuckets[n + 1] = getRow(screenTopY);
+		objectBuckets[n + 2] = getColumn(screenRightX);
+		objectBuckets[n + 3] = getRow(screenBottomY);
+		foundBy[objectCount] = findNumber;
+		objectCount++;
+	}
+
+	/**
+	 * Sorts the objects that have been added since reset() into the
+	 * buckets.
+	 */
+	public void index() {
+		int buckets = columns * rows;
+		if (bucketStart.length < buckets + 1) {
+			bucketStart = new int[buckets + 1];
+		} else {
+			Arrays.fill(bucketStart, 0, buckets + 1, 0);
+		}
+
+		// Count the objects in each bucket.
+		int entries = 0;
+		for (int i = 0; i < objectCount; i++) {
+			int n = 4 * i;
+			for (int row = objectBuckets[n + 1]; row <= objectBuckets[n + 3]; row++) {
+				for (int column = objectBuckets[n]; column <= objectBuckets[n + 2]; column++) {
+					bucketStart[row * columns + column + 1]++;
+					entries++;
+				}
+			}
+		}
+
+		// Turn the counts into starts, and place the objects in their buckets.
+		for (int b = 0; b < buckets; b++) {
+			bucketStart[b + 1] += bucketStart[b];
+		}
+		if (bucketObjects.length < entries) {
+			bucketObjects = new int[Math.max(entries, bucketObjects.length * 2)];
+		}
+		for (int i = 0; i < objectCount; i++) {
+			int n = 4 * i;
+			for (int row = objectBuckets[n + 1]; row <= objectBuckets[n + 3]; row++) {
+				for (int column = objectBuckets[n]; column <= objectBuckets[n + 2]; column++) {
+					// bucketStart is moved forward while the bucket is filled...
+					bucketObjects[bucketStart[row * columns + column]++] = i;
+				}
+			}
+		}
+		// ...and ends up where the next bucket starts, so shift it back.
+		for (int b = buckets; b > 0; b--) {
+			bucketStart[b] = bucketStart[b - 1];
+		}
+		bucketStart[0] = 0;
+	}
+
+	/**
+	 * Finds the objects in the buckets that a rectangle on the screen
+	 * covers. They can then be retrieved with getFound(), from front to
+	 * back.
+	 *
+	 * @param screenLeftX the left edge of the rectangle, inclusive.
+	 * @param screenTopY the top edge of the rectangle, inclusive.
+	 * @param screenRightX the right edge of the rectangle, inclusive.
+	 * @param screenBottomY the bottom edge of the rectangle, inclusive.
+	 * @return the number of objects found.
+	 */
+	public int find(int screenLeftX, int screenTopY, int screenRightX,
+			int screenBottomY) {
+		foundCount = 0;
+		if (objectCount == 0) {
+			return 0;
+		}
+		findNumber++;
+		int firstColumn = getColumn(Math.min(screenLeftX, screenRightX));
+		int lastColumn = getColumn(Math.max(screenLeftX, screenRightX));
+		int firstRow = getRow(Math.min(screenTopY, screenBottomY));
+		int lastRow = getRow(Math.max(screenTopY, screenBottomY));
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				int bucket = row * columns + column;
+				for (int e = bucketStart[bucket]; e < bucketStart[bucket + 1]; e++) {
+					int i = bucketObjects[e];
+					if (foundBy[i] != findNumber) {
+						foundBy[i] = findNumber;
+						found[foundCount++] = i;
+					}
+				}
+			}
+		}
+
+		// The objects were added from back to front, so the largest index is
+		// the front most.
+		Arrays.sort(found, 0, foundCount);
+		for (int low = 0, high = foundCount - 1; low < high; low++, high--) {
+			int tmp = found[low];
+			found[low] = found[high];
+			found[high] = tmp;
+		}
+		return foundCount;
+	}
+
+	/**
+	 * Returns one of the objects found by the last find().
+	 *
+	 * @param n the number of the object, from 0 for the front most to the
+	 * number of objects found - 1.
+	 * @return the object.
+	 */
+	public GraphicalObject getFound(int n) {
+		return objects[found[n]];
+	}
+
+	/**
+	 * Returns the number of objects in the grid.
+	 *
+	 * @return the number of objects.
+	 */
+	public int getObjectCount() {
+		return objectCount;
+	}
+
+	/**
+	 * Returns the column of the bucket that contains a screen x-coordinate.
+	 */
+	private int getColumn(int screenX) {
+		int offset = screenX - left;
+		if (offset < 0) {
+			return 0;
+		}
+		int column = offset / BUCKET_SIZE;
+		if (column >= columns) {
+			return columns - 1;
+		}
+		return column;
+	}
+
+	/**
+	 * Returns the row of the bucket that contains a screen y-coordinate.
+	 */
+	private int getRow(int screenY) {
+		int offset = screenY - top;
+		if (offset < 0) {
+			return 0;
+		}
+		int row = offset / BUCKET_SIZE;
+		if (row >= rows) {
+			return rows - 1;
+		}
+		return row;
+	}
+
+}
@@ -0,0 +1,581 @@
+/* 2026-10-18 agent
+ *	Fills a PickingGrid with the drawn objects each frame, which the view
+ *	finds the objects at a position on the screen with.
+ *
+ * 2026-10-18 agent
+ *	findVisible() converts the positions in a cell to iso coordinates all
+ *	at once with CoordinateConverter.mapToIso().
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package graphicsengine;
+
+import gameengine.RenderSnapshot;
+
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+/**
+ * Draws the objects on the map in one pass, from back to front, leaving out
+ * the ones that are outside the view.
+ *
+ * Each time the view gets a new render snapshot, the queue is given the
+ * graphical object of each object in the snapshot, and sorts them into a
+ * grid of CELL_SIZE x CELL_SIZE cells on the map by their positions after
+ * the tick. Each frame, only the objects in the cells under the view are
+ * looked at. Those whose drawing reaches into the view are sorted by their
+ * depth, the iso y-coordinate of their positions, with a radix sort, and
+ * drawn in that order, so that objects further down on the screen are
+ * drawn in front of the ones above them.
+ *
+ * The drawn objects are put into a PickingGrid by their positions on the
+ * screen, so that the objects at a position can be found quickly.
+ *
+ * Nothing is allocated while drawing once the arrays have grown to fit the
+ * objects.
+ */
+public class RenderQueue {
+
+	/**
+	 * The side of a cell of the grid in map coordinates. Must be larger than
+	 * the distance an object can move in a tick, since an object is drawn
+	 * between its positions before and after the tick but is sorted into the
+	 * cell of the position after.
+	 */
+	public static final float CELL_SIZE = 4f;
+
+	/**
+	 * How far outside their extents the objects can be drawn, in pixels.
+	 * Sub objects, such as the buttons of a node, can reach a little outside
+	 * the drawing of the object they belong to.
+	 */
+	private static final int CULL_MARGIN = 32;
+
+	/**
+	 * The depths are sorted with this many steps per pixel, so that objects
+	 * on the same row of pixels are still drawn in the right order.
+	 */
+	private static final float DEPTH_STEPS = 16f;
+
+	/**
+	 * The number of bits sorted in each pass of the radix sort.
+	 */
+	private static final int RADIX_BITS = 8;
+
+	/**
+	 * The number of passes of the radix sort. The depths must be less than
+	 * 2 ^ (RADIX_BITS * RADIX_PASSES).
+	 */
+	private static final int RADIX_PASSES = 3;
+
+	/**
+	 * The largest depth that can be sorted.
+	 */
+	private static final int MAX_DEPTH = (1 << (RADIX_BITS * RADIX_PASSES)) - 1;
+
+	/**
+	 * The map that the objects are on.
+	 */
+	private Map map;
+
+	/**
+	 * The snapshot that the objects are drawn from.
+	 */
+	private RenderSnapshot snapshot;
+
+	/**
+	 * The object to draw for each object in the snapshot, null for the
+	 * objects that aren't drawn.
+	 */
+	private MapDrawable[] drawables = new MapDrawable[0];
+
+	/**
+	 * The number of objects in the snapshot.
+	 */
+	private int size;
+
+	/**
+	 * The number of columns of the grid.
+	 */
+	private int columns;
+
+	/**
+	 * The number of rows of the grid.
+	 */
+	private int rows;
+
+	/**
+	 * Where each cell starts in cellItems. The objects of cell c are from
+	 * cellStart[c] (inclusive) to cellStart[c + 1] (exclusive).
+	 */
+	private int[] cellStart = new int[1];
+
+	/**
+	 * The indices in the snapshot of the objects, sorted by cell.
+	 */
+	private int[] cellItems = new int[0];
+
+	/**
+	 * The cell of each object in the snapshot.
+	 */
+	private int[] itemCells = new int[0];
+
+	/**
+	 * The number of objects in the grid.
+	 */
+	private int itemCount;
+
+	/**
+	 * The smallest left extent of the objects in the grid.
+	 */
+	private int minExtentLeft;
+
+	/**
+	 * The smallest top extent of the objects in the grid.
+	 */
+	private int minExtentTop;
+
+	/**
+	 * The largest right extent of the objects in the grid.
+	 */
+	private int maxExtentRight;
+
+	/**
+	 * The largest bottom extent of the objects in the grid.
+	 */
+	private int maxExtentBottom;
+
+	/**
+	 * The indices in the snapshot of the objects in the view, in the order
+	 * they were found.
+	 */
+	private int[] visible = new int[0];
+
+	/**
+	 * The interpolated x-positions of the objects in the view.
+	 */
+	private float[] visibleX = new float[0];
+
+	/**
+	 * The interpolated y-positions of the objects in the view.
+	 */
+	private float[] visibleY = new float[0];
+
+	/**
+	 * The screen x-positions of the objects in the view.
+	 */
+	private int[] visibleScreenX = new int[0];
+
+	/**
+	 * The screen y-positions of the objects in the view.
+	 */
+	private int[] visibleScreenY = new int[0];
+
+	/**
+	 * The depths of the objects in the view.
+	 */
+	private int[] depths = new int[0];
+
+	/**
+	 * The interpolated positions of the objects in the cell being looked
+	 * through, x before y.
+	 */
+	private float[] cellMapPositions = new float[0];
+
+	/**
+	 * The iso coordinates of the objects in the cell being looked through,
+	 * x before y.
+	 */
+	private float[] cellIsoPositions = new float[0];
+
+	/**
+	 * The positions in visible of the objects in the view, sorted by depth.
+	 */
+	private int[] order = new int[0];
+
+	/**
+	 * Where the radix sort puts the positions between the passes.
+	 */
+	private int[] sortBuffer = new int[0];
+
+	/**
+	 * The number of depths in each bucket of the radix sort.
+	 */
+	private int[] bucketCounts = new int[1 << RADIX_BITS];
+
+	/**
+	 * The number of objects drawn in the last frame.
+	 */
+	private int drawnCount;
+
+	/**
+	 * The number of objects left out of the last frame.
+	 */
+	private int culledCount;
+
+	/**
+	 * The objects drawn in the last frame, by their positions on the screen.
+	 */
+	private PickingGrid pickingGrid = new PickingGrid();
+
+	/**
+	 * Creates an empty queue for the objects on a map.
+	 *
+	 * @param map the map.
+	 */
+	public RenderQueue(Map map) {
+		this.map = map;
+	}
+
+	/**
+	 * Starts over with a new snapshot. All objects are forgotten until they
+	 * are given again with setDrawable() and index() has been called.
+	 *
+	 * @param snapshot the snapshot to draw the objects from.
+	 */
+	public void reset(RenderSnapshot snapshot) {
+		this.snapshot = snapshot;
+		size = snapshot.size();
+		if (drawables.length < size) {
+			drawables = new MapDrawable[size];
+			itemCells = new int[size];
+		} else {
+			Arrays.fill(drawables, null);
+		}
+		itemCount = 0;
+		drawnCount = 0;
+		culledCount = 0;
+	}
+
+	/**
+	 * Sets what to draw for an object in the snapshot.
+	 *
+	 * @param index the index of the object in the snapshot.
+	 * @param drawable the graphical object that draws it, or null if it
+	 * isn't drawn.
+	 */
+	public void setDrawable(int index, MapDrawable drawable) {
+		drawables[index] = drawable;
+	}
+
+	/**
+	 * Sorts the objects that have been given since reset() into the grid.
+	 * Must be called before the objects can be drawn.
+	 */
+	public void index() {
+		columns = Math.max(1, (int) Math.ceil(map.getWidth() / CELL_SIZE));
+		rows = Math.max(1, (int) Math.ceil(map.getHeight() / CELL_SIZE));
+		int cells = columns * rows;
+		if (cellStart.length < cells + 1) {
+			cellStart = new int[cells + 1];
+		} else {
+			for (int c = 0; c <= cells; c++) {
+				cellStart[c] = 0;
+			}
+		}
+
+		// Count the objects in each cell, and find out how far they reach.
+		itemCount = 0;
+		minExtentLeft = 0;
+		minExtentTop = 0;
+		maxExtentRight = 0;
+		maxExtentBottom = 0;
+		for (int i = 0; i < size; i++) {
+			MapDrawable drawable = drawables[i];
+			if (drawable == null) {
+				continue;
+			}
+			int cell = getRow(snapshot.getY(i, 1f)) * columns +
+					getColumn(snapshot.getX(i, 1f));
+			itemCells[i] = cell;
+			cellStart[cell + 1]++;
+			itemCount++;
+			minExtentLeft = Math.min(minExtentLeft, drawable.getExtentLeft());
+			minExtentTop = Math.min(minExtentTop, drawable.getExtentTop());
+			maxExtentRight = Math.max(maxExtentRight, drawable.getExtentRight());
+			maxExtentBottom = Math.max(maxExtentBottom, drawable.getExtentBottom());
+		}
+
+		// Turn the counts into starts, and place the objects in their cells.
+		for (int c = 0; c < cells; c++) {
+			cellStart[c + 1] += cellStart[c];
+		}
+		if (cellItems.length < itemCount) {
+			cellItems = new int[itemCount];
+		}
+		for (int i = 0; i < size; i++) {
+			if (drawables[i] != null) {
+				int cell = itemCells[i];
+				// cellStart[cell] is moved forward while the cell is filled...
+				cellItems[cellStart[cell]++] = i;
+			}
+		}
+		// ...and ends up where the next cell starts, so shift it back.
+		for (int c = cells; c > 0; c--) {
+			cellStart[c] = cellStart[c - 1];
+		}
+		cellStart[0] = 0;
+
+		if (visible.length < itemCount) {
+			int capacity = Math.max(itemCount, visible.length * 2);
+			visible = new int[capacity];
+			visibleX = new float[capacity];
+			visibleY = new float[capacity];
+			visibleScreenX = new int[capacity];
+			visibleScreenY = new int[capacity];
+			depths = new int[capacity];
+			cellMapPositions = new float[2 * capacity];
+			cellIsoPositions = new float[2 * capacity];
+			order = new int[capacity];
+			sortBuffer = new int[capacity];
+		}
+	}
+
+	/**
+	 * Draws the objects whose drawings reach into the view, from back to
+	 * front, and puts them into the picking grid.
+	 *
+	 * @param graphics the graphics to draw on.
+	 * @param viewScreenX the x-position of the view in screen-coordinates.
+	 * @param viewScreenY the y-position of the view in screen-coordinates.
+	 * @param viewWidth the width of the view in pixels.
+	 * @param viewHeight the height of the view in pixels.
+	 * @param interpolation how far between the positions before (0) and after
+	 * (1) the tick of the snapshot to draw the objects.
+	 */
+	public void draw(Graphics2D graphics, int viewScreenX, int viewScreenY,
+			int viewWidth, int viewHeight, float interpolation) {
+		pickingGrid.reset(viewScreenX, viewScreenY, viewWidth, viewHeight);
+		if (itemCount == 0) {
+			pickingGrid.index();
+			drawnCount = 0;
+			culledCount = 0;
+			return;
+		}
+		int visibleCount = findVisible(viewScreenX, viewScreenY, viewWidth,
+				viewHeight, interpolation);
+		sortByDepth(visibleCount);
+		for (int n = 0; n < visibleCount; n++) {
+			int position = order[n];
+			int index = visible[position];
+			MapDrawable drawable = drawables[index];
+			drawable.setMapState(visibleX[position], visibleY[position],
+					snapshot.getDirection(index));
+			((GraphicalObject) drawable).draw(graphics);
+
+			// The sub objects are only drawn when they are shown, and may
+			// reach a little outside the drawing of the object. The object
+			// may also be drawn a pixel off its position when it is rounded.
+			int margin = ((GraphicalObject) drawable).isSubObjectsShown() ?
+					CULL_MARGIN + 1 : 1;
+			int screenX = visibleScreenX[position];
+			int screenY = visibleScreenY[position];
+			pickingGrid.add((GraphicalObject) drawable,
+					screenX + Math.min(0, drawable.getExtentLeft()) - margin,
+					screenY + Math.min(0, drawable.getExtentTop()) - margin,
+					screenX + Math.max(0, drawable.getExtentRight()) + margin,
+					screenY + Math.max(0, drawable.getExtentBottom()) + margin);
+		}
+		pickingGrid.index();
+		drawnCount = visibleCount;
+		culledCount = itemCount - visibleCount;
+	}
+
+	/**
+	 * Returns the number of objects drawn in the last frame.
+	 *
+	 * @return the number of drawn objects.
+	 */
+	public int getDrawnCount() {
+		return drawnCount;
+	}
+
+	/**
+	 * Returns the number of objects that were left out of the last frame
+	 * because they were outside the view.
+	 *
+	 * @return the number of culled objects.
+	 */
+	public int getCulledCount() {
+		return culledCount;
+	}
+
+	/**
+	 * Returns one of the objects drawn in the last frame.
+	 *
+	 * @param n the number of the object in the order they were drawn, from 0
+	 * to getDrawnCount() - 1.
+	 * @return the graphical object.
+	 */
+	public GraphicalObject getDrawn(int n) {
+		return (GraphicalObject) drawables[visible[order[n]]];
+	}
+
+	/**
+	 * Returns the objects drawn in the last frame, by their positions on the
+	 * screen.
+	 *
+	 * @return the picking grid.
+	 */
+	public PickingGrid getPickingGrid() {
+		return pickingGrid;
+	}
+
+	/**
+	 * Finds the objects whose drawings reach into the view, and puts them in
+	 * visible along with their positions and depths.
+	 *
+	 * @return the number of objects found.
+	 */
+	private int findVisible(int viewScreenX, int viewScreenY, int viewWidth,
+			int viewHeight, float interpolation) {
+		CoordinateConverter cc = CoordinateConverter.getCoordinateConverter();
+		int viewRight = viewScreenX + viewWidth;
+		int viewBottom = viewScreenY + viewHeight;
+
+		// The area on the screen where an object must be for any of its
+		// drawing to reach into the view.
+		int areaLeft = viewScreenX - maxExtentRight - CULL_MARGIN;
+		int areaTop = viewScreenY - maxExtentBottom - CULL_MARGIN;
+		int areaRight = viewRight - minExtentLeft + CULL_MARGIN;
+		int areaBottom = viewBottom - minExtentTop + CULL_MARGIN;
+
+		// The cells under the corners of the area, and one more all around
+		// for the objects that have moved since the tick.
+		float isoLeft = cc.screenToIsoX(areaLeft, areaTop);
+		float isoTop = cc.screenToIsoY(areaLeft, areaTop);
+		float isoRight = cc.screenToIsoX(areaRight, areaBottom);
+		float isoBottom = cc.screenToIsoY(areaRight, areaBottom);
+		float mapX1 = cc.isoToMapX(isoLeft, isoTop);
+		float mapX2 = cc.isoToMapX(isoRight, isoTop);
+		float mapX3 = cc.isoToMapX(isoLeft, isoBottom);
+		float mapX4 = cc.isoToMapX(isoRight, isoBottom);
+		float mapY1 = cc.isoToMapY(isoLeft, isoTop);
+		float mapY2 = cc.isoToMapY(isoRight, isoTop);
+		float mapY3 = cc.isoToMapY(isoLeft, isoBottom);
+		float mapY4 = cc.isoToMapY(isoRight, isoBottom);
+		int firstColumn = getColumn(Math.min(Math.min(mapX1, mapX2),
+				Math.min(mapX3, mapX4)) - CELL_SIZE);
+		int lastColumn = getColumn(Math.max(Math.max(mapX1, mapX2),
+				Math.max(mapX3, mapX4)) + CELL_SIZE);
+		int firstRow = getRow(Math.min(Math.min(mapY1, mapY2),
+				Math.min(mapY3, mapY4)) - CELL_SIZE);
+		int lastRow = getRow(Math.max(Math.max(mapY1, mapY2),
+				Math.max(mapY3, mapY4)) + CELL_SIZE);
+
+		int visibleCount = 0;
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				int cell = row * columns + column;
+				int first = cellStart[cell];
+				int count = cellStart[cell + 1] - first;
+				for (int j = 0; j < count; j++) {
+					int index = cellItems[first + j];
+					cellMapPositions[2 * j] = snapshot.getX(index, interpolation);
+					cellMapPositions[2 * j + 1] = snapshot.getY(index, interpolation);
+				}
+				cc.mapToIso(cellMapPositions, cellIsoPositions, count);
+				for (int j = 0; j < count; j++) {
+					int index = cellItems[first + j];
+					MapDrawable drawable = drawables[index];
+					float x = cellMapPositions[2 * j];
+					float y = cellMapPositions[2 * j + 1];
+					float isoX = cellIsoPositions[2 * j];
+					float isoY = cellIsoPositions[2 * j + 1];
+					int screenX = cc.isoToScreenX(isoX, isoY);
+					int screenY = cc.isoToScreenY(isoX, isoY);
+					if (screenX + drawable.getExtentRight() + CULL_MARGIN <= viewScreenX ||
+							screenX + drawable.getExtentLeft() - CULL_MARGIN >= viewRight ||
+							screenY + drawable.getExtentBottom() + CULL_MARGIN <= viewScreenY ||
+							screenY + drawable.getExtentTop() - CULL_MARGIN >= viewBottom) {
+						continue;
+					}
+					int depth = (int) ((isoY - isoTop) * DEPTH_STEPS);
+					if (depth < 0) {
+						depth = 0;
+					} else if (depth > MAX_DEPTH) {
+						depth = MAX_DEPTH;
+					}
+					visible[visibleCount] = index;
+					visibleX[visibleCount] = x;
+					visibleY[visibleCount] = y;
+					visibleScreenX[visibleCount] = screenX;
+					visibleScreenY[visibleCount] = screenY;
+					depths[visibleCount] = depth;
+					visibleCount++;
+				}
+			}
+		}
+		return visibleCount;
+	}
+
+	/**
+	 * Sorts the positions of the visible objects by depth into order, with a
+	 * least significant digit radix sort. Objects with the same depth keep
+	 * the order they were found in.
+	 */
+	private void sortByDepth(int count) {
+		for (int n = 0; n < count; n++) {
+			order[n] = n;
+		}
+		int mask = (1 << RADIX_BITS) - 1;
+		int[] from = order;
+		int[] to = sortBuffer;
+		for (int pass = 0; pass < RADIX_PASSES; pass++) {
+			int shift = pass * RADIX_BITS;
+			for (int b = 0; b <= mask; b++) {
+				bucketCounts[b] = 0;
+			}
+			for (int n = 0; n < count; n++) {
+				bucketCounts[(depths[from[n]] >> shift) & mask]++;
+			}
+			int start = 0;
+			for (int b = 0; b <= mask; b++) {
+				int bucketCount = bucketCounts[b];
+				bucketCounts[b] = start;
+				start += bucketCount;
+			}
+			for (int n = 0; n < count; n++) {
+				int position = from[n];
+				to[bucketCounts[(depths[position] >> shift) & mask]++] = position;
+			}
+			int[] tmp = from;
+			from = to;
+			to = tmp;
+		}
+		// After an odd number of passes the result is in the buffer.
+		if (from != order) {
+			System.arraycopy(from, 0, order, 0, count);
+		}
+	}
+
+	/**
+	 * Returns the column of the grid that contains a map x-coordinate.
+	 */
+	private int getColumn(float mapX) {
+		int column = (int) Math.floor(mapX / CELL_SIZE);
+		if (column < 0) {
+			return 0;
+		}
+		if (column >= columns) {
+			return columns - 1;
+		}
+		return column;
+	}
+
+	/**
+	 * Returns the row of the grid that contains a map y-coordinate.
+	 */
+	private int getRow(float mapY) {
+		int row = (int) Math.floor(mapY / CELL_SIZE);
+		if (row < 0) {
+			return 0;
+		}
+		if (row >= rows) {
+			return rows - 1;
+		}
+		return row;
+	}
+
+}
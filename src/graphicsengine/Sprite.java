@@ -1,4 +1,13 @@
 /* 
+ * 2026-10-18 agent
+ * 	Added a constructor for a sprite that is a region of a larger image,
+ * 	such as a page of a texture atlas.
+ *
+ * 2026-10-18 agent
+ * 	The image is drawn through an AcceleratedImage, from video memory when
+ * 	volatile images are enabled. A subarea is drawn with the drawImage()
+ * 	that takes a source rectangle instead of from a new sub image.
+ *
  * 2003-05-19 EliasAE
  * 	Formatting.
  *
@@ -50,6 +59,21 @@ public class Sprite implements Renderable{
 	 */
 	private BufferedImage bufferedImage;
 
+	/**
+	 * Draws bufferedImage, from video memory if it can.
+	 */
+	private AcceleratedImage acceleratedImage;
+
+	/**
+	 * The x-position of the sprite in the image of acceleratedImage.
+	 */
+	private int regionX;
+
+	/**
+	 * The y-position of the sprite in the image of acceleratedImage.
+	 */
+	private int regionY;
+
 	/**
 	 * Creates a sprite.
 	 *
@@ -68,6 +92,32 @@ public class Sprite implements Renderable{
 				);
 		Graphics2D g2d = bufferedImage.createGraphics();
 		g2d.drawImage(image, 0, 0, owner);
+		g2d.dispose();
+		acceleratedImage = new AcceleratedImage(bufferedImage);
+	}
+
+	/**
+	 * Creates a sprite that is a region of a larger image, such as a page of
+	 * a texture atlas. Many sprites can share the image.
+	 *
+	 * @param image the image that the region is in.
+	 * @param regionX the x-position of the region in the image.
+	 * @param regionY the y-position of the region in the image.
+	 * @param width the width of the region.
+	 * @param height the height of the region.
+	 */
+	public Sprite(
+			AcceleratedImage image,
+			int regionX,
+			int regionY,
+			int width,
+			int height) {
+		acceleratedImage = image;
+		bufferedImage = image.getImage();
+		this.regionX = regionX;
+		this.regionY = regionY;
+		this.width = width;
+		this.height = height;
 	}
 
 
@@ -86,7 +136,8 @@ public class Sprite implements Renderable{
 			Graphics2D graphics,
 			int screenX,
 			int screenY) {
-		graphics.drawImage(bufferedImage, screenX, screenY, null);
+		acceleratedImage.draw(
+				graphics, screenX, screenY, regionX, regionY, width, height);
 	}
 
 	/**
@@ -110,21 +161,15 @@ public class Sprite implements Renderable{
 			int topLeftY,
 			int width,
 			int height) {
-		BufferedImage tmpBufferedImage = bufferedImage;
-		if(
-				topLeftX != 0
-				|| topLeftY != 0
-				|| width != getWidth()
-				|| height != getHeight()
-				) {
-			tmpBufferedImage = bufferedImage.getSubimage(
-					topLeftX,
-					topLeftY,
-					width,
-					height
-					);
-		}
-		graphics.drawImage(tmpBufferedImage, screenX, screenY, null);
+		acceleratedImage.draw(
+				graphics,
+				screenX,
+				screenY,
+				regionX + topLeftX,
+				regionY + topLeftY,
+				width,
+				height
+				);
 	}
 
 	/**
@@ -0,0 +1,368 @@
+/* 2026-10-18 agent
+ *	When AcceleratedImage has volatile images enabled, the chunks are
+ *	volatile images, which are rendered again when their contents are lost.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package graphicsengine;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Shape;
+import java.awt.Transparency;
+import java.awt.image.VolatileImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * The terrain of a Map rendered into square images, chunks, of
+ * CHUNK_SIZE x CHUNK_SIZE pixels in iso coordinates. The terrain never
+ * changes while the game runs, so instead of drawing every visible tile
+ * every frame, the view draws the few chunks that cover it. A chunk is
+ * rendered the first time it is drawn, and again only if a tile in it has
+ * been made dirty through Map.addDirtyTile() or Map.makeAllTilesDirty().
+ *
+ * The chunks are compatible images of the graphics configuration they are
+ * drawn to, so Java2D can keep them in video memory, or volatile images if
+ * AcceleratedImage.isEnabled(). The contents of a volatile chunk can be
+ * lost, and then it is rendered again. At most a given
+ * number of chunks are kept; when there are more, the one that was drawn
+ * longest ago is thrown away.
+ */
+public class TerrainCache {
+
+	/**
+	 * The side of a chunk in pixels.
+	 */
+	public static final int CHUNK_SIZE = 512;
+
+	/**
+	 * The default number of chunks to keep, about 32 MB of images.
+	 */
+	public static final int DEFAULT_MAX_CHUNKS = 32;
+
+	/**
+	 * The color of the parts of the terrain without tiles.
+	 */
+	private static final Color BACKGROUND = Color.blue.darker();
+
+	/**
+	 * How far outside a chunk a tile can be placed and still reach into
+	 * it, since the tile images are larger than Tile.getWidth() and
+	 * Tile.getHeight().
+	 */
+	private static final int TILE_MARGIN = 64;
+
+	/**
+	 * The map whose tiles are rendered.
+	 */
+	private Map map;
+
+	/**
+	 * The chunks, keyed by their position (see getKey()), in the order they
+	 * were drawn, the one drawn longest ago first.
+	 */
+	private LinkedHashMap chunks;
+
+	/**
+	 * The maximum number of chunks to keep.
+	 */
+	private int maxChunks = DEFAULT_MAX_CHUNKS;
+
+	/**
+	 * The number of times a chunk has been rendered.
+	 */
+	private long renderCount;
+
+	/**
+	 * Creates an empty cache for the tiles of a map.
+	 *
+	 * @param map the map.
+	 */
+	TerrainCache(Map map) {
+		this.map = map;
+		chunks = new LinkedHashMap(16, 0.75f, true) {
+			protected boolean removeEldestEntry(java.util.Map.Entry eldest) {
+				if (size() > maxChunks) {
+					((Chunk) eldest.getValue()).flush();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Draws the terrain that is inside the view. Renders the chunks that
+	 * are missing or dirty first.
+	 *
+	 * @param graphics the graphics to draw on.
+	 * @param viewScreenX the x-position of the view in screen-coordinates.
+	 * @param viewScreenY the y-position of the view in screen-coordinates.
+	 * @param viewWidth the width of the view in pixels.
+	 * @param viewHeight the height of the view in pixels.
+	 */
+	public void draw(Graphics2D graphics, int viewScreenX, int viewScreenY,
+			int viewWidth, int viewHeight) {
+		CoordinateConverter cc = CoordinateConverter.getCoordinateConverter();
+		float viewIsoX = cc.screenToIsoX(viewScreenX, viewScreenY);
+		float viewIsoY = cc.screenToIsoY(viewScreenX, viewScreenY);
+		int firstChunkX = getChunkIndex(viewIsoX);
+		int firstChunkY = getChunkIndex(viewIsoY);
+		int lastChunkX = getChunkIndex(viewIsoX + viewWidth);
+		int lastChunkY = getChunkIndex(viewIsoY + viewHeight);
+
+		// The chunks reach outside the view, which they mustn't draw over.
+		Shape oldClip = graphics.getClip();
+		graphics.clipRect(viewScreenX, viewScreenY, viewWidth, viewHeight);
+		GraphicsConfiguration configuration = graphics.getDeviceConfiguration();
+		for (int chunkY = firstChunkY; chunkY <= lastChunkY; chunkY++) {
+			for (int chunkX = firstChunkX; chunkX <= lastChunkX; chunkX++) {
+				Chunk chunk = getChunk(chunkX, chunkY, configuration);
+				if (chunk.image instanceof VolatileImage) {
+					int status = ((VolatileImage) chunk.image).validate(configuration);
+					if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+						chunk.flush();
+						chunk = new Chunk(chunkX, chunkY, configuration);
+						chunks.put(getKey(chunkX, chunkY), chunk);
+					} else if (status == VolatileImage.IMAGE_RESTORED) {
+						chunk.dirty = true;
+						AcceleratedImage.volatileImageRestored();
+					}
+				}
+				if (chunk.dirty) {
+					render(chunk);
+				}
+				float chunkIsoX = chunkX * CHUNK_SIZE;
+				float chunkIsoY = chunkY * CHUNK_SIZE;
+				graphics.drawImage(chunk.image,
+						cc.isoToScreenX(chunkIsoX, chunkIsoY),
+						cc.isoToScreenY(chunkIsoX, chunkIsoY), null);
+				if (chunk.image instanceof VolatileImage &&
+						((VolatileImage) chunk.image).contentsLost()) {
+					chunk.dirty = true;
+				}
+			}
+		}
+		graphics.setClip(oldClip);
+	}
+
+	/**
+	 * Makes the chunks that show any part of an area dirty, so that they are
+	 * rendered again the next time they are drawn.
+	 *
+	 * @param isoX the x-position of the area in iso coordinates.
+	 * @param isoY the y-position of the area in iso coordinates.
+	 * @param width the width of the area.
+	 * @param height the height of the area.
+	 */
+	public void invalidate(float isoX, float isoY, int width, int height) {
+		// A tile image can reach further than the area.
+		int firstChunkX = getChunkIndex(isoX);
+		int firstChunkY = getChunkIndex(isoY);
+		int lastChunkX = getChunkIndex(isoX + width + TILE_MARGIN);
+		int lastChunkY = getChunkIndex(isoY + height + TILE_MARGIN);
+		Iterator it = chunks.values().iterator();
+		while (it.hasNext()) {
+			Chunk chunk = (Chunk) it.next();
+			if (chunk.chunkX >= firstChunkX && chunk.chunkX <= lastChunkX &&
+					chunk.chunkY >= firstChunkY && chunk.chunkY <= lastChunkY) {
+				chunk.dirty = true;
+			}
+		}
+	}
+
+	/**
+	 * Makes all chunks dirty, so that they are rendered again the next time
+	 * they are drawn.
+	 */
+	public void invalidateAll() {
+		Iterator it = chunks.values().iterator();
+		while (it.hasNext()) {
+			((Chunk) it.next()).dirty = true;
+		}
+	}
+
+	/**
+	 * Throws away all chunks.
+	 */
+	public void clear() {
+		Iterator it = chunks.values().iterator();
+		while (it.hasNext()) {
+			((Chunk) it.next()).flush();
+		}
+		chunks.clear();
+	}
+
+	/**
+	 * Sets the maximum number of chunks to keep. Should be at least the
+	 * number of chunks needed to cover the view, which is
+	 * (width / CHUNK_SIZE + 2) * (height / CHUNK_SIZE + 2), or the chunks
+	 * are rendered again every frame.
+	 *
+	 * @param maxChunks the maximum number of chunks, at least one.
+	 */
+	public void setMaxChunks(int maxChunks) {
+		if (maxChunks < 1) {
+			throw new IllegalArgumentException("maxChunks must be at least 1");
+		}
+		this.maxChunks = maxChunks;
+		while (chunks.size() > maxChunks) {
+			Iterator it = chunks.values().iterator();
+			((Chunk) it.next()).flush();
+			it.remove();
+		}
+	}
+
+	/**
+	 * Returns the maximum number of chunks to keep.
+	 *
+	 * @return the maximum number of chunks.
+	 */
+	public int getMaxChunks() {
+		return maxChunks;
+	}
+
+	/**
+	 * Returns the number of chunks kept.
+	 *
+	 * @return the number of chunks.
+	 */
+	public int getChunkCount() {
+		return chunks.size();
+	}
+
+	/**
+	 * Returns the number of times a chunk has been rendered. If it grows
+	 * every frame, the chunks are thrown away too soon.
+	 *
+	 * @return the number of rendered chunks.
+	 */
+	public long getRenderCount() {
+		return renderCount;
+	}
+
+	/**
+	 * Returns the index of the chunk that contains an iso coordinate.
+	 */
+	private static int getChunkIndex(float isoCoordinate) {
+		return (int) Math.floor(isoCoordinate / CHUNK_SIZE);
+	}
+
+	/**
+	 * Returns the key of the chunk at the given indices.
+	 */
+	private static Long getKey(int chunkX, int chunkY) {
+		return Long.valueOf(((long) chunkX << 32) | (chunkY & 0xffffffffL));
+	}
+
+	/**
+	 * Returns the chunk at the given indices, and creates it, dirty, if it
+	 * doesn't exist or isn't the kind of image that AcceleratedImage says
+	 * should be used.
+	 */
+	private Chunk getChunk(int chunkX, int chunkY,
+			GraphicsConfiguration configuration) {
+		Long key = getKey(chunkX, chunkY);
+		Chunk chunk = (Chunk) chunks.get(key);
+		if (chunk != null && chunk.volatileEnabled != AcceleratedImage.isEnabled()) {
+			chunk.flush();
+			chunk = null;
+		}
+		if (chunk == null) {
+			chunk = new Chunk(chunkX, chunkY, configuration);
+			chunks.put(key, chunk);
+		}
+		return chunk;
+	}
+
+	/**
+	 * Renders the tiles that reach into a chunk into its image.
+	 */
+	private void render(Chunk chunk) {
+		float chunkIsoX = chunk.chunkX * CHUNK_SIZE;
+		float chunkIsoY = chunk.chunkY * CHUNK_SIZE;
+		Graphics2D graphics = (Graphics2D) chunk.image.getGraphics();
+		try {
+			graphics.setColor(BACKGROUND);
+			graphics.fillRect(0, 0, CHUNK_SIZE, CHUNK_SIZE);
+			Iterator it = map.getIsoTileIterator(
+					chunkIsoX - TILE_MARGIN, chunkIsoY - TILE_MARGIN,
+					CHUNK_SIZE + TILE_MARGIN, CHUNK_SIZE + TILE_MARGIN);
+			while (it.hasNext()) {
+				((Tile) it.next()).drawIso(graphics, chunkIsoX, chunkIsoY);
+			}
+		} finally {
+			graphics.dispose();
+		}
+		chunk.dirty = false;
+		renderCount++;
+	}
+
+	/**
+	 * A part of the terrain rendered into an image.
+	 */
+	private static class Chunk {
+
+		/**
+		 * The index of the chunk along the iso x-axis.
+		 */
+		final int chunkX;
+
+		/**
+		 * The index of the chunk along the iso y-axis.
+		 */
+		final int chunkY;
+
+		/**
+		 * The image of the chunk, a VolatileImage or a BufferedImage.
+		 */
+		final Image image;
+
+		/**
+		 * True if volatile images were enabled when the chunk was created.
+		 */
+		final boolean volatileEnabled;
+
+		/**
+		 * True if the image must be rendered before it is drawn.
+		 */
+		boolean dirty = true;
+
+		/**
+		 * Creates a dirty chunk.
+		 */
+		Chunk(int chunkX, int chunkY, GraphicsConfiguration configuration) {
+			this.chunkX = chunkX;
+			this.chunkY = chunkY;
+			volatileEnabled = AcceleratedImage.isEnabled();
+			Image volatileImage = null;
+			if (volatileEnabled) {
+				volatileImage = configuration.createCompatibleVolatileImage(
+						CHUNK_SIZE, CHUNK_SIZE);
+			}
+			if (volatileImage != null) {
+				image = volatileImage;
+				AcceleratedImage.volatileImageCreated();
+			} else {
+				image = configuration.createCompatibleImage(
+						CHUNK_SIZE, CHUNK_SIZE, Transparency.OPAQUE);
+			}
+		}
+
+		/**
+		 * Throws away the image.
+		 */
+		void flush() {
+			image.flush();
+			if (image instanceof VolatileImage) {
+				AcceleratedImage.volatileImageFlushed();
+			}
+		}
+
+	}
+
+}
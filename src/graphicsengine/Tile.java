@@ -1,4 +1,15 @@
 /* 
+ * 2026-10-18 agent
+ * 	The variation of the graphics is chosen by the position of the tile
+ * 	instead of at random.
+ *
+ * 2026-10-18 agent
+ * 	The constructor converts the position without creating Points.
+ *
+ * 2026-10-18 agent
+ * 	Added isInIsoArea and drawIso, used by the TerrainCache to render the
+ * 	tiles into images.
+ *
  * 2003-05-19 EliasAE
  * 	Formatting.
  *
@@ -26,7 +37,6 @@ package graphicsengine;
 import java.awt.Graphics2D;
 import java.util.List;
 
-import gameengine.Point;
 import graphicsengine.graphics.TileGraphics;
 
 /**
@@ -84,18 +94,20 @@ public class Tile extends GraphicalObject {
 	public Tile(TileGraphics tileGraphics, int mapPositionX, int mapPositionY) {
 		super(
 				CoordinateConverter.getCoordinateConverter().mapToScreenX(
-					 new Point(mapPositionX, mapPositionY)),
+					 mapPositionX, mapPositionY),
 				CoordinateConverter.getCoordinateConverter().mapToScreenY(
-					 new Point(mapPositionX, mapPositionY))
+					 mapPositionX, mapPositionY)
 				);
 		if (tileGraphics != null) {
-			// TODO should this always be random variation.,.  no!  (?)
-			tileRenderable = tileGraphics.getRandomVariation();
+			// The variation is chosen by the position, since the map creates
+			// the tiles again when they have been thrown away.
+			tileRenderable = tileGraphics.getVariation(mapPositionX, mapPositionY);
 		}
 
-		Point mapPosition = new Point(mapPositionX, mapPositionY);
-		isoX = CoordinateConverter.getCoordinateConverter().mapToIsoX(mapPosition);
-		isoY = CoordinateConverter.getCoordinateConverter().mapToIsoY(mapPosition);
+		isoX = CoordinateConverter.getCoordinateConverter().mapToIsoX(
+				mapPositionX, mapPositionY);
+		isoY = CoordinateConverter.getCoordinateConverter().mapToIsoY(
+				mapPositionX, mapPositionY);
 	}
 
 	/**
@@ -110,6 +122,24 @@ public class Tile extends GraphicalObject {
 		super.draw(graphics);
 	}
 
+	/**
+	 * Draw the tile to a graphics object whose origin is at a given
+	 * position in iso coordinates, instead of at the upper left corner of
+	 * the screen.
+	 *
+	 * @param graphics the graphics to draw on.
+	 * @param originIsoX the x-position of the origin of the graphics in iso
+	 * coordinates.
+	 * @param originIsoY the y-position of the origin of the graphics in iso
+	 * coordinates.
+	 */
+	void drawIso(Graphics2D graphics, float originIsoX, float originIsoY) {
+		if (tileRenderable != null && this.isVisible()) {
+			tileRenderable.render(graphics, Math.round(isoX - originIsoX),
+					Math.round(isoY - originIsoY));
+		}
+	}
+
 	/**
 	 * To get the width of tile.
 	 *
@@ -148,6 +178,24 @@ public class Tile extends GraphicalObject {
 				);
 	}
 
+	/**
+	 * To check if the tile is inside the given area in iso coordinates.
+	 *
+	 * @param x the x-coordinate of the area in iso coordinates.
+	 * @param y the y-coordinate of the area in iso coordinates.
+	 * @param width the width of the area.
+	 * @param height the height of the area.
+	 * @return true if the tile is within, false if not.
+	 */
+	public boolean isInIsoArea(float x, float y, int width, int height) {
+		return (
+				isoX + getWidth() > x &&
+				isoY + getHeight() > y &&
+				isoX < x + width &&
+				isoY < y + height
+				);
+	}
+
 	/**
 	 * Retrieves the x-position of this object on the screen.
 	 *
@@ -1,4 +1,49 @@
 /*
+ * 2026-10-18 agent
+ * 	Added getSnapshot(), so that the information panel is drawn from the
+ * 	same render snapshot as the view.
+ *
+ * 2026-10-18 agent
+ * 	Added dispose(), which removes the view's listener from the world.
+ *
+ * 2026-10-18 agent
+ * 	getObjectFromPosition() only hit tests the drawn game objects that the
+ * 	RenderQueue's PickingGrid has near the position, and returns the
+ * 	objects sorted from front to back.
+ *
+ * 2026-10-18 agent
+ * 	draw() measures the tile draw and object draw phases with the
+ * 	FrameProfiler.
+ *
+ * 2026-10-18 agent
+ * 	scroll() converts the corners of the map without creating Points.
+ *
+ * 2026-10-18 agent
+ * 	The graphical game objects are created and forgotten when the world
+ * 	tells that game objects have been registered and unregistered, instead
+ * 	of by looking for new and deleted game objects. The game objects are
+ * 	mapped to their graphical objects by identity.
+ *
+ * 2026-10-18 agent
+ * 	The graphical game objects are drawn by a RenderQueue, which leaves out
+ * 	those outside the view and draws the rest sorted by depth. They are no
+ * 	longer sub objects of the view, and getObjectFromPosition() only looks
+ * 	at the ones drawn in the last frame. The snapshot is only mapped to the
+ * 	graphical objects when a new one has been published.
+ *
+ * 2026-10-18 agent
+ * 	The map is drawn from its TerrainCache, a few pre-rendered chunks
+ * 	instead of every visible tile.
+ *
+ * 2026-10-18 agent
+ * 	Made getMap() public, it is used by the benchmarks.
+ *
+ * 2026-10-18 agent
+ * 	The graphical game objects are updated from the world's render snapshot
+ * 	instead of from the list of all objects, so that the view never reads
+ * 	the game objects while the simulation thread updates them. The game
+ * 	objects are mapped to their graphical game objects in a HashMap.
+ *
  * 2003-05-19 EliasAE
  * 	Formatting.
  *
@@ -151,16 +196,69 @@ public class View extends GraphicalObject {
 	private float scrollMaxY;
 
 	/**
-	 * A collection of GameObjects that keep track on what was drawn
-	 * in the last cykle.
+	 * Maps each GameObject that is represented on screen to its
+	 * GraphicalObject, by identity.
+	 */
+	private IdentityHashMap gameObjects = new IdentityHashMap();
+
+	/**
+	 * The game objects that have been registered in and unregistered from
+	 * the world since the last frame, as pairs of Boolean.TRUE (registered)
+	 * or Boolean.FALSE (unregistered) and the game object. Is written by the
+	 * simulation thread and read by the drawing thread.
+	 */
+	private List worldEvents = new ArrayList();
+
+	/**
+	 * The lock for worldEvents.
+	 */
+	private final Object worldEventsLock = new Object();
+
+	/**
+	 * The list that worldEvents is swapped with when the events are handled,
+	 * so that the simulation thread isn't held up.
+	 */
+	private List handledWorldEvents = new ArrayList();
+
+	/**
+	 * Tells the view when game objects are registered and unregistered.
+	 */
+	private WorldListener worldListener = new WorldListener() {
+		public void objectRegistered(GameObject gameObject) {
+			addWorldEvent(Boolean.TRUE, gameObject);
+		}
+		public void objectUnregistered(GameObject gameObject) {
+			addWorldEvent(Boolean.FALSE, gameObject);
+		}
+	};
+
+	/**
+	 * The world that worldListener has been added to.
 	 */
-	private Collection gameObjects = new ArrayList();
+	private World world;
 
 	/**
 	 * A map with tiles.
 	 */
 	private Map map;
 
+	/**
+	 * Draws the graphical game objects that are inside the view, sorted by
+	 * depth.
+	 */
+	private RenderQueue renderQueue;
+
+	/**
+	 * The render snapshot that the graphical game objects are drawn from.
+	 */
+	private RenderSnapshot snapshot;
+
+	/**
+	 * The tick count of the snapshot when the render queue was filled from
+	 * it.
+	 */
+	private long snapshotTickCount;
+
 	/**
 	 * Object that manages graphics, that one can retrieve graphics from.
 	 */
@@ -262,6 +360,17 @@ public class View extends GraphicalObject {
 
 		// load all tiles from the map
 		map.loadTiles();
+		renderQueue = new RenderQueue(map);
+
+		// Represent the objects that are already in the world, and those that
+		// are registered from now on. The view is created before the
+		// simulation is started, so the objects can be read here.
+		world = World.getWorld();
+		world.addWorldListener(worldListener);
+		Iterator tmpGameObjects = world.getAllObjects().iterator();
+		while (tmpGameObjects.hasNext()) {
+			addWorldEvent(Boolean.TRUE, (GameObject) tmpGameObjects.next());
+		}
 		this.isoX = viewPositionIsoX;
 		this.isoY = viewPositionIsoY;
 		this.width = viewWidth;
@@ -269,26 +378,96 @@ public class View extends GraphicalObject {
 	}
 
 	/**
-	 * Updates all GraphicalGameObjects from the worlds all gameobjects.
-	 * Creates new if none is present.
+	 * Stops the view from following the world, by removing its listener and
+	 * forgetting the events that haven't been handled. Must be called when
+	 * the view is thrown away, or the world keeps the view and adds events
+	 * to it that are never handled.
+	 */
+	public void dispose() {
+		world.removeWorldListener(worldListener);
+		synchronized (worldEventsLock) {
+			worldEvents.clear();
+		}
+	}
+
+	/**
+	 * Updates all GraphicalGameObjects from the latest render snapshot of the
+	 * world. First creates the graphical objects of the game objects that
+	 * have been registered, and forgets those of the game objects that have
+	 * been unregistered, since the last frame. Then, if a new snapshot has
+	 * been published, fills the render queue from it.
 	 */
 	void updateGraphicalGameObjects() {
-		// get all GameObjects from the gameengine
-		Iterator gameObjectsIterator = (World.getWorld().getAllObjects()).iterator();
-
-		while (gameObjectsIterator.hasNext()) {
-			// TODO GameObjecs that aren't on screen shouldn't be added.
-			GameObject tmpGameObject = (GameObject) gameObjectsIterator.next();
-			// If the GameObject isn't represented on screen then we must
-			// create a graphical representation of it.
-			if (!gameObjects.contains(tmpGameObject)) {
-				try {
-					createGraphicalGameObject(tmpGameObject);
-				} catch (GraphicalGameObjectExistsException e) {
-					e.printStackTrace();
+		handleWorldEvents();
+
+		RenderSnapshot latestSnapshot =
+				World.getWorld().getSnapshotBuffer().acquire();
+		if (latestSnapshot == snapshot &&
+				latestSnapshot.getTickCount() == snapshotTickCount) {
+			return;
+		}
+		snapshot = latestSnapshot;
+		snapshotTickCount = snapshot.getTickCount();
+
+		renderQueue.reset(snapshot);
+		for (int i = 0; i < snapshot.size(); i++) {
+			Object tmpGraphicalObject = gameObjects.get(snapshot.getGameObject(i));
+			if (tmpGraphicalObject instanceof MapDrawable) {
+				renderQueue.setDrawable(i, (MapDrawable) tmpGraphicalObject);
+			}
+		}
+		renderQueue.index();
+	}
+
+	/**
+	 * Returns the render snapshot that the view was last drawn from.
+	 *
+	 * @return the render snapshot, or null if the view hasn't been drawn.
+	 */
+	RenderSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Adds a registered or unregistered game object to the events to handle
+	 * in the next frame. Is called from the simulation thread.
+	 */
+	private void addWorldEvent(Boolean registered, GameObject gameObject) {
+		synchronized (worldEventsLock) {
+			worldEvents.add(registered);
+			worldEvents.add(gameObject);
+		}
+	}
+
+	/**
+	 * Creates the graphical objects of the game objects that have been
+	 * registered, and forgets those of the game objects that have been
+	 * unregistered, in the order it happened.
+	 */
+	private void handleWorldEvents() {
+		synchronized (worldEventsLock) {
+			if (worldEvents.isEmpty()) {
+				return;
+			}
+			List tmpEvents = handledWorldEvents;
+			handledWorldEvents = worldEvents;
+			worldEvents = tmpEvents;
+		}
+		for (int i = 0; i < handledWorldEvents.size(); i += 2) {
+			GameObject tmpGameObject = (GameObject) handledWorldEvents.get(i + 1);
+			if (handledWorldEvents.get(i) == Boolean.TRUE) {
+				if (!gameObjects.containsKey(tmpGameObject)) {
+					try {
+						createGraphicalGameObject(tmpGameObject);
+					} catch (GraphicalGameObjectExistsException e) {
+						e.printStackTrace();
+					}
 				}
+			} else {
+				gameObjects.remove(tmpGameObject);
 			}
 		}
+		handledWorldEvents.clear();
 	}
 
 	/**
@@ -320,29 +499,31 @@ public class View extends GraphicalObject {
 	}
 
 	/**
-	 * Draws the view.
+	 * Draws the view. Is synchronized with the methods that the input thread
+	 * uses to find and create graphical objects.
 	 *
 	 * @param graphics the graphics object to draw the view on.
 	 */
-	public void draw(Graphics2D graphics) {
+	public synchronized void draw(Graphics2D graphics) {
 		// Scroll the view if a movespeed is set.
 		scroll(moveX, moveY);
 
-		graphics.setColor(Color.blue.darker());
-		graphics.fillRect(getScreenX(), getScreenY(), width, height);
-
-		// draw the map.
-		Iterator tileIterator =	map.getTileIterator(
-				getScreenX(), getScreenY(), width, height);
-		while (tileIterator.hasNext()) {
-			Tile tile = (Tile) tileIterator.next();
-			tile.draw(graphics);
-		}
+		// draw the map, and the background where there is no map.
+		FrameProfiler profiler = FrameProfiler.getProfiler();
+		long startTime = profiler.start();
+		map.drawTerrain(graphics, getScreenX(), getScreenY(), width, height);
+		profiler.stop(FrameProfiler.TILE_DRAW, startTime);
 
 		// update all GraphicalGameObjects from the gameEngine.
+		startTime = profiler.start();
 		updateGraphicalGameObjects();
 
-		// draw all GraphicalObjects.
+		// draw the GraphicalGameObjects inside the view, from back to front.
+		renderQueue.draw(graphics, getScreenX(), getScreenY(), width, height,
+				snapshot.getInterpolation(System.nanoTime()));
+		profiler.stop(FrameProfiler.OBJECT_DRAW, startTime);
+
+		// draw all other GraphicalObjects.
 		super.draw(graphics);
 
 		// draw a selectionbox if any is present.
@@ -364,16 +545,12 @@ public class View extends GraphicalObject {
 			if (haveScrollBounds) {
 				CoordinateConverter cc =
 						CoordinateConverter.getCoordinateConverter();
-				Point[] corners = {
-						new Point(0, 0),
-						new Point(map.getWidth(), 0),
-						new Point(0, map.getHeight()),
-						new Point(map.getWidth(), map.getHeight())
-				};
-				scrollMinX = cc.mapToIsoX(corners[2]);
-				scrollMinY = cc.mapToIsoY(corners[0]);
-				scrollMaxX = cc.mapToIsoX(corners[1]) - width + Tile.getWidth();
-				scrollMaxY = cc.mapToIsoY(corners[3]) - height + Tile.getHeight();
+				int mapWidth = map.getWidth();
+				int mapHeight = map.getHeight();
+				scrollMinX = cc.mapToIsoX(0, mapHeight);
+				scrollMinY = cc.mapToIsoY(0, 0);
+				scrollMaxX = cc.mapToIsoX(mapWidth, 0) - width + Tile.getWidth();
+				scrollMaxY = cc.mapToIsoY(mapWidth, mapHeight) - height + Tile.getHeight();
 			}
 
 			isoX += scrollX;
@@ -421,10 +598,20 @@ public class View extends GraphicalObject {
 	 * Retrieves the map used by this view.
 	 * @return the map that is used to paint the contents of this view.
 	 */
-	Map getMap() {
+	public Map getMap() {
 		return map;
 	}
 
+	/**
+	 * Retrieves the render queue that draws the graphical game objects.
+	 *
+	 * @return the render queue, which tells how many objects were drawn and
+	 * left out in the last frame.
+	 */
+	public RenderQueue getRenderQueue() {
+		return renderQueue;
+	}
+
 	/**
 	 *
 	 * @return
@@ -519,44 +706,62 @@ public class View extends GraphicalObject {
 	 * This is relative to the top left corner of the screen.
 	 * @param screenY the y-coordinate for the pixel to check for objects at.
 	 * This is relative to the top left corner of the screen.
-	 * @return a collection with the objects at the positon.
+	 * @return a collection with the objects at the positon, sorted from the
+	 * front most to the back most.
 	 */
-	public List getObjectFromPosition(int screenX, int screenY) {
+	public synchronized List getObjectFromPosition(int screenX, int screenY) {
 		drawSelectBox = false;
 		List tmpList = new ArrayList();
-		//Get all objects that are on screen.
+		// The other objects are drawn after the game objects, in front of
+		// them...
 		Iterator tmpGraphicalObjects = getSubObjects().iterator();
 		while (tmpGraphicalObjects.hasNext()) {
-			GraphicalObject tmpGraphicalObject =
-					(GraphicalObject) tmpGraphicalObjects.next();
-			if (tmpGraphicalObject instanceof Selectable) {
-				// Check if there is any object at the position.
-				if (((Selectable) tmpGraphicalObject).hitTest(screenX, screenY)) {
-					// add the object to the "hitted" objects.
-					tmpList.add(tmpGraphicalObject);
-				}
+			addObjectsAtPosition(tmpList,
+					(GraphicalObject) tmpGraphicalObjects.next(), screenX, screenY);
+		}
+		// ...and only the game objects that were drawn near the position need
+		// to be tested, from front to back.
+		PickingGrid tmpGrid = renderQueue.getPickingGrid();
+		int tmpCount = tmpGrid.find(screenX, screenY, screenX, screenY);
+		for (int i = 0; i < tmpCount; i++) {
+			addObjectsAtPosition(tmpList, tmpGrid.getFound(i), screenX, screenY);
+		}
+		return tmpList;
+	}
 
-				// If the object have Subobjects and they are visible,
-				// check if any of those are hit.
-				if (tmpGraphicalObject.isSubObjectsShown() &&
-						tmpGraphicalObject.getSubObjects().size() > 0) {
-					Iterator subObjectsIterator = tmpGraphicalObject.getSubObjects().
-							iterator();
-					while (subObjectsIterator.hasNext()) {
-						GraphicalObject subObject =
-								(GraphicalObject) subObjectsIterator.next();
-						if (subObject instanceof Selectable) {
-							// Check if there is any subObject at the position.
-							if (((Selectable) subObject).hitTest(screenX, screenY)) {
-								// add the subObject to the "hitted" objects.
-								tmpList.add(subObject);
-							}
+	/**
+	 * Adds a graphical object, and its sub objects if they are shown, to a
+	 * list if they are selectable and at a given pixel on the screen. The
+	 * sub objects are drawn on top of the object, so they are added first.
+	 */
+	private void addObjectsAtPosition(List tmpList,
+			GraphicalObject tmpGraphicalObject, int screenX, int screenY) {
+		if (tmpGraphicalObject instanceof Selectable) {
+			// If the object have Subobjects and they are visible,
+			// check if any of those are hit.
+			if (tmpGraphicalObject.isSubObjectsShown() &&
+					tmpGraphicalObject.getSubObjects().size() > 0) {
+				Iterator subObjectsIterator = tmpGraphicalObject.getSubObjects().
+						iterator();
+				while (subObjectsIterator.hasNext()) {
+					GraphicalObject subObject =
+							(GraphicalObject) subObjectsIterator.next();
+					if (subObject instanceof Selectable) {
+						// Check if there is any subObject at the position.
+						if (((Selectable) subObject).hitTest(screenX, screenY)) {
+							// add the subObject to the "hitted" objects.
+							tmpList.add(subObject);
 						}
 					}
 				}
 			}
+
+			// Check if there is any object at the position.
+			if (((Selectable) tmpGraphicalObject).hitTest(screenX, screenY)) {
+				// add the object to the "hitted" objects.
+				tmpList.add(tmpGraphicalObject);
+			}
 		}
-		return tmpList;
 	}
 
 	/**
@@ -582,31 +787,51 @@ public class View extends GraphicalObject {
 	 * the rectangle, that is exclusive bound. This value must be less or equal
 	 * to the height of the screen.
 	 *
-	 * @return a collection with all the objects contained in the rectangle.
+	 * @return a collection with all the objects contained in the rectangle,
+	 * sorted from the front most to the back most.
 	 */
-	public List getObjectFromPosition(int screenLeftX, int screenTopY,
+	public synchronized List getObjectFromPosition(int screenLeftX, int screenTopY,
 			int screenRightX, int screenBottomY) {
 		drawSelectBox = false;
 		List tmpList = new ArrayList();
 
-		// get all objects that are on screen.
+		// The other objects are drawn in front of the game objects.
 		Iterator tmpGraphicalObjects = getSubObjects().iterator();
-
-		// get all objectes that are within the specified area.
 		while (tmpGraphicalObjects.hasNext()) {
-			GraphicalObject tmpGraphicalObject =
-					(GraphicalObject) tmpGraphicalObjects.next();
-			if (tmpGraphicalObject instanceof Selectable) {
-				// Check what objects that are within the area.
-				if (((Selectable) tmpGraphicalObject).hitTest(screenLeftX, screenTopY,
-						screenRightX, screenBottomY)) {
-					tmpList.add(tmpGraphicalObject);
-				}
-			}
+			addObjectInRectangle(tmpList,
+					(GraphicalObject) tmpGraphicalObjects.next(),
+					screenLeftX, screenTopY, screenRightX, screenBottomY);
+		}
+
+		// Only the game objects that were drawn near the rectangle need to be
+		// tested. The objects are tested against the bounds inclusive, so the
+		// right and bottom bounds are looked for too.
+		PickingGrid tmpGrid = renderQueue.getPickingGrid();
+		int tmpCount = tmpGrid.find(screenLeftX, screenTopY, screenRightX,
+				screenBottomY);
+		for (int i = 0; i < tmpCount; i++) {
+			addObjectInRectangle(tmpList, tmpGrid.getFound(i),
+					screenLeftX, screenTopY, screenRightX, screenBottomY);
 		}
 		return tmpList;
 	}
 
+	/**
+	 * Adds a graphical object to a list if it is selectable and within a
+	 * rectangle on the screen.
+	 */
+	private void addObjectInRectangle(List tmpList,
+			GraphicalObject tmpGraphicalObject, int screenLeftX, int screenTopY,
+			int screenRightX, int screenBottomY) {
+		if (tmpGraphicalObject instanceof Selectable) {
+			// Check what objects that are within the area.
+			if (((Selectable) tmpGraphicalObject).hitTest(screenLeftX, screenTopY,
+					screenRightX, screenBottomY)) {
+				tmpList.add(tmpGraphicalObject);
+			}
+		}
+	}
+
 	/**
 	 * Adds a graphical object to the list of graphical objects that
 	 * should be drawn
@@ -629,11 +854,11 @@ public class View extends GraphicalObject {
 	 * @exception GraphicalGameObjectExistsException the game object is already
 	 * represented by a graphical game object.
 	 */
-	public GraphicalObject createGraphicalGameObject(GameObject gameObject) throws
+	public synchronized GraphicalObject createGraphicalGameObject(GameObject gameObject) throws
 			GraphicalGameObjectExistsException {
 		GraphicalObject tmpGO = null;
 
-		if (gameObjects.contains(gameObject)) {
+		if (gameObjects.containsKey(gameObject)) {
 			throw new GraphicalGameObjectExistsException();
 		}
 
@@ -690,9 +915,10 @@ public class View extends GraphicalObject {
 		if (!(tmpGO == null)) {
 			tmpGO.setShowSubObjects(false);
 			// to keep track on which objects that are drawn on screen.
-			gameObjects.add(gameObject);
-			// to draw the GraphicalObject on screen with super.draw(graphics);
-			addSubObject(tmpGO);
+			gameObjects.put(gameObject, tmpGO);
+			// The GraphicalObject is drawn by the render queue, not as a sub
+			// object, but its position is still relative to the view.
+			tmpGO.owner = this;
 		}
 
 		return tmpGO;
@@ -706,8 +932,9 @@ public class View extends GraphicalObject {
 	 * if no representation is found.
 	 */
 	public GraphicalGameObject getGraphicalGameObject(GameObject gameObject) {
-		if (gameObjects.contains(gameObject)) {
-			return (GraphicalGameObject) getSubObject(gameObject);
+		Object tmpGraphicalObject = gameObjects.get(gameObject);
+		if (tmpGraphicalObject instanceof GraphicalGameObject) {
+			return (GraphicalGameObject) tmpGraphicalObject;
 		}
 		return null;
 	}
@@ -1,4 +1,16 @@
 /*
+ * 2026-10-18 agent
+ * 	The angles of a game object are found in one pass over the listing of
+ * 	its directory, instead of by calling loadRenderable() for each angle.
+ * 	The atlas is cached under the cache directory.
+ *
+ * 2026-10-18 agent
+ * 	The graphics are drawn from a TextureAtlas instead of one image per
+ * 	file. The atlas is loaded from ATLAS_CACHE_DIRECTORY if the image files
+ * 	haven't changed since it was saved there, and otherwise the files are
+ * 	read in parallel by the ImageLoader and packed into a new atlas. Each
+ * 	directory is listed once.
+ *
  * 2003-05-20 EliasAE
  * 	Now throws FileNotFoundException when the graphics files is not found,
  * 	instead of returning null.
@@ -29,7 +41,6 @@ import java.util.*;
 import gameengine.*;
 import graphicsengine.*;
 import java.awt.Component;
-import java.awt.MediaTracker;
 import java.awt.Image;
 import java.io.*;
 
@@ -115,6 +126,31 @@ public class GraphicsManager {
 	private static final String TILES_DIRECTORY =
 		"tiles" + File.separator;
 
+	/**
+	 * The directories with graphics, except the tiles directory, whose
+	 * subdirectories all have graphics.
+	 */
+	private static final String[] GRAPHICS_DIRECTORIES = {
+		TURTLE_DIRECTORY,
+		FOOD_SOURCE_DIRECTORY,
+		HAPPINESS_SOURCE_DIRECTORY,
+		SACRIFICE_SOURCE_DIRECTORY,
+		LIGHT_PILLAR_NODE_DIRECTORY,
+		TRANSPORTATION_NODE_DIRECTORY,
+		FOOD_BUTTON_DIRECTORY,
+		HAPPINESS_BUTTON_DIRECTORY,
+		SACRIFICE_BUTTON_DIRECTORY,
+		EXIT_BUTTON_GRAPHICS
+	};
+
+	/**
+	 * The directory that the texture atlas is saved to, so that it doesn't
+	 * have to be packed again the next time the game starts. It is in the
+	 * cache directory, which is ignored by git.
+	 */
+	private static final String ATLAS_CACHE_DIRECTORY =
+		"cache" + File.separator + "atlas";
+
 	/**
 	 * All the angles of the turtle. A three digit index will be appended to
 	 * this file name before the animation index is appended, before the
@@ -144,6 +180,17 @@ public class GraphicsManager {
 	 */
 	private Component component;
 
+	/**
+	 * The files in the directories that have been listed, mapped by the
+	 * directories. Each directory is only listed once.
+	 */
+	private java.util.Map directoryListings = new HashMap();
+
+	/**
+	 * All the graphics, packed into a few images.
+	 */
+	private TextureAtlas atlas;
+
 	/**
 	 * The graphics for a turtle.
 	 */
@@ -204,6 +251,9 @@ public class GraphicsManager {
 			throws FileNotFoundException {
 		this.component = component;
 
+		// Read all the images at once.
+		atlas = loadAtlas();
+
 		// Load all resource source graphcis.
 		sourceNodeGraphics = new GameObjectGraphics[
 			World.getEnvironment().getNumberOfResourceTypes()
@@ -244,29 +294,7 @@ public class GraphicsManager {
 	private GameObjectGraphics loadGameObjectGraphics(String directory) 
 			throws FileNotFoundException {
 		// List with the turtle in all angles.
-		List angles = new ArrayList();
-
-		// As long as there are more angles to get, load them and place them
-		// in the list.
-		int angleIndex = 0;
-		while (angleIndex < 1000) {
-			String sourceBaseName =
-				directory
-				+ ANGLE_FILE_NAME
-				// The index for the angle should be padded with zeros
-				// to width of three digits.
-				+ (angleIndex / 100) % 10
-				+ (angleIndex / 10) % 10
-				+ angleIndex % 10
-				;
-			Renderable currentAngle =
-				loadRenderable(sourceBaseName);
-			if (currentAngle == null) {
-				break;
-			}
-			angles.add(currentAngle);
-			angleIndex++;
-		}
+		List angles = loadAngles(directory);
 
 		if (angles.size() == 0) {
 			throw new FileNotFoundException("Could not load game object " +
@@ -294,6 +322,65 @@ public class GraphicsManager {
 				);
 	}
 
+	/**
+	 * Loads the angles of a game object, with one pass over the files in its
+	 * directory. The file of an angle is named ANGLE_FILE_NAME followed by
+	 * the index of the angle padded with zeros to three digits. The angles
+	 * are loaded from index 0 up to the first index that has no file, or
+	 * several files, since that would be an animation, like loadRenderable()
+	 * does.
+	 *
+	 * @param directory the path to the directory relative the image directory.
+	 * @return the angles, as Renderables.
+	 * @exception FileNotFoundException if the directory couldn't be listed.
+	 */
+	private List loadAngles(String directory) throws FileNotFoundException {
+		File directoryFile = new File(IMAGES_DIRECTORY, directory);
+		File[] filesInDirectory = listDirectory(directoryFile);
+		if (filesInDirectory == null) {
+			throw new FileNotFoundException("Graphics image files not found");
+		}
+
+		// The names of the files of each angle, mapped by the index of the
+		// angle. Any digits after the first three are animation indices.
+		java.util.Map angleFileNames = new HashMap();
+		for (int i = 0; i < filesInDirectory.length; i++) {
+			String fileName = filesInDirectory[i].getName();
+			if (!fileName.startsWith(ANGLE_FILE_NAME) ||
+					!fileName.endsWith(FILE_EXTENSION)) {
+				continue;
+			}
+			String digits = fileName.substring(ANGLE_FILE_NAME.length(),
+					fileName.length() - FILE_EXTENSION.length());
+			boolean onlyDigits = digits.length() >= 3;
+			for (int j = 0; j < digits.length() && onlyDigits; j++) {
+				onlyDigits = Character.isDigit(digits.charAt(j));
+			}
+			if (onlyDigits) {
+				Integer angleIndex = new Integer(digits.substring(0, 3));
+				List fileNames = (List) angleFileNames.get(angleIndex);
+				if (fileNames == null) {
+					fileNames = new ArrayList();
+					angleFileNames.put(angleIndex, fileNames);
+				}
+				fileNames.add(fileName);
+			}
+		}
+
+		List angles = new ArrayList();
+		for (int angleIndex = 0; angleIndex < 1000; angleIndex++) {
+			List fileNames = (List) angleFileNames.get(new Integer(angleIndex));
+			if (fileNames == null || fileNames.size() != 1) {
+				break;
+			}
+			angles.add(atlas.createSprite(
+					getAtlasName(new File(directoryFile, (String) fileNames.get(0))),
+					component.getGraphicsConfiguration()
+					));
+		}
+		return angles;
+	}
+
 	/**
 	 * Loads graphics information for a file.
 	 *
@@ -381,7 +468,7 @@ public class GraphicsManager {
 			throws FileNotFoundException {
 		allTilesGraphics = new HashMap();
 		File tilesDirectoryFile = new File(IMAGES_DIRECTORY, TILES_DIRECTORY);
-		File[] filesInDirectory = tilesDirectoryFile.listFiles();
+		File[] filesInDirectory = listDirectory(tilesDirectoryFile);
 		if (filesInDirectory == null) {
 			return;
 		}
@@ -413,7 +500,7 @@ public class GraphicsManager {
 		java.util.Map tileVariations = new HashMap();
 		File tileDirectoryFile =
 			new File(new File(IMAGES_DIRECTORY, TILES_DIRECTORY), directory);
-		File[] filesInDirectory = tileDirectoryFile.listFiles();
+		File[] filesInDirectory = listDirectory(tileDirectoryFile);
 		if (filesInDirectory == null) {
 			return new TileGraphics(tileVariations);
 		}
@@ -480,7 +567,7 @@ public class GraphicsManager {
 		File sourceDirectory = sourceBasePathFile.getParentFile();
 		String sourceBaseFileName = sourceBasePathFile.getName();
 		// Retrieve all the files in the directory in question.
-		File[] filesInDirectory = sourceDirectory.listFiles();
+		File[] filesInDirectory = listDirectory(sourceDirectory);
 		// Check if the directory did not exist or if another error occured.
 		if (filesInDirectory == null) {
 			throw new FileNotFoundException("Graphics image files not found");
@@ -521,32 +608,18 @@ public class GraphicsManager {
 				}
 			}
 		}
-		Collection sortedFileNames = fileNames.values();
-		MediaTracker tracker = new MediaTracker(component);
-		List imageList = new ArrayList();
-		// Load all the images
-		Iterator iterator = sortedFileNames.iterator();
-		while (iterator.hasNext()) {
-			String fileName = (String) iterator.next();
-			Image currentImage = component.getToolkit().getImage(
-					(new File(sourceDirectory, fileName)).getPath()
-					);
-			imageList.add(currentImage);
-			tracker.addImage(currentImage, 0);
-		}
-		// Wait so that the images are all loaded.
-		try {
-			tracker.waitForAll();
-		}
-		catch (InterruptedException interuptedException) {
-		}
 		// Return either an animation or a sprite, depening on if there
-		// was one image or more than one image.
-		if (imageList.size() == 0) {
+		// was one image or more than one image. The images are in the
+		// atlas.
+		if (fileNames.size() == 0) {
 			return null;
 		}
-		if (imageList.size() == 1) {
-			return new Sprite(component, (Image) imageList.get(0));
+		if (fileNames.size() == 1) {
+			String fileName = (String) fileNames.values().iterator().next();
+			return atlas.createSprite(
+					getAtlasName(new File(sourceDirectory, fileName)),
+					component.getGraphicsConfiguration()
+					);
 		}
 		else {
 			// TODO no animation class yet.
@@ -554,6 +627,130 @@ public class GraphicsManager {
 		}
 	}
 
+	/**
+	 * Lists the files in a directory, or returns the files it had when it
+	 * was first listed.
+	 *
+	 * @param directory the directory to list.
+	 * @return the files in the directory, or null if it is not a directory
+	 * or couldn't be listed.
+	 */
+	private File[] listDirectory(File directory) {
+		if (directoryListings.containsKey(directory)) {
+			return (File[]) directoryListings.get(directory);
+		}
+		File[] files = directory.listFiles();
+		directoryListings.put(directory, files);
+		return files;
+	}
+
+	/**
+	 * Loads all images in the graphics directories into a texture atlas.
+	 * The atlas is loaded from ATLAS_CACHE_DIRECTORY if it was saved there
+	 * from the same image files. Otherwise the images are read and packed,
+	 * and the atlas is saved there for the next time.
+	 *
+	 * @return the atlas.
+	 * @exception FileNotFoundException if an image couldn't be read.
+	 */
+	private TextureAtlas loadAtlas() throws FileNotFoundException {
+		// Find all the images.
+		List directories = new ArrayList();
+		for (int i = 0; i < GRAPHICS_DIRECTORIES.length; i++) {
+			directories.add(new File(IMAGES_DIRECTORY, GRAPHICS_DIRECTORIES[i]));
+		}
+		File[] tileDirectories =
+			listDirectory(new File(IMAGES_DIRECTORY, TILES_DIRECTORY));
+		if (tileDirectories != null) {
+			for (int i = 0; i < tileDirectories.length; i++) {
+				if (tileDirectories[i].isDirectory()) {
+					directories.add(tileDirectories[i]);
+				}
+			}
+		}
+		List imageFiles = new ArrayList();
+		for (int i = 0; i < directories.size(); i++) {
+			File[] files = listDirectory((File) directories.get(i));
+			if (files != null) {
+				for (int j = 0; j < files.length; j++) {
+					if (files[j].getName().endsWith(FILE_EXTENSION)) {
+						imageFiles.add(files[j]);
+					}
+				}
+			}
+		}
+
+		// The names, sizes and modification times of the files tell if the
+		// saved atlas is up to date.
+		SortedMap fileNames = new TreeMap();
+		for (int i = 0; i < imageFiles.size(); i++) {
+			File file = (File) imageFiles.get(i);
+			fileNames.put(getAtlasName(file), file);
+		}
+		StringBuffer fingerprint = new StringBuffer();
+		Iterator iterator = fileNames.entrySet().iterator();
+		while (iterator.hasNext()) {
+			java.util.Map.Entry entry = (java.util.Map.Entry) iterator.next();
+			File file = (File) entry.getValue();
+			fingerprint.append(entry.getKey()).append(':')
+				.append(file.length()).append(':')
+				.append(file.lastModified()).append('\n');
+		}
+
+		File cacheDirectory = new File(ATLAS_CACHE_DIRECTORY);
+		try {
+			TextureAtlas cachedAtlas =
+				TextureAtlas.load(cacheDirectory, fingerprint.toString());
+			if (cachedAtlas != null) {
+				Debug.log("GraphicsLog: Loaded the texture atlas from " +
+						cacheDirectory);
+				return cachedAtlas;
+			}
+		} catch (IOException e) {
+			Debug.log("GraphicsLog: Failed to load the texture atlas: " +
+					e.getMessage());
+		}
+
+		java.util.Map images;
+		try {
+			images = ImageLoader.readAll(imageFiles);
+		} catch (IOException e) {
+			throw new FileNotFoundException("Graphics image files could not " +
+					"be loaded: " + e.getMessage());
+		}
+		java.util.Map namedImages = new HashMap();
+		iterator = fileNames.entrySet().iterator();
+		while (iterator.hasNext()) {
+			java.util.Map.Entry entry = (java.util.Map.Entry) iterator.next();
+			namedImages.put(entry.getKey(), images.get(entry.getValue()));
+		}
+		TextureAtlas newAtlas = TextureAtlas.pack(namedImages);
+		try {
+			newAtlas.save(cacheDirectory, fingerprint.toString());
+		} catch (IOException e) {
+			Debug.log("GraphicsLog: Failed to save the texture atlas: " +
+					e.getMessage());
+		}
+		return newAtlas;
+	}
+
+	/**
+	 * Returns the name of an image in the atlas, which is the path of its
+	 * file relative to the image directory, with '/' between the
+	 * directories.
+	 *
+	 * @param file the file of the image.
+	 * @return the name of the image.
+	 */
+	private static String getAtlasName(File file) {
+		String path = file.getPath();
+		String imagesPath = new File(IMAGES_DIRECTORY).getPath() + File.separator;
+		if (path.startsWith(imagesPath)) {
+			path = path.substring(imagesPath.length());
+		}
+		return path.replace(File.separatorChar, '/');
+	}
+
 	/**
 	 * Creates a sprite from an image.
 	 * @param image the image that the sprite will be created from.
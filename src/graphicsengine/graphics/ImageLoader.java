@@ -0,0 +1,87 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package graphicsengine.graphics;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+
+/**
+ * Decodes image files with ImageIO on a pool of worker threads, one thread
+ * per processor, instead of one at a time.
+ */
+class ImageLoader {
+
+	/**
+	 * Reads image files in parallel.
+	 *
+	 * @param files the files to read, as File.
+	 * @return the images mapped by their files.
+	 * @exception IOException if a file couldn't be read or isn't an image.
+	 */
+	static Map readAll(List files) throws IOException {
+		Map images = new HashMap();
+		if (files.isEmpty()) {
+			return images;
+		}
+		int threads = Math.min(files.size(),
+				Runtime.getRuntime().availableProcessors());
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List futures = new ArrayList(files.size());
+			for (int i = 0; i < files.size(); i++) {
+				final File file = (File) files.get(i);
+				futures.add(pool.submit(new Callable() {
+					public Object call() throws IOException {
+						return read(file);
+					}
+				}));
+			}
+			for (int i = 0; i < files.size(); i++) {
+				images.put(files.get(i), ((Future) futures.get(i)).get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading images");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Failed to read an image: " + e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+		return images;
+	}
+
+	/**
+	 * Reads an image file.
+	 *
+	 * @param file the file to read.
+	 * @return the image.
+	 * @exception IOException if the file couldn't be read or isn't an image.
+	 */
+	static BufferedImage read(File file) throws IOException {
+		if (!file.isFile()) {
+			throw new FileNotFoundException("Image file not found: " + file);
+		}
+		BufferedImage image = ImageIO.read(file);
+		if (image == null) {
+			throw new IOException("Not an image: " + file);
+		}
+		return image;
+	}
+
+}
@@ -0,0 +1,356 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package graphicsengine.graphics;
+
+import graphicsengine.AcceleratedImage;
+import graphicsengine.Sprite;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+/**
+ * Many small images packed into a few large ones, pages, so that the
+ * graphics are a handful of images instead of hundreds. Each image is kept
+ * as a region of a page under a name, and is drawn as a Sprite of that
+ * region.
+ *
+ * The images are packed in rows, shelves, from the highest to the lowest,
+ * with a pixel between them. An image that is larger than a page gets a page
+ * of its own.
+ *
+ * An atlas can be saved to a directory, as the pages in png files and an
+ * index of the regions, together with a fingerprint of the files the images
+ * were read from. load() only returns the atlas if the fingerprint is the
+ * same, so that an atlas is packed again when the images have changed.
+ */
+public class TextureAtlas {
+
+	/**
+	 * The largest width and height of a page.
+	 */
+	public static final int PAGE_SIZE = 1024;
+
+	/**
+	 * The space between the images on a page.
+	 */
+	private static final int PADDING = 1;
+
+	/**
+	 * The version of the saved index. Is increased when its format changes,
+	 * so that old atlases aren't used.
+	 */
+	private static final int CACHE_VERSION = 1;
+
+	/**
+	 * The name of the file with the index of a saved atlas.
+	 */
+	private static final String INDEX_FILE_NAME = "index.ser";
+
+	/**
+	 * The beginning of the names of the files with the pages of a saved
+	 * atlas. The index of the page and the extension are appended.
+	 */
+	private static final String PAGE_FILE_NAME = "page";
+
+	/**
+	 * The indices in a region.
+	 */
+	private static final int PAGE = 0;
+	private static final int X = 1;
+	private static final int Y = 2;
+	private static final int WIDTH = 3;
+	private static final int HEIGHT = 4;
+
+	/**
+	 * The pages.
+	 */
+	private BufferedImage[] pages;
+
+	/**
+	 * The regions of the images mapped by their names. The regions are int
+	 * arrays with the page, x, y, width and height.
+	 */
+	private HashMap regions;
+
+	/**
+	 * The pages converted to images compatible with the screen, which the
+	 * sprites are drawn from. Are created when the first sprite of each page
+	 * is.
+	 */
+	private AcceleratedImage[] acceleratedPages;
+
+	/**
+	 * Creates an atlas.
+	 *
+	 * @param pages the pages.
+	 * @param regions the regions of the images mapped by their names.
+	 */
+	private TextureAtlas(BufferedImage[] pages, HashMap regions) {
+		this.pages = pages;
+		this.regions = regions;
+		acceleratedPages = new AcceleratedImage[pages.length];
+	}
+
+	/**
+	 * Packs images into an atlas.
+	 *
+	 * @param images the images, as BufferedImage, mapped by their names, as
+	 * String.
+	 * @return the atlas.
+	 */
+	public static TextureAtlas pack(Map images) {
+		// The highest images first, and in the order of the names, so that
+		// the same images are always packed the same way.
+		final Map allImages = images;
+		String[] names = (String[]) images.keySet().toArray(new String[images.size()]);
+		Arrays.sort(names, new Comparator() {
+			public int compare(Object first, Object second) {
+				int firstHeight = ((BufferedImage) allImages.get(first)).getHeight();
+				int secondHeight = ((BufferedImage) allImages.get(second)).getHeight();
+				if (firstHeight != secondHeight) {
+					return secondHeight - firstHeight;
+				}
+				return ((String) first).compareTo((String) second);
+			}
+		});
+
+		// Places the images and finds out how large each page must be.
+		HashMap regions = new HashMap();
+		List pageSizes = new ArrayList();
+		int[] pageSize = null;
+		int currentPage = -1;
+		int shelfX = 0;
+		int shelfY = 0;
+		int shelfHeight = 0;
+		for (int i = 0; i < names.length; i++) {
+			BufferedImage image = (BufferedImage) images.get(names[i]);
+			int width = image.getWidth();
+			int height = image.getHeight();
+			int[] region = new int[5];
+			region[WIDTH] = width;
+			region[HEIGHT] = height;
+			if (width > PAGE_SIZE || height > PAGE_SIZE) {
+				region[PAGE] = pageSizes.size();
+				pageSizes.add(new int[] {width, height});
+			} else {
+				if (pageSize != null && shelfX + width > PAGE_SIZE) {
+					// Starts a new shelf.
+					shelfX = 0;
+					shelfY += shelfHeight;
+					shelfHeight = 0;
+				}
+				if (pageSize == null || shelfY + height > PAGE_SIZE) {
+					// Starts a new page.
+					pageSize = new int[2];
+					currentPage = pageSizes.size();
+					pageSizes.add(pageSize);
+					shelfX = 0;
+					shelfY = 0;
+					shelfHeight = 0;
+				}
+				region[PAGE] = currentPage;
+				region[X] = shelfX;
+				region[Y] = shelfY;
+				shelfX += width + PADDING;
+				shelfHeight = Math.max(shelfHeight, height + PADDING);
+				pageSize[0] = Math.max(pageSize[0], region[X] + width);
+				pageSize[1] = Math.max(pageSize[1], region[Y] + height);
+			}
+			regions.put(names[i], region);
+		}
+
+		// Copies the images to the pages.
+		BufferedImage[] pages = new BufferedImage[pageSizes.size()];
+		Graphics2D[] pageGraphics = new Graphics2D[pages.length];
+		for (int i = 0; i < pages.length; i++) {
+			int[] size = (int[]) pageSizes.get(i);
+			pages[i] = new BufferedImage(size[0], size[1], BufferedImage.TYPE_INT_ARGB);
+			pageGraphics[i] = pages[i].createGraphics();
+			pageGraphics[i].setComposite(AlphaComposite.Src);
+		}
+		for (int i = 0; i < names.length; i++) {
+			int[] region = (int[]) regions.get(names[i]);
+			pageGraphics[region[PAGE]].drawImage(
+					(BufferedImage) images.get(names[i]), region[X], region[Y], null);
+		}
+		for (int i = 0; i < pages.length; i++) {
+			pageGraphics[i].dispose();
+		}
+		return new TextureAtlas(pages, regions);
+	}
+
+	/**
+	 * Loads an atlas that has been saved to a directory with save().
+	 *
+	 * @param directory the directory the atlas was saved to.
+	 * @param fingerprint what the atlas was saved with.
+	 * @return the atlas, or null if no atlas has been saved to the directory
+	 * or it was saved with another fingerprint.
+	 * @exception IOException if the atlas couldn't be read.
+	 */
+	public static TextureAtlas load(File directory, String fingerprint)
+			throws IOException {
+		File indexFile = new File(directory, INDEX_FILE_NAME);
+		if (!indexFile.isFile()) {
+			return null;
+		}
+		HashMap regions;
+		int pageCount;
+		ObjectInputStream in = new ObjectInputStream(
+				new BufferedInputStream(new FileInputStream(indexFile)));
+		try {
+			if (in.readInt() != CACHE_VERSION ||
+					!fingerprint.equals(in.readObject())) {
+				return null;
+			}
+			pageCount = in.readInt();
+			regions = (HashMap) in.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Invalid atlas index: " + e.getMessage());
+		} finally {
+			in.close();
+		}
+
+		List pageFiles = new ArrayList(pageCount);
+		for (int i = 0; i < pageCount; i++) {
+			pageFiles.add(getPageFile(directory, i));
+		}
+		Map images = ImageLoader.readAll(pageFiles);
+		BufferedImage[] pages = new BufferedImage[pageCount];
+		for (int i = 0; i < pageCount; i++) {
+			pages[i] = (BufferedImage) images.get(pageFiles.get(i));
+		}
+		return new TextureAtlas(pages, regions);
+	}
+
+	/**
+	 * Saves the atlas to a directory, which is created if it doesn't exist.
+	 * The index is written last, so that load() doesn't find an atlas that
+	 * hasn't been saved completely.
+	 *
+	 * @param directory the directory to save the atlas to.
+	 * @param fingerprint what load() must be given to load the atlas.
+	 * @exception IOException if the atlas couldn't be written.
+	 */
+	public void save(File directory, String fingerprint) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create " + directory);
+		}
+		File indexFile = new File(directory, INDEX_FILE_NAME);
+		indexFile.delete();
+		for (int i = 0; i < pages.length; i++) {
+			if (!ImageIO.write(pages[i], "png", getPageFile(directory, i))) {
+				throw new IOException("No png writer");
+			}
+		}
+		ObjectOutputStream out = new ObjectOutputStream(
+				new BufferedOutputStream(new FileOutputStream(indexFile)));
+		try {
+			out.writeInt(CACHE_VERSION);
+			out.writeObject(fingerprint);
+			out.writeInt(pages.length);
+			out.writeObject(regions);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Tells if the atlas has an image.
+	 *
+	 * @param name the name of the image.
+	 * @return true if the atlas has the image.
+	 */
+	public boolean contains(String name) {
+		return regions.containsKey(name);
+	}
+
+	/**
+	 * Retrieves the number of images in the atlas.
+	 *
+	 * @return the number of images.
+	 */
+	public int getImageCount() {
+		return regions.size();
+	}
+
+	/**
+	 * Retrieves the number of pages.
+	 *
+	 * @return the number of pages.
+	 */
+	public int getPageCount() {
+		return pages.length;
+	}
+
+	/**
+	 * Retrieves a page.
+	 *
+	 * @param page the index of the page.
+	 * @return the page.
+	 */
+	public BufferedImage getPage(int page) {
+		return pages[page];
+	}
+
+	/**
+	 * Creates a sprite that draws an image of the atlas. The sprites of a
+	 * page share one image compatible with the screen, with transparency
+	 * but not alpha blending, like the sprites made from single images.
+	 *
+	 * @param name the name of the image.
+	 * @param configuration the graphics configuration of the screen, or null
+	 * to draw from the page as it is.
+	 * @return the sprite, or null if the atlas doesn't have the image.
+	 */
+	public Sprite createSprite(String name, GraphicsConfiguration configuration) {
+		int[] region = (int[]) regions.get(name);
+		if (region == null) {
+			return null;
+		}
+		int page = region[PAGE];
+		if (acceleratedPages[page] == null) {
+			BufferedImage pageImage = pages[page];
+			if (configuration != null) {
+				pageImage = configuration.createCompatibleImage(
+						pages[page].getWidth(),
+						pages[page].getHeight(),
+						Transparency.BITMASK
+						);
+				Graphics2D graphics = pageImage.createGraphics();
+				graphics.drawImage(pages[page], 0, 0, null);
+				graphics.dispose();
+			}
+			acceleratedPages[page] = new AcceleratedImage(pageImage);
+		}
+		return new Sprite(acceleratedPages[page],
+				region[X], region[Y], region[WIDTH], region[HEIGHT]);
+	}
+
+	/**
+	 * Returns the file of a page of an atlas saved to a directory.
+	 */
+	private static File getPageFile(File directory, int page) {
+		return new File(directory, PAGE_FILE_NAME + page + ".png");
+	}
+
+}
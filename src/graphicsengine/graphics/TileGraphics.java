@@ -1,4 +1,11 @@
 /*
+ * 2026-10-18 agent
+ * 	Added getVariation, which chooses a variation by a position on the map.
+ *
+ * 2026-10-18 agent
+ * 	The variations are chosen with a RandomSource of the graphics instead of
+ * 	Math.random(), so that the simulation's random numbers aren't used.
+ *
  * 2003-05-19 EliasAE
  * 	Formatting.
  *
@@ -10,6 +17,7 @@
  */
 package graphicsengine.graphics;
 
+import gameengine.RandomSource;
 import graphicsengine.Renderable;
 import java.util.*;
 
@@ -20,6 +28,13 @@ import java.util.*;
  */
 public class TileGraphics {
 
+	/**
+	 * The source of random numbers for choosing variations. It has a fixed
+	 * seed, so the map looks the same every time, and is separate from the
+	 * world's, so that drawing never changes the simulation.
+	 */
+	private static RandomSource random = new RandomSource(0);
+
 	/**
 	 * The normal graphics for the tile. This graphcis will
 	 * always be used to paint the tile.
@@ -49,8 +64,30 @@ public class TileGraphics {
 	 * @return a random variation of the graphics.
 	 */
 	public Renderable getRandomVariation() {
-		int index = (int) (Math.random() * variationsArray.length);
-		if (index < variationsArray.length) {
+		if (variationsArray.length > 0) {
+			int index = random.nextInt(variationsArray.length);
+			return (Renderable) variationsArray[index];
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the variation for the tile at a position on the map. The
+	 * variation depends only on the position, so a tile that is created
+	 * again looks the same as before.
+	 *
+	 * @param mapX the x-position of the tile in map coordinates.
+	 * @param mapY the y-position of the tile in map coordinates.
+	 * @return the variation of the graphics for the position.
+	 */
+	public Renderable getVariation(int mapX, int mapY) {
+		if (variationsArray.length > 0) {
+			int hash = (mapX * 73856093) ^ (mapY * 19349663);
+			hash ^= hash >>> 13;
+			hash *= 0x5bd1e995;
+			hash ^= hash >>> 15;
+			int index = (hash & 0x7fffffff) % variationsArray.length;
 			return (Renderable) variationsArray[index];
 		} else {
 			return null;
@@ -1,4 +1,22 @@
 /*
+ * 2026-10-18 agent
+ * 	The commands are UserCommands, so that they can be recorded and
+ * 	replayed, and new nodes are registered by a command instead of on the
+ * 	input thread.
+ *
+ * 2026-10-18 agent
+ * 	The objects at the clicked position are sorted from front to back, so
+ * 	the front most object is selected instead of the last. The objects that
+ * 	are kept of a selected area are copied instead of removed one by one.
+ *
+ * 2026-10-18 agent
+ * 	The profiler key shows and hides the times of the FrameProfiler, and
+ * 	the profile dump key writes them to PROFILE_FILE.
+ *
+ * 2026-10-18 agent
+ * 	All changes of the game objects are queued as WorldCommands, so that they
+ * 	are made by the simulation thread instead of the input thread.
+ *
  * 2003-05-21 EliasAE
  * 	Added exit button.
  *
@@ -103,6 +121,8 @@ import gameengine.tasksystem.*;
 import graphicsengine.*;
 
 import java.awt.event.*;
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -153,6 +173,23 @@ public class InputEventTranslator {
 	 */
 	private static final int DELETE_NODE_KEY = KeyEvent.VK_DELETE;
 
+	/**
+	 * The constant for the key that shows and hides the times of the phases
+	 * of the ticks and frames.
+	 */
+	private static final int PROFILER_KEY = KeyEvent.VK_F3;
+
+	/**
+	 * The constant for the key that writes the times of the phases of the
+	 * ticks and frames to PROFILE_FILE.
+	 */
+	private static final int PROFILE_DUMP_KEY = KeyEvent.VK_F4;
+
+	/**
+	 * The CSV file that the times of the phases are written to.
+	 */
+	private static final String PROFILE_FILE = "profile.csv";
+
 	/**
 	 * The transportation task that currently is under build up, otherwise
 	 * null.
@@ -320,23 +357,23 @@ public class InputEventTranslator {
 
 			// If there is more than one object selected, remove
 			// all none-GameObject:s and Node:s from the selected objects.
+			// The objects that are kept are copied to a new list, since
+			// removing them one by one from the list would be slow when
+			// many objects are selected.
 			if (destinationsCollection.size() > 1) {
+				List tmpIndividuals = new ArrayList(destinationsCollection.size());
 				Iterator graphicalObjectsIterator =
 						destinationsCollection.iterator();
 				while (graphicalObjectsIterator.hasNext()) {
 					GraphicalObject tmpGraphicalObject =
 							(GraphicalObject) graphicalObjectsIterator.next();
-					if (tmpGraphicalObject instanceof GraphicalGameObject) {
-						if (
-								((GraphicalGameObject) tmpGraphicalObject).getGameObject()
-								instanceof Node
-								) {
-							graphicalObjectsIterator.remove();
-						}
-					} else {
-						graphicalObjectsIterator.remove();
+					if (tmpGraphicalObject instanceof GraphicalGameObject &&
+							!(((GraphicalGameObject) tmpGraphicalObject).getGameObject()
+							instanceof Node)) {
+						tmpIndividuals.add(tmpGraphicalObject);
 					}
 				}
+				destinationsCollection = tmpIndividuals;
 			}
 		// If there isn't an area that have been selected.
 		} else {
@@ -359,16 +396,18 @@ public class InputEventTranslator {
 				}
 				// Enforce the priority that Buttons is always selected,
 				// and if no button was clicked the node will be selected.
-				// If there is not any node nor any buttons, use the last
-				// in the collection.
+				// If there is not any node nor any buttons, use the first
+				// in the collection, which is the front most. Of several
+				// buttons or nodes the front most is used too.
 				if (
-						(graphicalObjectCandidate instanceof Button)
+						(graphicalObjectCandidate instanceof Button &&
+							!(clickedGraphicalObject instanceof Button))
 						||
 						(gameObjectCandidate instanceof Node &&
-							! (clickedGraphicalObject instanceof Button))
-						||
-							(!(clickedGameObject instanceof Node) &&
+							!(clickedGameObject instanceof Node) &&
 							!(clickedGraphicalObject instanceof Button))
+						||
+						(clickedGraphicalObject == null)
 						) {
 					clickedGraphicalObject = graphicalObjectCandidate;
 					clickedGameObject = gameObjectCandidate;
@@ -509,8 +548,11 @@ public class InputEventTranslator {
 				}
 			} else if (destinationCandidate instanceof GraphicalGameObject) {
 				// Nodes have higher priority as destinations than other
-				// game objects.
-				if (!(destination instanceof Node)) {
+				// game objects. Otherwise the front most object is used.
+				GameObject tmpCandidate =
+						((GraphicalGameObject) destinationCandidate).getGameObject();
+				if (destination == null ||
+						(tmpCandidate instanceof Node && !(destination instanceof Node))) {
 					destinationGraphicalGameObject =
 							(GraphicalGameObject) destinationCandidate;
 					destination = destinationGraphicalGameObject.getGameObject();
@@ -538,8 +580,10 @@ public class InputEventTranslator {
 		// Create a new node at the clicked position
 		if (isTransportationTask && destination == null) {
 			try {
-				Point nodePoint = cc.screenToMap(positionX, positionY);
-				destination = new Node(nodePoint);
+				UserCommand createNode =
+						UserCommand.createNode(cc.screenToMap(positionX, positionY));
+				destination = createNode.getNode();
+				World.getWorld().queueCommand(createNode);
 				destinationGraphicalGameObject =
 						(GraphicalGameObject) graphicsEngine.getView().
 						createGraphicalGameObject(destination);
@@ -639,6 +683,12 @@ public class InputEventTranslator {
 			case DELETE_NODE_KEY:
 				deleteNode();
 				break;
+			case PROFILER_KEY:
+				graphicsEngine.showProfiler(!graphicsEngine.isProfilerShown());
+				break;
+			case PROFILE_DUMP_KEY:
+				dumpProfile();
+				break;
 			default:
 				break;
 		}
@@ -658,6 +708,20 @@ public class InputEventTranslator {
 		graphicsEngine.getView().setIsoY(isoY);
 	}
 
+	/**
+	 * Writes the times of the phases measured by the FrameProfiler to
+	 * PROFILE_FILE.
+	 */
+	private void dumpProfile() {
+		try {
+			FrameProfiler.getProfiler().writeCsv(new File(PROFILE_FILE));
+			System.out.println("Wrote the profile to " + PROFILE_FILE);
+		} catch (IOException e) {
+			System.out.println("Couldn't write the profile to " + PROFILE_FILE +
+					": " + e.getMessage());
+		}
+	}
+
 	/**
 	 * Deletes all selected nodes.
 	 */
@@ -669,7 +733,7 @@ public class InputEventTranslator {
 				GameObject gameObject =
 					((GraphicalGameObject) selected).getGameObject();
 				if (Node.class.equals(gameObject.getClass())) {
-					gameObject.delete();
+					World.getWorld().queueCommand(UserCommand.delete(gameObject));
 					iterator.remove();
 				}
 			}
@@ -692,12 +756,13 @@ public class InputEventTranslator {
 			// Give different tasks depending on what object the
 			// destination is
 			if (destination instanceof LightPillarNode) {
-				tmpIndividual.setCommandedTask(new CommandedSacrificeTask());
+				World.getWorld().queueCommand(UserCommand.sacrifice(tmpIndividual));
 			} else if (destination instanceof SourceNode) {
-				tmpIndividual.setCommandedTask(
-						new CommandedGatherTask( (SourceNode) destination));
+				World.getWorld().queueCommand(
+						UserCommand.gather(tmpIndividual, (SourceNode) destination));
 			} else {
-				tmpIndividual.setCommandedTask(new CommandedMoveToTask(destination));
+				World.getWorld().queueCommand(
+						UserCommand.moveTo(tmpIndividual, destination));
 			}
 		}
 	}
@@ -738,8 +803,10 @@ public class InputEventTranslator {
 		Node destination = (Node) destinationGraphicalGameObject.getGameObject();
 		GameObject executer = executerGraphicalGameObject.getGameObject();
 		destinationGraphicalGameObject.setShowSubObjects(true);
-		currentTransportationTask = new CommandedTransportTask(destination);
-		((Individual) executer).setCommandedTask(currentTransportationTask);
+		UserCommand startTransport =
+				UserCommand.startTransport((Individual) executer, destination);
+		currentTransportationTask = startTransport.getTransportTask();
+		World.getWorld().queueCommand(startTransport);
 		currentTransportationTaskExecuter = executerGraphicalGameObject;
 		currentTransportationTaskDestination = destinationGraphicalGameObject;
 	}
@@ -765,7 +832,8 @@ public class InputEventTranslator {
 					"must represent a node.");
 		}
 		Node destination = (Node) destinationGraphicalGameObject.getGameObject();
-		currentTransportationTask.addNode(destination);
+		World.getWorld().queueCommand(
+				UserCommand.addTransportNode(currentTransportationTask, destination));
 		if (currentTransportationTaskDestination != null) {
 			currentTransportationTaskDestination.setShowSubObjects(false);
 		}
@@ -794,7 +862,8 @@ public class InputEventTranslator {
 				) {
 			throw new IllegalArgumentException("Invalid resource type.");
 		}
-		currentTransportationTask.addPickUp(resourceType);
+		World.getWorld().queueCommand(
+				UserCommand.addTransportPickUp(currentTransportationTask, resourceType));
 		currentTransportationTaskDestination.setShowSubObjects(false);
 		currentTransportationTaskDestination = null;
 	}
@@ -831,7 +900,8 @@ public class InputEventTranslator {
 			currentTransportationTaskDestination.setShowSubObjects(false);
 		}
 		if (currentTransportationTask != null) {
-			currentTransportationTask.setCommited(true);
+			World.getWorld().queueCommand(
+					UserCommand.commitTransport(currentTransportationTask));
 		}
 		currentTransportationTask = null;
 		currentTransportationTaskExecuter = null;
@@ -0,0 +1,342 @@
+/* 2026-10-18 agent
+ *	The individuals updated by each tick are read from the world instead
+ *	of counted inside the timed loop, and births and deaths aren't printed.
+ *
+ * 2026-10-18 agent
+ *	Added -record and -replay, which record a run and replay a recorded
+ *	session while comparing the checksums. The checksum is World.getChecksum().
+ *
+ * 2026-10-18 agent
+ *	Added -profile, which writes the times of the phases of the ticks to a
+ *	CSV file.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package pregame;
+
+import gameengine.FrameProfiler;
+import gameengine.SessionRecorder;
+import gameengine.SessionReplay;
+import gameengine.World;
+import gameengine.gameobjects.Individual;
+import gameengine.gameobjects.IndividualStore;
+import graphicsengine.MapImage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Runs the world without any graphics engine, window or input, for soak
+ * tests and long runs on machines without a display. The world is ticked as
+ * fast as the processor allows, without regard to the real time, and the
+ * throughput is printed when all ticks have been run.
+ *
+ * The arguments are given as pairs of an option and a value:
+ * <pre>
+ *   -map file         the map to use, a png image or a raw grid (see
+ *                     LevelLoader). Defaults to the first map in
+ *                     MAPS_DIRECTORY.
+ *   -ticks n          the number of ticks to run. Defaults to 10000, or to
+ *                     all ticks of a replay.
+ *   -dt seconds       the world time of one tick. Defaults to the tick rate
+ *                     of the Environment.
+ *   -population n     the number of individuals to start with. Defaults to
+ *                     the individuals created by World.initialize().
+ *   -seed n           the seed of the world's random numbers. Defaults to
+ *                     the current time.
+ *   -threads n        the number of threads that update the individuals.
+ *                     Defaults to the update threads of the Environment.
+ *   -store true|false if the state of the individuals is kept in the
+ *                     IndividualStore of the world. Defaults to the
+ *                     Environment.
+ *   -profile file     measures the phases of the ticks with the
+ *                     FrameProfiler and writes their times to a CSV file.
+ *   -record file      records the run with a SessionRecorder.
+ *   -replay file      replays a session recorded by the game or with -record
+ *                     instead of creating a world, and stops at the first
+ *                     tick whose checksum differs from the recorded one.
+ *                     -map, -dt, -population, -seed and -store are ignored.
+ * </pre>
+ *
+ * The births and deaths of the individuals aren't printed.
+ *
+ * A checksum of the positions of the individuals is printed at the end, see
+ * World.getChecksum(). Runs with the same seed give the same checksum,
+ * whatever the number of threads.
+ */
+public class HeadlessSimulation {
+
+	/**
+	 * Subdirectory for images that represents different maps.
+	 */
+	private static final String MAPS_DIRECTORY = "src" + File.separator + "images" + File.separator + "maps" + File.separator;
+
+	/**
+	 * The map file.
+	 */
+	private File mapFile = null;
+
+	/**
+	 * The number of ticks to run if -ticks isn't given and the run isn't a
+	 * replay.
+	 */
+	private static final long DEFAULT_TICKS = 10000;
+
+	/**
+	 * The number of ticks to run, or -1 to run DEFAULT_TICKS, or all ticks
+	 * of the replay.
+	 */
+	private long ticks = -1;
+
+	/**
+	 * The world time in seconds of one tick, or zero to use the default.
+	 */
+	private float timeStep = 0f;
+
+	/**
+	 * The number of individuals to start with, or -1 to use the default.
+	 */
+	private int population = -1;
+
+	/**
+	 * The seed of the world's random numbers.
+	 */
+	private long seed = System.currentTimeMillis();
+
+	/**
+	 * The number of threads that update the individuals, or 0 to use the
+	 * default.
+	 */
+	private int threads = 0;
+
+	/**
+	 * If the individuals are stored in the world's IndividualStore, or null
+	 * to use the default.
+	 */
+	private Boolean store = null;
+
+	/**
+	 * The CSV file to write the times of the phases to, or null if they
+	 * shouldn't be measured.
+	 */
+	private File profileFile = null;
+
+	/**
+	 * The file to record the run to, or null.
+	 */
+	private File recordFile = null;
+
+	/**
+	 * The recorded session to replay, or null to create a world.
+	 */
+	private File replayFile = null;
+
+	/**
+	 * Constructs a headless simulation from the given command line arguments.
+	 *
+	 * @param args the command line arguments, see the class comment.
+	 */
+	public HeadlessSimulation(String[] args) {
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("No value given for " + args[i]);
+			}
+			String option = args[i];
+			String value = args[i + 1];
+			try {
+				if (option.equals("-map")) {
+					mapFile = new File(value);
+				} else if (option.equals("-ticks")) {
+					ticks = Long.parseLong(value);
+				} else if (option.equals("-dt")) {
+					timeStep = Float.parseFloat(value);
+				} else if (option.equals("-population")) {
+					population = Integer.parseInt(value);
+				} else if (option.equals("-seed")) {
+					seed = Long.parseLong(value);
+				} else if (option.equals("-threads")) {
+					threads = Integer.parseInt(value);
+				} else if (option.equals("-store")) {
+					store = Boolean.valueOf(value);
+				} else if (option.equals("-profile")) {
+					profileFile = new File(value);
+				} else if (option.equals("-record")) {
+					recordFile = new File(value);
+				} else if (option.equals("-replay")) {
+					replayFile = new File(value);
+				} else {
+					throw new IllegalArgumentException("Unknown option " + option);
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+			}
+		}
+		if (ticks < -1) {
+			throw new IllegalArgumentException("-ticks cannot be negative");
+		}
+		if (ticks == -1 && replayFile == null) {
+			ticks = DEFAULT_TICKS;
+		}
+		if (timeStep < 0f) {
+			throw new IllegalArgumentException("-dt cannot be negative");
+		}
+		if (threads < 0) {
+			throw new IllegalArgumentException("-threads cannot be negative");
+		}
+	}
+
+	/**
+	 * Creates the world, or restores the replayed one, runs all ticks and
+	 * prints the throughput.
+	 *
+	 * @throws IOException if the map or the replay couldn't be loaded, or
+	 * the recording couldn't be written.
+	 * @throws IllegalStateException if the replay diverged from the recorded
+	 * session.
+	 */
+	public void start() throws IOException {
+		World.setLoggingEvents(false);
+		World world;
+		SessionReplay replay = null;
+		if (replayFile != null) {
+			replay = new SessionReplay(replayFile);
+			world = replay.getWorld();
+			if (threads > 0) {
+				world.setUpdateThreads(threads);
+			}
+			MapImage mapImage = world.getMapImage();
+			System.out.println("Replay: " + replayFile.getPath()
+					+ " (" + mapImage.getWidth() + "x" + mapImage.getHeight()
+					+ ") from tick " + world.getTickCount());
+		} else {
+			MapImage mapImage = LevelLoader.loadMap(findMapFile());
+
+			World.reset();
+			world = World.getWorld();
+			world.setSeed(seed);
+			if (store != null) {
+				world.setIndividualStore(store.booleanValue() ? new IndividualStore() : null);
+			}
+			world.initialize(mapImage);
+			if (timeStep > 0f) {
+				world.setTicksPerSecond(1f / timeStep);
+			}
+			if (threads > 0) {
+				world.setUpdateThreads(threads);
+			}
+			if (population >= 0) {
+				world.populate(population);
+			}
+			// Applies the registrations made by initialize().
+			world.getAllObjects().update();
+
+			System.out.println("Map: " + mapFile.getPath()
+					+ " (" + mapImage.getWidth() + "x" + mapImage.getHeight() + ")");
+		}
+		System.out.println("Individuals: " + countIndividuals(world)
+				+ ", time step: " + world.getTimeSinceCycle() + " s"
+				+ ((replay == null) ? ", seed: " + seed : "")
+				+ ", threads: " + world.getUpdateThreads());
+
+		SessionRecorder recorder = null;
+		if (recordFile != null) {
+			recorder = new SessionRecorder(recordFile);
+			world.setRecorder(recorder);
+		}
+		if (profileFile != null) {
+			FrameProfiler.getProfiler().reset();
+			FrameProfiler.getProfiler().setEnabled(true);
+		}
+		long individualUpdates = 0;
+		long startTick = world.getTickCount();
+		long startTime = System.nanoTime();
+		try {
+			if (replay != null) {
+				while (!replay.isFinished() &&
+						(ticks < 0 || world.getTickCount() - startTick < ticks)) {
+					replay.tick();
+					individualUpdates += world.getUpdatedIndividualCount();
+				}
+			} else {
+				for (long i = 0; i < ticks; i++) {
+					world.tick();
+					individualUpdates += world.getUpdatedIndividualCount();
+				}
+			}
+		} finally {
+			if (replay != null) {
+				replay.close();
+			}
+			if (recorder != null) {
+				world.setRecorder(null);
+				recorder.close();
+			}
+		}
+		long elapsedTime = Math.max(1, System.nanoTime() - startTime);
+		long ticksRun = world.getTickCount() - startTick;
+
+		double seconds = elapsedTime / 1000000000.0;
+		System.out.println("Ticks: " + ticksRun + " in " + seconds + " s");
+		if (replay != null) {
+			System.out.println("Replayed commands: " + replay.getCommandCount()
+					+ ", checksums verified: " + replay.getChecksumCount());
+		}
+		if (recorder != null) {
+			System.out.println("Recording: " + recordFile.getPath());
+		}
+		System.out.println("World time: " + world.getWorldTime() + " s");
+		System.out.println("Individuals at end: " + countIndividuals(world));
+		System.out.println("Checksum: " + Long.toHexString(world.getChecksum()));
+		System.out.println("Ticks/s: " + (ticksRun / seconds));
+		System.out.println("Individuals updated/s: " + (individualUpdates / seconds));
+		if (profileFile != null) {
+			FrameProfiler.getProfiler().setEnabled(false);
+			FrameProfiler.getProfiler().writeCsv(profileFile);
+			System.out.println("Profile: " + profileFile.getPath());
+		}
+	}
+
+	/**
+	 * Returns the map file to use. If none was given, the first png in
+	 * MAPS_DIRECTORY is used.
+	 *
+	 * @return the map file to use.
+	 */
+	private File findMapFile() {
+		if (mapFile == null) {
+			File[] filesInDirectory = new File(MAPS_DIRECTORY).listFiles();
+			if (filesInDirectory != null) {
+				for (int i = 0; i < filesInDirectory.length && mapFile == null; i++) {
+					if (filesInDirectory[i].getName().endsWith(".png")) {
+						mapFile = filesInDirectory[i];
+					}
+				}
+			}
+			if (mapFile == null) {
+				throw new IllegalArgumentException("No map given and no maps found in " + MAPS_DIRECTORY);
+			}
+		}
+		return mapFile;
+	}
+
+	/**
+	 * Returns the number of individuals in the world. Goes through all
+	 * objects, so it is only used outside the timed ticks.
+	 *
+	 * @param world the world.
+	 * @return the number of individuals in the world.
+	 */
+	private int countIndividuals(World world) {
+		int count = 0;
+		Iterator it = world.getAllObjects().iterator();
+		while (it.hasNext()) {
+			if (it.next() instanceof Individual) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
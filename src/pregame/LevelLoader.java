@@ -1,22 +1,195 @@
-
-/** Java class "LevelLoader.java" generated from Poseidon for UML.
+/* 2026-10-18 agent
+ *	Png maps are read a row at a time with a PngRowReader, and all maps
+ *	are stored directly in a MapImage, so that loading a large map needs
+ *	little more memory than the map itself.
+ *
+ * 2026-10-18 agent
+ *	Implemented loading of maps from png images through javax.imageio and
+ *	from raw grid files, so that a map can be loaded without the AWT toolkit.
+ *
+ * Java class "LevelLoader.java" generated from Poseidon for UML.
  *  Poseidon for UML is developed by <A HREF="http://www.gentleware.com">Gentleware</A>.
  *  Generated with <A HREF="http://jakarta.apache.org/velocity/">velocity</A> template engine.
  */
 package pregame;
 
-import gameengine.*;
-import graphicsengine.*;
-import input.*;
-import java.util.*;
+import graphicsengine.MapImage;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringTokenizer;
+
+import javax.imageio.ImageIO;
 
 /**
+ * Loads the information that's needed to start a level. For now, this is
+ * only the map.
  *
+ * A map can either be a png image, where each pixel is a tile and the color
+ * of the pixel tells which kind of tile it is (see MapImage), or a raw grid.
+ * A raw grid is a text file where each line is a row of tiles, with the
+ * tile numbers (see Map) separated by white space. Empty lines and lines
+ * starting with '#' are ignored.
  *
+ * Png images that aren't interlaced are read one row at a time, and each
+ * row is converted to tile numbers before the next is read, so the pixels
+ * of the whole image are never in memory. Other images are read whole with
+ * javax.imageio.
  *
+ * None of the methods use the AWT toolkit, so they can be used in headless
+ * mode.
  */
 class LevelLoader {
-} // end LevelLoader
 
+	/**
+	 * The extension of raw grid map files.
+	 */
+	public static final String GRID_EXTENSION = ".grid";
+
+	/**
+	 * You may not create instances of this class.
+	 */
+	private LevelLoader() {
+	}
+
+	/**
+	 * Loads the map in the given file. Files ending with GRID_EXTENSION are
+	 * read as raw grids, all other files as images.
+	 *
+	 * @param file the file to load the map from.
+	 * @return the loaded map.
+	 * @throws IOException if the file couldn't be read.
+	 */
+	public static MapImage loadMap(File file) throws IOException {
+		if (file.getName().endsWith(GRID_EXTENSION)) {
+			return loadGrid(file);
+		} else {
+			return loadImage(file);
+		}
+	}
+
+	/**
+	 * Loads a map from an image file, for example a png.
+	 *
+	 * @param file the image file to load the map from.
+	 * @return the loaded map.
+	 * @throws IOException if the file couldn't be read or isn't an image.
+	 */
+	public static MapImage loadImage(File file) throws IOException {
+		if (PngRowReader.isPng(file)) {
+			PngRowReader reader = new PngRowReader(file);
+			try {
+				if (!reader.isInterlaced()) {
+					return loadPng(reader);
+				}
+			} finally {
+				reader.close();
+			}
+		}
+
+		BufferedImage image = ImageIO.read(file);
+		if (image == null) {
+			throw new IOException("Not a readable image: " + file.getPath());
+		}
+		int width = image.getWidth();
+		int height = image.getHeight();
+		MapImage mapImage = new MapImage(width, height);
+		int[] pixels = new int[width];
+		for (int y = 0; y < height; y++) {
+			image.getRGB(0, y, width, 1, pixels, 0, width);
+			mapImage.setRow(y, pixels, 0);
+		}
+		return mapImage;
+	}
+
+	/**
+	 * Reads a map from a png image row by row.
+	 *
+	 * @param reader the reader of the png, which must not be interlaced.
+	 * @return the loaded map.
+	 * @throws IOException if the image couldn't be read.
+	 */
+	private static MapImage loadPng(PngRowReader reader) throws IOException {
+		int width = reader.getWidth();
+		int height = reader.getHeight();
+		MapImage mapImage;
+		try {
+			mapImage = new MapImage(width, height);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("The map is too large: " + width + "x" + height);
+		}
+		int[] pixels = new int[width];
+		for (int y = 0; y < height; y++) {
+			reader.readRow(pixels, 0);
+			mapImage.setRow(y, pixels, 0);
+		}
+		return mapImage;
+	}
+
+	/**
+	 * Loads a map from a raw grid file.
+	 *
+	 * @param file the raw grid file to load the map from.
+	 * @return the loaded map.
+	 * @throws IOException if the file couldn't be read or isn't a valid grid.
+	 */
+	public static MapImage loadGrid(File file) throws IOException {
+		List rows = new ArrayList();
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.length() == 0 || line.startsWith("#")) {
+					continue;
+				}
+				StringTokenizer tokenizer = new StringTokenizer(line);
+				// The rows are kept as bytes, since a tile number is at most
+				// MapImage.MAX_TILE_NR.
+				byte[] row = new byte[tokenizer.countTokens()];
+				for (int x = 0; x < row.length; x++) {
+					int tileNr;
+					try {
+						tileNr = Integer.parseInt(tokenizer.nextToken());
+					} catch (NumberFormatException e) {
+						tileNr = -1;
+					}
+					if (tileNr < 0 || tileNr > MapImage.MAX_TILE_NR) {
+						throw new IOException("Invalid tile number on row "
+								+ (rows.size() + 1) + " in " + file.getPath());
+					}
+					row[x] = (byte) tileNr;
+				}
+				if (rows.size() > 0 && row.length != ((byte[]) rows.get(0)).length) {
+					throw new IOException("Row " + (rows.size() + 1)
+							+ " has the wrong length in " + file.getPath());
+				}
+				rows.add(row);
+			}
+		} finally {
+			reader.close();
+		}
+		if (rows.size() == 0) {
+			throw new IOException("Empty map: " + file.getPath());
+		}
 
+		int height = rows.size();
+		int width = ((byte[]) rows.get(0)).length;
+		MapImage mapImage = new MapImage(width, height);
+		for (int y = 0; y < height; y++) {
+			byte[] row = (byte[]) rows.get(y);
+			for (int x = 0; x < width; x++) {
+				mapImage.setTileNr(x, y, row[x]);
+			}
+			// The row isn't needed any more.
+			rows.set(y, null);
+		}
+		return mapImage;
+	}
 
+}
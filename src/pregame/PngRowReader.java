@@ -0,0 +1,626 @@
+/* 2026-10-18 agent
+ *	The CRC of every chunk is checked, and a png can be read from any
+ *	stream.
+ *
+ * 2026-10-18 agent
+ *	Created the class.
+ */
+package pregame;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads the pixels of a png image one row at a time, so that an image of
+ * any size can be read with the memory of two rows. Used by LevelLoader to
+ * load large maps.
+ *
+ * javax.imageio can only read a whole image, or a region of it, which it
+ * decodes from the start of the image each time, so reading an image region
+ * by region takes time proportional to the square of its height. This class
+ * inflates the image data once and removes the filter of each row as it is
+ * read.
+ *
+ * All color types and bit depths are read, but not interlaced images, see
+ * isInterlaced(). Of 16-bit samples only the high byte is used.
+ *
+ * The CRC of each chunk is checked when the end of the chunk is reached, so
+ * a corrupt file gives an IOException instead of wrong pixels. The CRC of
+ * the image data is checked once the last row has been read, so the rows of
+ * a file that turns out to be corrupt must be thrown away.
+ */
+class PngRowReader {
+
+	/**
+	 * The first eight bytes of every png file.
+	 */
+	private static final byte[] SIGNATURE =
+			{(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+
+	/**
+	 * The chunk types, as ints.
+	 */
+	private static final int IHDR = 0x49484452;
+	private static final int PLTE = 0x504c5445;
+	private static final int TRNS = 0x74524e53;
+	private static final int IDAT = 0x49444154;
+	private static final int IEND = 0x49454e44;
+
+	/**
+	 * The color types.
+	 */
+	private static final int GRAY = 0;
+	private static final int RGB = 2;
+	private static final int PALETTE = 3;
+	private static final int GRAY_ALPHA = 4;
+	private static final int RGB_ALPHA = 6;
+
+	/**
+	 * The chunks of the file.
+	 */
+	private DataInputStream input;
+
+	/**
+	 * The CRC of the type and the data of the current chunk so far. Is
+	 * updated with every byte read from input.
+	 */
+	private CRC32 crc = new CRC32();
+
+	/**
+	 * The image data, inflated.
+	 */
+	private InputStream imageData;
+
+	/**
+	 * The length of the rest of the current chunk.
+	 */
+	private int chunkLeft;
+
+	/**
+	 * The type of the current chunk.
+	 */
+	private int chunkType;
+
+	/**
+	 * The size of the image in pixels.
+	 */
+	private int width;
+	private int height;
+
+	/**
+	 * The number of bits of each sample.
+	 */
+	private int bitDepth;
+
+	/**
+	 * The color type.
+	 */
+	private int colorType;
+
+	/**
+	 * True if the image is interlaced.
+	 */
+	private boolean interlaced;
+
+	/**
+	 * The number of samples of each pixel.
+	 */
+	private int samples;
+
+	/**
+	 * The number of bytes that the filters look back, that is the bytes of
+	 * a pixel but at least one.
+	 */
+	private int filterDistance;
+
+	/**
+	 * The palette as ARGB colors, if the color type is PALETTE.
+	 */
+	private int[] palette;
+
+	/**
+	 * The transparent gray level or color, or -1 if there isn't any.
+	 */
+	private int transparentColor = -1;
+
+	/**
+	 * The current and the previous row, unfiltered.
+	 */
+	private byte[] row;
+	private byte[] previousRow;
+
+	/**
+	 * The number of rows that have been read.
+	 */
+	private int rowsRead;
+
+	/**
+	 * Opens a png file and reads its header, up to the image data.
+	 *
+	 * @param file the png file.
+	 * @exception IOException if the file couldn't be read or isn't a png.
+	 */
+	PngRowReader(File file) throws IOException {
+		this(new FileInputStream(file));
+	}
+
+	/**
+	 * Reads a png from a stream, up to the image data.
+	 *
+	 * @param stream the png. Is closed by close(), or if the header couldn't
+	 * be read.
+	 * @exception IOException if the stream couldn't be read or isn't a png.
+	 */
+	PngRowReader(InputStream stream) throws IOException {
+		input = new DataInputStream(new CheckedInputStream(
+				new BufferedInputStream(stream), crc));
+		try {
+			readHeader();
+		} catch (IOException e) {
+			input.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Tells if a file is a png, by its first bytes.
+	 *
+	 * @param file the file.
+	 * @return true if the file starts with the png signature.
+	 * @exception IOException if the file couldn't be read.
+	 */
+	static boolean isPng(File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			for (int i = 0; i < SIGNATURE.length; i++) {
+				if (in.read() != (SIGNATURE[i] & 0xff)) {
+					return false;
+				}
+			}
+			return true;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Returns the width of the image.
+	 *
+	 * @return the width in pixels.
+	 */
+	int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the image.
+	 *
+	 * @return the height in pixels.
+	 */
+	int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Tells if the image is interlaced, in which case its rows can't be read
+	 * one at a time.
+	 *
+	 * @return true if the image is interlaced.
+	 */
+	boolean isInterlaced() {
+		return interlaced;
+	}
+
+	/**
+	 * Reads the next row of the image.
+	 *
+	 * @param pixels the array to store the 32-bit ARGB pixels of the row in.
+	 * @param offset the index in the array of the first pixel.
+	 * @exception IOException if the row couldn't be read, the image is
+	 * interlaced, or the CRC of a chunk is wrong.
+	 */
+	void readRow(int[] pixels, int offset) throws IOException {
+		if (interlaced) {
+			throw new IOException("Can't read an interlaced png row by row");
+		}
+		if (rowsRead >= height) {
+			throw new IOException("All rows have been read");
+		}
+		byte[] swap = previousRow;
+		previousRow = row;
+		row = swap;
+
+		int filter = imageData.read();
+		if (filter < 0) {
+			throw new EOFException("The png ends at row " + rowsRead);
+		}
+		int n = 0;
+		while (n < row.length) {
+			int count = imageData.read(row, n, row.length - n);
+			if (count < 0) {
+				throw new EOFException("The png ends at row " + rowsRead);
+			}
+			n += count;
+		}
+		unfilter(filter);
+		convert(pixels, offset);
+		rowsRead++;
+
+		if (rowsRead == height) {
+			// Checks the CRCs of the rest of the image data.
+			while (chunkType == IDAT) {
+				nextChunk();
+			}
+		}
+	}
+
+	/**
+	 * Closes the file.
+	 *
+	 * @exception IOException if it couldn't be closed.
+	 */
+	void close() throws IOException {
+		input.close();
+	}
+
+	/**
+	 * Reads the signature and the chunks before the image data.
+	 */
+	private void readHeader() throws IOException {
+		for (int i = 0; i < SIGNATURE.length; i++) {
+			if (input.readByte() != SIGNATURE[i]) {
+				throw new IOException("Not a png");
+			}
+		}
+		nextChunk();
+		if (chunkType != IHDR || chunkLeft < 13) {
+			throw new IOException("The png has no header");
+		}
+		width = input.readInt();
+		height = input.readInt();
+		bitDepth = input.readUnsignedByte();
+		colorType = input.readUnsignedByte();
+		int compression = input.readUnsignedByte();
+		int filterMethod = input.readUnsignedByte();
+		interlaced = input.readUnsignedByte() != 0;
+		chunkLeft -= 13;
+		if (width <= 0 || height <= 0) {
+			throw new IOException("Invalid size of the png " + width + "x" + height);
+		}
+		if (compression != 0 || filterMethod != 0) {
+			throw new IOException("Unknown compression or filter of the png");
+		}
+		switch (colorType) {
+			case GRAY :
+			case PALETTE :
+				samples = 1;
+				break;
+			case GRAY_ALPHA :
+				samples = 2;
+				break;
+			case RGB :
+				samples = 3;
+				break;
+			case RGB_ALPHA :
+				samples = 4;
+				break;
+			default :
+				throw new IOException("Unknown color type of the png " + colorType);
+		}
+		if (bitDepth != 1 && bitDepth != 2 && bitDepth != 4 && bitDepth != 8 &&
+				bitDepth != 16 ||
+				bitDepth < 8 && colorType != GRAY && colorType != PALETTE ||
+				bitDepth > 8 && colorType == PALETTE) {
+			throw new IOException("Invalid bit depth of the png " + bitDepth);
+		}
+		filterDistance = Math.max(1, samples * bitDepth / 8);
+		long rowBytes = ((long) width * samples * bitDepth + 7) / 8;
+		if (rowBytes > Integer.MAX_VALUE - 1) {
+			throw new IOException("The rows of the png are too long");
+		}
+		row = new byte[(int) rowBytes];
+		previousRow = new byte[(int) rowBytes];
+
+		// The chunks before the image data that matter are the palette and
+		// the transparency.
+		while (true) {
+			nextChunk();
+			if (chunkType == IDAT) {
+				break;
+			} else if (chunkType == IEND) {
+				throw new IOException("The png has no image data");
+			} else if (chunkType == PLTE) {
+				readPalette();
+			} else if (chunkType == TRNS) {
+				readTransparency();
+			}
+		}
+		if (colorType == PALETTE && palette == null) {
+			throw new IOException("The png has no palette");
+		}
+		imageData = new InflaterInputStream(new ImageDataStream());
+	}
+
+	/**
+	 * Skips the rest of the current chunk and checks its CRC, and reads the
+	 * length and the type of the next one.
+	 */
+	private void nextChunk() throws IOException {
+		if (chunkType != 0) {
+			skipChunk();
+		}
+		chunkLeft = input.readInt();
+		crc.reset();
+		chunkType = input.readInt();
+		if (chunkLeft < 0) {
+			throw new IOException("Invalid length of a png chunk");
+		}
+	}
+
+	/**
+	 * Skips the rest of the current chunk and checks its CRC.
+	 *
+	 * @exception IOException if the CRC is wrong.
+	 */
+	private void skipChunk() throws IOException {
+		// The skipped bytes are read through the CRC as well.
+		while (chunkLeft > 0) {
+			int skipped = input.skipBytes(chunkLeft);
+			if (skipped <= 0) {
+				throw new EOFException("The png ends in a chunk");
+			}
+			chunkLeft -= skipped;
+		}
+		long expected = crc.getValue();
+		long actual = input.readInt() & 0xffffffffL;
+		if (actual != expected) {
+			throw new IOException("The png is corrupt: wrong CRC of the "
+					+ getChunkName(chunkType) + " chunk");
+		}
+	}
+
+	/**
+	 * Returns the name of a chunk type, such as "IDAT".
+	 */
+	private static String getChunkName(int type) {
+		char[] name = new char[4];
+		for (int i = 0; i < name.length; i++) {
+			name[i] = (char) ((type >>> (24 - 8 * i)) & 0xff);
+		}
+		return new String(name);
+	}
+
+	/**
+	 * Reads the PLTE chunk.
+	 */
+	private void readPalette() throws IOException {
+		int entries = chunkLeft / 3;
+		int[] oldPalette = palette;
+		palette = new int[256];
+		for (int i = 0; i < entries && i < palette.length; i++) {
+			int red = input.readUnsignedByte();
+			int green = input.readUnsignedByte();
+			int blue = input.readUnsignedByte();
+			chunkLeft -= 3;
+			palette[i] = 0xff000000 | (red << 16) | (green << 8) | blue;
+		}
+		// A tRNS chunk always comes after the palette, but be safe.
+		if (oldPalette != null) {
+			for (int i = 0; i < palette.length; i++) {
+				palette[i] = (palette[i] & 0x00ffffff) | (oldPalette[i] & 0xff000000);
+			}
+		}
+	}
+
+	/**
+	 * Reads the tRNS chunk, which gives the alpha of the palette entries or
+	 * the transparent gray level or color.
+	 */
+	private void readTransparency() throws IOException {
+		if (colorType == PALETTE) {
+			if (palette == null) {
+				palette = new int[256];
+				for (int i = 0; i < palette.length; i++) {
+					palette[i] = 0xff000000;
+				}
+			}
+			for (int i = 0; chunkLeft > 0 && i < palette.length; i++) {
+				int alpha = input.readUnsignedByte();
+				chunkLeft--;
+				palette[i] = (palette[i] & 0x00ffffff) | (alpha << 24);
+			}
+		} else if (colorType == GRAY && chunkLeft >= 2) {
+			transparentColor = toEightBits(input.readUnsignedShort());
+			chunkLeft -= 2;
+		} else if (colorType == RGB && chunkLeft >= 6) {
+			int red = toEightBits(input.readUnsignedShort());
+			int green = toEightBits(input.readUnsignedShort());
+			int blue = toEightBits(input.readUnsignedShort());
+			chunkLeft -= 6;
+			transparentColor = (red << 16) | (green << 8) | blue;
+		}
+	}
+
+	/**
+	 * Scales a gray level or color sample of the tRNS chunk to eight bits.
+	 */
+	private int toEightBits(int sample) {
+		if (bitDepth == 16) {
+			return sample >> 8;
+		}
+		return sample * 255 / ((1 << bitDepth) - 1);
+	}
+
+	/**
+	 * Removes the filter from the current row, see the png specification.
+	 *
+	 * @param filter the filter type of the row.
+	 */
+	private void unfilter(int filter) throws IOException {
+		int length = row.length;
+		switch (filter) {
+			case 0 :
+				break;
+			case 1 :
+				for (int i = filterDistance; i < length; i++) {
+					row[i] += row[i - filterDistance];
+				}
+				break;
+			case 2 :
+				if (rowsRead > 0) {
+					for (int i = 0; i < length; i++) {
+						row[i] += previousRow[i];
+					}
+				}
+				break;
+			case 3 :
+				for (int i = 0; i < length; i++) {
+					int left = (i >= filterDistance) ? row[i - filterDistance] & 0xff : 0;
+					int up = (rowsRead > 0) ? previousRow[i] & 0xff : 0;
+					row[i] += (left + up) >> 1;
+				}
+				break;
+			case 4 :
+				for (int i = 0; i < length; i++) {
+					int left = (i >= filterDistance) ? row[i - filterDistance] & 0xff : 0;
+					int up = (rowsRead > 0) ? previousRow[i] & 0xff : 0;
+					int upLeft = (i >= filterDistance && rowsRead > 0) ?
+							previousRow[i - filterDistance] & 0xff : 0;
+					row[i] += paeth(left, up, upLeft);
+				}
+				break;
+			default :
+				throw new IOException("Unknown filter " + filter + " on row " + rowsRead);
+		}
+	}
+
+	/**
+	 * The Paeth predictor of the png specification.
+	 */
+	private static int paeth(int left, int up, int upLeft) {
+		int estimate = left + up - upLeft;
+		int leftDistance = Math.abs(estimate - left);
+		int upDistance = Math.abs(estimate - up);
+		int upLeftDistance = Math.abs(estimate - upLeft);
+		if (leftDistance <= upDistance && leftDistance <= upLeftDistance) {
+			return left;
+		} else if (upDistance <= upLeftDistance) {
+			return up;
+		} else {
+			return upLeft;
+		}
+	}
+
+	/**
+	 * Converts the current row to ARGB pixels.
+	 */
+	private void convert(int[] pixels, int offset) {
+		for (int x = 0; x < width; x++) {
+			int pixel;
+			switch (colorType) {
+				case GRAY : {
+					int gray = sample(x);
+					pixel = 0xff000000 | (gray << 16) | (gray << 8) | gray;
+					if (gray == transparentColor) {
+						pixel &= 0x00ffffff;
+					}
+					break;
+				}
+				case PALETTE :
+					pixel = palette[sample(x)];
+					break;
+				case GRAY_ALPHA : {
+					int gray = sample(2 * x);
+					pixel = (sample(2 * x + 1) << 24) | (gray << 16) | (gray << 8) | gray;
+					break;
+				}
+				case RGB :
+					pixel = (sample(3 * x) << 16) | (sample(3 * x + 1) << 8) |
+							sample(3 * x + 2);
+					if (pixel != transparentColor) {
+						pixel |= 0xff000000;
+					}
+					break;
+				default :
+					pixel = (sample(4 * x + 3) << 24) | (sample(4 * x) << 16) |
+							(sample(4 * x + 1) << 8) | sample(4 * x + 2);
+					break;
+			}
+			pixels[offset + x] = pixel;
+		}
+	}
+
+	/**
+	 * Returns a sample of the current row. Palette indices are returned as
+	 * they are, other samples are scaled to eight bits.
+	 *
+	 * @param index the index of the sample in the row.
+	 */
+	private int sample(int index) {
+		switch (bitDepth) {
+			case 8 :
+				return row[index] & 0xff;
+			case 16 :
+				return row[2 * index] & 0xff;
+			default :
+				int bit = index * bitDepth;
+				int mask = (1 << bitDepth) - 1;
+				int value = (row[bit >> 3] >> (8 - bitDepth - (bit & 7))) & mask;
+				return (colorType == PALETTE) ? value : value * 255 / mask;
+		}
+	}
+
+	/**
+	 * The contents of the IDAT chunks, one after the other.
+	 */
+	private class ImageDataStream extends InputStream {
+
+		public int read() throws IOException {
+			if (!nextImageData()) {
+				return -1;
+			}
+			chunkLeft--;
+			return input.readUnsignedByte();
+		}
+
+		public int read(byte[] buffer, int offset, int length)
+				throws IOException {
+			if (length == 0) {
+				return 0;
+			}
+			if (!nextImageData()) {
+				return -1;
+			}
+			int count = input.read(buffer, offset, Math.min(length, chunkLeft));
+			if (count < 0) {
+				throw new EOFException("The png ends in the image data");
+			}
+			chunkLeft -= count;
+			return count;
+		}
+
+		/**
+		 * Moves to the next IDAT chunk if the current one has been read.
+		 *
+		 * @return false if there is no more image data.
+		 */
+		private boolean nextImageData() throws IOException {
+			while (chunkLeft == 0) {
+				if (chunkType != IDAT) {
+					return false;
+				}
+				nextChunk();
+			}
+			return chunkType == IDAT;
+		}
+	}
+
+}
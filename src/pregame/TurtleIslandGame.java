@@ -1,4 +1,42 @@
-/* 2003-05-17 henko
+/* 2026-10-18 agent
+ *  The world is saved to a new file that then replaces the save, since the
+ *  map of a resumed world reads its tiles from the save.
+ *
+ * 2026-10-18 agent
+ *  The first autosave, which captures the whole world, is made before the
+ *  simulation starts.
+ *
+ * 2026-10-18 agent
+ *  The graphics engine of the previous game is disposed when a new one is
+ *  created, so that its view stops listening to the world.
+ *
+ * 2026-10-18 agent
+ *  The map is loaded with LevelLoader, which reads pngs a row at a time,
+ *  instead of through the AWT toolkit.
+ *
+ * 2026-10-18 agent
+ *  The session is recorded to RECORDING_FILENAME while the simulation runs.
+ *
+ * 2026-10-18 agent
+ *  The world is autosaved while the simulation runs, and a game that ended
+ *  without being saved is resumed from the autosave.
+ *
+ * 2026-10-18 agent
+ *  The world is saved and resumed in the binary save format of
+ *  World.saveWorld() instead of with Java serialization.
+ *
+ * 2026-10-18 agent
+ *  The graphics engine draws from volatile images.
+ *
+ * 2026-10-18 agent
+ *  The simulation runs in its own SimulationThread while this thread only
+ *  draws.
+ *
+ * 2026-10-18 agent
+ *  The game loop relies on the fixed time step in World.update(), so that the
+ *  simulation runs at the same rate whatever the frame rate is.
+ *
+ * 2003-05-17 henko
  *  Added support for disabling the "Resume game" button and added a credits
  *  screen.
  *
@@ -29,16 +67,14 @@
  */
 package pregame;
 
+import gameengine.AutoSaver;
+import gameengine.SessionRecorder;
+import gameengine.SimulationThread;
 import gameengine.World;
 import graphicsengine.Debug;
 import graphicsengine.GraphicsEngine;
 import input.InputEventTranslator;
 
-import java.awt.Image;
-import java.awt.image.ImageObserver;
-import java.awt.Component;
-import java.awt.Container;
-import java.awt.MediaTracker;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.List;
@@ -49,8 +85,6 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 
 /**
  * The main class which controls the game.
@@ -59,6 +93,19 @@ public class TurtleIslandGame {
 
 	private static final String SERIALIZED_WORLD_FILENAME = "TurtleIsland.save";
 
+	/**
+	 * The file that the world is autosaved to while the game runs. It is
+	 * deleted when the game has been saved on exit, so if it exists the last
+	 * game ended without being saved.
+	 */
+	private static final String AUTOSAVE_FILENAME = "TurtleIsland.autosave";
+
+	/**
+	 * The file that the last session is recorded to, so that it can be
+	 * replayed with TurtleIslandHeadless -replay.
+	 */
+	private static final String RECORDING_FILENAME = "TurtleIsland.recording";
+
 	/**
 	 * Subdiretory for images that represents different maps.
 	 */
@@ -127,7 +174,8 @@ public class TurtleIslandGame {
 
 	/**
 	 * Returns whether there is a savegame available. Checks if the file
-	 * SERIALIZED_WORLD_FILENAME exists and contains any data.
+	 * SERIALIZED_WORLD_FILENAME or AUTOSAVE_FILENAME exists and contains any
+	 * data.
 	 *
 	 * @return whether there is a savegame available.
 	 */
@@ -140,6 +188,9 @@ public class TurtleIslandGame {
 				return true;
 			}
 		}
+		if (new File(AUTOSAVE_FILENAME).length() > 0) {
+			return true;
+		}
 
 		// A game is already started
 		if (world != null) {
@@ -226,38 +277,60 @@ public class TurtleIslandGame {
 	}
 
 	/**
-	 * Orders World to serialize itself.
+	 * Orders World to save itself. The world is saved to a new file, which
+	 * then replaces the old save, since a world that was resumed from the
+	 * old save reads its map from it, see World.loadWorld().
 	 */
 	private void saveCurrentWorld() {
 		try {
-			// Initialize output streams
-			FileOutputStream fos = new FileOutputStream(SERIALIZED_WORLD_FILENAME);
-			ObjectOutputStream oos = new ObjectOutputStream(fos);
-
-			// Save world
-			World.serializeWorld(oos);
+			File file = new File(SERIALIZED_WORLD_FILENAME);
+			File newFile = new File(SERIALIZED_WORLD_FILENAME + ".new");
+			FileOutputStream fos = new FileOutputStream(newFile);
+			try {
+				// Save world
+				World.saveWorld(fos.getChannel());
+			} finally {
+				fos.close();
+			}
+			// Some systems don't rename a file to the name of one that
+			// exists.
+			if (!newFile.renameTo(file) &&
+					!(file.delete() && newFile.renameTo(file))) {
+				throw new IOException("Couldn't replace " + file);
+			}
+			// The save is newer than the autosave.
+			new File(AUTOSAVE_FILENAME).delete();
 		} catch (IOException ioe) {
 			ioe.printStackTrace();
 		}
 	}
 
 	/**
-	 * Orders World to deserialize itself.
+	 * Orders World to restore itself, from the autosave if the last game
+	 * ended without being saved.
 	 *
 	 * @return returns true if the world loaded successfully.
 	 */
 	private boolean loadPreviousWorld() {
+		File autoSaveFile = new File(AUTOSAVE_FILENAME);
+		if (autoSaveFile.exists()) {
+			try {
+				AutoSaver.restore(autoSaveFile);
+				return true;
+			} catch (IOException ioe) {
+				ioe.printStackTrace();
+			}
+		}
 		try {
-			// Initialize input streams
 			FileInputStream fis = new FileInputStream(SERIALIZED_WORLD_FILENAME);
-			ObjectInputStream ois = new ObjectInputStream(fis);
-
-			// Load world
-			World.deserializeWorld(ois);
+			try {
+				// Load world
+				World.loadWorld(fis.getChannel());
+			} finally {
+				fis.close();
+			}
 		} catch (IOException ioe) {
 			return false;
-		} catch (ClassNotFoundException cnfe) {
-			return false;
 		}
 
 		return true;
@@ -279,13 +352,19 @@ public class TurtleIslandGame {
 	}
 
 	/**
-	 * Initializes a GraphicsEngine that will draw the given world.
+	 * Initializes a GraphicsEngine that will draw the given world. The
+	 * graphics engine of the previous game, if any, is disposed.
 	 *
 	 * @param world the world to draw.
 	 * @return a GraphicsEngine that will draw the given world.
 	 */
 	private GraphicsEngine initializeGraphicsEngine(World world) 
 			throws FileNotFoundException {
+		// The view of the previous game would keep following the world.
+		if (this.graphicsEngine != null) {
+			this.graphicsEngine.dispose();
+			this.graphicsEngine = null;
+		}
 		GraphicsEngine graphicsEngine = null;
 		try {
 			// Creates a GraphicsEngine with 800x600 resolution and 16 bit colors.
@@ -294,6 +373,7 @@ public class TurtleIslandGame {
 
 			// Initialize graphics
 			graphicsEngine.initializeGraphics();
+			graphicsEngine.useVolatileImages(true);
 			graphicsEngine.showFps(true);
 			graphicsEngine.showTime(true);
 
@@ -330,10 +410,14 @@ public class TurtleIslandGame {
 	}
 
 	/**
-	 * Makes the world go round. Starts the simulation and runs a loop
-	 * where the world is updated and the graphicsengine draws every
-	 * cycle until the inputeventtranslator tells it to stop, based on
-	 * the user's input.
+	 * Makes the world go round. Starts a SimulationThread that updates the
+	 * world, and draws the world on this thread until the
+	 * inputeventtranslator tells it to stop, based on the user's input.
+	 * The world is updated with a fixed time step on its own thread, and
+	 * the graphicsengine draws from the snapshots that the simulation
+	 * thread hands over after each tick. The simulation thread also hands
+	 * the world to an AutoSaver, and the session is recorded by a
+	 * SessionRecorder.
 	 *
 	 * @param world the World to simulate.
 	 * @param graphicsEngine the GraphicsEngine to draw.
@@ -346,23 +430,52 @@ public class TurtleIslandGame {
 		{
 
 		// Starts the simulation.
-		world.startSimulation();
-
-		// THE GAME LOOP
-		while (!inputEventTranslator.isQuiting()) {
-			world.update();
-			graphicsEngine.draw();
+		AutoSaver autoSaver = new AutoSaver(new File(AUTOSAVE_FILENAME));
+		SessionRecorder recorder = null;
+		try {
+			recorder = new SessionRecorder(new File(RECORDING_FILENAME));
+			world.setRecorder(recorder);
+		} catch (IOException ioe) {
+			// The game is played without being recorded.
+			ioe.printStackTrace();
 		}
+		SimulationThread simulationThread = new SimulationThread(world);
+		simulationThread.setAutoSaver(autoSaver);
+		// The first autosave captures the whole world, which the simulation
+		// thread shouldn't have to wait for.
+		autoSaver.update(world);
+		simulationThread.start();
 
-		// Stop simulation and exit fullscreen
-		World.getWorld().stopSimulation();
+		try {
+			// THE GAME LOOP
+			while (!inputEventTranslator.isQuiting()) {
+				if (simulationThread.getFailure() != null) {
+					throw simulationThread.getFailure();
+				}
+				graphicsEngine.draw();
+			}
+		} finally {
+			// Stop simulation
+			simulationThread.halt();
+			autoSaver.close();
+			if (recorder != null) {
+				world.setRecorder(null);
+				try {
+					recorder.close();
+				} catch (IOException ioe) {
+					ioe.printStackTrace();
+				}
+			}
+		}
 
 	}
 
 	/**
 	 * Loads a random map image.
+	 *
+	 * @exception IOException if the map couldn't be read.
 	 */
-	private MapImage loadMapImage() {
+	private MapImage loadMapImage() throws IOException {
 		File sourceDirectory = new File(MAPS_DIRECTORY);
 		// Retrieve all the files in the directory in question.
 		File[] filesInDirectory = sourceDirectory.listFiles();
@@ -382,20 +495,8 @@ public class TurtleIslandGame {
 		// If there are any maps to load
 		if (mapFiles.size() > 0) {
 			// Load a random map
-			Component dummyComponent = new Container();
-			MediaTracker tracker = new MediaTracker(dummyComponent);
 			int randomIndex = (int) (Math.random() * mapFiles.size());
-			Image currentImage = dummyComponent.getToolkit().getImage(
-					((File) mapFiles.get(randomIndex)).getPath()
-					);
-			tracker.addImage(currentImage, 0);
-			// Wait so that the image is loaded.
-			try {
-				tracker.waitForAll();
-			}
-			catch (InterruptedException interruptedException) {
-			}
-			return new MapImage(currentImage);
+			return LevelLoader.loadMap((File) mapFiles.get(randomIndex));
 		} else {
 			return null;
 		}
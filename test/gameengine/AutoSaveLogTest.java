@@ -0,0 +1,296 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import gameengine.gameobjects.GameObject;
+import gameengine.gameobjects.Individual;
+import gameengine.gameobjects.Node;
+import graphicsengine.MapImage;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Tests AutoSaver and AutoSaveLog. A world on the first map is autosaved
+ * while it runs, and the log must then hold a base followed by several
+ * deltas, from which the same world is restored. Invalid logs must not
+ * change the current world. Is run from the root of the project with
+ * "make test", and exits with status 1 if a test fails.
+ */
+public class AutoSaveLogTest {
+
+	/**
+	 * The map that the world is created on.
+	 */
+	private static final String MAP_FILE = "src" + File.separator + "images" +
+			File.separator + "maps" + File.separator + "map01.png";
+
+	/**
+	 * The number of individuals of the world.
+	 */
+	private static final int POPULATION = 300;
+
+	/**
+	 * The number of autosaves after the first one, which are few enough to
+	 * be written as deltas after the first base.
+	 */
+	private static final int AUTOSAVES = 3;
+
+	/**
+	 * The number of tests that have passed.
+	 */
+	private static int passed;
+
+	/**
+	 * The number of tests that have failed.
+	 */
+	private static int failed;
+
+	/**
+	 * Runs all tests.
+	 *
+	 * @param args not used.
+	 */
+	public static void main(String[] args) throws Exception {
+		File file = File.createTempFile("autosave", ".log");
+		try {
+			World world = createWorld();
+			testAutoSave(world, file);
+			testRestore(world, file);
+			testInvalidLogs(file);
+		} finally {
+			file.delete();
+		}
+
+		System.out.println(passed + " passed, " + failed + " failed");
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Creates a world on the map, the way HeadlessSimulation does.
+	 */
+	private static World createWorld() throws IOException {
+		BufferedImage image = ImageIO.read(new File(MAP_FILE));
+		int width = image.getWidth();
+		int height = image.getHeight();
+		int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+		World.reset();
+		World world = World.getWorld();
+		world.setSeed(42);
+		world.initialize(new MapImage(width, height, pixels));
+		world.populate(POPULATION);
+		world.getAllObjects().update();
+		return world;
+	}
+
+	/**
+	 * Autosaves a running world, and checks that the log holds a base and
+	 * the deltas of the later autosaves.
+	 */
+	private static void testAutoSave(World world, File file) throws IOException {
+		AutoSaver autoSaver = new AutoSaver(file);
+		autoSaver.update(world);
+		autoSaver.flush();
+		int ticks = AUTOSAVES * World.getEnvironment().getAutoSaveTicks();
+		for (int i = 0; i < ticks; i++) {
+			world.tick();
+			autoSaver.update(world);
+			// Waits for each autosave, so that none is skipped.
+			autoSaver.flush();
+		}
+		autoSaver.close();
+		check(autoSaver.getFailure() == null,
+				"autosaves: no failure (" + autoSaver.getFailure() + ")");
+
+		ByteBuffer buffer = readFile(file);
+		int bases = 0;
+		int deltas = 0;
+		int frame = 0;
+		while (buffer.remaining() >= 8) {
+			int length = buffer.getInt();
+			buffer.getInt();
+			if (frame > 0) {
+				int segment = buffer.get(buffer.position());
+				if (segment == AutoSaveLog.BASE) {
+					bases++;
+					deltas = 0;
+				} else if (segment == AutoSaveLog.DELTA) {
+					deltas++;
+				}
+			}
+			buffer.position(buffer.position() + length);
+			frame++;
+		}
+		check(bases == 1, "autosaves: one base (" + bases + ")");
+		check(deltas >= 2, "autosaves: deltas after the base (" + deltas + ")");
+	}
+
+	/**
+	 * Restores the log, and compares the restored world with the one that
+	 * was autosaved, which was last autosaved at its current tick.
+	 */
+	private static void testRestore(World world, File file) throws IOException {
+		World restored = AutoSaver.restore(file);
+		check(restored == World.getWorld(), "restore: the world is replaced");
+		check(restored.getTickCount() == world.getTickCount(),
+				"restore: tick count " + restored.getTickCount());
+		check(restored.getChecksum() == world.getChecksum(),
+				"restore: checksum");
+
+		GameObjectList objects = world.getAllObjects();
+		GameObjectList restoredObjects = restored.getAllObjects();
+		objects.update();
+		restoredObjects.update();
+		check(restoredObjects.size() == objects.size(),
+				"restore: number of objects " + restoredObjects.size() +
+				" instead of " + objects.size());
+		boolean same = restoredObjects.size() == objects.size();
+		for (int i = 0; same && i < objects.size(); i++) {
+			GameObject gameObject = objects.get(i);
+			GameObject restoredObject = restoredObjects.get(i);
+			same = isSame(gameObject, restoredObject);
+			if (!same) {
+				System.out.println("  object " + i + ": " +
+						restoredObject.getName() + " instead of " +
+						gameObject.getName());
+			}
+		}
+		check(same, "restore: objects");
+		check(isSame(world.getLightPillar(), restored.getLightPillar()),
+				"restore: light pillar");
+
+		for (int i = 0; i < 10; i++) {
+			restored.tick();
+		}
+		check(restored.getTickCount() == world.getTickCount() + 10,
+				"restore: the restored world runs");
+	}
+
+	/**
+	 * Returns true if a restored game object is the same as the one that was
+	 * saved.
+	 */
+	private static boolean isSame(GameObject gameObject,
+			GameObject restoredObject) {
+		if (gameObject.getClass() != restoredObject.getClass() ||
+				!String.valueOf(gameObject.getName()).equals(
+						String.valueOf(restoredObject.getName())) ||
+				gameObject.getX() != restoredObject.getX() ||
+				gameObject.getY() != restoredObject.getY()) {
+			return false;
+		}
+		if (gameObject instanceof Individual) {
+			Individual individual = (Individual) gameObject;
+			Individual restoredIndividual = (Individual) restoredObject;
+			return individual.getSaturation() == restoredIndividual.getSaturation() &&
+					individual.getHappiness() == restoredIndividual.getHappiness() &&
+					individual.getHealth() == restoredIndividual.getHealth() &&
+					individual.getDirection() == restoredIndividual.getDirection() &&
+					individual.getResourceAmount(Environment.FOOD) ==
+					restoredIndividual.getResourceAmount(Environment.FOOD) &&
+					individual.getResourceAmount(Environment.HAPPINESS) ==
+					restoredIndividual.getResourceAmount(Environment.HAPPINESS);
+		}
+		if (gameObject instanceof Node) {
+			Node node = (Node) gameObject;
+			Node restoredNode = (Node) restoredObject;
+			return node.getResourceAmount(Environment.FOOD) ==
+					restoredNode.getResourceAmount(Environment.FOOD) &&
+					node.getResourceAmount(Environment.HAPPINESS) ==
+					restoredNode.getResourceAmount(Environment.HAPPINESS);
+		}
+		return true;
+	}
+
+	/**
+	 * Checks that a log that isn't one, or that was cut off in its base, is
+	 * refused without changing the current world.
+	 */
+	private static void testInvalidLogs(File file) throws IOException {
+		byte[] log = new byte[(int) file.length()];
+		FileInputStream input = new FileInputStream(file);
+		try {
+			int count = 0;
+			while (count < log.length) {
+				count += input.read(log, count, log.length - count);
+			}
+		} finally {
+			input.close();
+		}
+
+		byte[] foreign = new byte[log.length];
+		for (int i = 0; i < foreign.length; i++) {
+			foreign[i] = (byte) i;
+		}
+		checkRefused(file, foreign, foreign.length, "foreign file");
+		checkRefused(file, log, log.length / 4, "log cut off in its base");
+
+		byte[] header = new byte[log.length];
+		System.arraycopy(log, 0, header, 0, log.length);
+		header[12]++;
+		checkRefused(file, header, header.length, "damaged header");
+	}
+
+	/**
+	 * Checks that restoring a log made of the first bytes of an array
+	 * throws an IOException and leaves the current world as it was.
+	 */
+	private static void checkRefused(File file, byte[] bytes, int length,
+			String name) throws IOException {
+		FileOutputStream output = new FileOutputStream(file);
+		try {
+			output.write(bytes, 0, length);
+		} finally {
+			output.close();
+		}
+		World world = World.getWorld();
+		boolean refused = false;
+		try {
+			AutoSaver.restore(file);
+		} catch (IOException e) {
+			refused = true;
+		}
+		check(refused, name + ": refused");
+		check(World.getWorld() == world, name + ": the world is kept");
+	}
+
+	/**
+	 * Reads a whole file.
+	 */
+	private static ByteBuffer readFile(File file) throws IOException {
+		FileInputStream input = new FileInputStream(file);
+		try {
+			ByteBuffer buffer = ByteBuffer.allocate((int) file.length());
+			while (buffer.hasRemaining() &&
+					input.getChannel().read(buffer) >= 0) {
+			}
+			buffer.flip();
+			return buffer;
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Counts a test as passed or failed, and prints it if it failed.
+	 */
+	private static void check(boolean condition, String name) {
+		if (condition) {
+			passed++;
+		} else {
+			failed++;
+			System.out.println("FAILED: " + name);
+		}
+	}
+
+}
@@ -0,0 +1,272 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package gameengine;
+
+import gameengine.gameobjects.GameObject;
+import gameengine.gameobjects.Individual;
+import graphicsengine.MapImage;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Tests the regions of the save format. A world on the first map is saved
+ * to a file, whose regions must start at multiples of the alignment, and
+ * is loaded again from a FileChannel, so that the map reads its tiles from
+ * the mapped file. The loaded world must be the same as the saved one,
+ * which is created again the same way to be compared with, and stay the
+ * same when both run on. A file that ends in a region must not change the
+ * current world. Is run from the root of the project with "make test", and
+ * exits with status 1 if a test fails.
+ */
+public class MappedSaveTest {
+
+	/**
+	 * The map that the world is created on.
+	 */
+	private static final String MAP_FILE = "src" + File.separator + "images" +
+			File.separator + "maps" + File.separator + "map01.png";
+
+	/**
+	 * The number of individuals of the world.
+	 */
+	private static final int POPULATION = 300;
+
+	/**
+	 * The number of ticks the world runs before it is saved.
+	 */
+	private static final int TICKS = 300;
+
+	/**
+	 * The number of ticks both worlds run after the world has been loaded.
+	 */
+	private static final int LATER_TICKS = 20;
+
+	/**
+	 * The number of tests that have passed.
+	 */
+	private static int passed;
+
+	/**
+	 * The number of tests that have failed.
+	 */
+	private static int failed;
+
+	/**
+	 * Runs all tests.
+	 *
+	 * @param args not used.
+	 */
+	public static void main(String[] args) throws Exception {
+		World.setLoggingEvents(false);
+		File file = File.createTempFile("world", ".save");
+		File cutOffFile = File.createTempFile("world", ".save");
+		try {
+			World world = createWorld();
+			save(file);
+			testRegions(file);
+			for (int i = 0; i < LATER_TICKS; i++) {
+				world.tick();
+			}
+			long laterChecksum = world.getChecksum();
+
+			World saved = createWorld();
+			World loaded = load(file);
+			testLoad(saved, loaded);
+			for (int i = 0; i < LATER_TICKS; i++) {
+				loaded.tick();
+			}
+			check(loaded.getChecksum() == laterChecksum, "later ticks: checksum");
+			testCutOff(file, cutOffFile);
+		} finally {
+			file.delete();
+			cutOffFile.delete();
+		}
+
+		System.out.println(passed + " passed, " + failed + " failed");
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Creates a world on the map, the way HeadlessSimulation does, and runs
+	 * it for TICKS ticks.
+	 */
+	private static World createWorld() throws IOException {
+		BufferedImage image = ImageIO.read(new File(MAP_FILE));
+		int width = image.getWidth();
+		int height = image.getHeight();
+		int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+		World.reset();
+		World world = World.getWorld();
+		world.setSeed(42);
+		world.initialize(new MapImage(width, height, pixels));
+		world.populate(POPULATION);
+		world.getAllObjects().update();
+		for (int i = 0; i < TICKS; i++) {
+			world.tick();
+		}
+		return world;
+	}
+
+	/**
+	 * Checks that the file has two regions, the tiles of the map and the
+	 * columns of the store, which start at multiples of the alignment and
+	 * are followed by the records.
+	 */
+	private static void testRegions(File file) throws IOException {
+		FileInputStream input = new FileInputStream(file);
+		int count;
+		long end = 0;
+		boolean aligned = true;
+		try {
+			WorldReader reader = new WorldReader(input.getChannel());
+			reader.readHeader(WorldWriter.MAGIC);
+			count = reader.readInt();
+			for (int i = 0; i < count; i++) {
+				long offset = reader.readLong();
+				long length = reader.readLong();
+				aligned &= offset % WorldWriter.REGION_ALIGNMENT == 0 &&
+						offset >= end;
+				end = offset + length;
+			}
+		} finally {
+			input.close();
+		}
+		check(count == 2, "regions: two regions (" + count + ")");
+		check(aligned, "regions: aligned");
+		check(end < file.length(), "regions: followed by the records");
+	}
+
+	/**
+	 * Compares the loaded world with the one that was saved.
+	 */
+	private static void testLoad(World world, World loaded) {
+		check(loaded == World.getWorld(), "load: the world is replaced");
+		check(loaded.getTickCount() == world.getTickCount(),
+				"load: tick count " + loaded.getTickCount());
+		check(loaded.getChecksum() == world.getChecksum(), "load: checksum");
+
+		MapImage map = world.getMapImage();
+		MapImage loadedMap = loaded.getMapImage();
+		check(loadedMap.getPackedTiles().isDirect(),
+				"load: the map reads the mapped file");
+		boolean same = loadedMap.getWidth() == map.getWidth() &&
+				loadedMap.getHeight() == map.getHeight();
+		for (int y = 0; same && y < map.getHeight(); y++) {
+			for (int x = 0; same && x < map.getWidth(); x++) {
+				same = loadedMap.getTileNr(x, y) == map.getTileNr(x, y);
+			}
+		}
+		check(same, "load: tiles");
+
+		GameObjectList objects = world.getAllObjects();
+		GameObjectList loadedObjects = loaded.getAllObjects();
+		same = loadedObjects.size() == objects.size();
+		for (int i = 0; same && i < objects.size(); i++) {
+			same = isSame(objects.get(i), loadedObjects.get(i));
+		}
+		check(same, "load: objects");
+	}
+
+	/**
+	 * Checks that a copy of the file that ends in a region is refused
+	 * without changing the current world. The file itself mustn't be
+	 * changed, since the map of the current world reads it.
+	 */
+	private static void testCutOff(File file, File cutOffFile)
+			throws IOException {
+		byte[] bytes = new byte[WorldWriter.REGION_ALIGNMENT + 1];
+		FileInputStream input = new FileInputStream(file);
+		try {
+			int count = 0;
+			while (count < bytes.length) {
+				count += input.read(bytes, count, bytes.length - count);
+			}
+		} finally {
+			input.close();
+		}
+		FileOutputStream output = new FileOutputStream(cutOffFile);
+		try {
+			output.write(bytes);
+		} finally {
+			output.close();
+		}
+		World world = World.getWorld();
+		boolean refused = false;
+		try {
+			load(cutOffFile);
+		} catch (IOException e) {
+			refused = true;
+		}
+		check(refused, "cut off: refused");
+		check(World.getWorld() == world, "cut off: the world is kept");
+	}
+
+	/**
+	 * Returns true if a loaded game object is the same as the one that was
+	 * saved.
+	 */
+	private static boolean isSame(GameObject gameObject, GameObject loadedObject) {
+		if (gameObject.getClass() != loadedObject.getClass() ||
+				gameObject.getX() != loadedObject.getX() ||
+				gameObject.getY() != loadedObject.getY()) {
+			return false;
+		}
+		if (gameObject instanceof Individual) {
+			Individual individual = (Individual) gameObject;
+			Individual loadedIndividual = (Individual) loadedObject;
+			return individual.getSaturation() == loadedIndividual.getSaturation() &&
+					individual.getHappiness() == loadedIndividual.getHappiness() &&
+					individual.getHealth() == loadedIndividual.getHealth() &&
+					individual.getDirection() == loadedIndividual.getDirection();
+		}
+		return true;
+	}
+
+	/**
+	 * Saves the current world to a file.
+	 */
+	private static void save(File file) throws IOException {
+		FileOutputStream output = new FileOutputStream(file);
+		try {
+			World.saveWorld(output.getChannel());
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Loads a world from a file, which is mapped into memory.
+	 */
+	private static World load(File file) throws IOException {
+		FileInputStream input = new FileInputStream(file);
+		try {
+			World.loadWorld(input.getChannel());
+		} finally {
+			input.close();
+		}
+		return World.getWorld();
+	}
+
+	/**
+	 * Counts a test as passed or failed, and prints it if it failed.
+	 */
+	private static void check(boolean condition, String name) {
+		if (condition) {
+			passed++;
+		} else {
+			failed++;
+			System.out.println("FAILED: " + name);
+		}
+	}
+
+}
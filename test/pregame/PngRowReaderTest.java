@@ -0,0 +1,613 @@
+/* 2026-10-18 agent
+ *	Created the class.
+ */
+package pregame;
+
+import graphicsengine.MapImage;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Tests PngRowReader and the png loading of LevelLoader. The pngs are
+ * encoded by the test itself, so that each color type, bit depth and filter
+ * can be tested, and the pixels are compared with those that the samples
+ * should give. Is run with "make test", and exits with status 1 if a test
+ * fails.
+ */
+public class PngRowReaderTest {
+
+	/**
+	 * The color types.
+	 */
+	private static final int GRAY = 0;
+	private static final int RGB = 2;
+	private static final int PALETTE = 3;
+	private static final int GRAY_ALPHA = 4;
+	private static final int RGB_ALPHA = 6;
+
+	/**
+	 * The size of the test images.
+	 */
+	private static final int WIDTH = 13;
+	private static final int HEIGHT = 7;
+
+	/**
+	 * The number of tests that have passed.
+	 */
+	private static int passed;
+
+	/**
+	 * The number of tests that have failed.
+	 */
+	private static int failed;
+
+	/**
+	 * Runs all tests.
+	 *
+	 * @param args not used.
+	 */
+	public static void main(String[] args) throws Exception {
+		int[] grayDepths = {1, 2, 4, 8, 16};
+		for (int i = 0; i < grayDepths.length; i++) {
+			testColorType(GRAY, grayDepths[i], false);
+		}
+		int[] paletteDepths = {1, 2, 4, 8};
+		for (int i = 0; i < paletteDepths.length; i++) {
+			testColorType(PALETTE, paletteDepths[i], false);
+			testColorType(PALETTE, paletteDepths[i], true);
+		}
+		testColorType(GRAY, 8, true);
+		testColorType(RGB, 8, true);
+		testColorType(RGB, 16, false);
+		testColorType(GRAY_ALPHA, 8, false);
+		testColorType(GRAY_ALPHA, 16, false);
+		testColorType(RGB_ALPHA, 8, false);
+		testColorType(RGB_ALPHA, 16, false);
+		testImageDataInChunks();
+		testInterlaced();
+		testCorruptChunks();
+		testTruncated();
+		testLoadImage();
+
+		System.out.println(passed + " passed, " + failed + " failed");
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Tests reading an image of a color type and bit depth, where each row
+	 * has another filter.
+	 */
+	private static void testColorType(int colorType, int bitDepth,
+			boolean transparency) throws IOException {
+		String name = "color type " + colorType + ", " + bitDepth + " bits" +
+				(transparency ? ", tRNS" : "");
+		TestImage image = new TestImage(colorType, bitDepth, transparency);
+		PngRowReader reader = new PngRowReader(
+				new ByteArrayInputStream(image.encode(1)));
+		try {
+			check(reader.getWidth() == WIDTH && reader.getHeight() == HEIGHT,
+					name + ": size");
+			check(!reader.isInterlaced(), name + ": not interlaced");
+			int[] pixels = new int[WIDTH + 2];
+			boolean same = true;
+			for (int y = 0; y < HEIGHT; y++) {
+				reader.readRow(pixels, 2);
+				for (int x = 0; x < WIDTH; x++) {
+					if (pixels[2 + x] != image.getExpectedPixel(x, y)) {
+						System.out.println("  " + x + "," + y + ": " +
+								Integer.toHexString(pixels[2 + x]) + " instead of " +
+								Integer.toHexString(image.getExpectedPixel(x, y)));
+						same = false;
+					}
+				}
+			}
+			check(same, name + ": pixels");
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Tests an image whose data is split in many small IDAT chunks.
+	 */
+	private static void testImageDataInChunks() throws IOException {
+		TestImage image = new TestImage(RGB, 8, false);
+		PngRowReader reader = new PngRowReader(
+				new ByteArrayInputStream(image.encode(5)));
+		int[] pixels = new int[WIDTH];
+		boolean same = true;
+		for (int y = 0; y < HEIGHT; y++) {
+			reader.readRow(pixels, 0);
+			for (int x = 0; x < WIDTH; x++) {
+				same &= pixels[x] == image.getExpectedPixel(x, y);
+			}
+		}
+		reader.close();
+		check(same, "image data in many chunks");
+	}
+
+	/**
+	 * Tests that an interlaced image is recognized, and that its rows can't
+	 * be read.
+	 */
+	private static void testInterlaced() throws IOException {
+		TestImage image = new TestImage(RGB, 8, false);
+		image.interlaced = true;
+		PngRowReader reader = new PngRowReader(
+				new ByteArrayInputStream(image.encode(1)));
+		check(reader.isInterlaced(), "interlaced: recognized");
+		try {
+			reader.readRow(new int[WIDTH], 0);
+			check(false, "interlaced: rows rejected");
+		} catch (IOException e) {
+			check(true, "interlaced: rows rejected");
+		}
+		reader.close();
+	}
+
+	/**
+	 * Tests that a changed byte in each kind of chunk is found by the CRC.
+	 * In the IDAT chunk the CRC itself is changed, since changed image data
+	 * may be found by the inflater first.
+	 */
+	private static void testCorruptChunks() throws IOException {
+		String[] chunks = {"IHDR", "PLTE", "tRNS", "IDAT"};
+		for (int i = 0; i < chunks.length; i++) {
+			TestImage image = new TestImage(PALETTE, 8, true);
+			byte[] png = image.encode(1);
+			int data = indexOf(png, chunks[i].getBytes("US-ASCII")) + 4;
+			int length = ((png[data - 8] & 0xff) << 24) |
+					((png[data - 7] & 0xff) << 16) |
+					((png[data - 6] & 0xff) << 8) | (png[data - 5] & 0xff);
+			if (chunks[i].equals("IDAT")) {
+				png[data + length] ^= 0x01;
+			} else {
+				// The third byte, which keeps the width in the IHDR valid.
+				png[data + 2] ^= 0x01;
+			}
+			check(readsWithError(png, "CRC"), "corrupt " + chunks[i] + " chunk");
+		}
+	}
+
+	/**
+	 * Tests that a png that ends in the image data gives an EOFException.
+	 */
+	private static void testTruncated() throws IOException {
+		TestImage image = new TestImage(RGB, 8, false);
+		byte[] png = image.encode(1);
+		int end = indexOf(png, "IDAT".getBytes("US-ASCII")) + 20;
+		byte[] truncated = new byte[end];
+		System.arraycopy(png, 0, truncated, 0, end);
+		boolean eof = false;
+		try {
+			readAll(truncated);
+		} catch (EOFException e) {
+			eof = true;
+		}
+		check(eof, "truncated png");
+	}
+
+	/**
+	 * Tests that LevelLoader reads a png row by row, and an interlaced png
+	 * through javax.imageio, into the same tiles as the pixels give.
+	 */
+	private static void testLoadImage() throws IOException {
+		BufferedImage image = new BufferedImage(WIDTH, HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		int[] colors = {0xff0000, 0x00ff00, 0x0000ff, 0xffff00, 0xffffff,
+				0x808080, 0x000000};
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				image.setRGB(x, y, colors[(x + 2 * y) % colors.length]);
+			}
+		}
+		int[] pixels = image.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+		MapImage expected = new MapImage(WIDTH, HEIGHT, pixels);
+
+		File file = File.createTempFile("map", ".png");
+		File interlacedFile = File.createTempFile("map", ".png");
+		try {
+			ImageIO.write(image, "png", file);
+			ImageWriter writer =
+					(ImageWriter) ImageIO.getImageWritersByFormatName("png").next();
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+			ImageOutputStream output = ImageIO.createImageOutputStream(interlacedFile);
+			writer.setOutput(output);
+			writer.write(null, new IIOImage(image, null, null), param);
+			output.close();
+
+			check(sameTiles(expected, LevelLoader.loadImage(file)),
+					"LevelLoader: png");
+			check(sameTiles(expected, LevelLoader.loadImage(interlacedFile)),
+					"LevelLoader: interlaced png");
+		} finally {
+			file.delete();
+			interlacedFile.delete();
+		}
+	}
+
+	/**
+	 * Tells if two maps have the same size and tiles.
+	 */
+	private static boolean sameTiles(MapImage a, MapImage b) {
+		if (a.getWidth() != b.getWidth() || a.getHeight() != b.getHeight()) {
+			return false;
+		}
+		for (int y = 0; y < a.getHeight(); y++) {
+			for (int x = 0; x < a.getWidth(); x++) {
+				if (a.getTileNr(x, y) != b.getTileNr(x, y)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Tells if reading all rows of a png gives an IOException whose message
+	 * contains the given text.
+	 */
+	private static boolean readsWithError(byte[] png, String text) {
+		try {
+			readAll(png);
+			return false;
+		} catch (IOException e) {
+			return e.getMessage() != null && e.getMessage().indexOf(text) >= 0;
+		}
+	}
+
+	/**
+	 * Reads all rows of a png.
+	 */
+	private static void readAll(byte[] png) throws IOException {
+		PngRowReader reader = new PngRowReader(new ByteArrayInputStream(png));
+		try {
+			int[] pixels = new int[reader.getWidth()];
+			for (int y = 0; y < reader.getHeight(); y++) {
+				reader.readRow(pixels, 0);
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Returns the index of the first occurrence of some bytes in an array.
+	 */
+	private static int indexOf(byte[] array, byte[] bytes) {
+		for (int i = 0; i + bytes.length <= array.length; i++) {
+			boolean found = true;
+			for (int j = 0; j < bytes.length && found; j++) {
+				found = array[i + j] == bytes[j];
+			}
+			if (found) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Not found");
+	}
+
+	/**
+	 * Counts a test as passed or failed.
+	 */
+	private static void check(boolean condition, String name) {
+		if (condition) {
+			passed++;
+		} else {
+			failed++;
+			System.out.println("FAILED: " + name);
+		}
+	}
+
+	/**
+	 * An image of generated samples, which can be encoded as a png, and the
+	 * pixels that reading it should give.
+	 */
+	private static class TestImage {
+
+		/**
+		 * The color type and the bit depth.
+		 */
+		private int colorType;
+		private int bitDepth;
+
+		/**
+		 * True if the image has a tRNS chunk.
+		 */
+		private boolean transparency;
+
+		/**
+		 * True if the IHDR says that the image is interlaced. The image
+		 * data isn't interlaced anyway, since it is never read.
+		 */
+		private boolean interlaced;
+
+		/**
+		 * The samples of each pixel, row by row, of bitDepth bits each.
+		 */
+		private int[][] samples;
+
+		/**
+		 * The number of samples of each pixel.
+		 */
+		private int channels;
+
+		/**
+		 * Generates an image.
+		 */
+		TestImage(int colorType, int bitDepth, boolean transparency) {
+			this.colorType = colorType;
+			this.bitDepth = bitDepth;
+			this.transparency = transparency;
+			channels = (colorType == GRAY || colorType == PALETTE) ? 1 :
+					(colorType == GRAY_ALPHA) ? 2 : (colorType == RGB) ? 3 : 4;
+			int maxSample = (1 << bitDepth) - 1;
+			samples = new int[HEIGHT][WIDTH * channels];
+			for (int y = 0; y < HEIGHT; y++) {
+				for (int i = 0; i < WIDTH * channels; i++) {
+					samples[y][i] = ((i * 37 + y * 101) ^ (i * y * 13)) & maxSample;
+				}
+			}
+			if (transparency && colorType != PALETTE) {
+				// Makes the first pixel the transparent color.
+				for (int i = 0; i < channels; i++) {
+					samples[0][i] = getTransparentSample(i);
+				}
+			}
+		}
+
+		/**
+		 * Returns a sample of the transparent color of the tRNS chunk.
+		 */
+		private int getTransparentSample(int channel) {
+			return ((channel + 1) * 0x5a5a) & ((1 << bitDepth) - 1);
+		}
+
+		/**
+		 * Returns the color of a palette entry.
+		 */
+		private int getPaletteColor(int index) {
+			return ((index * 40) & 0xff) << 16 | ((255 - index) & 0xff) << 8 |
+					((index * 7) & 0xff);
+		}
+
+		/**
+		 * Returns the alpha of a palette entry in the tRNS chunk.
+		 */
+		private int getPaletteAlpha(int index) {
+			return (index * 53) & 0xff;
+		}
+
+		/**
+		 * The number of entries in the tRNS chunk, fewer than in the palette
+		 * so that the default alpha is tested too.
+		 */
+		private int getPaletteAlphaCount() {
+			return Math.max(1, (1 << bitDepth) / 2);
+		}
+
+		/**
+		 * Scales a sample to eight bits.
+		 */
+		private int toEightBits(int sample) {
+			if (bitDepth == 16) {
+				return sample >> 8;
+			}
+			return sample * 255 / ((1 << bitDepth) - 1);
+		}
+
+		/**
+		 * Returns the ARGB pixel that a pixel of the image should be read as.
+		 */
+		int getExpectedPixel(int x, int y) {
+			int[] row = samples[y];
+			int i = x * channels;
+			switch (colorType) {
+				case GRAY : {
+					int gray = toEightBits(row[i]);
+					int alpha = (transparency &&
+							row[i] == getTransparentSample(0)) ? 0 : 0xff;
+					return alpha << 24 | gray << 16 | gray << 8 | gray;
+				}
+				case PALETTE : {
+					int alpha = (transparency &&
+							row[i] < getPaletteAlphaCount()) ?
+							getPaletteAlpha(row[i]) : 0xff;
+					return alpha << 24 | getPaletteColor(row[i]);
+				}
+				case GRAY_ALPHA : {
+					int gray = toEightBits(row[i]);
+					return toEightBits(row[i + 1]) << 24 |
+							gray << 16 | gray << 8 | gray;
+				}
+				case RGB : {
+					boolean transparent = transparency &&
+							row[i] == getTransparentSample(0) &&
+							row[i + 1] == getTransparentSample(1) &&
+							row[i + 2] == getTransparentSample(2);
+					return (transparent ? 0 : 0xff) << 24 |
+							toEightBits(row[i]) << 16 |
+							toEightBits(row[i + 1]) << 8 | toEightBits(row[i + 2]);
+				}
+				default :
+					return toEightBits(row[i + 3]) << 24 |
+							toEightBits(row[i]) << 16 |
+							toEightBits(row[i + 1]) << 8 | toEightBits(row[i + 2]);
+			}
+		}
+
+		/**
+		 * Encodes the image as a png. Row y is filtered with filter y % 5.
+		 *
+		 * @param imageDataChunks the number of IDAT chunks to split the
+		 * image data in.
+		 * @return the png.
+		 */
+		byte[] encode(int imageDataChunks) throws IOException {
+			ByteArrayOutputStream png = new ByteArrayOutputStream();
+			png.write(new byte[] {(byte) 137, 80, 78, 71, 13, 10, 26, 10});
+
+			ByteArrayOutputStream header = new ByteArrayOutputStream();
+			DataOutputStream headerData = new DataOutputStream(header);
+			headerData.writeInt(WIDTH);
+			headerData.writeInt(HEIGHT);
+			headerData.writeByte(bitDepth);
+			headerData.writeByte(colorType);
+			headerData.writeByte(0);
+			headerData.writeByte(0);
+			headerData.writeByte(interlaced ? 1 : 0);
+			writeChunk(png, "IHDR", header.toByteArray());
+
+			if (colorType == PALETTE) {
+				int entries = 1 << bitDepth;
+				byte[] palette = new byte[3 * entries];
+				for (int i = 0; i < entries; i++) {
+					int color = getPaletteColor(i);
+					palette[3 * i] = (byte) (color >> 16);
+					palette[3 * i + 1] = (byte) (color >> 8);
+					palette[3 * i + 2] = (byte) color;
+				}
+				writeChunk(png, "PLTE", palette);
+			}
+			if (transparency) {
+				byte[] trns;
+				if (colorType == PALETTE) {
+					trns = new byte[getPaletteAlphaCount()];
+					for (int i = 0; i < trns.length; i++) {
+						trns[i] = (byte) getPaletteAlpha(i);
+					}
+				} else {
+					trns = new byte[2 * channels];
+					for (int i = 0; i < channels; i++) {
+						trns[2 * i] = (byte) (getTransparentSample(i) >> 8);
+						trns[2 * i + 1] = (byte) getTransparentSample(i);
+					}
+				}
+				writeChunk(png, "tRNS", trns);
+			}
+			// An ancillary chunk that the reader skips.
+			writeChunk(png, "tEXt", "Comment\0test".getBytes("US-ASCII"));
+
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			DeflaterOutputStream deflater = new DeflaterOutputStream(compressed,
+					new Deflater(Deflater.BEST_COMPRESSION));
+			int bytesPerPixel = Math.max(1, channels * bitDepth / 8);
+			byte[] previous = new byte[(WIDTH * channels * bitDepth + 7) / 8];
+			for (int y = 0; y < HEIGHT; y++) {
+				byte[] raw = pack(samples[y]);
+				int filter = y % 5;
+				deflater.write(filter);
+				deflater.write(filter(raw, previous, filter, bytesPerPixel));
+				previous = raw;
+			}
+			deflater.close();
+			byte[] data = compressed.toByteArray();
+			int chunkLength = (data.length + imageDataChunks - 1) / imageDataChunks;
+			for (int start = 0; start < data.length; start += chunkLength) {
+				int length = Math.min(chunkLength, data.length - start);
+				byte[] chunk = new byte[length];
+				System.arraycopy(data, start, chunk, 0, length);
+				writeChunk(png, "IDAT", chunk);
+			}
+			writeChunk(png, "IEND", new byte[0]);
+			return png.toByteArray();
+		}
+
+		/**
+		 * Packs a row of samples into bytes, most significant bits first.
+		 */
+		private byte[] pack(int[] rowSamples) {
+			byte[] raw = new byte[(rowSamples.length * bitDepth + 7) / 8];
+			for (int i = 0; i < rowSamples.length; i++) {
+				if (bitDepth == 16) {
+					raw[2 * i] = (byte) (rowSamples[i] >> 8);
+					raw[2 * i + 1] = (byte) rowSamples[i];
+				} else {
+					int bit = i * bitDepth;
+					raw[bit >> 3] |= rowSamples[i] << (8 - bitDepth - (bit & 7));
+				}
+			}
+			return raw;
+		}
+
+		/**
+		 * Filters a row with a filter of the png specification.
+		 */
+		private byte[] filter(byte[] raw, byte[] previous, int filter,
+				int bytesPerPixel) {
+			byte[] filtered = new byte[raw.length];
+			for (int i = 0; i < raw.length; i++) {
+				int left = (i >= bytesPerPixel) ? raw[i - bytesPerPixel] & 0xff : 0;
+				int up = previous[i] & 0xff;
+				int upLeft = (i >= bytesPerPixel) ?
+						previous[i - bytesPerPixel] & 0xff : 0;
+				int prediction;
+				switch (filter) {
+					case 1 :
+						prediction = left;
+						break;
+					case 2 :
+						prediction = up;
+						break;
+					case 3 :
+						prediction = (left + up) >> 1;
+						break;
+					case 4 : {
+						int estimate = left + up - upLeft;
+						int leftDistance = Math.abs(estimate - left);
+						int upDistance = Math.abs(estimate - up);
+						int upLeftDistance = Math.abs(estimate - upLeft);
+						if (leftDistance <= upDistance && leftDistance <= upLeftDistance) {
+							prediction = left;
+						} else if (upDistance <= upLeftDistance) {
+							prediction = up;
+						} else {
+							prediction = upLeft;
+						}
+						break;
+					}
+					default :
+						prediction = 0;
+				}
+				filtered[i] = (byte) (raw[i] - prediction);
+			}
+			return filtered;
+		}
+
+		/**
+		 * Writes a chunk with its length and CRC.
+		 */
+		private static void writeChunk(ByteArrayOutputStream png, String type,
+				byte[] data) throws IOException {
+			DataOutputStream output = new DataOutputStream(png);
+			byte[] typeBytes = type.getBytes("US-ASCII");
+			CRC32 crc = new CRC32();
+			crc.update(typeBytes);
+			crc.update(data);
+			output.writeInt(data.length);
+			output.write(typeBytes);
+			output.write(data);
+			output.writeInt((int) crc.getValue());
+		}
+
+	}
+
+}